@@ -45,6 +45,7 @@ public class GenerateCode32 {
     public GenerateCode32() {
 
         blacklist.add("MatrixSparse");
+        blacklist.add("OffHeap");
 
         String[] sufficeRoot = new String[]{"DRM","DMA","DRB","SCC","STL","DF2","DF3","DF4","DF5","DF6"};
 
@@ -0,0 +1,89 @@
+#!/usr/bin/python
+
+# Compares two sets of JMH results which were saved in JSON format and flags benchmarks which have
+# become slower.  A benchmark has regressed if its score changed by more than the threshold and
+# the change is larger than the combined error of the two measurements.
+#
+# usage: compare_results.py [--threshold 0.05] baseline.json results.json
+#
+# The exit code is 1 if any benchmarks regressed and 0 otherwise.
+
+import argparse
+import json
+import sys
+
+
+def benchmark_key(entry):
+    params = entry.get("params", {})
+    text = ",".join("{}={}".format(k, params[k]) for k in sorted(params))
+    return "{} [{}]".format(entry["benchmark"], text) if text else entry["benchmark"]
+
+
+def load_results(path):
+    with open(path) as f:
+        entries = json.load(f)
+    results = {}
+    for entry in entries:
+        metric = entry["primaryMetric"]
+        # the error is "NaN" when there are too few iterations to compute it
+        error = float(metric.get("scoreError", 0.0))
+        if error != error:
+            error = 0.0
+        results[benchmark_key(entry)] = (entry["mode"], float(metric["score"]), error, metric["scoreUnit"])
+    return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Flags JMH benchmarks which have regressed")
+    parser.add_argument("baseline", help="JSON results which are the reference")
+    parser.add_argument("results", help="JSON results which are being checked")
+    parser.add_argument("--threshold", type=float, default=0.05,
+                        help="fractional change in score which is considered a regression")
+    args = parser.parse_args()
+
+    baseline = load_results(args.baseline)
+    results = load_results(args.results)
+
+    regressions = 0
+    for key in sorted(results):
+        if key not in baseline:
+            print("NEW        {}".format(key))
+            continue
+
+        mode, score, error, unit = results[key]
+        mode_b, score_b, error_b, unit_b = baseline[key]
+
+        if mode != mode_b or unit != unit_b or score_b == 0:
+            print("SKIPPED    {}  mode or units changed".format(key))
+            continue
+
+        # throughput is better when larger, all the other modes measure time
+        if mode == "thrpt":
+            change = (score_b - score) / score_b
+        else:
+            change = (score - score_b) / score_b
+
+        significant = abs(score - score_b) > error + error_b
+
+        if change > args.threshold and significant:
+            status = "REGRESSION"
+            regressions += 1
+        elif change < -args.threshold and significant:
+            status = "IMPROVED  "
+        else:
+            status = "OK        "
+
+        print("{} {}  {:.4g} -> {:.4g} {} ({:+.1f}%)".format(
+            status, key, score_b, score, unit, 100.0 * change))
+
+    for key in sorted(baseline):
+        if key not in results:
+            print("MISSING    {}".format(key))
+
+    print("")
+    print("{} regressions out of {} benchmarks".format(regressions, len(results)))
+    sys.exit(1 if regressions > 0 else 0)
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row;
+
+import org.ejml.data.DMatrixRMaj;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the most commonly used operations in {@link CommonOps_DDRM} across a range of matrix sizes.
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkCommonOps_DDRM {
+
+    @Param({"10","100","500","1000"})
+    public int size;
+
+    public DMatrixRMaj A,B,C;
+    // column vectors
+    public DMatrixRMaj b,x;
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(234);
+
+        A = RandomMatrices_DDRM.rectangle(size,size,-1,1,rand);
+        B = RandomMatrices_DDRM.rectangle(size,size,-1,1,rand);
+        C = new DMatrixRMaj(size,size);
+        b = RandomMatrices_DDRM.rectangle(size,1,-1,1,rand);
+        x = new DMatrixRMaj(size,1);
+    }
+
+    @Benchmark
+    public DMatrixRMaj mult() {
+        CommonOps_DDRM.mult(A,B,C);
+        return C;
+    }
+
+    @Benchmark
+    public DMatrixRMaj multTransA() {
+        CommonOps_DDRM.multTransA(A,B,C);
+        return C;
+    }
+
+    @Benchmark
+    public DMatrixRMaj multTransB() {
+        CommonOps_DDRM.multTransB(A,B,C);
+        return C;
+    }
+
+    @Benchmark
+    public DMatrixRMaj transpose() {
+        return CommonOps_DDRM.transpose(A,C);
+    }
+
+    @Benchmark
+    public boolean invert() {
+        return CommonOps_DDRM.invert(A,C);
+    }
+
+    @Benchmark
+    public boolean solve() {
+        return CommonOps_DDRM.solve(A,b,x);
+    }
+
+    @Benchmark
+    public boolean solveMatrix() {
+        return CommonOps_DDRM.solve(A,B,C);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the decompositions returned by {@link DecompositionFactory_DDRM}.  Since the factory selects
+ * the algorithm based on the matrix size this will also detect when a switch point is poorly chosen.
+ *
+ * @author Peter Abeles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Fork(value = 1)
+public class BenchmarkDecompositions_DDRM {
+
+    @Param({"10","100","500","1000"})
+    public int size;
+
+    public DMatrixRMaj A,symmPosDef,symm;
+    // copy of the input which is decomposed, in case the decomposition modifies its input
+    public DMatrixRMaj work;
+
+    CholeskyDecomposition_F64<DMatrixRMaj> chol;
+    CholeskyLDLDecomposition_F64<DMatrixRMaj> cholLDL;
+    LUDecomposition_F64<DMatrixRMaj> lu;
+    QRDecomposition<DMatrixRMaj> qr;
+    QRPDecomposition_F64<DMatrixRMaj> qrp;
+    SingularValueDecomposition_F64<DMatrixRMaj> svd;
+    EigenDecomposition_F64<DMatrixRMaj> eigSymm;
+    EigenDecomposition_F64<DMatrixRMaj> eigGeneral;
+    TridiagonalSimilarDecomposition_F64<DMatrixRMaj> tridiagonal;
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(234);
+
+        A = RandomMatrices_DDRM.rectangle(size,size,-1,1,rand);
+        symmPosDef = RandomMatrices_DDRM.symmetricPosDef(size,rand);
+        symm = RandomMatrices_DDRM.symmetric(size,-1,1,rand);
+        work = new DMatrixRMaj(size,size);
+
+        chol = DecompositionFactory_DDRM.chol(size,true);
+        cholLDL = DecompositionFactory_DDRM.cholLDL(size);
+        lu = DecompositionFactory_DDRM.lu(size,size);
+        qr = DecompositionFactory_DDRM.qr(size,size);
+        qrp = DecompositionFactory_DDRM.qrp(size,size);
+        svd = DecompositionFactory_DDRM.svd(size,size,true,true,true);
+        eigSymm = DecompositionFactory_DDRM.eig(size,true,true);
+        eigGeneral = DecompositionFactory_DDRM.eig(size,true,false);
+        tridiagonal = DecompositionFactory_DDRM.tridiagonal(size);
+    }
+
+    private boolean decompose( DecompositionInterface<DMatrixRMaj> alg , DMatrixRMaj M ) {
+        work.set(M);
+        return alg.decompose(work);
+    }
+
+    @Benchmark
+    public boolean chol() {
+        return decompose(chol,symmPosDef);
+    }
+
+    @Benchmark
+    public boolean cholLDL() {
+        return decompose(cholLDL,symmPosDef);
+    }
+
+    @Benchmark
+    public boolean lu() {
+        return decompose(lu,A);
+    }
+
+    @Benchmark
+    public boolean qr() {
+        return decompose(qr,A);
+    }
+
+    @Benchmark
+    public boolean qrp() {
+        return decompose(qrp,A);
+    }
+
+    @Benchmark
+    public boolean svd() {
+        return decompose(svd,A);
+    }
+
+    @Benchmark
+    public boolean eigSymm() {
+        return decompose(eigSymm,symm);
+    }
+
+    @Benchmark
+    public boolean eigGeneral() {
+        return decompose(eigGeneral,A);
+    }
+
+    @Benchmark
+    public boolean tridiagonal() {
+        return decompose(tridiagonal,symm);
+    }
+}
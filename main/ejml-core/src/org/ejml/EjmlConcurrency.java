@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Manages the thread pool which is used by concurrent algorithms.  By default a {@link ForkJoinPool} with one
+ * thread per available processor is lazily created.  A different pool can be provided with {@link #setPool}, which
+ * is useful when EJML should share threads with the rest of an application.
+ * </p>
+ *
+ * <p>
+ * Concurrent algorithms are only selected by high level operations when {@link EjmlParameters#CONCURRENT} is
+ * true and the pool has more than one thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class EjmlConcurrency {
+
+    /**
+     * Number of tasks per thread a range is split into.  More than one task per thread helps
+     * balance the load when threads run at different speeds.
+     */
+    public static int TASKS_PER_THREAD = 4;
+
+    private static ForkJoinPool pool;
+
+    /**
+     * Returns the thread pool used by concurrent algorithms.  If none has been specified then one is created.
+     */
+    public static synchronized ForkJoinPool getPool() {
+        if( pool == null )
+            pool = new ForkJoinPool();
+        return pool;
+    }
+
+    /**
+     * Specifies the thread pool used by concurrent algorithms.  The previous pool is not shutdown.
+     *
+     * @param pool The new thread pool.  If null then the default pool will be created the next time it's needed.
+     */
+    public static synchronized void setPool( ForkJoinPool pool ) {
+        EjmlConcurrency.pool = pool;
+    }
+
+    /**
+     * Convenience function for replacing the pool with a new one that has the specified number of threads.
+     * The previous pool is shutdown.
+     *
+     * @param threads Number of threads.  Must be &ge; 1
+     */
+    public static synchronized void setMaxThreads( int threads ) {
+        if( threads < 1 )
+            throw new IllegalArgumentException("Number of threads must be at least one");
+        if( pool != null )
+            pool.shutdown();
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Number of threads in the pool
+     */
+    public static int getMaxThreads() {
+        return getPool().getParallelism();
+    }
+
+    /**
+     * Returns true if concurrent algorithms should be used.
+     */
+    public static boolean isUseConcurrent() {
+        return EjmlParameters.CONCURRENT && getMaxThreads() > 1;
+    }
+
+    /**
+     * <p>
+     * Splits the range [start,end) into blocks and processes them inside the thread pool.  Blocks are never
+     * smaller than minBlock, unless the range itself is smaller.  This function blocks until all
+     * the work has finished.  If it's invoked from inside a worker thread then the work is performed in
+     * that thread's pool.
+     * </p>
+     *
+     * <p>
+     * If any block throws an exception then it's rethrown in the calling thread.
+     * </p>
+     *
+     * @param start First index in the range, inclusive.
+     * @param end Last index in the range, exclusive.
+     * @param minBlock Minimum number of elements in a block.
+     * @param task Processes a single block.
+     */
+    public static void loopBlocks( int start , int end , int minBlock , RangeTask task ) {
+        int length = end-start;
+        if( length <= 0 )
+            return;
+
+        int numBlocks = getMaxThreads()*TASKS_PER_THREAD;
+        int blockLength = Math.max(Math.max(1,minBlock),(length+numBlocks-1)/numBlocks);
+
+        RangeAction action = new RangeAction(start,end,blockLength,task);
+        if( ForkJoinTask.inForkJoinPool() ) {
+            action.invoke();
+        } else {
+            getPool().invoke(action);
+        }
+    }
+
+    /**
+     * Processes all the elements in a block of indexes.
+     */
+    public interface RangeTask {
+        /**
+         * @param start First index in the block, inclusive.
+         * @param end Last index in the block, exclusive.
+         */
+        void process( int start , int end );
+    }
+
+    /**
+     * Recursively divides the range until the block length has been reached
+     */
+    private static class RangeAction extends RecursiveAction {
+        int start,end,blockLength;
+        RangeTask task;
+
+        public RangeAction(int start, int end, int blockLength, RangeTask task) {
+            this.start = start;
+            this.end = end;
+            this.blockLength = blockLength;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if( end-start <= blockLength ) {
+                task.process(start,end);
+            } else {
+                // split along a block boundary so that every block has the same size
+                int numBlocks = (end-start+blockLength-1)/blockLength;
+                int middle = start + (numBlocks/2)*blockLength;
+                invokeAll(new RangeAction(start,middle,blockLength,task),
+                        new RangeAction(middle,end,blockLength,task));
+            }
+        }
+    }
+}
@@ -18,10 +18,21 @@
 
 package org.ejml;
 
+import java.io.*;
+import java.util.Properties;
 
 /**
+ * <p>
  * This is a list of parameters that are used across the code.  To tune performance
  * for a particular system change these values.
+ * </p>
+ *
+ * <p>
+ * The values can also be loaded from a profile, which is a properties file where the keys are the names of
+ * the parameters.  When this class is loaded it will look for a profile in the file specified by the system
+ * property {@link #PROFILE_PROPERTY}, then for a resource named {@link #PROFILE_FILE} on the class path.
+ * A profile tuned for the current computer can be created with AutoTuneEjmlParameters in ejml-ddense.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -81,6 +92,238 @@ public class EjmlParameters {
 
     public static int SWITCH_BLOCK64_QR = 1500;
 
+    /**
+     * At which point should it switch to the block LU algorithm.  Below this size the row major algorithm
+     * is slightly faster, above it the block algorithm is faster since it makes better use of the cache.
+     */
+    public static int SWITCH_BLOCK64_LU = 500;
+
+    /**
+     * At which point should SVD switch to the divide and conquer algorithm, based on the smaller of the two
+     * matrix dimensions.  Only used when singular vectors are computed.  Below this size the implicit QR algorithm
+     * is about as fast.  Above it the divide and conquer algorithm is faster since most of the work is done by
+     * matrix multiplications instead of rotations.
+     */
+    public static int SWITCH_SVD_DIVIDE_CONQUER = 500;
+
+    /**
+     * At which point should the symmetric eigen decomposition switch to the divide and conquer algorithm.  Only
+     * used when eigenvectors are computed.
+     */
+    public static int SWITCH_EIG_DIVIDE_CONQUER = 500;
+
+    /**
+     * At which point should the general eigen decomposition switch to the multishift QR algorithm with
+     * aggressive early deflation.  Below this size the double shift QR algorithm is about as fast.
+     */
+    public static int SWITCH_EIG_MULTISHIFT = 100;
+
+    /**
+     * If true then concurrent (multi-threaded) algorithms can be selected when a matrix is large enough.  The
+     * thread pool is managed by {@link EjmlConcurrency}.
+     */
+    public static boolean CONCURRENT = true;
+
+    /**
+     * Matrix multiplications with at least this many multiply-add operations (rows of C * columns of C * inner
+     * dimension) will be computed concurrently.  Below this point the overhead of threads is not worth it.
+     */
+    public static long MULT_CONCURRENT_SWITCH = 100*100*100;
+
+    /**
+     * Name of the system property which specifies the location of a profile
+     */
+    public static final String PROFILE_PROPERTY = "ejml.profile";
+
+    /**
+     * Name of the profile which is searched for on the class path
+     */
+    public static final String PROFILE_FILE = "ejml-profile.properties";
+
+    static {
+        loadDefaultProfile();
+    }
+
+    /**
+     * Loads the profile specified by the {@link #PROFILE_PROPERTY} system property or, if that isn't set,
+     * {@link #PROFILE_FILE} from the class path.  If neither are found then nothing is changed.  Errors are
+     * printed to standard error and the default values are used instead.
+     */
+    public static void loadDefaultProfile() {
+        try {
+            String fileName = System.getProperty(PROFILE_PROPERTY);
+            if( fileName != null ) {
+                loadProfile(fileName);
+            } else {
+                InputStream in = EjmlParameters.class.getClassLoader() == null ? null :
+                        EjmlParameters.class.getClassLoader().getResourceAsStream(PROFILE_FILE);
+                if( in != null ) {
+                    try {
+                        loadProfile(in);
+                    } finally {
+                        in.close();
+                    }
+                }
+            }
+        } catch( IOException | RuntimeException e ) {
+            System.err.println("Failed to load EJML profile. "+e.getMessage());
+        }
+    }
+
+    /**
+     * Loads a profile from a file.
+     *
+     * @param fileName Location of the profile
+     * @throws IOException If the file can't be read
+     */
+    public static void loadProfile( String fileName ) throws IOException {
+        InputStream in = new FileInputStream(fileName);
+        try {
+            loadProfile(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads a profile from a stream.
+     *
+     * @param in Stream containing the profile in properties format
+     * @throws IOException If the stream can't be read
+     */
+    public static void loadProfile( InputStream in ) throws IOException {
+        Properties profile = new Properties();
+        profile.load(in);
+        setProfile(profile);
+    }
+
+    /**
+     * Saves the current value of all the parameters into a profile.
+     *
+     * @param fileName Where the profile is written to
+     * @param comment Comment which is written at the top of the file.  Can be null.
+     * @throws IOException If the file can't be written to
+     */
+    public static void saveProfile( String fileName , String comment ) throws IOException {
+        OutputStream out = new FileOutputStream(fileName);
+        try {
+            getProfile().store(out,comment);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Returns the current value of all the parameters which can be saved in a profile.
+     */
+    public static Properties getProfile() {
+        Properties profile = new Properties();
+
+        profile.setProperty("MEMORY", MEMORY.name());
+        profile.setProperty("BLOCK_WIDTH", Integer.toString(BLOCK_WIDTH));
+        profile.setProperty("BLOCK_WIDTH_CHOL", Integer.toString(BLOCK_WIDTH_CHOL));
+        profile.setProperty("TRANSPOSE_SWITCH", Integer.toString(TRANSPOSE_SWITCH));
+        profile.setProperty("MULT_COLUMN_SWITCH", Integer.toString(MULT_COLUMN_SWITCH));
+        profile.setProperty("MULT_TRANAB_COLUMN_SWITCH", Integer.toString(MULT_TRANAB_COLUMN_SWITCH));
+        profile.setProperty("MULT_INNER_SWITCH", Integer.toString(MULT_INNER_SWITCH));
+        profile.setProperty("CMULT_COLUMN_SWITCH", Integer.toString(CMULT_COLUMN_SWITCH));
+        profile.setProperty("CMULT_TRANAB_COLUMN_SWITCH", Integer.toString(CMULT_TRANAB_COLUMN_SWITCH));
+        profile.setProperty("SWITCH_BLOCK64_CHOLESKY", Integer.toString(SWITCH_BLOCK64_CHOLESKY));
+        profile.setProperty("SWITCH_BLOCK64_QR", Integer.toString(SWITCH_BLOCK64_QR));
+        profile.setProperty("SWITCH_BLOCK64_LU", Integer.toString(SWITCH_BLOCK64_LU));
+        profile.setProperty("SWITCH_SVD_DIVIDE_CONQUER", Integer.toString(SWITCH_SVD_DIVIDE_CONQUER));
+        profile.setProperty("SWITCH_EIG_DIVIDE_CONQUER", Integer.toString(SWITCH_EIG_DIVIDE_CONQUER));
+        profile.setProperty("SWITCH_EIG_MULTISHIFT", Integer.toString(SWITCH_EIG_MULTISHIFT));
+        profile.setProperty("CONCURRENT", Boolean.toString(CONCURRENT));
+        profile.setProperty("MULT_CONCURRENT_SWITCH", Long.toString(MULT_CONCURRENT_SWITCH));
+
+        return profile;
+    }
+
+    /**
+     * Changes the value of parameters to the ones in the profile.  Parameters which are not in the
+     * profile are not modified.  Every value is parsed and validated before any parameter is changed, so if
+     * the profile has a bad value then none of the parameters are modified.
+     *
+     * @param profile Parameter names and their values
+     * @throws IllegalArgumentException If a value can't be parsed or is out of range
+     */
+    public static void setProfile( Properties profile ) {
+        MemoryUsage memory = MEMORY;
+        if( profile.containsKey("MEMORY") )
+            memory = MemoryUsage.valueOf(profile.getProperty("MEMORY").trim());
+        int blockWidth = getInt(profile,"BLOCK_WIDTH",BLOCK_WIDTH,1);
+        int blockWidthChol = getInt(profile,"BLOCK_WIDTH_CHOL",BLOCK_WIDTH_CHOL,1);
+        int transposeSwitch = getInt(profile,"TRANSPOSE_SWITCH",TRANSPOSE_SWITCH,0);
+        int multColumnSwitch = getInt(profile,"MULT_COLUMN_SWITCH",MULT_COLUMN_SWITCH,0);
+        int multTranabColumnSwitch = getInt(profile,"MULT_TRANAB_COLUMN_SWITCH",MULT_TRANAB_COLUMN_SWITCH,0);
+        int multInnerSwitch = getInt(profile,"MULT_INNER_SWITCH",MULT_INNER_SWITCH,0);
+        int cmultColumnSwitch = getInt(profile,"CMULT_COLUMN_SWITCH",CMULT_COLUMN_SWITCH,0);
+        int cmultTranabColumnSwitch = getInt(profile,"CMULT_TRANAB_COLUMN_SWITCH",CMULT_TRANAB_COLUMN_SWITCH,0);
+        int switchBlock64Cholesky = getInt(profile,"SWITCH_BLOCK64_CHOLESKY",SWITCH_BLOCK64_CHOLESKY,0);
+        int switchBlock64QR = getInt(profile,"SWITCH_BLOCK64_QR",SWITCH_BLOCK64_QR,0);
+        int switchBlock64LU = getInt(profile,"SWITCH_BLOCK64_LU",SWITCH_BLOCK64_LU,0);
+        int switchSvdDivideConquer = getInt(profile,"SWITCH_SVD_DIVIDE_CONQUER",SWITCH_SVD_DIVIDE_CONQUER,0);
+        int switchEigDivideConquer = getInt(profile,"SWITCH_EIG_DIVIDE_CONQUER",SWITCH_EIG_DIVIDE_CONQUER,0);
+        int switchEigMultishift = getInt(profile,"SWITCH_EIG_MULTISHIFT",SWITCH_EIG_MULTISHIFT,0);
+        boolean concurrent = getBoolean(profile,"CONCURRENT",CONCURRENT);
+        long multConcurrentSwitch = getLong(profile,"MULT_CONCURRENT_SWITCH",MULT_CONCURRENT_SWITCH,0);
+
+        // everything is valid so now the parameters can be changed
+        MEMORY = memory;
+        BLOCK_WIDTH = blockWidth;
+        BLOCK_WIDTH_CHOL = blockWidthChol;
+        BLOCK_SIZE = BLOCK_WIDTH*BLOCK_WIDTH;
+        TRANSPOSE_SWITCH = transposeSwitch;
+        MULT_COLUMN_SWITCH = multColumnSwitch;
+        MULT_TRANAB_COLUMN_SWITCH = multTranabColumnSwitch;
+        MULT_INNER_SWITCH = multInnerSwitch;
+        CMULT_COLUMN_SWITCH = cmultColumnSwitch;
+        CMULT_TRANAB_COLUMN_SWITCH = cmultTranabColumnSwitch;
+        SWITCH_BLOCK64_CHOLESKY = switchBlock64Cholesky;
+        SWITCH_BLOCK64_QR = switchBlock64QR;
+        SWITCH_BLOCK64_LU = switchBlock64LU;
+        SWITCH_SVD_DIVIDE_CONQUER = switchSvdDivideConquer;
+        SWITCH_EIG_DIVIDE_CONQUER = switchEigDivideConquer;
+        SWITCH_EIG_MULTISHIFT = switchEigMultishift;
+        CONCURRENT = concurrent;
+        MULT_CONCURRENT_SWITCH = multConcurrentSwitch;
+    }
+
+    private static int getInt( Properties profile , String name , int defaultValue , int minimum ) {
+        long value = getLong(profile,name,defaultValue,minimum);
+        if( value > Integer.MAX_VALUE )
+            throw new IllegalArgumentException(name+" is too large: "+value);
+        return (int)value;
+    }
+
+    private static long getLong( Properties profile , String name , long defaultValue , long minimum ) {
+        String text = profile.getProperty(name);
+        if( text == null )
+            return defaultValue;
+        long value;
+        try {
+            value = Long.parseLong(text.trim());
+        } catch( NumberFormatException e ) {
+            throw new IllegalArgumentException("Can't parse "+name+": "+text);
+        }
+        if( value < minimum )
+            throw new IllegalArgumentException(name+" must be at least "+minimum+": "+value);
+        return value;
+    }
+
+    private static boolean getBoolean( Properties profile , String name , boolean defaultValue ) {
+        String text = profile.getProperty(name);
+        if( text == null )
+            return defaultValue;
+        text = text.trim();
+        if( text.equalsIgnoreCase("true") )
+            return true;
+        if( text.equalsIgnoreCase("false") )
+            return false;
+        throw new IllegalArgumentException("Can't parse "+name+": "+text);
+    }
+
     public static enum MemoryUsage
     {
         /**
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A batch of many small matrices which all have the same shape, stored in a structure-of-arrays layout.  Element
+ * (row,col) of every matrix in the batch is stored in a contiguous block of the data array.  Element (row,col) of
+ * matrix 'index' is at:
+ * </p>
+ * <pre>
+ * data[ (row*numCols + col)*size + index ]
+ * </pre>
+ * <p>
+ * When the same operation is applied to every matrix in the batch the inner loop is over the batch index, which
+ * reads and writes consecutive elements.  This is the memory access pattern a JIT can vectorize and is much more
+ * cache friendly than an array of {@link DMatrixFixed} objects.  See BatchOps_DDF2 to BatchOps_DDF6.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DMatrixBatch implements Serializable {
+    /**
+     * Storage for all the matrices in the batch.  Can be larger than the number of elements.
+     */
+    public double[] data = new double[0];
+
+    /**
+     * Number of rows in each matrix
+     */
+    public int numRows;
+    /**
+     * Number of columns in each matrix
+     */
+    public int numCols;
+    /**
+     * Number of matrices in the batch
+     */
+    public int size;
+
+    /**
+     * Creates a batch of matrices with every element set to zero.
+     *
+     * @param size Number of matrices in the batch
+     * @param numRows Number of rows in each matrix
+     * @param numCols Number of columns in each matrix
+     */
+    public DMatrixBatch( int size , int numRows , int numCols ) {
+        reshape(size, numRows, numCols);
+    }
+
+    public DMatrixBatch( DMatrixBatch original ) {
+        set(original);
+    }
+
+    public DMatrixBatch() {
+    }
+
+    /**
+     * Changes the number of matrices and their shape.  If the data array needs to grow then a new one is
+     * declared and the previous values are lost.  Otherwise the values are undefined after reshaping.
+     *
+     * @param size Number of matrices in the batch
+     * @param numRows Number of rows in each matrix
+     * @param numCols Number of columns in each matrix
+     */
+    public void reshape( int size , int numRows , int numCols ) {
+        if( size < 0 || numRows < 0 || numCols < 0 )
+            throw new IllegalArgumentException("Size and shape can't be negative");
+        long length = (long)size*numRows*numCols;
+        if( length > Integer.MAX_VALUE )
+            throw new IllegalArgumentException("Too many elements for a single array. "+length);
+        if( data.length < length )
+            data = new double[(int)length];
+        this.size = size;
+        this.numRows = numRows;
+        this.numCols = numCols;
+    }
+
+    /**
+     * Returns the index of element (row,col) in matrix 'index' inside the data array
+     */
+    public int getIndex( int index , int row , int col ) {
+        return (row*numCols + col)*size + index;
+    }
+
+    public double get( int index , int row , int col ) {
+        check(index, row, col);
+        return data[(row*numCols + col)*size + index];
+    }
+
+    public void set( int index , int row , int col , double value ) {
+        check(index, row, col);
+        data[(row*numCols + col)*size + index] = value;
+    }
+
+    private void check( int index , int row , int col ) {
+        if( index < 0 || index >= size )
+            throw new IllegalArgumentException("Matrix index out of bounds. "+index);
+        if( row < 0 || row >= numRows || col < 0 || col >= numCols )
+            throw new IllegalArgumentException("Row and/or column out of range. "+row+" "+col);
+    }
+
+    /**
+     * Copies matrix 'index' into 'output'
+     *
+     * @param index Which matrix in the batch
+     * @param output Storage for the matrix.  Must have the same shape.  Modified.
+     */
+    public void getMatrix( int index , DMatrix output ) {
+        if( output.getNumRows() != numRows || output.getNumCols() != numCols )
+            throw new IllegalArgumentException("Rows and/or columns do not match");
+        if( index < 0 || index >= size )
+            throw new IllegalArgumentException("Matrix index out of bounds. "+index);
+
+        int offset = index;
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++, offset += size ) {
+                output.unsafe_set(row,col,data[offset]);
+            }
+        }
+    }
+
+    /**
+     * Copies 'input' into matrix 'index'
+     *
+     * @param index Which matrix in the batch
+     * @param input The matrix which is copied.  Must have the same shape.  Not modified.
+     */
+    public void setMatrix( int index , DMatrix input ) {
+        if( input.getNumRows() != numRows || input.getNumCols() != numCols )
+            throw new IllegalArgumentException("Rows and/or columns do not match");
+        if( index < 0 || index >= size )
+            throw new IllegalArgumentException("Matrix index out of bounds. "+index);
+
+        int offset = index;
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++, offset += size ) {
+                data[offset] = input.unsafe_get(row,col);
+            }
+        }
+    }
+
+    /**
+     * Sets every element in every matrix to zero
+     */
+    public void zero() {
+        Arrays.fill(data, 0, getNumElements(), 0);
+    }
+
+    /**
+     * Copies the shape and values of 'original'
+     */
+    public void set( DMatrixBatch original ) {
+        reshape(original.size, original.numRows, original.numCols);
+        System.arraycopy(original.data, 0, data, 0, getNumElements());
+    }
+
+    public DMatrixBatch copy() {
+        return new DMatrixBatch(this);
+    }
+
+    /**
+     * Number of elements in all the matrices
+     */
+    public int getNumElements() {
+        return size*numRows*numCols;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
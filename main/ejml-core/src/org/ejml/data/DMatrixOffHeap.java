@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.ejml.ops.MatrixIO;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * <p>
+ * Dense real matrix with its elements stored outside of the Java heap in row-major order.  Elements are indexed
+ * using a long so the number of elements isn't limited to 2<sup>31</sup>, and since the data isn't on the heap
+ * the garbage collector never scans or copies it.  Elements are stored in {@link DoubleBuffer} chunks with
+ * 2<sup>chunkBits</sup> elements, except for the last chunk which can be shorter.  The chunks are either direct
+ * buffers allocated by this class or provided by the user, e.g. memory mapped from a file using
+ * {@link org.ejml.ops.MappedMatrix#asMatrix()}.
+ * </p>
+ *
+ * <p>
+ * Accessing individual elements is much slower than with {@link DMatrixRMaj}.  Operations should copy
+ * blocks of elements to and from the heap using {@link #read} and {@link #write}, which is what the operations
+ * in CommonOps_DDOH do.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DMatrixOffHeap implements DMatrix, ReshapeMatrix {
+
+    /**
+     * Default number of bits used to index elements in a chunk.  A chunk has 2<sup>27</sup> elements, which is 1 GB.
+     */
+    public static final int CHUNK_BITS = 27;
+
+    /**
+     * Number of rows in the matrix.
+     */
+    public int numRows;
+    /**
+     * Number of columns in the matrix.
+     */
+    public int numCols;
+
+    // storage for the elements
+    private transient DoubleBuffer chunks[] = new DoubleBuffer[0];
+    // number of bits used to index elements inside a chunk
+    private int chunkBits;
+    private transient long chunkMask;
+    // true if the chunks were provided by the user and can't be replaced
+    private transient boolean external;
+
+    /**
+     * Creates a new matrix with all elements set to zero.
+     *
+     * @param numRows Number of rows
+     * @param numCols Number of columns
+     */
+    public DMatrixOffHeap( int numRows , int numCols ) {
+        this(numRows,numCols,CHUNK_BITS);
+    }
+
+    /**
+     * Creates a new matrix with all elements set to zero.
+     *
+     * @param numRows Number of rows
+     * @param numCols Number of columns
+     * @param chunkBits Each chunk has 2<sup>chunkBits</sup> elements.  Must be from 0 to 27.
+     */
+    public DMatrixOffHeap( int numRows , int numCols , int chunkBits ) {
+        if( chunkBits < 0 || chunkBits > CHUNK_BITS )
+            throw new IllegalArgumentException("chunkBits must be from 0 to "+CHUNK_BITS);
+        setChunkBits(chunkBits);
+        reshape(numRows,numCols);
+    }
+
+    /**
+     * Creates a matrix which uses the provided chunks as storage.  Used to wrap memory which was allocated
+     * elsewhere, such as a memory mapped file.  The chunks are not copied.  The matrix can't be reshaped
+     * to more elements than the chunks can hold.
+     *
+     * @param chunks Storage for the elements.  Every chunk, except the last, must have 2<sup>chunkBits</sup> elements
+     * @param chunkBits Number of bits used to index elements in a chunk
+     * @param numRows Number of rows
+     * @param numCols Number of columns
+     */
+    public DMatrixOffHeap( DoubleBuffer chunks[] , int chunkBits , int numRows , int numCols ) {
+        if( chunkBits < 0 || chunkBits > 30 )
+            throw new IllegalArgumentException("chunkBits must be from 0 to 30");
+        setChunkBits(chunkBits);
+        long capacity = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            if( i < chunks.length-1 && chunks[i].capacity() != 1 << chunkBits )
+                throw new IllegalArgumentException("All but the last chunk must have 2^chunkBits elements");
+            capacity += chunks[i].capacity();
+        }
+        if( capacity < (long)numRows*numCols )
+            throw new IllegalArgumentException("Chunks are too small for the matrix");
+        this.chunks = chunks;
+        this.external = true;
+        this.numRows = numRows;
+        this.numCols = numCols;
+    }
+
+    private void setChunkBits( int chunkBits ) {
+        this.chunkBits = chunkBits;
+        this.chunkMask = (1L << chunkBits)-1;
+    }
+
+    /**
+     * Changes the matrix's shape.  If more storage is needed then new memory is allocated and the
+     * values are not saved, otherwise the current storage is used.  A matrix which wraps chunks provided by the
+     * user can't grow, since it would silently stop referencing them, e.g. a memory mapped file.
+     *
+     * @param numRows The new number of rows in the matrix.
+     * @param numCols The new number of columns in the matrix.
+     * @throws IllegalArgumentException If it wraps user provided chunks and they are too small
+     */
+    @Override
+    public void reshape( int numRows , int numCols ) {
+        if( numRows < 0 || numCols < 0 )
+            throw new IllegalArgumentException("Number of rows and columns can't be negative");
+        long length = (long)numRows*numCols;
+        if( length > getCapacity() ) {
+            if( external )
+                throw new IllegalArgumentException("Can't grow a matrix which wraps external storage");
+            chunks = null;
+            allocate(length);
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+    }
+
+    private void allocate( long length ) {
+        int numChunks = (int)((length + chunkMask) >>> chunkBits);
+        chunks = new DoubleBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            long size = Math.min(length - ((long)i << chunkBits),1L << chunkBits);
+            chunks[i] = ByteBuffer.allocateDirect((int)size*8).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Total number of elements which can be stored without allocating more memory
+     */
+    public long getCapacity() {
+        if( chunks.length == 0 )
+            return 0;
+        return ((long)(chunks.length-1) << chunkBits) + chunks[chunks.length-1].capacity();
+    }
+
+    /**
+     * Returns the number of elements in the matrix as a long.
+     */
+    public long getDataLength() {
+        return (long)numRows*numCols;
+    }
+
+    /**
+     * Returns the index of an element in row-major order
+     */
+    public long getIndex( int row , int col ) {
+        return (long)row*numCols + col;
+    }
+
+    /**
+     * Returns the value of the element at the specified index in row-major order.
+     */
+    public double get( long index ) {
+        return chunks[(int)(index >>> chunkBits)].get((int)(index & chunkMask));
+    }
+
+    /**
+     * Sets the value of the element at the specified index in row-major order.
+     */
+    public void set( long index , double value ) {
+        chunks[(int)(index >>> chunkBits)].put((int)(index & chunkMask),value);
+    }
+
+    /**
+     * Copies a sequence of elements, in row-major order, onto the heap.  Can be safely called by multiple threads.
+     *
+     * @param index Index of the first element in the matrix
+     * @param dst (Output) Where the elements are copied to
+     * @param offset Index of the first element in dst
+     * @param length Number of elements which are copied
+     */
+    public void read( long index , double dst[] , int offset , int length ) {
+        while( length > 0 ) {
+            DoubleBuffer chunk = chunks[(int)(index >>> chunkBits)].duplicate();
+            int start = (int)(index & chunkMask);
+            int n = Math.min(length,chunk.capacity()-start);
+            chunk.position(start);
+            chunk.get(dst,offset,n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Copies a sequence of elements, in row-major order, from the heap into the matrix.  Can be safely called
+     * by multiple threads when they write to different elements.
+     *
+     * @param index Index of the first element in the matrix
+     * @param src Array containing the elements
+     * @param offset Index of the first element in src
+     * @param length Number of elements which are copied
+     */
+    public void write( long index , double src[] , int offset , int length ) {
+        while( length > 0 ) {
+            DoubleBuffer chunk = chunks[(int)(index >>> chunkBits)].duplicate();
+            int start = (int)(index & chunkMask);
+            int n = Math.min(length,chunk.capacity()-start);
+            chunk.position(start);
+            chunk.put(src,offset,n);
+            index += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Sets every element to zero
+     */
+    public void zero() {
+        double zeros[] = new double[(int)Math.min(getDataLength(),1 << 16)];
+        long length = getDataLength();
+        for( long i = 0; i < length; i += zeros.length ) {
+            write(i,zeros,0,(int)Math.min(zeros.length,length-i));
+        }
+    }
+
+    @Override
+    public double get( int row , int col ) {
+        if( row < 0 || row >= numRows || col < 0 || col >= numCols )
+            throw new IllegalArgumentException("Specified element is out of bounds: ("+row+" , "+col+")");
+        return get(getIndex(row,col));
+    }
+
+    @Override
+    public double unsafe_get( int row , int col ) {
+        return get(getIndex(row,col));
+    }
+
+    @Override
+    public void set( int row , int col , double val ) {
+        if( row < 0 || row >= numRows || col < 0 || col >= numCols )
+            throw new IllegalArgumentException("Specified element is out of bounds: ("+row+" , "+col+")");
+        set(getIndex(row,col),val);
+    }
+
+    @Override
+    public void unsafe_set( int row , int col , double val ) {
+        set(getIndex(row,col),val);
+    }
+
+    /**
+     * Returns the number of elements.  Use {@link #getDataLength()} for matrices which can have more than
+     * 2<sup>31</sup>-1 elements.
+     *
+     * @throws IllegalStateException If there are too many elements to be returned as an int
+     */
+    @Override
+    public int getNumElements() {
+        long length = getDataLength();
+        if( length > Integer.MAX_VALUE )
+            throw new IllegalStateException("Too many elements for an int.  Use getDataLength()");
+        return (int)length;
+    }
+
+    /**
+     * Returns the chunk of storage with the specified index.
+     */
+    public DoubleBuffer getChunk( int index ) {
+        return chunks[index];
+    }
+
+    public int getNumChunks() {
+        return chunks.length;
+    }
+
+    public int getChunkBits() {
+        return chunkBits;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    @Override
+    public <T extends Matrix> T copy() {
+        DMatrixOffHeap A = new DMatrixOffHeap(numRows,numCols,Math.min(chunkBits,CHUNK_BITS));
+        A.set(this);
+        return (T)A;
+    }
+
+    @Override
+    public <T extends Matrix> T createLike() {
+        return (T)new DMatrixOffHeap(numRows,numCols,Math.min(chunkBits,CHUNK_BITS));
+    }
+
+    @Override
+    public void set( Matrix original ) {
+        DMatrix m = (DMatrix)original;
+        reshape(m.getNumRows(),m.getNumCols());
+
+        if( m instanceof DMatrixOffHeap ) {
+            DMatrixOffHeap o = (DMatrixOffHeap)m;
+            long length = getDataLength();
+            double tmp[] = new double[(int)Math.min(length,1 << 16)];
+            for( long i = 0; i < length; i += tmp.length ) {
+                int n = (int)Math.min(tmp.length,length-i);
+                o.read(i,tmp,0,n);
+                write(i,tmp,0,n);
+            }
+        } else if( m instanceof DMatrixRMaj ) {
+            write(0,((DMatrixRMaj)m).data,0,m.getNumElements());
+        } else {
+            double row[] = new double[numCols];
+            for (int i = 0; i < numRows; i++) {
+                for (int j = 0; j < numCols; j++) {
+                    row[j] = m.get(i,j);
+                }
+                write(getIndex(i,0),row,0,numCols);
+            }
+        }
+    }
+
+    @Override
+    public void print() {
+        MatrixIO.print(System.out,this);
+    }
+
+    private void writeObject( ObjectOutputStream out ) throws IOException {
+        out.defaultWriteObject();
+        long length = getDataLength();
+        for( long i = 0; i < length; i++ ) {
+            out.writeDouble(get(i));
+        }
+    }
+
+    private void readObject( ObjectInputStream in ) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        setChunkBits(Math.min(chunkBits,CHUNK_BITS));
+        long length = getDataLength();
+        allocate(length);
+        for( long i = 0; i < length; i++ ) {
+            set(i,in.readDouble());
+        }
+    }
+}
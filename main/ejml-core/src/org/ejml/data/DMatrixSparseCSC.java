@@ -70,7 +70,7 @@ public class DMatrixSparseCSC implements DMatrixSparse {
     public boolean indicesSorted=false;
 
     public DMatrixSparseCSC(int numRows , int numCols , int nz_length) {
-        nz_length = Math.min(numCols*numRows, nz_length);
+        nz_length = (int)Math.min((long)numCols*numRows, nz_length);
 
         this.numRows = numRows;
         this.numCols = numCols;
@@ -290,7 +290,7 @@ public class DMatrixSparseCSC implements DMatrixSparse {
      */
     public void growMaxLength( int nz_length , boolean preserveValue ) {
         // don't increase the size beyound the max possible matrix size
-        nz_length = Math.min(numRows*numCols, nz_length);
+        nz_length = (int)Math.min((long)numRows*numCols, nz_length);
         if( nz_length > this.nz_values.length ) {
             double[] data = new double[ nz_length ];
             int[] row_idx = new int[ nz_length ];
@@ -342,6 +342,6 @@ public class DMatrixSparseCSC implements DMatrixSparse {
     }
 
     public boolean isFull() {
-        return nz_length == numRows*numCols;
+        return nz_length == (long)numRows*numCols;
     }
 }
@@ -19,15 +19,48 @@
 package org.ejml.data;
 
 /**
- * TODO describe
+ * <p>
+ * Sparse matrix in triplet (coordinate) format.  Each non-zero element is described by its row, column, and value.
+ * Elements are stored in the order they were added and no effort is made to sort them.  This format is
+ * intended for assembling a matrix, e.g. from a finite element model, which is then converted into a
+ * compressed format, e.g. {@link DMatrixSparseCSC}, before any math is done on it.
+ * </p>
+ *
+ * <p>
+ * Format:<br>
+ * Element 'i' is at row nz_rows[i], column nz_cols[i], and has the value nz_values[i].  Only the first
+ * nz_length elements in each array are valid.  The three arrays are always the same length and grow
+ * together.  Primitive arrays are used instead of an object per element to minimize memory usage and
+ * garbage collection when assembling very large matrices.
+ * </p>
  *
  * @author Peter Abeles
  */
 public class DMatrixSparseTriplet implements DMatrixSparse
 {
-    public Element[] nz_data = new Element[0];
+    /**
+     * Row of each non-zero element.  Only valid up to nz_length-1.
+     */
+    public int nz_rows[] = new int[0];
+    /**
+     * Column of each non-zero element.  Only valid up to nz_length-1.
+     */
+    public int nz_cols[] = new int[0];
+    /**
+     * Value of each non-zero element.  Only valid up to nz_length-1.
+     */
+    public double nz_values[] = new double[0];
+    /**
+     * Number of non-zero elements in the matrix
+     */
     public int nz_length;
+    /**
+     * Number of rows in the matrix
+     */
     public int numRows;
+    /**
+     * Number of columns in the matrix
+     */
     public int numCols;
 
     public DMatrixSparseTriplet() {
@@ -67,11 +100,23 @@ public class DMatrixSparseTriplet implements DMatrixSparse
         growData(nz_length);
     }
 
+    /**
+     * Adds an element to the end of the list without checking to see if it's already in the list.  Duplicate
+     * elements are allowed and are summed together when converted into a compressed format.  If the arrays
+     * are full their size is doubled, making the cost of adding an element amortized constant time.
+     *
+     * @param row Row of the element
+     * @param col Column of the element
+     * @param value Value of the element
+     */
     public void addItem(int row , int col , double value ) {
-        if( nz_length == nz_data.length ) {
+        if( nz_length == nz_values.length ) {
             growData(( nz_length *2 + 10 ));
         }
-        nz_data[nz_length++].set(row,col, value);
+        nz_rows[nz_length] = row;
+        nz_cols[nz_length] = col;
+        nz_values[nz_length] = value;
+        nz_length += 1;
     }
 
     @Override
@@ -88,7 +133,7 @@ public class DMatrixSparseTriplet implements DMatrixSparse
         if( index < 0 )
             addItem( row,col,value);
         else
-            nz_data[index].value = value;
+            nz_values[index] = value;
     }
 
     @Override
@@ -110,13 +155,17 @@ public class DMatrixSparseTriplet implements DMatrixSparse
         if( index < 0 )
             return 0;
         else
-            return nz_data[index].value;
+            return nz_values[index];
     }
 
+    /**
+     * Searches for the element at (row,col) and returns its index.  This is an O(N) operation.
+     *
+     * @return Index of the element or -1 if it isn't in the list
+     */
     public int nz_index(int row , int col ) {
         for (int i = 0; i < nz_length; i++) {
-            Element e = nz_data[i];
-            if( e.row == row && e.col == col )
+            if( nz_rows[i] == row && nz_cols[i] == col )
                 return i;
         }
         return -1;
@@ -127,13 +176,18 @@ public class DMatrixSparseTriplet implements DMatrixSparse
      * @param max_nz_length New maximum length of data
      */
     public void growData( int max_nz_length ) {
-        if( nz_data.length < max_nz_length ) {
-            Element[] tmp = new Element[max_nz_length];
-            System.arraycopy(nz_data,0,tmp,0, nz_data.length);
-            for (int i = nz_data.length; i < max_nz_length; i++) {
-                tmp[i] = new Element();
-            }
-            nz_data = tmp;
+        if( nz_values.length < max_nz_length ) {
+            int tmp_rows[] = new int[max_nz_length];
+            int tmp_cols[] = new int[max_nz_length];
+            double tmp_values[] = new double[max_nz_length];
+
+            System.arraycopy(nz_rows,0,tmp_rows,0,nz_length);
+            System.arraycopy(nz_cols,0,tmp_cols,0,nz_length);
+            System.arraycopy(nz_values,0,tmp_values,0,nz_length);
+
+            nz_rows = tmp_rows;
+            nz_cols = tmp_cols;
+            nz_values = tmp_values;
         }
     }
 
@@ -168,19 +222,25 @@ public class DMatrixSparseTriplet implements DMatrixSparse
         growData(orig.nz_length);
 
         this.nz_length = orig.nz_length;
-        for (int i = 0; i < nz_length; i++) {
-            nz_data[i].set(orig.nz_data[i]);
-        }
+        System.arraycopy(orig.nz_rows,0,nz_rows,0,nz_length);
+        System.arraycopy(orig.nz_cols,0,nz_cols,0,nz_length);
+        System.arraycopy(orig.nz_values,0,nz_values,0,nz_length);
     }
 
     @Override
     public void shrinkArrays() {
-        if( nz_length < nz_data.length ) {
-            Element tmp_data[] = new Element[nz_length];
-
-            System.arraycopy(this.nz_data,0,tmp_data,0,nz_length);
-
-            this.nz_data = tmp_data;
+        if( nz_length < nz_values.length ) {
+            int tmp_rows[] = new int[nz_length];
+            int tmp_cols[] = new int[nz_length];
+            double tmp_values[] = new double[nz_length];
+
+            System.arraycopy(nz_rows,0,tmp_rows,0,nz_length);
+            System.arraycopy(nz_cols,0,tmp_cols,0,nz_length);
+            System.arraycopy(nz_values,0,tmp_values,0,nz_length);
+
+            nz_rows = tmp_rows;
+            nz_cols = tmp_cols;
+            nz_values = tmp_values;
         }
     }
 
@@ -188,12 +248,11 @@ public class DMatrixSparseTriplet implements DMatrixSparse
     public void remove(int row, int col) {
         int where = nz_index(row,col);
         if( where >= 0 ) {
-            Element e = nz_data[where];
             nz_length -= 1;
-            for (int i = where; i < nz_length; i++) {
-                nz_data[i] = nz_data[i+1];
-            }
-            nz_data[nz_length] = e;
+            int N = nz_length-where;
+            System.arraycopy(nz_rows,where+1,nz_rows,where,N);
+            System.arraycopy(nz_cols,where+1,nz_cols,where,N);
+            System.arraycopy(nz_values,where+1,nz_values,where,N);
         }
     }
 
@@ -210,7 +269,7 @@ public class DMatrixSparseTriplet implements DMatrixSparse
             for (int col = 0; col < numCols; col++) {
                 int index = nz_index(row,col);
                 if( index >= 0 )
-                    System.out.printf("%6.3f",nz_data[index].value);
+                    System.out.printf("%6.3f",nz_values[index]);
                 else
                     System.out.print("   *  ");
                 if( col != numCols-1 )
@@ -226,25 +285,7 @@ public class DMatrixSparseTriplet implements DMatrixSparse
                 +" , nz_length = "+ nz_length);
 
         for (int i = 0; i < nz_length; i++) {
-            Element e = nz_data[i];
-            System.out.printf("%d %d %f\n",e.row,e.col,e.value);
-        }
-    }
-
-    public static class Element {
-        public int row,col;
-        public double value;
-
-        public void set( int row , int col , double value ) {
-            this.row = row;
-            this.col = col;
-            this.value = value;
-        }
-
-        public void set( Element e ) {
-            row = e.row;
-            col = e.col;
-            value = e.value;
+            System.out.printf("%d %d %f\n",nz_rows[i],nz_cols[i],nz_values[i]);
         }
     }
 }
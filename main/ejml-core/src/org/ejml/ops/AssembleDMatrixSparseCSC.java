@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.ops;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Converts a {@link DMatrixSparseTriplet} into a {@link DMatrixSparseCSC} the way it's needed when assembling a
+ * matrix, e.g. in the finite element method.  Elements with the same row and column are summed together and the
+ * row indices in each column are sorted.  Runs in O(nz_length + numRows + numCols) using a counting sort.
+ * </p>
+ *
+ * <p>
+ * The conversion is split into two steps.  {@link #symbolic} computes the structure of the compressed matrix
+ * and where each triplet element goes.  {@link #numeric} then copies the structure and scatters the values.
+ * When a matrix with the same sparsity pattern is assembled again, e.g. the next time step of a simulation,
+ * only {@link #numeric} needs to be called.  For the pattern to be reused the triplets must have the same
+ * row and column, in the same order, as when {@link #symbolic} was called.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class AssembleDMatrixSparseCSC {
+
+    // shape of the matrix and the number of triplets the pattern was computed from
+    private int numRows,numCols;
+    private int tripletLength;
+
+    // structure of the compressed matrix
+    private int nz_length;
+    private int col_idx[] = new int[0];
+    private int nz_rows[] = new int[0];
+
+    // index of each triplet element in the compressed matrix's non-zero arrays
+    private int map[] = new int[0];
+
+    // work space
+    private int order[] = new int[0];
+    private int rowCount[] = new int[0];
+    private int colCount[] = new int[0];
+    private int lastRow[] = new int[0];
+
+    /**
+     * Computes the symbolic pattern then the values.  Equivalent to calling {@link #symbolic} then {@link #numeric}.
+     *
+     * @param src Triplet matrix.  Not modified.
+     * @param dst Storage for the compressed matrix.  If null a new matrix is declared.  Modified.
+     * @return The compressed matrix.
+     */
+    public DMatrixSparseCSC assemble( DMatrixSparseTriplet src , DMatrixSparseCSC dst ) {
+        symbolic(src);
+        return numeric(src,dst);
+    }
+
+    /**
+     * Computes the structure of the compressed matrix and where each element in the triplet matrix goes.  Values
+     * are ignored.
+     *
+     * @param src Triplet matrix.  Not modified.
+     */
+    public void symbolic( DMatrixSparseTriplet src ) {
+        this.numRows = src.numRows;
+        this.numCols = src.numCols;
+        this.tripletLength = src.nz_length;
+
+        final int N = src.nz_length;
+        final int rows[] = src.nz_rows;
+        final int cols[] = src.nz_cols;
+
+        map = grow(map,N);
+        order = grow(order,N);
+        rowCount = grow(rowCount,numRows+1);
+        colCount = grow(colCount,numCols);
+        lastRow = grow(lastRow,numCols);
+        col_idx = grow(col_idx,numCols+1);
+
+        // Sort the elements by row.  The sort is stable so elements added later stay later
+        Arrays.fill(rowCount,0,numRows+1,0);
+        for (int i = 0; i < N; i++) {
+            rowCount[rows[i]+1]++;
+        }
+        for (int row = 0; row < numRows; row++) {
+            rowCount[row+1] += rowCount[row];
+        }
+        for (int i = 0; i < N; i++) {
+            order[rowCount[rows[i]]++] = i;
+        }
+
+        // Traverse in order of increasing row and count the number of unique rows in each column.  Since the rows
+        // are in order, duplicates of an element will always come one after another in its column
+        Arrays.fill(colCount,0,numCols,0);
+        Arrays.fill(lastRow,0,numCols,-1);
+        for (int k = 0; k < N; k++) {
+            int i = order[k];
+            int col = cols[i];
+            if( lastRow[col] != rows[i] ) {
+                lastRow[col] = rows[i];
+                colCount[col]++;
+            }
+        }
+
+        col_idx[0] = 0;
+        for (int col = 0; col < numCols; col++) {
+            col_idx[col+1] = col_idx[col] + colCount[col];
+            colCount[col] = col_idx[col];
+        }
+        nz_length = col_idx[numCols];
+        nz_rows = grow(nz_rows,nz_length);
+
+        // Assign each unique element a location in the compressed matrix.  Duplicates get the same location
+        Arrays.fill(lastRow,0,numCols,-1);
+        for (int k = 0; k < N; k++) {
+            int i = order[k];
+            int col = cols[i];
+            int row = rows[i];
+            if( lastRow[col] != row ) {
+                lastRow[col] = row;
+                nz_rows[colCount[col]++] = row;
+            }
+            map[i] = colCount[col]-1;
+        }
+    }
+
+    /**
+     * Creates the compressed matrix using the pattern computed in the last call to {@link #symbolic}.  Values of
+     * duplicate elements are summed together.
+     *
+     * @param src Triplet matrix.  Must have the same structure as the one passed into symbolic.  Not modified.
+     * @param dst Storage for the compressed matrix.  If null a new matrix is declared.  Modified.
+     * @return The compressed matrix.
+     */
+    public DMatrixSparseCSC numeric( DMatrixSparseTriplet src , DMatrixSparseCSC dst ) {
+        if( src.numRows != numRows || src.numCols != numCols || src.nz_length != tripletLength )
+            throw new IllegalArgumentException("Triplet matrix doesn't match the symbolic pattern");
+
+        if( dst == null )
+            dst = new DMatrixSparseCSC(numRows, numCols, nz_length);
+        else
+            dst.reshape(numRows, numCols, nz_length);
+
+        System.arraycopy(col_idx,0,dst.col_idx,0,numCols+1);
+        System.arraycopy(nz_rows,0,dst.nz_rows,0,nz_length);
+        dst.nz_length = nz_length;
+        dst.indicesSorted = true;
+
+        final double values[] = dst.nz_values;
+        Arrays.fill(values,0,nz_length,0);
+        for (int i = 0; i < tripletLength; i++) {
+            values[map[i]] += src.nz_values[i];
+        }
+
+        return dst;
+    }
+
+    /**
+     * Number of non-zero elements in the compressed matrix after duplicates have been summed together.
+     */
+    public int getNonZeroLength() {
+        return nz_length;
+    }
+
+    /**
+     * Returns the index of each triplet element in the compressed matrix's non-zero arrays.  Only the first
+     * nz_length elements of the triplet matrix are valid.
+     */
+    public int[] getMap() {
+        return map;
+    }
+
+    private static int[] grow( int array[] , int length ) {
+        if( array.length < length )
+            return new int[length];
+        return array;
+    }
+}
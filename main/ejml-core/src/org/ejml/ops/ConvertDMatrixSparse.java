@@ -49,19 +49,32 @@ public class ConvertDMatrixSparse {
     }
 
     public static DMatrixSparseTriplet convert(DMatrixRMaj src , DMatrixSparseTriplet dst ) {
+        int nonzero = 0;
+        int N = src.numRows*src.numCols;
+        for (int i = 0; i < N; i++) {
+            if( src.data[i] != 0 )
+                nonzero++;
+        }
+
         if( dst == null )
-            dst = new DMatrixSparseTriplet(src.numRows, src.numCols,src.numRows*src.numCols);
+            dst = new DMatrixSparseTriplet(src.numRows, src.numCols, nonzero);
         else
-            dst.reshape(src.numRows, src.numCols);
+            dst.reshape(src.numRows, src.numCols, nonzero);
 
         int index = 0;
+        int length = 0;
         for (int row = 0; row < src.numRows; row++) {
             for (int col = 0; col < src.numCols; col++) {
                 double value = src.data[index++];
-                if( value != 0.0 )
-                    dst.addItem(row,col,value);
+                if( value != 0.0 ) {
+                    dst.nz_rows[length] = row;
+                    dst.nz_cols[length] = col;
+                    dst.nz_values[length] = value;
+                    length++;
+                }
             }
         }
+        dst.nz_length = length;
 
         return dst;
     }
@@ -75,9 +88,7 @@ public class ConvertDMatrixSparse {
         }
 
         for (int i = 0; i < src.nz_length; i++) {
-            DMatrixSparseTriplet.Element e = src.nz_data[i];
-
-            dst.unsafe_set(e.row, e.col, e.value);
+            dst.unsafe_set(src.nz_rows[i], src.nz_cols[i], src.nz_values[i]);
         }
 
         return dst;
@@ -146,7 +157,9 @@ public class ConvertDMatrixSparse {
     }
 
     /**
-     * Converts SMatrixTriplet_64 into a SMatrixCC_64.
+     * Converts SMatrixTriplet_64 into a SMatrixCC_64.  Fast but it assumes there are no duplicate elements and
+     * the row indices in each column are not sorted.  Use {@link #convert(DMatrixSparseTriplet, DMatrixSparseCSC)}
+     * if there could be duplicates.
      *
      * @param src Original matrix which is to be copied.  Not modified.
      * @param dst Destination. Will be a copy.  Modified.
@@ -167,7 +180,7 @@ public class ConvertDMatrixSparse {
 
         // compute the number of elements in each columns
         for (int i = 0; i < src.nz_length; i++) {
-            hist[src.nz_data[i].col]++;
+            hist[src.nz_cols[i]]++;
         }
 
         // define col_idx
@@ -175,11 +188,9 @@ public class ConvertDMatrixSparse {
 
         // now write the row indexes and the values
         for (int i = 0; i < src.nz_length; i++) {
-            DMatrixSparseTriplet.Element e = src.nz_data[i];
-
-            int index = hist[e.col]++;
-            dst.nz_rows[index] = e.row;
-            dst.nz_values[index] = e.value;
+            int index = hist[src.nz_cols[i]]++;
+            dst.nz_rows[index] = src.nz_rows[i];
+            dst.nz_values[index] = src.nz_values[i];
         }
         dst.nz_length = src.nz_length;
         dst.indicesSorted = false;
@@ -187,26 +198,36 @@ public class ConvertDMatrixSparse {
         return dst;
     }
 
+    /**
+     * Converts SMatrixTriplet_64 into a SMatrixCC_64.  Duplicate elements are summed together and the row indices
+     * in each column are sorted.  If the same sparsity pattern will be converted multiple times
+     * use {@link AssembleDMatrixSparseCSC} directly, it can reuse the pattern.
+     *
+     * @param src Original matrix which is to be copied.  Not modified.
+     * @param dst Destination. Will be a copy.  Modified.
+     */
     public static DMatrixSparseCSC convert(DMatrixSparseTriplet src , DMatrixSparseCSC dst ) {
-        return convert(src,dst,null);
+        return new AssembleDMatrixSparseCSC().assemble(src,dst);
     }
 
     public static DMatrixSparseTriplet convert(DMatrixSparseCSC src , DMatrixSparseTriplet dst ) {
         if( dst == null )
             dst = new DMatrixSparseTriplet(src.numRows, src.numCols, src.nz_length);
         else
-            dst.reshape( src.numRows , src.numCols );
+            dst.reshape( src.numRows , src.numCols , src.nz_length );
 
         int i0 = src.col_idx[0];
         for (int col = 0; col < src.numCols; col++) {
             int i1 = src.col_idx[col+1];
 
             for (int i = i0; i < i1; i++) {
-                int row = src.nz_rows[i];
-                dst.addItem(row,col, src.nz_values[i]);
+                dst.nz_cols[i] = col;
             }
             i0 = i1;
         }
+        System.arraycopy(src.nz_rows,0,dst.nz_rows,0,src.nz_length);
+        System.arraycopy(src.nz_values,0,dst.nz_values,0,src.nz_length);
+        dst.nz_length = src.nz_length;
 
         return dst;
     }
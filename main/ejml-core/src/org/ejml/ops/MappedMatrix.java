@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.ops;
+
+import org.ejml.data.DMatrixOffHeap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.ejml.ops.MatrixIOBinary.*;
+
+/**
+ * <p>
+ * A matrix file in the format of {@link MatrixIOBinary} which has been memory mapped.  Nothing is copied into
+ * the Java heap.  The operating system loads pages from the file as they are accessed, so opening even a very
+ * large matrix is almost instant, and the same file can be shared by multiple processes.  If it was opened as
+ * writable then changes are written back to the file.
+ * </p>
+ *
+ * <p>
+ * A single mapping in Java is limited to 2 GB, so the file is mapped in chunks and elements are referenced with
+ * a long index.  For dense real matrices the index of element (i,j) is i*numCols + j.  For dense complex
+ * matrices the real part is at 2*(i*numCols + j) and the imaginary part is the next element.  For sparse
+ * matrices the index is the same as in {@link org.ejml.data.DMatrixSparseCSC#nz_values}.
+ * </p>
+ *
+ * <p>
+ * The file should not be modified by other means, e.g. truncated, while it's mapped.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MappedMatrix implements Closeable {
+
+    /**
+     * Number of doubles in each chunk, 1 GB
+     */
+    public static final int VALUE_CHUNK_LENGTH = 1 << 27;
+    /**
+     * Number of ints in each chunk, 1 GB
+     */
+    public static final int INT_CHUNK_LENGTH = 1 << 28;
+
+    int type;
+    long numRows;
+    long numCols;
+    long nz_length;
+    int flags;
+    // number of bytes before the values section
+    int headerLength;
+
+    RandomAccessFile file;
+    // all the mapped regions of the file
+    List<MappedByteBuffer> mappings = new ArrayList<>();
+
+    DoubleBuffer values[];
+    // sparse only
+    IntBuffer colIdx[];
+    IntBuffer nzRows[];
+
+    /**
+     * Maps an existing file
+     *
+     * @param fileName The file
+     * @param writable If true then the file can be modified through the mapping
+     * @return The mapped matrix
+     */
+    public static MappedMatrix open( String fileName , boolean writable ) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, writable ? "rw" : "r");
+        try {
+            Header header = readHeader(file.getChannel());
+            if( header.type != DENSE_REAL && header.type != DENSE_COMPLEX && header.type != SPARSE_CSC_REAL )
+                throw new IOException("Unknown matrix type "+header.type);
+            // must be checked before mapping, since a writable mapping past the end of the file grows it
+            if( fileLength(header) != file.length() )
+                throw new IOException("File length doesn't match the header");
+            return new MappedMatrix(file,header,writable);
+        } catch( IOException | RuntimeException e ) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a new file for a matrix and maps it.  All elements are initially zero.  This allows matrices which
+     * are too large to be stored in memory to be created.  For sparse matrices the column and row indexes need to
+     * be filled in too.
+     *
+     * @param fileName The file.  If it exists it's overwritten.
+     * @param type {@link MatrixIOBinary#DENSE_REAL}, {@link MatrixIOBinary#DENSE_COMPLEX},
+     *             or {@link MatrixIOBinary#SPARSE_CSC_REAL}
+     * @param numRows Number of rows
+     * @param numCols Number of columns
+     * @param nz_length Number of non-zero elements.  Ignored unless the matrix is sparse.
+     * @return The mapped matrix
+     */
+    public static MappedMatrix create( String fileName , int type , long numRows , long numCols , long nz_length )
+            throws IOException
+    {
+        if( type != SPARSE_CSC_REAL )
+            nz_length = 0;
+
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try {
+            file.setLength(0);
+            writeHeader(file.getChannel(),type,numRows,numCols,nz_length,0);
+
+            Header header = new Header();
+            header.version = VERSION;
+            header.type = type;
+            header.headerLength = HEADER_LENGTH;
+            header.numRows = numRows;
+            header.numCols = numCols;
+            header.nz_length = nz_length;
+
+            file.setLength(fileLength(header));
+            return new MappedMatrix(file,header,true);
+        } catch( IOException | RuntimeException e ) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private MappedMatrix( RandomAccessFile file , Header header , boolean writable ) throws IOException {
+        this.file = file;
+        this.type = header.type;
+        this.numRows = header.numRows;
+        this.numCols = header.numCols;
+        this.nz_length = header.nz_length;
+        this.flags = header.flags;
+        this.headerLength = header.headerLength;
+
+        FileChannel channel = file.getChannel();
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+
+        long offset = headerLength;
+        long numValues = getNumValues();
+        values = new DoubleBuffer[numChunks(numValues,VALUE_CHUNK_LENGTH)];
+        for (int i = 0; i < values.length; i++) {
+            long length = Math.min(VALUE_CHUNK_LENGTH,numValues-(long)i*VALUE_CHUNK_LENGTH);
+            values[i] = map(channel,mode,offset,length*8).asDoubleBuffer();
+            offset += length*8;
+        }
+
+        if( type == SPARSE_CSC_REAL ) {
+            if( numCols >= Integer.MAX_VALUE || nz_length > Integer.MAX_VALUE )
+                throw new IOException("Sparse matrix is too large");
+            colIdx = new IntBuffer[]{map(channel,mode,offset,(numCols+1)*4).asIntBuffer()};
+            offset += (numCols+1)*4;
+
+            nzRows = new IntBuffer[numChunks(nz_length,INT_CHUNK_LENGTH)];
+            for (int i = 0; i < nzRows.length; i++) {
+                long length = Math.min(INT_CHUNK_LENGTH,nz_length-(long)i*INT_CHUNK_LENGTH);
+                nzRows[i] = map(channel,mode,offset,length*4).asIntBuffer();
+                offset += length*4;
+            }
+        } else if( type != DENSE_REAL && type != DENSE_COMPLEX ) {
+            throw new IOException("Unknown matrix type "+type);
+        }
+    }
+
+    private MappedByteBuffer map( FileChannel channel , FileChannel.MapMode mode ,
+                                  long offset , long length ) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode,offset,length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        mappings.add(buffer);
+        return buffer;
+    }
+
+    private static int numChunks( long length , int chunkLength ) {
+        return (int)((length + chunkLength - 1)/chunkLength);
+    }
+
+    static long fileLength( Header header ) {
+        long length = header.headerLength;
+        switch( header.type ) {
+            case DENSE_REAL: return length + header.numRows*header.numCols*8;
+            case DENSE_COMPLEX: return length + header.numRows*header.numCols*16;
+            case SPARSE_CSC_REAL: return length + header.nz_length*12 + (header.numCols+1)*4;
+            default: throw new IllegalArgumentException("Unknown matrix type "+header.type);
+        }
+    }
+
+    /**
+     * Returns the expected length of the file in bytes
+     */
+    public long getFileLength() {
+        Header header = new Header();
+        header.type = type;
+        header.headerLength = headerLength;
+        header.numRows = numRows;
+        header.numCols = numCols;
+        header.nz_length = nz_length;
+        return fileLength(header);
+    }
+
+    /**
+     * Number of doubles in the values section of the file
+     */
+    public long getNumValues() {
+        switch( type ) {
+            case DENSE_REAL: return numRows*numCols;
+            case DENSE_COMPLEX: return 2*numRows*numCols;
+            default: return nz_length;
+        }
+    }
+
+    /**
+     * Returns the value at the specified index.  See class description for how to compute the index.
+     */
+    public double get( long index ) {
+        return values[(int)(index/VALUE_CHUNK_LENGTH)].get((int)(index%VALUE_CHUNK_LENGTH));
+    }
+
+    /**
+     * Sets the value at the specified index.  See class description for how to compute the index.
+     */
+    public void set( long index , double value ) {
+        values[(int)(index/VALUE_CHUNK_LENGTH)].put((int)(index%VALUE_CHUNK_LENGTH),value);
+    }
+
+    /**
+     * Returns element (row,col) in a dense real matrix
+     */
+    public double get( long row , long col ) {
+        return get(row*numCols + col);
+    }
+
+    /**
+     * Sets element (row,col) in a dense real matrix
+     */
+    public void set( long row , long col , double value ) {
+        set(row*numCols + col, value);
+    }
+
+    /**
+     * Sparse only.  Index of the first element in the column.  col_idx in {@link org.ejml.data.DMatrixSparseCSC}
+     */
+    public int getColIdx( int col ) {
+        return colIdx[0].get(col);
+    }
+
+    public void setColIdx( int col , int index ) {
+        colIdx[0].put(col,index);
+    }
+
+    /**
+     * Sparse only.  Row of the element at the index.  nz_rows in {@link org.ejml.data.DMatrixSparseCSC}
+     */
+    public int getNzRow( long index ) {
+        return nzRows[(int)(index/INT_CHUNK_LENGTH)].get((int)(index%INT_CHUNK_LENGTH));
+    }
+
+    public void setNzRow( long index , int row ) {
+        nzRows[(int)(index/INT_CHUNK_LENGTH)].put((int)(index%INT_CHUNK_LENGTH),row);
+    }
+
+    /**
+     * Returns the buffer for a chunk of values.  Chunk 'i' starts at index i*{@link #VALUE_CHUNK_LENGTH}
+     */
+    public DoubleBuffer getValueChunk( int chunk ) {
+        return values[chunk];
+    }
+
+    public int getNumValueChunks() {
+        return values.length;
+    }
+
+    /**
+     * Dense real only.  Returns a matrix which uses the mapped file as its storage.  If the file was opened as
+     * writable then changes to the matrix are changes to the file.  The matrix can't be reshaped to more elements
+     * than are in the file.
+     */
+    public DMatrixOffHeap asMatrix() {
+        if( type != DENSE_REAL )
+            throw new IllegalArgumentException("Only dense real matrices can be wrapped");
+        if( numRows > Integer.MAX_VALUE || numCols > Integer.MAX_VALUE )
+            throw new IllegalArgumentException("Too many rows or columns for a DMatrix");
+        return new DMatrixOffHeap(values,Integer.numberOfTrailingZeros(VALUE_CHUNK_LENGTH),(int)numRows,(int)numCols);
+    }
+
+    /**
+     * Writes changes to the storage device.  Only needed if it was opened as writable.
+     */
+    public void force() {
+        for (int i = 0; i < mappings.size(); i++) {
+            mappings.get(i).force();
+        }
+    }
+
+    /**
+     * Sparse only.  Changes the flag in the header which indicates if the row indices are sorted.
+     */
+    public void setIndicesSorted( boolean sorted ) throws IOException {
+        flags = sorted ? flags | FLAG_SORTED : flags & ~FLAG_SORTED;
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(flags);
+        buffer.flip();
+        file.getChannel().write(buffer,40);
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getNumRows() {
+        return numRows;
+    }
+
+    public long getNumCols() {
+        return numCols;
+    }
+
+    public long getNonZeroLength() {
+        return nz_length;
+    }
+
+    public boolean isIndicesSorted() {
+        return (flags & FLAG_SORTED) != 0;
+    }
+
+    /**
+     * Closes the file.  The memory remains mapped until the buffers are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
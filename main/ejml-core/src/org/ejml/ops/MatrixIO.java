@@ -31,7 +31,8 @@ import java.io.*;
 public class MatrixIO {
 
     /**
-     * Saves a matrix to disk using Java binary serialization.
+     * Saves a matrix to disk using EJML's binary format.  See {@link MatrixIOBinary} for a description of the
+     * format.  Sparse matrices are saved in a sparse format and other matrices are saved as dense.
      *
      * @param A The matrix being saved.
      * @param fileName Name of the file its being saved at.
@@ -40,34 +41,38 @@ public class MatrixIO {
     public static void saveBin(DMatrix A, String fileName)
         throws IOException
     {
-        FileOutputStream fileStream = new FileOutputStream(fileName);
-        ObjectOutputStream stream = new ObjectOutputStream(fileStream);
-
-        try {
-            stream.writeObject(A);
-            stream.flush();
-        } finally {
-            // clean up
-            try {
-                stream.close();
-            } finally {
-                fileStream.close();
-            }
-        }
+        MatrixIOBinary.write(A,fileName);
+    }
 
+    /**
+     * Saves a complex matrix to disk using EJML's binary format.  See {@link MatrixIOBinary} for a description
+     * of the format.
+     *
+     * @param A The matrix being saved.
+     * @param fileName Name of the file its being saved at.
+     * @throws java.io.IOException
+     */
+    public static void saveBin(ZMatrixRMaj A, String fileName)
+        throws IOException
+    {
+        MatrixIOBinary.write(A,fileName);
     }
 
     /**
-     * Loads a DeneMatrix64F which has been saved to file using Java binary
-     * serialization.
+     * Loads a matrix which has been saved to file using {@link #saveBin(DMatrix, String)}.  Depending on the
+     * file a {@link DMatrixRMaj}, {@link ZMatrixRMaj}, or {@link DMatrixSparseCSC} is returned.  Files saved
+     * with Java binary serialization by older versions can also be read.
      *
      * @param fileName The file being loaded.
-     * @return  DMatrixRMaj
+     * @return The matrix
      * @throws IOException
      */
-    public static <T extends DMatrix> T loadBin(String fileName)
+    public static <T extends Matrix> T loadBin(String fileName)
         throws IOException
     {
+        if( MatrixIOBinary.isBinaryFormat(fileName) )
+            return MatrixIOBinary.read(fileName);
+
         FileInputStream fileStream = new FileInputStream(fileName);
         ObjectInputStream stream = new ObjectInputStream(fileStream);
 
@@ -79,12 +84,28 @@ public class MatrixIO {
             }
         } catch (ClassNotFoundException e) {
             throw new RuntimeException(e);
+        } finally {
+            stream.close();
         }
 
-        stream.close();
         return (T)ret;
     }
 
+    /**
+     * Memory maps a matrix which has been saved to file using {@link #saveBin(DMatrix, String)}.  Nothing is
+     * read into the heap, so very large matrices can be opened quickly and shared between processes.
+     *
+     * @param fileName The file being mapped.
+     * @param writable If true then changes to the matrix are written to the file
+     * @return The mapped matrix.  Call close() when finished.
+     * @throws IOException
+     */
+    public static MappedMatrix mapBin(String fileName , boolean writable )
+        throws IOException
+    {
+        return MappedMatrix.open(fileName,writable);
+    }
+
     /**
      * Saves a matrix to disk using in a Column Space Value (CSV) format. For a 
      * description of the format see {@link MatrixIO#loadCSV(String)}.
@@ -111,7 +132,8 @@ public class MatrixIO {
     /**
      * Reads a matrix in which has been encoded using a Column Space Value (CSV)
      * file format. The number of rows and columns are read in on the first line. Then
-     * each row is read in the subsequent lines.
+     * each row is read in the subsequent lines.  Large files are read concurrently, see
+     * {@link ReadMatrixCsvStream}.
      *
      * @param fileName The file being loaded.
      * @return DMatrixRMaj
@@ -121,13 +143,12 @@ public class MatrixIO {
         throws IOException
     {
         FileInputStream fileStream = new FileInputStream(fileName);
-        ReadMatrixCsv csv = new ReadMatrixCsv(fileStream);
-
-        DMatrixRMaj ret = csv.read();
-
-        fileStream.close();
-
-        return ret;
+        try {
+            ReadMatrixCsvStream csv = new ReadMatrixCsvStream(fileStream.getChannel());
+            return csv.read();
+        } finally {
+            fileStream.close();
+        }
     }
 
     /**
@@ -144,13 +165,12 @@ public class MatrixIO {
         throws IOException
     {
         FileInputStream fileStream = new FileInputStream(fileName);
-        ReadMatrixCsv csv = new ReadMatrixCsv(fileStream);
-
-        DMatrixRMaj ret = csv.readReal(numRows, numCols);
-
-        fileStream.close();
-
-        return ret;
+        try {
+            ReadMatrixCsvStream csv = new ReadMatrixCsvStream(fileStream.getChannel());
+            return csv.readReal(numRows, numCols);
+        } finally {
+            fileStream.close();
+        }
     }
 
     public static void print( PrintStream out , DMatrix mat ) {
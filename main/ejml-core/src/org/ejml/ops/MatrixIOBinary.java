@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.ops;
+
+import org.ejml.data.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ * Reads and writes matrices in EJML's binary format.  The format is a fixed length header followed by the raw
+ * contents of the matrix.  Everything is little-endian, independent of the platform.  Files are read and written
+ * through a {@link FileChannel} in blocks and can also be memory mapped, see {@link MappedMatrix}.
+ * </p>
+ *
+ * <pre>
+ * Header, 64 bytes
+ * offset  type     description
+ *   0     byte[4]  magic number, the ASCII characters "EJML"
+ *   4     int32    format version.  Currently 1
+ *   8     int32    matrix type.  {@link #DENSE_REAL}, {@link #DENSE_COMPLEX}, or {@link #SPARSE_CSC_REAL}
+ *  12     int32    length of the header in bytes.  Data starts at this offset
+ *  16     int64    number of rows
+ *  24     int64    number of columns
+ *  32     int64    number of non-zero elements.  Sparse only, otherwise 0
+ *  40     int32    flags.  bit 0 is set if the row indices in a sparse matrix are sorted
+ *  44     byte[20] reserved, set to zero
+ *
+ * {@link #DENSE_REAL} data:
+ *   float64[rows*cols]      elements in row-major order
+ * {@link #DENSE_COMPLEX} data:
+ *   float64[2*rows*cols]    elements in row-major order with real and imaginary parts interleaved
+ * {@link #SPARSE_CSC_REAL} data:
+ *   float64[nz]             values of the non-zero elements
+ *   int32[cols+1]           index of the first element in each column
+ *   int32[nz]               row of each non-zero element
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixIOBinary {
+
+    /**
+     * Dense real matrix, e.g. {@link DMatrixRMaj}
+     */
+    public static final int DENSE_REAL = 1;
+    /**
+     * Dense complex matrix, e.g. {@link ZMatrixRMaj}
+     */
+    public static final int DENSE_COMPLEX = 2;
+    /**
+     * Sparse real matrix in compressed sparse column format, e.g. {@link DMatrixSparseCSC}
+     */
+    public static final int SPARSE_CSC_REAL = 3;
+
+    public static final int VERSION = 1;
+    public static final int HEADER_LENGTH = 64;
+    public static final int FLAG_SORTED = 1;
+
+    // the magic number "EJML" when read as a little-endian int32
+    static final int MAGIC = 'E' | ('J' << 8) | ('M' << 16) | ('L' << 24);
+
+    // size of the buffer used to copy data to and from the file
+    static final int BLOCK_BYTES = 1 << 20;
+
+    /**
+     * Writes a real matrix.  {@link DMatrixSparseCSC} and {@link DMatrixSparseTriplet} are written in the sparse
+     * format and all other matrices are written as dense matrices in row-major order.
+     *
+     * @param A Matrix
+     * @param fileName Where the matrix is written to
+     */
+    public static void write( DMatrix A , String fileName ) throws IOException {
+        if( A instanceof DMatrixSparseTriplet )
+            A = ConvertDMatrixSparse.convert((DMatrixSparseTriplet)A,(DMatrixSparseCSC)null);
+
+        FileOutputStream out = new FileOutputStream(fileName);
+        try {
+            FileChannel channel = out.getChannel();
+            if( A instanceof DMatrixSparseCSC ) {
+                DMatrixSparseCSC S = (DMatrixSparseCSC)A;
+                writeHeader(channel,SPARSE_CSC_REAL,S.numRows,S.numCols,S.nz_length,
+                        S.indicesSorted ? FLAG_SORTED : 0);
+                writeDoubles(channel,S.nz_values,S.nz_length);
+                writeInts(channel,S.col_idx,S.numCols+1);
+                writeInts(channel,S.nz_rows,S.nz_length);
+            } else {
+                writeHeader(channel,DENSE_REAL,A.getNumRows(),A.getNumCols(),0,0);
+                if( A instanceof DMatrixRMaj ) {
+                    writeDoubles(channel,((DMatrixRMaj)A).data,A.getNumElements());
+                } else if( A instanceof DMatrixOffHeap ) {
+                    writeDoubles(channel,(DMatrixOffHeap)A);
+                } else {
+                    writeDense(channel,A);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes a dense complex matrix.
+     *
+     * @param A Matrix
+     * @param fileName Where the matrix is written to
+     */
+    public static void write( ZMatrixRMaj A , String fileName ) throws IOException {
+        FileOutputStream out = new FileOutputStream(fileName);
+        try {
+            FileChannel channel = out.getChannel();
+            writeHeader(channel,DENSE_COMPLEX,A.numRows,A.numCols,0,0);
+            writeDoubles(channel,A.data,A.getDataLength());
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a matrix from a file.  The type of matrix returned depends on the file,
+     * {@link DMatrixRMaj}, {@link ZMatrixRMaj}, or {@link DMatrixSparseCSC}.
+     *
+     * @param fileName File being read
+     * @return The matrix
+     * @throws IOException If the file can't be read or isn't in this format
+     */
+    public static <T extends Matrix> T read( String fileName ) throws IOException {
+        FileInputStream in = new FileInputStream(fileName);
+        try {
+            FileChannel channel = in.getChannel();
+            Header header = readHeader(channel);
+            channel.position(header.headerLength);
+
+            if( header.numRows > Integer.MAX_VALUE || header.numCols > Integer.MAX_VALUE )
+                throw new IOException("Matrix is too large to be read into an array.  Map it instead.");
+            int numRows = (int)header.numRows;
+            int numCols = (int)header.numCols;
+
+            Matrix ret;
+            switch( header.type ) {
+                case DENSE_REAL: {
+                    if( (long)numRows*numCols > Integer.MAX_VALUE )
+                        throw new IOException("Matrix is too large to be read into an array.  Map it instead.");
+                    DMatrixRMaj A = new DMatrixRMaj(numRows,numCols);
+                    readDoubles(channel,A.data,A.getNumElements());
+                    ret = A;
+                } break;
+
+                case DENSE_COMPLEX: {
+                    if( 2L*numRows*numCols > Integer.MAX_VALUE )
+                        throw new IOException("Matrix is too large to be read into an array.  Map it instead.");
+                    ZMatrixRMaj A = new ZMatrixRMaj(numRows,numCols);
+                    readDoubles(channel,A.data,A.getDataLength());
+                    ret = A;
+                } break;
+
+                case SPARSE_CSC_REAL: {
+                    if( header.nz_length > Integer.MAX_VALUE )
+                        throw new IOException("Matrix is too large to be read into an array.  Map it instead.");
+                    int nz_length = (int)header.nz_length;
+                    DMatrixSparseCSC A = new DMatrixSparseCSC(numRows,numCols,nz_length);
+                    A.nz_length = nz_length;
+                    readDoubles(channel,A.nz_values,nz_length);
+                    readInts(channel,A.col_idx,numCols+1);
+                    readInts(channel,A.nz_rows,nz_length);
+                    A.indicesSorted = (header.flags & FLAG_SORTED) != 0;
+                    ret = A;
+                } break;
+
+                default:
+                    throw new IOException("Unknown matrix type "+header.type);
+            }
+
+            if( channel.position() != channel.size() )
+                throw new IOException("File not completely read?");
+
+            return (T)ret;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Checks to see if the file starts with the magic number for this format
+     */
+    public static boolean isBinaryFormat( String fileName ) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(fileName));
+        try {
+            byte magic[] = new byte[4];
+            in.readFully(magic);
+            return ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+        } catch( EOFException e ) {
+            return false;
+        } finally {
+            in.close();
+        }
+    }
+
+    static void writeHeader( FileChannel channel , int type , long numRows , long numCols , long nz_length ,
+                             int flags ) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(type);
+        header.putInt(HEADER_LENGTH);
+        header.putLong(numRows);
+        header.putLong(numCols);
+        header.putLong(nz_length);
+        header.putInt(flags);
+        header.position(0);
+        writeFully(channel,header);
+    }
+
+    static Header readHeader( FileChannel channel ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        while( buffer.hasRemaining() ) {
+            if( channel.read(buffer) < 0 )
+                throw new IOException("File is too short to contain a header");
+        }
+        buffer.flip();
+
+        if( buffer.getInt() != MAGIC )
+            throw new IOException("Not an EJML binary matrix file");
+        Header header = new Header();
+        header.version = buffer.getInt();
+        if( header.version != VERSION )
+            throw new IOException("Unsupported version "+header.version);
+        header.type = buffer.getInt();
+        header.headerLength = buffer.getInt();
+        header.numRows = buffer.getLong();
+        header.numCols = buffer.getLong();
+        header.nz_length = buffer.getLong();
+        header.flags = buffer.getInt();
+
+        if( header.headerLength < HEADER_LENGTH || header.numRows < 0 || header.numCols < 0 || header.nz_length < 0 )
+            throw new IOException("Corrupted header");
+
+        return header;
+    }
+
+    private static void writeDense( FileChannel channel , DMatrix A ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        for (int row = 0; row < A.getNumRows(); row++) {
+            for (int col = 0; col < A.getNumCols(); col++) {
+                if( !doubles.hasRemaining() ) {
+                    flush(channel,buffer,doubles.position()*8);
+                    doubles.clear();
+                }
+                doubles.put(A.get(row,col));
+            }
+        }
+        flush(channel,buffer,doubles.position()*8);
+    }
+
+    private static void writeDoubles( FileChannel channel , DMatrixOffHeap A ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        double block[] = new double[doubles.capacity()];
+        long length = A.getDataLength();
+        for( long i = 0; i < length; i += block.length ) {
+            int n = (int)Math.min(block.length,length-i);
+            A.read(i,block,0,n);
+            doubles.clear();
+            doubles.put(block,0,n);
+            flush(channel,buffer,n*8);
+        }
+    }
+
+    private static void writeDoubles( FileChannel channel , double data[] , int length ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        for (int i = 0; i < length; ) {
+            int n = Math.min(doubles.capacity(),length-i);
+            doubles.clear();
+            doubles.put(data,i,n);
+            flush(channel,buffer,n*8);
+            i += n;
+        }
+    }
+
+    private static void writeInts( FileChannel channel , int data[] , int length ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer ints = buffer.asIntBuffer();
+        for (int i = 0; i < length; ) {
+            int n = Math.min(ints.capacity(),length-i);
+            ints.clear();
+            ints.put(data,i,n);
+            flush(channel,buffer,n*4);
+            i += n;
+        }
+    }
+
+    private static void flush( FileChannel channel , ByteBuffer buffer , int length ) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        writeFully(channel,buffer);
+    }
+
+    private static void writeFully( FileChannel channel , ByteBuffer buffer ) throws IOException {
+        while( buffer.hasRemaining() ) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readDoubles( FileChannel channel , double data[] , int length ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < length; ) {
+            int n = Math.min(BLOCK_BYTES/8,length-i);
+            fill(channel,buffer,n*8);
+            buffer.asDoubleBuffer().get(data,i,n);
+            i += n;
+        }
+    }
+
+    private static void readInts( FileChannel channel , int data[] , int length ) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < length; ) {
+            int n = Math.min(BLOCK_BYTES/4,length-i);
+            fill(channel,buffer,n*4);
+            buffer.asIntBuffer().get(data,i,n);
+            i += n;
+        }
+    }
+
+    private static void fill( FileChannel channel , ByteBuffer buffer , int length ) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+        while( buffer.hasRemaining() ) {
+            if( channel.read(buffer) < 0 )
+                throw new IOException("Unexpected end of file");
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Contents of the header
+     */
+    static class Header {
+        int version;
+        int type;
+        int headerLength;
+        long numRows;
+        long numCols;
+        long nz_length;
+        int flags;
+    }
+}
@@ -28,7 +28,8 @@ import java.util.List;
 
 
 /**
- * Reads in a matrix that is in a column-space-value (CSV) format.
+ * Reads in a matrix that is in a column-space-value (CSV) format.  For large matrices use
+ * {@link ReadMatrixCsvStream}, which is much faster and creates very little garbage.
  *
  * @author Peter Abeles
  */
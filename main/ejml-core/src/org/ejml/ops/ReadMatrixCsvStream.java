@@ -0,0 +1,860 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.ops;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.Matrix;
+import org.ejml.data.ZMatrixRMaj;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Reads in a matrix that is in a column-space-value (CSV) format, see {@link ReadMatrixCsv}.  Bytes are read
+ * from a channel in blocks and each word is parsed directly into the matrix's data array.  No Strings or
+ * lists are created for the elements, which makes it much faster than {@link ReadMatrixCsv} and creates
+ * almost no garbage.  Numbers are decoded using the Eisel-Lemire algorithm and produce exactly the same
+ * value as {@link Double#parseDouble}.  The rare numbers which it can't decide fall back to Double.parseDouble.
+ * </p>
+ *
+ * <p>
+ * If the input is a {@link FileChannel} then large files are read concurrently.  The file is split into chunks
+ * which start at the beginning of a line, the number of rows in each chunk is counted, and then each chunk
+ * is parsed into its rows of the matrix.
+ * </p>
+ *
+ * <p>
+ * Matrices which are too large to be loaded all at once can be read a block of rows at a time, see
+ * {@link #readRows(DMatrixRMaj, int)}.
+ * </p>
+ *
+ * <p>
+ * Blank lines are skipped.  Comment lines are skipped if a comment character has been specified.  After the
+ * last row of the matrix has been read the input must not contain any more rows.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ReadMatrixCsvStream {
+
+    /**
+     * Number of bytes read from the channel at once
+     */
+    public static final int BLOCK_BYTES = 1 << 16;
+
+    /**
+     * Files with fewer bytes than this are read by a single thread
+     */
+    public static final long CONCURRENT_BYTES = 1 << 22;
+
+    // range of the powers of ten which can be used by Eisel-Lemire
+    private static final int POW10_MIN = -348;
+    private static final int POW10_MAX = 347;
+    // 128-bit approximation of each power of ten, rounded down and normalized so that the highest bit is set
+    private static final long POW10_HIGH[];
+    private static final long POW10_LOW[];
+    // powers of ten which can be exactly represented by a double
+    private static final double POW10_EXACT[] = new double[23];
+
+    static {
+        int N = POW10_MAX-POW10_MIN+1;
+        POW10_HIGH = new long[N];
+        POW10_LOW = new long[N];
+        for (int i = 0; i < N; i++) {
+            int exp10 = POW10_MIN+i;
+            BigInteger m;
+            if( exp10 >= 0 ) {
+                BigInteger p = BigInteger.TEN.pow(exp10);
+                int shift = p.bitLength()-128;
+                m = shift > 0 ? p.shiftRight(shift) : p.shiftLeft(-shift);
+            } else {
+                BigInteger p = BigInteger.TEN.pow(-exp10);
+                m = BigInteger.ONE.shiftLeft(127+p.bitLength()).divide(p);
+            }
+            POW10_HIGH[i] = m.shiftRight(64).longValue();
+            POW10_LOW[i] = m.longValue();
+        }
+
+        POW10_EXACT[0] = 1;
+        for (int i = 1; i < POW10_EXACT.length; i++) {
+            POW10_EXACT[i] = POW10_EXACT[i-1]*10;
+        }
+    }
+
+    // if not null then the input is a file and it can be read concurrently
+    private FileChannel file;
+    private Parser input;
+
+    // if there is a comment character
+    private boolean hasComment = false;
+    // what the comment character is
+    private byte comment;
+
+    // shape of the matrix being read
+    private int numRows = -1;
+    private int numCols = -1;
+    private boolean real = true;
+    // number of rows which have been read so far
+    private int rowsRead;
+
+    // if > 0 then the file is split into this many chunks
+    int numChunks = -1;
+
+    /**
+     * Specifies where input comes from.  If it's a {@link FileInputStream} then its channel is used.
+     *
+     * @param in Where the input comes from.
+     */
+    public ReadMatrixCsvStream( InputStream in ) {
+        this(in instanceof FileInputStream ? ((FileInputStream)in).getChannel() : Channels.newChannel(in));
+    }
+
+    /**
+     * Specifies where input comes from.  Reading starts at the channel's current position.
+     *
+     * @param channel Where the input comes from.
+     */
+    public ReadMatrixCsvStream( ReadableByteChannel channel ) {
+        if( channel instanceof FileChannel )
+            file = (FileChannel)channel;
+        input = new Parser(channel);
+    }
+
+    /**
+     * Sets the comment character.  All lines that start with this character will be ignored.
+     *
+     * @param comment The new comment character.  Must be an ASCII character.
+     */
+    public void setComment( char comment ) {
+        if( comment > 127 )
+            throw new IllegalArgumentException("Comment must be an ASCII character");
+        hasComment = true;
+        this.comment = (byte)comment;
+    }
+
+    /**
+     * Reads in the header and then the matrix.  A {@link DMatrixRMaj} or {@link ZMatrixRMaj} is returned
+     * depending on the header.
+     *
+     * @return The matrix
+     * @throws IOException If anything goes wrong.
+     */
+    public <M extends Matrix>M read() throws IOException {
+        readHeader();
+
+        if( real ) {
+            DMatrixRMaj A = new DMatrixRMaj(numRows,numCols);
+            readAll(A.data);
+            return (M)A;
+        } else {
+            ZMatrixRMaj A = new ZMatrixRMaj(numRows,numCols);
+            readAll(A.data);
+            return (M)A;
+        }
+    }
+
+    /**
+     * Reads in a DMatrixRMaj where the user specifies the matrix dimensions.  There is no header.
+     *
+     * @param numRows Number of rows in the matrix
+     * @param numCols Number of columns in the matrix
+     * @return DMatrixRMaj
+     * @throws IOException If anything goes wrong.
+     */
+    public DMatrixRMaj readReal( int numRows , int numCols ) throws IOException {
+        setShape(numRows,numCols,true);
+        DMatrixRMaj A = new DMatrixRMaj(numRows,numCols);
+        readAll(A.data);
+        return A;
+    }
+
+    /**
+     * Reads in a ZMatrixRMaj where the user specifies the matrix dimensions.  There is no header.
+     *
+     * @param numRows Number of rows in the matrix
+     * @param numCols Number of columns in the matrix
+     * @return ZMatrixRMaj
+     * @throws IOException If anything goes wrong.
+     */
+    public ZMatrixRMaj readComplex( int numRows , int numCols ) throws IOException {
+        setShape(numRows,numCols,false);
+        ZMatrixRMaj A = new ZMatrixRMaj(numRows,numCols);
+        readAll(A.data);
+        return A;
+    }
+
+    /**
+     * Reads the header, which specifies the number of rows, columns, and if the matrix is real or complex.
+     * Use this before reading blocks of rows with {@link #readRows}.
+     *
+     * @throws IOException If the header is missing or invalid.
+     */
+    public void readHeader() throws IOException {
+        List<String> words = input.nextLine(Long.MAX_VALUE) ? input.readWords() : null;
+        if( words == null || words.size() != 3 )
+            throw new IOException("Unexpected number of words on first line.");
+
+        int numRows, numCols;
+        try {
+            numRows = Integer.parseInt(words.get(0));
+            numCols = Integer.parseInt(words.get(1));
+        } catch( NumberFormatException e ) {
+            throw new IOException("Invalid number of rows and/or columns: "+words.get(0)+" "+words.get(1));
+        }
+        boolean real;
+        if( words.get(2).compareToIgnoreCase("real") == 0 )
+            real = true;
+        else if( words.get(2).compareToIgnoreCase("complex") == 0 )
+            real = false;
+        else
+            throw new IOException("Unknown matrix type: "+words.get(2));
+
+        setShape(numRows,numCols,real);
+    }
+
+    /**
+     * Specifies the shape of the matrix when the input has no header.  Use this before reading blocks of rows
+     * with {@link #readRows}.
+     *
+     * @param numRows Number of rows in the matrix
+     * @param numCols Number of columns in the matrix
+     * @param real true if the matrix is real or false if it's complex
+     */
+    public void setShape( int numRows , int numCols , boolean real ) throws IOException {
+        if( numRows < 0 || numCols < 0)
+            throw new IOException("Invalid number of rows and/or columns: "+numRows+" "+numCols);
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.real = real;
+        this.rowsRead = 0;
+    }
+
+    /**
+     * Reads the next block of rows from a real matrix into 'block', which is reshaped to have one row for each
+     * row read.
+     *
+     * @param block (Output) Storage for the rows.  Modified.
+     * @param maxRows Maximum number of rows which are read
+     * @return Number of rows read.  Less than maxRows at the end of the matrix and 0 when all rows have been read.
+     * @throws IOException If anything goes wrong.
+     */
+    public int readRows( DMatrixRMaj block , int maxRows ) throws IOException {
+        checkShape(true);
+        int rows = Math.min(maxRows,numRows-rowsRead);
+        block.reshape(rows,numCols,false);
+        readSequential(block.data,rows);
+        return rows;
+    }
+
+    /**
+     * Reads the next block of rows from a complex matrix into 'block', which is reshaped to have one row for
+     * each row read.
+     *
+     * @param block (Output) Storage for the rows.  Modified.
+     * @param maxRows Maximum number of rows which are read
+     * @return Number of rows read.  Less than maxRows at the end of the matrix and 0 when all rows have been read.
+     * @throws IOException If anything goes wrong.
+     */
+    public int readRows( ZMatrixRMaj block , int maxRows ) throws IOException {
+        checkShape(false);
+        int rows = Math.min(maxRows,numRows-rowsRead);
+        block.reshape(rows,numCols);
+        readSequential(block.data,rows);
+        return rows;
+    }
+
+    private void checkShape( boolean real ) {
+        if( numRows < 0 )
+            throw new IllegalArgumentException("Read the header or specify the shape first");
+        if( this.real != real )
+            throw new IllegalArgumentException("The matrix being read is "+(this.real?"real":"complex"));
+    }
+
+    /**
+     * Reads all the remaining rows, concurrently if the input is a large file
+     */
+    private void readAll( double data[] ) throws IOException {
+        int rows = numRows-rowsRead;
+
+        int chunks = 1;
+        if( file != null ) {
+            chunks = numChunks;
+            if( chunks <= 0 ) {
+                boolean concurrent = EjmlConcurrency.isUseConcurrent() &&
+                        file.size()-input.position() >= CONCURRENT_BYTES;
+                chunks = concurrent ? EjmlConcurrency.getMaxThreads()*EjmlConcurrency.TASKS_PER_THREAD : 1;
+            }
+        }
+
+        if( chunks > 1 )
+            readConcurrent(data,rows,chunks);
+        else
+            readSequential(data,rows);
+    }
+
+    private void readSequential( double data[] , int rows ) throws IOException {
+        input.row = rowsRead;
+        int found = input.readRows(data,0,getValuesPerRow(),rows,Long.MAX_VALUE);
+        if( found != rows )
+            throw new IOException("Too few rows found. expected "+numRows+" actual "+(rowsRead+found));
+        rowsRead += rows;
+        if( rowsRead == numRows && input.nextLine(Long.MAX_VALUE) )
+            throw new IOException("Too many rows found. expected "+numRows);
+    }
+
+    /**
+     * Splits the remainder of the file into chunks and reads them concurrently.  First the rows in each chunk
+     * are counted, which specifies where each chunk's rows go, then the chunks are parsed.
+     */
+    private void readConcurrent( final double data[] , final int rows , int chunks ) throws IOException {
+        final int valuesPerRow = getValuesPerRow();
+        final long start = input.position();
+        final long end = file.size();
+
+        final long bounds[] = new long[chunks+1];
+        for (int i = 0; i <= chunks; i++) {
+            bounds[i] = start + (end-start)*i/chunks;
+        }
+        // number of rows in each chunk then the index of the first row in each chunk
+        final int counts[] = new int[chunks+1];
+        final IOException error[] = new IOException[1];
+
+        EjmlConcurrency.loopBlocks(0,chunks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int idx0, int idx1) {
+                try {
+                    for (int i = idx0; i < idx1; i++) {
+                        counts[i+1] = createChunkParser(bounds,i).countRows(bounds[i+1]);
+                    }
+                } catch( IOException e ) {
+                    error[0] = e;
+                }
+            }
+        });
+        if( error[0] != null )
+            throw error[0];
+
+        for (int i = 0; i < chunks; i++) {
+            counts[i+1] += counts[i];
+        }
+        if( counts[chunks] < rows )
+            throw new IOException("Too few rows found. expected "+numRows+" actual "+(rowsRead+counts[chunks]));
+        if( counts[chunks] > rows )
+            throw new IOException("Too many rows found. expected "+numRows+" actual "+(rowsRead+counts[chunks]));
+
+        final int row0 = rowsRead;
+        EjmlConcurrency.loopBlocks(0,chunks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int idx0, int idx1) {
+                try {
+                    for (int i = idx0; i < idx1; i++) {
+                        int first = counts[i];
+                        int last = Math.min(rows,counts[i+1]);
+                        if( first >= last )
+                            continue;
+                        Parser p = createChunkParser(bounds,i);
+                        p.row = row0+first;
+                        p.readRows(data,first*valuesPerRow,valuesPerRow,last-first,bounds[i+1]);
+                    }
+                } catch( IOException e ) {
+                    error[0] = e;
+                }
+            }
+        });
+        if( error[0] != null )
+            throw error[0];
+
+        rowsRead += rows;
+        file.position(end);
+    }
+
+    /**
+     * Creates a parser which starts at the first line in the chunk
+     */
+    private Parser createChunkParser( long bounds[] , int chunk ) throws IOException {
+        if( chunk == 0 )
+            return new Parser(file,bounds[0]);
+        // start at the previous byte so that a line which begins exactly at the boundary isn't skipped
+        Parser p = new Parser(file,bounds[chunk]-1);
+        p.skipLine();
+        return p;
+    }
+
+    private int getValuesPerRow() {
+        return real ? numCols : 2*numCols;
+    }
+
+    /**
+     * Returns the number of rows in the matrix or -1 if unknown
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * Returns the number of columns in the matrix or -1 if unknown
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Returns true if the matrix is real or false if it's complex
+     */
+    public boolean isReal() {
+        return real;
+    }
+
+    /**
+     * Returns the number of rows which have been read so far
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * <p>
+     * Parses a double from ASCII text without creating a String.  The result is identical to
+     * {@link Double#parseDouble}.
+     * </p>
+     *
+     * <p>
+     * Numbers with up to 19 significant digits are handled by Clinger's fast path or Eisel-Lemire, which covers
+     * everything written by {@link Double#toString}.  Other numbers, NaN, and infinity fall back to
+     * Double.parseDouble.
+     * </p>
+     *
+     * @param text Text which contains the number
+     * @param start First character in the number
+     * @param end One past the last character in the number
+     * @return The number
+     * @throws NumberFormatException If the text isn't a number
+     */
+    public static double parseDouble( byte text[] , int start , int end ) {
+        int i = start;
+        boolean negative = false;
+        if( i < end && (text[i] == '-' || text[i] == '+') ) {
+            negative = text[i] == '-';
+            i++;
+        }
+
+        // the mantissa is an unsigned 64-bit integer and can hold any 19 digit number
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        // true if non-zero digits were dropped from the mantissa
+        boolean truncated = false;
+
+        int first = i;
+        for( ; i < end; i++ ) {
+            int d = text[i]-'0';
+            if( d < 0 || d > 9 )
+                break;
+            if( digits < 19 ) {
+                mantissa = mantissa*10 + d;
+                if( mantissa != 0 )
+                    digits++;
+            } else {
+                exponent++;
+                truncated |= d != 0;
+            }
+        }
+        int numDigits = i-first;
+        if( i < end && text[i] == '.' ) {
+            first = ++i;
+            for( ; i < end; i++ ) {
+                int d = text[i]-'0';
+                if( d < 0 || d > 9 )
+                    break;
+                if( digits < 19 ) {
+                    mantissa = mantissa*10 + d;
+                    exponent--;
+                    if( mantissa != 0 )
+                        digits++;
+                } else {
+                    truncated |= d != 0;
+                }
+            }
+            numDigits += i-first;
+        }
+        if( numDigits == 0 )
+            return parseFallback(text,start,end);
+
+        if( i < end && (text[i] == 'e' || text[i] == 'E') ) {
+            i++;
+            boolean negativeExp = false;
+            if( i < end && (text[i] == '-' || text[i] == '+') ) {
+                negativeExp = text[i] == '-';
+                i++;
+            }
+            first = i;
+            int value = 0;
+            for( ; i < end; i++ ) {
+                int d = text[i]-'0';
+                if( d < 0 || d > 9 )
+                    break;
+                // anything larger is infinity or zero, don't let it overflow
+                if( value < 100000 )
+                    value = value*10 + d;
+            }
+            if( i == first )
+                return parseFallback(text,start,end);
+            exponent += negativeExp ? -value : value;
+        }
+
+        if( i != end || truncated )
+            return parseFallback(text,start,end);
+
+        if( mantissa == 0 )
+            return negative ? -0.0 : 0.0;
+
+        // Clinger's fast path.  The mantissa and power of ten are exact so there's only one rounding
+        if( mantissa > 0 && mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22 ) {
+            double value = mantissa;
+            value = exponent < 0 ? value / POW10_EXACT[-exponent] : value * POW10_EXACT[exponent];
+            return negative ? -value : value;
+        }
+
+        long bits = eiselLemire(mantissa,exponent);
+        if( bits < 0 )
+            return parseFallback(text,start,end);
+        return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+    }
+
+    private static double parseFallback( byte text[] , int start , int end ) {
+        return Double.parseDouble(new String(text,start,end-start,StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Computes mantissa*10^exp10 rounded to the nearest double using the Eisel-Lemire algorithm.
+     *
+     * @return The bits of the positive double or -1 if the result can't be determined
+     */
+    private static long eiselLemire( long mantissa , int exp10 ) {
+        if( exp10 < POW10_MIN || exp10 > POW10_MAX )
+            return -1;
+
+        // normalize so that the highest bit is set
+        int clz = Long.numberOfLeadingZeros(mantissa);
+        mantissa <<= clz;
+        // 217706/2^16 is an approximation of log2(10)
+        long exp2 = ((217706L*exp10) >> 16) + 64 + 1023 - clz;
+
+        // upper 128 bits of the 192 bit product
+        int index = exp10-POW10_MIN;
+        long xHi = multiplyHigh(mantissa,POW10_HIGH[index]);
+        long xLo = mantissa*POW10_HIGH[index];
+
+        // the truncated power of ten might have made the lower bits wrong.  Include the next 64 bits
+        if( (xHi & 0x1FF) == 0x1FF && lessThan(xLo+mantissa,mantissa) ) {
+            long yHi = multiplyHigh(mantissa,POW10_LOW[index]);
+            long yLo = mantissa*POW10_LOW[index];
+            long mergedHi = xHi, mergedLo = xLo+yHi;
+            if( lessThan(mergedLo,xLo) )
+                mergedHi++;
+            if( (mergedHi & 0x1FF) == 0x1FF && mergedLo+1 == 0 && lessThan(yLo+mantissa,mantissa) )
+                return -1;
+            xHi = mergedHi;
+            xLo = mergedLo;
+        }
+
+        // shift to 54 bits
+        long msb = xHi >>> 63;
+        long result = xHi >>> (msb+9);
+        exp2 -= 1 ^ msb;
+
+        // can't tell which way a number exactly half way between two doubles should be rounded
+        if( xLo == 0 && (xHi & 0x1FF) == 0 && (result & 3) == 1 )
+            return -1;
+
+        // round to 53 bits
+        result += result & 1;
+        result >>>= 1;
+        if( (result >>> 53) > 0 ) {
+            result >>>= 1;
+            exp2++;
+        }
+
+        // sub-normal, infinity, or NaN
+        if( exp2 <= 0 || exp2 >= 0x7FF )
+            return -1;
+
+        return exp2 << 52 | (result & 0x000FFFFFFFFFFFFFL);
+    }
+
+    /**
+     * Upper 64 bits of the 128 bit product of two unsigned integers
+     */
+    private static long multiplyHigh( long a , long b ) {
+        long a0 = a & 0xFFFFFFFFL, a1 = a >>> 32;
+        long b0 = b & 0xFFFFFFFFL, b1 = b >>> 32;
+
+        long t = a1*b0 + ((a0*b0) >>> 32);
+        long w1 = (t & 0xFFFFFFFFL) + a0*b1;
+        return a1*b1 + (t >>> 32) + (w1 >>> 32);
+    }
+
+    /**
+     * a &lt; b for unsigned integers
+     */
+    private static boolean lessThan( long a , long b ) {
+        return (a ^ Long.MIN_VALUE) < (b ^ Long.MIN_VALUE);
+    }
+
+    /**
+     * Reads bytes from the input in blocks and parses lines
+     */
+    private class Parser {
+        ReadableByteChannel channel;
+        // if not null then bytes are read from this location in the file without changing the file's position
+        FileChannel file;
+        long filePosition;
+
+        byte buffer[] = new byte[BLOCK_BYTES];
+        ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+        // location of the next byte and the number of bytes in the buffer
+        int index, length;
+        // location of buffer[0] in the input
+        long offset;
+        boolean eof;
+
+        // index of the matrix row being read, used in error messages
+        int row;
+
+        Parser( ReadableByteChannel channel ) {
+            this.channel = channel;
+        }
+
+        Parser( FileChannel file , long position ) {
+            this.file = file;
+            this.filePosition = position;
+            this.offset = position;
+        }
+
+        /**
+         * Location of the next byte.  If reading from a file then this is the location in the file.
+         */
+        long position() throws IOException {
+            if( file == null && channel instanceof FileChannel )
+                return ((FileChannel)channel).position() - (length-index);
+            return offset+index;
+        }
+
+        /**
+         * Moves unread bytes to the start of the buffer then reads more
+         *
+         * @return true if more bytes were read or false if the end of the input was reached
+         */
+        boolean fill() throws IOException {
+            if( eof )
+                return false;
+
+            if( index > 0 ) {
+                System.arraycopy(buffer,index,buffer,0,length-index);
+                offset += index;
+                length -= index;
+                index = 0;
+            }
+            // a single word is larger than the buffer
+            if( length == buffer.length ) {
+                buffer = Arrays.copyOf(buffer,buffer.length*2);
+                wrapped = ByteBuffer.wrap(buffer);
+            }
+
+            wrapped.limit(buffer.length);
+            wrapped.position(length);
+            int found;
+            do {
+                if( file == null ) {
+                    found = channel.read(wrapped);
+                } else {
+                    found = file.read(wrapped,filePosition);
+                    if( found > 0 )
+                        filePosition += found;
+                }
+            } while( found == 0 );
+
+            if( found < 0 ) {
+                eof = true;
+                return false;
+            }
+            length += found;
+            return true;
+        }
+
+        /**
+         * Moves to the start of the next line which contains words, skipping blank lines and comments.
+         *
+         * @param limit Lines which start at or after this location are not read
+         * @return true if a line was found or false if there are no more lines
+         */
+        boolean nextLine( long limit ) throws IOException {
+            while( true ) {
+                if( index == length && !fill() )
+                    return false;
+                if( offset+index >= limit )
+                    return false;
+
+                if( hasComment && buffer[index] == comment ) {
+                    skipLine();
+                    continue;
+                }
+                skipSpaces();
+                if( index == length )
+                    return false;
+                if( buffer[index] == '\n' ) {
+                    index++;
+                    continue;
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Moves to the start of the next line
+         */
+        void skipLine() throws IOException {
+            do {
+                while( index < length ) {
+                    if( buffer[index++] == '\n' )
+                        return;
+                }
+            } while( fill() );
+        }
+
+        void skipSpaces() throws IOException {
+            do {
+                while( index < length ) {
+                    byte b = buffer[index];
+                    if( b != ' ' && b != '\t' && b != '\r' )
+                        return;
+                    index++;
+                }
+            } while( fill() );
+        }
+
+        /**
+         * Finds the end of the next word on the current line, reading more bytes if needed.  The word starts
+         * at 'index'.
+         *
+         * @return One past the last byte in the word or -1 if there are no more words on the line
+         */
+        int nextWord() throws IOException {
+            skipSpaces();
+            if( index == length || buffer[index] == '\n' )
+                return -1;
+
+            int end = index;
+            while( true ) {
+                while( end < length ) {
+                    byte b = buffer[end];
+                    if( b == ' ' || b == '\t' || b == '\r' || b == '\n' )
+                        return end;
+                    end++;
+                }
+                // the buffer can be compacted even if nothing more is read
+                int before = index;
+                boolean more = fill();
+                end -= before-index;
+                if( !more )
+                    return end;
+            }
+        }
+
+        /**
+         * Reads all the words on the current line as Strings
+         */
+        List<String> readWords() throws IOException {
+            List<String> words = new ArrayList<>();
+            int end;
+            while( (end = nextWord()) >= 0 ) {
+                words.add(new String(buffer,index,end-index,StandardCharsets.US_ASCII));
+                index = end;
+            }
+            skipLine();
+            return words;
+        }
+
+        /**
+         * Counts the number of lines with words
+         *
+         * @param limit Lines which start at or after this location are not counted
+         */
+        int countRows( long limit ) throws IOException {
+            int total = 0;
+            while( nextLine(limit) ) {
+                skipLine();
+                total++;
+            }
+            return total;
+        }
+
+        /**
+         * Parses rows of numbers into 'data'
+         *
+         * @param data Where the values are written to
+         * @param offset Index of the first element in data
+         * @param valuesPerRow Number of values in each row
+         * @param maxRows Maximum number of rows to read
+         * @param limit Lines which start at or after this location are not read
+         * @return Number of rows read
+         */
+        int readRows( double data[] , int offset , int valuesPerRow , int maxRows , long limit )
+                throws IOException
+        {
+            int total = 0;
+            while( total < maxRows && nextLine(limit) ) {
+                for (int i = 0; i < valuesPerRow; i++) {
+                    int end = nextWord();
+                    if( end < 0 )
+                        throw new IOException("Unexpected number of words in row "+row+". Found "+i+" expected "+valuesPerRow);
+                    try {
+                        data[offset++] = parseDouble(buffer,index,end);
+                    } catch( NumberFormatException e ) {
+                        throw new IOException("Can't parse '"+new String(buffer,index,end-index,StandardCharsets.US_ASCII)+
+                                "' in row "+row);
+                    }
+                    index = end;
+                }
+                skipSpaces();
+                if( index < length ) {
+                    if( buffer[index] != '\n' )
+                        throw new IOException("Unexpected number of words in row "+row+". Found more than "+valuesPerRow);
+                    index++;
+                }
+                row++;
+                total++;
+            }
+            return total;
+        }
+    }
+}
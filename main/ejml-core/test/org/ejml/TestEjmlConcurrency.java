@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEjmlConcurrency {
+
+    /**
+     * Every element should be processed exactly once and blocks should respect the minimum length
+     */
+    @Test
+    public void loopBlocks() {
+        for( int minBlock : new int[]{1,7,200} ) {
+            final int[] counts = new int[103];
+            final int[] smallest = new int[]{Integer.MAX_VALUE};
+
+            EjmlConcurrency.loopBlocks(2, counts.length, minBlock, new EjmlConcurrency.RangeTask() {
+                @Override
+                public void process(int start, int end) {
+                    synchronized (smallest) {
+                        if( end < counts.length )
+                            smallest[0] = Math.min(smallest[0], end - start);
+                    }
+                    for (int i = start; i < end; i++) {
+                        counts[i]++;
+                    }
+                }
+            });
+
+            assertEquals(0,counts[0]);
+            assertEquals(0,counts[1]);
+            for (int i = 2; i < counts.length; i++) {
+                assertEquals(1,counts[i]);
+            }
+            if( smallest[0] != Integer.MAX_VALUE )
+                assertTrue(smallest[0] >= minBlock);
+        }
+    }
+
+    /**
+     * Exceptions thrown inside of a task should be passed to the caller
+     */
+    @Test
+    public void loopBlocks_exception() {
+        try {
+            EjmlConcurrency.loopBlocks(0, 100, 1, new EjmlConcurrency.RangeTask() {
+                @Override
+                public void process(int start, int end) {
+                    if( start > 50 )
+                        throw new IllegalArgumentException("Bad");
+                }
+            });
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    @Test
+    public void setPool() {
+        ForkJoinPool original = EjmlConcurrency.getPool();
+        try {
+            ForkJoinPool pool = new ForkJoinPool(3);
+            EjmlConcurrency.setPool(pool);
+            assertTrue(pool == EjmlConcurrency.getPool());
+            assertEquals(3,EjmlConcurrency.getMaxThreads());
+            pool.shutdown();
+        } finally {
+            EjmlConcurrency.setPool(original);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEjmlParameters {
+
+    Properties original;
+
+    @Before
+    public void before() {
+        original = EjmlParameters.getProfile();
+    }
+
+    @After
+    public void after() {
+        EjmlParameters.setProfile(original);
+    }
+
+    @Test
+    public void loadProfile_stream() throws IOException {
+        String text = "# comment\nBLOCK_WIDTH=32\nMULT_COLUMN_SWITCH = 7\nCONCURRENT=false\n"+
+                "MULT_CONCURRENT_SWITCH=12345\nMEMORY=LOW_MEMORY\n";
+
+        int transposeSwitch = EjmlParameters.TRANSPOSE_SWITCH;
+        EjmlParameters.loadProfile(new ByteArrayInputStream(text.getBytes("UTF-8")));
+
+        assertEquals(32,EjmlParameters.BLOCK_WIDTH);
+        assertEquals(32*32,EjmlParameters.BLOCK_SIZE);
+        assertEquals(7,EjmlParameters.MULT_COLUMN_SWITCH);
+        assertFalse(EjmlParameters.CONCURRENT);
+        assertEquals(12345,EjmlParameters.MULT_CONCURRENT_SWITCH);
+        assertTrue(EjmlParameters.MEMORY == EjmlParameters.MemoryUsage.LOW_MEMORY);
+        // parameters not in the profile should not be modified
+        assertEquals(transposeSwitch,EjmlParameters.TRANSPOSE_SWITCH);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setProfile_badValue() {
+        Properties profile = new Properties();
+        profile.setProperty("BLOCK_WIDTH","foo");
+        EjmlParameters.setProfile(profile);
+    }
+
+    /**
+     * If any value is bad then none of the parameters should be changed
+     */
+    @Test
+    public void setProfile_badValueInMiddle() {
+        Properties before = EjmlParameters.getProfile();
+
+        String bad[][] = new String[][]{{"SWITCH_BLOCK64_QR","abc"},{"BLOCK_WIDTH","0"},{"BLOCK_WIDTH_CHOL","-3"},
+                {"SWITCH_BLOCK64_LU","-1"},{"MULT_CONCURRENT_SWITCH","-5"},{"CONCURRENT","maybe"},
+                {"SWITCH_EIG_MULTISHIFT","99999999999"}};
+
+        for( String b[] : bad ) {
+            Properties profile = new Properties();
+            profile.setProperty("MEMORY","LOW_MEMORY");
+            profile.setProperty("BLOCK_WIDTH","32");
+            profile.setProperty("MULT_COLUMN_SWITCH","7");
+            profile.setProperty(b[0],b[1]);
+            profile.setProperty("SWITCH_SVD_DIVIDE_CONQUER","11");
+            profile.setProperty("MULT_INNER_SWITCH","13");
+
+            try {
+                EjmlParameters.setProfile(profile);
+                fail("Exception expected for "+b[0]+"="+b[1]);
+            } catch( IllegalArgumentException ignore ) {}
+
+            assertEquals(before,EjmlParameters.getProfile());
+            assertEquals(EjmlParameters.BLOCK_WIDTH*EjmlParameters.BLOCK_WIDTH,EjmlParameters.BLOCK_SIZE);
+        }
+    }
+
+    @Test
+    public void saveProfile_loadProfile() throws IOException {
+        File file = File.createTempFile("ejml",".properties");
+        file.deleteOnExit();
+
+        EjmlParameters.SWITCH_BLOCK64_QR = 123;
+        EjmlParameters.SWITCH_BLOCK64_LU = 456;
+        EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER = 789;
+        EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER = 321;
+        EjmlParameters.SWITCH_EIG_MULTISHIFT = 654;
+        EjmlParameters.saveProfile(file.getPath(),"test");
+
+        EjmlParameters.SWITCH_BLOCK64_QR = 1;
+        EjmlParameters.SWITCH_BLOCK64_LU = 2;
+        EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER = 3;
+        EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER = 4;
+        EjmlParameters.SWITCH_EIG_MULTISHIFT = 5;
+        EjmlParameters.loadProfile(file.getPath());
+
+        assertEquals(123,EjmlParameters.SWITCH_BLOCK64_QR);
+        assertEquals(456,EjmlParameters.SWITCH_BLOCK64_LU);
+        assertEquals(789,EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER);
+        assertEquals(321,EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER);
+        assertEquals(654,EjmlParameters.SWITCH_EIG_MULTISHIFT);
+
+        assertTrue(file.delete());
+    }
+}
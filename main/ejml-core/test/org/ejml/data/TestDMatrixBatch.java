@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.ejml.EjmlUnitTests;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDMatrixBatch {
+
+    @Test
+    public void reshape() {
+        DMatrixBatch a = new DMatrixBatch(10,3,4);
+        assertEquals(10,a.size);
+        assertEquals(3,a.numRows);
+        assertEquals(4,a.numCols);
+        assertEquals(120,a.data.length);
+
+        // shrinking should not declare a new array
+        double[] data = a.data;
+        a.reshape(5,4,4);
+        assertSame(data,a.data);
+        assertEquals(80,a.getNumElements());
+
+        a.reshape(11,4,4);
+        assertEquals(176,a.data.length);
+    }
+
+    @Test
+    public void layout() {
+        DMatrixBatch a = new DMatrixBatch(7,2,3);
+        a.set(4,1,2,5);
+
+        // each element is contiguous across the batch
+        assertEquals((1*3+2)*7+4,a.getIndex(4,1,2));
+        assertEquals(5,a.data[a.getIndex(4,1,2)],0);
+        assertEquals(5,a.get(4,1,2),0);
+    }
+
+    @Test
+    public void getMatrix_setMatrix() {
+        DMatrixBatch a = new DMatrixBatch(5,2,3);
+        DMatrixRMaj m = new DMatrixRMaj(2,3,true,1,2,3,4,5,6);
+
+        a.setMatrix(2,m);
+        for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertEquals(m.get(row,col),a.get(2,row,col),0);
+                assertEquals(0,a.get(1,row,col),0);
+            }
+        }
+
+        DMatrixRMaj found = new DMatrixRMaj(2,3);
+        a.getMatrix(2,found);
+        EjmlUnitTests.assertEquals(m,found,0);
+
+        try {
+            a.getMatrix(2,new DMatrixRMaj(3,2));
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ){}
+        try {
+            a.setMatrix(5,m);
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    @Test
+    public void set_copy_zero() {
+        DMatrixBatch a = new DMatrixBatch(4,2,2);
+        for (int i = 0; i < a.getNumElements(); i++) {
+            a.data[i] = i+1;
+        }
+
+        DMatrixBatch b = a.copy();
+        assertEquals(4,b.size);
+        assertEquals(2,b.numRows);
+        assertEquals(2,b.numCols);
+        for (int i = 0; i < a.getNumElements(); i++) {
+            assertEquals(a.data[i],b.data[i],0);
+        }
+
+        b.zero();
+        for (int i = 0; i < b.getNumElements(); i++) {
+            assertEquals(0,b.data[i],0);
+        }
+    }
+
+    @Test
+    public void checkBounds() {
+        DMatrixBatch a = new DMatrixBatch(4,2,2);
+        try {
+            a.get(4,0,0);
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ){}
+        try {
+            a.set(0,2,0,1);
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ){}
+    }
+}
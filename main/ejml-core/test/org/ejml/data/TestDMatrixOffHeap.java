@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.data;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDMatrixOffHeap {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void constructor() {
+        DMatrixOffHeap A = new DMatrixOffHeap(5,7,3);
+        assertEquals(5,A.numRows);
+        assertEquals(7,A.numCols);
+        assertEquals(35,A.getDataLength());
+        assertEquals(35,A.getNumElements());
+        // 8 elements in each chunk
+        assertEquals(5,A.getNumChunks());
+        assertEquals(35,A.getCapacity());
+        for (int i = 0; i < 35; i++) {
+            assertEquals(0,A.get((long)i),0);
+        }
+    }
+
+    /**
+     * Use very small chunks so that elements span several of them
+     */
+    @Test
+    public void get_set() {
+        DMatrixOffHeap A = new DMatrixOffHeap(5,7,2);
+
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 7; j++) {
+                A.set(i,j,i*10+j);
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 7; j++) {
+                assertEquals(i*10+j,A.get(i,j),0);
+                assertEquals(i*10+j,A.unsafe_get(i,j),0);
+                assertEquals(i*10+j,A.get(A.getIndex(i,j)),0);
+            }
+        }
+
+        try {
+            A.get(5,0);
+            fail("Exception expected");
+        } catch( IllegalArgumentException ignore ){}
+        try {
+            A.set(0,7,1);
+            fail("Exception expected");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    @Test
+    public void read_write() {
+        DMatrixOffHeap A = new DMatrixOffHeap(4,9,3);
+
+        double src[] = new double[40];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = i+1;
+        }
+        // crosses several chunk boundaries
+        A.write(5,src,2,20);
+        for (int i = 0; i < 36; i++) {
+            double expected = i >= 5 && i < 25 ? i-5+3 : 0;
+            assertEquals(expected,A.get((long)i),0);
+        }
+
+        double dst[] = new double[30];
+        A.read(3,dst,1,25);
+        for (int i = 0; i < 25; i++) {
+            assertEquals(A.get((long)(i+3)),dst[i+1],0);
+        }
+        assertEquals(0,dst[0],0);
+        assertEquals(0,dst[26],0);
+
+        A.zero();
+        for (int i = 0; i < 36; i++) {
+            assertEquals(0,A.get((long)i),0);
+        }
+    }
+
+    @Test
+    public void reshape() {
+        DMatrixOffHeap A = new DMatrixOffHeap(4,5,3);
+        DoubleBuffer chunk = A.getChunk(0);
+
+        // fits inside the current storage
+        A.reshape(2,10);
+        assertEquals(2,A.numRows);
+        assertEquals(10,A.numCols);
+        assertSame(chunk,A.getChunk(0));
+
+        A.reshape(7,3);
+        assertEquals(21,A.getDataLength());
+        assertTrue(A.getCapacity() >= 21);
+        assertNotSame(chunk,A.getChunk(0));
+    }
+
+    @Test
+    public void wrap() {
+        DoubleBuffer chunks[] = new DoubleBuffer[]{DoubleBuffer.allocate(4),DoubleBuffer.allocate(3)};
+        DMatrixOffHeap A = new DMatrixOffHeap(chunks,2,2,3);
+        A.set(1,2,5);
+        assertEquals(5,chunks[1].get(1),0);
+
+        // reshaping inside the chunks is fine, but it can't grow beyond them
+        A.reshape(1,7);
+        assertSame(chunks[1],A.getChunk(1));
+        try {
+            A.reshape(2,4);
+            fail("Exception expected");
+        } catch( IllegalArgumentException ignore ){}
+        assertEquals(7,A.getDataLength());
+        assertSame(chunks[0],A.getChunk(0));
+
+        // chunks are too small
+        try {
+            new DMatrixOffHeap(chunks,2,2,4);
+            fail("Exception expected");
+        } catch( IllegalArgumentException ignore ){}
+        // first chunk has the wrong size
+        try {
+            new DMatrixOffHeap(chunks,3,2,3);
+            fail("Exception expected");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    @Test
+    public void set_copy() {
+        DMatrixRMaj R = new DMatrixRMaj(4,6);
+        for (int i = 0; i < R.data.length; i++) {
+            R.data[i] = rand.nextDouble();
+        }
+
+        DMatrixOffHeap A = new DMatrixOffHeap(1,1,3);
+        A.set(R);
+        checkEquals(R,A);
+
+        DMatrixOffHeap B = A.copy();
+        checkEquals(R,B);
+        B.set(0,0,-1);
+        assertEquals(R.get(0,0),A.get(0,0),0);
+
+        DMatrixOffHeap C = A.createLike();
+        assertEquals(4,C.numRows);
+        assertEquals(6,C.numCols);
+        C.set(A);
+        checkEquals(R,C);
+
+        DMatrix3x3 F = new DMatrix3x3(1,2,3,4,5,6,7,8,9);
+        C.set(F);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(F.get(i,j),C.get(i,j),0);
+            }
+        }
+    }
+
+    @Test
+    public void serialization() throws IOException, ClassNotFoundException {
+        DMatrixOffHeap A = new DMatrixOffHeap(3,5,2);
+        for (int i = 0; i < 15; i++) {
+            A.set((long)i,rand.nextDouble());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(A);
+        out.close();
+
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        DMatrixOffHeap found = (DMatrixOffHeap)in.readObject();
+
+        assertEquals(3,found.numRows);
+        assertEquals(5,found.numCols);
+        for (int i = 0; i < 15; i++) {
+            assertEquals(A.get((long)i),found.get((long)i),0);
+        }
+    }
+
+    private static void checkEquals( DMatrixRMaj expected , DMatrixOffHeap found ) {
+        assertEquals(expected.numRows,found.numRows);
+        assertEquals(expected.numCols,found.numCols);
+        for (int i = 0; i < expected.numRows; i++) {
+            for (int j = 0; j < expected.numCols; j++) {
+                assertEquals(expected.get(i,j),found.get(i,j),0);
+            }
+        }
+    }
+}
@@ -34,26 +34,26 @@ public class TestDMatrixSparseTriplet extends GenericTestsDMatrixSparse {
         DMatrixSparseTriplet m = new DMatrixSparseTriplet(1,1,10);
 
         assertEquals(0,m.getLength());
-        assertEquals(10,m.nz_data.length);
-        for (int i = 0; i < m.nz_data.length; i++) {
-            assertTrue(m.nz_data[i] != null);
-        }
+        assertEquals(10,m.nz_rows.length);
+        assertEquals(10,m.nz_cols.length);
+        assertEquals(10,m.nz_values.length);
     }
 
     @Test
     public void growData() {
         DMatrixSparseTriplet m = new DMatrixSparseTriplet(1,1,10);
 
+        m.addItem(0,1,2);
         m.growData(4);
-        assertEquals(0,m.getLength());
-        assertEquals(10,m.nz_data.length);
+        assertEquals(1,m.getLength());
+        assertEquals(10,m.nz_values.length);
 
         m.growData(12);
-        assertEquals(0,m.getLength());
-        assertEquals(12,m.nz_data.length);
-        for (int i = 0; i < m.nz_data.length; i++) {
-            assertTrue(m.nz_data[i] != null);
-        }
+        assertEquals(1,m.getLength());
+        assertEquals(12,m.nz_rows.length);
+        assertEquals(12,m.nz_cols.length);
+        assertEquals(12,m.nz_values.length);
+        check(m,0,0,1,2);
     }
 
     @Test
@@ -64,25 +64,83 @@ public class TestDMatrixSparseTriplet extends GenericTestsDMatrixSparse {
         m.addItem(1,3,4);
 
         assertEquals(2,m.nz_length);
-        assertEquals(2,m.nz_data.length);
+        assertEquals(2,m.nz_values.length);
 
-        check(m.nz_data[0],1,2,3);
-        check(m.nz_data[1],1,3,4);
+        check(m,0,1,2,3);
+        check(m,1,1,3,4);
 
         // now force it to grow
         m.addItem(2,3,5);
         assertEquals(3,m.nz_length);
-        assertTrue(m.nz_data.length >= 3);
+        assertTrue(m.nz_values.length >= 3);
+        assertEquals(m.nz_values.length,m.nz_rows.length);
+        assertEquals(m.nz_values.length,m.nz_cols.length);
+
+        check(m,0,1,2,3);
+        check(m,1,1,3,4);
+        check(m,2,2,3,5);
+    }
+
+    /**
+     * Add a lot of elements and see if the arrays are grown in large steps, i.e. not one element at a time
+     */
+    @Test
+    public void addItem_amortized() {
+        DMatrixSparseTriplet m = new DMatrixSparseTriplet(100,100,0);
+
+        int numGrow = 0;
+        int previous = m.nz_values.length;
+        for (int i = 0; i < 10000; i++) {
+            m.addItem(i/100,i%100,i);
+            if( m.nz_values.length != previous ) {
+                numGrow++;
+                previous = m.nz_values.length;
+            }
+        }
+        assertTrue(numGrow < 20);
+
+        for (int i = 0; i < 10000; i++) {
+            check(m,i,i/100,i%100,i);
+        }
+    }
+
+    @Test
+    public void remove() {
+        DMatrixSparseTriplet m = new DMatrixSparseTriplet(3,4,5);
+
+        m.addItem(0,1,2);
+        m.addItem(1,2,3);
+        m.addItem(2,3,4);
+
+        m.remove(1,2);
+        assertEquals(2,m.nz_length);
+        check(m,0,0,1,2);
+        check(m,1,2,3,4);
+
+        // removing an element which isn't there should do nothing
+        m.remove(1,1);
+        assertEquals(2,m.nz_length);
+    }
+
+    @Test
+    public void shrinkArrays() {
+        DMatrixSparseTriplet m = new DMatrixSparseTriplet(3,4,10);
+
+        m.addItem(0,1,2);
+        m.addItem(1,2,3);
+        m.shrinkArrays();
 
-        check(m.nz_data[0],1,2,3);
-        check(m.nz_data[1],1,3,4);
-        check(m.nz_data[2],2,3,5);
+        assertEquals(2,m.nz_rows.length);
+        assertEquals(2,m.nz_cols.length);
+        assertEquals(2,m.nz_values.length);
+        check(m,0,0,1,2);
+        check(m,1,1,2,3);
     }
 
-    private void check(DMatrixSparseTriplet.Element e , int row , int col , double value ) {
-        assertEquals(row,e.row);
-        assertEquals(col,e.col);
-        assertEquals(value,e.value, UtilEjml.TEST_F64);
+    private void check(DMatrixSparseTriplet m , int index , int row , int col , double value ) {
+        assertEquals(row,m.nz_rows[index]);
+        assertEquals(col,m.nz_cols[index]);
+        assertEquals(value,m.nz_values[index], UtilEjml.TEST_F64);
     }
 
     @Test
@@ -92,7 +150,7 @@ public class TestDMatrixSparseTriplet extends GenericTestsDMatrixSparse {
         m.addItem(1,2, 5);
 
         assertTrue( -1 == m.nz_index(0,1));
-        check( m.nz_data[m.nz_index(1,2)], 1,2,5);
+        check( m, m.nz_index(1,2), 1,2,5);
     }
 
     @Override
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.ops;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssembleDMatrixSparseCSC {
+
+    Random rand = new Random(234);
+
+    /**
+     * Randomly add elements with lots of duplicates and compare against a dense matrix
+     */
+    @Test
+    public void assemble_random() {
+        for (int trial = 0; trial < 20; trial++) {
+            int numRows = rand.nextInt(10)+1;
+            int numCols = rand.nextInt(10)+1;
+
+            DMatrixSparseTriplet T = new DMatrixSparseTriplet(numRows,numCols,0);
+            DMatrixRMaj expected = new DMatrixRMaj(numRows,numCols);
+            createRandom(T, expected, rand.nextInt(100));
+
+            DMatrixSparseCSC found = new AssembleDMatrixSparseCSC().assemble(T,null);
+
+            assertTrue(found.indicesSorted);
+            assertTrue(CommonOps_DSCC.checkIndicesSorted(found));
+            assertTrue(found.nz_length <= T.nz_length);
+            checkEquals(expected, found);
+        }
+    }
+
+    /**
+     * The pattern should be reused and the values updated when numeric is called with different values
+     */
+    @Test
+    public void numeric_reuse() {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(6,5,0);
+        DMatrixRMaj expected = new DMatrixRMaj(6,5);
+        createRandom(T, expected, 40);
+
+        AssembleDMatrixSparseCSC alg = new AssembleDMatrixSparseCSC();
+        DMatrixSparseCSC found = alg.assemble(T,new DMatrixSparseCSC(1,1,1));
+        int nz_length = found.nz_length;
+
+        // change the values but not the structure
+        expected.zero();
+        for (int i = 0; i < T.nz_length; i++) {
+            T.nz_values[i] = rand.nextDouble();
+            expected.add(T.nz_rows[i],T.nz_cols[i],T.nz_values[i]);
+        }
+
+        alg.numeric(T,found);
+        assertEquals(nz_length,found.nz_length);
+        checkEquals(expected, found);
+
+        // map should point to where each element is located
+        int map[] = alg.getMap();
+        for (int i = 0; i < T.nz_length; i++) {
+            assertEquals(T.nz_rows[i], found.nz_rows[map[i]]);
+            assertTrue(map[i] >= found.col_idx[T.nz_cols[i]]);
+            assertTrue(map[i] < found.col_idx[T.nz_cols[i]+1]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void numeric_incompatible() {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(6,5,0);
+        createRandom(T, new DMatrixRMaj(6,5), 10);
+
+        AssembleDMatrixSparseCSC alg = new AssembleDMatrixSparseCSC();
+        alg.symbolic(T);
+
+        T.addItem(1,1,2);
+        alg.numeric(T,null);
+    }
+
+    @Test
+    public void empty() {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(4,3,0);
+
+        DMatrixSparseCSC found = new AssembleDMatrixSparseCSC().assemble(T,null);
+        assertEquals(0,found.nz_length);
+        for (int i = 0; i <= 3; i++) {
+            assertEquals(0,found.col_idx[i]);
+        }
+    }
+
+    private void createRandom( DMatrixSparseTriplet T , DMatrixRMaj expected , int N ) {
+        for (int i = 0; i < N; i++) {
+            int row = rand.nextInt(T.numRows);
+            int col = rand.nextInt(T.numCols);
+            double value = rand.nextDouble()-0.5;
+
+            T.addItem(row,col,value);
+            expected.add(row,col,value);
+        }
+    }
+
+    private void checkEquals( DMatrixRMaj expected , DMatrixSparseCSC found ) {
+        DMatrixRMaj dense = ConvertDMatrixSparse.convert(found,(DMatrixRMaj)null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,dense, UtilEjml.TEST_F64));
+    }
+}
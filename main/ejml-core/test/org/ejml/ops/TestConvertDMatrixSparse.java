@@ -70,7 +70,7 @@ public class TestConvertDMatrixSparse {
                 if( a.get(row,col) == 0.0 ) {
                     assertTrue( -1 == index );
                 } else {
-                    assertEquals( a.get(row,col), b.nz_data[index].value, UtilEjml.TEST_F64);
+                    assertEquals( a.get(row,col), b.nz_values[index], UtilEjml.TEST_F64);
                 }
             }
         }
@@ -126,8 +126,7 @@ public class TestConvertDMatrixSparse {
         assertEquals(a.numCols, b.numCols);
         assertEquals(a.nz_length, b.nz_length);
         for (int i = 0; i < a.nz_length; i++) {
-            DMatrixSparseTriplet.Element e = a.nz_data[i];
-            assertEquals(e.value, b.get(e.row, e.col), UtilEjml.TEST_F64);
+            assertEquals(a.nz_values[i], b.get(a.nz_rows[i], a.nz_cols[i]), UtilEjml.TEST_F64);
         }
         assertTrue(CommonOps_DSCC.checkSortedFlag(b));
 
@@ -138,4 +137,22 @@ public class TestConvertDMatrixSparse {
         c = ConvertDMatrixSparse.convert(b,new DMatrixSparseTriplet(1,1,1));
         assertTrue(MatrixFeatures_DSTL.isEquals(a,c, UtilEjml.TEST_F64));
     }
+
+    @Test
+    public void SMatrixTriplet_SMatrixCC_duplicates() {
+        DMatrixSparseTriplet a = new DMatrixSparseTriplet(3,4,5);
+        a.addItem(2,1,1);
+        a.addItem(0,1,2);
+        a.addItem(2,1,3);
+        a.addItem(1,3,4);
+
+        DMatrixSparseCSC b = ConvertDMatrixSparse.convert(a,(DMatrixSparseCSC)null);
+
+        assertEquals(3,b.nz_length);
+        assertTrue(b.indicesSorted);
+        assertTrue(CommonOps_DSCC.checkIndicesSorted(b));
+        assertEquals(2,b.get(0,1), UtilEjml.TEST_F64);
+        assertEquals(4,b.get(2,1), UtilEjml.TEST_F64);
+        assertEquals(4,b.get(1,3), UtilEjml.TEST_F64);
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.ops;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.ZMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.RandomMatrices_ZDRM;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMappedMatrix {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void open_sparse() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(10,7,25,-1,1,rand);
+            MatrixIOBinary.write(A,f.getPath());
+
+            MappedMatrix mapped = MappedMatrix.open(f.getPath(),false);
+            assertEquals(MatrixIOBinary.SPARSE_CSC_REAL,mapped.getType());
+            assertEquals(25,mapped.getNonZeroLength());
+            assertEquals(A.indicesSorted,mapped.isIndicesSorted());
+            for (int col = 0; col <= A.numCols; col++) {
+                assertEquals(A.col_idx[col],mapped.getColIdx(col));
+            }
+            for (int i = 0; i < A.nz_length; i++) {
+                assertEquals(A.nz_rows[i],mapped.getNzRow(i));
+                assertEquals(A.nz_values[i],mapped.get(i),0);
+            }
+            mapped.close();
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    @Test
+    public void open_complex() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            ZMatrixRMaj A = RandomMatrices_ZDRM.rectangle(4,3,-1,1,rand);
+            MatrixIOBinary.write(A,f.getPath());
+
+            MappedMatrix mapped = MappedMatrix.open(f.getPath(),false);
+            assertEquals(MatrixIOBinary.DENSE_COMPLEX,mapped.getType());
+            assertEquals(24,mapped.getNumValues());
+            for (int row = 0; row < 4; row++) {
+                for (int col = 0; col < 3; col++) {
+                    long index = 2*(row*3+col);
+                    assertEquals(A.getReal(row,col),mapped.get(index),0);
+                    assertEquals(A.getImag(row,col),mapped.get(index+1),0);
+                }
+            }
+            mapped.close();
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * Create a sparse matrix directly in a file then read it back in
+     */
+    @Test
+    public void create_sparse() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(10,7,25,-1,1,rand);
+
+            MappedMatrix mapped = MappedMatrix.create(f.getPath(),MatrixIOBinary.SPARSE_CSC_REAL,
+                    A.numRows,A.numCols,A.nz_length);
+            assertEquals(mapped.getFileLength(),f.length());
+            for (int col = 0; col <= A.numCols; col++) {
+                mapped.setColIdx(col,A.col_idx[col]);
+            }
+            for (int i = 0; i < A.nz_length; i++) {
+                mapped.setNzRow(i,A.nz_rows[i]);
+                mapped.set(i,A.nz_values[i]);
+            }
+            mapped.setIndicesSorted(A.indicesSorted);
+            mapped.force();
+            mapped.close();
+
+            DMatrixSparseCSC found = MatrixIOBinary.read(f.getPath());
+            assertEquals(A.indicesSorted,found.indicesSorted);
+            assertTrue(MatrixFeatures_DSCC.isEquals(A,found));
+        } finally {
+            f.delete();
+        }
+    }
+
+    /**
+     * A truncated file must be rejected before it's mapped.  Otherwise a writable mapping would grow the file.
+     */
+    @Test
+    public void open_truncated_writable() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6,5,-1,1,rand);
+            MatrixIOBinary.write(A,f.getPath());
+
+            RandomAccessFile raf = new RandomAccessFile(f,"rw");
+            raf.setLength(raf.length()-8*5);
+            raf.close();
+            long length = f.length();
+
+            try {
+                MappedMatrix.open(f.getPath(),true);
+                fail("Should have thrown an exception");
+            } catch( IOException ignore ) {}
+
+            assertEquals(length,f.length());
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * The file has a header which is longer than the one written by this version
+     */
+    @Test
+    public void open_longerHeader() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            int headerLength = MatrixIOBinary.HEADER_LENGTH + 32;
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(3,4,-1,1,rand);
+
+            ByteBuffer buffer = ByteBuffer.allocate(headerLength + A.getNumElements()*8).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MatrixIOBinary.MAGIC);
+            buffer.putInt(MatrixIOBinary.VERSION);
+            buffer.putInt(MatrixIOBinary.DENSE_REAL);
+            buffer.putInt(headerLength);
+            buffer.putLong(A.numRows);
+            buffer.putLong(A.numCols);
+            buffer.putLong(0);
+            buffer.position(headerLength);
+            for (int i = 0; i < A.getNumElements(); i++) {
+                buffer.putDouble(A.data[i]);
+            }
+            RandomAccessFile raf = new RandomAccessFile(f,"rw");
+            raf.write(buffer.array());
+            raf.close();
+
+            MappedMatrix mapped = MappedMatrix.open(f.getPath(),false);
+            assertEquals(f.length(),mapped.getFileLength());
+            for (int i = 0; i < A.getNumElements(); i++) {
+                assertEquals(A.data[i],mapped.get(i),0);
+            }
+            mapped.close();
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+}
@@ -18,16 +18,22 @@
 
 package org.ejml.ops;
 
-import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.*;
 import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.MatrixFeatures_ZDRM;
 import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.RandomMatrices_ZDRM;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Random;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 
 /**
@@ -54,6 +60,112 @@ public class TestMatrixIO {
         assertTrue(f.delete());
     }
 
+    @Test
+    public void load_save_binary_sparse() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(10,7,25,-1,1,rand);
+            MatrixIO.saveBin(A, f.getPath());
+            DMatrixSparseCSC A_copy = MatrixIO.loadBin(f.getPath());
+            assertEquals(A.indicesSorted,A_copy.indicesSorted);
+            assertTrue(MatrixFeatures_DSCC.isEquals(A,A_copy));
+
+            // triplets are saved as CSC
+            DMatrixSparseTriplet T = new DMatrixSparseTriplet(4,5,3);
+            T.addItem(3,1,2.5);
+            T.addItem(0,4,-1);
+            MatrixIO.saveBin(T, f.getPath());
+            A_copy = MatrixIO.loadBin(f.getPath());
+            assertEquals(2,A_copy.nz_length);
+            assertEquals(2.5,A_copy.get(3,1),0);
+            assertEquals(-1,A_copy.get(0,4),0);
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    @Test
+    public void load_save_binary_complex() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            ZMatrixRMaj A = RandomMatrices_ZDRM.rectangle(4,6,-1,1,rand);
+            MatrixIO.saveBin(A, f.getPath());
+            ZMatrixRMaj A_copy = MatrixIO.loadBin(f.getPath());
+            assertTrue(MatrixFeatures_ZDRM.isIdentical(A,A_copy,0));
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * Matrices which aren't DMatrixRMaj are saved as dense and read in as DMatrixRMaj
+     */
+    @Test
+    public void load_save_binary_otherDense() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrix3x3 A = new DMatrix3x3(1,2,3,4,5,6,7,8,9);
+            MatrixIO.saveBin(A, f.getPath());
+            DMatrixRMaj A_copy = MatrixIO.loadBin(f.getPath());
+            assertEquals(3,A_copy.numRows);
+            assertEquals(3,A_copy.numCols);
+            for (int i = 0; i < 9; i++) {
+                assertEquals(i+1,A_copy.data[i],0);
+            }
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * Files created with Java serialization in older versions should still be readable
+     */
+    @Test
+    public void loadBin_serialized() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6,3,rand);
+            ObjectOutputStream stream = new ObjectOutputStream(new FileOutputStream(f));
+            stream.writeObject(A);
+            stream.close();
+
+            DMatrixRMaj A_copy = MatrixIO.loadBin(f.getPath());
+            assertTrue(MatrixFeatures_DDRM.isEquals(A,A_copy));
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    @Test
+    public void mapBin() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6,3,rand);
+            MatrixIO.saveBin(A, f.getPath());
+
+            MappedMatrix mapped = MatrixIO.mapBin(f.getPath(),true);
+            assertEquals(MatrixIOBinary.DENSE_REAL,mapped.getType());
+            assertEquals(6,mapped.getNumRows());
+            assertEquals(3,mapped.getNumCols());
+            for (int i = 0; i < 6; i++) {
+                for (int j = 0; j < 3; j++) {
+                    assertEquals(A.get(i,j),mapped.get(i,j),0);
+                }
+            }
+
+            // changes should be saved to the file
+            mapped.set(2,1,100);
+            mapped.force();
+            mapped.close();
+
+            DMatrixRMaj A_copy = MatrixIO.loadBin(f.getPath());
+            A.set(2,1,100);
+            assertTrue(MatrixFeatures_DDRM.isEquals(A,A_copy));
+        } finally {
+            f.delete();
+        }
+    }
+
     @Test
     public void load_save_csv() throws IOException {
         DMatrixRMaj A = RandomMatrices_DDRM.rectangle(6,3,rand);
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.ops;
+
+import org.ejml.data.DMatrixRMaj;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixIOBinary {
+
+    /**
+     * Checks the layout of the file against the documented format
+     */
+    @Test
+    public void format_dense() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            DMatrixRMaj A = new DMatrixRMaj(2,3,true,1,2,3,4,5,6);
+            MatrixIOBinary.write(A,f.getPath());
+
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(f.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(64+6*8,bytes.limit());
+            assertEquals('E',bytes.get(0));
+            assertEquals('J',bytes.get(1));
+            assertEquals('M',bytes.get(2));
+            assertEquals('L',bytes.get(3));
+            assertEquals(MatrixIOBinary.VERSION,bytes.getInt(4));
+            assertEquals(MatrixIOBinary.DENSE_REAL,bytes.getInt(8));
+            assertEquals(64,bytes.getInt(12));
+            assertEquals(2,bytes.getLong(16));
+            assertEquals(3,bytes.getLong(24));
+            assertEquals(0,bytes.getLong(32));
+            for (int i = 0; i < 6; i++) {
+                assertEquals(i+1,bytes.getDouble(64+i*8),0);
+            }
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    @Test
+    public void read_errors() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            MatrixIOBinary.write(new DMatrixRMaj(4,5),f.getPath());
+            assertTrue(MatrixIOBinary.isBinaryFormat(f.getPath()));
+
+            // truncated file
+            RandomAccessFile raf = new RandomAccessFile(f,"rw");
+            raf.setLength(raf.length()-8);
+            raf.close();
+            try {
+                MatrixIOBinary.read(f.getPath());
+                fail("exception expected");
+            } catch( IOException ignore ){}
+            try {
+                MappedMatrix.open(f.getPath(),false);
+                fail("exception expected");
+            } catch( IOException ignore ){}
+
+            // not the format
+            raf = new RandomAccessFile(f,"rw");
+            raf.setLength(0);
+            raf.writeBytes("hello world");
+            raf.close();
+            assertFalse(MatrixIOBinary.isBinaryFormat(f.getPath()));
+            try {
+                MatrixIOBinary.read(f.getPath());
+                fail("exception expected");
+            } catch( IOException ignore ){}
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * Large enough that more than one block is needed when reading and writing
+     */
+    @Test
+    public void multipleBlocks() throws IOException {
+        File f = File.createTempFile("ejml",".mat");
+        try {
+            int N = MatrixIOBinary.BLOCK_BYTES/8*2+11;
+            DMatrixRMaj A = new DMatrixRMaj(N,1);
+            for (int i = 0; i < N; i++) {
+                A.data[i] = i;
+            }
+            MatrixIOBinary.write(A,f.getPath());
+            DMatrixRMaj found = MatrixIOBinary.read(f.getPath());
+            for (int i = 0; i < N; i++) {
+                assertEquals(i,found.data[i],0);
+            }
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.ops;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.ZMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.MatrixFeatures_ZDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestReadMatrixCsvStream {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void read_real() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20,7,rand);
+
+        DMatrixRMaj found = create(toCsv(A,true)).read();
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A,found,0));
+    }
+
+    @Test
+    public void read_complex() throws IOException {
+        String s = "3 2 complex\n0 2 0 -1\n1 2 -1 -1\n0 2 3 10";
+
+        ZMatrixRMaj expected = new ZMatrixRMaj(3,2,true,0,2,0,-1,1,2,-1,-1,0,2,3,10);
+        ZMatrixRMaj found = create(s).read();
+
+        assertTrue(MatrixFeatures_ZDRM.isIdentical(expected,found,UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Blank lines, comments, tabs, and windows line endings
+     */
+    @Test
+    public void read_formatting() throws IOException {
+        String s = "# comment\r\n2 3 real\r\n\r\n  1\t2.5 -3e2  \r\n# 5 6 7\n\n4 +5 6.";
+
+        ReadMatrixCsvStream alg = create(s);
+        alg.setComment('#');
+        DMatrixRMaj found = alg.read();
+
+        DMatrixRMaj expected = new DMatrixRMaj(2,3,true,1,2.5,-300,4,5,6);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found,0));
+    }
+
+    @Test
+    public void readReal_noHeader() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5,4,rand);
+
+        DMatrixRMaj found = create(toCsv(A,false)).readReal(5,4);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A,found,0));
+    }
+
+    @Test
+    public void read_errors() {
+        checkError("3 2 real\n0 0\n1 1");
+        checkError("2 2 real\n0 0\n1 1\n2 2");
+        checkError("2 2 real\n0 0\n1 1\n\n2 2\n");
+        checkError("3 2 real\n0 0\n1\n0 3");
+        checkError("3 2 real\n0 0\n1 2 3\n0 3");
+        checkError("2 2 real\n0 0\n1 foo");
+        checkError("2 2\n0 0\n1 1");
+        checkError("2 2 fake\n0 0\n1 1");
+        checkError("");
+    }
+
+    private void checkError( String s ) {
+        try {
+            create(s).read();
+            fail("Exception expected for "+s);
+        } catch( IOException ignore ){}
+    }
+
+    /**
+     * Read in blocks of rows
+     */
+    @Test
+    public void readRows() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(23,4,rand);
+
+        ReadMatrixCsvStream alg = create(toCsv(A,true));
+        alg.readHeader();
+        assertEquals(23,alg.getNumRows());
+        assertEquals(4,alg.getNumCols());
+        assertTrue(alg.isReal());
+
+        DMatrixRMaj block = new DMatrixRMaj(1,1);
+        int row = 0;
+        int found;
+        while( (found = alg.readRows(block,5)) > 0 ) {
+            assertEquals(found,block.numRows);
+            assertEquals(Math.min(5,23-row),found);
+            for (int i = 0; i < found; i++) {
+                for (int j = 0; j < 4; j++) {
+                    assertEquals(A.get(row+i,j),block.get(i,j),0);
+                }
+            }
+            row += found;
+        }
+        assertEquals(23,row);
+        assertEquals(23,alg.getRowsRead());
+
+        // extra rows after the last block
+        alg = create(toCsv(A,true)+"1 2 3 4\n");
+        alg.readHeader();
+        assertEquals(20,alg.readRows(block,20));
+        try {
+            alg.readRows(block,20);
+            fail("Exception expected");
+        } catch( IOException ignore ){}
+    }
+
+    /**
+     * Force the file to be split into many chunks, including chunks with no lines in them
+     */
+    @Test
+    public void read_concurrent() throws IOException {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(57,6,rand);
+        String text = "# comment\n"+toCsv(A,true).replace("\n","\n\n# comment\n")+"# end";
+
+        File f = File.createTempFile("ejml",".csv");
+        try {
+            FileOutputStream out = new FileOutputStream(f);
+            out.write(text.getBytes(StandardCharsets.US_ASCII));
+            out.close();
+
+            for( int chunks : new int[]{2,7,60,text.length()} ) {
+                FileInputStream in = new FileInputStream(f);
+                ReadMatrixCsvStream alg = new ReadMatrixCsvStream(in);
+                alg.setComment('#');
+                alg.numChunks = chunks;
+                DMatrixRMaj found = alg.read();
+                in.close();
+                assertTrue(MatrixFeatures_DDRM.isIdentical(A,found,0));
+            }
+
+            // missing rows should still be detected
+            FileInputStream in = new FileInputStream(f);
+            ReadMatrixCsvStream alg = new ReadMatrixCsvStream(in);
+            alg.setComment('#');
+            alg.numChunks = 5;
+            try {
+                alg.readReal(58,6);
+                fail("Exception expected");
+            } catch( IOException ignore ){}
+            in.close();
+
+            // so should extra rows
+            in = new FileInputStream(f);
+            alg = new ReadMatrixCsvStream(in);
+            alg.setComment('#');
+            alg.numChunks = 5;
+            try {
+                alg.readReal(56,6);
+                fail("Exception expected");
+            } catch( IOException ignore ){}
+            in.close();
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * Numbers must be identical to Double.parseDouble
+     */
+    @Test
+    public void parseDouble() {
+        String special[] = new String[]{"0","-0.0","+1.5","1.","0.1","1e10","1E-5","-2.5e+3","NaN","-Infinity",
+                "1e400","1e-400","4.9E-324","2.2250738585072014E-308","1.7976931348623157E308",
+                "9007199254740993","0.30000000000000004","123456789012345678901234567890","0x1p3","1d"};
+        for( String s : special ) {
+            checkParse(s);
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            checkParse(Double.toString(Double.longBitsToDouble(rand.nextLong())));
+            checkParse(Double.toString(rand.nextGaussian()*Math.pow(10,rand.nextInt(40)-20)));
+        }
+
+        String bad[] = new String[]{"","-","1e","foo","1.2.3","1e5e"};
+        for( String s : bad ) {
+            byte b[] = s.getBytes(StandardCharsets.US_ASCII);
+            try {
+                ReadMatrixCsvStream.parseDouble(b,0,b.length);
+                fail("Exception expected for "+s);
+            } catch( NumberFormatException ignore ){}
+        }
+    }
+
+    private void checkParse( String s ) {
+        byte b[] = (" "+s+" ").getBytes(StandardCharsets.US_ASCII);
+        double found = ReadMatrixCsvStream.parseDouble(b,1,b.length-1);
+        assertEquals(s,Double.doubleToRawLongBits(Double.parseDouble(s)),Double.doubleToRawLongBits(found));
+    }
+
+    /**
+     * Words which are split across blocks or are larger than the buffer
+     */
+    @Test
+    public void longWords() throws IOException {
+        StringBuilder zeros = new StringBuilder();
+        for (int i = 0; i < ReadMatrixCsvStream.BLOCK_BYTES*2; i++) {
+            zeros.append('0');
+        }
+        int N = ReadMatrixCsvStream.BLOCK_BYTES/8;
+        StringBuilder s = new StringBuilder();
+        s.append(N+1).append(" 2 real\n");
+        for (int i = 0; i < N; i++) {
+            s.append(i).append(".25 ").append(-i).append('\n');
+        }
+        s.append(zeros).append("1.5 ").append("2.").append(zeros).append('\n');
+
+        DMatrixRMaj found = create(s.toString()).read();
+        for (int i = 0; i < N; i++) {
+            assertEquals(i+0.25,found.get(i,0),0);
+            assertEquals(-i,found.get(i,1),0);
+        }
+        assertEquals(1.5,found.get(N,0),0);
+        assertEquals(2,found.get(N,1),0);
+    }
+
+    private static ReadMatrixCsvStream create( String s ) {
+        return new ReadMatrixCsvStream(new ByteArrayInputStream(s.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String toCsv( DMatrixRMaj A , boolean header ) {
+        StringBuilder s = new StringBuilder();
+        if( header )
+            s.append(A.numRows).append(' ').append(A.numCols).append(" real\n");
+        for (int i = 0; i < A.numRows; i++) {
+            for (int j = 0; j < A.numCols; j++) {
+                s.append(A.get(i,j)).append(' ');
+            }
+            s.append('\n');
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.fixed;
+
+import org.ejml.UtilEjml;
+import org.ejml.dense.row.misc.GenerateInverseFromMinor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+
+/**
+ * Automatic code generator for the batch versions of the fixed sized operations.  Each function loops through
+ * every matrix in a {@link org.ejml.data.DMatrixBatch}.  Inside the loop all the inputs are read into local
+ * variables, the unrolled fixed sized algorithm is applied, then the results are written.  The inner loop is
+ * over the batch index so that memory is accessed sequentially.
+ *
+ * @author Peter Abeles
+ */
+public class GenerateFixedBatchOps extends GenerateFixed {
+
+    public GenerateFixedBatchOps() {
+        super("BatchOps_DDF");
+    }
+
+    @Override
+    public void generate() throws FileNotFoundException {
+        for( int dimension = 2; dimension <= 6; dimension++ ){
+            printPreable(dimension);
+
+            mult(dimension);
+            multTransA(dimension);
+            multTransB(dimension);
+            if( dimension <= UtilEjml.maxInverseSize ) {
+                invert(dimension);
+                solve(dimension);
+            }
+            chol(dimension);
+            solveChol(dimension);
+            checks(dimension);
+
+            out.println("}\n");
+        }
+    }
+
+    public void printPreable( int dimen ) throws FileNotFoundException {
+
+        setClassNames(dimen);
+
+        out.print("import org.ejml.MatrixDimensionException;\n" +
+                "import org.ejml.data.DMatrixBatch;\n" +
+                "\n" +
+                "/**\n" +
+                " * <p>Operations on batches of fixed sized matrices which are "+dimen+" x "+dimen+" or "+dimen+" element vectors.\n" +
+                " * Each function applies the same operation to every matrix in the batch.  The unrolled code is the same as\n" +
+                " * in {@link CommonOps_DDF"+dimen+"} but the inner loop is over the batch index, see {@link DMatrixBatch}.\n" +
+                " * Vectors are stored in a batch with "+dimen+" rows and one column.</p>\n" +
+                " *\n" +
+                " * <p>All the inputs for a matrix are read before any of its outputs are written.  Outputs can be the same\n" +
+                " * batch as an input.</p>\n" +
+                " * <p>DO NOT MODIFY.  Automatically generated code created by "+getClass().getSimpleName()+"</p>\n" +
+                " *\n" +
+                " * @author Peter Abeles\n" +
+                " */\n" +
+                "public class "+className+" {\n");
+    }
+
+    private void mult( int dimen ) {
+        out.print("    /**\n" +
+                "     * <p>Performs the following operation on every matrix in the batch:<br>\n" +
+                "     * <br>\n" +
+                "     * c = a * b <br>\n" +
+                "     * <br>\n" +
+                "     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>kj</sub>}\n" +
+                "     * </p>\n" +
+                "     *\n" +
+                "     * @param a The left matrices in the multiplication operation. Not modified.\n" +
+                "     * @param b The right matrices in the multiplication operation. Not modified.\n" +
+                "     * @param c Where the results of the operation are stored. Reshaped. Modified.\n" +
+                "     */\n");
+        printMultHeader("mult",dimen);
+        for( int y = 1; y <= dimen; y++ ) {
+            for( int x = 1; x <= dimen; x++ ) {
+                out.print("            "+element("dataC",y,x,dimen)+" = ");
+                for( int k = 1; k <= dimen; k++ ) {
+                    out.print("a"+y+k+"*b"+k+x);
+                    if( k < dimen )
+                        out.print(" + ");
+                }
+                out.print(";\n");
+            }
+        }
+        out.print("        }\n" +
+                "    }\n\n");
+    }
+
+    private void multTransA( int dimen ) {
+        out.print("    /**\n" +
+                "     * <p>Performs the following operation on every matrix in the batch:<br>\n" +
+                "     * <br>\n" +
+                "     * c = a<sup>T</sup> * b <br>\n" +
+                "     * <br>\n" +
+                "     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ki</sub> * b<sub>kj</sub>}\n" +
+                "     * </p>\n" +
+                "     *\n" +
+                "     * @param a The left matrices in the multiplication operation. Not modified.\n" +
+                "     * @param b The right matrices in the multiplication operation. Not modified.\n" +
+                "     * @param c Where the results of the operation are stored. Reshaped. Modified.\n" +
+                "     */\n");
+        printMultHeader("multTransA",dimen);
+        for( int y = 1; y <= dimen; y++ ) {
+            for( int x = 1; x <= dimen; x++ ) {
+                out.print("            "+element("dataC",y,x,dimen)+" = ");
+                for( int k = 1; k <= dimen; k++ ) {
+                    out.print("a"+k+y+"*b"+k+x);
+                    if( k < dimen )
+                        out.print(" + ");
+                }
+                out.print(";\n");
+            }
+        }
+        out.print("        }\n" +
+                "    }\n\n");
+    }
+
+    private void multTransB( int dimen ) {
+        out.print("    /**\n" +
+                "     * <p>Performs the following operation on every matrix in the batch:<br>\n" +
+                "     * <br>\n" +
+                "     * c = a * b<sup>T</sup> <br>\n" +
+                "     * <br>\n" +
+                "     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>jk</sub>}\n" +
+                "     * </p>\n" +
+                "     *\n" +
+                "     * @param a The left matrices in the multiplication operation. Not modified.\n" +
+                "     * @param b The right matrices in the multiplication operation. Not modified.\n" +
+                "     * @param c Where the results of the operation are stored. Reshaped. Modified.\n" +
+                "     */\n");
+        printMultHeader("multTransB",dimen);
+        for( int y = 1; y <= dimen; y++ ) {
+            for( int x = 1; x <= dimen; x++ ) {
+                out.print("            "+element("dataC",y,x,dimen)+" = ");
+                for( int k = 1; k <= dimen; k++ ) {
+                    out.print("a"+y+k+"*b"+x+k);
+                    if( k < dimen )
+                        out.print(" + ");
+                }
+                out.print(";\n");
+            }
+        }
+        out.print("        }\n" +
+                "    }\n\n");
+    }
+
+    private void printMultHeader( String name , int dimen ) {
+        out.print("    public static void "+name+"( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {\n" +
+                "        checkMatrix(a,\"a\");\n" +
+                "        checkMatrix(b,\"b\");\n" +
+                "        checkSize(a,b);\n" +
+                "        c.reshape(a.size,"+dimen+","+dimen+");\n" +
+                "\n" +
+                "        final int N = a.size;\n" +
+                "        final double[] dataA = a.data, dataB = b.data, dataC = c.data;\n" +
+                "\n" +
+                "        for( int i = 0; i < N; i++ ) {\n");
+        loadMatrix("dataA","a",dimen,false);
+        loadMatrix("dataB","b",dimen,false);
+        out.println();
+    }
+
+    private void invert( int dimen ) {
+        out.print("    /**\n" +
+                "     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'.  Scaling is\n" +
+                "     * applied to improve stability against overflow and underflow.  Matrices which can't be inverted\n" +
+                "     * will contain NaN or infinite values.\n" +
+                "     *\n" +
+                "     * WARNING: Potentially less stable than using LU decomposition.\n" +
+                "     *\n" +
+                "     * @param a Input matrices. Not modified.\n" +
+                "     * @param inv Inverted output matrices. Reshaped. Modified.\n" +
+                "     * @return true if every matrix was successfully inverted or false if one failed.  Not always reliable.\n" +
+                "     */\n" +
+                "    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {\n" +
+                "        checkMatrix(a,\"a\");\n" +
+                "        inv.reshape(a.size,"+dimen+","+dimen+");\n" +
+                "\n" +
+                "        final int N = a.size;\n" +
+                "        final double[] dataA = a.data, dataInv = inv.data;\n" +
+                "\n" +
+                "        boolean success = true;\n" +
+                "        for( int i = 0; i < N; i++ ) {\n");
+        loadMatrix("dataA","a",dimen,false);
+        out.println();
+        printMinors(dimen);
+
+        for( int y = 1; y <= dimen; y++ ) {
+            for( int x = 1; x <= dimen; x++ ) {
+                out.print("            "+element("dataInv",y,x,dimen)+" = m"+x+y+"/det;\n");
+            }
+        }
+        out.println();
+        out.print("            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);\n" +
+                "        }\n" +
+                "        return success;\n" +
+                "    }\n\n");
+    }
+
+    private void solve( int dimen ) {
+        out.print("    /**\n" +
+                "     * Solves for x in a*x = b for every matrix in the batch.  The inverse of 'a' is computed using minor\n" +
+                "     * matrices with the same scaling as {@link #invert}.  Solutions which couldn't be found will contain\n" +
+                "     * NaN or infinite values.\n" +
+                "     *\n" +
+                "     * WARNING: Potentially less stable than using LU decomposition.\n" +
+                "     *\n" +
+                "     * @param a Input matrices. Not modified.\n" +
+                "     * @param b Input vectors. Not modified.\n" +
+                "     * @param x Solution vectors. Reshaped. Modified.\n" +
+                "     * @return true if every system was successfully solved or false if one failed.  Not always reliable.\n" +
+                "     */\n" +
+                "    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {\n" +
+                "        checkMatrix(a,\"a\");\n" +
+                "        checkVector(b,\"b\");\n" +
+                "        checkSize(a,b);\n" +
+                "        x.reshape(a.size,"+dimen+",1);\n" +
+                "\n" +
+                "        final int N = a.size;\n" +
+                "        final double[] dataA = a.data, dataB = b.data, dataX = x.data;\n" +
+                "\n" +
+                "        boolean success = true;\n" +
+                "        for( int i = 0; i < N; i++ ) {\n");
+        loadMatrix("dataA","a",dimen,false);
+        loadVector("dataB","b",dimen);
+        out.println();
+        printMinors(dimen);
+
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print("            "+element("dataX",y,1,1)+" = (");
+            for( int k = 1; k <= dimen; k++ ) {
+                out.print("m"+k+y+"*b"+k);
+                if( k < dimen )
+                    out.print(" + ");
+            }
+            out.print(")/det;\n");
+        }
+        out.println();
+        out.print("            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);\n" +
+                "        }\n" +
+                "        return success;\n" +
+                "    }\n\n");
+    }
+
+    /**
+     * Scales the matrix by its largest absolute value then computes the minors and determinant
+     */
+    private void printMinors( int dimen ) {
+        // Math.max() is much slower than a comparison here
+        out.print("            double scale = Math.abs(a11);\n");
+        out.print("            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;\n");
+        for( int y = 1; y <= dimen; y++ ) {
+            for( int x = 1; x <= dimen; x++ ) {
+                if( y == 1 && x <= 2 )
+                    continue;
+                out.print("            tmp = Math.abs(a"+y+x+"); if( tmp > scale ) scale = tmp;\n");
+            }
+        }
+        out.print("            scale = 1.0/scale;\n");
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print("           ");
+            for( int x = 1; x <= dimen; x++ ) {
+                out.print(" a"+y+x+" *= scale;");
+            }
+            out.println();
+        }
+        out.println();
+
+        int matrix[] = new int[dimen*dimen];
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = i;
+        }
+
+        // the minor code is written for a function body and needs to be indented into the loop
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            GenerateInverseFromMinor gen = new GenerateInverseFromMinor(false);
+            gen.printMinors(matrix, dimen, new PrintStream(bytes));
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+        for( String line : bytes.toString().split("\n") ) {
+            if( line.length() == 0 )
+                out.println();
+            else
+                out.println("    "+line);
+        }
+        out.println();
+    }
+
+    private void chol( int dimen ) {
+        out.print("    /**\n" +
+                "     * <p>\n" +
+                "     * Computes the Cholesky decomposition of every matrix in the batch: a = L*L<sup>T</sup>, where L is lower\n" +
+                "     * triangular.  Only the lower triangle of 'a' is read.  The upper triangle of 'L' is set to zero.  Matrices\n" +
+                "     * which are not positive definite will have NaN in their decomposition.\n" +
+                "     * </p>\n" +
+                "     *\n" +
+                "     * @param a Symmetric positive definite matrices. Not modified.\n" +
+                "     * @param L Lower triangular output matrices.  Reshaped. Modified.\n" +
+                "     * @return true if every matrix is positive definite or false if one is not.\n" +
+                "     */\n" +
+                "    public static boolean chol( DMatrixBatch a , DMatrixBatch L ) {\n" +
+                "        checkMatrix(a,\"a\");\n" +
+                "        L.reshape(a.size,"+dimen+","+dimen+");\n" +
+                "\n" +
+                "        final int N = a.size;\n" +
+                "        final double[] dataA = a.data, dataL = L.data;\n" +
+                "\n" +
+                "        boolean success = true;\n" +
+                "        for( int i = 0; i < N; i++ ) {\n");
+        loadMatrix("dataA","a",dimen,true);
+        out.println();
+
+        for( int x = 1; x <= dimen; x++ ) {
+            out.print("            double l"+x+x+" = Math.sqrt(a"+x+x);
+            for( int k = 1; k < x; k++ ) {
+                out.print(" - l"+x+k+"*l"+x+k);
+            }
+            out.print(");\n");
+            if( x == dimen )
+                break;
+            out.print("            double inv"+x+" = 1.0/l"+x+x+";\n");
+            for( int y = x+1; y <= dimen; y++ ) {
+                out.print("            double l"+y+x+" = ");
+                if( x > 1 )
+                    out.print("(");
+                out.print("a"+y+x);
+                for( int k = 1; k < x; k++ ) {
+                    out.print(" - l"+y+k+"*l"+x+k);
+                }
+                if( x > 1 )
+                    out.print(")");
+                out.print("*inv"+x+";\n");
+            }
+        }
+        out.println();
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print("           ");
+            for( int x = 1; x <= dimen; x++ ) {
+                out.print(" "+element("dataL",y,x,dimen)+" = "+(x <= y ? "l"+y+x : "0")+";");
+            }
+            out.println();
+        }
+        out.println();
+        out.print("            success &= ");
+        for( int x = 1; x <= dimen; x++ ) {
+            out.print("l"+x+x+" > 0");
+            if( x < dimen )
+                out.print(" && ");
+        }
+        out.print(";\n" +
+                "        }\n" +
+                "        return success;\n" +
+                "    }\n\n");
+    }
+
+    private void solveChol( int dimen ) {
+        out.print("    /**\n" +
+                "     * Solves for x in L*L<sup>T</sup>*x = b for every matrix in the batch, where L was computed by\n" +
+                "     * {@link #chol}.  Only the lower triangle of 'L' is read.\n" +
+                "     *\n" +
+                "     * @param L Lower triangular matrices from the Cholesky decomposition. Not modified.\n" +
+                "     * @param b Input vectors. Not modified.\n" +
+                "     * @param x Solution vectors. Reshaped. Modified.\n" +
+                "     */\n" +
+                "    public static void solveChol( DMatrixBatch L , DMatrixBatch b , DMatrixBatch x ) {\n" +
+                "        checkMatrix(L,\"L\");\n" +
+                "        checkVector(b,\"b\");\n" +
+                "        checkSize(L,b);\n" +
+                "        x.reshape(L.size,"+dimen+",1);\n" +
+                "\n" +
+                "        final int N = L.size;\n" +
+                "        final double[] dataL = L.data, dataB = b.data, dataX = x.data;\n" +
+                "\n" +
+                "        for( int i = 0; i < N; i++ ) {\n");
+        loadMatrix("dataL","l",dimen,true);
+        loadVector("dataB","b",dimen);
+        out.println();
+
+        // forward substitution, L*y = b
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print("            double y"+y+" = ");
+            if( y > 1 )
+                out.print("(");
+            out.print("b"+y);
+            for( int k = 1; k < y; k++ ) {
+                out.print(" - l"+y+k+"*y"+k);
+            }
+            if( y > 1 )
+                out.print(")");
+            out.print("/l"+y+y+";\n");
+        }
+        // backward substitution, L'*x = y
+        for( int y = dimen; y >= 1; y-- ) {
+            out.print("            double x"+y+" = ");
+            if( y < dimen )
+                out.print("(");
+            out.print("y"+y);
+            for( int k = y+1; k <= dimen; k++ ) {
+                out.print(" - l"+k+y+"*x"+k);
+            }
+            if( y < dimen )
+                out.print(")");
+            out.print("/l"+y+y+";\n");
+        }
+        out.println();
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print("            "+element("dataX",y,1,1)+" = x"+y+";\n");
+        }
+        out.print("        }\n" +
+                "    }\n\n");
+    }
+
+    private void checks( int dimen ) {
+        out.print("    private static void checkMatrix( DMatrixBatch m , String name ) {\n" +
+                "        if( m.numRows != "+dimen+" || m.numCols != "+dimen+" )\n" +
+                "            throw new MatrixDimensionException(\"'\"+name+\"' must contain "+dimen+" x "+dimen+" matrices\");\n" +
+                "    }\n" +
+                "\n" +
+                "    private static void checkVector( DMatrixBatch m , String name ) {\n" +
+                "        if( m.numRows != "+dimen+" || m.numCols != 1 )\n" +
+                "            throw new MatrixDimensionException(\"'\"+name+\"' must contain "+dimen+" element vectors\");\n" +
+                "    }\n" +
+                "\n" +
+                "    private static void checkSize( DMatrixBatch a , DMatrixBatch b ) {\n" +
+                "        if( a.size != b.size )\n" +
+                "            throw new MatrixDimensionException(\"Batches must contain the same number of matrices\");\n" +
+                "    }\n");
+    }
+
+    /**
+     * Reads every element in a matrix into local variables, one line for each row
+     */
+    private void loadMatrix( String array , String variable , int dimen , boolean lower ) {
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print("            double ");
+            int length = lower ? y : dimen;
+            for( int x = 1; x <= length; x++ ) {
+                out.print(variable+y+x+" = "+element(array,y,x,dimen));
+                if( x < length )
+                    out.print(", ");
+            }
+            out.print(";\n");
+        }
+    }
+
+    private void loadVector( String array , String variable , int dimen ) {
+        out.print("            double ");
+        for( int y = 1; y <= dimen; y++ ) {
+            out.print(variable+y+" = "+element(array,y,1,1));
+            if( y < dimen )
+                out.print(", ");
+        }
+        out.print(";\n");
+    }
+
+    /**
+     * Location of element (row,col) of matrix 'i' inside the data array
+     */
+    private String element( String array , int row , int col , int numCols ) {
+        int index = (row-1)*numCols + col-1;
+        if( index == 0 )
+            return array+"[i]";
+        else if( index == 1 )
+            return array+"[i+N]";
+        else
+            return array+"[i+"+index+"*N]";
+    }
+
+    public static void main( String args[] ) throws FileNotFoundException {
+        GenerateFixedBatchOps app = new GenerateFixedBatchOps();
+
+        app.generate();
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.block.decomposition.chol.CholeskyOuterForm_DDRB;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.eig.MultiShiftQRDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
+import org.ejml.dense.row.misc.TransposeAlgs_DDRM;
+import org.ejml.dense.row.mult.MatrixMatrixMult_DDRM;
+import org.ejml.dense.row.mult.MatrixMatrixMult_MT_DDRM;
+import org.ejml.dense.row.mult.MatrixMultProduct_DDRM;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * <p>
+ * Tunes the parameters in {@link EjmlParameters} for the computer it's run on.  For each parameter the competing
+ * algorithms are run across a range of matrix sizes and the switch point is set to where the algorithm meant for
+ * larger matrices becomes faster.  The results can be saved into a profile, which is loaded when EJML starts.
+ * See {@link EjmlParameters#PROFILE_PROPERTY}.
+ * </p>
+ *
+ * <p>
+ * Tuning takes a few minutes.  Other processes running at the same time will skew the results.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class AutoTuneEjmlParameters {
+
+    // minimum amount of time each algorithm is run for at each size, in nano seconds
+    protected long minimumTime;
+    // the largest matrix the decompositions are run on
+    protected int maxSize;
+
+    protected PrintStream out = System.out;
+
+    protected Random rand = new Random(234);
+
+    /**
+     * @param maxSize The largest matrix the decompositions are run on.  Switch points larger than this
+     *                can't be found.
+     * @param minimumTime Minimum amount of time each algorithm is run for at each size, in milliseconds.
+     */
+    public AutoTuneEjmlParameters(int maxSize, long minimumTime) {
+        this.maxSize = maxSize;
+        this.minimumTime = minimumTime*1000000L;
+    }
+
+    public AutoTuneEjmlParameters() {
+        this(2000,200);
+    }
+
+    /**
+     * Tunes all the parameters and updates {@link EjmlParameters}
+     */
+    public void tune() {
+        // the block algorithms depend on the block width so it must be tuned first
+        tuneBlockWidth();
+        tuneMultColumnSwitch();
+        tuneMultTranABSwitch();
+        tuneMultInnerSwitch();
+        tuneTransposeSwitch();
+        tuneCholesky();
+        tuneQR();
+        tuneLU();
+        tuneSvd();
+        tuneEigSymmetric();
+        tuneEigGeneral();
+        tuneConcurrentMult();
+    }
+
+    /**
+     * Selects the block width which minimizes the time to multiply and decompose block matrices
+     */
+    public void tuneBlockWidth() {
+        int widths[] = new int[]{16,24,32,40,48,60,64,80,96,128};
+        final int N = Math.min(maxSize,600);
+
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N,N,-1,1,rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.symmetricPosDef(N,rand);
+
+        int best = EjmlParameters.BLOCK_WIDTH;
+        double bestTime = Double.MAX_VALUE;
+
+        for( final int width : widths ) {
+            final DMatrixRBlock blockA = MatrixOps_DDRB.convert(A,width);
+            final DMatrixRBlock blockB = MatrixOps_DDRB.convert(B,width);
+            final DMatrixRBlock blockC = new DMatrixRBlock(N,N,width);
+            final DMatrixRBlock work = new DMatrixRBlock(N,N,width);
+            final CholeskyOuterForm_DDRB chol = new CholeskyOuterForm_DDRB(true);
+
+            double time = measure(new Runnable() {
+                @Override
+                public void run() {
+                    MatrixOps_DDRB.mult(blockA,blockB,blockC);
+                    work.set(blockB);
+                    chol.decompose(work);
+                }
+            });
+
+            out.printf("  block width %4d  %10.3f ms\n",width,time*1e-6);
+
+            if( time < bestTime ) {
+                bestTime = time;
+                best = width;
+            }
+        }
+
+        EjmlParameters.BLOCK_WIDTH = best;
+        EjmlParameters.BLOCK_SIZE = best*best;
+        out.println("BLOCK_WIDTH = "+best);
+    }
+
+    public void tuneMultColumnSwitch() {
+        EjmlParameters.MULT_COLUMN_SWITCH = findCrossover(sequence(2,64,2),new MultComparison() {
+            @Override public void first() { MatrixMatrixMult_DDRM.mult_small(a,b,c); }
+            @Override public void second() { MatrixMatrixMult_DDRM.mult_reorder(a,b,c); }
+        });
+        out.println("MULT_COLUMN_SWITCH = "+EjmlParameters.MULT_COLUMN_SWITCH);
+    }
+
+    public void tuneMultTranABSwitch() {
+        EjmlParameters.MULT_TRANAB_COLUMN_SWITCH = findCrossover(sequence(2,100,2),new MultComparison() {
+            @Override public void first() { MatrixMatrixMult_DDRM.multTransAB(a,b,c); }
+            @Override public void second() { MatrixMatrixMult_DDRM.multTransAB_aux(a,b,c,null); }
+        });
+        out.println("MULT_TRANAB_COLUMN_SWITCH = "+EjmlParameters.MULT_TRANAB_COLUMN_SWITCH);
+    }
+
+    public void tuneMultInnerSwitch() {
+        EjmlParameters.MULT_INNER_SWITCH = findCrossover(sequence(10,300,10),new MultComparison() {
+            @Override public void first() { MatrixMultProduct_DDRM.inner_reorder(a,c); }
+            @Override public void second() { MatrixMultProduct_DDRM.inner_small(a,c); }
+        });
+        out.println("MULT_INNER_SWITCH = "+EjmlParameters.MULT_INNER_SWITCH);
+    }
+
+    public void tuneTransposeSwitch() {
+        int crossover = findCrossover(sequence(50,Math.min(maxSize,1500),50),new MultComparison() {
+            @Override public void first() { TransposeAlgs_DDRM.standard(a,c); }
+            @Override public void second() { TransposeAlgs_DDRM.block(a,c,EjmlParameters.BLOCK_WIDTH); }
+        });
+        // the block algorithm is used when the size is larger than the switch
+        EjmlParameters.TRANSPOSE_SWITCH = crossover-1;
+        out.println("TRANSPOSE_SWITCH = "+EjmlParameters.TRANSPOSE_SWITCH);
+    }
+
+    public void tuneCholesky() {
+        EjmlParameters.SWITCH_BLOCK64_CHOLESKY = findCrossover(decompositionSizes(),new DecompositionComparison(true) {
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                first = new CholeskyDecompositionInner_DDRM(true);
+                second = new CholeskyDecomposition_DDRB_to_DDRM(true);
+            }
+        });
+        out.println("SWITCH_BLOCK64_CHOLESKY = "+EjmlParameters.SWITCH_BLOCK64_CHOLESKY);
+    }
+
+    public void tuneQR() {
+        EjmlParameters.SWITCH_BLOCK64_QR = findCrossover(decompositionSizes(),new DecompositionComparison(false) {
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                first = new QRDecompositionHouseholderColumn_DDRM();
+                second = new QRDecomposition_DDRB_to_DDRM();
+            }
+        });
+        out.println("SWITCH_BLOCK64_QR = "+EjmlParameters.SWITCH_BLOCK64_QR);
+    }
+
+    public void tuneLU() {
+        EjmlParameters.SWITCH_BLOCK64_LU = findCrossover(decompositionSizes(),new DecompositionComparison(false) {
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                first = new LUDecompositionAlt_DDRM();
+                second = new LUDecomposition_DDRB_to_DDRM();
+            }
+        });
+        out.println("SWITCH_BLOCK64_LU = "+EjmlParameters.SWITCH_BLOCK64_LU);
+    }
+
+    public void tuneSvd() {
+        EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER = findCrossover(decompositionSizes(),new DecompositionComparison(false) {
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                first = new SvdImplicitQrDecompose_DDRM(true,true,true,false);
+                second = new SvdDivideConquerDecompose_DDRM(true,true,true);
+            }
+        });
+        out.println("SWITCH_SVD_DIVIDE_CONQUER = "+EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER);
+    }
+
+    /**
+     * Finds the point where divide and conquer is faster than the QR algorithm for symmetric eigenvectors
+     */
+    public void tuneEigSymmetric() {
+        EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER = findCrossover(decompositionSizes(),new DecompositionComparison(true) {
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                first = new SymmetricQRAlgorithmDecomposition_DDRM(true);
+                second = new SymmetricDivideConquerDecomposition_DDRM(true);
+            }
+        });
+        out.println("SWITCH_EIG_DIVIDE_CONQUER = "+EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER);
+    }
+
+    /**
+     * Finds the point where multishift QR is faster than double shift QR for general eigenvectors
+     */
+    public void tuneEigGeneral() {
+        EjmlParameters.SWITCH_EIG_MULTISHIFT = findCrossover(decompositionSizes(),new DecompositionComparison(false) {
+            @Override
+            public void setup(int size) {
+                super.setup(size);
+                first = new WatchedDoubleStepQRDecomposition_DDRM(true);
+                second = new MultiShiftQRDecomposition_DDRM(true);
+            }
+        });
+        out.println("SWITCH_EIG_MULTISHIFT = "+EjmlParameters.SWITCH_EIG_MULTISHIFT);
+    }
+
+    /**
+     * Finds the point where concurrent matrix multiplication becomes faster.  Skipped if there is
+     * only one thread.
+     */
+    public void tuneConcurrentMult() {
+        if( !EjmlConcurrency.isUseConcurrent() ) {
+            out.println("MULT_CONCURRENT_SWITCH not tuned. Concurrency is disabled.");
+            return;
+        }
+
+        int crossover = findCrossover(sequence(10,300,10),new MultComparison() {
+            @Override public void first() { MatrixMatrixMult_DDRM.mult_reorder(a,b,c); }
+            @Override public void second() { MatrixMatrixMult_MT_DDRM.mult(a,b,c); }
+        });
+        EjmlParameters.MULT_CONCURRENT_SWITCH = (long)crossover*crossover*crossover;
+        out.println("MULT_CONCURRENT_SWITCH = "+EjmlParameters.MULT_CONCURRENT_SWITCH);
+    }
+
+    /**
+     * Finds the switch point between two algorithms.  Both algorithms are run at every size and the switch
+     * point is selected to minimize the sum of relative slow downs, compared to the fastest algorithm at
+     * each size.  This is less sensitive to noise than selecting the first size where the second algorithm
+     * is faster.
+     *
+     * @param sizes Matrix sizes in increasing order
+     * @return The switch point.  If the second algorithm is never better, then one more than the largest size.
+     */
+    protected int findCrossover( int sizes[] , final Comparison comparison ) {
+        double timeFirst[] = new double[sizes.length];
+        double timeSecond[] = new double[sizes.length];
+
+        // smallest to largest so that the JIT is warmed up on the less expensive sizes
+        for( int i = 0; i < sizes.length; i++ ) {
+            comparison.setup(sizes[i]);
+
+            timeFirst[i] = measure(new Runnable() {
+                @Override public void run() { comparison.first(); }
+            });
+            timeSecond[i] = measure(new Runnable() {
+                @Override public void run() { comparison.second(); }
+            });
+
+            out.printf("  size %5d  %10.4f ms  %10.4f ms\n",sizes[i],timeFirst[i]*1e-6,timeSecond[i]*1e-6);
+        }
+
+        // the first algorithm is used for sizes before the switch point
+        int bestIndex = sizes.length;
+        double bestCost = Double.MAX_VALUE;
+        for( int index = sizes.length; index >= 0; index-- ) {
+            double cost = 0;
+            for( int i = 0; i < sizes.length; i++ ) {
+                double best = Math.min(timeFirst[i],timeSecond[i]);
+                cost += (i < index ? timeFirst[i] : timeSecond[i])/best;
+            }
+            if( cost < bestCost ) {
+                bestCost = cost;
+                bestIndex = index;
+            }
+        }
+
+        return bestIndex < sizes.length ? sizes[bestIndex] : sizes[sizes.length-1]+1;
+    }
+
+    /**
+     * Returns the average time it takes to run the operation in nano seconds.  The best of several trials
+     * is used to reduce the influence of other processes and garbage collection.
+     */
+    protected double measure( Runnable operation ) {
+        double best = Double.MAX_VALUE;
+        // the first trial is used to warm up the JIT and is ignored
+        for( int trial = 0; trial < 4; trial++ ) {
+            long start = System.nanoTime();
+            long elapsed;
+            int count = 0;
+            do {
+                operation.run();
+                count++;
+                elapsed = System.nanoTime()-start;
+            } while( elapsed < minimumTime/3 );
+
+            if( trial > 0 )
+                best = Math.min(best,elapsed/(double)count);
+        }
+        return best;
+    }
+
+    protected int[] decompositionSizes() {
+        int all[] = new int[]{100,200,300,400,500,600,800,1000,1250,1500,1750,2000,2500,3000};
+        int N = 0;
+        while( N < all.length && all[N] <= maxSize )
+            N++;
+        int sizes[] = new int[Math.max(1,N)];
+        System.arraycopy(all,0,sizes,0,sizes.length);
+        return sizes;
+    }
+
+    protected static int[] sequence( int start , int end , int step ) {
+        int sizes[] = new int[(end-start)/step+1];
+        for( int i = 0; i < sizes.length; i++ ) {
+            sizes[i] = start + i*step;
+        }
+        return sizes;
+    }
+
+    /**
+     * Two algorithms which are being compared
+     */
+    protected static abstract class Comparison {
+        /**
+         * Creates the inputs for a matrix of the specified size
+         */
+        public abstract void setup( int size );
+
+        public abstract void first();
+
+        public abstract void second();
+    }
+
+    protected abstract class MultComparison extends Comparison {
+        DMatrixRMaj a,b,c;
+
+        @Override
+        public void setup(int size) {
+            a = RandomMatrices_DDRM.rectangle(size,size,-1,1,rand);
+            b = RandomMatrices_DDRM.rectangle(size,size,-1,1,rand);
+            c = new DMatrixRMaj(size,size);
+        }
+    }
+
+    protected abstract class DecompositionComparison extends Comparison {
+        boolean symmPosDef;
+        DMatrixRMaj A,work;
+        DecompositionInterface<DMatrixRMaj> first,second;
+
+        protected DecompositionComparison(boolean symmPosDef) {
+            this.symmPosDef = symmPosDef;
+        }
+
+        @Override
+        public void setup(int size) {
+            if( symmPosDef )
+                A = RandomMatrices_DDRM.symmetricPosDef(size,rand);
+            else
+                A = RandomMatrices_DDRM.rectangle(size,size,-1,1,rand);
+            work = new DMatrixRMaj(size,size);
+        }
+
+        @Override
+        public void first() {
+            work.set(A);
+            first.decompose(work);
+        }
+
+        @Override
+        public void second() {
+            work.set(A);
+            second.decompose(work);
+        }
+    }
+
+    /**
+     * Tunes the parameters and saves them into a profile.
+     *
+     * <pre>
+     * Arguments: [profile file] [max size] [minimum time ms]
+     * </pre>
+     */
+    public static void main( String args[] ) throws IOException {
+        String fileName = args.length > 0 ? args[0] : EjmlParameters.PROFILE_FILE;
+        int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        long minimumTime = args.length > 2 ? Long.parseLong(args[2]) : 200;
+
+        AutoTuneEjmlParameters tuner = new AutoTuneEjmlParameters(maxSize,minimumTime);
+        tuner.tune();
+
+        String comment = "Tuned for "+System.getProperty("os.arch")+" "+
+                Runtime.getRuntime().availableProcessors()+" processors, Java "+
+                System.getProperty("java.version");
+        EjmlParameters.saveProfile(fileName,comment);
+
+        System.out.println();
+        System.out.println("Saved profile to "+fileName);
+        System.out.println("Put it on the class path or specify its location with -D"+
+                EjmlParameters.PROFILE_PROPERTY+"=<file>");
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DSubmatrixD1;
+
+/**
+ * <p>
+ * Concurrent matrix multiplication for {@link DMatrixRBlock}.  All sub-matrices must be block aligned.
+ * </p>
+ *
+ * <p>
+ * Each block in the output matrix C only depends on one block row panel and one block column panel
+ * in the inputs.  The blocks in C are distributed between the threads in {@link EjmlConcurrency}
+ * and each block is computed by the same code as in {@link MatrixMult_DDRB}.  No two threads ever write
+ * to the same block so no synchronization is required.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMult_MT_DDRB {
+
+    private static final int SET = 0;
+    private static final int PLUS = 1;
+    private static final int MINUS = 2;
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#mult}.  c = a * b
+     */
+    public static void mult(int blockLength ,
+                            DSubmatrixD1 A , DSubmatrixD1 B ,
+                            DSubmatrixD1 C )
+    {
+        mult(blockLength,A,B,C,SET);
+    }
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#multPlus}.  c = c + a * b
+     */
+    public static void multPlus(int blockLength ,
+                                DSubmatrixD1 A , DSubmatrixD1 B ,
+                                DSubmatrixD1 C )
+    {
+        mult(blockLength,A,B,C,PLUS);
+    }
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#multMinus}.  c = c - a * b
+     */
+    public static void multMinus(int blockLength ,
+                                 DSubmatrixD1 A , DSubmatrixD1 B ,
+                                 DSubmatrixD1 C )
+    {
+        mult(blockLength,A,B,C,MINUS);
+    }
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#multTransA}.  c = a<sup>T</sup> * b
+     */
+    public static void multTransA(int blockLength ,
+                                  DSubmatrixD1 A , DSubmatrixD1 B ,
+                                  DSubmatrixD1 C )
+    {
+        multTransA(blockLength,A,B,C,SET);
+    }
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#multPlusTransA}.  c = c + a<sup>T</sup> * b
+     */
+    public static void multPlusTransA(int blockLength ,
+                                      DSubmatrixD1 A , DSubmatrixD1 B ,
+                                      DSubmatrixD1 C )
+    {
+        multTransA(blockLength,A,B,C,PLUS);
+    }
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#multMinusTransA}.  c = c - a<sup>T</sup> * b
+     */
+    public static void multMinusTransA(int blockLength ,
+                                       DSubmatrixD1 A , DSubmatrixD1 B ,
+                                       DSubmatrixD1 C )
+    {
+        multTransA(blockLength,A,B,C,MINUS);
+    }
+
+    /**
+     * Concurrent version of {@link MatrixMult_DDRB#multTransB}.  c = a * b<sup>T</sup>
+     */
+    public static void multTransB(final int blockLength ,
+                                  final DSubmatrixD1 A , final DSubmatrixD1 B ,
+                                  final DSubmatrixD1 C )
+    {
+        final int blocksCols = numBlocks(blockLength,B.row0,B.row1);
+        final int numBlocks = numBlocks(blockLength,A.row0,A.row1)*blocksCols;
+
+        EjmlConcurrency.loopBlocks(0,numBlocks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                DSubmatrixD1 subA = new DSubmatrixD1(A.original,0,0,A.col0,A.col1);
+                DSubmatrixD1 subB = new DSubmatrixD1(B.original,0,0,B.col0,B.col1);
+                DSubmatrixD1 subC = new DSubmatrixD1(C.original);
+
+                for( int index = start; index < end; index++ ) {
+                    int offsetRow = (index/blocksCols)*blockLength;
+                    int offsetCol = (index%blocksCols)*blockLength;
+
+                    subA.row0 = A.row0 + offsetRow;
+                    subA.row1 = Math.min(subA.row0+blockLength,A.row1);
+                    subB.row0 = B.row0 + offsetCol;
+                    subB.row1 = Math.min(subB.row0+blockLength,B.row1);
+                    setBlock(C,subC,offsetRow,offsetCol,blockLength);
+
+                    MatrixMult_DDRB.multTransB(blockLength,subA,subB,subC);
+                }
+            }
+        });
+    }
+
+    private static void mult( final int blockLength ,
+                              final DSubmatrixD1 A , final DSubmatrixD1 B ,
+                              final DSubmatrixD1 C , final int operation )
+    {
+        final int blocksCols = numBlocks(blockLength,B.col0,B.col1);
+        final int numBlocks = numBlocks(blockLength,A.row0,A.row1)*blocksCols;
+
+        EjmlConcurrency.loopBlocks(0,numBlocks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                DSubmatrixD1 subA = new DSubmatrixD1(A.original,0,0,A.col0,A.col1);
+                DSubmatrixD1 subB = new DSubmatrixD1(B.original,B.row0,B.row1,0,0);
+                DSubmatrixD1 subC = new DSubmatrixD1(C.original);
+
+                for( int index = start; index < end; index++ ) {
+                    int offsetRow = (index/blocksCols)*blockLength;
+                    int offsetCol = (index%blocksCols)*blockLength;
+
+                    subA.row0 = A.row0 + offsetRow;
+                    subA.row1 = Math.min(subA.row0+blockLength,A.row1);
+                    subB.col0 = B.col0 + offsetCol;
+                    subB.col1 = Math.min(subB.col0+blockLength,B.col1);
+                    setBlock(C,subC,offsetRow,offsetCol,blockLength);
+
+                    switch( operation ) {
+                        case SET: MatrixMult_DDRB.mult(blockLength,subA,subB,subC); break;
+                        case PLUS: MatrixMult_DDRB.multPlus(blockLength,subA,subB,subC); break;
+                        default: MatrixMult_DDRB.multMinus(blockLength,subA,subB,subC); break;
+                    }
+                }
+            }
+        });
+    }
+
+    private static void multTransA( final int blockLength ,
+                                    final DSubmatrixD1 A , final DSubmatrixD1 B ,
+                                    final DSubmatrixD1 C , final int operation )
+    {
+        final int blocksCols = numBlocks(blockLength,B.col0,B.col1);
+        final int numBlocks = numBlocks(blockLength,A.col0,A.col1)*blocksCols;
+
+        EjmlConcurrency.loopBlocks(0,numBlocks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                DSubmatrixD1 subA = new DSubmatrixD1(A.original,A.row0,A.row1,0,0);
+                DSubmatrixD1 subB = new DSubmatrixD1(B.original,B.row0,B.row1,0,0);
+                DSubmatrixD1 subC = new DSubmatrixD1(C.original);
+
+                for( int index = start; index < end; index++ ) {
+                    int offsetRow = (index/blocksCols)*blockLength;
+                    int offsetCol = (index%blocksCols)*blockLength;
+
+                    subA.col0 = A.col0 + offsetRow;
+                    subA.col1 = Math.min(subA.col0+blockLength,A.col1);
+                    subB.col0 = B.col0 + offsetCol;
+                    subB.col1 = Math.min(subB.col0+blockLength,B.col1);
+                    setBlock(C,subC,offsetRow,offsetCol,blockLength);
+
+                    switch( operation ) {
+                        case SET: MatrixMult_DDRB.multTransA(blockLength,subA,subB,subC); break;
+                        case PLUS: MatrixMult_DDRB.multPlusTransA(blockLength,subA,subB,subC); break;
+                        default: MatrixMult_DDRB.multMinusTransA(blockLength,subA,subB,subC); break;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Adjusts 'block' so that it references a single block inside of C
+     */
+    private static void setBlock( DSubmatrixD1 C , DSubmatrixD1 block ,
+                                  int offsetRow , int offsetCol , int blockLength ) {
+        block.row0 = C.row0 + offsetRow;
+        block.row1 = Math.min(block.row0+blockLength,C.row1);
+        block.col0 = C.col0 + offsetCol;
+        block.col1 = Math.min(block.col0+blockLength,C.col1);
+    }
+
+    private static int numBlocks( int blockLength , int start , int end ) {
+        return (end-start+blockLength-1)/blockLength;
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.ejml.dense.block;
 
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DSubmatrixD1;
@@ -168,6 +170,15 @@ public class MatrixOps_DDRB {
         }
     }
 
+    /**
+     * Returns true if a matrix multiplication which produces a matrix with the specified shape
+     * should be computed concurrently
+     */
+    private static boolean isConcurrentMult( int rowsC , int colsC , int inner ) {
+        return (long)rowsC*colsC*inner >= EjmlParameters.MULT_CONCURRENT_SWITCH &&
+                EjmlConcurrency.isUseConcurrent();
+    }
+
     // This can be speed up by inlining the multBlock* calls, reducing number of multiplications
     // and other stuff.  doesn't seem to have any speed advantage over mult_reorder()
     public static void mult(DMatrixRBlock A , DMatrixRBlock B , DMatrixRBlock C )
@@ -187,7 +198,10 @@ public class MatrixOps_DDRB {
         DSubmatrixD1 Bsub = new DSubmatrixD1(B,0, B.numRows, 0, B.numCols);
         DSubmatrixD1 Csub = new DSubmatrixD1(C,0, C.numRows, 0, C.numCols);
 
-        MatrixMult_DDRB.mult(blockLength,Asub,Bsub,Csub);
+        if( isConcurrentMult(A.numRows,B.numCols,A.numCols) )
+            MatrixMult_MT_DDRB.mult(blockLength,Asub,Bsub,Csub);
+        else
+            MatrixMult_DDRB.mult(blockLength,Asub,Bsub,Csub);
     }
 
     public static void multTransA(DMatrixRBlock A , DMatrixRBlock B , DMatrixRBlock C )
@@ -207,7 +221,10 @@ public class MatrixOps_DDRB {
         DSubmatrixD1 Bsub = new DSubmatrixD1(B,0, B.numRows, 0, B.numCols);
         DSubmatrixD1 Csub = new DSubmatrixD1(C,0, C.numRows, 0, C.numCols);
 
-        MatrixMult_DDRB.multTransA(blockLength,Asub,Bsub,Csub);
+        if( isConcurrentMult(A.numCols,B.numCols,A.numRows) )
+            MatrixMult_MT_DDRB.multTransA(blockLength,Asub,Bsub,Csub);
+        else
+            MatrixMult_DDRB.multTransA(blockLength,Asub,Bsub,Csub);
     }
 
     public static void multTransB(DMatrixRBlock A , DMatrixRBlock B , DMatrixRBlock C )
@@ -227,7 +244,10 @@ public class MatrixOps_DDRB {
         DSubmatrixD1 Bsub = new DSubmatrixD1(B,0, B.numRows, 0, B.numCols);
         DSubmatrixD1 Csub = new DSubmatrixD1(C,0, C.numRows, 0, C.numCols);
 
-        MatrixMult_DDRB.multTransB(blockLength,Asub,Bsub,Csub);
+        if( isConcurrentMult(A.numRows,B.numRows,A.numCols) )
+            MatrixMult_MT_DDRB.multTransB(blockLength,Asub,Bsub,Csub);
+        else
+            MatrixMult_DDRB.multTransB(blockLength,Asub,Bsub,Csub);
     }
 
     /**
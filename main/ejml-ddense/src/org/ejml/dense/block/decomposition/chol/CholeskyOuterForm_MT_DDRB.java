@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.chol;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.dense.block.InnerMultiplication_DDRB;
+import org.ejml.dense.block.InnerRankUpdate_DDRB;
+import org.ejml.dense.block.MatrixMult_DDRB;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.block.TriangularSolver_DDRB;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>
+ * Concurrent version of {@link CholeskyOuterForm_DDRB}.  The decomposition is broken up into operations on
+ * individual blocks, which are scheduled on the threads in {@link EjmlConcurrency} as soon as the blocks they
+ * depend on are ready.  Three types of operations are performed.  In terms of the lower triangular
+ * decomposition for step k:
+ * <pre>
+ * factor(k)     : L(k,k) = chol( A(k,k) )                 {@link InnerCholesky_DDRB}
+ * solve(i,k)    : L(i,k) = A(i,k)*L(k,k)<sup>-T</sup>             {@link TriangularSolver_DDRB}
+ * update(i,j,k) : A(i,j) = A(i,j) - L(i,k)*L(j,k)<sup>T</sup>       {@link InnerRankUpdate_DDRB}
+ * </pre>
+ * where i &ge; j &gt; k.  Updates to the same block are applied in order of k.  Since there is no barrier between
+ * steps, the panel of the next step is factored while the trailing matrix from the current step is still being
+ * updated.
+ * </p>
+ *
+ * <p>
+ * If the matrix only has one or two block columns then there is nothing to run in parallel and the single
+ * threaded algorithm is used.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyOuterForm_MT_DDRB extends CholeskyOuterForm_DDRB {
+
+    /**
+     * Creates a new concurrent block Cholesky
+     *
+     * @param lower Should it decompose it into a lower triangular matrix or not.
+     */
+    public CholeskyOuterForm_MT_DDRB(boolean lower) {
+        super(lower);
+    }
+
+    /**
+     * Decomposes the provided matrix and stores the result in the same matrix.
+     *
+     * @param A Matrix that is to be decomposed.  Modified.
+     * @return If it succeeded or not.
+     */
+    @Override
+    public boolean decompose(DMatrixRBlock A) {
+        if( A.numCols != A.numRows )
+            throw new IllegalArgumentException("A must be square");
+
+        int numBlocks = (A.numCols+A.blockLength-1)/A.blockLength;
+        if( numBlocks <= 2 )
+            return super.decompose(A);
+
+        this.T = A;
+
+        Scheduler scheduler = new Scheduler(numBlocks);
+        if( !scheduler.process() )
+            return false;
+
+        MatrixOps_DDRB.zeroTriangle(lower,T);
+
+        return true;
+    }
+
+    /**
+     * Keeps track of which operations have been completed and launches operations once all the blocks
+     * they depend on are ready.  Blocks are referenced using their coordinate in the lower triangle, (i,j) with
+     * i &ge; j.  For the upper triangular decomposition the transposed block is operated on.
+     */
+    private class Scheduler {
+        private static final int FACTOR = 0;
+        private static final int SOLVE = 1;
+        private static final int UPDATE = 2;
+
+        final int numBlocks;
+        final ForkJoinPool pool = EjmlConcurrency.getPool();
+
+        // number of updates which have been applied to each block
+        final int updates[];
+        // if the block has been factored or solved
+        final boolean finished[];
+
+        // number of tasks which have been launched and have not yet finished
+        int pending;
+        // set to true if the matrix is not positive definite
+        boolean failed;
+        // exception thrown inside of a task
+        RuntimeException error;
+
+        Scheduler( int numBlocks ) {
+            this.numBlocks = numBlocks;
+            int N = numBlocks*(numBlocks+1)/2;
+            updates = new int[N];
+            finished = new boolean[N];
+        }
+
+        /**
+         * Performs the decomposition and blocks until it has finished.
+         *
+         * @return true if successful or false if not positive definite
+         */
+        boolean process() {
+            synchronized (this) {
+                launch(FACTOR,0,0,0);
+            }
+
+            boolean interrupted = false;
+            while( true ) {
+                try {
+                    ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                        @Override
+                        public boolean block() throws InterruptedException {
+                            synchronized (Scheduler.this) {
+                                while( pending > 0 )
+                                    Scheduler.this.wait();
+                            }
+                            return true;
+                        }
+
+                        @Override
+                        public boolean isReleasable() {
+                            synchronized (Scheduler.this) {
+                                return pending == 0;
+                            }
+                        }
+                    });
+                    break;
+                } catch (InterruptedException e) {
+                    // the tasks are still modifying the matrix so it's not safe to return until they finish
+                    interrupted = true;
+                }
+            }
+            if( interrupted )
+                Thread.currentThread().interrupt();
+
+            if( error != null )
+                throw error;
+
+            return !failed;
+        }
+
+        int index( int i , int j ) {
+            return i*(i+1)/2 + j;
+        }
+
+        void launch( int type , int i , int j , int k ) {
+            pending++;
+            pool.execute(new Operation(type,i,j,k));
+        }
+
+        /**
+         * Launches the update of block (i,j) from step k if everything it depends on is ready
+         */
+        void checkUpdate( int i , int j , int k ) {
+            if( updates[index(i,j)] == k && finished[index(i,k)] && finished[index(j,k)] )
+                launch(UPDATE,i,j,k);
+        }
+
+        synchronized void operationFinished( Operation op , boolean success , RuntimeException e ) {
+            pending--;
+
+            if( e != null ) {
+                if( error == null )
+                    error = e;
+                failed = true;
+            } else if( !success ) {
+                failed = true;
+            }
+
+            if( !failed ) {
+                int i = op.i, j = op.j, k = op.k;
+
+                switch( op.type ) {
+                    case FACTOR:
+                        finished[index(k,k)] = true;
+                        for( int r = k+1; r < numBlocks; r++ ) {
+                            if( updates[index(r,k)] == k )
+                                launch(SOLVE,r,k,k);
+                        }
+                        break;
+
+                    case SOLVE:
+                        finished[index(i,k)] = true;
+                        // all the blocks which depend on block (i,k)
+                        for( int c = k+1; c <= i; c++ )
+                            checkUpdate(i,c,k);
+                        for( int r = i+1; r < numBlocks; r++ )
+                            checkUpdate(r,i,k);
+                        break;
+
+                    case UPDATE:
+                        updates[index(i,j)] = k+1;
+                        if( k+1 == j ) {
+                            // all the updates have been applied
+                            if( i == j )
+                                launch(FACTOR,j,j,j);
+                            else if( finished[index(j,j)] )
+                                launch(SOLVE,i,j,j);
+                        } else {
+                            checkUpdate(i,j,k+1);
+                        }
+                        break;
+                }
+            }
+
+            if( pending == 0 )
+                notifyAll();
+        }
+
+        /**
+         * A single operation on a block
+         */
+        class Operation extends RecursiveAction {
+            int type,i,j,k;
+
+            Operation(int type, int i, int j, int k) {
+                this.type = type;
+                this.i = i;
+                this.j = j;
+                this.k = k;
+            }
+
+            @Override
+            protected void compute() {
+                boolean success = true;
+                RuntimeException exception = null;
+                try {
+                    switch( type ) {
+                        case FACTOR: success = factor(k); break;
+                        case SOLVE: solve(i,k); break;
+                        default: update(i,j,k); break;
+                    }
+                } catch( RuntimeException e ) {
+                    exception = e;
+                } catch( Error e ) {
+                    // must be reported or the thread waiting on the decomposition will never wake up
+                    exception = new RuntimeException(e);
+                }
+                operationFinished(this,success,exception);
+            }
+        }
+    }
+
+    /**
+     * Computes the Cholesky decomposition of diagonal block k
+     */
+    private boolean factor( int k ) {
+        if( lower )
+            return InnerCholesky_DDRB.lower(block(k,k));
+        else
+            return InnerCholesky_DDRB.upper(block(k,k));
+    }
+
+    /**
+     * Lower: L(i,k) = A(i,k)*L(k,k)<sup>-T</sup><br>
+     * Upper: U(k,i) = U(k,k)<sup>-T</sup>*A(k,i)
+     */
+    private void solve( int i , int k ) {
+        int blockLength = T.blockLength;
+        if( lower )
+            TriangularSolver_DDRB.solveBlock(blockLength,false,block(k,k),block(i,k),false,true);
+        else
+            TriangularSolver_DDRB.solveBlock(blockLength,true,block(k,k),block(k,i),true,false);
+    }
+
+    /**
+     * Lower: A(i,j) = A(i,j) - L(i,k)*L(j,k)<sup>T</sup><br>
+     * Upper: A(j,i) = A(j,i) - U(k,j)<sup>T</sup>*U(k,i)
+     */
+    private void update( int i , int j , int k ) {
+        int blockLength = T.blockLength;
+        if( lower ) {
+            if( i == j ) {
+                InnerRankUpdate_DDRB.symmRankNMinus_L(blockLength,block(i,i),block(i,k));
+            } else {
+                int heightI = Math.min(blockLength,T.numRows-i*blockLength);
+                int heightJ = Math.min(blockLength,T.numRows-j*blockLength);
+                int widthK = Math.min(blockLength,T.numCols-k*blockLength);
+
+                int indexIK = i*blockLength*T.numCols + k*blockLength*heightI;
+                int indexJK = j*blockLength*T.numCols + k*blockLength*heightJ;
+                int indexIJ = i*blockLength*T.numCols + j*blockLength*heightI;
+
+                InnerMultiplication_DDRB.blockMultMinusTransB(T.data,T.data,T.data,
+                        indexIK,indexJK,indexIJ,heightI,widthK,heightJ);
+            }
+        } else {
+            if( i == j ) {
+                InnerRankUpdate_DDRB.symmRankNMinus_U(blockLength,block(i,i),block(k,i));
+            } else {
+                MatrixMult_DDRB.multMinusTransA(blockLength,block(k,j),block(k,i),block(j,i));
+            }
+        }
+    }
+
+    /**
+     * Returns a submatrix which references a single block in T
+     */
+    private DSubmatrixD1 block( int blockRow , int blockCol ) {
+        int blockLength = T.blockLength;
+        int row0 = blockRow*blockLength;
+        int col0 = blockCol*blockLength;
+        return new DSubmatrixD1(T,row0,Math.min(row0+blockLength,T.numRows),
+                col0,Math.min(col0+blockLength,T.numCols));
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.dense.block.MatrixMult_DDRB;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+
+
+/**
+ * <p>
+ * Block LU decomposition with partial pivoting using outer product form, also known as right-looking.  The
+ * original matrix is stored and modified.  For each block column the following steps are performed:
+ * <pre>
+ * 1) [L11;L21]*U11 = P*[A11;A21]   unblocked decomposition of the panel with row pivoting
+ * 2) Apply the row interchanges to the columns to the left and right of the panel
+ * 3) U12 = L11<sup>-1</sup>*A12
+ * 4) A22 = A22 - L21*U12
+ * </pre>
+ * Almost all the computations are done in the trailing update (step 4), which is a block matrix
+ * multiplication.  Up to round off errors the results are the same as
+ * {@link org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM}.
+ * </p>
+ *
+ * <p>
+ * L is unit lower triangular and its diagonal is not saved.  Row interchanges are recorded LAPACK
+ * style, at step j row j was swapped with row indx[j].
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LUDecompositionOuterForm_DDRB implements LUDecomposition_F64<DMatrixRBlock> {
+
+    // The decomposed matrix.
+    protected DMatrixRBlock T;
+
+    // row interchanges at each step
+    protected int indx[] = new int[0];
+    // the original row of each row in the decomposed matrix
+    protected int pivot[] = new int[0];
+    // sign of the permutation, used by determinant
+    protected double pivsign;
+
+    // storage for the determinant
+    private Complex_F64 det = new Complex_F64();
+
+    /**
+     * Decomposes the provided matrix and stores the result in the same matrix.
+     *
+     * @param A Matrix that is to be decomposed.  Modified.
+     * @return true.  Singular matrices can be decomposed too, see {@link #isSingular()}.
+     */
+    @Override
+    public boolean decompose(DMatrixRBlock A) {
+        this.T = A;
+
+        int blockLength = A.blockLength;
+        int N = Math.min(A.numRows,A.numCols);
+
+        if( indx.length < N )
+            indx = new int[N];
+        if( pivot.length < A.numRows )
+            pivot = new int[A.numRows];
+
+        for( int i = 0; i < A.numRows; i++ ) {
+            pivot[i] = i;
+        }
+        pivsign = 1;
+
+        for( int col0 = 0; col0 < N; col0 += blockLength ) {
+            int width = Math.min(blockLength,A.numCols-col0);
+
+            factorPanel(col0,width);
+
+            // the columns of L which have already been computed
+            int steps = Math.min(width,A.numRows-col0);
+            for( int j = col0; j < col0+steps; j++ ) {
+                if( indx[j] != j )
+                    swapRows(j,indx[j],0,col0);
+            }
+
+            if( col0+width < A.numCols )
+                updateTrailing(col0,width);
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the LU decomposition of the block column starting at col0 using partial pivoting.
+     */
+    protected void factorPanel( int col0 , int width ) {
+        double data[] = T.data;
+        int steps = Math.min(width,T.numRows-col0);
+
+        for( int j = 0; j < steps; j++ ) {
+            int row = col0+j;
+
+            // Find pivot and exchange if necessary.
+            int p = row;
+            double max = Math.abs(data[indexRow(row,col0,width)+j]);
+            for( int i = row+1; i < T.numRows; i++ ) {
+                double v = Math.abs(data[indexRow(i,col0,width)+j]);
+                if( v > max ) {
+                    p = i;
+                    max = v;
+                }
+            }
+
+            indx[row] = p;
+            if( p != row ) {
+                swapRows(row,p,col0,col0+width);
+                int k = pivot[p]; pivot[p] = pivot[row]; pivot[row] = k;
+                pivsign = -pivsign;
+            }
+
+            // Compute multipliers and update the remainder of the panel
+            int indexJ = indexRow(row,col0,width);
+            double ujj = data[indexJ+j];
+            if( ujj != 0 ) {
+                for( int i = row+1; i < T.numRows; i++ ) {
+                    int indexI = indexRow(i,col0,width);
+                    double l = data[indexI+j] /= ujj;
+
+                    for( int k = j+1; k < width; k++ ) {
+                        data[indexI+k] -= l*data[indexJ+k];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates all the columns to the right of the block column which was just factored.
+     */
+    protected void updateTrailing( int col0 , int width ) {
+        updateColumns(col0,width,col0+width,T.numCols);
+    }
+
+    /**
+     * Applies the row interchanges, computes U12 and updates the trailing matrix for the block
+     * columns from col0 to col1.  Different block columns can be processed independently.
+     *
+     * @param col0 First column in the factored panel
+     * @param width Number of columns in the factored panel
+     * @param colStart First column which is updated.  Must be block aligned.
+     * @param colEnd Last column which is updated, exclusive.  Must be block aligned or the number of columns.
+     */
+    protected void updateColumns( int col0 , int width , int colStart , int colEnd ) {
+        int blockLength = T.blockLength;
+        int steps = Math.min(width,T.numRows-col0);
+
+        for( int j = col0; j < col0+steps; j++ ) {
+            if( indx[j] != j )
+                swapRows(j,indx[j],colStart,colEnd);
+        }
+
+        // U12 = L11^-1 * A12
+        int indexL = indexRow(col0,col0,width);
+        for( int col = colStart; col < colEnd; col += blockLength ) {
+            int widthB = Math.min(blockLength,T.numCols-col);
+            solveUnitL(T.data,indexL,width,indexRow(col0,col,widthB),steps,widthB);
+        }
+
+        // A22 = A22 - L21*U12
+        int row1 = col0+blockLength;
+        if( row1 < T.numRows ) {
+            DSubmatrixD1 L21 = new DSubmatrixD1(T,row1,T.numRows,col0,col0+width);
+            DSubmatrixD1 U12 = new DSubmatrixD1(T,col0,row1,colStart,colEnd);
+            DSubmatrixD1 A22 = new DSubmatrixD1(T,row1,T.numRows,colStart,colEnd);
+
+            MatrixMult_DDRB.multMinus(blockLength,L21,U12,A22);
+        }
+    }
+
+    /**
+     * Solves B = L<sup>-1</sup>B in place, where L is unit lower triangular and is stored inside of a block
+     * with the specified stride.
+     */
+    private static void solveUnitL( double data[] , int indexL , int strideL , int indexB ,
+                                    int numRows , int numCols )
+    {
+        for( int i = 1; i < numRows; i++ ) {
+            int rowB = indexB + i*numCols;
+            for( int k = 0; k < i; k++ ) {
+                double l = data[indexL + i*strideL + k];
+                if( l == 0 )
+                    continue;
+                int rowK = indexB + k*numCols;
+                for( int j = 0; j < numCols; j++ ) {
+                    data[rowB+j] -= l*data[rowK+j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Swaps two rows in the block columns from col0 to col1.
+     *
+     * @param col0 First column.  Must be block aligned.
+     * @param col1 Last column, exclusive.  Must be block aligned or the number of columns.
+     */
+    protected void swapRows( int rowA , int rowB , int col0 , int col1 ) {
+        double data[] = T.data;
+        int blockLength = T.blockLength;
+
+        for( int col = col0; col < col1; col += blockLength ) {
+            int width = Math.min(blockLength,T.numCols-col);
+
+            int indexA = indexRow(rowA,col,width);
+            int indexB = indexRow(rowB,col,width);
+            int end = indexA + width;
+            for( ; indexA < end; indexA++ , indexB++ ) {
+                double t = data[indexA];
+                data[indexA] = data[indexB];
+                data[indexB] = t;
+            }
+        }
+    }
+
+    /**
+     * Index of the first element in a row inside the block column which starts at col0.
+     *
+     * @param width Number of columns in the block column
+     */
+    protected final int indexRow( int row , int col0 , int width ) {
+        int blockLength = T.blockLength;
+        int row0 = row - row % blockLength;
+        int height = Math.min(blockLength,T.numRows-row0);
+
+        return row0*T.numCols + col0*height + (row-row0)*width;
+    }
+
+    /**
+     * Row interchanges performed at each step.  At step j row j was swapped with row indx[j].
+     */
+    public int[] getIndx() {
+        return indx;
+    }
+
+    /**
+     * The original row of each row in the decomposed matrix.
+     */
+    public int[] getPivot() {
+        return pivot;
+    }
+
+    /**
+     * The sign of the row permutation, either 1 or -1.
+     */
+    public double getPivotSign() {
+        return pivsign;
+    }
+
+    /**
+     * The decomposed matrix.  L and U are both stored inside of it.
+     */
+    public DMatrixRBlock getLU() {
+        return T;
+    }
+
+    @Override
+    public DMatrixRBlock getLower(DMatrixRBlock lower) {
+        int numRows = T.numRows;
+        int numCols = Math.min(T.numRows,T.numCols);
+
+        if( lower == null ) {
+            lower = new DMatrixRBlock(numRows,numCols,T.blockLength);
+        } else if( lower.numRows != numRows || lower.numCols != numCols ) {
+            throw new IllegalArgumentException("Unexpected dimension.");
+        }
+
+        for( int i = 0; i < numRows; i++ ) {
+            for( int j = 0; j < numCols; j++ ) {
+                if( j < i )
+                    lower.unsafe_set(i,j,T.unsafe_get(i,j));
+                else if( j == i )
+                    lower.unsafe_set(i,j,1);
+                else
+                    lower.unsafe_set(i,j,0);
+            }
+        }
+
+        return lower;
+    }
+
+    @Override
+    public DMatrixRBlock getUpper(DMatrixRBlock upper) {
+        int numRows = Math.min(T.numRows,T.numCols);
+
+        if( upper == null ) {
+            upper = new DMatrixRBlock(numRows,T.numCols,T.blockLength);
+        } else if( upper.numRows != numRows || upper.numCols != T.numCols ) {
+            throw new IllegalArgumentException("Unexpected dimension.");
+        }
+
+        MatrixOps_DDRB.zeroTriangle(false,upper);
+        MatrixOps_DDRB.copyTriangle(true,T,upper);
+
+        return upper;
+    }
+
+    @Override
+    public DMatrixRBlock getPivot(DMatrixRBlock P) {
+        int numPivots = T.numRows;
+
+        if( P == null ) {
+            P = new DMatrixRBlock(numPivots,numPivots,T.blockLength);
+        } else if( P.numRows != numPivots || P.numCols != numPivots ) {
+            throw new IllegalArgumentException("Unexpected dimension.");
+        } else {
+            MatrixOps_DDRB.set(P,0);
+        }
+
+        for( int i = 0; i < numPivots; i++ ) {
+            P.unsafe_set(i,pivot[i],1);
+        }
+
+        return P;
+    }
+
+    @Override
+    public boolean isSingular() {
+        int N = Math.min(T.numRows,T.numCols);
+        for( int i = 0; i < N; i++ ) {
+            if( Math.abs(T.unsafe_get(i,i)) < UtilEjml.EPS )
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Complex_F64 computeDeterminant() {
+        if( T.numRows != T.numCols )
+            throw new IllegalArgumentException("Must be a square matrix.");
+
+        double prod = pivsign;
+
+        int blockLength = T.blockLength;
+        for( int i = 0; i < T.numCols; i += blockLength ) {
+            // width of the submatrix
+            int widthA = Math.min(blockLength, T.numCols-i);
+
+            // index of the first element in the block
+            int indexT = i*T.numCols + i*widthA;
+
+            // product along the diagonal
+            for (int j = 0; j < widthA; j++) {
+                prod *= T.data[indexT];
+                indexT += widthA+1;
+            }
+        }
+
+        det.real = prod;
+        det.imaginary = 0;
+
+        return det;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return true;
+    }
+}
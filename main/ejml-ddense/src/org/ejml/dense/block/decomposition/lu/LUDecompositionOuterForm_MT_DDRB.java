@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.EjmlConcurrency;
+
+/**
+ * <p>
+ * Concurrent version of {@link LUDecompositionOuterForm_DDRB}.  After a panel has been factored the block
+ * columns to its right only depend on the panel and not on each other.  Each thread is given its own set of
+ * block columns and applies the row interchanges, triangular solve, and trailing update to them.  The panel
+ * factorization itself is single threaded.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LUDecompositionOuterForm_MT_DDRB extends LUDecompositionOuterForm_DDRB {
+
+    @Override
+    protected void updateTrailing( final int col0 , final int width ) {
+        final int blockLength = T.blockLength;
+        final int colStart = col0+width;
+        int numBlocks = (T.numCols-colStart+blockLength-1)/blockLength;
+
+        EjmlConcurrency.loopBlocks(0,numBlocks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                updateColumns(col0,width,colStart+start*blockLength,
+                        Math.min(T.numCols,colStart+end*blockLength));
+            }
+        });
+    }
+}
@@ -18,9 +18,12 @@
 
 package org.ejml.dense.block.decomposition.qr;
 
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DSubmatrixD1;
 import org.ejml.dense.block.MatrixMult_DDRB;
+import org.ejml.dense.block.MatrixMult_MT_DDRB;
 import org.ejml.dense.block.MatrixOps_DDRB;
 import org.ejml.interfaces.decomposition.QRDecomposition;
 
@@ -215,7 +218,10 @@ public class QRDecompositionHouseholder_DDRB
 
             // Apply the Qi to Q
             BlockHouseHolder_DDRB.multTransA_vecCol(blockLength,Y,subB,WTA);
-            MatrixMult_DDRB.multPlus(blockLength,W,WTA,subB);
+            if( isConcurrent(subB) )
+                MatrixMult_MT_DDRB.multPlus(blockLength,W,WTA,subB);
+            else
+                MatrixMult_DDRB.multPlus(blockLength,W,WTA,subB);
         }
     }
 
@@ -266,8 +272,8 @@ public class QRDecompositionHouseholder_DDRB
                 BlockHouseHolder_DDRB.computeW_Column(blockLength,Y,W,temp, gammas,Y.col0);
 
             // Apply the Qi to Q
-            MatrixMult_DDRB.multTransA(blockLength,W,subB,WTA);
-            BlockHouseHolder_DDRB.multAdd_zeros(blockLength,Y,WTA,subB);
+            multTransA(W,subB,WTA);
+            multAdd_zeros(Y,WTA,subB);
         }
     }
 
@@ -383,13 +389,60 @@ public class QRDecompositionHouseholder_DDRB
         if( A.col1 > A.col0 ) {
             BlockHouseHolder_DDRB.computeW_Column(blockLength,Y,W,temp, gammas,Y.col0);
 
-            MatrixMult_DDRB.multTransA(blockLength,W,A,WTA);
-            BlockHouseHolder_DDRB.multAdd_zeros(blockLength,Y,WTA,A);
+            multTransA(W,A,WTA);
+            multAdd_zeros(Y,WTA,A);
         } else if( saveW ) {
             BlockHouseHolder_DDRB.computeW_Column(blockLength,Y,W,temp, gammas,Y.col0);
         }
     }
 
+    /**
+     * WTB = W<sup>T</sup>*B.  Computed concurrently if B is large enough.
+     */
+    private void multTransA( DSubmatrixD1 W , DSubmatrixD1 B , DSubmatrixD1 WTB ) {
+        if( isConcurrent(B) )
+            MatrixMult_MT_DDRB.multTransA(blockLength,W,B,WTB);
+        else
+            MatrixMult_DDRB.multTransA(blockLength,W,B,WTB);
+    }
+
+    /**
+     * B = B + Y*WTB, see {@link BlockHouseHolder_DDRB#multAdd_zeros}.  Each block column in B
+     * only depends on the same block column in WTB, which allows the block columns to be updated concurrently.
+     */
+    private void multAdd_zeros( final DSubmatrixD1 Y , final DSubmatrixD1 WTB , final DSubmatrixD1 B ) {
+        if( !isConcurrent(B) ) {
+            BlockHouseHolder_DDRB.multAdd_zeros(blockLength,Y,WTB,B);
+            return;
+        }
+
+        final int blockLength = this.blockLength;
+        int numBlocks = (B.col1-B.col0+blockLength-1)/blockLength;
+
+        EjmlConcurrency.loopBlocks(0,numBlocks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                int offset0 = start*blockLength;
+                int offset1 = Math.min(end*blockLength,B.col1-B.col0);
+
+                DSubmatrixD1 subWTB = new DSubmatrixD1(WTB.original,WTB.row0,WTB.row1,
+                        WTB.col0+offset0,WTB.col0+offset1);
+                DSubmatrixD1 subB = new DSubmatrixD1(B.original,B.row0,B.row1,
+                        B.col0+offset0,B.col0+offset1);
+
+                BlockHouseHolder_DDRB.multAdd_zeros(blockLength,Y,subWTB,subB);
+            }
+        });
+    }
+
+    /**
+     * Returns true if the reflectors should be applied to B concurrently
+     */
+    private boolean isConcurrent( DSubmatrixD1 B ) {
+        return (long)(B.row1-B.row0)*(B.col1-B.col0)*blockLength >= EjmlParameters.MULT_CONCURRENT_SWITCH &&
+                EjmlConcurrency.isUseConcurrent();
+    }
+
     /**
      * Sets the submatrix of W up give Y is already configured and if it is being cached or not.
      */
@@ -18,11 +18,13 @@
 
 package org.ejml.dense.block.linsol.chol;
 
+import org.ejml.EjmlConcurrency;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DSubmatrixD1;
 import org.ejml.dense.block.MatrixOps_DDRB;
 import org.ejml.dense.block.TriangularSolver_DDRB;
 import org.ejml.dense.block.decomposition.chol.CholeskyOuterForm_DDRB;
+import org.ejml.dense.block.decomposition.chol.CholeskyOuterForm_MT_DDRB;
 import org.ejml.dense.row.SpecializedOps_DDRM;
 import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
 import org.ejml.interfaces.linsol.LinearSolver;
@@ -50,7 +52,8 @@ import org.ejml.interfaces.linsol.LinearSolver;
 public class CholeskyOuterSolver_DDRB implements LinearSolver<DMatrixRBlock> {
 
     // cholesky decomposition
-    private CholeskyOuterForm_DDRB decomposer = new CholeskyOuterForm_DDRB(true);
+    private CholeskyOuterForm_DDRB decomposer = EjmlConcurrency.isUseConcurrent() ?
+            new CholeskyOuterForm_MT_DDRB(true) : new CholeskyOuterForm_DDRB(true);
 
     // size of a block take from input matrix
     private int blockLength;
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DMatrixBatch;
+
+/**
+ * <p>Operations on batches of fixed sized matrices which are 2 x 2 or 2 element vectors.
+ * Each function applies the same operation to every matrix in the batch.  The unrolled code is the same as
+ * in {@link CommonOps_DDF2} but the inner loop is over the batch index, see {@link DMatrixBatch}.
+ * Vectors are stored in a batch with 2 rows and one column.</p>
+ *
+ * <p>All the inputs for a matrix are read before any of its outputs are written.  Outputs can be the same
+ * batch as an input.</p>
+ * <p>DO NOT MODIFY.  Automatically generated code created by GenerateFixedBatchOps</p>
+ *
+ * @author Peter Abeles
+ */
+public class BatchOps_DDF2 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,2,2);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N];
+            double a21 = dataA[i+2*N], a22 = dataA[i+3*N];
+            double b11 = dataB[i], b12 = dataB[i+N];
+            double b21 = dataB[i+2*N], b22 = dataB[i+3*N];
+
+            dataC[i] = a11*b11 + a12*b21;
+            dataC[i+N] = a11*b12 + a12*b22;
+            dataC[i+2*N] = a21*b11 + a22*b21;
+            dataC[i+3*N] = a21*b12 + a22*b22;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a<sup>T</sup> * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ki</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransA( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,2,2);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N];
+            double a21 = dataA[i+2*N], a22 = dataA[i+3*N];
+            double b11 = dataB[i], b12 = dataB[i+N];
+            double b21 = dataB[i+2*N], b22 = dataB[i+3*N];
+
+            dataC[i] = a11*b11 + a21*b21;
+            dataC[i+N] = a11*b12 + a21*b22;
+            dataC[i+2*N] = a12*b11 + a22*b21;
+            dataC[i+3*N] = a12*b12 + a22*b22;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b<sup>T</sup> <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>jk</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransB( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,2,2);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N];
+            double a21 = dataA[i+2*N], a22 = dataA[i+3*N];
+            double b11 = dataB[i], b12 = dataB[i+N];
+            double b21 = dataB[i+2*N], b22 = dataB[i+3*N];
+
+            dataC[i] = a11*b11 + a12*b12;
+            dataC[i+N] = a11*b21 + a12*b22;
+            dataC[i+2*N] = a21*b11 + a22*b12;
+            dataC[i+3*N] = a21*b21 + a22*b22;
+        }
+    }
+
+    /**
+     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'.  Scaling is
+     * applied to improve stability against overflow and underflow.  Matrices which can't be inverted
+     * will contain NaN or infinite values.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param inv Inverted output matrices. Reshaped. Modified.
+     * @return true if every matrix was successfully inverted or false if one failed.  Not always reliable.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        checkMatrix(a,"a");
+        inv.reshape(a.size,2,2);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataInv = inv.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N];
+            double a21 = dataA[i+2*N], a22 = dataA[i+3*N];
+
+            double scale = Math.abs(a11);
+            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a21); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a22); if( tmp > scale ) scale = tmp;
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale;
+            a21 *= scale; a22 *= scale;
+
+            double m11 = a22;
+            double m12 = -( a21);
+            double m21 = -( a12);
+            double m22 = a11;
+
+            double det = (a11*m11 + a12*m12)/scale;
+
+            dataInv[i] = m11/det;
+            dataInv[i+N] = m21/det;
+            dataInv[i+2*N] = m12/det;
+            dataInv[i+3*N] = m22/det;
+
+            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in a*x = b for every matrix in the batch.  The inverse of 'a' is computed using minor
+     * matrices with the same scaling as {@link #invert}.  Solutions which couldn't be found will contain
+     * NaN or infinite values.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     * @return true if every system was successfully solved or false if one failed.  Not always reliable.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(a,"a");
+        checkVector(b,"b");
+        checkSize(a,b);
+        x.reshape(a.size,2,1);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataX = x.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N];
+            double a21 = dataA[i+2*N], a22 = dataA[i+3*N];
+            double b1 = dataB[i], b2 = dataB[i+N];
+
+            double scale = Math.abs(a11);
+            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a21); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a22); if( tmp > scale ) scale = tmp;
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale;
+            a21 *= scale; a22 *= scale;
+
+            double m11 = a22;
+            double m12 = -( a21);
+            double m21 = -( a12);
+            double m22 = a11;
+
+            double det = (a11*m11 + a12*m12)/scale;
+
+            dataX[i] = (m11*b1 + m21*b2)/det;
+            dataX[i+N] = (m12*b1 + m22*b2)/det;
+
+            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);
+        }
+        return success;
+    }
+
+    /**
+     * <p>
+     * Computes the Cholesky decomposition of every matrix in the batch: a = L*L<sup>T</sup>, where L is lower
+     * triangular.  Only the lower triangle of 'a' is read.  The upper triangle of 'L' is set to zero.  Matrices
+     * which are not positive definite will have NaN in their decomposition.
+     * </p>
+     *
+     * @param a Symmetric positive definite matrices. Not modified.
+     * @param L Lower triangular output matrices.  Reshaped. Modified.
+     * @return true if every matrix is positive definite or false if one is not.
+     */
+    public static boolean chol( DMatrixBatch a , DMatrixBatch L ) {
+        checkMatrix(a,"a");
+        L.reshape(a.size,2,2);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataL = L.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i];
+            double a21 = dataA[i+2*N], a22 = dataA[i+3*N];
+
+            double l11 = Math.sqrt(a11);
+            double inv1 = 1.0/l11;
+            double l21 = a21*inv1;
+            double l22 = Math.sqrt(a22 - l21*l21);
+
+            dataL[i] = l11; dataL[i+N] = 0;
+            dataL[i+2*N] = l21; dataL[i+3*N] = l22;
+
+            success &= l11 > 0 && l22 > 0;
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in L*L<sup>T</sup>*x = b for every matrix in the batch, where L was computed by
+     * {@link #chol}.  Only the lower triangle of 'L' is read.
+     *
+     * @param L Lower triangular matrices from the Cholesky decomposition. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     */
+    public static void solveChol( DMatrixBatch L , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(L,"L");
+        checkVector(b,"b");
+        checkSize(L,b);
+        x.reshape(L.size,2,1);
+
+        final int N = L.size;
+        final double[] dataL = L.data, dataB = b.data, dataX = x.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double l11 = dataL[i];
+            double l21 = dataL[i+2*N], l22 = dataL[i+3*N];
+            double b1 = dataB[i], b2 = dataB[i+N];
+
+            double y1 = b1/l11;
+            double y2 = (b2 - l21*y1)/l22;
+            double x2 = y2/l22;
+            double x1 = (y1 - l21*x2)/l11;
+
+            dataX[i] = x1;
+            dataX[i+N] = x2;
+        }
+    }
+
+    private static void checkMatrix( DMatrixBatch m , String name ) {
+        if( m.numRows != 2 || m.numCols != 2 )
+            throw new MatrixDimensionException("'"+name+"' must contain 2 x 2 matrices");
+    }
+
+    private static void checkVector( DMatrixBatch m , String name ) {
+        if( m.numRows != 2 || m.numCols != 1 )
+            throw new MatrixDimensionException("'"+name+"' must contain 2 element vectors");
+    }
+
+    private static void checkSize( DMatrixBatch a , DMatrixBatch b ) {
+        if( a.size != b.size )
+            throw new MatrixDimensionException("Batches must contain the same number of matrices");
+    }
+}
+
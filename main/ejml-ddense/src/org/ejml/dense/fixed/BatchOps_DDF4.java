@@ -0,0 +1,459 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DMatrixBatch;
+
+/**
+ * <p>Operations on batches of fixed sized matrices which are 4 x 4 or 4 element vectors.
+ * Each function applies the same operation to every matrix in the batch.  The unrolled code is the same as
+ * in {@link CommonOps_DDF4} but the inner loop is over the batch index, see {@link DMatrixBatch}.
+ * Vectors are stored in a batch with 4 rows and one column.</p>
+ *
+ * <p>All the inputs for a matrix are read before any of its outputs are written.  Outputs can be the same
+ * batch as an input.</p>
+ * <p>DO NOT MODIFY.  Automatically generated code created by GenerateFixedBatchOps</p>
+ *
+ * @author Peter Abeles
+ */
+public class BatchOps_DDF4 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,4,4);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N];
+            double a21 = dataA[i+4*N], a22 = dataA[i+5*N], a23 = dataA[i+6*N], a24 = dataA[i+7*N];
+            double a31 = dataA[i+8*N], a32 = dataA[i+9*N], a33 = dataA[i+10*N], a34 = dataA[i+11*N];
+            double a41 = dataA[i+12*N], a42 = dataA[i+13*N], a43 = dataA[i+14*N], a44 = dataA[i+15*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N];
+            double b21 = dataB[i+4*N], b22 = dataB[i+5*N], b23 = dataB[i+6*N], b24 = dataB[i+7*N];
+            double b31 = dataB[i+8*N], b32 = dataB[i+9*N], b33 = dataB[i+10*N], b34 = dataB[i+11*N];
+            double b41 = dataB[i+12*N], b42 = dataB[i+13*N], b43 = dataB[i+14*N], b44 = dataB[i+15*N];
+
+            dataC[i] = a11*b11 + a12*b21 + a13*b31 + a14*b41;
+            dataC[i+N] = a11*b12 + a12*b22 + a13*b32 + a14*b42;
+            dataC[i+2*N] = a11*b13 + a12*b23 + a13*b33 + a14*b43;
+            dataC[i+3*N] = a11*b14 + a12*b24 + a13*b34 + a14*b44;
+            dataC[i+4*N] = a21*b11 + a22*b21 + a23*b31 + a24*b41;
+            dataC[i+5*N] = a21*b12 + a22*b22 + a23*b32 + a24*b42;
+            dataC[i+6*N] = a21*b13 + a22*b23 + a23*b33 + a24*b43;
+            dataC[i+7*N] = a21*b14 + a22*b24 + a23*b34 + a24*b44;
+            dataC[i+8*N] = a31*b11 + a32*b21 + a33*b31 + a34*b41;
+            dataC[i+9*N] = a31*b12 + a32*b22 + a33*b32 + a34*b42;
+            dataC[i+10*N] = a31*b13 + a32*b23 + a33*b33 + a34*b43;
+            dataC[i+11*N] = a31*b14 + a32*b24 + a33*b34 + a34*b44;
+            dataC[i+12*N] = a41*b11 + a42*b21 + a43*b31 + a44*b41;
+            dataC[i+13*N] = a41*b12 + a42*b22 + a43*b32 + a44*b42;
+            dataC[i+14*N] = a41*b13 + a42*b23 + a43*b33 + a44*b43;
+            dataC[i+15*N] = a41*b14 + a42*b24 + a43*b34 + a44*b44;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a<sup>T</sup> * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ki</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransA( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,4,4);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N];
+            double a21 = dataA[i+4*N], a22 = dataA[i+5*N], a23 = dataA[i+6*N], a24 = dataA[i+7*N];
+            double a31 = dataA[i+8*N], a32 = dataA[i+9*N], a33 = dataA[i+10*N], a34 = dataA[i+11*N];
+            double a41 = dataA[i+12*N], a42 = dataA[i+13*N], a43 = dataA[i+14*N], a44 = dataA[i+15*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N];
+            double b21 = dataB[i+4*N], b22 = dataB[i+5*N], b23 = dataB[i+6*N], b24 = dataB[i+7*N];
+            double b31 = dataB[i+8*N], b32 = dataB[i+9*N], b33 = dataB[i+10*N], b34 = dataB[i+11*N];
+            double b41 = dataB[i+12*N], b42 = dataB[i+13*N], b43 = dataB[i+14*N], b44 = dataB[i+15*N];
+
+            dataC[i] = a11*b11 + a21*b21 + a31*b31 + a41*b41;
+            dataC[i+N] = a11*b12 + a21*b22 + a31*b32 + a41*b42;
+            dataC[i+2*N] = a11*b13 + a21*b23 + a31*b33 + a41*b43;
+            dataC[i+3*N] = a11*b14 + a21*b24 + a31*b34 + a41*b44;
+            dataC[i+4*N] = a12*b11 + a22*b21 + a32*b31 + a42*b41;
+            dataC[i+5*N] = a12*b12 + a22*b22 + a32*b32 + a42*b42;
+            dataC[i+6*N] = a12*b13 + a22*b23 + a32*b33 + a42*b43;
+            dataC[i+7*N] = a12*b14 + a22*b24 + a32*b34 + a42*b44;
+            dataC[i+8*N] = a13*b11 + a23*b21 + a33*b31 + a43*b41;
+            dataC[i+9*N] = a13*b12 + a23*b22 + a33*b32 + a43*b42;
+            dataC[i+10*N] = a13*b13 + a23*b23 + a33*b33 + a43*b43;
+            dataC[i+11*N] = a13*b14 + a23*b24 + a33*b34 + a43*b44;
+            dataC[i+12*N] = a14*b11 + a24*b21 + a34*b31 + a44*b41;
+            dataC[i+13*N] = a14*b12 + a24*b22 + a34*b32 + a44*b42;
+            dataC[i+14*N] = a14*b13 + a24*b23 + a34*b33 + a44*b43;
+            dataC[i+15*N] = a14*b14 + a24*b24 + a34*b34 + a44*b44;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b<sup>T</sup> <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>jk</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransB( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,4,4);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N];
+            double a21 = dataA[i+4*N], a22 = dataA[i+5*N], a23 = dataA[i+6*N], a24 = dataA[i+7*N];
+            double a31 = dataA[i+8*N], a32 = dataA[i+9*N], a33 = dataA[i+10*N], a34 = dataA[i+11*N];
+            double a41 = dataA[i+12*N], a42 = dataA[i+13*N], a43 = dataA[i+14*N], a44 = dataA[i+15*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N];
+            double b21 = dataB[i+4*N], b22 = dataB[i+5*N], b23 = dataB[i+6*N], b24 = dataB[i+7*N];
+            double b31 = dataB[i+8*N], b32 = dataB[i+9*N], b33 = dataB[i+10*N], b34 = dataB[i+11*N];
+            double b41 = dataB[i+12*N], b42 = dataB[i+13*N], b43 = dataB[i+14*N], b44 = dataB[i+15*N];
+
+            dataC[i] = a11*b11 + a12*b12 + a13*b13 + a14*b14;
+            dataC[i+N] = a11*b21 + a12*b22 + a13*b23 + a14*b24;
+            dataC[i+2*N] = a11*b31 + a12*b32 + a13*b33 + a14*b34;
+            dataC[i+3*N] = a11*b41 + a12*b42 + a13*b43 + a14*b44;
+            dataC[i+4*N] = a21*b11 + a22*b12 + a23*b13 + a24*b14;
+            dataC[i+5*N] = a21*b21 + a22*b22 + a23*b23 + a24*b24;
+            dataC[i+6*N] = a21*b31 + a22*b32 + a23*b33 + a24*b34;
+            dataC[i+7*N] = a21*b41 + a22*b42 + a23*b43 + a24*b44;
+            dataC[i+8*N] = a31*b11 + a32*b12 + a33*b13 + a34*b14;
+            dataC[i+9*N] = a31*b21 + a32*b22 + a33*b23 + a34*b24;
+            dataC[i+10*N] = a31*b31 + a32*b32 + a33*b33 + a34*b34;
+            dataC[i+11*N] = a31*b41 + a32*b42 + a33*b43 + a34*b44;
+            dataC[i+12*N] = a41*b11 + a42*b12 + a43*b13 + a44*b14;
+            dataC[i+13*N] = a41*b21 + a42*b22 + a43*b23 + a44*b24;
+            dataC[i+14*N] = a41*b31 + a42*b32 + a43*b33 + a44*b34;
+            dataC[i+15*N] = a41*b41 + a42*b42 + a43*b43 + a44*b44;
+        }
+    }
+
+    /**
+     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'.  Scaling is
+     * applied to improve stability against overflow and underflow.  Matrices which can't be inverted
+     * will contain NaN or infinite values.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param inv Inverted output matrices. Reshaped. Modified.
+     * @return true if every matrix was successfully inverted or false if one failed.  Not always reliable.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        checkMatrix(a,"a");
+        inv.reshape(a.size,4,4);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataInv = inv.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N];
+            double a21 = dataA[i+4*N], a22 = dataA[i+5*N], a23 = dataA[i+6*N], a24 = dataA[i+7*N];
+            double a31 = dataA[i+8*N], a32 = dataA[i+9*N], a33 = dataA[i+10*N], a34 = dataA[i+11*N];
+            double a41 = dataA[i+12*N], a42 = dataA[i+13*N], a43 = dataA[i+14*N], a44 = dataA[i+15*N];
+
+            double scale = Math.abs(a11);
+            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a13); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a14); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a21); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a22); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a23); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a24); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a31); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a32); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a33); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a34); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a41); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a42); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a43); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a44); if( tmp > scale ) scale = tmp;
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale; a14 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale; a24 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale; a34 *= scale;
+            a41 *= scale; a42 *= scale; a43 *= scale; a44 *= scale;
+
+            double m11 =  + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42);
+            double m12 = -(  + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41));
+            double m13 =  + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41);
+            double m14 = -(  + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41));
+            double m21 = -(  + a12*(a33*a44 - a34*a43) - a13*(a32*a44 - a34*a42) + a14*(a32*a43 - a33*a42));
+            double m22 =  + a11*(a33*a44 - a34*a43) - a13*(a31*a44 - a34*a41) + a14*(a31*a43 - a33*a41);
+            double m23 = -(  + a11*(a32*a44 - a34*a42) - a12*(a31*a44 - a34*a41) + a14*(a31*a42 - a32*a41));
+            double m24 =  + a11*(a32*a43 - a33*a42) - a12*(a31*a43 - a33*a41) + a13*(a31*a42 - a32*a41);
+            double m31 =  + a12*(a23*a44 - a24*a43) - a13*(a22*a44 - a24*a42) + a14*(a22*a43 - a23*a42);
+            double m32 = -(  + a11*(a23*a44 - a24*a43) - a13*(a21*a44 - a24*a41) + a14*(a21*a43 - a23*a41));
+            double m33 =  + a11*(a22*a44 - a24*a42) - a12*(a21*a44 - a24*a41) + a14*(a21*a42 - a22*a41);
+            double m34 = -(  + a11*(a22*a43 - a23*a42) - a12*(a21*a43 - a23*a41) + a13*(a21*a42 - a22*a41));
+            double m41 = -(  + a12*(a23*a34 - a24*a33) - a13*(a22*a34 - a24*a32) + a14*(a22*a33 - a23*a32));
+            double m42 =  + a11*(a23*a34 - a24*a33) - a13*(a21*a34 - a24*a31) + a14*(a21*a33 - a23*a31);
+            double m43 = -(  + a11*(a22*a34 - a24*a32) - a12*(a21*a34 - a24*a31) + a14*(a21*a32 - a22*a31));
+            double m44 =  + a11*(a22*a33 - a23*a32) - a12*(a21*a33 - a23*a31) + a13*(a21*a32 - a22*a31);
+
+            double det = (a11*m11 + a12*m12 + a13*m13 + a14*m14)/scale;
+
+            dataInv[i] = m11/det;
+            dataInv[i+N] = m21/det;
+            dataInv[i+2*N] = m31/det;
+            dataInv[i+3*N] = m41/det;
+            dataInv[i+4*N] = m12/det;
+            dataInv[i+5*N] = m22/det;
+            dataInv[i+6*N] = m32/det;
+            dataInv[i+7*N] = m42/det;
+            dataInv[i+8*N] = m13/det;
+            dataInv[i+9*N] = m23/det;
+            dataInv[i+10*N] = m33/det;
+            dataInv[i+11*N] = m43/det;
+            dataInv[i+12*N] = m14/det;
+            dataInv[i+13*N] = m24/det;
+            dataInv[i+14*N] = m34/det;
+            dataInv[i+15*N] = m44/det;
+
+            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in a*x = b for every matrix in the batch.  The inverse of 'a' is computed using minor
+     * matrices with the same scaling as {@link #invert}.  Solutions which couldn't be found will contain
+     * NaN or infinite values.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     * @return true if every system was successfully solved or false if one failed.  Not always reliable.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(a,"a");
+        checkVector(b,"b");
+        checkSize(a,b);
+        x.reshape(a.size,4,1);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataX = x.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N];
+            double a21 = dataA[i+4*N], a22 = dataA[i+5*N], a23 = dataA[i+6*N], a24 = dataA[i+7*N];
+            double a31 = dataA[i+8*N], a32 = dataA[i+9*N], a33 = dataA[i+10*N], a34 = dataA[i+11*N];
+            double a41 = dataA[i+12*N], a42 = dataA[i+13*N], a43 = dataA[i+14*N], a44 = dataA[i+15*N];
+            double b1 = dataB[i], b2 = dataB[i+N], b3 = dataB[i+2*N], b4 = dataB[i+3*N];
+
+            double scale = Math.abs(a11);
+            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a13); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a14); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a21); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a22); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a23); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a24); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a31); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a32); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a33); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a34); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a41); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a42); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a43); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a44); if( tmp > scale ) scale = tmp;
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale; a14 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale; a24 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale; a34 *= scale;
+            a41 *= scale; a42 *= scale; a43 *= scale; a44 *= scale;
+
+            double m11 =  + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42);
+            double m12 = -(  + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41));
+            double m13 =  + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41);
+            double m14 = -(  + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41));
+            double m21 = -(  + a12*(a33*a44 - a34*a43) - a13*(a32*a44 - a34*a42) + a14*(a32*a43 - a33*a42));
+            double m22 =  + a11*(a33*a44 - a34*a43) - a13*(a31*a44 - a34*a41) + a14*(a31*a43 - a33*a41);
+            double m23 = -(  + a11*(a32*a44 - a34*a42) - a12*(a31*a44 - a34*a41) + a14*(a31*a42 - a32*a41));
+            double m24 =  + a11*(a32*a43 - a33*a42) - a12*(a31*a43 - a33*a41) + a13*(a31*a42 - a32*a41);
+            double m31 =  + a12*(a23*a44 - a24*a43) - a13*(a22*a44 - a24*a42) + a14*(a22*a43 - a23*a42);
+            double m32 = -(  + a11*(a23*a44 - a24*a43) - a13*(a21*a44 - a24*a41) + a14*(a21*a43 - a23*a41));
+            double m33 =  + a11*(a22*a44 - a24*a42) - a12*(a21*a44 - a24*a41) + a14*(a21*a42 - a22*a41);
+            double m34 = -(  + a11*(a22*a43 - a23*a42) - a12*(a21*a43 - a23*a41) + a13*(a21*a42 - a22*a41));
+            double m41 = -(  + a12*(a23*a34 - a24*a33) - a13*(a22*a34 - a24*a32) + a14*(a22*a33 - a23*a32));
+            double m42 =  + a11*(a23*a34 - a24*a33) - a13*(a21*a34 - a24*a31) + a14*(a21*a33 - a23*a31);
+            double m43 = -(  + a11*(a22*a34 - a24*a32) - a12*(a21*a34 - a24*a31) + a14*(a21*a32 - a22*a31));
+            double m44 =  + a11*(a22*a33 - a23*a32) - a12*(a21*a33 - a23*a31) + a13*(a21*a32 - a22*a31);
+
+            double det = (a11*m11 + a12*m12 + a13*m13 + a14*m14)/scale;
+
+            dataX[i] = (m11*b1 + m21*b2 + m31*b3 + m41*b4)/det;
+            dataX[i+N] = (m12*b1 + m22*b2 + m32*b3 + m42*b4)/det;
+            dataX[i+2*N] = (m13*b1 + m23*b2 + m33*b3 + m43*b4)/det;
+            dataX[i+3*N] = (m14*b1 + m24*b2 + m34*b3 + m44*b4)/det;
+
+            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);
+        }
+        return success;
+    }
+
+    /**
+     * <p>
+     * Computes the Cholesky decomposition of every matrix in the batch: a = L*L<sup>T</sup>, where L is lower
+     * triangular.  Only the lower triangle of 'a' is read.  The upper triangle of 'L' is set to zero.  Matrices
+     * which are not positive definite will have NaN in their decomposition.
+     * </p>
+     *
+     * @param a Symmetric positive definite matrices. Not modified.
+     * @param L Lower triangular output matrices.  Reshaped. Modified.
+     * @return true if every matrix is positive definite or false if one is not.
+     */
+    public static boolean chol( DMatrixBatch a , DMatrixBatch L ) {
+        checkMatrix(a,"a");
+        L.reshape(a.size,4,4);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataL = L.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i];
+            double a21 = dataA[i+4*N], a22 = dataA[i+5*N];
+            double a31 = dataA[i+8*N], a32 = dataA[i+9*N], a33 = dataA[i+10*N];
+            double a41 = dataA[i+12*N], a42 = dataA[i+13*N], a43 = dataA[i+14*N], a44 = dataA[i+15*N];
+
+            double l11 = Math.sqrt(a11);
+            double inv1 = 1.0/l11;
+            double l21 = a21*inv1;
+            double l31 = a31*inv1;
+            double l41 = a41*inv1;
+            double l22 = Math.sqrt(a22 - l21*l21);
+            double inv2 = 1.0/l22;
+            double l32 = (a32 - l31*l21)*inv2;
+            double l42 = (a42 - l41*l21)*inv2;
+            double l33 = Math.sqrt(a33 - l31*l31 - l32*l32);
+            double inv3 = 1.0/l33;
+            double l43 = (a43 - l41*l31 - l42*l32)*inv3;
+            double l44 = Math.sqrt(a44 - l41*l41 - l42*l42 - l43*l43);
+
+            dataL[i] = l11; dataL[i+N] = 0; dataL[i+2*N] = 0; dataL[i+3*N] = 0;
+            dataL[i+4*N] = l21; dataL[i+5*N] = l22; dataL[i+6*N] = 0; dataL[i+7*N] = 0;
+            dataL[i+8*N] = l31; dataL[i+9*N] = l32; dataL[i+10*N] = l33; dataL[i+11*N] = 0;
+            dataL[i+12*N] = l41; dataL[i+13*N] = l42; dataL[i+14*N] = l43; dataL[i+15*N] = l44;
+
+            success &= l11 > 0 && l22 > 0 && l33 > 0 && l44 > 0;
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in L*L<sup>T</sup>*x = b for every matrix in the batch, where L was computed by
+     * {@link #chol}.  Only the lower triangle of 'L' is read.
+     *
+     * @param L Lower triangular matrices from the Cholesky decomposition. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     */
+    public static void solveChol( DMatrixBatch L , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(L,"L");
+        checkVector(b,"b");
+        checkSize(L,b);
+        x.reshape(L.size,4,1);
+
+        final int N = L.size;
+        final double[] dataL = L.data, dataB = b.data, dataX = x.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double l11 = dataL[i];
+            double l21 = dataL[i+4*N], l22 = dataL[i+5*N];
+            double l31 = dataL[i+8*N], l32 = dataL[i+9*N], l33 = dataL[i+10*N];
+            double l41 = dataL[i+12*N], l42 = dataL[i+13*N], l43 = dataL[i+14*N], l44 = dataL[i+15*N];
+            double b1 = dataB[i], b2 = dataB[i+N], b3 = dataB[i+2*N], b4 = dataB[i+3*N];
+
+            double y1 = b1/l11;
+            double y2 = (b2 - l21*y1)/l22;
+            double y3 = (b3 - l31*y1 - l32*y2)/l33;
+            double y4 = (b4 - l41*y1 - l42*y2 - l43*y3)/l44;
+            double x4 = y4/l44;
+            double x3 = (y3 - l43*x4)/l33;
+            double x2 = (y2 - l32*x3 - l42*x4)/l22;
+            double x1 = (y1 - l21*x2 - l31*x3 - l41*x4)/l11;
+
+            dataX[i] = x1;
+            dataX[i+N] = x2;
+            dataX[i+2*N] = x3;
+            dataX[i+3*N] = x4;
+        }
+    }
+
+    private static void checkMatrix( DMatrixBatch m , String name ) {
+        if( m.numRows != 4 || m.numCols != 4 )
+            throw new MatrixDimensionException("'"+name+"' must contain 4 x 4 matrices");
+    }
+
+    private static void checkVector( DMatrixBatch m , String name ) {
+        if( m.numRows != 4 || m.numCols != 1 )
+            throw new MatrixDimensionException("'"+name+"' must contain 4 element vectors");
+    }
+
+    private static void checkSize( DMatrixBatch a , DMatrixBatch b ) {
+        if( a.size != b.size )
+            throw new MatrixDimensionException("Batches must contain the same number of matrices");
+    }
+}
+
@@ -0,0 +1,554 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DMatrixBatch;
+
+/**
+ * <p>Operations on batches of fixed sized matrices which are 5 x 5 or 5 element vectors.
+ * Each function applies the same operation to every matrix in the batch.  The unrolled code is the same as
+ * in {@link CommonOps_DDF5} but the inner loop is over the batch index, see {@link DMatrixBatch}.
+ * Vectors are stored in a batch with 5 rows and one column.</p>
+ *
+ * <p>All the inputs for a matrix are read before any of its outputs are written.  Outputs can be the same
+ * batch as an input.</p>
+ * <p>DO NOT MODIFY.  Automatically generated code created by GenerateFixedBatchOps</p>
+ *
+ * @author Peter Abeles
+ */
+public class BatchOps_DDF5 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,5,5);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N];
+            double a21 = dataA[i+5*N], a22 = dataA[i+6*N], a23 = dataA[i+7*N], a24 = dataA[i+8*N], a25 = dataA[i+9*N];
+            double a31 = dataA[i+10*N], a32 = dataA[i+11*N], a33 = dataA[i+12*N], a34 = dataA[i+13*N], a35 = dataA[i+14*N];
+            double a41 = dataA[i+15*N], a42 = dataA[i+16*N], a43 = dataA[i+17*N], a44 = dataA[i+18*N], a45 = dataA[i+19*N];
+            double a51 = dataA[i+20*N], a52 = dataA[i+21*N], a53 = dataA[i+22*N], a54 = dataA[i+23*N], a55 = dataA[i+24*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N], b15 = dataB[i+4*N];
+            double b21 = dataB[i+5*N], b22 = dataB[i+6*N], b23 = dataB[i+7*N], b24 = dataB[i+8*N], b25 = dataB[i+9*N];
+            double b31 = dataB[i+10*N], b32 = dataB[i+11*N], b33 = dataB[i+12*N], b34 = dataB[i+13*N], b35 = dataB[i+14*N];
+            double b41 = dataB[i+15*N], b42 = dataB[i+16*N], b43 = dataB[i+17*N], b44 = dataB[i+18*N], b45 = dataB[i+19*N];
+            double b51 = dataB[i+20*N], b52 = dataB[i+21*N], b53 = dataB[i+22*N], b54 = dataB[i+23*N], b55 = dataB[i+24*N];
+
+            dataC[i] = a11*b11 + a12*b21 + a13*b31 + a14*b41 + a15*b51;
+            dataC[i+N] = a11*b12 + a12*b22 + a13*b32 + a14*b42 + a15*b52;
+            dataC[i+2*N] = a11*b13 + a12*b23 + a13*b33 + a14*b43 + a15*b53;
+            dataC[i+3*N] = a11*b14 + a12*b24 + a13*b34 + a14*b44 + a15*b54;
+            dataC[i+4*N] = a11*b15 + a12*b25 + a13*b35 + a14*b45 + a15*b55;
+            dataC[i+5*N] = a21*b11 + a22*b21 + a23*b31 + a24*b41 + a25*b51;
+            dataC[i+6*N] = a21*b12 + a22*b22 + a23*b32 + a24*b42 + a25*b52;
+            dataC[i+7*N] = a21*b13 + a22*b23 + a23*b33 + a24*b43 + a25*b53;
+            dataC[i+8*N] = a21*b14 + a22*b24 + a23*b34 + a24*b44 + a25*b54;
+            dataC[i+9*N] = a21*b15 + a22*b25 + a23*b35 + a24*b45 + a25*b55;
+            dataC[i+10*N] = a31*b11 + a32*b21 + a33*b31 + a34*b41 + a35*b51;
+            dataC[i+11*N] = a31*b12 + a32*b22 + a33*b32 + a34*b42 + a35*b52;
+            dataC[i+12*N] = a31*b13 + a32*b23 + a33*b33 + a34*b43 + a35*b53;
+            dataC[i+13*N] = a31*b14 + a32*b24 + a33*b34 + a34*b44 + a35*b54;
+            dataC[i+14*N] = a31*b15 + a32*b25 + a33*b35 + a34*b45 + a35*b55;
+            dataC[i+15*N] = a41*b11 + a42*b21 + a43*b31 + a44*b41 + a45*b51;
+            dataC[i+16*N] = a41*b12 + a42*b22 + a43*b32 + a44*b42 + a45*b52;
+            dataC[i+17*N] = a41*b13 + a42*b23 + a43*b33 + a44*b43 + a45*b53;
+            dataC[i+18*N] = a41*b14 + a42*b24 + a43*b34 + a44*b44 + a45*b54;
+            dataC[i+19*N] = a41*b15 + a42*b25 + a43*b35 + a44*b45 + a45*b55;
+            dataC[i+20*N] = a51*b11 + a52*b21 + a53*b31 + a54*b41 + a55*b51;
+            dataC[i+21*N] = a51*b12 + a52*b22 + a53*b32 + a54*b42 + a55*b52;
+            dataC[i+22*N] = a51*b13 + a52*b23 + a53*b33 + a54*b43 + a55*b53;
+            dataC[i+23*N] = a51*b14 + a52*b24 + a53*b34 + a54*b44 + a55*b54;
+            dataC[i+24*N] = a51*b15 + a52*b25 + a53*b35 + a54*b45 + a55*b55;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a<sup>T</sup> * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ki</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransA( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,5,5);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N];
+            double a21 = dataA[i+5*N], a22 = dataA[i+6*N], a23 = dataA[i+7*N], a24 = dataA[i+8*N], a25 = dataA[i+9*N];
+            double a31 = dataA[i+10*N], a32 = dataA[i+11*N], a33 = dataA[i+12*N], a34 = dataA[i+13*N], a35 = dataA[i+14*N];
+            double a41 = dataA[i+15*N], a42 = dataA[i+16*N], a43 = dataA[i+17*N], a44 = dataA[i+18*N], a45 = dataA[i+19*N];
+            double a51 = dataA[i+20*N], a52 = dataA[i+21*N], a53 = dataA[i+22*N], a54 = dataA[i+23*N], a55 = dataA[i+24*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N], b15 = dataB[i+4*N];
+            double b21 = dataB[i+5*N], b22 = dataB[i+6*N], b23 = dataB[i+7*N], b24 = dataB[i+8*N], b25 = dataB[i+9*N];
+            double b31 = dataB[i+10*N], b32 = dataB[i+11*N], b33 = dataB[i+12*N], b34 = dataB[i+13*N], b35 = dataB[i+14*N];
+            double b41 = dataB[i+15*N], b42 = dataB[i+16*N], b43 = dataB[i+17*N], b44 = dataB[i+18*N], b45 = dataB[i+19*N];
+            double b51 = dataB[i+20*N], b52 = dataB[i+21*N], b53 = dataB[i+22*N], b54 = dataB[i+23*N], b55 = dataB[i+24*N];
+
+            dataC[i] = a11*b11 + a21*b21 + a31*b31 + a41*b41 + a51*b51;
+            dataC[i+N] = a11*b12 + a21*b22 + a31*b32 + a41*b42 + a51*b52;
+            dataC[i+2*N] = a11*b13 + a21*b23 + a31*b33 + a41*b43 + a51*b53;
+            dataC[i+3*N] = a11*b14 + a21*b24 + a31*b34 + a41*b44 + a51*b54;
+            dataC[i+4*N] = a11*b15 + a21*b25 + a31*b35 + a41*b45 + a51*b55;
+            dataC[i+5*N] = a12*b11 + a22*b21 + a32*b31 + a42*b41 + a52*b51;
+            dataC[i+6*N] = a12*b12 + a22*b22 + a32*b32 + a42*b42 + a52*b52;
+            dataC[i+7*N] = a12*b13 + a22*b23 + a32*b33 + a42*b43 + a52*b53;
+            dataC[i+8*N] = a12*b14 + a22*b24 + a32*b34 + a42*b44 + a52*b54;
+            dataC[i+9*N] = a12*b15 + a22*b25 + a32*b35 + a42*b45 + a52*b55;
+            dataC[i+10*N] = a13*b11 + a23*b21 + a33*b31 + a43*b41 + a53*b51;
+            dataC[i+11*N] = a13*b12 + a23*b22 + a33*b32 + a43*b42 + a53*b52;
+            dataC[i+12*N] = a13*b13 + a23*b23 + a33*b33 + a43*b43 + a53*b53;
+            dataC[i+13*N] = a13*b14 + a23*b24 + a33*b34 + a43*b44 + a53*b54;
+            dataC[i+14*N] = a13*b15 + a23*b25 + a33*b35 + a43*b45 + a53*b55;
+            dataC[i+15*N] = a14*b11 + a24*b21 + a34*b31 + a44*b41 + a54*b51;
+            dataC[i+16*N] = a14*b12 + a24*b22 + a34*b32 + a44*b42 + a54*b52;
+            dataC[i+17*N] = a14*b13 + a24*b23 + a34*b33 + a44*b43 + a54*b53;
+            dataC[i+18*N] = a14*b14 + a24*b24 + a34*b34 + a44*b44 + a54*b54;
+            dataC[i+19*N] = a14*b15 + a24*b25 + a34*b35 + a44*b45 + a54*b55;
+            dataC[i+20*N] = a15*b11 + a25*b21 + a35*b31 + a45*b41 + a55*b51;
+            dataC[i+21*N] = a15*b12 + a25*b22 + a35*b32 + a45*b42 + a55*b52;
+            dataC[i+22*N] = a15*b13 + a25*b23 + a35*b33 + a45*b43 + a55*b53;
+            dataC[i+23*N] = a15*b14 + a25*b24 + a35*b34 + a45*b44 + a55*b54;
+            dataC[i+24*N] = a15*b15 + a25*b25 + a35*b35 + a45*b45 + a55*b55;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b<sup>T</sup> <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>jk</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransB( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,5,5);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N];
+            double a21 = dataA[i+5*N], a22 = dataA[i+6*N], a23 = dataA[i+7*N], a24 = dataA[i+8*N], a25 = dataA[i+9*N];
+            double a31 = dataA[i+10*N], a32 = dataA[i+11*N], a33 = dataA[i+12*N], a34 = dataA[i+13*N], a35 = dataA[i+14*N];
+            double a41 = dataA[i+15*N], a42 = dataA[i+16*N], a43 = dataA[i+17*N], a44 = dataA[i+18*N], a45 = dataA[i+19*N];
+            double a51 = dataA[i+20*N], a52 = dataA[i+21*N], a53 = dataA[i+22*N], a54 = dataA[i+23*N], a55 = dataA[i+24*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N], b15 = dataB[i+4*N];
+            double b21 = dataB[i+5*N], b22 = dataB[i+6*N], b23 = dataB[i+7*N], b24 = dataB[i+8*N], b25 = dataB[i+9*N];
+            double b31 = dataB[i+10*N], b32 = dataB[i+11*N], b33 = dataB[i+12*N], b34 = dataB[i+13*N], b35 = dataB[i+14*N];
+            double b41 = dataB[i+15*N], b42 = dataB[i+16*N], b43 = dataB[i+17*N], b44 = dataB[i+18*N], b45 = dataB[i+19*N];
+            double b51 = dataB[i+20*N], b52 = dataB[i+21*N], b53 = dataB[i+22*N], b54 = dataB[i+23*N], b55 = dataB[i+24*N];
+
+            dataC[i] = a11*b11 + a12*b12 + a13*b13 + a14*b14 + a15*b15;
+            dataC[i+N] = a11*b21 + a12*b22 + a13*b23 + a14*b24 + a15*b25;
+            dataC[i+2*N] = a11*b31 + a12*b32 + a13*b33 + a14*b34 + a15*b35;
+            dataC[i+3*N] = a11*b41 + a12*b42 + a13*b43 + a14*b44 + a15*b45;
+            dataC[i+4*N] = a11*b51 + a12*b52 + a13*b53 + a14*b54 + a15*b55;
+            dataC[i+5*N] = a21*b11 + a22*b12 + a23*b13 + a24*b14 + a25*b15;
+            dataC[i+6*N] = a21*b21 + a22*b22 + a23*b23 + a24*b24 + a25*b25;
+            dataC[i+7*N] = a21*b31 + a22*b32 + a23*b33 + a24*b34 + a25*b35;
+            dataC[i+8*N] = a21*b41 + a22*b42 + a23*b43 + a24*b44 + a25*b45;
+            dataC[i+9*N] = a21*b51 + a22*b52 + a23*b53 + a24*b54 + a25*b55;
+            dataC[i+10*N] = a31*b11 + a32*b12 + a33*b13 + a34*b14 + a35*b15;
+            dataC[i+11*N] = a31*b21 + a32*b22 + a33*b23 + a34*b24 + a35*b25;
+            dataC[i+12*N] = a31*b31 + a32*b32 + a33*b33 + a34*b34 + a35*b35;
+            dataC[i+13*N] = a31*b41 + a32*b42 + a33*b43 + a34*b44 + a35*b45;
+            dataC[i+14*N] = a31*b51 + a32*b52 + a33*b53 + a34*b54 + a35*b55;
+            dataC[i+15*N] = a41*b11 + a42*b12 + a43*b13 + a44*b14 + a45*b15;
+            dataC[i+16*N] = a41*b21 + a42*b22 + a43*b23 + a44*b24 + a45*b25;
+            dataC[i+17*N] = a41*b31 + a42*b32 + a43*b33 + a44*b34 + a45*b35;
+            dataC[i+18*N] = a41*b41 + a42*b42 + a43*b43 + a44*b44 + a45*b45;
+            dataC[i+19*N] = a41*b51 + a42*b52 + a43*b53 + a44*b54 + a45*b55;
+            dataC[i+20*N] = a51*b11 + a52*b12 + a53*b13 + a54*b14 + a55*b15;
+            dataC[i+21*N] = a51*b21 + a52*b22 + a53*b23 + a54*b24 + a55*b25;
+            dataC[i+22*N] = a51*b31 + a52*b32 + a53*b33 + a54*b34 + a55*b35;
+            dataC[i+23*N] = a51*b41 + a52*b42 + a53*b43 + a54*b44 + a55*b45;
+            dataC[i+24*N] = a51*b51 + a52*b52 + a53*b53 + a54*b54 + a55*b55;
+        }
+    }
+
+    /**
+     * Inverts every matrix in 'a' using minor matrices and stores the results in 'inv'.  Scaling is
+     * applied to improve stability against overflow and underflow.  Matrices which can't be inverted
+     * will contain NaN or infinite values.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param inv Inverted output matrices. Reshaped. Modified.
+     * @return true if every matrix was successfully inverted or false if one failed.  Not always reliable.
+     */
+    public static boolean invert( DMatrixBatch a , DMatrixBatch inv ) {
+        checkMatrix(a,"a");
+        inv.reshape(a.size,5,5);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataInv = inv.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N];
+            double a21 = dataA[i+5*N], a22 = dataA[i+6*N], a23 = dataA[i+7*N], a24 = dataA[i+8*N], a25 = dataA[i+9*N];
+            double a31 = dataA[i+10*N], a32 = dataA[i+11*N], a33 = dataA[i+12*N], a34 = dataA[i+13*N], a35 = dataA[i+14*N];
+            double a41 = dataA[i+15*N], a42 = dataA[i+16*N], a43 = dataA[i+17*N], a44 = dataA[i+18*N], a45 = dataA[i+19*N];
+            double a51 = dataA[i+20*N], a52 = dataA[i+21*N], a53 = dataA[i+22*N], a54 = dataA[i+23*N], a55 = dataA[i+24*N];
+
+            double scale = Math.abs(a11);
+            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a13); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a14); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a15); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a21); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a22); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a23); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a24); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a25); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a31); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a32); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a33); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a34); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a35); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a41); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a42); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a43); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a44); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a45); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a51); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a52); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a53); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a54); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a55); if( tmp > scale ) scale = tmp;
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale; a14 *= scale; a15 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale; a24 *= scale; a25 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale; a34 *= scale; a35 *= scale;
+            a41 *= scale; a42 *= scale; a43 *= scale; a44 *= scale; a45 *= scale;
+            a51 *= scale; a52 *= scale; a53 *= scale; a54 *= scale; a55 *= scale;
+
+            double m11 =  + a22*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a24*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a25*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52));
+            double m12 = -(  + a21*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a25*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)));
+            double m13 =  + a21*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a22*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51));
+            double m14 = -(  + a21*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m15 =  + a21*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a24*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m21 = -(  + a12*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a14*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a15*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)));
+            double m22 =  + a11*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a15*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51));
+            double m23 = -(  + a11*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a12*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)));
+            double m24 =  + a11*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m25 = -(  + a11*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a14*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m31 =  + a12*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) + a14*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a15*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52));
+            double m32 = -(  + a11*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) - a15*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)));
+            double m33 =  + a11*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) - a12*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51));
+            double m34 = -(  + a11*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51)));
+            double m35 =  + a11*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51)) - a14*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51));
+            double m41 = -(  + a12*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) + a14*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a15*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)));
+            double m42 =  + a11*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) - a15*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51));
+            double m43 = -(  + a11*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) - a12*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)));
+            double m44 =  + a11*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51));
+            double m45 = -(  + a11*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)) - a14*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51)));
+            double m51 =  + a12*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) + a14*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a15*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42));
+            double m52 = -(  + a11*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) - a15*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)));
+            double m53 =  + a11*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) - a12*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41));
+            double m54 = -(  + a11*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            double m55 =  + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41));
+
+            double det = (a11*m11 + a12*m12 + a13*m13 + a14*m14 + a15*m15)/scale;
+
+            dataInv[i] = m11/det;
+            dataInv[i+N] = m21/det;
+            dataInv[i+2*N] = m31/det;
+            dataInv[i+3*N] = m41/det;
+            dataInv[i+4*N] = m51/det;
+            dataInv[i+5*N] = m12/det;
+            dataInv[i+6*N] = m22/det;
+            dataInv[i+7*N] = m32/det;
+            dataInv[i+8*N] = m42/det;
+            dataInv[i+9*N] = m52/det;
+            dataInv[i+10*N] = m13/det;
+            dataInv[i+11*N] = m23/det;
+            dataInv[i+12*N] = m33/det;
+            dataInv[i+13*N] = m43/det;
+            dataInv[i+14*N] = m53/det;
+            dataInv[i+15*N] = m14/det;
+            dataInv[i+16*N] = m24/det;
+            dataInv[i+17*N] = m34/det;
+            dataInv[i+18*N] = m44/det;
+            dataInv[i+19*N] = m54/det;
+            dataInv[i+20*N] = m15/det;
+            dataInv[i+21*N] = m25/det;
+            dataInv[i+22*N] = m35/det;
+            dataInv[i+23*N] = m45/det;
+            dataInv[i+24*N] = m55/det;
+
+            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in a*x = b for every matrix in the batch.  The inverse of 'a' is computed using minor
+     * matrices with the same scaling as {@link #invert}.  Solutions which couldn't be found will contain
+     * NaN or infinite values.
+     *
+     * WARNING: Potentially less stable than using LU decomposition.
+     *
+     * @param a Input matrices. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     * @return true if every system was successfully solved or false if one failed.  Not always reliable.
+     */
+    public static boolean solve( DMatrixBatch a , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(a,"a");
+        checkVector(b,"b");
+        checkSize(a,b);
+        x.reshape(a.size,5,1);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataX = x.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N];
+            double a21 = dataA[i+5*N], a22 = dataA[i+6*N], a23 = dataA[i+7*N], a24 = dataA[i+8*N], a25 = dataA[i+9*N];
+            double a31 = dataA[i+10*N], a32 = dataA[i+11*N], a33 = dataA[i+12*N], a34 = dataA[i+13*N], a35 = dataA[i+14*N];
+            double a41 = dataA[i+15*N], a42 = dataA[i+16*N], a43 = dataA[i+17*N], a44 = dataA[i+18*N], a45 = dataA[i+19*N];
+            double a51 = dataA[i+20*N], a52 = dataA[i+21*N], a53 = dataA[i+22*N], a54 = dataA[i+23*N], a55 = dataA[i+24*N];
+            double b1 = dataB[i], b2 = dataB[i+N], b3 = dataB[i+2*N], b4 = dataB[i+3*N], b5 = dataB[i+4*N];
+
+            double scale = Math.abs(a11);
+            double tmp = Math.abs(a12); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a13); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a14); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a15); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a21); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a22); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a23); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a24); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a25); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a31); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a32); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a33); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a34); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a35); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a41); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a42); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a43); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a44); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a45); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a51); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a52); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a53); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a54); if( tmp > scale ) scale = tmp;
+            tmp = Math.abs(a55); if( tmp > scale ) scale = tmp;
+            scale = 1.0/scale;
+            a11 *= scale; a12 *= scale; a13 *= scale; a14 *= scale; a15 *= scale;
+            a21 *= scale; a22 *= scale; a23 *= scale; a24 *= scale; a25 *= scale;
+            a31 *= scale; a32 *= scale; a33 *= scale; a34 *= scale; a35 *= scale;
+            a41 *= scale; a42 *= scale; a43 *= scale; a44 *= scale; a45 *= scale;
+            a51 *= scale; a52 *= scale; a53 *= scale; a54 *= scale; a55 *= scale;
+
+            double m11 =  + a22*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a24*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a25*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52));
+            double m12 = -(  + a21*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a23*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a25*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)));
+            double m13 =  + a21*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a22*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a24*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51));
+            double m14 = -(  + a21*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a25*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m15 =  + a21*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a22*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a23*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a24*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m21 = -(  + a12*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) + a14*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a15*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)));
+            double m22 =  + a11*( + a33*(a44*a55 - a45*a54) - a34*(a43*a55 - a45*a53) + a35*(a43*a54 - a44*a53)) - a13*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) - a15*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51));
+            double m23 = -(  + a11*( + a32*(a44*a55 - a45*a54) - a34*(a42*a55 - a45*a52) + a35*(a42*a54 - a44*a52)) - a12*( + a31*(a44*a55 - a45*a54) - a34*(a41*a55 - a45*a51) + a35*(a41*a54 - a44*a51)) + a14*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)));
+            double m24 =  + a11*( + a32*(a43*a55 - a45*a53) - a33*(a42*a55 - a45*a52) + a35*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a55 - a45*a53) - a33*(a41*a55 - a45*a51) + a35*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a55 - a45*a52) - a32*(a41*a55 - a45*a51) + a35*(a41*a52 - a42*a51)) - a15*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51));
+            double m25 = -(  + a11*( + a32*(a43*a54 - a44*a53) - a33*(a42*a54 - a44*a52) + a34*(a42*a53 - a43*a52)) - a12*( + a31*(a43*a54 - a44*a53) - a33*(a41*a54 - a44*a51) + a34*(a41*a53 - a43*a51)) + a13*( + a31*(a42*a54 - a44*a52) - a32*(a41*a54 - a44*a51) + a34*(a41*a52 - a42*a51)) - a14*( + a31*(a42*a53 - a43*a52) - a32*(a41*a53 - a43*a51) + a33*(a41*a52 - a42*a51)));
+            double m31 =  + a12*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) + a14*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a15*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52));
+            double m32 = -(  + a11*( + a23*(a44*a55 - a45*a54) - a24*(a43*a55 - a45*a53) + a25*(a43*a54 - a44*a53)) - a13*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) - a15*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)));
+            double m33 =  + a11*( + a22*(a44*a55 - a45*a54) - a24*(a42*a55 - a45*a52) + a25*(a42*a54 - a44*a52)) - a12*( + a21*(a44*a55 - a45*a54) - a24*(a41*a55 - a45*a51) + a25*(a41*a54 - a44*a51)) + a14*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51));
+            double m34 = -(  + a11*( + a22*(a43*a55 - a45*a53) - a23*(a42*a55 - a45*a52) + a25*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a55 - a45*a53) - a23*(a41*a55 - a45*a51) + a25*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a55 - a45*a52) - a22*(a41*a55 - a45*a51) + a25*(a41*a52 - a42*a51)) - a15*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51)));
+            double m35 =  + a11*( + a22*(a43*a54 - a44*a53) - a23*(a42*a54 - a44*a52) + a24*(a42*a53 - a43*a52)) - a12*( + a21*(a43*a54 - a44*a53) - a23*(a41*a54 - a44*a51) + a24*(a41*a53 - a43*a51)) + a13*( + a21*(a42*a54 - a44*a52) - a22*(a41*a54 - a44*a51) + a24*(a41*a52 - a42*a51)) - a14*( + a21*(a42*a53 - a43*a52) - a22*(a41*a53 - a43*a51) + a23*(a41*a52 - a42*a51));
+            double m41 = -(  + a12*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) + a14*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a15*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)));
+            double m42 =  + a11*( + a23*(a34*a55 - a35*a54) - a24*(a33*a55 - a35*a53) + a25*(a33*a54 - a34*a53)) - a13*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) - a15*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51));
+            double m43 = -(  + a11*( + a22*(a34*a55 - a35*a54) - a24*(a32*a55 - a35*a52) + a25*(a32*a54 - a34*a52)) - a12*( + a21*(a34*a55 - a35*a54) - a24*(a31*a55 - a35*a51) + a25*(a31*a54 - a34*a51)) + a14*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)));
+            double m44 =  + a11*( + a22*(a33*a55 - a35*a53) - a23*(a32*a55 - a35*a52) + a25*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a55 - a35*a53) - a23*(a31*a55 - a35*a51) + a25*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a55 - a35*a52) - a22*(a31*a55 - a35*a51) + a25*(a31*a52 - a32*a51)) - a15*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51));
+            double m45 = -(  + a11*( + a22*(a33*a54 - a34*a53) - a23*(a32*a54 - a34*a52) + a24*(a32*a53 - a33*a52)) - a12*( + a21*(a33*a54 - a34*a53) - a23*(a31*a54 - a34*a51) + a24*(a31*a53 - a33*a51)) + a13*( + a21*(a32*a54 - a34*a52) - a22*(a31*a54 - a34*a51) + a24*(a31*a52 - a32*a51)) - a14*( + a21*(a32*a53 - a33*a52) - a22*(a31*a53 - a33*a51) + a23*(a31*a52 - a32*a51)));
+            double m51 =  + a12*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) + a14*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a15*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42));
+            double m52 = -(  + a11*( + a23*(a34*a45 - a35*a44) - a24*(a33*a45 - a35*a43) + a25*(a33*a44 - a34*a43)) - a13*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) - a15*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)));
+            double m53 =  + a11*( + a22*(a34*a45 - a35*a44) - a24*(a32*a45 - a35*a42) + a25*(a32*a44 - a34*a42)) - a12*( + a21*(a34*a45 - a35*a44) - a24*(a31*a45 - a35*a41) + a25*(a31*a44 - a34*a41)) + a14*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41));
+            double m54 = -(  + a11*( + a22*(a33*a45 - a35*a43) - a23*(a32*a45 - a35*a42) + a25*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a45 - a35*a43) - a23*(a31*a45 - a35*a41) + a25*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a45 - a35*a42) - a22*(a31*a45 - a35*a41) + a25*(a31*a42 - a32*a41)) - a15*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41)));
+            double m55 =  + a11*( + a22*(a33*a44 - a34*a43) - a23*(a32*a44 - a34*a42) + a24*(a32*a43 - a33*a42)) - a12*( + a21*(a33*a44 - a34*a43) - a23*(a31*a44 - a34*a41) + a24*(a31*a43 - a33*a41)) + a13*( + a21*(a32*a44 - a34*a42) - a22*(a31*a44 - a34*a41) + a24*(a31*a42 - a32*a41)) - a14*( + a21*(a32*a43 - a33*a42) - a22*(a31*a43 - a33*a41) + a23*(a31*a42 - a32*a41));
+
+            double det = (a11*m11 + a12*m12 + a13*m13 + a14*m14 + a15*m15)/scale;
+
+            dataX[i] = (m11*b1 + m21*b2 + m31*b3 + m41*b4 + m51*b5)/det;
+            dataX[i+N] = (m12*b1 + m22*b2 + m32*b3 + m42*b4 + m52*b5)/det;
+            dataX[i+2*N] = (m13*b1 + m23*b2 + m33*b3 + m43*b4 + m53*b5)/det;
+            dataX[i+3*N] = (m14*b1 + m24*b2 + m34*b3 + m44*b4 + m54*b5)/det;
+            dataX[i+4*N] = (m15*b1 + m25*b2 + m35*b3 + m45*b4 + m55*b5)/det;
+
+            success &= det != 0 && !Double.isNaN(det) && !Double.isInfinite(det);
+        }
+        return success;
+    }
+
+    /**
+     * <p>
+     * Computes the Cholesky decomposition of every matrix in the batch: a = L*L<sup>T</sup>, where L is lower
+     * triangular.  Only the lower triangle of 'a' is read.  The upper triangle of 'L' is set to zero.  Matrices
+     * which are not positive definite will have NaN in their decomposition.
+     * </p>
+     *
+     * @param a Symmetric positive definite matrices. Not modified.
+     * @param L Lower triangular output matrices.  Reshaped. Modified.
+     * @return true if every matrix is positive definite or false if one is not.
+     */
+    public static boolean chol( DMatrixBatch a , DMatrixBatch L ) {
+        checkMatrix(a,"a");
+        L.reshape(a.size,5,5);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataL = L.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i];
+            double a21 = dataA[i+5*N], a22 = dataA[i+6*N];
+            double a31 = dataA[i+10*N], a32 = dataA[i+11*N], a33 = dataA[i+12*N];
+            double a41 = dataA[i+15*N], a42 = dataA[i+16*N], a43 = dataA[i+17*N], a44 = dataA[i+18*N];
+            double a51 = dataA[i+20*N], a52 = dataA[i+21*N], a53 = dataA[i+22*N], a54 = dataA[i+23*N], a55 = dataA[i+24*N];
+
+            double l11 = Math.sqrt(a11);
+            double inv1 = 1.0/l11;
+            double l21 = a21*inv1;
+            double l31 = a31*inv1;
+            double l41 = a41*inv1;
+            double l51 = a51*inv1;
+            double l22 = Math.sqrt(a22 - l21*l21);
+            double inv2 = 1.0/l22;
+            double l32 = (a32 - l31*l21)*inv2;
+            double l42 = (a42 - l41*l21)*inv2;
+            double l52 = (a52 - l51*l21)*inv2;
+            double l33 = Math.sqrt(a33 - l31*l31 - l32*l32);
+            double inv3 = 1.0/l33;
+            double l43 = (a43 - l41*l31 - l42*l32)*inv3;
+            double l53 = (a53 - l51*l31 - l52*l32)*inv3;
+            double l44 = Math.sqrt(a44 - l41*l41 - l42*l42 - l43*l43);
+            double inv4 = 1.0/l44;
+            double l54 = (a54 - l51*l41 - l52*l42 - l53*l43)*inv4;
+            double l55 = Math.sqrt(a55 - l51*l51 - l52*l52 - l53*l53 - l54*l54);
+
+            dataL[i] = l11; dataL[i+N] = 0; dataL[i+2*N] = 0; dataL[i+3*N] = 0; dataL[i+4*N] = 0;
+            dataL[i+5*N] = l21; dataL[i+6*N] = l22; dataL[i+7*N] = 0; dataL[i+8*N] = 0; dataL[i+9*N] = 0;
+            dataL[i+10*N] = l31; dataL[i+11*N] = l32; dataL[i+12*N] = l33; dataL[i+13*N] = 0; dataL[i+14*N] = 0;
+            dataL[i+15*N] = l41; dataL[i+16*N] = l42; dataL[i+17*N] = l43; dataL[i+18*N] = l44; dataL[i+19*N] = 0;
+            dataL[i+20*N] = l51; dataL[i+21*N] = l52; dataL[i+22*N] = l53; dataL[i+23*N] = l54; dataL[i+24*N] = l55;
+
+            success &= l11 > 0 && l22 > 0 && l33 > 0 && l44 > 0 && l55 > 0;
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in L*L<sup>T</sup>*x = b for every matrix in the batch, where L was computed by
+     * {@link #chol}.  Only the lower triangle of 'L' is read.
+     *
+     * @param L Lower triangular matrices from the Cholesky decomposition. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     */
+    public static void solveChol( DMatrixBatch L , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(L,"L");
+        checkVector(b,"b");
+        checkSize(L,b);
+        x.reshape(L.size,5,1);
+
+        final int N = L.size;
+        final double[] dataL = L.data, dataB = b.data, dataX = x.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double l11 = dataL[i];
+            double l21 = dataL[i+5*N], l22 = dataL[i+6*N];
+            double l31 = dataL[i+10*N], l32 = dataL[i+11*N], l33 = dataL[i+12*N];
+            double l41 = dataL[i+15*N], l42 = dataL[i+16*N], l43 = dataL[i+17*N], l44 = dataL[i+18*N];
+            double l51 = dataL[i+20*N], l52 = dataL[i+21*N], l53 = dataL[i+22*N], l54 = dataL[i+23*N], l55 = dataL[i+24*N];
+            double b1 = dataB[i], b2 = dataB[i+N], b3 = dataB[i+2*N], b4 = dataB[i+3*N], b5 = dataB[i+4*N];
+
+            double y1 = b1/l11;
+            double y2 = (b2 - l21*y1)/l22;
+            double y3 = (b3 - l31*y1 - l32*y2)/l33;
+            double y4 = (b4 - l41*y1 - l42*y2 - l43*y3)/l44;
+            double y5 = (b5 - l51*y1 - l52*y2 - l53*y3 - l54*y4)/l55;
+            double x5 = y5/l55;
+            double x4 = (y4 - l54*x5)/l44;
+            double x3 = (y3 - l43*x4 - l53*x5)/l33;
+            double x2 = (y2 - l32*x3 - l42*x4 - l52*x5)/l22;
+            double x1 = (y1 - l21*x2 - l31*x3 - l41*x4 - l51*x5)/l11;
+
+            dataX[i] = x1;
+            dataX[i+N] = x2;
+            dataX[i+2*N] = x3;
+            dataX[i+3*N] = x4;
+            dataX[i+4*N] = x5;
+        }
+    }
+
+    private static void checkMatrix( DMatrixBatch m , String name ) {
+        if( m.numRows != 5 || m.numCols != 5 )
+            throw new MatrixDimensionException("'"+name+"' must contain 5 x 5 matrices");
+    }
+
+    private static void checkVector( DMatrixBatch m , String name ) {
+        if( m.numRows != 5 || m.numCols != 1 )
+            throw new MatrixDimensionException("'"+name+"' must contain 5 element vectors");
+    }
+
+    private static void checkSize( DMatrixBatch a , DMatrixBatch b ) {
+        if( a.size != b.size )
+            throw new MatrixDimensionException("Batches must contain the same number of matrices");
+    }
+}
+
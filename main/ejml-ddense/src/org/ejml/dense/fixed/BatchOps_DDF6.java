@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.fixed;
+
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DMatrixBatch;
+
+/**
+ * <p>Operations on batches of fixed sized matrices which are 6 x 6 or 6 element vectors.
+ * Each function applies the same operation to every matrix in the batch.  The unrolled code is the same as
+ * in {@link CommonOps_DDF6} but the inner loop is over the batch index, see {@link DMatrixBatch}.
+ * Vectors are stored in a batch with 6 rows and one column.</p>
+ *
+ * <p>All the inputs for a matrix are read before any of its outputs are written.  Outputs can be the same
+ * batch as an input.</p>
+ * <p>DO NOT MODIFY.  Automatically generated code created by GenerateFixedBatchOps</p>
+ *
+ * @author Peter Abeles
+ */
+public class BatchOps_DDF6 {
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void mult( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,6,6);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N], a16 = dataA[i+5*N];
+            double a21 = dataA[i+6*N], a22 = dataA[i+7*N], a23 = dataA[i+8*N], a24 = dataA[i+9*N], a25 = dataA[i+10*N], a26 = dataA[i+11*N];
+            double a31 = dataA[i+12*N], a32 = dataA[i+13*N], a33 = dataA[i+14*N], a34 = dataA[i+15*N], a35 = dataA[i+16*N], a36 = dataA[i+17*N];
+            double a41 = dataA[i+18*N], a42 = dataA[i+19*N], a43 = dataA[i+20*N], a44 = dataA[i+21*N], a45 = dataA[i+22*N], a46 = dataA[i+23*N];
+            double a51 = dataA[i+24*N], a52 = dataA[i+25*N], a53 = dataA[i+26*N], a54 = dataA[i+27*N], a55 = dataA[i+28*N], a56 = dataA[i+29*N];
+            double a61 = dataA[i+30*N], a62 = dataA[i+31*N], a63 = dataA[i+32*N], a64 = dataA[i+33*N], a65 = dataA[i+34*N], a66 = dataA[i+35*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N], b15 = dataB[i+4*N], b16 = dataB[i+5*N];
+            double b21 = dataB[i+6*N], b22 = dataB[i+7*N], b23 = dataB[i+8*N], b24 = dataB[i+9*N], b25 = dataB[i+10*N], b26 = dataB[i+11*N];
+            double b31 = dataB[i+12*N], b32 = dataB[i+13*N], b33 = dataB[i+14*N], b34 = dataB[i+15*N], b35 = dataB[i+16*N], b36 = dataB[i+17*N];
+            double b41 = dataB[i+18*N], b42 = dataB[i+19*N], b43 = dataB[i+20*N], b44 = dataB[i+21*N], b45 = dataB[i+22*N], b46 = dataB[i+23*N];
+            double b51 = dataB[i+24*N], b52 = dataB[i+25*N], b53 = dataB[i+26*N], b54 = dataB[i+27*N], b55 = dataB[i+28*N], b56 = dataB[i+29*N];
+            double b61 = dataB[i+30*N], b62 = dataB[i+31*N], b63 = dataB[i+32*N], b64 = dataB[i+33*N], b65 = dataB[i+34*N], b66 = dataB[i+35*N];
+
+            dataC[i] = a11*b11 + a12*b21 + a13*b31 + a14*b41 + a15*b51 + a16*b61;
+            dataC[i+N] = a11*b12 + a12*b22 + a13*b32 + a14*b42 + a15*b52 + a16*b62;
+            dataC[i+2*N] = a11*b13 + a12*b23 + a13*b33 + a14*b43 + a15*b53 + a16*b63;
+            dataC[i+3*N] = a11*b14 + a12*b24 + a13*b34 + a14*b44 + a15*b54 + a16*b64;
+            dataC[i+4*N] = a11*b15 + a12*b25 + a13*b35 + a14*b45 + a15*b55 + a16*b65;
+            dataC[i+5*N] = a11*b16 + a12*b26 + a13*b36 + a14*b46 + a15*b56 + a16*b66;
+            dataC[i+6*N] = a21*b11 + a22*b21 + a23*b31 + a24*b41 + a25*b51 + a26*b61;
+            dataC[i+7*N] = a21*b12 + a22*b22 + a23*b32 + a24*b42 + a25*b52 + a26*b62;
+            dataC[i+8*N] = a21*b13 + a22*b23 + a23*b33 + a24*b43 + a25*b53 + a26*b63;
+            dataC[i+9*N] = a21*b14 + a22*b24 + a23*b34 + a24*b44 + a25*b54 + a26*b64;
+            dataC[i+10*N] = a21*b15 + a22*b25 + a23*b35 + a24*b45 + a25*b55 + a26*b65;
+            dataC[i+11*N] = a21*b16 + a22*b26 + a23*b36 + a24*b46 + a25*b56 + a26*b66;
+            dataC[i+12*N] = a31*b11 + a32*b21 + a33*b31 + a34*b41 + a35*b51 + a36*b61;
+            dataC[i+13*N] = a31*b12 + a32*b22 + a33*b32 + a34*b42 + a35*b52 + a36*b62;
+            dataC[i+14*N] = a31*b13 + a32*b23 + a33*b33 + a34*b43 + a35*b53 + a36*b63;
+            dataC[i+15*N] = a31*b14 + a32*b24 + a33*b34 + a34*b44 + a35*b54 + a36*b64;
+            dataC[i+16*N] = a31*b15 + a32*b25 + a33*b35 + a34*b45 + a35*b55 + a36*b65;
+            dataC[i+17*N] = a31*b16 + a32*b26 + a33*b36 + a34*b46 + a35*b56 + a36*b66;
+            dataC[i+18*N] = a41*b11 + a42*b21 + a43*b31 + a44*b41 + a45*b51 + a46*b61;
+            dataC[i+19*N] = a41*b12 + a42*b22 + a43*b32 + a44*b42 + a45*b52 + a46*b62;
+            dataC[i+20*N] = a41*b13 + a42*b23 + a43*b33 + a44*b43 + a45*b53 + a46*b63;
+            dataC[i+21*N] = a41*b14 + a42*b24 + a43*b34 + a44*b44 + a45*b54 + a46*b64;
+            dataC[i+22*N] = a41*b15 + a42*b25 + a43*b35 + a44*b45 + a45*b55 + a46*b65;
+            dataC[i+23*N] = a41*b16 + a42*b26 + a43*b36 + a44*b46 + a45*b56 + a46*b66;
+            dataC[i+24*N] = a51*b11 + a52*b21 + a53*b31 + a54*b41 + a55*b51 + a56*b61;
+            dataC[i+25*N] = a51*b12 + a52*b22 + a53*b32 + a54*b42 + a55*b52 + a56*b62;
+            dataC[i+26*N] = a51*b13 + a52*b23 + a53*b33 + a54*b43 + a55*b53 + a56*b63;
+            dataC[i+27*N] = a51*b14 + a52*b24 + a53*b34 + a54*b44 + a55*b54 + a56*b64;
+            dataC[i+28*N] = a51*b15 + a52*b25 + a53*b35 + a54*b45 + a55*b55 + a56*b65;
+            dataC[i+29*N] = a51*b16 + a52*b26 + a53*b36 + a54*b46 + a55*b56 + a56*b66;
+            dataC[i+30*N] = a61*b11 + a62*b21 + a63*b31 + a64*b41 + a65*b51 + a66*b61;
+            dataC[i+31*N] = a61*b12 + a62*b22 + a63*b32 + a64*b42 + a65*b52 + a66*b62;
+            dataC[i+32*N] = a61*b13 + a62*b23 + a63*b33 + a64*b43 + a65*b53 + a66*b63;
+            dataC[i+33*N] = a61*b14 + a62*b24 + a63*b34 + a64*b44 + a65*b54 + a66*b64;
+            dataC[i+34*N] = a61*b15 + a62*b25 + a63*b35 + a64*b45 + a65*b55 + a66*b65;
+            dataC[i+35*N] = a61*b16 + a62*b26 + a63*b36 + a64*b46 + a65*b56 + a66*b66;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a<sup>T</sup> * b <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ki</sub> * b<sub>kj</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransA( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,6,6);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N], a16 = dataA[i+5*N];
+            double a21 = dataA[i+6*N], a22 = dataA[i+7*N], a23 = dataA[i+8*N], a24 = dataA[i+9*N], a25 = dataA[i+10*N], a26 = dataA[i+11*N];
+            double a31 = dataA[i+12*N], a32 = dataA[i+13*N], a33 = dataA[i+14*N], a34 = dataA[i+15*N], a35 = dataA[i+16*N], a36 = dataA[i+17*N];
+            double a41 = dataA[i+18*N], a42 = dataA[i+19*N], a43 = dataA[i+20*N], a44 = dataA[i+21*N], a45 = dataA[i+22*N], a46 = dataA[i+23*N];
+            double a51 = dataA[i+24*N], a52 = dataA[i+25*N], a53 = dataA[i+26*N], a54 = dataA[i+27*N], a55 = dataA[i+28*N], a56 = dataA[i+29*N];
+            double a61 = dataA[i+30*N], a62 = dataA[i+31*N], a63 = dataA[i+32*N], a64 = dataA[i+33*N], a65 = dataA[i+34*N], a66 = dataA[i+35*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N], b15 = dataB[i+4*N], b16 = dataB[i+5*N];
+            double b21 = dataB[i+6*N], b22 = dataB[i+7*N], b23 = dataB[i+8*N], b24 = dataB[i+9*N], b25 = dataB[i+10*N], b26 = dataB[i+11*N];
+            double b31 = dataB[i+12*N], b32 = dataB[i+13*N], b33 = dataB[i+14*N], b34 = dataB[i+15*N], b35 = dataB[i+16*N], b36 = dataB[i+17*N];
+            double b41 = dataB[i+18*N], b42 = dataB[i+19*N], b43 = dataB[i+20*N], b44 = dataB[i+21*N], b45 = dataB[i+22*N], b46 = dataB[i+23*N];
+            double b51 = dataB[i+24*N], b52 = dataB[i+25*N], b53 = dataB[i+26*N], b54 = dataB[i+27*N], b55 = dataB[i+28*N], b56 = dataB[i+29*N];
+            double b61 = dataB[i+30*N], b62 = dataB[i+31*N], b63 = dataB[i+32*N], b64 = dataB[i+33*N], b65 = dataB[i+34*N], b66 = dataB[i+35*N];
+
+            dataC[i] = a11*b11 + a21*b21 + a31*b31 + a41*b41 + a51*b51 + a61*b61;
+            dataC[i+N] = a11*b12 + a21*b22 + a31*b32 + a41*b42 + a51*b52 + a61*b62;
+            dataC[i+2*N] = a11*b13 + a21*b23 + a31*b33 + a41*b43 + a51*b53 + a61*b63;
+            dataC[i+3*N] = a11*b14 + a21*b24 + a31*b34 + a41*b44 + a51*b54 + a61*b64;
+            dataC[i+4*N] = a11*b15 + a21*b25 + a31*b35 + a41*b45 + a51*b55 + a61*b65;
+            dataC[i+5*N] = a11*b16 + a21*b26 + a31*b36 + a41*b46 + a51*b56 + a61*b66;
+            dataC[i+6*N] = a12*b11 + a22*b21 + a32*b31 + a42*b41 + a52*b51 + a62*b61;
+            dataC[i+7*N] = a12*b12 + a22*b22 + a32*b32 + a42*b42 + a52*b52 + a62*b62;
+            dataC[i+8*N] = a12*b13 + a22*b23 + a32*b33 + a42*b43 + a52*b53 + a62*b63;
+            dataC[i+9*N] = a12*b14 + a22*b24 + a32*b34 + a42*b44 + a52*b54 + a62*b64;
+            dataC[i+10*N] = a12*b15 + a22*b25 + a32*b35 + a42*b45 + a52*b55 + a62*b65;
+            dataC[i+11*N] = a12*b16 + a22*b26 + a32*b36 + a42*b46 + a52*b56 + a62*b66;
+            dataC[i+12*N] = a13*b11 + a23*b21 + a33*b31 + a43*b41 + a53*b51 + a63*b61;
+            dataC[i+13*N] = a13*b12 + a23*b22 + a33*b32 + a43*b42 + a53*b52 + a63*b62;
+            dataC[i+14*N] = a13*b13 + a23*b23 + a33*b33 + a43*b43 + a53*b53 + a63*b63;
+            dataC[i+15*N] = a13*b14 + a23*b24 + a33*b34 + a43*b44 + a53*b54 + a63*b64;
+            dataC[i+16*N] = a13*b15 + a23*b25 + a33*b35 + a43*b45 + a53*b55 + a63*b65;
+            dataC[i+17*N] = a13*b16 + a23*b26 + a33*b36 + a43*b46 + a53*b56 + a63*b66;
+            dataC[i+18*N] = a14*b11 + a24*b21 + a34*b31 + a44*b41 + a54*b51 + a64*b61;
+            dataC[i+19*N] = a14*b12 + a24*b22 + a34*b32 + a44*b42 + a54*b52 + a64*b62;
+            dataC[i+20*N] = a14*b13 + a24*b23 + a34*b33 + a44*b43 + a54*b53 + a64*b63;
+            dataC[i+21*N] = a14*b14 + a24*b24 + a34*b34 + a44*b44 + a54*b54 + a64*b64;
+            dataC[i+22*N] = a14*b15 + a24*b25 + a34*b35 + a44*b45 + a54*b55 + a64*b65;
+            dataC[i+23*N] = a14*b16 + a24*b26 + a34*b36 + a44*b46 + a54*b56 + a64*b66;
+            dataC[i+24*N] = a15*b11 + a25*b21 + a35*b31 + a45*b41 + a55*b51 + a65*b61;
+            dataC[i+25*N] = a15*b12 + a25*b22 + a35*b32 + a45*b42 + a55*b52 + a65*b62;
+            dataC[i+26*N] = a15*b13 + a25*b23 + a35*b33 + a45*b43 + a55*b53 + a65*b63;
+            dataC[i+27*N] = a15*b14 + a25*b24 + a35*b34 + a45*b44 + a55*b54 + a65*b64;
+            dataC[i+28*N] = a15*b15 + a25*b25 + a35*b35 + a45*b45 + a55*b55 + a65*b65;
+            dataC[i+29*N] = a15*b16 + a25*b26 + a35*b36 + a45*b46 + a55*b56 + a65*b66;
+            dataC[i+30*N] = a16*b11 + a26*b21 + a36*b31 + a46*b41 + a56*b51 + a66*b61;
+            dataC[i+31*N] = a16*b12 + a26*b22 + a36*b32 + a46*b42 + a56*b52 + a66*b62;
+            dataC[i+32*N] = a16*b13 + a26*b23 + a36*b33 + a46*b43 + a56*b53 + a66*b63;
+            dataC[i+33*N] = a16*b14 + a26*b24 + a36*b34 + a46*b44 + a56*b54 + a66*b64;
+            dataC[i+34*N] = a16*b15 + a26*b25 + a36*b35 + a46*b45 + a56*b55 + a66*b65;
+            dataC[i+35*N] = a16*b16 + a26*b26 + a36*b36 + a46*b46 + a56*b56 + a66*b66;
+        }
+    }
+
+    /**
+     * <p>Performs the following operation on every matrix in the batch:<br>
+     * <br>
+     * c = a * b<sup>T</sup> <br>
+     * <br>
+     * c<sub>ij</sub> = &sum;<sub>k=1:n</sub> { a<sub>ik</sub> * b<sub>jk</sub>}
+     * </p>
+     *
+     * @param a The left matrices in the multiplication operation. Not modified.
+     * @param b The right matrices in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void multTransB( DMatrixBatch a , DMatrixBatch b , DMatrixBatch c ) {
+        checkMatrix(a,"a");
+        checkMatrix(b,"b");
+        checkSize(a,b);
+        c.reshape(a.size,6,6);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataB = b.data, dataC = c.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i], a12 = dataA[i+N], a13 = dataA[i+2*N], a14 = dataA[i+3*N], a15 = dataA[i+4*N], a16 = dataA[i+5*N];
+            double a21 = dataA[i+6*N], a22 = dataA[i+7*N], a23 = dataA[i+8*N], a24 = dataA[i+9*N], a25 = dataA[i+10*N], a26 = dataA[i+11*N];
+            double a31 = dataA[i+12*N], a32 = dataA[i+13*N], a33 = dataA[i+14*N], a34 = dataA[i+15*N], a35 = dataA[i+16*N], a36 = dataA[i+17*N];
+            double a41 = dataA[i+18*N], a42 = dataA[i+19*N], a43 = dataA[i+20*N], a44 = dataA[i+21*N], a45 = dataA[i+22*N], a46 = dataA[i+23*N];
+            double a51 = dataA[i+24*N], a52 = dataA[i+25*N], a53 = dataA[i+26*N], a54 = dataA[i+27*N], a55 = dataA[i+28*N], a56 = dataA[i+29*N];
+            double a61 = dataA[i+30*N], a62 = dataA[i+31*N], a63 = dataA[i+32*N], a64 = dataA[i+33*N], a65 = dataA[i+34*N], a66 = dataA[i+35*N];
+            double b11 = dataB[i], b12 = dataB[i+N], b13 = dataB[i+2*N], b14 = dataB[i+3*N], b15 = dataB[i+4*N], b16 = dataB[i+5*N];
+            double b21 = dataB[i+6*N], b22 = dataB[i+7*N], b23 = dataB[i+8*N], b24 = dataB[i+9*N], b25 = dataB[i+10*N], b26 = dataB[i+11*N];
+            double b31 = dataB[i+12*N], b32 = dataB[i+13*N], b33 = dataB[i+14*N], b34 = dataB[i+15*N], b35 = dataB[i+16*N], b36 = dataB[i+17*N];
+            double b41 = dataB[i+18*N], b42 = dataB[i+19*N], b43 = dataB[i+20*N], b44 = dataB[i+21*N], b45 = dataB[i+22*N], b46 = dataB[i+23*N];
+            double b51 = dataB[i+24*N], b52 = dataB[i+25*N], b53 = dataB[i+26*N], b54 = dataB[i+27*N], b55 = dataB[i+28*N], b56 = dataB[i+29*N];
+            double b61 = dataB[i+30*N], b62 = dataB[i+31*N], b63 = dataB[i+32*N], b64 = dataB[i+33*N], b65 = dataB[i+34*N], b66 = dataB[i+35*N];
+
+            dataC[i] = a11*b11 + a12*b12 + a13*b13 + a14*b14 + a15*b15 + a16*b16;
+            dataC[i+N] = a11*b21 + a12*b22 + a13*b23 + a14*b24 + a15*b25 + a16*b26;
+            dataC[i+2*N] = a11*b31 + a12*b32 + a13*b33 + a14*b34 + a15*b35 + a16*b36;
+            dataC[i+3*N] = a11*b41 + a12*b42 + a13*b43 + a14*b44 + a15*b45 + a16*b46;
+            dataC[i+4*N] = a11*b51 + a12*b52 + a13*b53 + a14*b54 + a15*b55 + a16*b56;
+            dataC[i+5*N] = a11*b61 + a12*b62 + a13*b63 + a14*b64 + a15*b65 + a16*b66;
+            dataC[i+6*N] = a21*b11 + a22*b12 + a23*b13 + a24*b14 + a25*b15 + a26*b16;
+            dataC[i+7*N] = a21*b21 + a22*b22 + a23*b23 + a24*b24 + a25*b25 + a26*b26;
+            dataC[i+8*N] = a21*b31 + a22*b32 + a23*b33 + a24*b34 + a25*b35 + a26*b36;
+            dataC[i+9*N] = a21*b41 + a22*b42 + a23*b43 + a24*b44 + a25*b45 + a26*b46;
+            dataC[i+10*N] = a21*b51 + a22*b52 + a23*b53 + a24*b54 + a25*b55 + a26*b56;
+            dataC[i+11*N] = a21*b61 + a22*b62 + a23*b63 + a24*b64 + a25*b65 + a26*b66;
+            dataC[i+12*N] = a31*b11 + a32*b12 + a33*b13 + a34*b14 + a35*b15 + a36*b16;
+            dataC[i+13*N] = a31*b21 + a32*b22 + a33*b23 + a34*b24 + a35*b25 + a36*b26;
+            dataC[i+14*N] = a31*b31 + a32*b32 + a33*b33 + a34*b34 + a35*b35 + a36*b36;
+            dataC[i+15*N] = a31*b41 + a32*b42 + a33*b43 + a34*b44 + a35*b45 + a36*b46;
+            dataC[i+16*N] = a31*b51 + a32*b52 + a33*b53 + a34*b54 + a35*b55 + a36*b56;
+            dataC[i+17*N] = a31*b61 + a32*b62 + a33*b63 + a34*b64 + a35*b65 + a36*b66;
+            dataC[i+18*N] = a41*b11 + a42*b12 + a43*b13 + a44*b14 + a45*b15 + a46*b16;
+            dataC[i+19*N] = a41*b21 + a42*b22 + a43*b23 + a44*b24 + a45*b25 + a46*b26;
+            dataC[i+20*N] = a41*b31 + a42*b32 + a43*b33 + a44*b34 + a45*b35 + a46*b36;
+            dataC[i+21*N] = a41*b41 + a42*b42 + a43*b43 + a44*b44 + a45*b45 + a46*b46;
+            dataC[i+22*N] = a41*b51 + a42*b52 + a43*b53 + a44*b54 + a45*b55 + a46*b56;
+            dataC[i+23*N] = a41*b61 + a42*b62 + a43*b63 + a44*b64 + a45*b65 + a46*b66;
+            dataC[i+24*N] = a51*b11 + a52*b12 + a53*b13 + a54*b14 + a55*b15 + a56*b16;
+            dataC[i+25*N] = a51*b21 + a52*b22 + a53*b23 + a54*b24 + a55*b25 + a56*b26;
+            dataC[i+26*N] = a51*b31 + a52*b32 + a53*b33 + a54*b34 + a55*b35 + a56*b36;
+            dataC[i+27*N] = a51*b41 + a52*b42 + a53*b43 + a54*b44 + a55*b45 + a56*b46;
+            dataC[i+28*N] = a51*b51 + a52*b52 + a53*b53 + a54*b54 + a55*b55 + a56*b56;
+            dataC[i+29*N] = a51*b61 + a52*b62 + a53*b63 + a54*b64 + a55*b65 + a56*b66;
+            dataC[i+30*N] = a61*b11 + a62*b12 + a63*b13 + a64*b14 + a65*b15 + a66*b16;
+            dataC[i+31*N] = a61*b21 + a62*b22 + a63*b23 + a64*b24 + a65*b25 + a66*b26;
+            dataC[i+32*N] = a61*b31 + a62*b32 + a63*b33 + a64*b34 + a65*b35 + a66*b36;
+            dataC[i+33*N] = a61*b41 + a62*b42 + a63*b43 + a64*b44 + a65*b45 + a66*b46;
+            dataC[i+34*N] = a61*b51 + a62*b52 + a63*b53 + a64*b54 + a65*b55 + a66*b56;
+            dataC[i+35*N] = a61*b61 + a62*b62 + a63*b63 + a64*b64 + a65*b65 + a66*b66;
+        }
+    }
+
+    /**
+     * <p>
+     * Computes the Cholesky decomposition of every matrix in the batch: a = L*L<sup>T</sup>, where L is lower
+     * triangular.  Only the lower triangle of 'a' is read.  The upper triangle of 'L' is set to zero.  Matrices
+     * which are not positive definite will have NaN in their decomposition.
+     * </p>
+     *
+     * @param a Symmetric positive definite matrices. Not modified.
+     * @param L Lower triangular output matrices.  Reshaped. Modified.
+     * @return true if every matrix is positive definite or false if one is not.
+     */
+    public static boolean chol( DMatrixBatch a , DMatrixBatch L ) {
+        checkMatrix(a,"a");
+        L.reshape(a.size,6,6);
+
+        final int N = a.size;
+        final double[] dataA = a.data, dataL = L.data;
+
+        boolean success = true;
+        for( int i = 0; i < N; i++ ) {
+            double a11 = dataA[i];
+            double a21 = dataA[i+6*N], a22 = dataA[i+7*N];
+            double a31 = dataA[i+12*N], a32 = dataA[i+13*N], a33 = dataA[i+14*N];
+            double a41 = dataA[i+18*N], a42 = dataA[i+19*N], a43 = dataA[i+20*N], a44 = dataA[i+21*N];
+            double a51 = dataA[i+24*N], a52 = dataA[i+25*N], a53 = dataA[i+26*N], a54 = dataA[i+27*N], a55 = dataA[i+28*N];
+            double a61 = dataA[i+30*N], a62 = dataA[i+31*N], a63 = dataA[i+32*N], a64 = dataA[i+33*N], a65 = dataA[i+34*N], a66 = dataA[i+35*N];
+
+            double l11 = Math.sqrt(a11);
+            double inv1 = 1.0/l11;
+            double l21 = a21*inv1;
+            double l31 = a31*inv1;
+            double l41 = a41*inv1;
+            double l51 = a51*inv1;
+            double l61 = a61*inv1;
+            double l22 = Math.sqrt(a22 - l21*l21);
+            double inv2 = 1.0/l22;
+            double l32 = (a32 - l31*l21)*inv2;
+            double l42 = (a42 - l41*l21)*inv2;
+            double l52 = (a52 - l51*l21)*inv2;
+            double l62 = (a62 - l61*l21)*inv2;
+            double l33 = Math.sqrt(a33 - l31*l31 - l32*l32);
+            double inv3 = 1.0/l33;
+            double l43 = (a43 - l41*l31 - l42*l32)*inv3;
+            double l53 = (a53 - l51*l31 - l52*l32)*inv3;
+            double l63 = (a63 - l61*l31 - l62*l32)*inv3;
+            double l44 = Math.sqrt(a44 - l41*l41 - l42*l42 - l43*l43);
+            double inv4 = 1.0/l44;
+            double l54 = (a54 - l51*l41 - l52*l42 - l53*l43)*inv4;
+            double l64 = (a64 - l61*l41 - l62*l42 - l63*l43)*inv4;
+            double l55 = Math.sqrt(a55 - l51*l51 - l52*l52 - l53*l53 - l54*l54);
+            double inv5 = 1.0/l55;
+            double l65 = (a65 - l61*l51 - l62*l52 - l63*l53 - l64*l54)*inv5;
+            double l66 = Math.sqrt(a66 - l61*l61 - l62*l62 - l63*l63 - l64*l64 - l65*l65);
+
+            dataL[i] = l11; dataL[i+N] = 0; dataL[i+2*N] = 0; dataL[i+3*N] = 0; dataL[i+4*N] = 0; dataL[i+5*N] = 0;
+            dataL[i+6*N] = l21; dataL[i+7*N] = l22; dataL[i+8*N] = 0; dataL[i+9*N] = 0; dataL[i+10*N] = 0; dataL[i+11*N] = 0;
+            dataL[i+12*N] = l31; dataL[i+13*N] = l32; dataL[i+14*N] = l33; dataL[i+15*N] = 0; dataL[i+16*N] = 0; dataL[i+17*N] = 0;
+            dataL[i+18*N] = l41; dataL[i+19*N] = l42; dataL[i+20*N] = l43; dataL[i+21*N] = l44; dataL[i+22*N] = 0; dataL[i+23*N] = 0;
+            dataL[i+24*N] = l51; dataL[i+25*N] = l52; dataL[i+26*N] = l53; dataL[i+27*N] = l54; dataL[i+28*N] = l55; dataL[i+29*N] = 0;
+            dataL[i+30*N] = l61; dataL[i+31*N] = l62; dataL[i+32*N] = l63; dataL[i+33*N] = l64; dataL[i+34*N] = l65; dataL[i+35*N] = l66;
+
+            success &= l11 > 0 && l22 > 0 && l33 > 0 && l44 > 0 && l55 > 0 && l66 > 0;
+        }
+        return success;
+    }
+
+    /**
+     * Solves for x in L*L<sup>T</sup>*x = b for every matrix in the batch, where L was computed by
+     * {@link #chol}.  Only the lower triangle of 'L' is read.
+     *
+     * @param L Lower triangular matrices from the Cholesky decomposition. Not modified.
+     * @param b Input vectors. Not modified.
+     * @param x Solution vectors. Reshaped. Modified.
+     */
+    public static void solveChol( DMatrixBatch L , DMatrixBatch b , DMatrixBatch x ) {
+        checkMatrix(L,"L");
+        checkVector(b,"b");
+        checkSize(L,b);
+        x.reshape(L.size,6,1);
+
+        final int N = L.size;
+        final double[] dataL = L.data, dataB = b.data, dataX = x.data;
+
+        for( int i = 0; i < N; i++ ) {
+            double l11 = dataL[i];
+            double l21 = dataL[i+6*N], l22 = dataL[i+7*N];
+            double l31 = dataL[i+12*N], l32 = dataL[i+13*N], l33 = dataL[i+14*N];
+            double l41 = dataL[i+18*N], l42 = dataL[i+19*N], l43 = dataL[i+20*N], l44 = dataL[i+21*N];
+            double l51 = dataL[i+24*N], l52 = dataL[i+25*N], l53 = dataL[i+26*N], l54 = dataL[i+27*N], l55 = dataL[i+28*N];
+            double l61 = dataL[i+30*N], l62 = dataL[i+31*N], l63 = dataL[i+32*N], l64 = dataL[i+33*N], l65 = dataL[i+34*N], l66 = dataL[i+35*N];
+            double b1 = dataB[i], b2 = dataB[i+N], b3 = dataB[i+2*N], b4 = dataB[i+3*N], b5 = dataB[i+4*N], b6 = dataB[i+5*N];
+
+            double y1 = b1/l11;
+            double y2 = (b2 - l21*y1)/l22;
+            double y3 = (b3 - l31*y1 - l32*y2)/l33;
+            double y4 = (b4 - l41*y1 - l42*y2 - l43*y3)/l44;
+            double y5 = (b5 - l51*y1 - l52*y2 - l53*y3 - l54*y4)/l55;
+            double y6 = (b6 - l61*y1 - l62*y2 - l63*y3 - l64*y4 - l65*y5)/l66;
+            double x6 = y6/l66;
+            double x5 = (y5 - l65*x6)/l55;
+            double x4 = (y4 - l54*x5 - l64*x6)/l44;
+            double x3 = (y3 - l43*x4 - l53*x5 - l63*x6)/l33;
+            double x2 = (y2 - l32*x3 - l42*x4 - l52*x5 - l62*x6)/l22;
+            double x1 = (y1 - l21*x2 - l31*x3 - l41*x4 - l51*x5 - l61*x6)/l11;
+
+            dataX[i] = x1;
+            dataX[i+N] = x2;
+            dataX[i+2*N] = x3;
+            dataX[i+3*N] = x4;
+            dataX[i+4*N] = x5;
+            dataX[i+5*N] = x6;
+        }
+    }
+
+    private static void checkMatrix( DMatrixBatch m , String name ) {
+        if( m.numRows != 6 || m.numCols != 6 )
+            throw new MatrixDimensionException("'"+name+"' must contain 6 x 6 matrices");
+    }
+
+    private static void checkVector( DMatrixBatch m , String name ) {
+        if( m.numRows != 6 || m.numCols != 1 )
+            throw new MatrixDimensionException("'"+name+"' must contain 6 element vectors");
+    }
+
+    private static void checkSize( DMatrixBatch a , DMatrixBatch b ) {
+        if( a.size != b.size )
+            throw new MatrixDimensionException("Batches must contain the same number of matrices");
+    }
+}
+
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.offheap;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixOffHeap;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+
+/**
+ * <p>
+ * Common matrix operations for {@link DMatrixOffHeap}.  Matrices are processed one square block at a time.  Each
+ * block is copied onto the heap into a {@link DMatrixRMaj}, processed using the row-major operations, then
+ * copied back.  Accessing the off-heap memory is then only a small fraction of the total cost.  Operations on
+ * large matrices are performed concurrently, with each thread processing different blocks.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CommonOps_DDOH {
+
+    /**
+     * Width of the square blocks which are copied onto the heap.
+     */
+    public static int BLOCK_LENGTH = 256;
+
+    /**
+     * Copies a submatrix onto the heap.
+     *
+     * @param src The matrix which the submatrix is extracted from. Not modified.
+     * @param srcY0 Start row.
+     * @param srcY1 Stop row + 1.
+     * @param srcX0 Start column.
+     * @param srcX1 Stop column + 1.
+     * @param dst Where the submatrix is stored.  Reshaped.  Modified.
+     */
+    public static void extract( DMatrixOffHeap src , int srcY0 , int srcY1 , int srcX0 , int srcX1 ,
+                                DMatrixRMaj dst ) {
+        if( srcY1 < srcY0 || srcY0 < 0 || srcY1 > src.numRows )
+            throw new IllegalArgumentException("srcY1 < srcY0 || srcY0 < 0 || srcY1 > src.numRows");
+        if( srcX1 < srcX0 || srcX0 < 0 || srcX1 > src.numCols )
+            throw new IllegalArgumentException("srcX1 < srcX0 || srcX0 < 0 || srcX1 > src.numCols");
+
+        int w = srcX1-srcX0;
+        dst.reshape(srcY1-srcY0,w,false);
+        for (int i = 0; i < dst.numRows; i++) {
+            src.read(src.getIndex(srcY0+i,srcX0),dst.data,i*w,w);
+        }
+    }
+
+    /**
+     * Copies a matrix on the heap into a submatrix of an off-heap matrix.
+     *
+     * @param src The matrix which is copied. Not modified.
+     * @param dst The matrix it is copied into.  Modified.
+     * @param destY0 Start row in dst.
+     * @param destX0 Start column in dst.
+     */
+    public static void insert( DMatrixRMaj src , DMatrixOffHeap dst , int destY0 , int destX0 ) {
+        if( destY0 < 0 || destX0 < 0 || destY0+src.numRows > dst.numRows || destX0+src.numCols > dst.numCols )
+            throw new IllegalArgumentException("src doesn't fit inside of dst at the specified location");
+
+        int w = src.numCols;
+        for (int i = 0; i < src.numRows; i++) {
+            dst.write(dst.getIndex(destY0+i,destX0),src.data,i*w,w);
+        }
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a + b <br>
+     * </p>
+     *
+     * @param a A Matrix. Not modified.
+     * @param b A Matrix. Not modified.
+     * @param c A Matrix where the results are stored. Reshaped. Modified.
+     */
+    public static void add( DMatrixOffHeap a , DMatrixOffHeap b , DMatrixOffHeap c ) {
+        add(1.0,a,1.0,b,c);
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = &alpha; * a + &beta; * b <br>
+     * </p>
+     *
+     * @param alpha scaling factor for a.
+     * @param a A Matrix. Not modified.
+     * @param beta scaling factor for b.
+     * @param b A Matrix. Not modified.
+     * @param c A Matrix where the results are stored. Reshaped. Modified.
+     */
+    public static void add( final double alpha , final DMatrixOffHeap a ,
+                            final double beta , final DMatrixOffHeap b , final DMatrixOffHeap c ) {
+        if( a.numCols != b.numCols || a.numRows != b.numRows )
+            throw new IllegalArgumentException("The 'a' and 'b' matrices do not have compatible dimensions");
+        c.reshape(a.numRows,a.numCols);
+
+        final long length = a.getDataLength();
+        final int blockSize = BLOCK_LENGTH*BLOCK_LENGTH;
+        int numBlocks = (int)((length+blockSize-1)/blockSize);
+
+        loopBlocks(numBlocks,length,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int idx0, int idx1) {
+                double blockA[] = new double[blockSize];
+                double blockB[] = new double[blockSize];
+                for (int block = idx0; block < idx1; block++) {
+                    long index = (long)block*blockSize;
+                    int n = (int)Math.min(blockSize,length-index);
+                    a.read(index,blockA,0,n);
+                    b.read(index,blockB,0,n);
+                    for (int i = 0; i < n; i++) {
+                        blockA[i] = alpha*blockA[i] + beta*blockB[i];
+                    }
+                    c.write(index,blockA,0,n);
+                }
+            }
+        });
+    }
+
+    /**
+     * Transposes matrix 'a' and stores the results in 'b'.
+     *
+     * @param a The original matrix.  Not modified.
+     * @param a_tran Where the transpose is stored. Must be a different matrix than 'a'. Reshaped. Modified.
+     */
+    public static void transpose( final DMatrixOffHeap a , final DMatrixOffHeap a_tran ) {
+        if( a == a_tran )
+            throw new IllegalArgumentException("a and a_tran can't be the same matrix");
+        a_tran.reshape(a.numCols,a.numRows);
+
+        final int blockLength = BLOCK_LENGTH;
+        int numBlockRows = (a.numRows+blockLength-1)/blockLength;
+
+        loopBlocks(numBlockRows,a.getDataLength(),new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int idx0, int idx1) {
+                DMatrixRMaj block = new DMatrixRMaj(1,1);
+                DMatrixRMaj blockTran = new DMatrixRMaj(1,1);
+                for (int i0 = idx0*blockLength; i0 < Math.min(a.numRows,idx1*blockLength); i0 += blockLength) {
+                    int i1 = Math.min(a.numRows,i0+blockLength);
+                    for (int j0 = 0; j0 < a.numCols; j0 += blockLength) {
+                        int j1 = Math.min(a.numCols,j0+blockLength);
+                        extract(a,i0,i1,j0,j1,block);
+                        blockTran.reshape(block.numCols,block.numRows,false);
+                        CommonOps_DDRM.transpose(block,blockTran);
+                        insert(blockTran,a_tran,j0,i0);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * <p>Performs the following operation:<br>
+     * <br>
+     * c = a * b <br>
+     * </p>
+     *
+     * @param a The left matrix in the multiplication operation. Not modified.
+     * @param b The right matrix in the multiplication operation. Not modified.
+     * @param c Where the results of the operation are stored. Reshaped. Modified.
+     */
+    public static void mult( final DMatrixOffHeap a , final DMatrixOffHeap b , final DMatrixOffHeap c ) {
+        if( a.numCols != b.numRows )
+            throw new IllegalArgumentException("The 'a' and 'b' matrices do not have compatible dimensions");
+        if( a == c || b == c )
+            throw new IllegalArgumentException("Neither 'a' or 'b' can be the same matrix as 'c'");
+        c.reshape(a.numRows,b.numCols);
+
+        final int blockLength = BLOCK_LENGTH;
+        int numBlockRows = (a.numRows+blockLength-1)/blockLength;
+
+        loopBlocks(numBlockRows,(long)a.numRows*b.numCols*a.numCols,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int idx0, int idx1) {
+                DMatrixRMaj blockA = new DMatrixRMaj(1,1);
+                DMatrixRMaj blockB = new DMatrixRMaj(1,1);
+                DMatrixRMaj blockC = new DMatrixRMaj(1,1);
+                for (int i0 = idx0*blockLength; i0 < Math.min(a.numRows,idx1*blockLength); i0 += blockLength) {
+                    int i1 = Math.min(a.numRows,i0+blockLength);
+                    for (int j0 = 0; j0 < b.numCols; j0 += blockLength) {
+                        int j1 = Math.min(b.numCols,j0+blockLength);
+                        blockC.reshape(i1-i0,j1-j0,false);
+                        blockC.zero();
+                        for (int k0 = 0; k0 < a.numCols; k0 += blockLength) {
+                            int k1 = Math.min(a.numCols,k0+blockLength);
+                            extract(a,i0,i1,k0,k1,blockA);
+                            extract(b,k0,k1,j0,j1,blockB);
+                            CommonOps_DDRM.multAdd(blockA,blockB,blockC);
+                        }
+                        insert(blockC,c,i0,j0);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Processes the blocks concurrently if the operation is large enough, otherwise in the calling thread.
+     *
+     * @param numBlocks Number of blocks being processed
+     * @param operations Approximate number of floating point operations
+     * @param task Processes a range of blocks
+     */
+    public static void loopBlocks( int numBlocks , long operations , EjmlConcurrency.RangeTask task ) {
+        if( numBlocks > 1 && EjmlConcurrency.isUseConcurrent() &&
+                operations >= EjmlParameters.MULT_CONCURRENT_SWITCH ) {
+            EjmlConcurrency.loopBlocks(0,numBlocks,1,task);
+        } else {
+            task.process(0,numBlocks);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.offheap;
+
+import org.ejml.data.DMatrixOffHeap;
+import org.ejml.dense.row.decomposition.svd.RowBlockSource_F64;
+
+/**
+ * <p>
+ * {@link RowBlockSource_F64} for a {@link DMatrixOffHeap}.  When the matrix is from a memory mapped file, see
+ * {@link org.ejml.ops.MappedMatrix#asMatrix()}, only the rows being read need to be in memory.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RowBlockSource_DDOH implements RowBlockSource_F64 {
+
+    DMatrixOffHeap A;
+    // the next row which will be read
+    int row;
+
+    public RowBlockSource_DDOH( DMatrixOffHeap A ) {
+        this.A = A;
+    }
+
+    @Override
+    public void reset() {
+        row = 0;
+    }
+
+    @Override
+    public int read(double[] data, int maxRows) {
+        int numRows = Math.min(maxRows,A.numRows-row);
+        A.read(A.getIndex(row,0),data,0,numRows*A.numCols);
+        row += numRows;
+        return numRows;
+    }
+
+    @Override
+    public int getNumRows() {
+        return A.numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return A.numCols;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.offheap.decomposition.chol;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixOffHeap;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.offheap.CommonOps_DDOH;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
+import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
+
+import static org.ejml.dense.offheap.CommonOps_DDOH.extract;
+import static org.ejml.dense.offheap.CommonOps_DDOH.insert;
+
+/**
+ * <p>
+ * Block Cholesky decomposition of a {@link DMatrixOffHeap} using the outer product form.  The lower triangular
+ * matrix is computed in-place.  Each step k has three types of operations on blocks:
+ * <pre>
+ * factor : L(k,k) = chol( A(k,k) )
+ * solve  : L(i,k) = A(i,k)*L(k,k)<sup>-T</sup>                  i &gt; k
+ * update : A(i,j) = A(i,j) - L(i,k)*L(j,k)<sup>T</sup>            i &ge; j &gt; k
+ * </pre>
+ * Each block is copied onto the heap before being processed, see {@link CommonOps_DDOH}.  The solve and update
+ * operations are performed concurrently for large matrices.
+ * </p>
+ *
+ * <p>
+ * The input matrix must be symmetric.  Only the lower triangle and the blocks along the diagonal are read.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyOuterForm_DDOH implements CholeskyDecomposition_F64<DMatrixOffHeap> {
+
+    // width of a block
+    private int blockLength;
+
+    // The decomposed matrix.
+    protected DMatrixOffHeap T;
+
+    private CholeskyDecompositionInner_DDRM inner = new CholeskyDecompositionInner_DDRM(true);
+
+    // storage for the determinant
+    private Complex_F64 det = new Complex_F64();
+
+    /**
+     * Creates the decomposition and specifies the width of a block
+     */
+    public CholeskyOuterForm_DDOH( int blockLength ) {
+        this.blockLength = blockLength;
+    }
+
+    public CholeskyOuterForm_DDOH() {
+        this(CommonOps_DDOH.BLOCK_LENGTH);
+    }
+
+    /**
+     * Decomposes the provided matrix and stores the result in the same matrix.
+     *
+     * @param A Matrix that is to be decomposed.  Modified.
+     * @return If it succeeded or not.
+     */
+    @Override
+    public boolean decompose( DMatrixOffHeap A ) {
+        if( A.numCols != A.numRows )
+            throw new IllegalArgumentException("A must be square");
+
+        this.T = A;
+        final int N = A.numRows;
+        DMatrixRMaj Lkk = new DMatrixRMaj(1,1);
+
+        for (int k = 0; k < N; k += blockLength) {
+            final int k0 = k;
+            final int k1 = Math.min(N,k0+blockLength);
+
+            extract(A,k0,k1,k0,k1,Lkk);
+            if( !inner.decompose(Lkk) )
+                return false;
+            insert(Lkk,A,k0,k0);
+
+            if( k1 == N )
+                break;
+
+            final int numBlocks = (N-k1+blockLength-1)/blockLength;
+            final int width = k1-k0;
+            final DMatrixRMaj L = Lkk;
+
+            // L(i,k) = A(i,k)*L(k,k)^-T
+            CommonOps_DDOH.loopBlocks(numBlocks,(long)(N-k1)*width*width,new EjmlConcurrency.RangeTask() {
+                @Override
+                public void process(int idx0, int idx1) {
+                    DMatrixRMaj Lik = new DMatrixRMaj(1,1);
+                    for (int block = idx0; block < idx1; block++) {
+                        int i0 = k1+block*blockLength;
+                        int i1 = Math.min(N,i0+blockLength);
+                        extract(T,i0,i1,k0,k1,Lik);
+                        solveTranL(L,Lik);
+                        insert(Lik,T,i0,k0);
+                    }
+                }
+            });
+
+            // A(i,j) = A(i,j) - L(i,k)*L(j,k)^T
+            CommonOps_DDOH.loopBlocks(numBlocks,(long)(N-k1)*(N-k1)*width,new EjmlConcurrency.RangeTask() {
+                @Override
+                public void process(int idx0, int idx1) {
+                    DMatrixRMaj Lik = new DMatrixRMaj(1,1);
+                    DMatrixRMaj Ljk = new DMatrixRMaj(1,1);
+                    DMatrixRMaj Aij = new DMatrixRMaj(1,1);
+                    for (int blockI = idx0; blockI < idx1; blockI++) {
+                        int i0 = k1+blockI*blockLength;
+                        int i1 = Math.min(N,i0+blockLength);
+                        extract(T,i0,i1,k0,k1,Lik);
+                        for (int j0 = k1; j0 <= i0; j0 += blockLength) {
+                            int j1 = Math.min(N,j0+blockLength);
+                            extract(T,j0,j1,k0,k1,Ljk);
+                            extract(T,i0,i1,j0,j1,Aij);
+                            CommonOps_DDRM.multAddTransB(-1,Lik,Ljk,Aij);
+                            insert(Aij,T,i0,j0);
+                        }
+                    }
+                }
+            });
+        }
+
+        zeroUpper(A);
+
+        return true;
+    }
+
+    /**
+     * Solves for X in X*L<sup>T</sup> = B, where L is lower triangular.  Each row of B is solved for
+     * independently, which only accesses memory in rows.
+     *
+     * @param L Lower triangular matrix.  Not modified.
+     * @param B (Input) B. (Output) X.  Modified.
+     */
+    static void solveTranL( DMatrixRMaj L , DMatrixRMaj B ) {
+        int n = L.numCols;
+        for (int row = 0; row < B.numRows; row++) {
+            int indexB = row*n;
+            for (int j = 0; j < n; j++) {
+                double sum = B.data[indexB+j];
+                int indexL = j*n;
+                for (int k = 0; k < j; k++) {
+                    sum -= B.data[indexB+k]*L.data[indexL+k];
+                }
+                B.data[indexB+j] = sum/L.data[indexL+j];
+            }
+        }
+    }
+
+    /**
+     * Sets all the elements above the diagonal to zero
+     */
+    private static void zeroUpper( DMatrixOffHeap A ) {
+        double zeros[] = new double[A.numCols];
+        for (int row = 0; row < A.numRows-1; row++) {
+            A.write(A.getIndex(row,row+1),zeros,0,A.numCols-row-1);
+        }
+    }
+
+    @Override
+    public boolean isLower() {
+        return true;
+    }
+
+    @Override
+    public DMatrixOffHeap getT( DMatrixOffHeap T ) {
+        if( T == null )
+            return this.T;
+        T.set(this.T);
+
+        return T;
+    }
+
+    @Override
+    public Complex_F64 computeDeterminant() {
+        double prod = 1.0;
+        for (int i = 0; i < T.numRows; i++) {
+            prod *= T.get(T.getIndex(i,i));
+        }
+
+        det.real = prod*prod;
+        det.imaginary = 0;
+
+        return det;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return true;
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.ejml.dense.row;
 
+import org.ejml.EjmlConcurrency;
 import org.ejml.EjmlParameters;
 import org.ejml.LinearSolverSafe;
 import org.ejml.UtilEjml;
@@ -28,6 +29,7 @@ import org.ejml.dense.row.linsol.lu.LinearSolverLu_DDRM;
 import org.ejml.dense.row.linsol.svd.SolvePseudoInverseSvd_DDRM;
 import org.ejml.dense.row.misc.*;
 import org.ejml.dense.row.mult.MatrixMatrixMult_DDRM;
+import org.ejml.dense.row.mult.MatrixMatrixMult_MT_DDRM;
 import org.ejml.dense.row.mult.MatrixMultProduct_DDRM;
 import org.ejml.dense.row.mult.MatrixVectorMult_DDRM;
 import org.ejml.dense.row.mult.VectorVectorMult_DDRM;
@@ -55,6 +57,19 @@ import java.util.Arrays;
  */
 @SuppressWarnings({"ForLoopReplaceableByForEach"})
 public class CommonOps_DDRM {
+    /**
+     * Returns true if a matrix multiplication which produces a matrix with the specified shape
+     * should be computed concurrently
+     *
+     * @param rowsC Number of rows in the output matrix
+     * @param colsC Number of columns in the output matrix
+     * @param inner Length of the inner dimension
+     */
+    private static boolean isConcurrentMult( int rowsC , int colsC , int inner ) {
+        return rowsC > 1 && (long)rowsC*colsC*inner >= EjmlParameters.MULT_CONCURRENT_SWITCH &&
+                EjmlConcurrency.isUseConcurrent();
+    }
+
     /**
      * <p>Performs the following operation:<br>
      * <br>
@@ -71,6 +86,8 @@ public class CommonOps_DDRM {
     {
         if( b.numCols == 1 ) {
             MatrixVectorMult_DDRM.mult(a, b, c);
+        } else if( isConcurrentMult(a.numRows,b.numCols,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.mult(a,b,c);
         } else if( b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
             MatrixMatrixMult_DDRM.mult_reorder(a,b,c);
         } else {
@@ -94,7 +111,9 @@ public class CommonOps_DDRM {
     public static void mult(double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
         // TODO add a matrix vectory multiply here
-        if( b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
+        if( isConcurrentMult(a.numRows,b.numCols,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.mult(alpha,a,b,c);
+        } else if( b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
             MatrixMatrixMult_DDRM.mult_reorder(alpha, a, b, c);
         } else {
             MatrixMatrixMult_DDRM.mult_small(alpha,a,b,c);
@@ -123,6 +142,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multTransA_small(a,b,c);
             }
+        } else if( isConcurrentMult(a.numCols,b.numCols,a.numRows) ) {
+            MatrixMatrixMult_MT_DDRM.multTransA(a,b,c);
         } else if( a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH  ) {
             MatrixMatrixMult_DDRM.multTransA_reorder(a, b, c);
@@ -147,7 +168,9 @@ public class CommonOps_DDRM {
     public static void multTransA(double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
         // TODO add a matrix vectory multiply here
-        if( a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
+        if( isConcurrentMult(a.numCols,b.numCols,a.numRows) ) {
+            MatrixMatrixMult_MT_DDRM.multTransA(alpha,a,b,c);
+        } else if( a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
             MatrixMatrixMult_DDRM.multTransA_reorder(alpha, a, b, c);
         } else {
@@ -171,6 +194,8 @@ public class CommonOps_DDRM {
     {
         if( b.numRows == 1 ) {
             MatrixVectorMult_DDRM.mult(a, b, c);
+        } else if( isConcurrentMult(a.numRows,b.numRows,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.multTransB(a,b,c);
         } else {
             MatrixMatrixMult_DDRM.multTransB(a, b, c);
         }
@@ -192,7 +217,11 @@ public class CommonOps_DDRM {
     public static void multTransB(double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
         // TODO add a matrix vectory multiply here
-        MatrixMatrixMult_DDRM.multTransB(alpha,a,b,c);
+        if( isConcurrentMult(a.numRows,b.numRows,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.multTransB(alpha,a,b,c);
+        } else {
+            MatrixMatrixMult_DDRM.multTransB(alpha,a,b,c);
+        }
     }
 
     /**
@@ -331,6 +360,8 @@ public class CommonOps_DDRM {
     {
         if( b.numCols == 1 ) {
             MatrixVectorMult_DDRM.multAdd(a, b, c);
+        } else if( isConcurrentMult(a.numRows,b.numCols,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.multAdd(a,b,c);
         } else {
             if( b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
                 MatrixMatrixMult_DDRM.multAdd_reorder(a,b,c);
@@ -356,7 +387,9 @@ public class CommonOps_DDRM {
     public static void multAdd(double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
         // TODO add a matrix vectory multiply here
-        if( b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
+        if( isConcurrentMult(a.numRows,b.numCols,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.multAdd(alpha,a,b,c);
+        } else if( b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
             MatrixMatrixMult_DDRM.multAdd_reorder(alpha, a, b, c);
         } else {
             MatrixMatrixMult_DDRM.multAdd_small(alpha,a,b,c);
@@ -383,6 +416,8 @@ public class CommonOps_DDRM {
             } else {
                 MatrixVectorMult_DDRM.multAddTransA_small(a,b,c);
             }
+        } else if( isConcurrentMult(a.numCols,b.numCols,a.numRows) ) {
+            MatrixMatrixMult_MT_DDRM.multAddTransA(a,b,c);
         } else {
             if( a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                     b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH  ) {
@@ -409,7 +444,9 @@ public class CommonOps_DDRM {
     public static void multAddTransA(double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
         // TODO add a matrix vectory multiply here
-        if( a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
+        if( isConcurrentMult(a.numCols,b.numCols,a.numRows) ) {
+            MatrixMatrixMult_MT_DDRM.multAddTransA(alpha,a,b,c);
+        } else if( a.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ||
                 b.numCols >= EjmlParameters.MULT_COLUMN_SWITCH ) {
             MatrixMatrixMult_DDRM.multAddTransA_reorder(alpha, a, b, c);
         } else {
@@ -431,7 +468,11 @@ public class CommonOps_DDRM {
      */
     public static void multAddTransB(DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
-        MatrixMatrixMult_DDRM.multAddTransB(a,b,c);
+        if( isConcurrentMult(a.numRows,b.numRows,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.multAddTransB(a,b,c);
+        } else {
+            MatrixMatrixMult_DDRM.multAddTransB(a,b,c);
+        }
     }
 
     /**
@@ -450,7 +491,11 @@ public class CommonOps_DDRM {
     public static void multAddTransB(double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c )
     {
         // TODO add a matrix vectory multiply here
-        MatrixMatrixMult_DDRM.multAddTransB(alpha,a,b,c);
+        if( isConcurrentMult(a.numRows,b.numRows,a.numCols) ) {
+            MatrixMatrixMult_MT_DDRM.multAddTransB(alpha,a,b,c);
+        } else {
+            MatrixMatrixMult_DDRM.multAddTransB(alpha,a,b,c);
+        }
     }
 
     /**
@@ -18,12 +18,14 @@
 
 package org.ejml.dense.row.decomposition.chol;
 
+import org.ejml.EjmlConcurrency;
 import org.ejml.EjmlParameters;
 import org.ejml.data.Complex_F64;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.dense.block.MatrixOps_DDRB;
 import org.ejml.dense.block.decomposition.chol.CholeskyOuterForm_DDRB;
+import org.ejml.dense.block.decomposition.chol.CholeskyOuterForm_MT_DDRB;
 import org.ejml.dense.row.decomposition.BaseDecomposition_DDRB_to_DDRM;
 import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
 
@@ -38,7 +40,8 @@ public class CholeskyDecomposition_DDRB_to_DDRM
         extends BaseDecomposition_DDRB_to_DDRM implements CholeskyDecomposition_F64<DMatrixRMaj> {
 
     public CholeskyDecomposition_DDRB_to_DDRM(boolean lower) {
-        super(new CholeskyOuterForm_DDRB(lower), EjmlParameters.BLOCK_WIDTH);
+        super(EjmlConcurrency.isUseConcurrent() ? new CholeskyOuterForm_MT_DDRB(lower) :
+                new CholeskyOuterForm_DDRB(lower), EjmlParameters.BLOCK_WIDTH);
     }
 
     @Override
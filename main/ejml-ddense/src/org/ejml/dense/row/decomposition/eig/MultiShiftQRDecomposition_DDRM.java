@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.multishift.MultiShiftQRSchur_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecompositionBlock_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+
+
+/**
+ * <p>
+ * Finds the eigenvalue decomposition of an arbitrary square matrix using the small-bulge multishift QR algorithm
+ * with aggressive early deflation.  The matrix is first reduced to Hessenberg form with a blocked algorithm
+ * and then to real Schur form, A = Z*T*Z<sup>T</sup>, with {@link MultiShiftQRSchur_DDRM}.  For large matrices this
+ * is much faster than {@link WatchedDoubleStepQRDecomposition_DDRM}, since most of the work is done with
+ * matrix-matrix multiplications and far fewer QR sweeps are needed.
+ * </p>
+ *
+ * <p>
+ * Eigenvectors are only computed for real eigenvalues.  They are found by back substitution on the quasi-triangular
+ * matrix T and then multiplied by Z.  The eigenvectors of complex eigenvalues are null.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MultiShiftQRDecomposition_DDRM
+        implements EigenDecomposition_F64<DMatrixRMaj> {
+
+    HessenbergSimilarDecomposition_DDRM hessenberg;
+    MultiShiftQRSchur_DDRM schur;
+
+    // should it compute eigenvectors or just eigenvalues
+    boolean computeVectors;
+
+    // Hessenberg matrix, which becomes the Schur form
+    DMatrixRMaj T = new DMatrixRMaj(1,1);
+    // Schur vectors
+    DMatrixRMaj Z = new DMatrixRMaj(1,1);
+
+    int N;
+    Complex_F64 values[] = new Complex_F64[0];
+    DMatrixRMaj vectors[] = new DMatrixRMaj[0];
+
+    // work space for back substitution
+    double x[] = new double[0];
+
+    public MultiShiftQRDecomposition_DDRM( boolean computeVectors ) {
+        this.hessenberg = new HessenbergSimilarDecompositionBlock_DDRM();
+        this.schur = new MultiShiftQRSchur_DDRM();
+        this.computeVectors = computeVectors;
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj A ) {
+        if( !hessenberg.decompose(A) )
+            return false;
+
+        N = A.numRows;
+        T.reshape(N,N,false);
+        hessenberg.getH(T);
+        if( computeVectors ) {
+            Z.reshape(N,N,false);
+            hessenberg.getQ(Z);
+        }
+
+        if( !schur.process(T,computeVectors,computeVectors ? Z : null) )
+            return false;
+
+        if( values.length < N ) {
+            values = new Complex_F64[N];
+            vectors = new DMatrixRMaj[N];
+            x = new double[N];
+        }
+
+        double wr[] = schur.getWr();
+        double wi[] = schur.getWi();
+        for( int i = 0; i < N; i++ ) {
+            if( values[i] == null )
+                values[i] = new Complex_F64();
+            values[i].set(wr[i],wi[i]);
+        }
+
+        if( computeVectors ) {
+            for( int i = 0; i < N; i++ ) {
+                vectors[i] = wi[i] == 0 ? computeEigenVector(i) : null;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the eigenvector of the real eigenvalue T(k,k) by solving (T - &lambda;I)*x = 0 with x(k) = 1 and
+     * x(k+1:) = 0, then v = Z*x.  Pivots which are almost zero, due to repeated eigenvalues, are replaced by a small
+     * number.
+     */
+    private DMatrixRMaj computeEigenVector( int k ) {
+        final double t[] = T.data;
+        final double lambda = t[k*N+k];
+        final double smin = Math.max(UtilEjml.EPS*Math.abs(lambda),Double.MIN_NORMAL*(N/UtilEjml.EPS));
+        final double bignum = 1.0/(Double.MIN_NORMAL*(N/UtilEjml.EPS));
+
+        x[k] = 1;
+        for( int i = k-1; i >= 0; i-- ) {
+            if( i > 0 && t[i*N+i-1] != 0 ) {
+                // 2x2 block with complex eigenvalues in rows i-1 and i
+                double rhs0 = 0, rhs1 = 0;
+                for( int j = i+1; j <= k; j++ ) {
+                    rhs0 -= t[(i-1)*N+j]*x[j];
+                    rhs1 -= t[i*N+j]*x[j];
+                }
+                double a = t[(i-1)*N+i-1]-lambda, b = t[(i-1)*N+i];
+                double c = t[i*N+i-1], d = t[i*N+i]-lambda;
+                double scale = Math.max(Math.max(Math.abs(a),Math.abs(b)),Math.max(Math.abs(c),Math.abs(d)));
+                a /= scale; b /= scale; c /= scale; d /= scale;
+                double det = a*d - b*c;
+                if( Math.abs(det) < smin/scale )
+                    det = smin/scale;
+                x[i-1] = (d*rhs0 - b*rhs1)/(det*scale);
+                x[i] = (a*rhs1 - c*rhs0)/(det*scale);
+                i--;
+            } else {
+                double rhs = 0;
+                for( int j = i+1; j <= k; j++ ) {
+                    rhs -= t[i*N+j]*x[j];
+                }
+                double d = t[i*N+i]-lambda;
+                if( Math.abs(d) < smin )
+                    d = smin;
+                x[i] = rhs/d;
+            }
+
+            // rescale to avoid overflow
+            double max = Math.max(Math.abs(x[i]),i+1 <= k ? Math.abs(x[i+1]) : 0);
+            if( max > bignum ) {
+                for( int j = i; j <= k; j++ ) {
+                    x[j] /= max;
+                }
+            }
+        }
+
+        DMatrixRMaj v = new DMatrixRMaj(N,1);
+        final double z[] = Z.data;
+        for( int r = 0; r < N; r++ ) {
+            double sum = 0;
+            int index = r*N;
+            for( int j = 0; j <= k; j++ ) {
+                sum += z[index+j]*x[j];
+            }
+            v.data[r] = sum;
+        }
+        NormOps_DDRM.normalizeF(v);
+
+        return v;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return hessenberg.inputModified();
+    }
+
+    @Override
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    @Override
+    public Complex_F64 getEigenvalue( int index ) {
+        return values[index];
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector( int index ) {
+        return vectors[index];
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricBisectionAlgorithm_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.decomposition.TridiagonalSimilarDecomposition_F64;
+
+
+/**
+ * <p>
+ * Computes a subset of the eigenvalues and eigenvectors of a real symmetric matrix.  The eigenvalues can be selected
+ * by their index, where 0 is the smallest eigenvalue, or by an interval which contains them.  The matrix is first
+ * reduced to a similar tridiagonal matrix, then the selected eigenvalues are found using bisection and their
+ * eigenvectors using inverse iteration, see {@link SymmetricBisectionAlgorithm_DDRM}.  The eigenvalues are returned
+ * in ascending order.
+ * </p>
+ *
+ * <p>
+ * When only a few eigenvectors are needed this is much faster than computing all of them, since the cost of
+ * finding the eigenvectors of the tridiagonal matrix and converting them back into the original basis is
+ * proportional to the number selected.  The reduction to a tridiagonal matrix is still O(N<sup>3</sup>).
+ * If a {@link TridiagonalDecompositionHouseholder_DDRM} is used then the eigenvectors are converted without
+ * computing the orthogonal matrix from the reduction.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricBisectionDecomposition_DDRM
+        implements EigenDecomposition_F64<DMatrixRMaj> {
+
+    // computes a tridiagonal matrix whose eigenvalues are the same as the original
+    // matrix and can be easily computed.
+    private TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp;
+
+    // computes the selected eigenvalues and eigenvectors of the tridiagonal matrix
+    private SymmetricBisectionAlgorithm_DDRM alg = new SymmetricBisectionAlgorithm_DDRM();
+
+    // which eigenvalues are selected
+    private boolean selectIndex = true;
+    private int first = 0, last = Integer.MAX_VALUE;
+    private double lower, upper;
+
+    // number of found eigenvalues and where they are stored
+    private int numFound;
+    private double values[] = new double[0];
+
+    // where the tridiagonal matrix is stored
+    private double diag[];
+    private double off[];
+
+    // each row is an eigenvector
+    private DMatrixRMaj V = new DMatrixRMaj(1,1);
+    // work space used if the householder reflectors can't be applied directly
+    private DMatrixRMaj QT;
+    private DMatrixRMaj tmp = new DMatrixRMaj(1,1);
+    // the extracted eigenvectors
+    private DMatrixRMaj eigenvectors[];
+
+    // should it compute eigenvectors or just eigenvalues
+    private boolean computeVectors;
+
+    public SymmetricBisectionDecomposition_DDRM(TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp,
+                                                boolean computeVectors) {
+        this.decomp = decomp;
+        this.computeVectors = computeVectors;
+    }
+
+    public SymmetricBisectionDecomposition_DDRM(boolean computeVectors) {
+        this(new TridiagonalDecompositionHouseholder_DDRM(),computeVectors);
+    }
+
+    /**
+     * Selects eigenvalues by their index when sorted in ascending order.  If the matrix has fewer eigenvalues
+     * then the range is truncated.  By default all the eigenvalues are selected.
+     *
+     * @param first Index of the first eigenvalue.  Inclusive.
+     * @param last Index of the last eigenvalue.  Inclusive.
+     */
+    public void setIndexRange( int first , int last ) {
+        if( first < 0 || last < first )
+            throw new IllegalArgumentException("Invalid index range");
+        this.selectIndex = true;
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Selects all the eigenvalues inside the interval lower &le; &lambda; &lt; upper.
+     *
+     * @param lower Lower bound.  Inclusive.
+     * @param upper Upper bound.  Exclusive.
+     */
+    public void setInterval( double lower , double upper ) {
+        if( upper < lower )
+            throw new IllegalArgumentException("Upper must be more than or equal to lower");
+        this.selectIndex = false;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    @Override
+    public int getNumberOfEigenvalues() {
+        return numFound;
+    }
+
+    @Override
+    public Complex_F64 getEigenvalue(int index) {
+        return new Complex_F64(values[index],0);
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector(int index) {
+        if( !computeVectors )
+            return null;
+        return eigenvectors[index];
+    }
+
+    /**
+     * Decomposes the symmetric matrix.
+     *
+     * @param orig The matrix which is being decomposed.  Not modified.
+     * @return true if it decomposed the matrix or false if an error was detected.  This will not catch all errors.
+     */
+    @Override
+    public boolean decompose(DMatrixRMaj orig) {
+        if( orig.numCols != orig.numRows )
+            throw new IllegalArgumentException("Matrix must be square.");
+        numFound = 0;
+        if( orig.numCols <= 0 )
+            return false;
+
+        int N = orig.numRows;
+
+        // compute a similar tridiagonal matrix
+        if( !decomp.decompose(orig) )
+            return false;
+
+        if( diag == null || diag.length < N) {
+            diag = new double[N];
+            off = new double[N];
+        }
+        decomp.getDiagonal(diag,off);
+
+        alg.setMatrix(diag,off,N);
+        if( selectIndex ) {
+            if( first < N )
+                alg.findByIndex(first,Math.min(last,N-1));
+            else
+                alg.findByInterval(0,0);
+        } else {
+            alg.findByInterval(lower,upper);
+        }
+
+        numFound = alg.getNumberOfEigenvalues();
+        if( values.length < numFound )
+            values = new double[numFound];
+        for (int i = 0; i < numFound; i++) {
+            values[i] = alg.getEigenvalue(i);
+        }
+
+        if( !computeVectors || numFound == 0 )
+            return true;
+
+        // convert the eigenvectors back into the original basis
+        alg.computeVectors(V);
+        if( decomp instanceof TridiagonalDecompositionHouseholder_DDRM ) {
+            ((TridiagonalDecompositionHouseholder_DDRM)decomp).multTransQ(V);
+        } else {
+            QT = decomp.getQ(QT,true);
+            tmp.reshape(numFound,N);
+            CommonOps_DDRM.mult(V,QT,tmp);
+            V.set(tmp);
+        }
+
+        // the number of eigenvectors can change between calls
+        if( eigenvectors != null && eigenvectors.length != numFound )
+            eigenvectors = null;
+        eigenvectors = CommonOps_DDRM.rowsToVector(V,eigenvectors);
+
+        return true;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return decomp.inputModified();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricDivideConquerAlgorithm_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQREigenHelper_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQrAlgorithm_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.decomposition.TridiagonalSimilarDecomposition_F64;
+
+
+/**
+ * <p>
+ * Computes the eigenvalues and eigenvectors of a real symmetric matrix using divide and conquer.  First the
+ * matrix is reduced to a similar tridiagonal matrix, then the eigen decomposition of the tridiagonal matrix is
+ * found using {@link SymmetricDivideConquerAlgorithm_DDRM}.  Finally the eigenvectors are converted back into
+ * the original basis.
+ * </p>
+ *
+ * <p>
+ * For large matrices this is faster than {@link SymmetricQRAlgorithmDecomposition_DDRM} when eigenvectors are
+ * requested, since the QR algorithm applies one rotation at a time to the eigenvectors.  If only the eigenvalues
+ * are needed then the QR algorithm is used instead.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricDivideConquerDecomposition_DDRM
+        implements EigenDecomposition_F64<DMatrixRMaj> {
+
+    // computes a tridiagonal matrix whose eigenvalues are the same as the original
+    // matrix and can be easily computed.
+    private TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp;
+
+    // computes the eigenvalues and eigenvectors of the tridiagonal matrix
+    private SymmetricDivideConquerAlgorithm_DDRM dcalg = new SymmetricDivideConquerAlgorithm_DDRM();
+    // computes just the eigenvalues
+    private SymmetricQREigenHelper_DDRM helper = new SymmetricQREigenHelper_DDRM();
+    private SymmetricQrAlgorithm_DDRM qralg = new SymmetricQrAlgorithm_DDRM(helper);
+
+    // number of eigenvalues and where they are stored
+    private int N;
+    private double values[];
+
+    // where the tridiagonal matrix is stored
+    private double diag[];
+    private double off[];
+
+    // each row is an eigenvector
+    private DMatrixRMaj V = new DMatrixRMaj(1,1);
+    // work space used if the householder reflectors can't be applied directly
+    private DMatrixRMaj QT;
+    private DMatrixRMaj tmp = new DMatrixRMaj(1,1);
+    // the extracted eigenvectors
+    private DMatrixRMaj eigenvectors[];
+
+    // should it compute eigenvectors or just eigenvalues
+    private boolean computeVectors;
+
+    public SymmetricDivideConquerDecomposition_DDRM(TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp,
+                                                    boolean computeVectors) {
+        this.decomp = decomp;
+        this.computeVectors = computeVectors;
+    }
+
+    public SymmetricDivideConquerDecomposition_DDRM(boolean computeVectors) {
+        this(DecompositionFactory_DDRM.tridiagonal(0),computeVectors);
+    }
+
+    @Override
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    @Override
+    public Complex_F64 getEigenvalue(int index) {
+        return new Complex_F64(values[index],0);
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector(int index) {
+        if( !computeVectors )
+            return null;
+        return eigenvectors[index];
+    }
+
+    /**
+     * Decomposes the symmetric matrix.
+     *
+     * @param orig The matrix which is being decomposed.  Not modified.
+     * @return true if it decomposed the matrix or false if an error was detected.  This will not catch all errors.
+     */
+    @Override
+    public boolean decompose(DMatrixRMaj orig) {
+        if( orig.numCols != orig.numRows )
+            throw new IllegalArgumentException("Matrix must be square.");
+        if( orig.numCols <= 0 )
+            return false;
+
+        N = orig.numRows;
+
+        // compute a similar tridiagonal matrix
+        if( !decomp.decompose(orig) )
+            return false;
+
+        if( diag == null || diag.length < N) {
+            diag = new double[N];
+            off = new double[N];
+            values = new double[N];
+        }
+        decomp.getDiagonal(diag,off);
+
+        if( !computeVectors ) {
+            helper.init(diag,off,N);
+            qralg.setQ(null);
+            qralg.setFastEigenvalues(true);
+            if( !qralg.process(-1,null,null) )
+                return false;
+            System.arraycopy(diag,0,values,0,N);
+            return true;
+        }
+
+        if( !dcalg.process(diag,off,N) )
+            return false;
+        System.arraycopy(dcalg.getEigenvalues(),0,values,0,N);
+
+        // convert the eigenvectors back into the original basis
+        V.reshape(N,N);
+        CommonOps_DDRM.transpose(dcalg.getQ(),V);
+        if( decomp instanceof TridiagonalDecompositionHouseholder_DDRM ) {
+            ((TridiagonalDecompositionHouseholder_DDRM)decomp).multTransQ(V);
+        } else {
+            QT = decomp.getQ(QT,true);
+            tmp.reshape(N,N);
+            CommonOps_DDRM.mult(V,QT,tmp);
+            V.set(tmp);
+        }
+
+        eigenvectors = CommonOps_DDRM.rowsToVector(V,eigenvectors);
+
+        return true;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return decomp.inputModified();
+    }
+}
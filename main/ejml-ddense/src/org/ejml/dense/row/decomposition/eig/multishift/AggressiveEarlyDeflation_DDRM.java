@@ -0,0 +1,608 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.multishift;
+
+import org.ejml.data.DMatrixRMaj;
+
+import static org.ejml.dense.row.decomposition.eig.multishift.BulgeChaseSchur_DDRM.*;
+
+/**
+ * <p>
+ * Aggressive early deflation looks for eigenvalues which have converged in a window at the bottom of the active
+ * block.  The window is reduced to Schur form, T = V<sup>T</sup>*H<sub>w</sub>*V, which turns the single
+ * sub-diagonal element to the left of the window into a spike, s*V(0,:).  If an element at the bottom of the spike
+ * is negligible then the eigenvalue next to it has converged.  Eigenvalues which haven't converged are moved to the
+ * top of the window by swapping diagonal blocks, which lets the test continue further up.  This finds converged
+ * eigenvalues long before the sub-diagonal elements in the Hessenberg matrix become small and is the main reason
+ * the multishift QR algorithm needs far fewer sweeps.
+ * </p>
+ *
+ * <p>
+ * The eigenvalues of the window which didn't converge are good shifts for the next sweep.  When anything was
+ * deflated, the remaining part of the window is returned to Hessenberg form and the transform is applied to the
+ * rest of H and Z with matrix-matrix multiplications.
+ * </p>
+ *
+ * <p>
+ * R. Braman, K. Byers, and R. Mathias, "The Multishift QR Algorithm. Part II: Aggressive Early Deflation,"
+ * SIAM Journal on Matrix Analysis and Applications, 23 (2002)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class AggressiveEarlyDeflation_DDRM {
+
+    // number of eigenvalues which were deflated
+    public int numDeflated;
+    // number of shifts which were found.  They are stored just above the deflated eigenvalues
+    public int numShifts;
+
+    // computes the Schur form of the window
+    private BulgeChaseSchur_DDRM small = new BulgeChaseSchur_DDRM();
+
+    // Schur form of the window and its Schur vectors
+    private DMatrixRMaj T = new DMatrixRMaj(1,1);
+    private DMatrixRMaj V = new DMatrixRMaj(1,1);
+    private int jw;
+
+    // eigenvalues of the window
+    private double wr[] = new double[1];
+    private double wi[] = new double[1];
+
+    // work space
+    private double u[] = new double[1];
+    private double tmp[] = new double[1];
+    private DMatrixRMaj work = new DMatrixRMaj(1,1);
+
+    // used when swapping diagonal blocks
+    private double K[] = new double[16];
+    private double Y[] = new double[4];
+    private int pivotCol[] = new int[4];
+    private double M[] = new double[8];
+    private double Q[] = new double[16];
+    private double D[] = new double[16];
+    private double tauM[] = new double[2];
+
+    /**
+     * Performs aggressive early deflation on the bottom of the active block.
+     *
+     * @param H (Input/Output) Hessenberg matrix.
+     * @param Z (Input/Output) If not null then the orthogonal transform is added to it.
+     * @param wantT If true the full Schur form is being computed.
+     * @param ktop First row in the active block.
+     * @param kbot Last row in the active block.
+     * @param nw Requested size of the deflation window.
+     * @param wr (Output) Real component of deflated eigenvalues and shifts
+     * @param wi (Output) Imaginary component of deflated eigenvalues and shifts
+     */
+    public void process( DMatrixRMaj H , DMatrixRMaj Z , boolean wantT , int ktop , int kbot , int nw ,
+                         double wr[] , double wi[] ) {
+        final int N = H.numRows;
+        final double h[] = H.data;
+        final double smlnum = SAFE_MIN*(N/ULP);
+
+        jw = Math.min(nw,kbot-ktop+1);
+        final int kwtop = kbot-jw+1;
+        double s = kwtop == ktop ? 0 : h[kwtop*N+kwtop-1];
+
+        if( jw == 1 ) {
+            wr[kwtop] = h[kwtop*N+kwtop];
+            wi[kwtop] = 0;
+            numShifts = 1;
+            numDeflated = 0;
+            if( Math.abs(s) <= Math.max(smlnum,ULP*Math.abs(h[kwtop*N+kwtop])) ) {
+                numShifts = 0;
+                numDeflated = 1;
+                if( kwtop > ktop )
+                    h[kwtop*N+kwtop-1] = 0;
+            }
+            return;
+        }
+
+        declareWorkSpace();
+
+        // copy the window and compute its Schur form
+        final double t[] = T.data;
+        for( int i = 0; i < jw; i++ ) {
+            for( int j = 0; j < jw; j++ ) {
+                t[i*jw+j] = j >= i-1 ? h[(kwtop+i)*N+kwtop+j] : 0;
+            }
+        }
+        V.zero();
+        for( int i = 0; i < jw; i++ ) {
+            V.data[i*jw+i] = 1;
+        }
+
+        if( !small.process(T,0,jw-1,true,V,this.wr,this.wi) ) {
+            // the rest of the QR algorithm will find shifts another way
+            numShifts = 0;
+            numDeflated = 0;
+            return;
+        }
+
+        // block swapping needs a clean margin near the diagonal
+        for( int j = 0; j < jw-3; j++ ) {
+            t[(j+2)*jw+j] = 0;
+            t[(j+3)*jw+j] = 0;
+        }
+        if( jw > 2 )
+            t[(jw-1)*jw+jw-3] = 0;
+
+        // deflation check, starting at the bottom of the spike
+        final double v[] = V.data;
+        int ns = jw;
+        int ilst = 0;
+        while( ilst < ns ) {
+            boolean bulge = ns > 1 && t[(ns-1)*jw+ns-2] != 0;
+
+            if( !bulge ) {
+                double foo = Math.abs(t[(ns-1)*jw+ns-1]);
+                if( foo == 0 )
+                    foo = Math.abs(s);
+                if( Math.abs(s*v[ns-1]) <= Math.max(smlnum,ULP*foo) ) {
+                    ns -= 1;
+                } else {
+                    // not converged.  move it out of the way
+                    if( !moveBlock(ns-1,ilst,1) )
+                        break;
+                    ilst += 1;
+                }
+            } else {
+                double foo = Math.abs(t[(ns-1)*jw+ns-1]) +
+                        Math.sqrt(Math.abs(t[(ns-1)*jw+ns-2]))*Math.sqrt(Math.abs(t[(ns-2)*jw+ns-1]));
+                if( foo == 0 )
+                    foo = Math.abs(s);
+                if( Math.max(Math.abs(s*v[ns-1]),Math.abs(s*v[ns-2])) <= Math.max(smlnum,ULP*foo) ) {
+                    ns -= 2;
+                } else {
+                    if( !moveBlock(ns-2,ilst,2) )
+                        break;
+                    ilst += 2;
+                }
+            }
+        }
+
+        if( ns == 0 )
+            s = 0;
+
+        // eigenvalues of the window, which are in a different order now
+        for( int i = jw-1; i >= 0; ) {
+            if( i == 0 || t[i*jw+i-1] == 0 ) {
+                wr[kwtop+i] = t[i*jw+i];
+                wi[kwtop+i] = 0;
+                i -= 1;
+            } else {
+                small.standardize(t[(i-1)*jw+i-1],t[(i-1)*jw+i],t[i*jw+i-1],t[i*jw+i]);
+                wr[kwtop+i-1] = small.rt1r; wi[kwtop+i-1] = small.rt1i;
+                wr[kwtop+i] = small.rt2r;   wi[kwtop+i] = small.rt2i;
+                i -= 2;
+            }
+        }
+
+        if( ns < jw || s == 0 ) {
+            if( ns > 1 && s != 0 ) {
+                // reflect the spike back into the lower triangle
+                System.arraycopy(v,0,u,0,ns);
+                double tau = householder(u,0,ns);
+                u[0] = 1;
+                for( int i = 2; i < jw; i++ ) {
+                    for( int j = 0; j < i-1; j++ ) {
+                        t[i*jw+j] = 0;
+                    }
+                }
+                reflectRows(T,u,tau,0,ns,0,jw-1);
+                reflectColumns(T,u,tau,0,ns,0,ns-1);
+                reflectColumns(V,u,tau,0,ns,0,jw-1);
+
+                reduceToHessenberg(ns);
+            }
+
+            // copy the reduced window back into H
+            if( kwtop > 0 )
+                h[kwtop*N+kwtop-1] = s*v[0];
+            for( int i = 0; i < jw; i++ ) {
+                for( int j = Math.max(0,i-1); j < jw; j++ ) {
+                    h[(kwtop+i)*N+kwtop+j] = t[i*jw+j];
+                }
+            }
+
+            // update the rest of H and Z
+            int ltop = wantT ? 0 : ktop;
+            MultiShiftQRSchur_DDRM.multRight(H,ltop,kwtop-1,kwtop,V,0,jw,tmp);
+            if( wantT )
+                MultiShiftQRSchur_DDRM.multTransLeft(V,0,jw,H,kwtop,kbot+1,N-1,work);
+            if( Z != null )
+                MultiShiftQRSchur_DDRM.multRight(Z,0,Z.numRows-1,kwtop,V,0,jw,tmp);
+        }
+
+        numDeflated = jw - ns;
+        numShifts = ns;
+    }
+
+    private void declareWorkSpace() {
+        T.reshape(jw,jw,false);
+        V.reshape(jw,jw,false);
+        if( wr.length < jw ) {
+            wr = new double[jw];
+            wi = new double[jw];
+            u = new double[jw];
+            tmp = new double[jw];
+        }
+    }
+
+    /**
+     * Reduces the leading ns by ns sub-matrix of T to Hessenberg form and adds the transform to V
+     */
+    private void reduceToHessenberg( int ns ) {
+        final double t[] = T.data;
+
+        for( int k = 0; k < ns-2; k++ ) {
+            int length = ns-k-1;
+            for( int i = 0; i < length; i++ ) {
+                u[i] = t[(k+1+i)*jw+k];
+            }
+            double tau = householder(u,0,length);
+            t[(k+1)*jw+k] = u[0];
+            for( int i = 1; i < length; i++ ) {
+                t[(k+1+i)*jw+k] = 0;
+            }
+            if( tau == 0 )
+                continue;
+            u[0] = 1;
+
+            reflectRows(T,u,tau,k+1,length,k+1,jw-1);
+            reflectColumns(T,u,tau,k+1,length,0,ns-1);
+            reflectColumns(V,u,tau,k+1,length,0,jw-1);
+        }
+    }
+
+    /**
+     * A(row0:row0+length-1,col0:col1) = (I - &tau;*u*u<sup>T</sup>)*A(row0:row0+length-1,col0:col1)
+     */
+    private void reflectRows( DMatrixRMaj A , double u[] , double tau , int row0 , int length , int col0 , int col1 ) {
+        final double a[] = A.data;
+        final int n = A.numCols;
+        for( int j = col0; j <= col1; j++ ) {
+            tmp[j-col0] = 0;
+        }
+        for( int i = 0; i < length; i++ ) {
+            double val = u[i];
+            int index = (row0+i)*n;
+            for( int j = col0; j <= col1; j++ ) {
+                tmp[j-col0] += val*a[index+j];
+            }
+        }
+        for( int i = 0; i < length; i++ ) {
+            double val = tau*u[i];
+            int index = (row0+i)*n;
+            for( int j = col0; j <= col1; j++ ) {
+                a[index+j] -= val*tmp[j-col0];
+            }
+        }
+    }
+
+    /**
+     * A(row0:row1,col0:col0+length-1) = A(row0:row1,col0:col0+length-1)*(I - &tau;*u*u<sup>T</sup>)
+     */
+    private void reflectColumns( DMatrixRMaj A , double u[] , double tau , int col0 , int length , int row0 , int row1 ) {
+        final double a[] = A.data;
+        final int n = A.numCols;
+        for( int r = row0; r <= row1; r++ ) {
+            int index = r*n+col0;
+            double sum = 0;
+            for( int i = 0; i < length; i++ ) {
+                sum += a[index+i]*u[i];
+            }
+            sum *= tau;
+            for( int i = 0; i < length; i++ ) {
+                a[index+i] -= sum*u[i];
+            }
+        }
+    }
+
+    /**
+     * Moves the diagonal block at 'ifst' up to 'ilst' by swapping it with the blocks above it.
+     *
+     * @return true if successful or false if a swap was rejected or the block changed size
+     */
+    private boolean moveBlock( int ifst , int ilst , int size ) {
+        final double t[] = T.data;
+
+        int here = ifst;
+        while( here > ilst ) {
+            int sizeAbove = here >= 2 && t[(here-1)*jw+here-2] != 0 ? 2 : 1;
+
+            if( !swap(here-sizeAbove,sizeAbove,size) )
+                return false;
+            here -= sizeAbove;
+
+            // the block being moved turned out to have real eigenvalues
+            if( size == 2 && t[(here+1)*jw+here] == 0 )
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * <p>
+     * Swaps adjacent diagonal blocks A<sub>11</sub> and A<sub>22</sub> in T, starting at row j1, and adds the
+     * transform to V.  A pair of 1x1 blocks is swapped with a single rotation.  Otherwise the Sylvester equation,
+     * A<sub>11</sub>*X - X*A<sub>22</sub> = -A<sub>12</sub>, is solved and Q from the QR decomposition of [X;I]
+     * is used to swap the blocks.  The swap is rejected if it would change T by too much.
+     * </p>
+     *
+     * <p>
+     * Z. Bai and J. W. Demmel, "On swapping diagonal blocks in real Schur form," Linear Algebra and its
+     * Applications, 186 (1993)
+     * </p>
+     *
+     * @param j1 First row in A<sub>11</sub>
+     * @param n1 Size of A<sub>11</sub>
+     * @param n2 Size of A<sub>22</sub>
+     * @return true if the blocks were swapped
+     */
+    private boolean swap( int j1 , int n1 , int n2 ) {
+        final double t[] = T.data;
+        final int n = jw;
+
+        if( n1 == 1 && n2 == 1 ) {
+            int j2 = j1+1;
+            double t11 = t[j1*n+j1];
+            double t22 = t[j2*n+j2];
+
+            double f = t[j1*n+j2];
+            double g = t22-t11;
+            double r = pythag(f,g);
+            double cs = 1, sn = 0;
+            if( r != 0 ) {
+                cs = f/r;
+                sn = g/r;
+            }
+            rotateRows(T,j1,j2,j2+1,n-1,cs,sn);
+            rotateColumns(T,j1,j2,0,j1-1,cs,sn);
+            t[j1*n+j1] = t22;
+            t[j2*n+j2] = t11;
+            rotateColumns(V,j1,j2,0,n-1,cs,sn);
+            return true;
+        }
+
+        final int m = n1+n2;
+
+        // copy the blocks being swapped
+        double dnorm = 0;
+        for( int i = 0; i < m; i++ ) {
+            for( int j = 0; j < m; j++ ) {
+                D[i*m+j] = t[(j1+i)*n+j1+j];
+                dnorm = Math.max(dnorm,Math.abs(D[i*m+j]));
+            }
+        }
+        double thresh = Math.max(10.0*ULP*dnorm,SAFE_MIN/ULP);
+
+        // Kronecker form of the Sylvester equation. unknowns are Y(i,j) with index i*n2+j
+        final int nk = n1*n2;
+        double kmax = 0;
+        for( int i = 0; i < nk*nk; i++ )
+            K[i] = 0;
+        for( int i = 0; i < n1; i++ ) {
+            for( int j = 0; j < n2; j++ ) {
+                int row = i*n2+j;
+                for( int k = 0; k < n1; k++ ) {
+                    K[row*nk+k*n2+j] += D[i*m+k];
+                }
+                for( int k = 0; k < n2; k++ ) {
+                    K[row*nk+i*n2+k] -= D[(n1+k)*m+n1+j];
+                }
+                Y[row] = -D[i*m+n1+j];
+            }
+        }
+        for( int i = 0; i < nk*nk; i++ )
+            kmax = Math.max(kmax,Math.abs(K[i]));
+        solveSmall(nk,Math.max(ULP*kmax,SAFE_MIN));
+
+        // QR decomposition of [Y;I] with Householder reflectors
+        for( int i = 0; i < m; i++ ) {
+            for( int j = 0; j < n2; j++ ) {
+                M[i*n2+j] = i < n1 ? Y[i*n2+j] : (i-n1 == j ? 1 : 0);
+            }
+        }
+        for( int c = 0; c < n2; c++ ) {
+            int length = m-c;
+            for( int i = 0; i < length; i++ ) {
+                u[i] = M[(c+i)*n2+c];
+            }
+            double tau = householder(u,0,length);
+            tauM[c] = tau;
+            M[c*n2+c] = u[0];
+            for( int i = 1; i < length; i++ ) {
+                M[(c+i)*n2+c] = u[i];
+            }
+            // apply to the remaining columns
+            for( int j = c+1; j < n2; j++ ) {
+                double sum = M[c*n2+j];
+                for( int i = 1; i < length; i++ )
+                    sum += M[(c+i)*n2+c]*M[(c+i)*n2+j];
+                sum *= tau;
+                M[c*n2+j] -= sum;
+                for( int i = 1; i < length; i++ )
+                    M[(c+i)*n2+j] -= sum*M[(c+i)*n2+c];
+            }
+        }
+        // Q = H_0*H_1
+        for( int i = 0; i < m; i++ ) {
+            for( int j = 0; j < m; j++ ) {
+                Q[i*m+j] = i == j ? 1 : 0;
+            }
+        }
+        for( int c = n2-1; c >= 0; c-- ) {
+            double tau = tauM[c];
+            for( int j = 0; j < m; j++ ) {
+                double sum = Q[c*m+j];
+                for( int i = c+1; i < m; i++ )
+                    sum += M[i*n2+c]*Q[i*m+j];
+                sum *= tau;
+                Q[c*m+j] -= sum;
+                for( int i = c+1; i < m; i++ )
+                    Q[i*m+j] -= sum*M[i*n2+c];
+            }
+        }
+
+        // see if the swapped blocks are accurate enough.  D = Q'*D*Q
+        for( int i = 0; i < m; i++ ) {
+            for( int j = 0; j < m; j++ ) {
+                double sum = 0;
+                for( int k = 0; k < m; k++ )
+                    sum += D[i*m+k]*Q[k*m+j];
+                K[i*m+j] = sum;
+            }
+        }
+        for( int i = n2; i < m; i++ ) {
+            for( int j = 0; j < n2; j++ ) {
+                double sum = 0;
+                for( int k = 0; k < m; k++ )
+                    sum += Q[k*m+i]*K[k*m+j];
+                if( Math.abs(sum) > thresh )
+                    return false;
+            }
+        }
+
+        // apply the transform to T and V
+        for( int j = j1; j < n; j++ ) {
+            for( int i = 0; i < m; i++ ) {
+                double sum = 0;
+                for( int k = 0; k < m; k++ )
+                    sum += Q[k*m+i]*t[(j1+k)*n+j];
+                tmp[i] = sum;
+            }
+            for( int i = 0; i < m; i++ )
+                t[(j1+i)*n+j] = tmp[i];
+        }
+        applyRight(T,j1,m,j1+m-1);
+        applyRight(V,j1,m,n-1);
+        for( int i = n2; i < m; i++ ) {
+            for( int j = 0; j < n2; j++ ) {
+                t[(j1+i)*n+j1+j] = 0;
+            }
+        }
+
+        // put the 2x2 blocks back into standard form
+        if( n2 == 2 )
+            standardizeBlock(j1);
+        if( n1 == 2 )
+            standardizeBlock(j1+n2);
+
+        return true;
+    }
+
+    /**
+     * A(0:row1,j1:j1+m-1) = A(0:row1,j1:j1+m-1)*Q
+     */
+    private void applyRight( DMatrixRMaj A , int j1 , int m , int row1 ) {
+        final double a[] = A.data;
+        final int n = A.numCols;
+        for( int r = 0; r <= row1; r++ ) {
+            for( int j = 0; j < m; j++ ) {
+                double sum = 0;
+                for( int k = 0; k < m; k++ )
+                    sum += a[r*n+j1+k]*Q[k*m+j];
+                tmp[j] = sum;
+            }
+            for( int j = 0; j < m; j++ )
+                a[r*n+j1+j] = tmp[j];
+        }
+    }
+
+    private void standardizeBlock( int k ) {
+        final double t[] = T.data;
+        final int n = jw;
+        small.standardize(t[k*n+k],t[k*n+k+1],t[(k+1)*n+k],t[(k+1)*n+k+1]);
+        t[k*n+k] = small.a;     t[k*n+k+1] = small.b;
+        t[(k+1)*n+k] = small.c; t[(k+1)*n+k+1] = small.d;
+        rotateRows(T,k,k+1,k+2,n-1,small.cs,small.sn);
+        rotateColumns(T,k,k+1,0,k-1,small.cs,small.sn);
+        rotateColumns(V,k,k+1,0,n-1,small.cs,small.sn);
+    }
+
+    /**
+     * Solves K*x = Y for up to 4 unknowns using Gaussian elimination with complete pivoting.  Pivots smaller than
+     * 'smin' are replaced, so the solution is always finite.  The solution is written to Y.
+     */
+    private void solveSmall( int n , double smin ) {
+        for( int i = 0; i < n; i++ ) {
+            pivotCol[i] = i;
+        }
+
+        for( int k = 0; k < n; k++ ) {
+            // find the largest element
+            double max = -1;
+            int ip = k, jp = k;
+            for( int i = k; i < n; i++ ) {
+                for( int j = k; j < n; j++ ) {
+                    double val = Math.abs(K[i*n+j]);
+                    if( val > max ) {
+                        max = val;
+                        ip = i;
+                        jp = j;
+                    }
+                }
+            }
+            // swap rows
+            if( ip != k ) {
+                for( int j = 0; j < n; j++ ) {
+                    double swp = K[k*n+j]; K[k*n+j] = K[ip*n+j]; K[ip*n+j] = swp;
+                }
+                double swp = Y[k]; Y[k] = Y[ip]; Y[ip] = swp;
+            }
+            // swap columns
+            if( jp != k ) {
+                for( int i = 0; i < n; i++ ) {
+                    double swp = K[i*n+k]; K[i*n+k] = K[i*n+jp]; K[i*n+jp] = swp;
+                }
+                int swp = pivotCol[k]; pivotCol[k] = pivotCol[jp]; pivotCol[jp] = swp;
+            }
+            if( Math.abs(K[k*n+k]) < smin )
+                K[k*n+k] = smin;
+
+            double pivot = K[k*n+k];
+            for( int i = k+1; i < n; i++ ) {
+                double f = K[i*n+k]/pivot;
+                if( f == 0 )
+                    continue;
+                for( int j = k+1; j < n; j++ ) {
+                    K[i*n+j] -= f*K[k*n+j];
+                }
+                Y[i] -= f*Y[k];
+            }
+        }
+
+        // back substitution
+        for( int i = n-1; i >= 0; i-- ) {
+            double sum = Y[i];
+            for( int j = i+1; j < n; j++ ) {
+                sum -= K[i*n+j]*Y[j];
+            }
+            Y[i] = sum/K[i*n+i];
+        }
+
+        // undo the column pivots
+        for( int i = 0; i < n; i++ ) {
+            tmp[pivotCol[i]] = Y[i];
+        }
+        System.arraycopy(tmp,0,Y,0,n);
+    }
+}
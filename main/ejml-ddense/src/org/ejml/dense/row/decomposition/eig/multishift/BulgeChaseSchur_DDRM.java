@@ -0,0 +1,520 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.multishift;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Computes the real Schur form of an upper Hessenberg matrix, H = Z*T*Z<sup>T</sup>, using the Francis double shift
+ * QR algorithm.  One bulge is chased at a time, so this is only efficient for small matrices.  It is used by
+ * {@link MultiShiftQRSchur_DDRM} for small problems, the deflation window, and to compute shifts.  Each 2x2 block in
+ * T has complex conjugate eigenvalues and is in the standard form returned by {@link #standardize}.
+ * </p>
+ *
+ * <p>
+ * Deflation uses the conservative criteria from Ahues and Kressner, which is more accurate than only comparing the
+ * sub-diagonal element against its neighbors on the diagonal.  The algorithm follows LAPACK's DLAHQR.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BulgeChaseSchur_DDRM {
+
+    // exceptional shifts are used after this many iterations without a deflation
+    public static final int EXCEPTIONAL = 10;
+
+    public static final double ULP = UtilEjml.EPS;
+    public static final double SAFE_MIN = Double.MIN_NORMAL;
+
+    // results of standardize()
+    public double a,b,c,d;
+    public double cs,sn;
+    public double rt1r,rt1i,rt2r,rt2i;
+
+    // storage for a Householder reflector
+    private double v[] = new double[3];
+
+    /**
+     * Computes the Schur form of rows and columns 'ilo' to 'ihi', inclusive, of H.  That sub-matrix must be upper
+     * Hessenberg and isolated from the rest of H, i.e. ilo is 0 or H(ilo,ilo-1) is zero, and the same below ihi.
+     *
+     * @param H (Input/Output) Hessenberg matrix.  Modified.
+     * @param ilo First row in the active sub-matrix.
+     * @param ihi Last row in the active sub-matrix.
+     * @param wantT If true the full Schur form is computed.  Otherwise only the active sub-matrix is updated, which
+     *              is enough to find the eigenvalues.
+     * @param Z (Input/Output) If not null then Z = Z*U, where U is the orthogonal transform.  All rows are updated.
+     * @param wr (Output) Real component of the eigenvalues, at the same index as their diagonal element.
+     * @param wi (Output) Imaginary component of the eigenvalues.
+     * @return true if it converged or false if it failed
+     */
+    public boolean process( DMatrixRMaj H , int ilo , int ihi , boolean wantT , DMatrixRMaj Z ,
+                            double wr[] , double wi[] ) {
+        final double h[] = H.data;
+        final int n = H.numCols;
+
+        if( ilo > ihi )
+            return true;
+        if( ilo == ihi ) {
+            wr[ilo] = h[ilo*n+ilo];
+            wi[ilo] = 0;
+            return true;
+        }
+
+        // clear out the trash
+        for( int j = ilo; j <= ihi-3; j++ ) {
+            h[(j+2)*n+j] = 0;
+            h[(j+3)*n+j] = 0;
+        }
+        if( ilo <= ihi-2 )
+            h[ihi*n+ihi-2] = 0;
+
+        final int nh = ihi-ilo+1;
+        final double smlnum = SAFE_MIN*(nh/ULP);
+        final int itmax = 30*Math.max(10,nh);
+
+        int i1 = 0, i2 = n-1;
+        int kdefl = 0;
+
+        int i = ihi;
+        while( i >= ilo ) {
+            int l = ilo;
+            boolean converged = false;
+
+            for( int its = 0; its <= itmax; its++ ) {
+                // look for a single small sub-diagonal element
+                int k;
+                for( k = i; k > l; k-- ) {
+                    double hkk1 = Math.abs(h[k*n+k-1]);
+                    if( hkk1 <= smlnum )
+                        break;
+                    double tst = Math.abs(h[(k-1)*n+k-1]) + Math.abs(h[k*n+k]);
+                    if( tst == 0 ) {
+                        if( k-2 >= ilo )
+                            tst += Math.abs(h[(k-1)*n+k-2]);
+                        if( k+1 <= ihi )
+                            tst += Math.abs(h[(k+1)*n+k]);
+                    }
+                    if( hkk1 <= ULP*tst && isNegligible(h,n,k,smlnum) )
+                        break;
+                }
+                l = k;
+                if( l > ilo )
+                    h[l*n+l-1] = 0;
+
+                // a block of size 1 or 2 has split off
+                if( l >= i-1 ) {
+                    converged = true;
+                    break;
+                }
+                kdefl++;
+
+                // if only the eigenvalues are needed then only the active block needs to be transformed
+                if( !wantT ) {
+                    i1 = l;
+                    i2 = i;
+                }
+
+                double h11,h12,h21,h22;
+                if( kdefl % (2*EXCEPTIONAL) == 0 ) {
+                    double s = Math.abs(h[i*n+i-1]) + Math.abs(h[(i-1)*n+i-2]);
+                    h11 = 0.75*s + h[i*n+i];
+                    h12 = -0.4375*s;
+                    h21 = s;
+                    h22 = h11;
+                } else if( kdefl % EXCEPTIONAL == 0 ) {
+                    double s = Math.abs(h[(l+1)*n+l]) + Math.abs(h[(l+2)*n+l+1]);
+                    h11 = 0.75*s + h[l*n+l];
+                    h12 = -0.4375*s;
+                    h21 = s;
+                    h22 = h11;
+                } else {
+                    // Francis double shift, the eigenvalues of the trailing 2x2 block
+                    h11 = h[(i-1)*n+i-1];
+                    h21 = h[i*n+i-1];
+                    h12 = h[(i-1)*n+i];
+                    h22 = h[i*n+i];
+                }
+                computeShifts(h11,h12,h21,h22);
+
+                // look for two consecutive small sub-diagonal elements
+                int m;
+                for( m = i-2; ; m-- ) {
+                    double hmm = h[m*n+m];
+                    double s = Math.abs(hmm-rt2r) + Math.abs(rt2i) + Math.abs(h[(m+1)*n+m]);
+                    double h21s = h[(m+1)*n+m]/s;
+                    v[0] = h21s*h[m*n+m+1] + (hmm-rt1r)*((hmm-rt2r)/s) - rt1i*(rt2i/s);
+                    v[1] = h21s*(hmm+h[(m+1)*n+m+1]-rt1r-rt2r);
+                    v[2] = h21s*h[(m+2)*n+m+1];
+                    s = Math.abs(v[0]) + Math.abs(v[1]) + Math.abs(v[2]);
+                    v[0] /= s;
+                    v[1] /= s;
+                    v[2] /= s;
+                    if( m == l )
+                        break;
+                    double h00 = Math.abs(h[m*n+m-1])*(Math.abs(v[1])+Math.abs(v[2]));
+                    double h01 = Math.abs(v[0])*(Math.abs(h[(m-1)*n+m-1])+Math.abs(hmm)+Math.abs(h[(m+1)*n+m+1]));
+                    if( h00 <= ULP*h01 )
+                        break;
+                }
+
+                // double shift QR step
+                for( k = m; k <= i-1; k++ ) {
+                    int nr = Math.min(3,i-k+1);
+                    if( k > m ) {
+                        v[0] = h[k*n+k-1];
+                        v[1] = h[(k+1)*n+k-1];
+                        if( nr == 3 )
+                            v[2] = h[(k+2)*n+k-1];
+                    }
+                    double t1 = householder(v,0,nr);
+                    if( k > m ) {
+                        h[k*n+k-1] = v[0];
+                        h[(k+1)*n+k-1] = 0;
+                        if( k < i-1 )
+                            h[(k+2)*n+k-1] = 0;
+                    } else if( m > l ) {
+                        h[k*n+k-1] *= 1.0-t1;
+                    }
+                    double v2 = v[1];
+                    double t2 = t1*v2;
+
+                    if( nr == 3 ) {
+                        double v3 = v[2];
+                        double t3 = t1*v3;
+
+                        for( int j = k; j <= i2; j++ ) {
+                            double sum = h[k*n+j] + v2*h[(k+1)*n+j] + v3*h[(k+2)*n+j];
+                            h[k*n+j] -= sum*t1;
+                            h[(k+1)*n+j] -= sum*t2;
+                            h[(k+2)*n+j] -= sum*t3;
+                        }
+                        int end = Math.min(k+3,i);
+                        for( int j = i1; j <= end; j++ ) {
+                            int index = j*n+k;
+                            double sum = h[index] + v2*h[index+1] + v3*h[index+2];
+                            h[index] -= sum*t1;
+                            h[index+1] -= sum*t2;
+                            h[index+2] -= sum*t3;
+                        }
+                        if( Z != null ) {
+                            final double z[] = Z.data;
+                            final int nz = Z.numCols;
+                            for( int j = 0; j < Z.numRows; j++ ) {
+                                int index = j*nz+k;
+                                double sum = z[index] + v2*z[index+1] + v3*z[index+2];
+                                z[index] -= sum*t1;
+                                z[index+1] -= sum*t2;
+                                z[index+2] -= sum*t3;
+                            }
+                        }
+                    } else {
+                        for( int j = k; j <= i2; j++ ) {
+                            double sum = h[k*n+j] + v2*h[(k+1)*n+j];
+                            h[k*n+j] -= sum*t1;
+                            h[(k+1)*n+j] -= sum*t2;
+                        }
+                        for( int j = i1; j <= i; j++ ) {
+                            int index = j*n+k;
+                            double sum = h[index] + v2*h[index+1];
+                            h[index] -= sum*t1;
+                            h[index+1] -= sum*t2;
+                        }
+                        if( Z != null ) {
+                            final double z[] = Z.data;
+                            final int nz = Z.numCols;
+                            for( int j = 0; j < Z.numRows; j++ ) {
+                                int index = j*nz+k;
+                                double sum = z[index] + v2*z[index+1];
+                                z[index] -= sum*t1;
+                                z[index+1] -= sum*t2;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if( !converged )
+                return false;
+
+            if( l == i ) {
+                wr[i] = h[i*n+i];
+                wi[i] = 0;
+            } else {
+                // a 2x2 block has split off.  Put it into standard form
+                standardize(h[(i-1)*n+i-1],h[(i-1)*n+i],h[i*n+i-1],h[i*n+i]);
+                h[(i-1)*n+i-1] = a; h[(i-1)*n+i] = b;
+                h[i*n+i-1] = c;     h[i*n+i] = d;
+                wr[i-1] = rt1r; wi[i-1] = rt1i;
+                wr[i] = rt2r;   wi[i] = rt2i;
+
+                if( wantT ) {
+                    rotateRows(H,i-1,i,i+1,i2,cs,sn);
+                    rotateColumns(H,i-1,i,i1,i-2,cs,sn);
+                }
+                if( Z != null )
+                    rotateColumns(Z,i-1,i,0,Z.numRows-1,cs,sn);
+            }
+
+            kdefl = 0;
+            i = l-1;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks to see if H(k,k-1) is negligible using the criteria of Ahues and Kressner.  It's assumed that H(k,k-1)
+     * has already been found to be small relative to its neighbors on the diagonal.
+     */
+    public static boolean isNegligible( double h[] , int n , int k , double smlnum ) {
+        double hkk1 = Math.abs(h[k*n+k-1]);
+        double hk1k = Math.abs(h[(k-1)*n+k]);
+        double hkk = h[k*n+k];
+        double diff = Math.abs(h[(k-1)*n+k-1]-hkk);
+
+        double ab = Math.max(hkk1,hk1k);
+        double ba = Math.min(hkk1,hk1k);
+        double aa = Math.max(Math.abs(hkk),diff);
+        double bb = Math.min(Math.abs(hkk),diff);
+        double s = aa + ab;
+        return ba*(ab/s) <= Math.max(smlnum,ULP*(bb*(aa/s)));
+    }
+
+    /**
+     * Computes a pair of shifts from the eigenvalues of a 2x2 matrix.  If they are real then the one closest
+     * to h22 is used twice.  Results are stored in rt1r, rt1i, rt2r, and rt2i.
+     */
+    private void computeShifts( double h11 , double h12 , double h21 , double h22 ) {
+        double s = Math.abs(h11) + Math.abs(h12) + Math.abs(h21) + Math.abs(h22);
+        if( s == 0 ) {
+            rt1r = rt1i = rt2r = rt2i = 0;
+            return;
+        }
+        h11 /= s; h21 /= s; h12 /= s; h22 /= s;
+        double tr = (h11+h22)/2.0;
+        double det = (h11-tr)*(h22-tr) - h12*h21;
+        double rtdisc = Math.sqrt(Math.abs(det));
+        if( det >= 0 ) {
+            rt1r = tr*s;
+            rt2r = rt1r;
+            rt1i = rtdisc*s;
+            rt2i = -rt1i;
+        } else {
+            rt1r = tr + rtdisc;
+            rt2r = tr - rtdisc;
+            if( Math.abs(rt1r-h22) <= Math.abs(rt2r-h22) ) {
+                rt1r *= s;
+                rt2r = rt1r;
+            } else {
+                rt2r *= s;
+                rt1r = rt2r;
+            }
+            rt1i = rt2i = 0;
+        }
+    }
+
+    /**
+     * <p>
+     * Computes the Schur factorization of a 2x2 matrix in standard form:
+     * </p>
+     * <pre>
+     * [ a b ] = [ cs -sn ] [ aa bb ] [ cs sn ]
+     * [ c d ]   [ sn  cs ] [ cc dd ] [-sn cs ]
+     * </pre>
+     * <p>
+     * If the eigenvalues are real then cc = 0, otherwise aa = dd and bb*cc &lt; 0.  The results are stored in a,
+     * b, c, d, cs, sn, and the eigenvalues in rt1r, rt1i, rt2r, rt2i.  Based on LAPACK's DLANV2.
+     * </p>
+     */
+    public void standardize( double a , double b , double c , double d ) {
+        if( c == 0 ) {
+            cs = 1; sn = 0;
+        } else if( b == 0 ) {
+            // swap rows and columns
+            cs = 0; sn = 1;
+            double temp = d;
+            d = a;
+            a = temp;
+            b = -c;
+            c = 0;
+        } else if( a-d == 0 && Math.signum(b) != Math.signum(c) ) {
+            cs = 1; sn = 0;
+        } else {
+            double temp = a - d;
+            double p = 0.5*temp;
+            double bcmax = Math.max(Math.abs(b),Math.abs(c));
+            double bcmis = Math.min(Math.abs(b),Math.abs(c))*Math.signum(b)*Math.signum(c);
+            double scale = Math.max(Math.abs(p),bcmax);
+            double z = (p/scale)*p + (bcmax/scale)*bcmis;
+
+            if( z >= 4.0*ULP ) {
+                // real eigenvalues
+                z = p + Math.copySign(Math.sqrt(scale)*Math.sqrt(z),p);
+                a = d + z;
+                d = d - (bcmax/z)*bcmis;
+                double tau = pythag(c,z);
+                cs = z/tau;
+                sn = c/tau;
+                b = b - c;
+                c = 0;
+            } else {
+                // complex or nearly equal real eigenvalues. make the diagonal elements equal
+                double sigma = b + c;
+                double tau = pythag(sigma,temp);
+                cs = Math.sqrt(0.5*(1.0+Math.abs(sigma)/tau));
+                sn = -(p/(tau*cs))*(sigma >= 0 ? 1 : -1);
+
+                double aa = a*cs + b*sn;
+                double bb = -a*sn + b*cs;
+                double cc = c*cs + d*sn;
+                double dd = -c*sn + d*cs;
+
+                a = aa*cs + cc*sn;
+                b = bb*cs + dd*sn;
+                c = -aa*sn + cc*cs;
+                d = -bb*sn + dd*cs;
+
+                temp = 0.5*(a+d);
+                a = temp;
+                d = temp;
+
+                if( c != 0 ) {
+                    if( b != 0 ) {
+                        if( Math.signum(b) == Math.signum(c) ) {
+                            // real eigenvalues, reduce to upper triangular
+                            double sab = Math.sqrt(Math.abs(b));
+                            double sac = Math.sqrt(Math.abs(c));
+                            p = Math.copySign(sab*sac,c);
+                            tau = 1.0/Math.sqrt(Math.abs(b+c));
+                            a = temp + p;
+                            d = temp - p;
+                            b = b - c;
+                            c = 0;
+                            double cs1 = sab*tau;
+                            double sn1 = sac*tau;
+                            temp = cs*cs1 - sn*sn1;
+                            sn = cs*sn1 + sn*cs1;
+                            cs = temp;
+                        }
+                    } else {
+                        b = -c;
+                        c = 0;
+                        temp = cs;
+                        cs = -sn;
+                        sn = temp;
+                    }
+                }
+            }
+        }
+
+        this.a = a; this.b = b; this.c = c; this.d = d;
+        rt1r = a;
+        rt2r = d;
+        if( c == 0 ) {
+            rt1i = rt2i = 0;
+        } else {
+            rt1i = Math.sqrt(Math.abs(b))*Math.sqrt(Math.abs(c));
+            rt2i = -rt1i;
+        }
+    }
+
+    /**
+     * <p>
+     * Computes a Householder reflector, (I - &tau;*u*u<sup>T</sup>), which zeros all but the first element of the
+     * vector stored in v[offset:offset+length-1].  The first element of u is one and is not saved.
+     * </p>
+     *
+     * <p>
+     * On output v[offset] contains the first element of the reflected vector and the remainder of v has the
+     * elements of u after the first.
+     * </p>
+     *
+     * @return &tau;, which is zero if the vector is already in the desired form.
+     */
+    public static double householder( double v[] , int offset , int length ) {
+        if( length <= 1 )
+            return 0;
+
+        double max = 0;
+        for( int i = 1; i < length; i++ ) {
+            max = Math.max(max,Math.abs(v[offset+i]));
+        }
+        if( max == 0 )
+            return 0;
+
+        double alpha = v[offset];
+        max = Math.max(max,Math.abs(alpha));
+        double sum = 0;
+        for( int i = 0; i < length; i++ ) {
+            double val = v[offset+i]/max;
+            sum += val*val;
+        }
+        double beta = -Math.copySign(max*Math.sqrt(sum),alpha);
+        double tau = (beta-alpha)/beta;
+        double scale = 1.0/(alpha-beta);
+        for( int i = 1; i < length; i++ ) {
+            v[offset+i] *= scale;
+        }
+        v[offset] = beta;
+        return tau;
+    }
+
+    /**
+     * Applies a plane rotation to rows 'r0' and 'r1' of A in columns 'col0' to 'col1', inclusive.
+     */
+    public static void rotateRows( DMatrixRMaj A , int r0 , int r1 , int col0 , int col1 , double cs , double sn ) {
+        final double a[] = A.data;
+        final int n = A.numCols;
+        for( int j = col0; j <= col1; j++ ) {
+            double x = a[r0*n+j];
+            double y = a[r1*n+j];
+            a[r0*n+j] = cs*x + sn*y;
+            a[r1*n+j] = cs*y - sn*x;
+        }
+    }
+
+    /**
+     * Applies a plane rotation to columns 'c0' and 'c1' of A in rows 'row0' to 'row1', inclusive.
+     */
+    public static void rotateColumns( DMatrixRMaj A , int c0 , int c1 , int row0 , int row1 , double cs , double sn ) {
+        final double a[] = A.data;
+        final int n = A.numCols;
+        for( int j = row0; j <= row1; j++ ) {
+            double x = a[j*n+c0];
+            double y = a[j*n+c1];
+            a[j*n+c0] = cs*x + sn*y;
+            a[j*n+c1] = cs*y - sn*x;
+        }
+    }
+
+    /**
+     * sqrt(a<sup>2</sup> + b<sup>2</sup>) without overflow or underflow
+     */
+    public static double pythag( double a , double b ) {
+        double max = Math.max(Math.abs(a),Math.abs(b));
+        if( max == 0 )
+            return 0;
+        a /= max;
+        b /= max;
+        return max*Math.sqrt(a*a+b*b);
+    }
+}
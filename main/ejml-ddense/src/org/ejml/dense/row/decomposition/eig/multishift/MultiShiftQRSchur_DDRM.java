@@ -0,0 +1,704 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.multishift;
+
+import org.ejml.data.DMatrixRMaj;
+
+import static org.ejml.dense.row.decomposition.eig.multishift.BulgeChaseSchur_DDRM.*;
+
+/**
+ * <p>
+ * Computes the real Schur form of an upper Hessenberg matrix, H = Z*T*Z<sup>T</sup>, using the small-bulge
+ * multishift QR algorithm with aggressive early deflation.  Each sweep chases a tightly packed chain of many small
+ * 3x3 bulges down the diagonal instead of a single bulge.  The reflectors which chase the chain across a window
+ * are accumulated into an orthogonal matrix and applied to the rest of H and to Z with matrix-matrix
+ * multiplications, which is much more cache friendly than applying each reflector to the whole matrix.  Before
+ * each sweep {@link AggressiveEarlyDeflation_DDRM} looks for eigenvalues which have already converged and provides
+ * the shifts.  Small matrices are handled by {@link BulgeChaseSchur_DDRM}.
+ * </p>
+ *
+ * <p>
+ * The algorithm and its tuning parameters follow LAPACK's DLAQR0 and DLAQR5.
+ * </p>
+ *
+ * <p>
+ * K. Braman, R. Byers, and R. Mathias, "The Multishift QR Algorithm. Part I: Maintaining Well-Focused Shifts and
+ * Level 3 Performance," SIAM Journal on Matrix Analysis and Applications, 23 (2002)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MultiShiftQRSchur_DDRM {
+
+    // if the number of deflations in the last window is less than this percent then a sweep is done
+    public static final int NIBBLE = 14;
+    // the deflation window is enlarged after this many iterations without a deflation
+    public static final int EXCEPTIONAL_WINDOW = 5;
+    // exceptional shifts are used after this many iterations without a deflation
+    public static final int EXCEPTIONAL_SHIFT = 6;
+    // sweeps with at least this many shifts accumulate the reflectors and update H with matrix multiplications
+    public static final int ACCUMULATE_SHIFTS = 14;
+
+    // matrices smaller than this are processed with the double shift QR algorithm
+    private int minimumSize = 75;
+
+    private BulgeChaseSchur_DDRM small = new BulgeChaseSchur_DDRM();
+    private AggressiveEarlyDeflation_DDRM aed = new AggressiveEarlyDeflation_DDRM();
+
+    // eigenvalues
+    private double wr[] = new double[0];
+    private double wi[] = new double[0];
+
+    // reflectors in the chain of bulges.  tau is stored in the first element
+    private double v[] = new double[3];
+    private double vt[] = new double[3];
+    // accumulated orthogonal transform for a window of the sweep
+    private DMatrixRMaj U = new DMatrixRMaj(1,1);
+
+    // used to compute shifts
+    private DMatrixRMaj S = new DMatrixRMaj(1,1);
+    private double shiftR[] = new double[1];
+    private double shiftI[] = new double[1];
+
+    // work space
+    private double tmp[] = new double[1];
+    private DMatrixRMaj work = new DMatrixRMaj(1,1);
+
+    public MultiShiftQRSchur_DDRM( int minimumSize ) {
+        this.minimumSize = Math.max(minimumSize,12);
+    }
+
+    public MultiShiftQRSchur_DDRM() {
+    }
+
+    /**
+     * Computes the Schur form of H.
+     *
+     * @param H (Input/Output) Upper Hessenberg matrix.  Modified.
+     * @param wantT If true the full Schur form is computed.  If false only what is needed to find the eigenvalues.
+     * @param Z (Input/Output) If not null then Z = Z*U, where U is the orthogonal transform.
+     * @return true if it converged
+     */
+    public boolean process( DMatrixRMaj H , boolean wantT , DMatrixRMaj Z ) {
+        final int N = H.numRows;
+        if( wr.length < N ) {
+            wr = new double[N];
+            wi = new double[N];
+        }
+        if( N == 0 )
+            return true;
+
+        if( N < minimumSize )
+            return small.process(H,0,N-1,wantT,Z,wr,wi);
+
+        final double h[] = H.data;
+
+        // number of shifts and size of the deflation window
+        int nsr = selectNumberOfShifts(N);
+        nsr = Math.min(nsr,Math.min((N-3)/6,N-1));
+        nsr = Math.max(2,nsr-nsr%2);
+        int nwr = N <= 500 ? nsr : 3*nsr/2;
+        nwr = Math.max(2,nwr);
+        nwr = Math.min(N,Math.min((N-1)/3,nwr));
+
+        final int nwmax = (N-1)/3;
+        final int nsmax = Math.max(2,(N-3)/6 - ((N-3)/6)%2);
+
+        final int itmax = 30*Math.max(10,N);
+        int ndfl = 1;
+        int ndec = -1;
+        int nw = nwr;
+        int kbot = N-1;
+
+        for( int it = 0; it < itmax; it++ ) {
+            if( kbot < 0 )
+                return true;
+
+            // locate the active block
+            int ktop;
+            for( ktop = kbot; ktop > 0; ktop-- ) {
+                if( h[ktop*N+ktop-1] == 0 )
+                    break;
+            }
+
+            // select the size of the deflation window
+            int nh = kbot-ktop+1;
+            int nwupbd = Math.min(nh,nwmax);
+            if( ndfl < EXCEPTIONAL_WINDOW )
+                nw = Math.min(nwupbd,nwr);
+            else
+                nw = Math.min(nwupbd,2*nw);
+            if( nw < nwmax ) {
+                if( nw >= nh-1 ) {
+                    nw = nh;
+                } else {
+                    int kwtop = kbot-nw+1;
+                    if( Math.abs(h[kwtop*N+kwtop-1]) > Math.abs(h[(kwtop-1)*N+kwtop-2]) )
+                        nw++;
+                }
+            }
+            if( ndfl < EXCEPTIONAL_WINDOW ) {
+                ndec = -1;
+            } else if( ndec >= 0 || nw >= nwupbd ) {
+                ndec++;
+                if( nw-ndec < 2 )
+                    ndec = 0;
+                nw -= ndec;
+            }
+
+            aed.process(H,Z,wantT,ktop,kbot,nw,wr,wi);
+            int ld = aed.numDeflated;
+            kbot -= ld;
+            int ks = kbot - aed.numShifts + 1;
+
+            // skip the sweep if lots of eigenvalues were just deflated or the remaining block is small
+            if( ld == 0 || (100*ld <= nw*NIBBLE && kbot-ktop+1 > Math.min(minimumSize,nwmax)) ) {
+                int ns = Math.min(Math.min(nsmax,nsr),Math.max(2,kbot-ktop));
+                ns -= ns%2;
+
+                if( ndfl % EXCEPTIONAL_SHIFT == 0 ) {
+                    ks = kbot - ns + 1;
+                    for( int i = kbot; i >= Math.max(ks+1,ktop+2); i -= 2 ) {
+                        double ss = Math.abs(h[i*N+i-1]) + Math.abs(h[(i-1)*N+i-2]);
+                        double aa = 0.75*ss + h[i*N+i];
+                        small.standardize(aa,ss,-0.4375*ss,aa);
+                        wr[i-1] = small.rt1r; wi[i-1] = small.rt1i;
+                        wr[i] = small.rt2r;   wi[i] = small.rt2i;
+                    }
+                    if( ks == ktop ) {
+                        wr[ks+1] = h[(ks+1)*N+ks+1];
+                        wi[ks+1] = 0;
+                        wr[ks] = wr[ks+1];
+                        wi[ks] = wi[ks+1];
+                    }
+                } else {
+                    // not enough shifts from the deflation window.  compute them from a trailing sub-matrix
+                    if( kbot-ks+1 <= ns/2 ) {
+                        ks = kbot-ns+1;
+                        if( !computeShifts(H,ks,ns) ) {
+                            small.standardize(h[(kbot-1)*N+kbot-1],h[(kbot-1)*N+kbot],
+                                    h[kbot*N+kbot-1],h[kbot*N+kbot]);
+                            wr[kbot-1] = small.rt1r; wi[kbot-1] = small.rt1i;
+                            wr[kbot] = small.rt2r;   wi[kbot] = small.rt2i;
+                            ks = kbot-1;
+                        }
+                    }
+
+                    // sort the shifts so that the ones with the smallest magnitude are used
+                    if( kbot-ks+1 > ns )
+                        sortShifts(ks,kbot);
+
+                    // make sure complex conjugate pairs are next to each other
+                    for( int i = kbot; i >= ks+2; i -= 2 ) {
+                        if( wi[i] != -wi[i-1] ) {
+                            double swap = wr[i];
+                            wr[i] = wr[i-1];
+                            wr[i-1] = wr[i-2];
+                            wr[i-2] = swap;
+                            swap = wi[i];
+                            wi[i] = wi[i-1];
+                            wi[i-1] = wi[i-2];
+                            wi[i-2] = swap;
+                        }
+                    }
+                }
+
+                // if there are only two real shifts then use the one closest to the bottom twice
+                if( kbot-ks+1 == 2 && wi[kbot] == 0 ) {
+                    double hbot = h[kbot*N+kbot];
+                    if( Math.abs(wr[kbot]-hbot) < Math.abs(wr[kbot-1]-hbot) )
+                        wr[kbot-1] = wr[kbot];
+                    else
+                        wr[kbot] = wr[kbot-1];
+                }
+
+                ns = Math.min(ns,kbot-ks+1);
+                ns -= ns%2;
+                ks = kbot-ns+1;
+
+                sweep(H,Z,wantT,ktop,kbot,ns,ks);
+            }
+
+            if( ld > 0 )
+                ndfl = 1;
+            else
+                ndfl++;
+        }
+
+        return kbot < 0;
+    }
+
+    /**
+     * Number of shifts in each sweep for a matrix of the specified size
+     */
+    public static int selectNumberOfShifts( int N ) {
+        int ns;
+        if( N < 30 )
+            ns = 2;
+        else if( N < 60 )
+            ns = 4;
+        else if( N < 150 )
+            ns = 10;
+        else if( N < 590 )
+            ns = Math.max(10,N/(int)Math.round(Math.log(N)/Math.log(2)));
+        else if( N < 3000 )
+            ns = 64;
+        else if( N < 6000 )
+            ns = 128;
+        else
+            ns = 256;
+        return Math.max(2,ns-ns%2);
+    }
+
+    /**
+     * Computes shifts from the eigenvalues of the trailing sub-matrix H(ks:ks+ns-1,ks:ks+ns-1)
+     */
+    private boolean computeShifts( DMatrixRMaj H , int ks , int ns ) {
+        final int N = H.numCols;
+        S.reshape(ns,ns,false);
+        for( int i = 0; i < ns; i++ ) {
+            for( int j = 0; j < ns; j++ ) {
+                S.data[i*ns+j] = j >= i-1 ? H.data[(ks+i)*N+ks+j] : 0;
+            }
+        }
+        if( shiftR.length < ns ) {
+            shiftR = new double[ns];
+            shiftI = new double[ns];
+        }
+        if( !small.process(S,0,ns-1,false,null,shiftR,shiftI) )
+            return false;
+        System.arraycopy(shiftR,0,wr,ks,ns);
+        System.arraycopy(shiftI,0,wi,ks,ns);
+        return true;
+    }
+
+    /**
+     * Bubble sort of the shifts by decreasing magnitude.  Complex conjugate pairs have the same magnitude and
+     * stay together.
+     */
+    private void sortShifts( int ks , int kbot ) {
+        for( int k = kbot; k > ks; k-- ) {
+            boolean sorted = true;
+            for( int i = ks; i < k; i++ ) {
+                if( Math.abs(wr[i])+Math.abs(wi[i]) < Math.abs(wr[i+1])+Math.abs(wi[i+1]) ) {
+                    sorted = false;
+                    double swap = wr[i]; wr[i] = wr[i+1]; wr[i+1] = swap;
+                    swap = wi[i]; wi[i] = wi[i+1]; wi[i+1] = swap;
+                }
+            }
+            if( sorted )
+                break;
+        }
+    }
+
+    /**
+     * <p>
+     * Performs a single small-bulge multishift QR sweep on the active block using the 'ns' shifts stored in
+     * wr[ks:] and wi[ks:].  Pairs of shifts are introduced as a chain of 3x3 bulges, which are chased down the
+     * diagonal together.  A bulge which collapses is reintroduced and sub-diagonal elements which become negligible
+     * along the way are set to zero.
+     * </p>
+     */
+    private void sweep( DMatrixRMaj H , DMatrixRMaj Z , boolean wantT , int ktop , int kbot , int ns , int ks ) {
+        if( ns < 2 || ktop >= kbot )
+            return;
+
+        final int N = H.numCols;
+        final double h[] = H.data;
+        final double smlnum = SAFE_MIN*(N/ULP);
+
+        // shifts must be in pairs of real shifts or complex conjugate pairs
+        for( int i = ks; i < ks+ns-2; i += 2 ) {
+            if( wi[i] != -wi[i+1] ) {
+                double swap = wr[i]; wr[i] = wr[i+1]; wr[i+1] = wr[i+2]; wr[i+2] = swap;
+                swap = wi[i]; wi[i] = wi[i+1]; wi[i+1] = wi[i+2]; wi[i+2] = swap;
+            }
+        }
+        ns -= ns%2;
+
+        final boolean accum = ns >= ACCUMULATE_SHIFTS;
+
+        // clear trash
+        if( ktop+2 <= kbot )
+            h[(ktop+2)*N+ktop] = 0;
+
+        // number of bulges in the chain and size of the window the chain is chased across
+        final int nbmps = ns/2;
+        final int kdu = 6*nbmps-3;
+
+        if( v.length < 3*nbmps )
+            v = new double[3*nbmps];
+        if( accum ) {
+            U.reshape(kdu,kdu,false);
+            if( tmp.length < kdu )
+                tmp = new double[kdu];
+        }
+        final double u[] = U.data;
+
+        for( int incol = 3*(1-nbmps)+ktop-1; incol <= kbot-2; incol += 3*nbmps-2 ) {
+            final int ndcol = incol + kdu;
+            if( accum ) {
+                U.zero();
+                for( int i = 0; i < kdu; i++ )
+                    u[i*kdu+i] = 1;
+            }
+
+            // chase the chain across the window one column at a time
+            for( int krcol = incol; krcol <= Math.min(incol+3*nbmps-3,kbot-2); krcol++ ) {
+                // bulges mtop to mbot, inclusive, are being chased
+                final int mtop = Math.max(0,(ktop-krcol+1)/3);
+                final int mbot = Math.min(nbmps,(kbot-krcol)/3) - 1;
+                final int m22 = mbot+1;
+                final boolean bmp22 = m22 < nbmps && krcol + 3*m22 == kbot-2;
+
+                // reflectors which chase the chain by one column
+                for( int m = mtop; m <= mbot; m++ ) {
+                    int k = krcol + 3*m;
+                    if( k == ktop-1 ) {
+                        firstColumn3(h,N,ktop,ks+2*m,v,3*m);
+                        v[3*m] = householder(v,3*m,3);
+                    } else {
+                        v[3*m] = h[(k+1)*N+k];
+                        v[3*m+1] = h[(k+2)*N+k];
+                        v[3*m+2] = h[(k+3)*N+k];
+                        double tau = householder(v,3*m,3);
+                        double beta = v[3*m];
+                        v[3*m] = tau;
+
+                        if( h[(k+3)*N+k] != 0 || h[(k+3)*N+k+1] != 0 || h[(k+3)*N+k+2] == 0 ) {
+                            h[(k+1)*N+k] = beta;
+                            h[(k+2)*N+k] = 0;
+                            h[(k+3)*N+k] = 0;
+                        } else {
+                            // the bulge has collapsed.  try to introduce a new one
+                            firstColumn3(h,N,k+1,ks+2*m,vt,0);
+                            vt[0] = householder(vt,0,3);
+                            double refsum = vt[0]*(h[(k+1)*N+k] + vt[1]*h[(k+2)*N+k]);
+
+                            if( Math.abs(h[(k+2)*N+k]-refsum*vt[1]) + Math.abs(refsum*vt[2]) >
+                                    ULP*(Math.abs(h[k*N+k])+Math.abs(h[(k+1)*N+k+1])+Math.abs(h[(k+2)*N+k+2])) ) {
+                                // a new bulge would create too much fill in.  use the old one
+                                h[(k+1)*N+k] = beta;
+                                h[(k+2)*N+k] = 0;
+                                h[(k+3)*N+k] = 0;
+                            } else {
+                                h[(k+1)*N+k] -= refsum;
+                                h[(k+2)*N+k] = 0;
+                                h[(k+3)*N+k] = 0;
+                                v[3*m] = vt[0];
+                                v[3*m+1] = vt[1];
+                                v[3*m+2] = vt[2];
+                            }
+                        }
+                    }
+                }
+
+                // a 2x2 reflector at the very bottom
+                if( bmp22 ) {
+                    int k = krcol + 3*m22;
+                    if( k == ktop-1 ) {
+                        firstColumn2(h,N,k+1,ks+2*m22,v,3*m22);
+                        v[3*m22] = householder(v,3*m22,2);
+                    } else {
+                        v[3*m22] = h[(k+1)*N+k];
+                        v[3*m22+1] = h[(k+2)*N+k];
+                        double tau = householder(v,3*m22,2);
+                        h[(k+1)*N+k] = v[3*m22];
+                        h[(k+2)*N+k] = 0;
+                        v[3*m22] = tau;
+                    }
+                }
+
+                // apply the reflectors from the left
+                int jbot = accum ? Math.min(ndcol,kbot) : (wantT ? N-1 : kbot);
+                for( int j = Math.max(ktop,krcol); j <= jbot; j++ ) {
+                    int mend = Math.min(mbot+1,(j-krcol+2)/3);
+                    for( int m = mtop; m < mend; m++ ) {
+                        int k = krcol + 3*m;
+                        double v0 = v[3*m], v1 = v[3*m+1], v2 = v[3*m+2];
+                        int index = (k+1)*N+j;
+                        double refsum = v0*(h[index] + v1*h[index+N] + v2*h[index+2*N]);
+                        h[index] -= refsum;
+                        h[index+N] -= refsum*v1;
+                        h[index+2*N] -= refsum*v2;
+                    }
+                }
+                if( bmp22 ) {
+                    int k = krcol + 3*m22;
+                    double v0 = v[3*m22], v1 = v[3*m22+1];
+                    for( int j = Math.max(k+1,ktop); j <= jbot; j++ ) {
+                        int index = (k+1)*N+j;
+                        double refsum = v0*(h[index] + v1*h[index+N]);
+                        h[index] -= refsum;
+                        h[index+N] -= refsum*v1;
+                    }
+                }
+
+                // apply the reflectors from the right.  the last row of each bulge is filled in later
+                int jtop = accum ? Math.max(ktop,incol) : (wantT ? 0 : ktop);
+                for( int m = mtop; m <= mbot; m++ ) {
+                    double v0 = v[3*m];
+                    if( v0 == 0 )
+                        continue;
+                    double v1 = v[3*m+1], v2 = v[3*m+2];
+                    int k = krcol + 3*m;
+                    int end = Math.min(kbot,k+3);
+                    for( int j = jtop; j <= end; j++ ) {
+                        int index = j*N+k+1;
+                        double refsum = v0*(h[index] + v1*h[index+1] + v2*h[index+2]);
+                        h[index] -= refsum;
+                        h[index+1] -= refsum*v1;
+                        h[index+2] -= refsum*v2;
+                    }
+                    if( accum ) {
+                        int kms = k - incol;
+                        for( int j = Math.max(1,ktop-incol)-1; j < kdu; j++ ) {
+                            int index = j*kdu+kms;
+                            double refsum = v0*(u[index] + v1*u[index+1] + v2*u[index+2]);
+                            u[index] -= refsum;
+                            u[index+1] -= refsum*v1;
+                            u[index+2] -= refsum*v2;
+                        }
+                    } else if( Z != null ) {
+                        final double z[] = Z.data;
+                        final int nz = Z.numCols;
+                        for( int j = 0; j < Z.numRows; j++ ) {
+                            int index = j*nz+k+1;
+                            double refsum = v0*(z[index] + v1*z[index+1] + v2*z[index+2]);
+                            z[index] -= refsum;
+                            z[index+1] -= refsum*v1;
+                            z[index+2] -= refsum*v2;
+                        }
+                    }
+                }
+                if( bmp22 && v[3*m22] != 0 ) {
+                    int k = krcol + 3*m22;
+                    double v0 = v[3*m22], v1 = v[3*m22+1];
+                    int end = Math.min(kbot,k+3);
+                    for( int j = jtop; j <= end; j++ ) {
+                        int index = j*N+k+1;
+                        double refsum = v0*(h[index] + v1*h[index+1]);
+                        h[index] -= refsum;
+                        h[index+1] -= refsum*v1;
+                    }
+                    if( accum ) {
+                        int kms = k - incol;
+                        for( int j = Math.max(1,ktop-incol)-1; j < kdu; j++ ) {
+                            int index = j*kdu+kms;
+                            double refsum = v0*(u[index] + v1*u[index+1]);
+                            u[index] -= refsum;
+                            u[index+1] -= refsum*v1;
+                        }
+                    } else if( Z != null ) {
+                        final double z[] = Z.data;
+                        final int nz = Z.numCols;
+                        for( int j = 0; j < Z.numRows; j++ ) {
+                            int index = j*nz+k+1;
+                            double refsum = v0*(z[index] + v1*z[index+1]);
+                            z[index] -= refsum;
+                            z[index+1] -= refsum*v1;
+                        }
+                    }
+                }
+
+                // vigilant deflation check
+                int mstart = mtop;
+                if( krcol+3*mstart < ktop )
+                    mstart++;
+                int mend = mbot;
+                if( bmp22 )
+                    mend++;
+                if( krcol == kbot-2 )
+                    mend++;
+                for( int m = mstart; m <= mend; m++ ) {
+                    int k = Math.min(kbot-1,krcol+3*m);
+                    checkDeflation(h,N,k,ktop,kbot,smlnum);
+                }
+
+                // fill in the last row of each bulge
+                mend = Math.min(nbmps,(kbot-krcol-1)/3);
+                for( int m = mtop; m < mend; m++ ) {
+                    int k = krcol + 3*m;
+                    double refsum = v[3*m]*v[3*m+2]*h[(k+4)*N+k+3];
+                    h[(k+4)*N+k+1] = -refsum;
+                    h[(k+4)*N+k+2] = -refsum*v[3*m+1];
+                    h[(k+4)*N+k+3] -= refsum*v[3*m+2];
+                }
+            }
+
+            // use the accumulated transform to update the rest of H and Z
+            if( accum ) {
+                int jtop = wantT ? 0 : ktop;
+                int jbot = wantT ? N-1 : kbot;
+                int k1 = Math.max(1,ktop-incol)-1;
+                int nu = (kdu - Math.max(0,ndcol-kbot)) - k1;
+
+                multTransLeft(U,k1,nu,H,incol+1+k1,Math.min(ndcol,kbot)+1,jbot,work);
+                multRight(H,jtop,Math.max(ktop,incol)-1,incol+1+k1,U,k1,nu,tmp);
+                if( Z != null )
+                    multRight(Z,0,Z.numRows-1,incol+1+k1,U,k1,nu,tmp);
+            }
+        }
+    }
+
+    /**
+     * Sets H(k+1,k) to zero if it is negligible
+     */
+    private static void checkDeflation( double h[] , int N , int k , int ktop , int kbot , double smlnum ) {
+        double hk1k = h[(k+1)*N+k];
+        if( hk1k == 0 )
+            return;
+
+        double tst1 = Math.abs(h[k*N+k]) + Math.abs(h[(k+1)*N+k+1]);
+        if( tst1 == 0 ) {
+            if( k >= ktop+1 ) tst1 += Math.abs(h[k*N+k-1]);
+            if( k >= ktop+2 ) tst1 += Math.abs(h[k*N+k-2]);
+            if( k >= ktop+3 ) tst1 += Math.abs(h[k*N+k-3]);
+            if( k <= kbot-2 ) tst1 += Math.abs(h[(k+2)*N+k+1]);
+            if( k <= kbot-3 ) tst1 += Math.abs(h[(k+3)*N+k+1]);
+            if( k <= kbot-4 ) tst1 += Math.abs(h[(k+4)*N+k+1]);
+        }
+        if( Math.abs(hk1k) <= Math.max(smlnum,ULP*tst1) ) {
+            double h12 = Math.max(Math.abs(hk1k),Math.abs(h[k*N+k+1]));
+            double h21 = Math.min(Math.abs(hk1k),Math.abs(h[k*N+k+1]));
+            double diff = Math.abs(h[k*N+k]-h[(k+1)*N+k+1]);
+            double h11 = Math.max(Math.abs(h[(k+1)*N+k+1]),diff);
+            double h22 = Math.min(Math.abs(h[(k+1)*N+k+1]),diff);
+            double scl = h11 + h12;
+            double tst2 = h22*(h11/scl);
+            if( tst2 == 0 || h21*(h12/scl) <= Math.max(smlnum,ULP*tst2) )
+                h[(k+1)*N+k] = 0;
+        }
+    }
+
+    /**
+     * Computes a scalar multiple of the first column of (H - s<sub>1</sub>*I)*(H - s<sub>2</sub>*I) using the
+     * 3x3 sub-matrix which starts at H(p,p) and shifts wr[s:s+1], wi[s:s+1].  Results are written to
+     * out[offset:offset+2].
+     */
+    private void firstColumn3( double h[] , int N , int p , int s , double out[] , int offset ) {
+        double sr1 = wr[s], si1 = wi[s], sr2 = wr[s+1], si2 = wi[s+1];
+        double h11 = h[p*N+p], h12 = h[p*N+p+1], h13 = h[p*N+p+2];
+        double h21 = h[(p+1)*N+p], h22 = h[(p+1)*N+p+1], h23 = h[(p+1)*N+p+2];
+        double h31 = h[(p+2)*N+p], h32 = h[(p+2)*N+p+1], h33 = h[(p+2)*N+p+2];
+
+        double scale = Math.abs(h11-sr2) + Math.abs(si2) + Math.abs(h21) + Math.abs(h31);
+        if( scale == 0 ) {
+            out[offset] = out[offset+1] = out[offset+2] = 0;
+        } else {
+            double h21s = h21/scale;
+            double h31s = h31/scale;
+            out[offset] = (h11-sr1)*((h11-sr2)/scale) - si1*(si2/scale) + h12*h21s + h13*h31s;
+            out[offset+1] = h21s*(h11+h22-sr1-sr2) + h23*h31s;
+            out[offset+2] = h31s*(h11+h33-sr1-sr2) + h21s*h32;
+        }
+    }
+
+    /**
+     * Same as {@link #firstColumn3} but for a 2x2 sub-matrix
+     */
+    private void firstColumn2( double h[] , int N , int p , int s , double out[] , int offset ) {
+        double sr1 = wr[s], si1 = wi[s], sr2 = wr[s+1], si2 = wi[s+1];
+        double h11 = h[p*N+p], h12 = h[p*N+p+1];
+        double h21 = h[(p+1)*N+p], h22 = h[(p+1)*N+p+1];
+
+        double scale = Math.abs(h11-sr2) + Math.abs(si2) + Math.abs(h21);
+        if( scale == 0 ) {
+            out[offset] = out[offset+1] = 0;
+        } else {
+            double h21s = h21/scale;
+            out[offset] = h21s*h12 + (h11-sr1)*((h11-sr2)/scale) - si1*(si2/scale);
+            out[offset+1] = h21s*(h11+h22-sr1-sr2);
+        }
+    }
+
+    /**
+     * A(row0:row1,col0:col0+nu-1) = A(row0:row1,col0:col0+nu-1)*U(k1:k1+nu-1,k1:k1+nu-1)
+     */
+    static void multRight( DMatrixRMaj A , int row0 , int row1 , int col0 ,
+                           DMatrixRMaj U , int k1 , int nu , double tmp[] ) {
+        final double a[] = A.data;
+        final double u[] = U.data;
+        final int n = A.numCols;
+        final int nuCols = U.numCols;
+
+        for( int r = row0; r <= row1; r++ ) {
+            for( int j = 0; j < nu; j++ )
+                tmp[j] = 0;
+            int indexA = r*n+col0;
+            for( int k = 0; k < nu; k++ ) {
+                double val = a[indexA+k];
+                if( val == 0 )
+                    continue;
+                int indexU = (k1+k)*nuCols+k1;
+                for( int j = 0; j < nu; j++ ) {
+                    tmp[j] += val*u[indexU+j];
+                }
+            }
+            System.arraycopy(tmp,0,a,indexA,nu);
+        }
+    }
+
+    /**
+     * A(row0:row0+nu-1,col0:col1) = U(k1:k1+nu-1,k1:k1+nu-1)<sup>T</sup>*A(row0:row0+nu-1,col0:col1)
+     */
+    static void multTransLeft( DMatrixRMaj U , int k1 , int nu ,
+                               DMatrixRMaj A , int row0 , int col0 , int col1 , DMatrixRMaj work ) {
+        if( col1 < col0 )
+            return;
+        final double a[] = A.data;
+        final double u[] = U.data;
+        final int n = A.numCols;
+        final int nuCols = U.numCols;
+        final int numCols = col1-col0+1;
+
+        work.reshape(nu,numCols,false);
+        work.zero();
+        final double w[] = work.data;
+
+        for( int k = 0; k < nu; k++ ) {
+            int indexA = (row0+k)*n+col0;
+            int indexU = (k1+k)*nuCols+k1;
+            for( int i = 0; i < nu; i++ ) {
+                double val = u[indexU+i];
+                if( val == 0 )
+                    continue;
+                int indexW = i*numCols;
+                for( int j = 0; j < numCols; j++ ) {
+                    w[indexW+j] += val*a[indexA+j];
+                }
+            }
+        }
+        for( int i = 0; i < nu; i++ ) {
+            System.arraycopy(w,i*numCols,a,(row0+i)*n+col0,numCols);
+        }
+    }
+
+    public double[] getWr() {
+        return wr;
+    }
+
+    public double[] getWi() {
+        return wi;
+    }
+
+    public int getMinimumSize() {
+        return minimumSize;
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Computes a subset of the eigenvalues and eigenvectors of a symmetric tridiagonal matrix.  Eigenvalues are
+ * selected by their index in ascending order or by an interval which contains them.  They are found using
+ * bisection, where a Sturm sequence counts the number of eigenvalues less than a value.  Eigenvectors are then
+ * found using inverse iteration.  The cost is O(N) per bisection step and per inverse iteration, making it much
+ * faster than computing the full decomposition when only a few eigenpairs are needed.
+ * </p>
+ *
+ * <p>
+ * If an off diagonal element is negligible the matrix is split into independent blocks and each eigenvector is
+ * only computed inside of the block its eigenvalue belongs to.
+ * Eigenvectors of eigenvalues which are close together are orthogonalized against each other using Gram-Schmidt.
+ * If a large number of eigenvalues are clustered together this becomes expensive and the full decomposition
+ * should be used instead.
+ * </p>
+ *
+ * <p>
+ * J. W. Demmel, "Applied Numerical Linear Algebra," SIAM, 1997. Section 5.3.4
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricBisectionAlgorithm_DDRM {
+
+    // maximum number of inverse iterations
+    private static final int MAX_ITERATIONS = 5;
+    // number of iterations after the convergence criteria has been met
+    private static final int EXTRA_ITERATIONS = 2;
+
+    // size of the tridiagonal matrix
+    private int N;
+    // diagonal and off diagonal elements, scaled
+    private double diag[] = new double[0];
+    private double off[] = new double[0];
+    // square of the off diagonal elements
+    private double off2[] = new double[0];
+    private double scale;
+    // 1-norm of the scaled matrix
+    private double norm;
+    // smallest allowed pivot when computing the Sturm sequence
+    private double pivmin;
+
+    // Gershgorin bounds of the eigenvalues
+    private double lower,upper;
+
+    // the matrix is split into independent blocks where off diagonal elements are negligible.
+    // Block i contains rows blockStart[i] to blockStart[i+1]-1
+    private int numBlocks;
+    private int blockStart[] = new int[0];
+
+    // the found eigenvalues, scaled
+    private int numFound;
+    private double values[] = new double[0];
+    // bounds for each eigenvalue while searching
+    private double boundLower[] = new double[0];
+    private double boundUpper[] = new double[0];
+    // which block each eigenvalue belongs to
+    private int valueBlock[] = new int[0];
+    // the eigenvalue used in inverse iteration after being perturbed
+    private double perturbed[] = new double[0];
+
+    // LU decomposition of T - lambda*I with partial pivoting
+    private double lu0[] = new double[0];
+    private double lu1[] = new double[0];
+    private double lu2[] = new double[0];
+    private double mult[] = new double[0];
+    private boolean swap[] = new boolean[0];
+
+    // work space for inverse iteration
+    private double x[] = new double[0];
+    private Random rand = new Random(0xBEEF);
+
+    /**
+     * Specifies the tridiagonal matrix.
+     *
+     * @param diag Diagonal elements.  Not modified.
+     * @param off Off diagonal elements.  Not modified.
+     * @param N Number of rows and columns in the matrix
+     */
+    public void setMatrix( double diag[] , double off[] , int N ) {
+        this.N = N;
+        this.numFound = 0;
+        if( this.diag.length < N ) {
+            this.diag = new double[N];
+            this.off = new double[N];
+            this.off2 = new double[N];
+            lu0 = new double[N];
+            lu1 = new double[N];
+            lu2 = new double[N];
+            mult = new double[N];
+            swap = new boolean[N];
+            x = new double[N];
+            blockStart = new int[N+1];
+        }
+
+        // scale to avoid overflow and underflow when values are squared
+        scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale,Math.abs(diag[i]));
+        }
+        for (int i = 0; i < N-1; i++) {
+            scale = Math.max(scale,Math.abs(off[i]));
+        }
+        if( scale == 0 )
+            scale = 1;
+
+        double maxOff2 = 0;
+        for (int i = 0; i < N; i++) {
+            this.diag[i] = diag[i]/scale;
+        }
+        for (int i = 0; i < N-1; i++) {
+            this.off[i] = off[i]/scale;
+            this.off2[i] = this.off[i]*this.off[i];
+            maxOff2 = Math.max(maxOff2,this.off2[i]);
+        }
+        pivmin = Double.MIN_NORMAL*Math.max(1,maxOff2);
+
+        // split the matrix where off diagonal elements are negligible
+        numBlocks = 0;
+        blockStart[numBlocks++] = 0;
+        for (int i = 0; i < N-1; i++) {
+            double tol = UtilEjml.EPS*UtilEjml.EPS*Math.abs(this.diag[i]*this.diag[i+1]) + pivmin;
+            if( this.off2[i] <= tol ) {
+                this.off[i] = 0;
+                this.off2[i] = 0;
+                blockStart[numBlocks++] = i+1;
+            }
+        }
+        blockStart[numBlocks] = N;
+
+        // Gershgorin circles
+        lower = Double.MAX_VALUE;
+        upper = -Double.MAX_VALUE;
+        norm = 0;
+        for (int i = 0; i < N; i++) {
+            double radius = 0;
+            if( i > 0 )
+                radius += Math.abs(this.off[i-1]);
+            if( i < N-1 )
+                radius += Math.abs(this.off[i]);
+            lower = Math.min(lower,this.diag[i]-radius);
+            upper = Math.max(upper,this.diag[i]+radius);
+            norm = Math.max(norm,Math.abs(this.diag[i])+radius);
+        }
+        // make sure the bounds are strict
+        double pad = 2.0*UtilEjml.EPS*norm*N + 2.0*pivmin;
+        lower -= pad;
+        upper += pad;
+    }
+
+    /**
+     * Returns the number of eigenvalues which are less than the specified value.
+     */
+    public int countLessThan( double value ) {
+        return countLessThanScaled(value/scale);
+    }
+
+    private int countLessThanScaled( double value ) {
+        return countLessThanScaled(value,0,N);
+    }
+
+    /**
+     * Counts the number of eigenvalues less than the value in the sub-matrix from rows start to end-1 using
+     * a Sturm sequence
+     */
+    private int countLessThanScaled( double value , int start , int end ) {
+        int count = 0;
+        double q = diag[start]-value;
+        if( Math.abs(q) <= pivmin )
+            q = -pivmin;
+        if( q < 0 )
+            count++;
+        for (int i = start+1; i < end; i++) {
+            q = diag[i]-value-off2[i-1]/q;
+            if( Math.abs(q) <= pivmin )
+                q = -pivmin;
+            if( q < 0 )
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Finds eigenvalues by their index when sorted in ascending order.
+     *
+     * @param first Index of the first eigenvalue.  Inclusive.
+     * @param last Index of the last eigenvalue.  Inclusive.
+     */
+    public void findByIndex( int first , int last ) {
+        if( first < 0 || last >= N )
+            throw new IllegalArgumentException("Index range must be inside of 0 to "+(N-1));
+        numFound = Math.max(0,last-first+1);
+        if( values.length < numFound ) {
+            values = new double[numFound];
+            boundLower = new double[numFound];
+            boundUpper = new double[numFound];
+            valueBlock = new int[numFound];
+            perturbed = new double[numFound];
+        }
+        for (int i = 0; i < numFound; i++) {
+            boundLower[i] = lower;
+            boundUpper[i] = upper;
+        }
+
+        // Each count narrows the bounds of every eigenvalue, not just the one being searched for
+        double tolAbs = UtilEjml.EPS*norm + 2.0*pivmin;
+        for (int i = 0; i < numFound; i++) {
+            double lo = boundLower[i], hi = boundUpper[i];
+            while( hi-lo > 2.0*UtilEjml.EPS*Math.max(Math.abs(lo),Math.abs(hi)) + tolAbs ) {
+                double mid = (lo+hi)/2.0;
+                if( mid <= lo || mid >= hi )
+                    break;
+                int count = countLessThanScaled(mid);
+                for (int j = i; j < numFound; j++) {
+                    if( count > first+j )
+                        boundUpper[j] = Math.min(boundUpper[j],mid);
+                    else
+                        boundLower[j] = Math.max(boundLower[j],mid);
+                }
+                lo = boundLower[i];
+                hi = boundUpper[i];
+            }
+            values[i] = (lo+hi)/2.0;
+        }
+
+        assignBlocks(first);
+    }
+
+    /**
+     * Determines which block each eigenvalue belongs to.  Eigenvalues with overlapping bounds are grouped
+     * together and the number of eigenvalues in each block inside the group's bounds is counted.  Since
+     * eigenvalues in the same group are identical to within tolerance, they are assigned to the blocks in order.
+     */
+    private void assignBlocks( int first ) {
+        if( numBlocks == 1 ) {
+            for (int i = 0; i < numFound; i++) {
+                valueBlock[i] = 0;
+            }
+            return;
+        }
+
+        int groupStart = 0;
+        while( groupStart < numFound ) {
+            int groupEnd = groupStart+1;
+            while( groupEnd < numFound && boundLower[groupEnd] <= boundUpper[groupEnd-1] )
+                groupEnd++;
+
+            double lo = boundLower[groupStart];
+            double hi = boundUpper[groupEnd-1];
+
+            // skip over eigenvalues inside the bounds which were not selected
+            int skip = first+groupStart-countLessThanScaled(lo);
+            int index = groupStart;
+            for (int block = 0; block < numBlocks && index < groupEnd; block++) {
+                int start = blockStart[block], end = blockStart[block+1];
+                int inside = countLessThanScaled(hi,start,end)-countLessThanScaled(lo,start,end);
+                int used = Math.min(skip,inside);
+                skip -= used;
+                inside -= used;
+                for (int i = 0; i < inside && index < groupEnd; i++) {
+                    valueBlock[index++] = block;
+                }
+            }
+            // This should only happen if there's a numerical issue. Assign them to the last block
+            while( index < groupEnd ) {
+                valueBlock[index++] = numBlocks-1;
+            }
+
+            groupStart = groupEnd;
+        }
+    }
+
+    /**
+     * Finds all the eigenvalues inside the interval lower &le; &lambda; &lt; upper
+     */
+    public void findByInterval( double lower , double upper ) {
+        int first = countLessThan(lower);
+        int last = upper > lower ? countLessThan(upper)-1 : first-1;
+        if( last < first ) {
+            numFound = 0;
+        } else {
+            findByIndex(first,last);
+        }
+    }
+
+    /**
+     * Computes the eigenvectors of the eigenvalues which were found using inverse iteration.
+     *
+     * @param V (Output) Each row is an eigenvector.  Reshaped to the number of eigenvalues found by N.
+     */
+    public void computeVectors( DMatrixRMaj V ) {
+        V.reshape(numFound,N);
+        V.zero();
+
+        // vectors with eigenvalues closer than this are orthogonalized against each other
+        double tolCluster = norm/1000;
+        // eigenvalues in a cluster are perturbed so they are at least this far apart
+        double tolPerturb = 10*UtilEjml.EPS*norm;
+
+        int clusterStart = 0;
+        for (int k = 0; k < numFound; k++) {
+            if( k > 0 && values[k]-values[k-1] > tolCluster )
+                clusterStart = k;
+
+            int block = valueBlock[k];
+            int start = blockStart[block], end = blockStart[block+1];
+            int n = end-start;
+
+            // Inverse iteration can't separate eigenvalues which are identical
+            double lambda = values[k];
+            for (int j = k-1; j >= clusterStart; j--) {
+                if( valueBlock[j] == block ) {
+                    if( lambda-perturbed[j] < tolPerturb )
+                        lambda = perturbed[j] + tolPerturb;
+                    break;
+                }
+            }
+            perturbed[k] = lambda;
+
+            if( n == 1 ) {
+                V.data[k*N+start] = 1;
+                continue;
+            }
+
+            // inverse iteration has converged once the solution grows by this much
+            double tolGrowth = Math.sqrt(0.1/n)/(n*UtilEjml.EPS*Math.max(norm,UtilEjml.EPS));
+
+            factor(lambda,start,end);
+
+            for (int i = start; i < end; i++) {
+                x[i] = rand.nextDouble()*2-1;
+            }
+            normalize1(start,end);
+
+            int converged = 0;
+            for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+                solve(start,end);
+                orthogonalize(V,clusterStart,k,start,end);
+
+                double growth = 0;
+                for (int i = start; i < end; i++) {
+                    growth = Math.max(growth,Math.abs(x[i]));
+                }
+                normalize1(start,end);
+                if( growth >= tolGrowth && ++converged > EXTRA_ITERATIONS )
+                    break;
+            }
+
+            double norm2 = 0;
+            for (int i = start; i < end; i++) {
+                norm2 += x[i]*x[i];
+            }
+            norm2 = Math.sqrt(norm2);
+            int indexV = k*N;
+            for (int i = start; i < end; i++) {
+                V.data[indexV+i] = x[i]/norm2;
+            }
+        }
+    }
+
+    /**
+     * Computes the LU decomposition of T - lambda*I for rows and columns start to end-1 using partial pivoting.
+     * U has two elements above the diagonal.
+     */
+    private void factor( double lambda , int start , int end ) {
+        double tiny = UtilEjml.EPS*norm;
+
+        double a = diag[start]-lambda;
+        double b = start+1 < end ? off[start] : 0;
+        for (int k = start; k < end-1; k++) {
+            // the next row: off[k] , diag[k+1]-lambda , off[k+1]
+            double c = off[k];
+            double d = diag[k+1]-lambda;
+            double e = k+2 < end ? off[k+1] : 0;
+            if( Math.abs(a) >= Math.abs(c) ) {
+                swap[k] = false;
+                double m = a == 0 ? 0 : c/a;
+                mult[k] = m;
+                lu0[k] = a; lu1[k] = b; lu2[k] = 0;
+                a = d - m*b;
+                b = e;
+            } else {
+                swap[k] = true;
+                double m = a/c;
+                mult[k] = m;
+                lu0[k] = c; lu1[k] = d; lu2[k] = e;
+                a = b - m*d;
+                b = -m*e;
+            }
+        }
+        lu0[end-1] = a;
+
+        // avoid dividing by zero
+        for (int k = start; k < end; k++) {
+            if( Math.abs(lu0[k]) < tiny )
+                lu0[k] = lu0[k] < 0 ? -tiny : tiny;
+        }
+    }
+
+    /**
+     * Solves (T - lambda*I)*y = x using the LU decomposition and writes y into x.
+     */
+    private void solve( int start , int end ) {
+        for (int k = start; k < end-1; k++) {
+            if( swap[k] ) {
+                double tmp = x[k];
+                x[k] = x[k+1];
+                x[k+1] = tmp;
+            }
+            x[k+1] -= mult[k]*x[k];
+        }
+
+        // rescale if the solution gets too large to prevent an overflow. Only the direction matters
+        double maxValue = 1.0/(UtilEjml.EPS*UtilEjml.EPS);
+        for (int k = end-1; k >= start; k--) {
+            double v = x[k];
+            if( k+1 < end )
+                v -= lu1[k]*x[k+1];
+            if( k+2 < end )
+                v -= lu2[k]*x[k+2];
+            v /= lu0[k];
+            x[k] = v;
+
+            if( Math.abs(v) > maxValue ) {
+                for (int i = start; i < end; i++) {
+                    x[i] /= maxValue;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the components of the previously found eigenvectors in the same cluster from x
+     */
+    private void orthogonalize( DMatrixRMaj V , int clusterStart , int clusterEnd , int start , int end ) {
+        for (int k = clusterStart; k < clusterEnd; k++) {
+            int indexV = k*N;
+            double dot = 0;
+            for (int i = start; i < end; i++) {
+                dot += V.data[indexV+i]*x[i];
+            }
+            if( dot == 0 )
+                continue;
+            for (int i = start; i < end; i++) {
+                x[i] -= dot*V.data[indexV+i];
+            }
+        }
+    }
+
+    private void normalize1( int start , int end ) {
+        double total = 0;
+        for (int i = start; i < end; i++) {
+            total += Math.abs(x[i]);
+        }
+        if( total == 0 ) {
+            // can happen if the vector was in the span of the cluster. Try a new direction
+            for (int i = start; i < end; i++) {
+                x[i] = rand.nextDouble()*2-1;
+                total += Math.abs(x[i]);
+            }
+        }
+        for (int i = start; i < end; i++) {
+            x[i] /= total;
+        }
+    }
+
+    /**
+     * Number of eigenvalues which were found
+     */
+    public int getNumberOfEigenvalues() {
+        return numFound;
+    }
+
+    /**
+     * Returns a found eigenvalue.  They are in ascending order.
+     */
+    public double getEigenvalue( int index ) {
+        return values[index]*scale;
+    }
+}
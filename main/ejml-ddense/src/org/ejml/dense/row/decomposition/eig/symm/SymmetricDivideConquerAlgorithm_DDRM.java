@@ -0,0 +1,620 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes the eigenvalues and eigenvectors of a symmetric tridiagonal matrix, T = Q*D*Q<sup>T</sup>, using
+ * divide and conquer.  The matrix is split in two by subtracting a rank one matrix built from the off diagonal
+ * element in the middle, T = diag(T<sub>1</sub>,T<sub>2</sub>) + &rho;*v*v<sup>T</sup>.  Once the
+ * eigenvalues and eigenvectors of each half are known, the rank one matrix is added back in by computing the
+ * eigen decomposition of D + &rho;*z*z<sup>T</sup>, where D is diagonal.  Its eigenvalues are the roots of a secular
+ * equation and its eigenvectors are found directly from the roots.  The eigenvectors of the two halves are
+ * then combined with matrix-matrix multiplications, which is much more cache friendly than applying rotations
+ * one at a time like the QR algorithm does.  Small sub-problems are solved with {@link SymmetricQrAlgorithm_DDRM}.
+ * </p>
+ *
+ * <p>
+ * Deflation is used to reduce the size of each merge.  If two eigenvalues are almost identical or an element
+ * in z is almost zero, then an eigenvalue is known without solving the secular equation and its eigenvector
+ * doesn't need to be multiplied.  The eigenvectors are computed using the method of Gu and Eisenstat, which
+ * ensures that they are numerically orthogonal.  The eigenvalues are not sorted.
+ * </p>
+ *
+ * <p>
+ * M. Gu and S. C. Eisenstat, "A divide-and-conquer algorithm for the symmetric tridiagonal eigenproblem,"
+ * SIAM Journal on Matrix Analysis and Applications, 16 (1995)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricDivideConquerAlgorithm_DDRM {
+
+    // Sub-problems with this many rows or fewer are solved directly
+    private int leafSize = 25;
+
+    // maximum number of iterations when solving for a root of the secular equation
+    private static final int MAX_ITERATIONS = 200;
+
+    // size of the tridiagonal matrix
+    private int N;
+    // diagonal and off diagonal elements, scaled
+    private double diag[] = new double[0];
+    private double off[] = new double[0];
+    // eigenvalues of each solved sub-problem, aligned with the columns of Q
+    private double values[] = new double[0];
+
+    // eigenvectors of the tridiagonal matrix. Each sub-problem is stored in a block along the diagonal
+    private DMatrixRMaj Q = new DMatrixRMaj(1,1);
+
+    // solves the leaf problems
+    private SymmetricQREigenHelper_DDRM leafHelper = new SymmetricQREigenHelper_DDRM();
+    private SymmetricQrAlgorithm_DDRM leafAlg = new SymmetricQrAlgorithm_DDRM(leafHelper);
+    private double leafDiag[] = new double[0];
+    private double leafOff[] = new double[0];
+    private DMatrixRMaj leafQ = new DMatrixRMaj(1,1);
+
+    //--------------- Storage for merging. Indexes are relative to the sub-problem
+    // The columns of the merged matrix, sorted by d
+    private int itemCol[] = new int[0];
+    private double itemD[] = new double[0];
+    private double itemZ[] = new double[0];
+    // which blocks in Q have non-zero elements. Bits: 1 = upper, 2 = lower
+    private int itemMask[] = new int[0];
+    // if the eigenvalue is known from deflation
+    private boolean deflated[] = new boolean[0];
+    // number of items which weren't deflated and their index
+    private int K;
+    private int active[] = new int[0];
+
+    // secular equation. Each root is expressed as d[origin] + tau for accuracy
+    private double dk[] = new double[0];
+    private double zk[] = new double[0];
+    private double z2[] = new double[0];
+    private double delta[] = new double[0];
+    private int origin[] = new int[0];
+    private double tau[] = new double[0];
+
+    // eigenvectors of the merged matrix
+    private DMatrixRMaj smallQ = new DMatrixRMaj(1,1);
+
+    // work space for matrix multiplications
+    private DMatrixRMaj gatherA = new DMatrixRMaj(1,1);
+    private DMatrixRMaj gatherB = new DMatrixRMaj(1,1);
+    private DMatrixRMaj product = new DMatrixRMaj(1,1);
+    private DMatrixRMaj savedQ = new DMatrixRMaj(1,1);
+    private int selected[] = new int[0];
+
+    /**
+     * Specifies the size of the largest sub-problem which is solved directly instead of being split.
+     *
+     * @param leafSize Must be at least 1
+     */
+    public void setLeafSize( int leafSize ) {
+        if( leafSize < 1 )
+            throw new IllegalArgumentException("Leaf size must be at least 1");
+        this.leafSize = leafSize;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Computes the eigen decomposition of a symmetric tridiagonal matrix.
+     *
+     * @param diag Diagonal elements.  Not modified.
+     * @param off Off diagonal elements.  Not modified.
+     * @param N Number of rows and columns in the matrix
+     * @return true if successful
+     */
+    public boolean process( double diag[] , double off[] , int N ) {
+        if( N <= 0 )
+            return false;
+        init(N);
+
+        // scale to avoid overflow and underflow when values are squared
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale,Math.abs(diag[i]));
+        }
+        for (int i = 0; i < N-1; i++) {
+            scale = Math.max(scale,Math.abs(off[i]));
+        }
+        if( scale == 0 ) {
+            // matrix is all zeros
+            Arrays.fill(values,0,N,0);
+            CommonOps_DDRM.setIdentity(Q);
+            return true;
+        }
+        for (int i = 0; i < N; i++) {
+            this.diag[i] = diag[i]/scale;
+        }
+        for (int i = 0; i < N-1; i++) {
+            this.off[i] = off[i]/scale;
+        }
+
+        if( !solve(0,N) )
+            return false;
+
+        for (int i = 0; i < N; i++) {
+            values[i] *= scale;
+        }
+        return true;
+    }
+
+    private void init( int N ) {
+        this.N = N;
+        if( diag.length < N ) {
+            diag = new double[N];
+            off = new double[N];
+            values = new double[N];
+            itemCol = new int[N];
+            itemD = new double[N];
+            itemZ = new double[N];
+            itemMask = new int[N];
+            deflated = new boolean[N];
+            active = new int[N];
+            dk = new double[N];
+            zk = new double[N];
+            z2 = new double[N];
+            delta = new double[N];
+            origin = new int[N];
+            tau = new double[N];
+            selected = new int[N];
+        }
+        Q.reshape(N,N);
+        Q.zero();
+    }
+
+    /**
+     * Computes the eigen decomposition of the sub-problem which contains rows and columns first to first+n-1.
+     * The results are written into Q and values.
+     */
+    private boolean solve( int first , int n ) {
+        if( n <= leafSize )
+            return solveLeaf(first, n);
+
+        int nl = n/2;
+
+        // remove the rank one matrix from the diagonal. It's added back in when merging
+        double rho = off[first+nl-1];
+        diag[first+nl-1] -= rho;
+        diag[first+nl] -= rho;
+
+        if( !solve(first,nl) )
+            return false;
+        if( !solve(first+nl,n-nl) )
+            return false;
+
+        merge(first, n, nl, rho);
+        return true;
+    }
+
+    private boolean solveLeaf( int first , int n ) {
+        if( leafDiag.length < n ) {
+            leafDiag = new double[n];
+            leafOff = new double[n];
+        }
+        System.arraycopy(diag,first,leafDiag,0,n);
+        System.arraycopy(off,first,leafOff,0,n-1);
+
+        leafQ.reshape(n,n);
+        CommonOps_DDRM.setIdentity(leafQ);
+        leafHelper.init(leafDiag,leafOff,n);
+        leafHelper.setQ(leafQ);
+        leafAlg.setFastEigenvalues(false);
+
+        if( !leafAlg.process(-1,null,null) )
+            return false;
+
+        // the rows of leafQ are the eigenvectors
+        for (int i = 0; i < n; i++) {
+            values[first+i] = leafDiag[i];
+            for (int j = 0; j < n; j++) {
+                Q.unsafe_set(first+j,first+i,leafQ.data[i*n+j]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges the two sub-problems after the rank one matrix is added back in.  In the basis of the sub-problem's
+     * eigenvectors the matrix is D + &rho;*z*z<sup>T</sup>, where z is the last row of the upper eigenvectors
+     * and the first row of the lower eigenvectors.
+     */
+    private void merge( int first , final int n , final int nl , double rho ) {
+        if( rho == 0 )
+            return;
+
+        // If rho is negative the problem is negated so that the roots are always to the right of the poles
+        double sign = rho < 0 ? -1 : 1;
+        double scaleZ = Math.sqrt(Math.abs(rho));
+
+        int mid = first+nl;
+        for (int c = 0; c < nl; c++) {
+            addItem(c,c,sign*values[first+c],scaleZ*Q.unsafe_get(mid-1,first+c),1);
+        }
+        for (int c = nl; c < n; c++) {
+            addItem(c,c,sign*values[first+c],scaleZ*Q.unsafe_get(mid,first+c),2);
+        }
+
+        sortItems(n);
+        deflate(first,n);
+
+        // columns in the output. The found roots first, then the deflated values
+        K = 0;
+        for (int i = 0; i < n; i++) {
+            if( !deflated[i] )
+                active[K++] = i;
+        }
+
+        // save the columns of the deflated items since they will be overwritten
+        savedQ.reshape(n,n-K);
+        int numSaved = 0;
+        for (int i = 0; i < n; i++) {
+            if( !deflated[i] )
+                continue;
+            copyColumn(Q,first,first+itemCol[i],n,savedQ,0,numSaved);
+            values[first+K+numSaved] = sign*itemD[i];
+            numSaved++;
+        }
+
+        if( K > 0 ) {
+            solveSecular();
+
+            // Eigenvectors of the merged problem times the eigenvectors of the sub-problems
+            computeSmallVectors();
+            multiplyBlock(first,0,nl,1);
+            multiplyBlock(first,nl,n,2);
+            for (int i = 0; i < K; i++) {
+                values[first+i] = sign*(dk[origin[i]] + tau[i]);
+            }
+        }
+
+        // copy the deflated vectors into place
+        for (int i = 0; i < savedQ.numCols; i++) {
+            copyColumn(savedQ,0,i,n,Q,first,first+K+i);
+        }
+    }
+
+    private void addItem( int index , int col , double d , double z , int mask ) {
+        itemCol[index] = col;
+        itemD[index] = d;
+        itemZ[index] = z;
+        itemMask[index] = mask;
+        deflated[index] = false;
+    }
+
+    /**
+     * Sorts the items in increasing order of d with an insertion sort.  The eigenvalues of each sub-problem
+     * are mostly sorted already.
+     */
+    private void sortItems( int numItems ) {
+        for (int i = 1; i < numItems; i++) {
+            double d = itemD[i];
+            if( itemD[i-1] <= d )
+                continue;
+            int col = itemCol[i];
+            double z = itemZ[i];
+            int mask = itemMask[i];
+            int j = i;
+            while( j > 0 && itemD[j-1] > d ) {
+                itemD[j] = itemD[j-1];
+                itemCol[j] = itemCol[j-1];
+                itemZ[j] = itemZ[j-1];
+                itemMask[j] = itemMask[j-1];
+                j--;
+            }
+            itemD[j] = d;
+            itemCol[j] = col;
+            itemZ[j] = z;
+            itemMask[j] = mask;
+        }
+    }
+
+    /**
+     * Looks for eigenvalues which can be found without solving the secular equation.  Rotations are applied
+     * to the eigenvectors so that the merged matrix still has the same structure.
+     */
+    private void deflate( int first , int n ) {
+        double maxValue = 0;
+        for (int i = 0; i < n; i++) {
+            maxValue = Math.max(maxValue,Math.max(Math.abs(itemD[i]),Math.abs(itemZ[i])));
+        }
+        double tol = 8.0*UtilEjml.EPS*maxValue;
+
+        int prev = -1;
+        for (int i = 0; i < n; i++) {
+            if( Math.abs(itemZ[i]) <= tol ) {
+                deflated[i] = true;
+            } else if( prev != -1 && itemD[i]-itemD[prev] <= tol ) {
+                // Almost identical eigenvalues. Rotate the two eigenvectors so that z for the previous
+                // item becomes zero
+                double za = itemZ[prev], zb = itemZ[i];
+                double r = hypot(za,zb);
+                double c = zb/r, s = za/r;
+                rotateColumns(Q,first,first+n,first+itemCol[i],first+itemCol[prev],c,s);
+                itemZ[i] = r;
+                itemMask[i] |= itemMask[prev];
+                itemMask[prev] |= itemMask[i];
+                deflated[prev] = true;
+                prev = i;
+            } else {
+                prev = i;
+            }
+        }
+    }
+
+    /**
+     * Finds the eigenvalues of the merged matrix.  They are the roots of the secular equation:<br>
+     * f(&lambda;) = 1 + &sum;<sub>j</sub> z<sub>j</sub><sup>2</sup>/(d<sub>j</sub> - &lambda;)<br>
+     * where each root lies between two consecutive values of d, or to the right of the largest.
+     */
+    private void solveSecular() {
+        for (int i = 0; i < K; i++) {
+            dk[i] = itemD[active[i]];
+            zk[i] = itemZ[active[i]];
+            z2[i] = zk[i]*zk[i];
+        }
+
+        if( K == 1 ) {
+            origin[0] = 0;
+            tau[0] = z2[0];
+            return;
+        }
+
+        for (int i = 0; i < K; i++) {
+            solveRoot(i);
+        }
+
+        // Recompute z so that the found eigenvalues are exact for a nearby matrix. This keeps
+        // the eigenvectors orthogonal. Gu and Eisenstat
+        for (int j = 0; j < K; j++) {
+            double prod = -difference(j,K-1);
+            for (int k = 0; k < j; k++) {
+                prod *= -difference(j,k)/(dk[k]-dk[j]);
+            }
+            for (int k = j; k < K-1; k++) {
+                prod *= -difference(j,k)/(dk[k+1]-dk[j]);
+            }
+            double z = Math.sqrt(Math.abs(prod));
+            zk[j] = zk[j] < 0 ? -z : z;
+        }
+    }
+
+    /**
+     * Computes d[j] - &lambda;[i] without cancellation
+     */
+    private double difference( int j , int i ) {
+        return (dk[j]-dk[origin[i]])-tau[i];
+    }
+
+    /**
+     * Solves for the i-th root.  The unknown is t = &lambda; - d<sub>o</sub> where o is the closest pole.
+     * Each step fits a rational function with poles at d<sub>i</sub> and d<sub>i+1</sub> to the current
+     * value and derivative, and bisection is used if the step leaves the bracket.
+     */
+    private void solveRoot( int i ) {
+        int o;
+        double lo, hi;
+        if( i < K-1 ) {
+            double mid = (dk[i+1]-dk[i])/2.0;
+            // which pole is the root closest to?
+            double f = 1;
+            for (int j = 0; j < K; j++) {
+                f += z2[j]/((dk[j]-dk[i]) - mid);
+            }
+            if( f >= 0 ) {
+                o = i; lo = 0; hi = mid;
+            } else {
+                o = i+1; lo = -mid; hi = 0;
+            }
+        } else {
+            o = i; lo = 0; hi = 0;
+            for (int j = 0; j < K; j++) {
+                hi += z2[j];
+            }
+        }
+        for (int j = 0; j < K; j++) {
+            delta[j] = dk[j]-dk[o];
+        }
+
+        double t = (lo+hi)/2.0;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            double psi = 0, dpsi = 0, phi = 0, dphi = 0, error = 0;
+            for (int j = 0; j <= i; j++) {
+                double den = delta[j]-t;
+                double term = z2[j]/den;
+                psi += term;
+                dpsi += term/den;
+                error += Math.abs(term);
+            }
+            for (int j = i+1; j < K; j++) {
+                double den = delta[j]-t;
+                double term = z2[j]/den;
+                phi += term;
+                dphi += term/den;
+                error += Math.abs(term);
+            }
+            double w = 1 + psi + phi;
+
+            if( w == 0 )
+                break;
+            else if( w > 0 )
+                hi = t;
+            else
+                lo = t;
+
+            if( Math.abs(w) <= 8.0*UtilEjml.EPS*(1+error) ||
+                    hi-lo <= 2.0*UtilEjml.EPS*Math.max(Math.abs(lo),Math.abs(hi)) )
+                break;
+
+            double next;
+            if( i < K-1 ) {
+                double dl = delta[i]-t, du = delta[i+1]-t;
+                double a = (dl+du)*w - dl*du*(dpsi+dphi);
+                double b = dl*du*w;
+                double c = w - dl*dpsi - du*dphi;
+                double disc = Math.sqrt(Math.abs(a*a-4.0*b*c));
+                double eta;
+                if( c == 0 )
+                    eta = b/a;
+                else if( a <= 0 )
+                    eta = (a-disc)/(2.0*c);
+                else
+                    eta = 2.0*b/(a+disc);
+                next = t + eta;
+            } else {
+                // all the poles are to the left, model them as a single pole
+                double du = delta[i]-t;
+                next = t + du + du*du*(dpsi+dphi)/(w-du*(dpsi+dphi));
+            }
+
+            if( !(next > lo && next < hi) )
+                next = (lo+hi)/2.0;
+            t = next;
+        }
+
+        origin[i] = o;
+        tau[i] = t;
+    }
+
+    /**
+     * Computes the eigenvectors of the merged matrix.  Row 'j' corresponds to active item 'j'.
+     */
+    private void computeSmallVectors() {
+        smallQ.reshape(K,K);
+
+        if( K == 1 ) {
+            smallQ.data[0] = 1;
+            return;
+        }
+
+        for (int i = 0; i < K; i++) {
+            double norm = 0;
+            for (int j = 0; j < K; j++) {
+                double v = zk[j]/difference(j,i);
+                smallQ.data[j*K+i] = v;
+                norm += v*v;
+            }
+            norm = Math.sqrt(norm);
+            for (int j = 0; j < K; j++) {
+                smallQ.data[j*K+i] /= norm;
+            }
+        }
+    }
+
+    /**
+     * Multiplies a block of rows in the sub-problem's eigenvectors by the merged eigenvectors. Only
+     * items with non-zero elements in the block are included. The results are written to the first K columns.
+     *
+     * @param row0 First row in the block, relative to the sub-problem
+     * @param row1 Last row in the block, exclusive
+     * @param bit Which bit in the mask indicates the item has non-zero elements in this block
+     */
+    private void multiplyBlock( int first , int row0 , int row1 , int bit ) {
+        int numRows = row1-row0;
+        int numSelected = 0;
+        for (int i = 0; i < K; i++) {
+            if( (itemMask[active[i]] & bit) != 0 )
+                selected[numSelected++] = i;
+        }
+
+        // sub-problem eigenvectors for the selected items
+        gatherA.reshape(numRows,numSelected);
+        for (int row = 0; row < numRows; row++) {
+            int indexQ = (first+row0+row)*Q.numCols + first;
+            int indexA = row*numSelected;
+            for (int i = 0; i < numSelected; i++) {
+                gatherA.data[indexA+i] = Q.data[indexQ+itemCol[active[selected[i]]]];
+            }
+        }
+        // corresponding rows in the merged eigenvectors
+        gatherB.reshape(numSelected,K);
+        for (int i = 0; i < numSelected; i++) {
+            System.arraycopy(smallQ.data,selected[i]*K,gatherB.data,i*K,K);
+        }
+
+        product.reshape(numRows,K);
+        if( numSelected == 0 )
+            product.zero();
+        else
+            CommonOps_DDRM.mult(gatherA,gatherB,product);
+
+        for (int row = 0; row < numRows; row++) {
+            System.arraycopy(product.data,row*K,Q.data,(first+row0+row)*Q.numCols+first,K);
+        }
+    }
+
+    /**
+     * Applies a rotation to two columns: a' = c*a + s*b and b' = c*b - s*a
+     */
+    private static void rotateColumns( DMatrixRMaj Q , int row0 , int row1 , int colA , int colB ,
+                                       double c , double s ) {
+        for (int row = row0; row < row1; row++) {
+            int index = row*Q.numCols;
+            double a = Q.data[index+colA];
+            double b = Q.data[index+colB];
+            Q.data[index+colA] = c*a + s*b;
+            Q.data[index+colB] = c*b - s*a;
+        }
+    }
+
+    private static void copyColumn( DMatrixRMaj src , int row0 , int srcCol , int numRows ,
+                                    DMatrixRMaj dst , int dstRow0 , int dstCol ) {
+        for (int row = 0; row < numRows; row++) {
+            dst.data[(dstRow0+row)*dst.numCols+dstCol] = src.data[(row0+row)*src.numCols+srcCol];
+        }
+    }
+
+    private static double hypot( double a , double b ) {
+        double max = Math.max(Math.abs(a),Math.abs(b));
+        if( max == 0 )
+            return 0;
+        a /= max;
+        b /= max;
+        double r = Math.sqrt(a*a+b*b);
+        return max*r;
+    }
+
+    /**
+     * Returns the eigenvalues.  They are not sorted.
+     */
+    public double[] getEigenvalues() {
+        return values;
+    }
+
+    public int getNumberOfEigenvalues() {
+        return N;
+    }
+
+    /**
+     * Returns the eigenvectors of the tridiagonal matrix.  Each column is an eigenvector.
+     */
+    public DMatrixRMaj getQ() {
+        return Q;
+    }
+}
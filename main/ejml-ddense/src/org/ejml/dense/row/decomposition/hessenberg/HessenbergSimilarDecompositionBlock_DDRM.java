@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.hessenberg;
+
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DSubmatrixD1;
+import org.ejml.dense.block.decomposition.qr.BlockHouseHolder_DDRB;
+import org.ejml.dense.row.decomposition.UtilDecompositons_DDRM;
+import org.ejml.dense.row.decomposition.qr.QrHelperFunctions_DDRM;
+
+/**
+ * <p>
+ * Blocked version of {@link HessenbergSimilarDecomposition_DDRM}.  The reflectors are computed one panel of
+ * columns at a time and are then applied to the rest of the matrix together, using the compact WY representation
+ * Q = I + W*Y<sup>T</sup> from {@link BlockHouseHolder_DDRB}.  Most of the work is done in the trailing update,
+ * which is a matrix multiplication, instead of one rank-1 update per reflector.
+ * </p>
+ *
+ * <p>
+ * Inside the panel the reflectors haven't been applied yet to the columns to the right.  To compute the next
+ * reflector its column is updated from both sides, which requires A*W.  A*W is built up one column at a time as
+ * each reflector is found.  The results are stored in the same format as {@link HessenbergSimilarDecomposition_DDRM}
+ * and the last columns are reduced one at a time.
+ * </p>
+ *
+ * <p>
+ * Y and W are a single block wide, in which case the block format has the same layout as a row major matrix.
+ * </p>
+ *
+ * <p>
+ * G. Quintana-Ort&iacute; and R. van de Geijn, "Improving the performance of reduction to Hessenberg form,"
+ * ACM Trans. Math. Softw. 32(2), 2006
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class HessenbergSimilarDecompositionBlock_DDRM extends HessenbergSimilarDecomposition_DDRM {
+
+    // width of the square tiles the trailing matrix is updated in
+    private static final int TILE = 64;
+
+    // number of columns in a panel
+    protected int blockLength;
+    // number of columns which were reduced with panels
+    protected int numBlocked;
+
+    // householder vectors and W for the current panel
+    protected DMatrixRBlock Y = new DMatrixRBlock(1,1,1);
+    protected DMatrixRBlock W = new DMatrixRBlock(1,1,1);
+    protected DSubmatrixD1 subY = new DSubmatrixD1();
+    protected DSubmatrixD1 subW = new DSubmatrixD1();
+
+    // A*W for the current panel
+    protected DMatrixRMaj AW = new DMatrixRMaj(1,1);
+    // W^T*A or Y^T*Q for the trailing update
+    protected DMatrixRMaj WA = new DMatrixRMaj(1,1);
+    // Y^T*v and W^T*x
+    protected double temp[] = new double[1];
+
+    /**
+     * @param blockLength Number of columns in a panel
+     * @param initialSize Expected size of the matrices it will decompose.
+     */
+    public HessenbergSimilarDecompositionBlock_DDRM(int blockLength , int initialSize ) {
+        super(initialSize);
+        this.blockLength = blockLength;
+    }
+
+    public HessenbergSimilarDecompositionBlock_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH,5);
+    }
+
+    @Override
+    protected boolean _decompose() {
+        if( temp.length < blockLength )
+            temp = new double[blockLength];
+
+        // once the trailing matrix is small the unblocked algorithm is faster
+        int i = 0;
+        while( N-1-i > 2*blockLength ) {
+            decomposePanel(i);
+            i += blockLength;
+        }
+        numBlocked = i;
+
+        decomposeColumns(i);
+        return true;
+    }
+
+    /**
+     * Reduces the columns i to i+blockLength-1 and then applies the reflectors to the trailing columns.
+     */
+    protected void decomposePanel( int i ) {
+        final int nb = blockLength;
+        final int n = N-i-1;
+        final double h[] = QH.data;
+
+        declarePanel(n);
+        AW.reshape(N,nb,false);
+        final double y[] = Y.data;
+        final double w[] = W.data;
+        final double aw[] = AW.data;
+
+        for( int j = 0; j < nb; j++ ) {
+            int c = i+j;
+
+            if( j > 0 ) {
+                // apply the previous reflectors in the panel to column c from the right
+                // A(:,c) += A*W*Y(c,:)^T
+                int indexY = (j-1)*nb;
+                for( int r = 0; r < N; r++ ) {
+                    double sum = 0;
+                    int indexAW = r*nb;
+                    for( int k = 0; k < j; k++ ) {
+                        sum += aw[indexAW+k]*y[indexY+k];
+                    }
+                    h[r*N+c] += sum;
+                }
+
+                // and from the left.  A(i+1:,c) += Y*W^T*A(i+1:,c)
+                for( int k = 0; k < j; k++ ) {
+                    temp[k] = 0;
+                }
+                for( int r = 0; r < n; r++ ) {
+                    double x = h[(i+1+r)*N+c];
+                    int indexW = r*nb;
+                    for( int k = 0; k < j; k++ ) {
+                        temp[k] += w[indexW+k]*x;
+                    }
+                }
+                for( int r = 0; r < n; r++ ) {
+                    double sum = 0;
+                    int indexYr = r*nb;
+                    for( int k = 0; k < j; k++ ) {
+                        sum += y[indexYr+k]*temp[k];
+                    }
+                    h[(i+1+r)*N+c] += sum;
+                }
+            }
+
+            if( !computeReflector(c) ) {
+                // gamma is zero so the reflector is the identity matrix
+                for( int r = c+1; r < N; r++ ) {
+                    u[r] = 0;
+                }
+                u[c+1] = 1;
+            }
+            double gamma = gammas[c];
+
+            // the leading zeros and one are written too so that Y can be used in a matrix multiplication
+            for( int r = 0; r < n; r++ ) {
+                y[r*nb+j] = r < j ? 0 : u[i+1+r];
+            }
+
+            // add the reflector to W
+            if( j == 0 ) {
+                BlockHouseHolder_DDRB.initializeW(nb,subW,subY,nb,gamma);
+            } else {
+                BlockHouseHolder_DDRB.computeY_t_V(nb,subY,j,temp);
+                BlockHouseHolder_DDRB.computeZ(nb,subY,subW,j,temp,gamma);
+            }
+
+            // A*W(:,j) = -gamma*(A*v + A*W(:,0:j-1)*Y^T*v).  A*v only involves the columns after c,
+            // which haven't been modified yet
+            for( int r = 0; r < N; r++ ) {
+                int indexA = r*N;
+                double sum = h[indexA+c+1];
+                for( int q = c+2; q < N; q++ ) {
+                    sum += h[indexA+q]*u[q];
+                }
+                int indexAW = r*nb;
+                for( int k = 0; k < j; k++ ) {
+                    sum += aw[indexAW+k]*temp[k];
+                }
+                aw[indexAW+j] = -gamma*sum;
+            }
+        }
+
+        final int col0 = i+nb;
+        final int numCols = N-col0;
+
+        // A(:,col0:) = A(:,col0:) + A*W*Y(col0:,:)^T
+        // processed in square tiles so that the rows of A*W and Y being used stay in the cache
+        for( int r0 = 0; r0 < N; r0 += TILE ) {
+            int r1 = Math.min(N,r0+TILE);
+            for( int q0 = 0; q0 < numCols; q0 += TILE ) {
+                int q1 = Math.min(numCols,q0+TILE);
+                for( int r = r0; r < r1; r++ ) {
+                    int indexAW = r*nb;
+                    int indexA = r*N+col0;
+                    for( int q = q0; q < q1; q++ ) {
+                        int indexY = (col0-i-1+q)*nb;
+                        double sum = 0;
+                        for( int k = 0; k < nb; k++ ) {
+                            sum += aw[indexAW+k]*y[indexY+k];
+                        }
+                        h[indexA+q] += sum;
+                    }
+                }
+            }
+        }
+
+        // A(i+1:,col0:) = A(i+1:,col0:) + Y*(W^T*A(i+1:,col0:))
+        WA.reshape(nb,numCols,false);
+        WA.zero();
+        multTransA_panel(w,nb,n,h,(i+1)*N+col0,numCols,WA.data);
+        multAdd_panel(y,nb,n,WA.data,numCols,h,(i+1)*N+col0);
+    }
+
+    /**
+     * An orthogonal matrix that has the following property: H = Q<sup>T</sup>AQ
+     *
+     * @param Q If not null then the results will be stored here.  Otherwise a new matrix will be created.
+     * @return The extracted Q matrix.
+     */
+    @Override
+    public DMatrixRMaj getQ( DMatrixRMaj Q ) {
+        Q = UtilDecompositons_DDRM.checkIdentity(Q,N,N);
+
+        // columns which were reduced one at a time
+        for( int j = N-2; j >= numBlocked; j-- ) {
+            u[j+1] = 1;
+            for( int i = j+2; i < N; i++ ) {
+                u[i] = QH.get(i,j);
+            }
+            QrHelperFunctions_DDRM.rank1UpdateMultR(Q, u, gammas[j], j + 1, j + 1, N, b);
+        }
+
+        // Q = (I + W*Y^T)*Q for each panel in reverse order
+        final int nb = blockLength;
+        for( int i = numBlocked-nb; i >= 0; i -= nb ) {
+            int n = N-i-1;
+            declarePanel(n);
+
+            double y[] = Y.data;
+            for( int r = 0; r < n; r++ ) {
+                for( int j = 0; j < nb; j++ ) {
+                    y[r*nb+j] = r < j ? 0 : (r == j ? 1 : QH.data[(i+1+r)*N+i+j]);
+                }
+            }
+            BlockHouseHolder_DDRB.computeW_Column(nb,subY,subW,temp,gammas,i);
+
+            // columns before i+1 of Q are still the identity matrix
+            WA.reshape(nb,n,false);
+            WA.zero();
+            multTransA_panel(y,nb,n,Q.data,(i+1)*N+i+1,n,WA.data);
+            multAdd_panel(W.data,nb,n,WA.data,n,Q.data,(i+1)*N+i+1);
+        }
+
+        return Q;
+    }
+
+    private void declarePanel( int n ) {
+        Y.reshape(n,blockLength,blockLength,false);
+        W.reshape(n,blockLength,blockLength,false);
+        subY.set(Y);
+        subW.set(W);
+    }
+
+    /**
+     * C = C + P<sup>T</sup>*B, where P is a n by nb row major panel and B is a submatrix of the N by N matrix
+     * stored in 'b' starting at 'indexB'.  C is nb by numCols.
+     */
+    private void multTransA_panel( double p[] , int nb , int n ,
+                                   double b[] , int indexB , int numCols , double c[] ) {
+        for( int r0 = 0; r0 < n; r0 += TILE ) {
+            int r1 = Math.min(n,r0+TILE);
+            for( int q0 = 0; q0 < numCols; q0 += TILE ) {
+                int q1 = Math.min(numCols,q0+TILE);
+                for( int r = r0; r < r1; r++ ) {
+                    int rowB = indexB + r*N;
+                    for( int k = 0; k < nb; k++ ) {
+                        double val = p[r*nb+k];
+                        if( val == 0 )
+                            continue;
+                        int indexC = k*numCols;
+                        for( int q = q0; q < q1; q++ ) {
+                            c[indexC+q] += val*b[rowB+q];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * B = B + P*C, where P is a n by nb row major panel, C is nb by numCols, and B is a submatrix of the N by N
+     * matrix stored in 'b' starting at 'indexB'.
+     */
+    private void multAdd_panel( double p[] , int nb , int n ,
+                                double c[] , int numCols , double b[] , int indexB ) {
+        for( int r0 = 0; r0 < n; r0 += TILE ) {
+            int r1 = Math.min(n,r0+TILE);
+            for( int q0 = 0; q0 < numCols; q0 += TILE ) {
+                int q1 = Math.min(numCols,q0+TILE);
+                for( int r = r0; r < r1; r++ ) {
+                    int rowB = indexB + r*N;
+                    for( int k = 0; k < nb; k++ ) {
+                        double val = p[r*nb+k];
+                        if( val == 0 )
+                            continue;
+                        int indexC = k*numCols;
+                        for( int q = q0; q < q1; q++ ) {
+                            b[rowB+q] += val*c[indexC+q];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public int getBlockLength() {
+        return blockLength;
+    }
+}
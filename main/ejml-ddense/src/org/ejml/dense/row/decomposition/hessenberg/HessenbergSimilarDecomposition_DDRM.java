@@ -48,15 +48,15 @@ import org.ejml.interfaces.decomposition.DecompositionInterface;
 public class HessenbergSimilarDecomposition_DDRM
         implements DecompositionInterface<DMatrixRMaj> {
     // A combined matrix that stores te upper Hessenberg matrix and the orthogonal matrix.
-    private DMatrixRMaj QH;
+    protected DMatrixRMaj QH;
     // number of rows and columns of the matrix being decompose
-    private int N;
+    protected int N;
 
     // the first element in the orthogonal vectors
-    private double gammas[];
+    protected double gammas[];
     // temporary storage
-    private double b[];
-    private double u[];
+    protected double b[];
+    protected double u[];
 
     /**
      * Creates a decomposition that won't need to allocate new memory if it is passed matrices up to
@@ -158,67 +158,89 @@ public class HessenbergSimilarDecomposition_DDRM
     /**
      * Internal function for computing the decomposition.
      */
-    private boolean _decompose() {
-        double h[] = QH.data;
-
-        for( int k = 0; k < N-2; k++ ) {
-            // find the largest value in this column
-            // this is used to normalize the column and mitigate overflow/underflow
-            double max = 0;
-
-            for( int i = k+1; i < N; i++ ) {
-                // copy the householder vector to vector outside of the matrix to reduce caching issues
-                // big improvement on larger matrices and a relatively small performance hit on small matrices.
-                double val = u[i] = h[i*N+k];
-                val = Math.abs(val);
-                if( val > max )
-                    max = val;
-            }
+    protected boolean _decompose() {
+        decomposeColumns(0);
+        return true;
+    }
 
-            if( max > 0 ) {
-                // -------- set up the reflector Q_k
+    /**
+     * Reduces the columns from 'start' to the end one at a time.  The columns before 'start' must have already
+     * been reduced and their reflectors applied to the whole matrix.
+     */
+    protected void decomposeColumns( int start ) {
+        for( int k = start; k < N-2; k++ ) {
+            if( computeReflector(k) ) {
+                double gamma = gammas[k];
 
-                double tau = 0;
-                // normalize to reduce overflow/underflow
-                // and compute tau for the reflector
-                for( int i = k+1; i < N; i++ ) {
-                    double val = u[i] /= max;
-                    tau += val*val;
-                }
+                // ---------- multiply on the left by Q_k
+                QrHelperFunctions_DDRM.rank1UpdateMultR(QH, u, gamma, k + 1, k + 1, N, b);
 
-                tau = Math.sqrt(tau);
+                // ---------- multiply on the right by Q_k
+                QrHelperFunctions_DDRM.rank1UpdateMultL(QH, u, gamma, 0, k + 1, N);
+            }
+        }
+        // the last column doesn't have a reflector. might contain a value from a larger matrix
+        if( N >= 2 )
+            gammas[N-2] = 0;
+    }
 
-                if( u[k+1] < 0 )
-                    tau = -tau;
+    /**
+     * Computes the householder reflector which zeros the elements below the sub-diagonal in column k.  The
+     * reflector is written into u and the lower part of the column, and gamma into gammas[k].  The reflector
+     * is not applied to the rest of the matrix.
+     *
+     * @return false if the column is already zero and no reflector is needed
+     */
+    protected boolean computeReflector( int k ) {
+        double h[] = QH.data;
 
-                // write the reflector into the lower left column of the matrix
-                double nu = u[k+1] + tau;
-                u[k+1] = 1.0;
+        // find the largest value in this column
+        // this is used to normalize the column and mitigate overflow/underflow
+        double max = 0;
+
+        for( int i = k+1; i < N; i++ ) {
+            // copy the householder vector to vector outside of the matrix to reduce caching issues
+            // big improvement on larger matrices and a relatively small performance hit on small matrices.
+            double val = u[i] = h[i*N+k];
+            val = Math.abs(val);
+            if( val > max )
+                max = val;
+        }
 
-                for( int i = k+2; i < N; i++ ) {
-                    h[i*N+k] = u[i] /= nu;
-                }
+        if( max > 0 ) {
+            // -------- set up the reflector Q_k
 
-                double gamma = nu/tau;
-                gammas[k] = gamma;
+            double tau = 0;
+            // normalize to reduce overflow/underflow
+            // and compute tau for the reflector
+            for( int i = k+1; i < N; i++ ) {
+                double val = u[i] /= max;
+                tau += val*val;
+            }
 
-                // ---------- multiply on the left by Q_k
-                QrHelperFunctions_DDRM.rank1UpdateMultR(QH, u, gamma, k + 1, k + 1, N, b);
+            tau = Math.sqrt(tau);
 
-                // ---------- multiply on the right by Q_k
-                QrHelperFunctions_DDRM.rank1UpdateMultL(QH, u, gamma, 0, k + 1, N);
+            if( u[k+1] < 0 )
+                tau = -tau;
 
-                // since the first element in the householder vector is known to be 1
-                // store the full upper hessenberg
-                h[(k+1)*N+k] = -tau*max;
+            // write the reflector into the lower left column of the matrix
+            double nu = u[k+1] + tau;
+            u[k+1] = 1.0;
 
-            } else {
-                gammas[k] = 0;
+            for( int i = k+2; i < N; i++ ) {
+                h[i*N+k] = u[i] /= nu;
             }
 
-        }
+            gammas[k] = nu/tau;
 
-        return true;
+            // since the first element in the householder vector is known to be 1
+            // store the full upper hessenberg.  The column isn't modified by the reflector.
+            h[(k+1)*N+k] = -tau*max;
+            return true;
+        } else {
+            gammas[k] = 0;
+            return false;
+        }
     }
 
     public double[] getGammas() {
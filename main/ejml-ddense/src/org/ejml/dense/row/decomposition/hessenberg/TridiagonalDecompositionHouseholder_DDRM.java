@@ -149,6 +149,28 @@ public class TridiagonalDecompositionHouseholder_DDRM
         return Q;
     }
 
+    /**
+     * Multiplies the provided matrix by Q<sup>T</sup>, X = X*Q<sup>T</sup>, by applying the householder
+     * reflectors directly.  If each row in X is a vector in the tridiagonal matrix's basis then they are converted
+     * into the original matrix's basis.  Much faster than computing Q when X has only a few rows.
+     *
+     * @param X Matrix with N columns.  Modified.
+     */
+    public void multTransQ( DMatrixRMaj X ) {
+        if( X.numCols != N )
+            throw new IllegalArgumentException("X must have the same number of columns as the decomposed matrix");
+
+        for( int i = 0; i < N; i++ ) w[i] = 0;
+
+        for( int j = N-2; j >= 0; j-- ) {
+            w[j+1] = 1;
+            for( int i = j+2; i < N; i++ ) {
+                w[i] = QT.data[j*N+i];
+            }
+            QrHelperFunctions_DDRM.rank1UpdateMultL(X, w, gammas[j + 1], 0, j + 1, N);
+        }
+    }
+
     /**
      * Decomposes the provided symmetric matrix.
      *
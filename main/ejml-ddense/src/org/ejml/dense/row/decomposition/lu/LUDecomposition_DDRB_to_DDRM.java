@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionOuterForm_DDRB;
+import org.ejml.dense.block.decomposition.lu.LUDecompositionOuterForm_MT_DDRB;
+
+
+/**
+ * <p>
+ * Wrapper around {@link LUDecompositionOuterForm_DDRB} that allows it to process DMatrixRMaj.  The LU matrix
+ * is converted into a block format in-place, decomposed, then converted back.  Since the results are
+ * stored the same way as in {@link LUDecompositionAlt_DDRM} it can be used by the same linear solvers.
+ * </p>
+ *
+ * <p>
+ * For large matrices this is much faster than the row major algorithms since it is cache friendly.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LUDecomposition_DDRB_to_DDRM extends LUDecompositionBase_DDRM {
+
+    protected LUDecompositionOuterForm_DDRB alg;
+
+    protected double[]tmp;
+    protected DMatrixRBlock Ablock = new DMatrixRBlock();
+    protected int blockLength;
+
+    public LUDecomposition_DDRB_to_DDRM() {
+        this(EjmlParameters.BLOCK_WIDTH);
+    }
+
+    public LUDecomposition_DDRB_to_DDRM(int blockLength) {
+        this(EjmlConcurrency.isUseConcurrent() ? new LUDecompositionOuterForm_MT_DDRB() :
+                new LUDecompositionOuterForm_DDRB(), blockLength);
+    }
+
+    public LUDecomposition_DDRB_to_DDRM(LUDecompositionOuterForm_DDRB alg, int blockLength) {
+        this.alg = alg;
+        this.blockLength = blockLength;
+    }
+
+    @Override
+    public boolean decompose(DMatrixRMaj a) {
+        decomposeCommonInit(a);
+
+        Ablock.numRows = m;
+        Ablock.numCols = n;
+        Ablock.blockLength = blockLength;
+        Ablock.data = dataLU;
+
+        int tmpLength = Math.min( blockLength , m ) * n;
+
+        if( tmp == null || tmp.length < tmpLength )
+            tmp = new double[ tmpLength ];
+
+        MatrixOps_DDRB.convertRowToBlock(m,n,blockLength,dataLU,tmp);
+        boolean ret = alg.decompose(Ablock);
+        MatrixOps_DDRB.convertBlockToRow(m,n,blockLength,dataLU,tmp);
+
+        // copy the row interchanges into the format used by the row major algorithms
+        int N = Math.min(m,n);
+        System.arraycopy(alg.getIndx(),0,indx,0,N);
+        for( int i = N; i < n; i++ ) {
+            indx[i] = i;
+        }
+        System.arraycopy(alg.getPivot(),0,pivot,0,m);
+        pivsign = alg.getPivotSign();
+
+        return ret;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+/**
+ * <p>
+ * Provides the rows of a matrix in order, a block at a time.  Used by algorithms which only need to pass over the
+ * matrix a few times and don't need random access, which allows matrices that don't fit in the Java heap to be
+ * processed.  For example, the matrix could be stored in a file and read one block at a time.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface RowBlockSource_F64 {
+
+    /**
+     * Moves back to the first row.  Called before each pass over the matrix.
+     */
+    void reset();
+
+    /**
+     * Reads the next rows in the matrix.
+     *
+     * @param data (Output) The rows are written here in row-major format, starting at index 0.
+     * @param maxRows The maximum number of rows which can be read.  data is at least maxRows*getNumCols() long.
+     * @return The number of rows which were read.  Zero when all the rows have been read.
+     */
+    int read( double data[] , int maxRows );
+
+    /**
+     * Number of rows in the matrix
+     */
+    int getNumRows();
+
+    /**
+     * Number of columns in the matrix
+     */
+    int getNumCols();
+}
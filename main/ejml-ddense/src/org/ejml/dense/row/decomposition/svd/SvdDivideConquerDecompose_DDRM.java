@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.bidiagonal.BidiagonalDecompositionRow_DDRM;
+import org.ejml.dense.row.decomposition.qr.QrHelperFunctions_DDRM;
+import org.ejml.dense.row.decomposition.svd.divconq.SvdDivideConquerAlgorithm_DDRM;
+import org.ejml.dense.row.decomposition.svd.implicitqr.SvdImplicitQrAlgorithm_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+
+/**
+ * <p>
+ * Computes the Singular value decomposition of a matrix using divide and conquer.  First the matrix is transformed
+ * to a bidiagonal form A=U<sub>b</sub>*B*V<sub>b</sub><sup>T</sup>, then the SVD of B is found using
+ * {@link SvdDivideConquerAlgorithm_DDRM}.  Finally the householder reflectors from the bidiagonal decomposition
+ * are applied to the singular vectors of B.
+ * </p>
+ *
+ * <p>
+ * For large matrices this is faster than {@link SvdImplicitQrDecompose_DDRM} when singular vectors are
+ * requested, since the implicit QR algorithm applies one rotation at a time to the singular vectors.  If only
+ * the singular values are needed then the implicit QR algorithm is used instead.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdDivideConquerDecompose_DDRM implements SingularValueDecomposition_F64<DMatrixRMaj> {
+
+    private int numRows;
+    private int numCols;
+
+    // dimensions of transposed matrix
+    private int numRowsT;
+    private int numColsT;
+
+    private BidiagonalDecompositionRow_DDRM bidiag = new BidiagonalDecompositionRow_DDRM();
+    private SvdDivideConquerAlgorithm_DDRM dcalg = new SvdDivideConquerAlgorithm_DDRM();
+    private SvdImplicitQrAlgorithm_DDRM qralg = new SvdImplicitQrAlgorithm_DDRM();
+
+    double diag[];
+    double off[];
+
+    private DMatrixRMaj Ut;
+    private DMatrixRMaj Vt;
+
+    // work space
+    private DMatrixRMaj tmp = new DMatrixRMaj(1,1);
+    private double u[];
+
+    private double singularValues[];
+    private int numSingular;
+
+    // compute a compact SVD
+    private boolean compact;
+    // What is actually computed
+    private boolean computeU;
+    private boolean computeV;
+
+    // What the user requested to be computed
+    // If the transpose is computed instead then what is actually computed is swapped
+    private boolean prefComputeU;
+    private boolean prefComputeV;
+
+    // Should it compute the transpose instead
+    private boolean transposed;
+
+    // Either a copy of the input matrix or a copy of it transposed
+    private DMatrixRMaj A_mod = new DMatrixRMaj(1,1);
+
+    /**
+     * Configures the class
+     *
+     * @param compact Compute a compact SVD
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     */
+    public SvdDivideConquerDecompose_DDRM(boolean compact, boolean computeU, boolean computeV)
+    {
+        this.compact = compact;
+        this.prefComputeU = computeU;
+        this.prefComputeV = computeV;
+    }
+
+    @Override
+    public double[] getSingularValues() {
+        return singularValues;
+    }
+
+    @Override
+    public int numberOfSingularValues() {
+        return numSingular;
+    }
+
+    @Override
+    public boolean isCompact() {
+        return compact;
+    }
+
+    @Override
+    public DMatrixRMaj getU(DMatrixRMaj U , boolean transpose) {
+        if( !prefComputeU )
+            throw new IllegalArgumentException("As requested U was not computed.");
+        if( transpose ) {
+            if( U == null )
+                return Ut;
+            else if( U.numRows != Ut.numRows || U.numCols != Ut.numCols )
+                throw new IllegalArgumentException("Unexpected shape of U");
+
+            U.set(Ut);
+        } else {
+            if( U == null )
+                U = new DMatrixRMaj(Ut.numCols,Ut.numRows);
+            else if( U.numRows != Ut.numCols || U.numCols != Ut.numRows )
+                throw new IllegalArgumentException("Unexpected shape of U");
+
+            CommonOps_DDRM.transpose(Ut,U);
+        }
+
+        return U;
+    }
+
+    @Override
+    public DMatrixRMaj getV(DMatrixRMaj V , boolean transpose ) {
+        if( !prefComputeV )
+            throw new IllegalArgumentException("As requested V was not computed.");
+        if( transpose ) {
+            if( V == null )
+                return Vt;
+            else if( V.numRows != Vt.numRows || V.numCols != Vt.numCols )
+                throw new IllegalArgumentException("Unexpected shape of V");
+
+            V.set(Vt);
+        } else {
+            if( V == null )
+                V = new DMatrixRMaj(Vt.numCols,Vt.numRows);
+            else if( V.numRows != Vt.numCols || V.numCols != Vt.numRows )
+                throw new IllegalArgumentException("Unexpected shape of V");
+            CommonOps_DDRM.transpose(Vt,V);
+        }
+
+        return V;
+    }
+
+    @Override
+    public DMatrixRMaj getW(DMatrixRMaj W ) {
+        int m = compact ? numSingular : numRows;
+        int n = compact ? numSingular : numCols;
+
+        if( W == null )
+            W = new DMatrixRMaj(m,n);
+        else {
+            W.reshape(m,n, false);
+            W.zero();
+        }
+
+        for( int i = 0; i < numSingular; i++ ) {
+            W.unsafe_set(i,i, singularValues[i]);
+        }
+
+        return W;
+    }
+
+    @Override
+    public boolean decompose(DMatrixRMaj orig) {
+        if( !setup(orig) )
+            return false;
+
+        if (bidiagonalization(orig))
+            return false;
+
+        if( computeU || computeV ) {
+            if( computeUWV() )
+                return false;
+        } else if( computeW() )
+            return false;
+
+        // if transposed undo the transposition
+        undoTranspose();
+
+        return true;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    private boolean bidiagonalization(DMatrixRMaj orig) {
+        // change the matrix to bidiagonal form
+        if( transposed ) {
+            A_mod.reshape(orig.numCols,orig.numRows,false);
+            CommonOps_DDRM.transpose(orig,A_mod);
+        } else {
+            A_mod.reshape(orig.numRows,orig.numCols,false);
+            A_mod.set(orig);
+        }
+        return !bidiag.decompose(A_mod);
+    }
+
+    /**
+     * If the transpose was computed instead do some additional computations
+     */
+    private void undoTranspose() {
+        if( transposed ) {
+            DMatrixRMaj temp = Vt;
+            Vt = Ut;
+            Ut = temp;
+        }
+    }
+
+    /**
+     * Only the singular values are needed, which the implicit QR algorithm can find without rotating any vectors
+     */
+    private boolean computeW() {
+        bidiag.getDiagonal(diag,off);
+        qralg.setMatrix(numRowsT,numColsT,diag,off);
+        qralg.setFastValues(true);
+        qralg.setUt(null);
+        qralg.setVt(null);
+
+        if( !qralg.process() )
+            return true;
+
+        numSingular = qralg.getNumberOfSingularValues();
+        singularValues = qralg.getSingularValues();
+        for( int i = 0; i < numSingular; i++ ) {
+            singularValues[i] = Math.abs(singularValues[i]);
+        }
+        return false;
+    }
+
+    /**
+     * Compute singular values and U and V at the same time
+     */
+    private boolean computeUWV() {
+        bidiag.getDiagonal(diag,off);
+
+        dcalg.setComputeU(computeU);
+        if( !dcalg.process(diag,off,numColsT) )
+            return true;
+
+        numSingular = numColsT;
+        singularValues = dcalg.getSingularValues();
+
+        // A = (U_b*U_d)*W*(V_b*V_d)^T. Instead of computing U_b and V_b explicitly, which would then need to
+        // be multiplied, the householder reflectors are applied directly to U_d and V_d
+        if( computeU ) {
+            if( Ut == null )
+                Ut = new DMatrixRMaj(1,1);
+            Ut.reshape(compact ? numColsT : numRowsT, numRowsT);
+            initialize(dcalg.getU(), Ut);
+            applyReflectorsU(Ut);
+        }
+        if( computeV ) {
+            if( Vt == null )
+                Vt = new DMatrixRMaj(1,1);
+            Vt.reshape(numColsT, numColsT);
+            initialize(dcalg.getV(), Vt);
+            applyReflectorsV(Vt);
+        }
+
+        return false;
+    }
+
+    /**
+     * Sets the upper left corner to the transpose of the singular vectors from the bidiagonal matrix and the
+     * remainder of the diagonal to one
+     */
+    private void initialize( DMatrixRMaj Q , DMatrixRMaj output ) {
+        output.zero();
+        tmp.reshape(Q.numCols,Q.numRows);
+        CommonOps_DDRM.transpose(Q,tmp);
+        CommonOps_DDRM.insert(tmp,output,0,0);
+        for (int i = Q.numRows; i < output.numRows; i++) {
+            output.unsafe_set(i,i,1);
+        }
+    }
+
+    /**
+     * Multiplies on the right by U<sub>b</sub><sup>T</sup>, which is stored as householder reflectors below the
+     * diagonal
+     */
+    private void applyReflectorsU( DMatrixRMaj X ) {
+        DMatrixRMaj UBV = bidiag.getUBV();
+        double gammas[] = bidiag.getGammasU();
+
+        for( int j = numColsT-1; j >= 0; j-- ) {
+            u[j] = 1;
+            for( int i = j+1; i < numRowsT; i++ ) {
+                u[i] = UBV.unsafe_get(i,j);
+            }
+            QrHelperFunctions_DDRM.rank1UpdateMultL(X, u, gammas[j], 0, j, numRowsT);
+        }
+    }
+
+    /**
+     * Multiplies on the right by V<sub>b</sub><sup>T</sup>, which is stored as householder reflectors to the
+     * right of the super diagonal
+     */
+    private void applyReflectorsV( DMatrixRMaj X ) {
+        DMatrixRMaj UBV = bidiag.getUBV();
+        double gammas[] = bidiag.getGammasV();
+
+        for( int j = numColsT-1; j >= 0; j-- ) {
+            u[j+1] = 1;
+            for( int i = j+2; i < numColsT; i++ ) {
+                u[i] = UBV.unsafe_get(j,i);
+            }
+            QrHelperFunctions_DDRM.rank1UpdateMultL(X, u, gammas[j], 0, j + 1, numColsT);
+        }
+    }
+
+    private boolean setup(DMatrixRMaj orig) {
+        transposed = orig.numCols > orig.numRows;
+
+        // flag what should be computed and what should not be computed
+        if( transposed ) {
+            computeU = prefComputeV;
+            computeV = prefComputeU;
+            numRowsT = orig.numCols;
+            numColsT = orig.numRows;
+        } else {
+            computeU = prefComputeU;
+            computeV = prefComputeV;
+            numRowsT = orig.numRows;
+            numColsT = orig.numCols;
+        }
+
+        numRows = orig.numRows;
+        numCols = orig.numCols;
+
+        if( numRows == 0 || numCols == 0 )
+            return false;
+
+        if( diag == null || diag.length < numColsT ) {
+            diag = new double[ numColsT ];
+            off = new double[ numColsT-1 ];
+        }
+        if( u == null || u.length < numRowsT+1 ) {
+            u = new double[ numRowsT+1 ];
+        }
+
+        return true;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numCols() {
+        return numCols;
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Computes an approximation of the largest singular values and their singular vectors using a randomized
+ * algorithm.  When only the first few singular values of a large matrix are needed this is much faster and uses
+ * much less memory than computing the full SVD.  The decomposition is always compact, where U is m by k, W is
+ * k by k, and V is n by k, and k is the requested rank.
+ * </p>
+ *
+ * <p>
+ * First a random Gaussian matrix &Omega; with k+p columns is used to sample the range of A, Y = A*&Omega;, where p
+ * is the amount of oversampling.  Power iterations, Y = A*A<sup>T</sup>*Y, improve the approximation when the
+ * singular values decay slowly and Y is orthogonalized between each multiplication to avoid a loss in
+ * precision.  An orthogonal basis Q for Y is found using QR decomposition.  Then B = Q<sup>T</sup>*A is
+ * computed and its SVD, B = U<sub>b</sub>*W*V<sup>T</sup>, gives A &asymp; (Q*U<sub>b</sub>)*W*V<sup>T</sup>.
+ * The result is exact if the rank of A is at most k+p.
+ * </p>
+ *
+ * <p>
+ * The matrix is only accessed through multiplications, which requires 2+2*q passes over A where q is the number
+ * of power iterations.  A matrix which is too large to be stored in memory can be processed one block of rows at a
+ * time with {@link #decompose(RowBlockSource_F64)}.  Only matrices with m*(k+p) and n*(k+p) elements are
+ * stored.
+ * </p>
+ *
+ * <p>
+ * N. Halko, P. G. Martinsson, and J. A. Tropp, "Finding structure with randomness: Probabilistic algorithms for
+ * constructing approximate matrix decompositions," SIAM Review, 53 (2011)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdRandomized_DDRM implements SingularValueDecomposition_F64<DMatrixRMaj> {
+
+    // the requested number of singular values
+    private int rank;
+    // number of additional samples
+    private int oversample;
+    private int powerIterations;
+
+    private boolean computeU;
+    private boolean computeV;
+
+    private Random rand = new Random(0xBEEF);
+
+    // Maximum number of elements in a block of rows read from a source
+    private int blockElements = 1 << 20;
+
+    private int numRows;
+    private int numCols;
+
+    // the input is either a matrix or a source
+    private DMatrixRMaj A;
+    private RowBlockSource_F64 source;
+
+    // samples of the range of A, then an orthogonal basis Q for the range
+    private DMatrixRMaj Y = new DMatrixRMaj(1,1);
+    // samples of the range of A^T, then B^T = A^T*Q
+    private DMatrixRMaj Z = new DMatrixRMaj(1,1);
+    private QRDecompositionHouseholderColumn_DDRM qr = new QRDecompositionHouseholderColumn_DDRM();
+    private SvdImplicitQrDecompose_DDRM svd;
+
+    // storage for a block of rows read from the source
+    private DMatrixRMaj blockA = new DMatrixRMaj(1,1);
+    private DMatrixRMaj blockX = new DMatrixRMaj(1,1);
+    private DMatrixRMaj blockY = new DMatrixRMaj(1,1);
+
+    private DMatrixRMaj U = new DMatrixRMaj(1,1);
+    private DMatrixRMaj V = new DMatrixRMaj(1,1);
+    private DMatrixRMaj tmp = new DMatrixRMaj(1,1);
+    private double singularValues[] = new double[0];
+    private int numSingular;
+
+    /**
+     * Configures the decomposition
+     *
+     * @param rank Number of singular values which are computed
+     * @param oversample Number of extra samples used when finding the range of A.  Try 10.
+     * @param powerIterations Number of power iterations.  More iterations improve accuracy when the singular
+     *                        values decay slowly.  Try 2.
+     * @param computeU If true it will compute the U matrix
+     * @param computeV If true it will compute the V matrix
+     */
+    public SvdRandomized_DDRM( int rank , int oversample , int powerIterations ,
+                               boolean computeU , boolean computeV ) {
+        if( rank <= 0 )
+            throw new IllegalArgumentException("Rank must be more than zero");
+        if( oversample < 0 || powerIterations < 0 )
+            throw new IllegalArgumentException("oversample and powerIterations can't be negative");
+        this.rank = rank;
+        this.oversample = oversample;
+        this.powerIterations = powerIterations;
+        this.computeU = computeU;
+        this.computeV = computeV;
+    }
+
+    /**
+     * Computes U and V with default settings for oversampling and power iterations
+     *
+     * @param rank Number of singular values which are computed
+     */
+    public SvdRandomized_DDRM( int rank ) {
+        this(rank,10,2,true,true);
+    }
+
+    /**
+     * Changes the random number generator used to create the random samples.
+     */
+    public void setRandom( Random rand ) {
+        this.rand = rand;
+    }
+
+    /**
+     * Specifies the maximum number of elements in a block of rows which is read from a {@link RowBlockSource_F64}
+     */
+    public void setBlockElements( int blockElements ) {
+        this.blockElements = blockElements;
+    }
+
+    @Override
+    public boolean decompose( DMatrixRMaj orig ) {
+        this.A = orig;
+        this.source = null;
+        return process(orig.numRows,orig.numCols);
+    }
+
+    /**
+     * Computes the decomposition of a matrix which is read from the source.  The rows are read 2+2*q times
+     * where q is the number of power iterations.
+     *
+     * @param source Provides the matrix one block of rows at a time.
+     * @return true if successful
+     */
+    public boolean decompose( RowBlockSource_F64 source ) {
+        this.A = null;
+        this.source = source;
+        return process(source.getNumRows(),source.getNumCols());
+    }
+
+    private boolean process( int numRows , int numCols ) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        int minLength = Math.min(numRows,numCols);
+        if( minLength == 0 )
+            return false;
+
+        numSingular = Math.min(rank,minLength);
+        int samples = Math.min(rank+oversample,minLength);
+
+        // sample the range of A
+        Z.reshape(numCols,samples);
+        RandomMatrices_DDRM.fillGaussian(Z,0,1,rand);
+        multA(Z,Y);
+
+        for (int i = 0; i < powerIterations; i++) {
+            if( !orthogonalize(Y) )
+                return false;
+            multTransA(Y,Z);
+            if( !orthogonalize(Z) )
+                return false;
+            multA(Z,Y);
+        }
+        // Y is now Q
+        if( !orthogonalize(Y) )
+            return false;
+
+        // Z = B^T = A^T*Q.  The SVD of B^T is found since it's tall
+        multTransA(Y,Z);
+        if( svd == null )
+            svd = new SvdImplicitQrDecompose_DDRM(true,computeV,computeU,false);
+        if( !svd.decompose(Z) )
+            return false;
+
+        selectLargest();
+
+        // release references to the input
+        A = null;
+        source = null;
+        return true;
+    }
+
+    /**
+     * Selects the largest singular values and their singular vectors.  A = (Q*V_z)*W*U_z^T, where Z = U_z*W*V_z^T
+     */
+    private void selectLargest() {
+        double found[] = svd.getSingularValues();
+        int samples = svd.numberOfSingularValues();
+
+        // indexes of the singular values in descending order, selection sort since there are only a few
+        int order[] = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            order[i] = i;
+        }
+        for (int i = 0; i < numSingular; i++) {
+            int best = i;
+            for (int j = i+1; j < samples; j++) {
+                if( found[order[j]] > found[order[best]] )
+                    best = j;
+            }
+            int t = order[i]; order[i] = order[best]; order[best] = t;
+        }
+
+        if( singularValues.length < numSingular )
+            singularValues = new double[numSingular];
+        for (int i = 0; i < numSingular; i++) {
+            singularValues[i] = found[order[i]];
+        }
+
+        if( computeU ) {
+            DMatrixRMaj Vzt = svd.getV(null,true);
+            tmp.reshape(samples,numSingular);
+            for (int row = 0; row < samples; row++) {
+                for (int i = 0; i < numSingular; i++) {
+                    tmp.unsafe_set(row,i,Vzt.unsafe_get(order[i],row));
+                }
+            }
+            U.reshape(numRows,numSingular);
+            CommonOps_DDRM.mult(Y,tmp,U);
+        }
+        if( computeV ) {
+            DMatrixRMaj Uzt = svd.getU(null,true);
+            V.reshape(numCols,numSingular);
+            for (int row = 0; row < numCols; row++) {
+                for (int i = 0; i < numSingular; i++) {
+                    V.unsafe_set(row,i,Uzt.unsafe_get(order[i],row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the columns of X with an orthonormal basis for them
+     */
+    private boolean orthogonalize( DMatrixRMaj X ) {
+        if( !qr.decompose(X) )
+            return false;
+        qr.getQ(X,true);
+        return true;
+    }
+
+    /**
+     * Computes Y = A*X
+     */
+    private void multA( DMatrixRMaj X , DMatrixRMaj Y ) {
+        Y.reshape(numRows,X.numCols);
+        if( A != null ) {
+            CommonOps_DDRM.mult(A,X,Y);
+            return;
+        }
+
+        int blockRows = declareBlock();
+        source.reset();
+        int row = 0;
+        while( true ) {
+            int found = source.read(blockA.data,blockRows);
+            if( found <= 0 )
+                break;
+            if( row+found > numRows )
+                throw new IllegalArgumentException("Source has more rows than expected");
+            blockA.reshape(found,numCols,false);
+            blockY.reshape(found,X.numCols,false);
+            CommonOps_DDRM.mult(blockA,X,blockY);
+            System.arraycopy(blockY.data,0,Y.data,row*Y.numCols,found*Y.numCols);
+            row += found;
+            blockA.reshape(blockRows,numCols,false);
+        }
+        if( row != numRows )
+            throw new IllegalArgumentException("Source has fewer rows than expected");
+    }
+
+    /**
+     * Computes Z = A<sup>T</sup>*X
+     */
+    private void multTransA( DMatrixRMaj X , DMatrixRMaj Z ) {
+        Z.reshape(numCols,X.numCols);
+        if( A != null ) {
+            CommonOps_DDRM.multTransA(A,X,Z);
+            return;
+        }
+
+        int blockRows = declareBlock();
+        Z.zero();
+        source.reset();
+        int row = 0;
+        while( true ) {
+            int found = source.read(blockA.data,blockRows);
+            if( found <= 0 )
+                break;
+            if( row+found > numRows )
+                throw new IllegalArgumentException("Source has more rows than expected");
+            blockA.reshape(found,numCols,false);
+            blockX.reshape(found,X.numCols,false);
+            System.arraycopy(X.data,row*X.numCols,blockX.data,0,found*X.numCols);
+            CommonOps_DDRM.multAddTransA(blockA,blockX,Z);
+            row += found;
+            blockA.reshape(blockRows,numCols,false);
+        }
+        if( row != numRows )
+            throw new IllegalArgumentException("Source has fewer rows than expected");
+    }
+
+    private int declareBlock() {
+        int blockRows = Math.max(1,Math.min(numRows,blockElements/numCols));
+        blockA.reshape(blockRows,numCols,false);
+        return blockRows;
+    }
+
+    @Override
+    public double[] getSingularValues() {
+        return singularValues;
+    }
+
+    @Override
+    public int numberOfSingularValues() {
+        return numSingular;
+    }
+
+    /**
+     * Always returns true since the decomposition is always compact
+     */
+    @Override
+    public boolean isCompact() {
+        return true;
+    }
+
+    @Override
+    public DMatrixRMaj getU( DMatrixRMaj U , boolean transpose ) {
+        if( !computeU )
+            throw new IllegalArgumentException("As requested U was not computed.");
+        return copy(this.U, U, transpose);
+    }
+
+    @Override
+    public DMatrixRMaj getV( DMatrixRMaj V , boolean transpose ) {
+        if( !computeV )
+            throw new IllegalArgumentException("As requested V was not computed.");
+        return copy(this.V, V, transpose);
+    }
+
+    private static DMatrixRMaj copy( DMatrixRMaj src , DMatrixRMaj dst , boolean transpose ) {
+        if( transpose ) {
+            if( dst == null )
+                dst = new DMatrixRMaj(src.numCols,src.numRows);
+            else if( dst.numRows != src.numCols || dst.numCols != src.numRows )
+                throw new IllegalArgumentException("Unexpected shape of output matrix");
+            CommonOps_DDRM.transpose(src,dst);
+        } else {
+            if( dst == null )
+                dst = new DMatrixRMaj(src.numRows,src.numCols);
+            else if( dst.numRows != src.numRows || dst.numCols != src.numCols )
+                throw new IllegalArgumentException("Unexpected shape of output matrix");
+            dst.set(src);
+        }
+        return dst;
+    }
+
+    @Override
+    public DMatrixRMaj getW( DMatrixRMaj W ) {
+        if( W == null )
+            W = new DMatrixRMaj(numSingular,numSingular);
+        else {
+            W.reshape(numSingular,numSingular,false);
+            W.zero();
+        }
+
+        for( int i = 0; i < numSingular; i++ ) {
+            W.unsafe_set(i,i, singularValues[i]);
+        }
+
+        return W;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numCols() {
+        return numCols;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getOversample() {
+        return oversample;
+    }
+
+    public int getPowerIterations() {
+        return powerIterations;
+    }
+}
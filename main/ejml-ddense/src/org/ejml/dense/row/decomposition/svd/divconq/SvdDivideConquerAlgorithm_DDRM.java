@@ -0,0 +1,767 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd.divconq;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes the singular value decomposition of an upper bidiagonal matrix, B = U*&Sigma;*V<sup>T</sup>, using
+ * divide and conquer.  The matrix is split by removing a row from the middle, leaving an upper sub-problem
+ * with one more column than rows and a lower sub-problem.  Once the SVD of each sub-problem is known, the
+ * removed row is added back by computing the SVD of a matrix which is diagonal except for its first row.  The
+ * singular values of that matrix are the roots of a secular equation and its singular vectors are found
+ * directly from the roots.  The singular vectors of the sub-problems are then combined with matrix-matrix
+ * multiplications, which is much more cache friendly than applying rotations one at a time like the implicit
+ * QR algorithm does.  Small sub-problems are solved with {@link SvdImplicitQrDecompose_DDRM}.
+ * </p>
+ *
+ * <p>
+ * Deflation is used to reduce the size of each merge.  If two singular values are almost identical or an element
+ * in the first row is almost zero, then a singular value is known without solving the secular equation and its
+ * singular vectors don't need to be multiplied.  The singular vectors are computed using the method of
+ * Gu and Eisenstat, which ensures that they are numerically orthogonal.
+ * </p>
+ *
+ * <p>
+ * The singular values are not sorted.  U is only computed if requested while V is always computed, since
+ * it's needed to merge the sub-problems.
+ * </p>
+ *
+ * <p>
+ * M. Gu and S. C. Eisenstat, "A divide-and-conquer algorithm for the bidiagonal SVD," SIAM Journal on Matrix
+ * Analysis and Applications, 16 (1995)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SvdDivideConquerAlgorithm_DDRM {
+
+    // Sub-problems with this many rows or fewer are solved directly
+    private int leafSize = 25;
+
+    // maximum number of iterations when solving for a root of the secular equation
+    private static final int MAX_ITERATIONS = 200;
+
+    // size of the bidiagonal matrix
+    private int N;
+    // diagonal and off diagonal elements, scaled
+    private double diag[] = new double[0];
+    private double off[] = new double[0];
+    // singular values of each solved sub-problem, aligned with the columns of U and V
+    private double singular[] = new double[0];
+
+    private boolean computeU = true;
+
+    // singular vectors of the bidiagonal matrix. Each sub-problem is stored in a block along the diagonal
+    private DMatrixRMaj U = new DMatrixRMaj(1,1);
+    private DMatrixRMaj V = new DMatrixRMaj(1,1);
+
+    // solves the leaf problems
+    private SvdImplicitQrDecompose_DDRM leafSvd;
+    private boolean leafComputeU;
+    private DMatrixRMaj leafB = new DMatrixRMaj(1,1);
+    private DMatrixRMaj leafU = new DMatrixRMaj(1,1);
+    private DMatrixRMaj leafV = new DMatrixRMaj(1,1);
+
+    //--------------- Storage for merging. Indexes are relative to the sub-problem
+    // The columns of the merged matrix, sorted by d. The first one is the row which was removed
+    private int itemCol[] = new int[0];
+    private double itemD[] = new double[0];
+    private double itemZ[] = new double[0];
+    // which blocks in U and V have non-zero elements. Bits: 1 = upper, 2 = lower
+    private int itemMaskU[] = new int[0];
+    private int itemMaskV[] = new int[0];
+    // if the singular value is known from deflation
+    private boolean deflated[] = new boolean[0];
+    private double deflatedValue[] = new double[0];
+    // number of items which weren't deflated and their index
+    private int K;
+    private int active[] = new int[0];
+
+    // secular equation. Each root is expressed as d[origin] + tau for accuracy
+    private double dk[] = new double[0];
+    private double zk[] = new double[0];
+    private double z2[] = new double[0];
+    private double delta[] = new double[0];
+    private int origin[] = new int[0];
+    private double tau[] = new double[0];
+    private double sigma[] = new double[0];
+
+    // singular vectors of the merged matrix
+    private DMatrixRMaj smallU = new DMatrixRMaj(1,1);
+    private DMatrixRMaj smallV = new DMatrixRMaj(1,1);
+
+    // work space for matrix multiplications
+    private DMatrixRMaj gatherA = new DMatrixRMaj(1,1);
+    private DMatrixRMaj gatherB = new DMatrixRMaj(1,1);
+    private DMatrixRMaj product = new DMatrixRMaj(1,1);
+    private DMatrixRMaj savedU = new DMatrixRMaj(1,1);
+    private DMatrixRMaj savedV = new DMatrixRMaj(1,1);
+    private int selected[] = new int[0];
+
+    /**
+     * Specifies the size of the largest sub-problem which is solved directly instead of being split.
+     *
+     * @param leafSize Must be at least 1
+     */
+    public void setLeafSize( int leafSize ) {
+        if( leafSize < 1 )
+            throw new IllegalArgumentException("Leaf size must be at least 1");
+        this.leafSize = leafSize;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Specifies if U should be computed
+     */
+    public void setComputeU( boolean computeU ) {
+        this.computeU = computeU;
+    }
+
+    /**
+     * Computes the SVD of a square upper bidiagonal matrix.
+     *
+     * @param diag Diagonal elements.  Not modified.
+     * @param off Elements above the diagonal.  Not modified.
+     * @param N Number of rows and columns in the matrix
+     * @return true if successful
+     */
+    public boolean process( double diag[] , double off[] , int N ) {
+        if( N <= 0 )
+            return false;
+        init(N);
+
+        // scale to avoid overflow and underflow when values are squared
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale,Math.abs(diag[i]));
+        }
+        for (int i = 0; i < N-1; i++) {
+            scale = Math.max(scale,Math.abs(off[i]));
+        }
+        if( scale == 0 ) {
+            // matrix is all zeros
+            Arrays.fill(singular,0,N,0);
+            CommonOps_DDRM.setIdentity(V);
+            if( computeU )
+                CommonOps_DDRM.setIdentity(U);
+            return true;
+        }
+        for (int i = 0; i < N; i++) {
+            this.diag[i] = diag[i]/scale;
+        }
+        for (int i = 0; i < N-1; i++) {
+            this.off[i] = off[i]/scale;
+        }
+
+        if( !solve(0,N,0) )
+            return false;
+
+        for (int i = 0; i < N; i++) {
+            singular[i] *= scale;
+        }
+        return true;
+    }
+
+    private void init( int N ) {
+        this.N = N;
+        if( diag.length < N ) {
+            diag = new double[N];
+            off = new double[N];
+            singular = new double[N];
+            itemCol = new int[N+1];
+            itemD = new double[N+1];
+            itemZ = new double[N+1];
+            itemMaskU = new int[N+1];
+            itemMaskV = new int[N+1];
+            deflated = new boolean[N+1];
+            deflatedValue = new double[N+1];
+            active = new int[N+1];
+            dk = new double[N+1];
+            zk = new double[N+1];
+            z2 = new double[N+1];
+            delta = new double[N+1];
+            origin = new int[N+1];
+            tau = new double[N+1];
+            sigma = new double[N+1];
+            selected = new int[N+1];
+        }
+        V.reshape(N,N);
+        V.zero();
+        if( computeU ) {
+            U.reshape(N, N);
+            U.zero();
+        }
+        if( leafSvd == null || leafComputeU != computeU ) {
+            leafSvd = new SvdImplicitQrDecompose_DDRM(false,computeU,true,false);
+            leafComputeU = computeU;
+        }
+    }
+
+    /**
+     * Computes the SVD of the sub-problem which contains rows first to first+n-1 and columns first to
+     * first+n-1+sqre.  The results are written into U, V, and singular.
+     *
+     * @param sqre 1 if the sub-problem has one more column than rows or 0 if it's square
+     */
+    private boolean solve( int first , int n , int sqre ) {
+        if( n <= leafSize )
+            return solveLeaf(first, n, sqre);
+
+        int nl = n/2;
+        int nr = n-nl-1;
+
+        if( !solve(first,nl,1) )
+            return false;
+        if( !solve(first+nl+1,nr,sqre) )
+            return false;
+
+        merge(first, n, sqre, nl);
+        return true;
+    }
+
+    private boolean solveLeaf( int first , int n , int sqre ) {
+        int cols = n+sqre;
+        if( n == 0 ) {
+            if( sqre == 1 )
+                V.unsafe_set(first,first,1);
+            return true;
+        }
+
+        leafB.reshape(n,cols);
+        leafB.zero();
+        for (int i = 0; i < n; i++) {
+            leafB.unsafe_set(i,i,diag[first+i]);
+            if( i+1 < cols )
+                leafB.unsafe_set(i,i+1,off[first+i]);
+        }
+
+        if( !leafSvd.decompose(leafB) )
+            return false;
+
+        double[] sv = leafSvd.getSingularValues();
+        System.arraycopy(sv,0,singular,first,n);
+
+        leafV.reshape(cols,cols);
+        leafSvd.getV(leafV,false);
+        CommonOps_DDRM.insert(leafV,V,first,first);
+        if( computeU ) {
+            leafU.reshape(n,n);
+            leafSvd.getU(leafU,false);
+            CommonOps_DDRM.insert(leafU,U,first,first);
+        }
+        return true;
+    }
+
+    /**
+     * Merges the two sub-problems after the middle row is added back in.  In the basis of the sub-problem's
+     * singular vectors the matrix has the singular values along the diagonal and the middle row becomes the
+     * vector z.
+     */
+    private void merge( int first , final int n , final int sqre , final int nl ) {
+        final int cols = n+sqre;
+        final int mid = first+nl;
+        double alpha = diag[mid];
+        double beta = off[mid];
+
+        // Each column of V in the sub-problems is an item. The first item is the upper sub-problem's extra
+        // column, which has a singular value of zero and is paired with the middle row in U
+        int numItems = 0;
+        addItem(numItems++,nl,0,alpha*V.unsafe_get(mid,first+nl),4,1);
+        for (int c = 0; c < nl; c++) {
+            addItem(numItems++,c,singular[first+c],alpha*V.unsafe_get(mid,first+c),1,1);
+        }
+        for (int c = nl+1; c < n; c++) {
+            addItem(numItems++,c,singular[first+c],beta*V.unsafe_get(mid+1,first+c),2,2);
+        }
+        if( sqre == 1 ) {
+            // the lower sub-problem also has an extra column. Rotate the two so that only one has a z
+            double za = itemZ[0];
+            double zb = beta*V.unsafe_get(mid+1,first+n);
+            double r = hypot(za,zb);
+            if( r != 0 ) {
+                rotateColumns(V,first,first+cols,first+nl,first+n,za/r,zb/r);
+                itemZ[0] = r;
+            }
+            itemMaskV[0] = 1|2;
+        }
+
+        sortItems(numItems);
+        deflate(first,n,cols,numItems);
+
+        // columns in the output. The found roots first, then the deflated values
+        K = 0;
+        for (int i = 0; i < numItems; i++) {
+            if( !deflated[i] )
+                active[K++] = i;
+        }
+
+        // save the columns of the deflated items since they will be overwritten
+        savedV.reshape(cols,numItems-K+sqre);
+        if( computeU )
+            savedU.reshape(n,numItems-K);
+        int numSaved = 0;
+        for (int i = 0; i < numItems; i++) {
+            if( !deflated[i] )
+                continue;
+            copyColumn(V,first,first+itemCol[i],cols,savedV,numSaved);
+            if( computeU )
+                copyColumn(U,first,first+itemCol[i],n,savedU,numSaved);
+            singular[first+K+numSaved] = deflatedValue[i];
+            numSaved++;
+        }
+        if( sqre == 1 )
+            copyColumn(V,first,first+n,cols,savedV,numSaved);
+
+        solveSecular();
+
+        // Singular vectors of the merged problem times the singular vectors of the sub-problems
+        computeSmallVectors();
+        multiplyBlock(V,smallV,itemMaskV,first,0,nl+1,1);
+        multiplyBlock(V,smallV,itemMaskV,first,nl+1,cols,2);
+        if( computeU ) {
+            multiplyBlock(U,smallU,itemMaskU,first,0,nl,1);
+            multiplyBlock(U,smallU,itemMaskU,first,nl+1,n,2);
+            int indexU = mid*U.numCols + first;
+            for (int i = 0; i < K; i++) {
+                U.data[indexU++] = smallU.data[i];
+            }
+        }
+        for (int i = 0; i < K; i++) {
+            singular[first+i] = sigma[i];
+        }
+
+        // copy the deflated vectors into place
+        for (int i = 0; i < savedV.numCols; i++) {
+            copyColumn(savedV,0,i,cols,V,first,first+K+i);
+        }
+        if( computeU ) {
+            for (int i = 0; i < savedU.numCols; i++) {
+                copyColumn(savedU,0,i,n,U,first,first+K+i);
+            }
+        }
+    }
+
+    private void addItem( int index , int col , double d , double z , int maskU , int maskV ) {
+        itemCol[index] = col;
+        itemD[index] = d;
+        itemZ[index] = z;
+        itemMaskU[index] = maskU;
+        itemMaskV[index] = maskV;
+        deflated[index] = false;
+    }
+
+    /**
+     * Sorts all items except the first in increasing order of d with an insertion sort.  The singular values
+     * of each sub-problem are mostly sorted already.
+     */
+    private void sortItems( int numItems ) {
+        for (int i = 2; i < numItems; i++) {
+            double d = itemD[i];
+            if( itemD[i-1] <= d )
+                continue;
+            int col = itemCol[i];
+            double z = itemZ[i];
+            int maskU = itemMaskU[i], maskV = itemMaskV[i];
+            int j = i;
+            while( j > 1 && itemD[j-1] > d ) {
+                itemD[j] = itemD[j-1];
+                itemCol[j] = itemCol[j-1];
+                itemZ[j] = itemZ[j-1];
+                itemMaskU[j] = itemMaskU[j-1];
+                itemMaskV[j] = itemMaskV[j-1];
+                j--;
+            }
+            itemD[j] = d;
+            itemCol[j] = col;
+            itemZ[j] = z;
+            itemMaskU[j] = maskU;
+            itemMaskV[j] = maskV;
+        }
+    }
+
+    /**
+     * Looks for singular values which can be found without solving the secular equation.  Rotations are applied
+     * to the singular vectors so that the merged matrix still has the same structure.
+     */
+    private void deflate( int first , int n , int cols , int numItems ) {
+        double maxValue = 0;
+        for (int i = 0; i < numItems; i++) {
+            maxValue = Math.max(maxValue,Math.max(itemD[i],Math.abs(itemZ[i])));
+        }
+        double tol = 8.0*UtilEjml.EPS*maxValue;
+
+        int prev = -1;
+        for (int i = 1; i < numItems; i++) {
+            int colV = first+itemCol[i];
+            if( itemD[i] <= tol ) {
+                // Almost zero singular value. Rotate z into the first item. Only V is modified since the
+                // first item's row is the middle row
+                double za = itemZ[0], zb = itemZ[i];
+                double r = hypot(za,zb);
+                double c = 1, s = 0;
+                if( r != 0 ) {
+                    c = za/r; s = zb/r;
+                    rotateColumns(V,first,first+cols,first+itemCol[0],colV,c,s);
+                    itemZ[0] = r;
+                    itemMaskV[0] |= itemMaskV[i];
+                    itemMaskV[i] |= itemMaskV[0];
+                }
+                deflate(i,c*itemD[i],first,n);
+            } else if( Math.abs(itemZ[i]) <= tol ) {
+                deflate(i,itemD[i],first,n);
+            } else if( prev != -1 && itemD[i]-itemD[prev] <= tol ) {
+                // Almost identical singular values. The same rotation is applied to U and V so that z for the
+                // previous item becomes zero
+                double za = itemZ[prev], zb = itemZ[i];
+                double r = hypot(za,zb);
+                double c = zb/r, s = za/r;
+                int colPrev = first+itemCol[prev];
+                rotateColumns(V,first,first+cols,colV,colPrev,c,s);
+                if( computeU )
+                    rotateColumns(U,first,first+n,colV,colPrev,c,s);
+                itemZ[i] = r;
+                itemMaskU[i] |= itemMaskU[prev];
+                itemMaskU[prev] |= itemMaskU[i];
+                itemMaskV[i] |= itemMaskV[prev];
+                itemMaskV[prev] |= itemMaskV[i];
+                deflate(prev,itemD[prev],first,n);
+                prev = i;
+            } else {
+                prev = i;
+            }
+        }
+
+        // z[0] must not be zero unless it's the only value left
+        boolean others = false;
+        for (int i = 1; i < numItems && !others; i++) {
+            others = !deflated[i];
+        }
+        if( others && Math.abs(itemZ[0]) < tol ) {
+            itemZ[0] = itemZ[0] < 0 ? -tol : tol;
+        }
+    }
+
+    private void deflate( int item , double value , int first , int n ) {
+        deflated[item] = true;
+        if( value < 0 ) {
+            // singular values must be positive
+            value = -value;
+            if( computeU ) {
+                int col = first + itemCol[item];
+                for (int row = first; row < first+n; row++) {
+                    int index = row*U.numCols + col;
+                    U.data[index] = -U.data[index];
+                }
+            }
+        }
+        deflatedValue[item] = value;
+    }
+
+    /**
+     * Finds the singular values of the merged matrix.  They are the roots of the secular equation:<br>
+     * f(&sigma;) = 1 + &sum;<sub>j</sub> z<sub>j</sub><sup>2</sup>/(d<sub>j</sub><sup>2</sup> - &sigma;<sup>2</sup>)<br>
+     * where d<sub>0</sub> = 0 and each root lies between two consecutive values of d.
+     */
+    private void solveSecular() {
+        for (int i = 0; i < K; i++) {
+            dk[i] = itemD[active[i]];
+            zk[i] = itemZ[active[i]];
+            z2[i] = zk[i]*zk[i];
+        }
+
+        if( K == 1 ) {
+            origin[0] = 0;
+            tau[0] = sigma[0] = Math.abs(zk[0]);
+            return;
+        }
+
+        for (int i = 0; i < K; i++) {
+            solveRoot(i);
+        }
+
+        // Recompute z so that the found singular values are exact for a nearby matrix. This keeps
+        // the singular vectors orthogonal. Gu and Eisenstat
+        for (int j = 0; j < K; j++) {
+            double prod = -differenceSq(j,K-1);
+            for (int k = 0; k < j; k++) {
+                prod *= -differenceSq(j,k)/((dk[k]-dk[j])*(dk[k]+dk[j]));
+            }
+            for (int k = j; k < K-1; k++) {
+                prod *= -differenceSq(j,k)/((dk[k+1]-dk[j])*(dk[k+1]+dk[j]));
+            }
+            double z = Math.sqrt(Math.abs(prod));
+            zk[j] = zk[j] < 0 ? -z : z;
+        }
+    }
+
+    /**
+     * Computes d[j]<sup>2</sup> - sigma[i]<sup>2</sup> without cancellation
+     */
+    private double differenceSq( int j , int i ) {
+        int o = origin[i];
+        return ((dk[j]-dk[o])-tau[i])*(dk[j]+dk[o]+tau[i]);
+    }
+
+    /**
+     * Solves for the i-th root.  The unknown is t = &sigma;<sup>2</sup> - d<sub>o</sub><sup>2</sup> where o is
+     * the closest pole.  Each step fits a rational function with poles at d<sub>i</sub> and d<sub>i+1</sub>
+     * to the current value and derivative, and bisection is used if the step leaves the bracket.
+     */
+    private void solveRoot( int i ) {
+        int o;
+        double lo, hi;
+        if( i < K-1 ) {
+            double mid = (dk[i+1]-dk[i])*(dk[i+1]+dk[i])/2.0;
+            // which pole is the root closest to?
+            double f = 1;
+            for (int j = 0; j < K; j++) {
+                f += z2[j]/((dk[j]-dk[i])*(dk[j]+dk[i]) - mid);
+            }
+            if( f >= 0 ) {
+                o = i; lo = 0; hi = mid;
+            } else {
+                o = i+1; lo = -mid; hi = 0;
+            }
+        } else {
+            o = i; lo = 0; hi = 0;
+            for (int j = 0; j < K; j++) {
+                hi += z2[j];
+            }
+        }
+        for (int j = 0; j < K; j++) {
+            delta[j] = (dk[j]-dk[o])*(dk[j]+dk[o]);
+        }
+
+        double t = (lo+hi)/2.0;
+        for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+            double psi = 0, dpsi = 0, phi = 0, dphi = 0, error = 0;
+            for (int j = 0; j <= i; j++) {
+                double den = delta[j]-t;
+                double term = z2[j]/den;
+                psi += term;
+                dpsi += term/den;
+                error += Math.abs(term);
+            }
+            for (int j = i+1; j < K; j++) {
+                double den = delta[j]-t;
+                double term = z2[j]/den;
+                phi += term;
+                dphi += term/den;
+                error += Math.abs(term);
+            }
+            double w = 1 + psi + phi;
+
+            if( w == 0 )
+                break;
+            else if( w > 0 )
+                hi = t;
+            else
+                lo = t;
+
+            if( Math.abs(w) <= 8.0*UtilEjml.EPS*(1+error) ||
+                    hi-lo <= 2.0*UtilEjml.EPS*Math.max(Math.abs(lo),Math.abs(hi)) )
+                break;
+
+            double next;
+            if( i < K-1 ) {
+                double dl = delta[i]-t, du = delta[i+1]-t;
+                double a = (dl+du)*w - dl*du*(dpsi+dphi);
+                double b = dl*du*w;
+                double c = w - dl*dpsi - du*dphi;
+                double disc = Math.sqrt(Math.abs(a*a-4.0*b*c));
+                double eta;
+                if( c == 0 )
+                    eta = b/a;
+                else if( a <= 0 )
+                    eta = (a-disc)/(2.0*c);
+                else
+                    eta = 2.0*b/(a+disc);
+                next = t + eta;
+            } else {
+                // all the poles are to the left, model them as a single pole
+                double du = delta[i]-t;
+                next = t + du + du*du*(dpsi+dphi)/(w-du*(dpsi+dphi));
+            }
+
+            if( !(next > lo && next < hi) )
+                next = (lo+hi)/2.0;
+            t = next;
+        }
+
+        origin[i] = o;
+        tau[i] = t/(dk[o] + Math.sqrt(dk[o]*dk[o]+t));
+        sigma[i] = dk[o] + tau[i];
+    }
+
+    /**
+     * Computes the singular vectors of the merged matrix.  Row 'j' corresponds to active item 'j'.
+     */
+    private void computeSmallVectors() {
+        smallV.reshape(K,K);
+        if( computeU )
+            smallU.reshape(K,K);
+
+        if( K == 1 ) {
+            smallV.data[0] = 1;
+            smallU.data[0] = zk[0] < 0 ? -1 : 1;
+            return;
+        }
+
+        for (int i = 0; i < K; i++) {
+            double normV = 0, normU = 1;
+            for (int j = 0; j < K; j++) {
+                double v = zk[j]/differenceSq(j,i);
+                smallV.data[j*K+i] = v;
+                normV += v*v;
+                if( j > 0 ) {
+                    double u = dk[j]*v;
+                    normU += u*u;
+                }
+            }
+            normV = Math.sqrt(normV);
+            for (int j = 0; j < K; j++) {
+                smallV.data[j*K+i] /= normV;
+            }
+            if( computeU ) {
+                normU = Math.sqrt(normU);
+                smallU.data[i] = -1.0/normU;
+                for (int j = 1; j < K; j++) {
+                    smallU.data[j*K+i] = dk[j]*zk[j]/differenceSq(j,i)/normU;
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies a block of rows in the sub-problem's singular vectors by the merged singular vectors. Only
+     * items with non-zero elements in the block are included. The results are written to the first K columns.
+     *
+     * @param row0 First row in the block, relative to the sub-problem
+     * @param row1 Last row in the block, exclusive
+     * @param bit Which bit in the mask indicates the item has non-zero elements in this block
+     */
+    private void multiplyBlock( DMatrixRMaj Q , DMatrixRMaj small , int mask[] , int first ,
+                                int row0 , int row1 , int bit ) {
+        int numRows = row1-row0;
+        if( numRows <= 0 )
+            return;
+        int numSelected = 0;
+        for (int i = 0; i < K; i++) {
+            if( (mask[active[i]] & bit) != 0 )
+                selected[numSelected++] = i;
+        }
+
+        // sub-problem singular vectors for the selected items
+        gatherA.reshape(numRows,numSelected);
+        for (int row = 0; row < numRows; row++) {
+            int indexQ = (first+row0+row)*Q.numCols + first;
+            int indexA = row*numSelected;
+            for (int i = 0; i < numSelected; i++) {
+                gatherA.data[indexA+i] = Q.data[indexQ+itemCol[active[selected[i]]]];
+            }
+        }
+        // corresponding rows in the merged singular vectors
+        gatherB.reshape(numSelected,K);
+        for (int i = 0; i < numSelected; i++) {
+            System.arraycopy(small.data,selected[i]*K,gatherB.data,i*K,K);
+        }
+
+        product.reshape(numRows,K);
+        if( numSelected == 0 )
+            product.zero();
+        else
+            CommonOps_DDRM.mult(gatherA,gatherB,product);
+
+        for (int row = 0; row < numRows; row++) {
+            System.arraycopy(product.data,row*K,Q.data,(first+row0+row)*Q.numCols+first,K);
+        }
+    }
+
+    /**
+     * Applies a rotation to two columns: a' = c*a + s*b and b' = c*b - s*a
+     */
+    private static void rotateColumns( DMatrixRMaj Q , int row0 , int row1 , int colA , int colB ,
+                                       double c , double s ) {
+        for (int row = row0; row < row1; row++) {
+            int index = row*Q.numCols;
+            double a = Q.data[index+colA];
+            double b = Q.data[index+colB];
+            Q.data[index+colA] = c*a + s*b;
+            Q.data[index+colB] = c*b - s*a;
+        }
+    }
+
+    private static void copyColumn( DMatrixRMaj src , int row0 , int srcCol , int numRows , DMatrixRMaj dst , int dstCol ) {
+        for (int row = 0; row < numRows; row++) {
+            dst.data[row*dst.numCols+dstCol] = src.data[(row0+row)*src.numCols+srcCol];
+        }
+    }
+
+    private static void copyColumn( DMatrixRMaj src , int row0 , int srcCol , int numRows ,
+                                    DMatrixRMaj dst , int dstRow0 , int dstCol ) {
+        for (int row = 0; row < numRows; row++) {
+            dst.data[(dstRow0+row)*dst.numCols+dstCol] = src.data[(row0+row)*src.numCols+srcCol];
+        }
+    }
+
+    private static double hypot( double a , double b ) {
+        double max = Math.max(Math.abs(a),Math.abs(b));
+        if( max == 0 )
+            return 0;
+        a /= max;
+        b /= max;
+        double r = Math.sqrt(a*a+b*b);
+        return max*r;
+    }
+
+    /**
+     * Returns the singular values.  They are not sorted.
+     */
+    public double[] getSingularValues() {
+        return singular;
+    }
+
+    public int getNumberOfSingularValues() {
+        return N;
+    }
+
+    /**
+     * Returns the left singular vectors of the bidiagonal matrix.  Only valid if U was computed
+     */
+    public DMatrixRMaj getU() {
+        return U;
+    }
+
+    /**
+     * Returns the right singular vectors of the bidiagonal matrix
+     */
+    public DMatrixRMaj getV() {
+        return V;
+    }
+}
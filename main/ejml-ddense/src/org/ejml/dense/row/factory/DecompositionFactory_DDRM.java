@@ -30,14 +30,19 @@ import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionBlock_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionLDL_DDRM;
 import org.ejml.dense.row.decomposition.chol.CholeskyDecomposition_DDRB_to_DDRM;
+import org.ejml.dense.row.decomposition.eig.MultiShiftQRDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SwitchingEigenDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricBisectionDecomposition_DDRM;
+import org.ejml.dense.row.decomposition.eig.SymmetricDivideConquerDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.SymmetricQRAlgorithmDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.eig.WatchedDoubleStepQRDecomposition_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecompositionHouseholder_DDRM;
 import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecomposition_DDRB_to_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRColPivDecompositionHouseholderColumn_DDRM;
 import org.ejml.dense.row.decomposition.qr.QRDecompositionHouseholderColumn_DDRM;
+import org.ejml.dense.row.decomposition.svd.SvdDivideConquerDecompose_DDRM;
 import org.ejml.dense.row.decomposition.svd.SvdImplicitQrDecompose_DDRM;
 import org.ejml.interfaces.decomposition.*;
 
@@ -102,7 +107,11 @@ public class DecompositionFactory_DDRM {
      * @return LUDecomposition
      */
     public static LUDecomposition_F64<DMatrixRMaj> lu(int numRows , int numCol ) {
-        return new LUDecompositionAlt_DDRM();
+        if( Math.min(numRows,numCol) < EjmlParameters.SWITCH_BLOCK64_LU ) {
+            return new LUDecompositionAlt_DDRM();
+        } else {
+            return new LUDecomposition_DDRB_to_DDRM();
+        }
     }
 
     /**
@@ -120,6 +129,10 @@ public class DecompositionFactory_DDRM {
      */
     public static SingularValueDecomposition_F64<DMatrixRMaj> svd(int numRows , int numCols ,
                                                                   boolean needU , boolean needV , boolean compact ) {
+        // divide and conquer only helps when singular vectors are computed
+        if( (needU || needV) && Math.min(numRows,numCols) >= EjmlParameters.SWITCH_SVD_DIVIDE_CONQUER )
+            return new SvdDivideConquerDecompose_DDRM(compact,needU,needV);
+
         // Don't allow the tall decomposition by default since it *might* be less stable
         return new SvdImplicitQrDecompose_DDRM(compact,needU,needV,false);
     }
@@ -168,6 +181,8 @@ public class DecompositionFactory_DDRM {
     /**
      * <p>
      * Returns an {@link EigenDecomposition} which is specialized for symmetric matrices or the general problem.
+     * For large symmetric matrices, when eigenvectors are computed, divide and conquer is used.  For large general
+     * matrices the multishift QR algorithm is used.
      * </p>
      *
      * @param matrixSize Number of rows and columns that the returned decomposition is optimized for.
@@ -180,11 +195,67 @@ public class DecompositionFactory_DDRM {
                                                           boolean isSymmetric ) {
         if( isSymmetric ) {
             TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp = DecompositionFactory_DDRM.tridiagonal(matrixSize);
+            if( computeVectors && matrixSize >= EjmlParameters.SWITCH_EIG_DIVIDE_CONQUER )
+                return new SymmetricDivideConquerDecomposition_DDRM(decomp,true);
             return new SymmetricQRAlgorithmDecomposition_DDRM(decomp,computeVectors);
+        } else if( matrixSize >= EjmlParameters.SWITCH_EIG_MULTISHIFT ) {
+            return new MultiShiftQRDecomposition_DDRM(computeVectors);
         } else
             return new WatchedDoubleStepQRDecomposition_DDRM(computeVectors);
     }
 
+    /**
+     * <p>
+     * Returns an {@link EigenDecomposition} for symmetric matrices which only computes the eigenvalues with the
+     * specified indexes, where the eigenvalues are sorted in ascending order.  For example, the k smallest
+     * eigenvalues are selected with first = 0 and last = k-1.  The eigenvalues are returned in ascending order.
+     * Much faster than computing all the eigenvectors when only a few are needed.
+     * </p>
+     *
+     * @param matrixSize Number of rows and columns that the returned decomposition is optimized for.
+     * @param computeVectors Should it compute the eigenvectors or just eigenvalues.
+     * @param first Index of the first selected eigenvalue.  Inclusive.
+     * @param last Index of the last selected eigenvalue.  Inclusive.  Truncated if larger than the matrix.
+     * @return EVD for a subset of the eigenvalues in a symmetric matrix
+     */
+    public static EigenDecomposition_F64<DMatrixRMaj> eigSymmetric(int matrixSize , boolean computeVectors ,
+                                                                   int first , int last ) {
+        SymmetricBisectionDecomposition_DDRM alg = createBisection(matrixSize, computeVectors);
+        alg.setIndexRange(first,last);
+        return alg;
+    }
+
+    /**
+     * <p>
+     * Returns an {@link EigenDecomposition} for symmetric matrices which only computes the eigenvalues inside
+     * the interval lower &le; &lambda; &lt; upper.  The eigenvalues are returned in ascending order.
+     * Much faster than computing all the eigenvectors when only a few are needed.
+     * </p>
+     *
+     * @param matrixSize Number of rows and columns that the returned decomposition is optimized for.
+     * @param computeVectors Should it compute the eigenvectors or just eigenvalues.
+     * @param lower Lower bound of the interval.  Inclusive.
+     * @param upper Upper bound of the interval.  Exclusive.
+     * @return EVD for a subset of the eigenvalues in a symmetric matrix
+     */
+    public static EigenDecomposition_F64<DMatrixRMaj> eigSymmetricInterval(int matrixSize , boolean computeVectors ,
+                                                                           double lower , double upper ) {
+        SymmetricBisectionDecomposition_DDRM alg = createBisection(matrixSize, computeVectors);
+        alg.setInterval(lower,upper);
+        return alg;
+    }
+
+    private static SymmetricBisectionDecomposition_DDRM createBisection(int matrixSize, boolean computeVectors) {
+        // When computing eigenvectors the householder reflectors are applied directly, which is much less
+        // expensive than computing the orthogonal matrix from the block algorithm
+        TridiagonalSimilarDecomposition_F64<DMatrixRMaj> decomp;
+        if( computeVectors )
+            decomp = new TridiagonalDecompositionHouseholder_DDRM();
+        else
+            decomp = DecompositionFactory_DDRM.tridiagonal(matrixSize);
+        return new SymmetricBisectionDecomposition_DDRM(decomp,computeVectors);
+    }
+
     /**
      * <p>
      * Computes a metric which measures the the quality of a singular value decomposition.  If a
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.MatrixDimensionException;
+import org.ejml.data.DMatrix1Row;
+import org.ejml.dense.row.CommonOps_DDRM;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Concurrent versions of the matrix matrix multiplication operations in {@link MatrixMatrixMult_DDRM}.  The rows
+ * in the output matrix 'c' are split into blocks and each block is computed by a different thread using
+ * the thread pool in {@link EjmlConcurrency}.  Since each thread writes to its own set of rows no synchronization
+ * is required.
+ * </p>
+ *
+ * <p>
+ * The row kernels are the 'reorder' algorithms, with the exception of multTransB which is naturally cache friendly.
+ * For small matrices the overhead of threads will dominate, see {@link org.ejml.EjmlParameters#MULT_CONCURRENT_SWITCH}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MatrixMatrixMult_MT_DDRM {
+
+    /**
+     * @see CommonOps_DDRM#mult( DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void mult( DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        mult(1,a,b,c);
+    }
+
+    /**
+     * @see CommonOps_DDRM#mult(double, DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void mult( double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        checkMult(a, b, c);
+        mult(alpha, a, b, c, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAdd( DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multAdd( DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        multAdd(1,a,b,c);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAdd(double, DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multAdd( double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        checkMult(a, b, c);
+        mult(alpha, a, b, c, true);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransA( DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multTransA( DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        multTransA(1,a,b,c);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransA(double, DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multTransA( double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        checkMultTransA(a, b, c);
+        multTransA(alpha, a, b, c, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransA( DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multAddTransA( DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        multAddTransA(1,a,b,c);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransA(double, DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multAddTransA( double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        checkMultTransA(a, b, c);
+        multTransA(alpha, a, b, c, true);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransB( DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multTransB( DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        multTransB(1,a,b,c);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multTransB(double, DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multTransB( double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        checkMultTransB(a, b, c);
+        multTransB(alpha, a, b, c, false);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransB( DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multAddTransB( DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        multAddTransB(1,a,b,c);
+    }
+
+    /**
+     * @see CommonOps_DDRM#multAddTransB(double, DMatrix1Row, DMatrix1Row, DMatrix1Row)
+     */
+    public static void multAddTransB( double alpha , DMatrix1Row a , DMatrix1Row b , DMatrix1Row c ) {
+        checkMultTransB(a, b, c);
+        multTransB(alpha, a, b, c, true);
+    }
+
+    private static void mult( final double alpha , final DMatrix1Row a , final DMatrix1Row b , final DMatrix1Row c ,
+                              final boolean add ) {
+        EjmlConcurrency.loopBlocks(0, c.numRows, 1, new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                final double dataA[] = a.data;
+                final double dataB[] = b.data;
+                final double dataC[] = c.data;
+                final int endOfKLoop = b.numRows*b.numCols;
+
+                for( int i = start; i < end; i++ ) {
+                    int indexCbase = i*c.numCols;
+                    int indexA = i*a.numCols;
+                    int indexB = 0;
+
+                    if( !add )
+                        Arrays.fill(dataC,indexCbase,indexCbase+c.numCols,0);
+
+                    while( indexB != endOfKLoop ) { // k loop
+                        int indexC = indexCbase;
+                        int endB = indexB + b.numCols;
+
+                        double valA = alpha*dataA[indexA++];
+
+                        while( indexB < endB ) { // j loop
+                            dataC[indexC++] += valA*dataB[indexB++];
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private static void multTransA( final double alpha , final DMatrix1Row a , final DMatrix1Row b , final DMatrix1Row c ,
+                                    final boolean add ) {
+        EjmlConcurrency.loopBlocks(0, c.numRows, 1, new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                final double dataA[] = a.data;
+                final double dataB[] = b.data;
+                final double dataC[] = c.data;
+
+                for( int i = start; i < end; i++ ) {
+                    int indexCbase = i*c.numCols;
+                    int indexA = i;
+                    int indexB = 0;
+
+                    if( !add )
+                        Arrays.fill(dataC,indexCbase,indexCbase+c.numCols,0);
+
+                    for( int k = 0; k < b.numRows; k++ ) {
+                        int indexC = indexCbase;
+                        int endB = indexB + b.numCols;
+
+                        double valA = alpha*dataA[indexA];
+                        indexA += a.numCols;
+
+                        while( indexB < endB ) {
+                            dataC[indexC++] += valA*dataB[indexB++];
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private static void multTransB( final double alpha , final DMatrix1Row a , final DMatrix1Row b , final DMatrix1Row c ,
+                                    final boolean add ) {
+        EjmlConcurrency.loopBlocks(0, c.numRows, 1, new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                final double dataA[] = a.data;
+                final double dataB[] = b.data;
+                final double dataC[] = c.data;
+
+                for( int i = start; i < end; i++ ) {
+                    int cIndex = i*c.numCols;
+                    int aIndexStart = i*a.numCols;
+                    int endA = aIndexStart + a.numCols;
+                    int indexB = 0;
+
+                    for( int j = 0; j < b.numRows; j++ ) {
+                        int indexA = aIndexStart;
+
+                        double total = 0;
+                        while( indexA < endA ) {
+                            total += dataA[indexA++]*dataB[indexB++];
+                        }
+
+                        if( add )
+                            dataC[cIndex++] += alpha*total;
+                        else
+                            dataC[cIndex++] = alpha*total;
+                    }
+                }
+            }
+        });
+    }
+
+    private static void checkMult(DMatrix1Row a, DMatrix1Row b, DMatrix1Row c) {
+        if( a == c || b == c )
+            throw new IllegalArgumentException("Neither 'a' or 'b' can be the same matrix as 'c'");
+        else if( a.numCols != b.numRows ) {
+            throw new MatrixDimensionException("The 'a' and 'b' matrices do not have compatible dimensions");
+        } else if( a.numRows != c.numRows || b.numCols != c.numCols ) {
+            throw new MatrixDimensionException("The results matrix does not have the desired dimensions");
+        }
+    }
+
+    private static void checkMultTransA(DMatrix1Row a, DMatrix1Row b, DMatrix1Row c) {
+        if( a == c || b == c )
+            throw new IllegalArgumentException("Neither 'a' or 'b' can be the same matrix as 'c'");
+        else if( a.numRows != b.numRows ) {
+            throw new MatrixDimensionException("The 'a' and 'b' matrices do not have compatible dimensions");
+        } else if( a.numCols != c.numRows || b.numCols != c.numCols ) {
+            throw new MatrixDimensionException("The results matrix does not have the desired dimensions");
+        }
+    }
+
+    private static void checkMultTransB(DMatrix1Row a, DMatrix1Row b, DMatrix1Row c) {
+        if( a == c || b == c )
+            throw new IllegalArgumentException("Neither 'a' or 'b' can be the same matrix as 'c'");
+        else if( a.numCols != b.numCols ) {
+            throw new MatrixDimensionException("The 'a' and 'b' matrices do not have compatible dimensions");
+        } else if( a.numRows != c.numRows || b.numRows != c.numCols ) {
+            throw new MatrixDimensionException("The results matrix does not have the desired dimensions");
+        }
+    }
+}
@@ -77,7 +77,7 @@ public class TestMatrixMult_DDRB {
         assertEquals(7,numFound);
     }
 
-    private static void checkMult_submatrix( Method func , int operationType , boolean transA , boolean transB )
+    static void checkMult_submatrix( Method func , int operationType , boolean transA , boolean transB )
     {
         // the submatrix is the same size as the originals
         checkMult_submatrix( func , operationType , transA , transB , sub(0,0,numRows,numCols),sub(0,0,numCols,numRows));
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMult_MT_DDRB {
+
+    /**
+     * Checks to see if matrix multiplication variants handles submatrices correctly.  Uses the same
+     * test as the single threaded version.
+     */
+    @Test
+    public void mult_submatrix() {
+        Method methods[] = MatrixMult_MT_DDRB.class.getDeclaredMethods();
+
+        int numFound = 0;
+        for( Method m : methods) {
+            String name = m.getName();
+
+            if( !Modifier.isPublic(m.getModifiers()) || !name.contains("mult") )
+                continue;
+
+            boolean transA = name.contains("TransA");
+            boolean transB = name.contains("TransB");
+
+            int operationType = 0;
+            if( name.contains("Plus")) operationType = 1;
+            else if ( name.contains("Minus")) operationType = -1;
+
+            TestMatrixMult_DDRB.checkMult_submatrix(m,operationType,transA,transB);
+            numFound++;
+        }
+
+        // make sure all the functions were in fact tested
+        assertEquals(7,numFound);
+    }
+}
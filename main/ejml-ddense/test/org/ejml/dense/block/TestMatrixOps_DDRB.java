@@ -18,6 +18,8 @@
 
 package org.ejml.dense.block;
 
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
 import org.ejml.UtilEjml;
 import org.ejml.data.DMatrixRBlock;
 import org.ejml.data.DMatrixRMaj;
@@ -26,11 +28,14 @@ import org.ejml.dense.row.CommonOps_DDRM;
 import org.ejml.dense.row.RandomMatrices_DDRM;
 import org.ejml.generic.GenericMatrixOps_F64;
 import org.ejml.simple.SimpleMatrix;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.*;
 
@@ -44,6 +49,27 @@ public class TestMatrixOps_DDRB {
 
     Random rand = new Random(234);
 
+    long multConcurrentSwitch;
+    boolean concurrent;
+    ForkJoinPool pool;
+
+    @Before
+    public void before() {
+        multConcurrentSwitch = EjmlParameters.MULT_CONCURRENT_SWITCH;
+        concurrent = EjmlParameters.CONCURRENT;
+        pool = EjmlConcurrency.getPool();
+    }
+
+    @After
+    public void after() {
+        EjmlParameters.MULT_CONCURRENT_SWITCH = multConcurrentSwitch;
+        EjmlParameters.CONCURRENT = concurrent;
+        ForkJoinPool used = EjmlConcurrency.getPool();
+        EjmlConcurrency.setPool(pool);
+        if( used != pool )
+            used.shutdown();
+    }
+
     @Test
     public void convert_dense_to_block() {
         checkConvert_dense_to_block(10,10);
@@ -239,6 +265,48 @@ public class TestMatrixOps_DDRB {
         assertEquals(3,numFound);
     }
 
+    /**
+     * Force the concurrent algorithm to be used and compare against the single threaded results
+     */
+    @Test
+    public void testMultConcurrent() {
+        EjmlParameters.CONCURRENT = true;
+        EjmlConcurrency.setPool(new ForkJoinPool(4));
+
+        int sizes[][] = new int[][]{{BLOCK_LENGTH,BLOCK_LENGTH,BLOCK_LENGTH},
+                {BLOCK_LENGTH*3+4,BLOCK_LENGTH*2+3,BLOCK_LENGTH*4+2},
+                {BLOCK_LENGTH*5-1,BLOCK_LENGTH+7,BLOCK_LENGTH*2}};
+
+        for( int size[] : sizes ) {
+            int m = size[0], n = size[1], o = size[2];
+            DMatrixRBlock A = MatrixOps_DDRB.createRandom(m,n,-1,1,rand,BLOCK_LENGTH);
+            DMatrixRBlock B = MatrixOps_DDRB.createRandom(n,o,-1,1,rand,BLOCK_LENGTH);
+            DMatrixRBlock A_t = MatrixOps_DDRB.transpose(A,null);
+            DMatrixRBlock B_t = MatrixOps_DDRB.transpose(B,null);
+
+            DMatrixRBlock expected = new DMatrixRBlock(m,o,BLOCK_LENGTH);
+            DMatrixRBlock found = new DMatrixRBlock(m,o,BLOCK_LENGTH);
+
+            for (int op = 0; op < 3; op++) {
+                EjmlParameters.MULT_CONCURRENT_SWITCH = Long.MAX_VALUE;
+                mult(op,A,B,A_t,B_t,expected);
+                EjmlParameters.MULT_CONCURRENT_SWITCH = 0;
+                mult(op,A,B,A_t,B_t,found);
+
+                assertTrue(GenericMatrixOps_F64.isEquivalent(expected,found,UtilEjml.TEST_F64));
+            }
+        }
+    }
+
+    private static void mult( int op , DMatrixRBlock A , DMatrixRBlock B , DMatrixRBlock A_t , DMatrixRBlock B_t ,
+                              DMatrixRBlock C ) {
+        switch( op ) {
+            case 0: MatrixOps_DDRB.mult(A,B,C); break;
+            case 1: MatrixOps_DDRB.multTransA(A_t,B,C); break;
+            default: MatrixOps_DDRB.multTransB(A,B_t,C); break;
+        }
+    }
+
     /**
      * Test the method against various matrices of different sizes and shapes which have partial
      * blocks.
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.block.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRBlock;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.block.MatrixOps_DDRB;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.lu.LUDecompositionAlt_DDRM;
+import org.ejml.generic.GenericMatrixOps_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUDecompositionOuterForm_DDRB {
+
+    Random rand = new Random(234);
+
+    // size of a block
+    int bl = 5;
+
+    @Test
+    public void square() {
+        for( int N = bl-2; N <= 32; N += 3 ) {
+            checkAgainstRowMajor(new LUDecompositionOuterForm_DDRB(),N,N);
+        }
+    }
+
+    @Test
+    public void tall() {
+        checkAgainstRowMajor(new LUDecompositionOuterForm_DDRB(),23,bl);
+        checkAgainstRowMajor(new LUDecompositionOuterForm_DDRB(),23,12);
+    }
+
+    @Test
+    public void wide() {
+        checkAgainstRowMajor(new LUDecompositionOuterForm_DDRB(),bl,23);
+        checkAgainstRowMajor(new LUDecompositionOuterForm_DDRB(),12,23);
+    }
+
+    @Test
+    public void concurrent() {
+        for( int N = bl-2; N <= 32; N += 3 ) {
+            checkAgainstRowMajor(new LUDecompositionOuterForm_MT_DDRB(),N,N);
+        }
+        checkAgainstRowMajor(new LUDecompositionOuterForm_MT_DDRB(),23,12);
+        checkAgainstRowMajor(new LUDecompositionOuterForm_MT_DDRB(),12,23);
+    }
+
+    /**
+     * Compare against the row major decomposition for matrices which have many blocks and
+     * ones with a partial block at the end
+     */
+    private void checkAgainstRowMajor( LUDecompositionOuterForm_DDRB alg , int numRows , int numCols ) {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(numRows,numCols,-1,1,rand);
+
+        LUDecompositionAlt_DDRM lu = new LUDecompositionAlt_DDRM();
+        assertTrue(lu.decompose(A));
+
+        DMatrixRBlock blockA = MatrixOps_DDRB.convert(A,bl);
+        assertTrue(alg.decompose(blockA));
+
+        assertTrue(GenericMatrixOps_F64.isEquivalent(lu.getLower(null),alg.getLower(null), UtilEjml.TEST_F64));
+        assertTrue(GenericMatrixOps_F64.isEquivalent(lu.getUpper(null),alg.getUpper(null), UtilEjml.TEST_F64));
+        assertTrue(GenericMatrixOps_F64.isEquivalent(lu.getPivot(null),alg.getPivot((DMatrixRBlock)null), UtilEjml.TEST_F64));
+
+        if( numRows == numCols ) {
+            double expectedDet = lu.computeDeterminant().real;
+            double foundDet = alg.computeDeterminant().real;
+            assertEquals(expectedDet,foundDet,Math.abs(expectedDet)*UtilEjml.TEST_F64);
+        }
+
+        // reconstruct the original matrix
+        DMatrixRMaj L = MatrixOps_DDRB.convert(alg.getLower(null),(DMatrixRMaj)null);
+        DMatrixRMaj U = MatrixOps_DDRB.convert(alg.getUpper(null),(DMatrixRMaj)null);
+        DMatrixRMaj P = MatrixOps_DDRB.convert(alg.getPivot((DMatrixRBlock)null),(DMatrixRMaj)null);
+
+        DMatrixRMaj LU = new DMatrixRMaj(numRows,numCols);
+        CommonOps_DDRM.mult(L,U,LU);
+        DMatrixRMaj found = new DMatrixRMaj(numRows,numCols);
+        CommonOps_DDRM.multTransA(P,LU,found);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A,found,UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void singular() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(17,17,-1,1,rand);
+        // a column of zeros is still zero after the row operations
+        for( int i = 0; i < A.numRows; i++ ) {
+            A.set(i,12,0);
+        }
+
+        LUDecompositionOuterForm_DDRB alg = new LUDecompositionOuterForm_DDRB();
+        assertTrue(alg.decompose(MatrixOps_DDRB.convert(A,bl)));
+        assertTrue(alg.isSingular());
+
+        alg.decompose(MatrixOps_DDRB.convert(RandomMatrices_DDRM.rectangle(17,17,-1,1,rand),bl));
+        assertFalse(alg.isSingular());
+    }
+}
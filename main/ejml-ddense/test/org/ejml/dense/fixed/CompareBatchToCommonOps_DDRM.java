@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.fixed;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.MatrixDimensionException;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixBatch;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares each matrix in the output of the batch operations against the equivalent operation in CommonOps
+ *
+ * @author Peter Abeles
+ */
+public abstract class CompareBatchToCommonOps_DDRM {
+
+    Random rand = new Random(234);
+
+    Class<?> classBatch;
+    // size of the matrices
+    int N;
+    // number of matrices in each batch
+    int size = 13;
+
+    public CompareBatchToCommonOps_DDRM( Class<?> classBatch , int N ) {
+        this.classBatch = classBatch;
+        this.N = N;
+    }
+
+    @Test
+    public void mult() {
+        checkMult("mult",false,false);
+    }
+
+    @Test
+    public void multTransA() {
+        checkMult("multTransA",true,false);
+    }
+
+    @Test
+    public void multTransB() {
+        checkMult("multTransB",false,true);
+    }
+
+    private void checkMult( String name , boolean transA , boolean transB ) {
+        DMatrixBatch a = random(N,N);
+        DMatrixBatch b = random(N,N);
+        DMatrixBatch c = new DMatrixBatch(2,1,1);
+
+        invoke(name,a,b,c);
+        assertEquals(size,c.size);
+
+        DMatrixRMaj A = new DMatrixRMaj(N,N);
+        DMatrixRMaj B = new DMatrixRMaj(N,N);
+        DMatrixRMaj C = new DMatrixRMaj(N,N);
+        DMatrixRMaj expected = new DMatrixRMaj(N,N);
+        for (int i = 0; i < size; i++) {
+            a.getMatrix(i,A);
+            b.getMatrix(i,B);
+            c.getMatrix(i,C);
+            if( transA )
+                CommonOps_DDRM.multTransA(A,B,expected);
+            else if( transB )
+                CommonOps_DDRM.multTransB(A,B,expected);
+            else
+                CommonOps_DDRM.mult(A,B,expected);
+            EjmlUnitTests.assertEquals(expected,C,UtilEjml.TEST_F64);
+        }
+
+        // the output can be one of the inputs
+        DMatrixBatch found = a.copy();
+        invoke(name,found,b,found);
+        for (int i = 0; i < found.getNumElements(); i++) {
+            assertEquals(c.data[i],found.data[i],UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void invert() {
+        if( N > UtilEjml.maxInverseSize )
+            return;
+
+        DMatrixBatch a = random(N,N);
+        DMatrixBatch inv = new DMatrixBatch();
+
+        assertTrue((Boolean)invoke("invert",a,inv));
+
+        DMatrixRMaj A = new DMatrixRMaj(N,N);
+        DMatrixRMaj found = new DMatrixRMaj(N,N);
+        DMatrixRMaj expected = new DMatrixRMaj(N,N);
+        for (int i = 0; i < size; i++) {
+            a.getMatrix(i,A);
+            inv.getMatrix(i,found);
+            assertTrue(CommonOps_DDRM.invert(A,expected));
+            EjmlUnitTests.assertEquals(expected,found,UtilEjml.TEST_F64);
+        }
+
+        // a singular matrix anywhere in the batch should cause it to fail
+        for (int row = 0; row < N; row++) {
+            a.set(5,row,0,0);
+        }
+        assertFalse((Boolean)invoke("invert",a,inv));
+    }
+
+    @Test
+    public void solve() {
+        if( N > UtilEjml.maxInverseSize )
+            return;
+
+        DMatrixBatch a = random(N,N);
+        DMatrixBatch b = random(N,1);
+        DMatrixBatch x = new DMatrixBatch();
+
+        assertTrue((Boolean)invoke("solve",a,b,x));
+        assertEquals(N,x.numRows);
+        assertEquals(1,x.numCols);
+
+        DMatrixRMaj A = new DMatrixRMaj(N,N);
+        DMatrixRMaj B = new DMatrixRMaj(N,1);
+        DMatrixRMaj found = new DMatrixRMaj(N,1);
+        DMatrixRMaj expected = new DMatrixRMaj(N,1);
+        for (int i = 0; i < size; i++) {
+            a.getMatrix(i,A);
+            b.getMatrix(i,B);
+            x.getMatrix(i,found);
+            assertTrue(CommonOps_DDRM.solve(A,B,expected));
+            EjmlUnitTests.assertEquals(expected,found,UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void chol() {
+        DMatrixBatch a = randomSPD();
+        DMatrixBatch L = new DMatrixBatch();
+
+        assertTrue((Boolean)invoke("chol",a,L));
+
+        CholeskyDecompositionInner_DDRM chol = new CholeskyDecompositionInner_DDRM(true);
+        DMatrixRMaj A = new DMatrixRMaj(N,N);
+        DMatrixRMaj found = new DMatrixRMaj(N,N);
+        for (int i = 0; i < size; i++) {
+            a.getMatrix(i,A);
+            L.getMatrix(i,found);
+            assertTrue(chol.decompose(A));
+            EjmlUnitTests.assertEquals(chol.getT(null),found,UtilEjml.TEST_F64);
+        }
+
+        // the output can be the input
+        assertTrue((Boolean)invoke("chol",a,a));
+        for (int i = 0; i < a.getNumElements(); i++) {
+            assertEquals(L.data[i],a.data[i],UtilEjml.TEST_F64);
+        }
+
+        // not positive definite
+        a = randomSPD();
+        a.set(3,N-1,N-1,-1);
+        assertFalse((Boolean)invoke("chol",a,L));
+    }
+
+    @Test
+    public void solveChol() {
+        DMatrixBatch a = randomSPD();
+        DMatrixBatch b = random(N,1);
+        DMatrixBatch L = new DMatrixBatch();
+        DMatrixBatch x = new DMatrixBatch();
+
+        assertTrue((Boolean)invoke("chol",a,L));
+        invoke("solveChol",L,b,x);
+
+        DMatrixRMaj A = new DMatrixRMaj(N,N);
+        DMatrixRMaj B = new DMatrixRMaj(N,1);
+        DMatrixRMaj found = new DMatrixRMaj(N,1);
+        DMatrixRMaj expected = new DMatrixRMaj(N,1);
+        for (int i = 0; i < size; i++) {
+            a.getMatrix(i,A);
+            b.getMatrix(i,B);
+            x.getMatrix(i,found);
+            assertTrue(CommonOps_DDRM.solve(A,B,expected));
+            EjmlUnitTests.assertEquals(expected,found,UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void checkShape() {
+        DMatrixBatch a = random(N,N);
+        try {
+            invoke("mult",a,random(N+1,N),new DMatrixBatch());
+            fail("Exception should have been thrown");
+        } catch( MatrixDimensionException ignore ) {}
+
+        DMatrixBatch b = new DMatrixBatch(size+1,N,N);
+        try {
+            invoke("mult",a,b,new DMatrixBatch());
+            fail("Exception should have been thrown");
+        } catch( MatrixDimensionException ignore ) {}
+
+        try {
+            invoke("solveChol",a,random(N,N),new DMatrixBatch());
+            fail("Exception should have been thrown");
+        } catch( MatrixDimensionException ignore ) {}
+    }
+
+    private DMatrixBatch random( int numRows , int numCols ) {
+        DMatrixBatch m = new DMatrixBatch(size,numRows,numCols);
+        for (int i = 0; i < m.getNumElements(); i++) {
+            m.data[i] = rand.nextDouble()*2-1;
+        }
+        return m;
+    }
+
+    private DMatrixBatch randomSPD() {
+        DMatrixBatch m = new DMatrixBatch(size,N,N);
+        for (int i = 0; i < size; i++) {
+            m.setMatrix(i,RandomMatrices_DDRM.symmetricPosDef(N,rand));
+        }
+        return m;
+    }
+
+    private Object invoke( String name , DMatrixBatch ...args ) {
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = DMatrixBatch.class;
+        }
+        try {
+            Method m = classBatch.getMethod(name,types);
+            return m.invoke(null,(Object[])args);
+        } catch (InvocationTargetException e) {
+            if( e.getCause() instanceof RuntimeException )
+                throw (RuntimeException)e.getCause();
+            throw new RuntimeException(e);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.offheap;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixOffHeap;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCommonOps_DDOH {
+
+    Random rand = new Random(234);
+
+    int blockLength;
+
+    /**
+     * Use small blocks so that the tests have partial blocks and many blocks
+     */
+    @Before
+    public void before() {
+        blockLength = CommonOps_DDOH.BLOCK_LENGTH;
+        CommonOps_DDOH.BLOCK_LENGTH = 7;
+    }
+
+    @After
+    public void after() {
+        CommonOps_DDOH.BLOCK_LENGTH = blockLength;
+    }
+
+    @Test
+    public void extract_insert() {
+        DMatrixRMaj R = RandomMatrices_DDRM.rectangle(10,12,rand);
+        DMatrixOffHeap A = create(R);
+
+        DMatrixRMaj found = new DMatrixRMaj(1,1);
+        CommonOps_DDOH.extract(A,2,7,3,11,found);
+        DMatrixRMaj expected = CommonOps_DDRM.extract(R,2,7,3,11);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found,0));
+
+        DMatrixRMaj S = RandomMatrices_DDRM.rectangle(4,5,rand);
+        CommonOps_DDOH.insert(S,A,6,7);
+        CommonOps_DDRM.insert(S,R,6,7);
+        checkIdentical(R,A,0);
+
+        try {
+            CommonOps_DDOH.insert(S,A,7,7);
+            fail("Exception expected");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    @Test
+    public void add() {
+        DMatrixRMaj Ra = RandomMatrices_DDRM.rectangle(20,13,rand);
+        DMatrixRMaj Rb = RandomMatrices_DDRM.rectangle(20,13,rand);
+        DMatrixRMaj expected = new DMatrixRMaj(20,13);
+        DMatrixOffHeap found = new DMatrixOffHeap(1,1,4);
+
+        CommonOps_DDRM.add(Ra,Rb,expected);
+        CommonOps_DDOH.add(create(Ra),create(Rb),found);
+        checkIdentical(expected,found,UtilEjml.TEST_F64);
+
+        CommonOps_DDRM.add(2.0,Ra,-0.5,Rb,expected);
+        CommonOps_DDOH.add(2.0,create(Ra),-0.5,create(Rb),found);
+        checkIdentical(expected,found,UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void transpose() {
+        DMatrixRMaj R = RandomMatrices_DDRM.rectangle(17,30,rand);
+        DMatrixOffHeap found = new DMatrixOffHeap(1,1,4);
+
+        CommonOps_DDOH.transpose(create(R),found);
+        checkIdentical(CommonOps_DDRM.transpose(R,null),found,0);
+    }
+
+    @Test
+    public void mult() {
+        int shapes[][] = new int[][]{{1,1,1},{5,3,6},{20,15,17},{30,7,1},{14,14,14}};
+        for( int shape[] : shapes ) {
+            DMatrixRMaj Ra = RandomMatrices_DDRM.rectangle(shape[0],shape[1],rand);
+            DMatrixRMaj Rb = RandomMatrices_DDRM.rectangle(shape[1],shape[2],rand);
+            DMatrixRMaj expected = new DMatrixRMaj(shape[0],shape[2]);
+            CommonOps_DDRM.mult(Ra,Rb,expected);
+
+            DMatrixOffHeap found = new DMatrixOffHeap(1,1,4);
+            CommonOps_DDOH.mult(create(Ra),create(Rb),found);
+            checkIdentical(expected,found,UtilEjml.TEST_F64);
+        }
+    }
+
+    static DMatrixOffHeap create( DMatrixRMaj R ) {
+        DMatrixOffHeap A = new DMatrixOffHeap(1,1,5);
+        A.set(R);
+        return A;
+    }
+
+    static void checkIdentical( DMatrixRMaj expected , DMatrixOffHeap found , double tol ) {
+        DMatrixRMaj R = new DMatrixRMaj(1,1);
+        CommonOps_DDOH.extract(found,0,found.numRows,0,found.numCols,R);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,R,tol));
+    }
+}
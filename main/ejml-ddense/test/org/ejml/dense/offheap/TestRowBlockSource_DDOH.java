@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.offheap;
+
+import org.ejml.data.DMatrixOffHeap;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRowBlockSource_DDOH {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void read() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(11,6,rand);
+        // small chunks so that rows span multiple chunks
+        DMatrixOffHeap B = new DMatrixOffHeap(11,6,4);
+        B.set(A);
+
+        RowBlockSource_DDOH alg = new RowBlockSource_DDOH(B);
+        assertEquals(11,alg.getNumRows());
+        assertEquals(6,alg.getNumCols());
+
+        double data[] = new double[4*6];
+        // read it twice to test reset
+        for (int trial = 0; trial < 2; trial++) {
+            alg.reset();
+            int row = 0;
+            int found;
+            while( (found = alg.read(data,4)) > 0 ) {
+                assertEquals(Math.min(4,11-row),found);
+                for (int i = 0; i < found; i++) {
+                    for (int j = 0; j < 6; j++) {
+                        assertEquals(A.get(row+i,j),data[i*6+j],0);
+                    }
+                }
+                row += found;
+            }
+            assertEquals(11,row);
+        }
+    }
+}
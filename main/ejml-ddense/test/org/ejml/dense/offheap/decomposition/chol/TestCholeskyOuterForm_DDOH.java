@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.dense.offheap.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixOffHeap;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.offheap.CommonOps_DDOH;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.chol.CholeskyDecompositionInner_DDRM;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyOuterForm_DDOH {
+
+    Random rand = new Random(234);
+
+    /**
+     * Compare against the row-major algorithm.  Block sizes are chosen so that there are partial blocks.
+     */
+    @Test
+    public void compareToRowMajor() {
+        for( int N : new int[]{1,5,7,20,33} ) {
+            DMatrixRMaj R = RandomMatrices_DDRM.symmetricPosDef(N,rand);
+
+            CholeskyDecompositionInner_DDRM expected = new CholeskyDecompositionInner_DDRM(true);
+            assertTrue(expected.decompose(R.copy()));
+
+            DMatrixOffHeap A = new DMatrixOffHeap(1,1,4);
+            A.set(R);
+            CholeskyOuterForm_DDOH alg = new CholeskyOuterForm_DDOH(7);
+            assertTrue(alg.decompose(A));
+            assertTrue(alg.isLower());
+
+            DMatrixRMaj found = new DMatrixRMaj(1,1);
+            CommonOps_DDOH.extract(alg.getT(null),0,N,0,N,found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getT(null),found,UtilEjml.TEST_F64));
+
+            // L*L^T should be the original matrix
+            DMatrixRMaj LLt = new DMatrixRMaj(N,N);
+            CommonOps_DDRM.multTransB(found,found,LLt);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(R,LLt,UtilEjml.TEST_F64));
+
+            assertEquals(CommonOps_DDRM.det(R),alg.computeDeterminant().real,UtilEjml.TEST_F64*Math.abs(CommonOps_DDRM.det(R)));
+        }
+    }
+
+    @Test
+    public void notPositiveDefinite() {
+        DMatrixRMaj R = RandomMatrices_DDRM.symmetricPosDef(20,rand);
+        // make a diagonal element in the second block negative
+        R.set(10,10,-1);
+
+        DMatrixOffHeap A = new DMatrixOffHeap(1,1,4);
+        A.set(R);
+        assertFalse(new CholeskyOuterForm_DDOH(7).decompose(A));
+    }
+}
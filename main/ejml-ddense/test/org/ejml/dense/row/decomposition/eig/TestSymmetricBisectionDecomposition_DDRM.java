@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecomposition_DDRB_to_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricBisectionDecomposition_DDRM extends GeneralEigenDecompositionCheck_DDRM {
+
+    /**
+     * By default all the eigenvalues are selected, so it should pass the same tests as the other algorithms
+     */
+    @Override
+    public EigenDecomposition_F64 createDecomposition() {
+        return new SymmetricBisectionDecomposition_DDRM(computeVectors);
+    }
+
+    @Test
+    public void justSymmetricTests() {
+        computeVectors = true;
+
+        checkSizeZero();
+        checkRandomSymmetric();
+        checkIdentity();
+        checkAllZeros();
+        checkWithSomeRepeatedValuesSymm();
+        checkWithSingularSymm();
+        checkSmallValue(true);
+        checkLargeValue(true);
+
+        computeVectors = false;
+        checkKnownSymmetric_JustValue();
+    }
+
+    @Test
+    public void selectByIndex() {
+        int N = 40;
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N,-1,1,rand);
+        double expected[] = computeExpected(A);
+
+        SymmetricBisectionDecomposition_DDRM alg = new SymmetricBisectionDecomposition_DDRM(true);
+
+        // the smallest eigenvalues
+        alg.setIndexRange(0,4);
+        assertTrue(alg.decompose(A.copy()));
+        checkSelected(alg,A,expected,0,5);
+
+        // from the middle
+        alg.setIndexRange(10,20);
+        assertTrue(alg.decompose(A.copy()));
+        checkSelected(alg,A,expected,10,11);
+
+        // range is larger than the matrix
+        alg.setIndexRange(N-3,N+10);
+        assertTrue(alg.decompose(A.copy()));
+        checkSelected(alg,A,expected,N-3,3);
+
+        alg.setIndexRange(N,N+10);
+        assertTrue(alg.decompose(A.copy()));
+        assertEquals(0,alg.getNumberOfEigenvalues());
+    }
+
+    @Test
+    public void selectByInterval() {
+        int N = 40;
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N,-1,1,rand);
+        double expected[] = computeExpected(A);
+
+        SymmetricBisectionDecomposition_DDRM alg = new SymmetricBisectionDecomposition_DDRM(true);
+
+        alg.setInterval((expected[6]+expected[7])/2,(expected[15]+expected[16])/2);
+        assertTrue(alg.decompose(A.copy()));
+        checkSelected(alg,A,expected,7,9);
+
+        alg.setInterval(expected[N-1]+1,expected[N-1]+2);
+        assertTrue(alg.decompose(A.copy()));
+        assertEquals(0,alg.getNumberOfEigenvalues());
+    }
+
+    /**
+     * Just the eigenvalues are computed
+     */
+    @Test
+    public void valuesOnly() {
+        int N = 20;
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N,-1,1,rand);
+        double expected[] = computeExpected(A);
+
+        SymmetricBisectionDecomposition_DDRM alg = new SymmetricBisectionDecomposition_DDRM(false);
+        alg.setIndexRange(3,8);
+        assertTrue(alg.decompose(A.copy()));
+        assertEquals(6,alg.getNumberOfEigenvalues());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(expected[3+i],alg.getEigenvalue(i).real,UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * The eigenvectors can't be converted by applying the householder reflectors directly
+     */
+    @Test
+    public void otherTridiagonal() {
+        int N = 30;
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N,-1,1,rand);
+        double expected[] = computeExpected(A);
+
+        SymmetricBisectionDecomposition_DDRM alg =
+                new SymmetricBisectionDecomposition_DDRM(new TridiagonalDecomposition_DDRB_to_DDRM(),true);
+        alg.setIndexRange(0,3);
+        assertTrue(alg.decompose(A.copy()));
+        checkSelected(alg,A,expected,0,4);
+    }
+
+    private void checkSelected( SymmetricBisectionDecomposition_DDRM alg , DMatrixRMaj A ,
+                                double expected[] , int first , int count ) {
+        assertEquals(count,alg.getNumberOfEigenvalues());
+
+        DMatrixRMaj Av = new DMatrixRMaj(A.numRows,1);
+        for (int i = 0; i < count; i++) {
+            double value = alg.getEigenvalue(i).real;
+            assertEquals(expected[first+i],value,UtilEjml.TEST_F64);
+
+            DMatrixRMaj v = alg.getEigenVector(i);
+            assertEquals(1,CommonOps_DDRM.dot(v,v),UtilEjml.TEST_F64);
+            CommonOps_DDRM.mult(A,v,Av);
+            for (int j = 0; j < A.numRows; j++) {
+                assertEquals(value*v.get(j),Av.get(j),UtilEjml.TEST_F64);
+            }
+            for (int j = 0; j < i; j++) {
+                assertEquals(0,CommonOps_DDRM.dot(v,alg.getEigenVector(j)),UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    private double[] computeExpected( DMatrixRMaj A ) {
+        SymmetricQRAlgorithmDecomposition_DDRM qr = new SymmetricQRAlgorithmDecomposition_DDRM(false);
+        assertTrue(qr.decompose(A.copy()));
+        double expected[] = new double[A.numRows];
+        for (int i = 0; i < A.numRows; i++) {
+            expected[i] = qr.getEigenvalue(i).real;
+        }
+        Arrays.sort(expected);
+        return expected;
+    }
+}
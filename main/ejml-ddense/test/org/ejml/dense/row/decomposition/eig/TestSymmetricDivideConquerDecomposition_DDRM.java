@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.TridiagonalDecomposition_DDRB_to_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.junit.Test;
+
+import static org.ejml.dense.row.decomposition.CheckDecompositionInterface_DDRM.safeDecomposition;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricDivideConquerDecomposition_DDRM extends GeneralEigenDecompositionCheck_DDRM {
+
+    boolean block = false;
+
+    @Override
+    public EigenDecomposition_F64 createDecomposition() {
+        if( block )
+            return new SymmetricDivideConquerDecomposition_DDRM(new TridiagonalDecomposition_DDRB_to_DDRM(),computeVectors);
+        else
+            return new SymmetricDivideConquerDecomposition_DDRM(computeVectors);
+    }
+
+    @Test
+    public void justSymmetricTests() {
+        computeVectors = true;
+
+        checkSizeZero();
+        checkRandomSymmetric();
+        checkIdentity();
+        checkAllZeros();
+        checkWithSomeRepeatedValuesSymm();
+        checkWithSingularSymm();
+        checkSmallValue(true);
+        checkLargeValue(true);
+
+        computeVectors = false;
+        checkKnownSymmetric_JustValue();
+    }
+
+    /**
+     * Matrices which are large enough to be split into multiple sub-problems
+     */
+    @Test
+    public void largeMatrices() {
+        computeVectors = true;
+        EigenDecomposition_F64 alg = createDecomposition();
+
+        for( int N : new int[]{30,80} ) {
+            DMatrixRMaj A = RandomMatrices_DDRM.symmetric(N,-1,1,rand);
+            assertTrue(safeDecomposition(alg,A));
+            performStandardTests(alg,A,N);
+        }
+    }
+
+    /**
+     * The eigenvectors can't be converted by applying the householder reflectors directly
+     */
+    @Test
+    public void otherTridiagonal() {
+        block = true;
+        computeVectors = true;
+        EigenDecomposition_F64 alg = createDecomposition();
+
+        DMatrixRMaj A = RandomMatrices_DDRM.symmetric(40,-1,1,rand);
+        assertTrue(safeDecomposition(alg,A));
+        performStandardTests(alg,A,40);
+    }
+}
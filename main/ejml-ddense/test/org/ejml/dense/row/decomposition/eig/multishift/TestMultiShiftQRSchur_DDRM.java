@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.multishift;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.decomposition.hessenberg.HessenbergSimilarDecomposition_DDRM;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultiShiftQRSchur_DDRM {
+
+    Random rand = new Random(234);
+
+    /**
+     * Computes the Schur form of random matrices and sees if it's a valid decomposition.  Large enough that
+     * several sweeps and deflation windows are needed
+     */
+    @Test
+    public void random() {
+        for( int N : new int[]{80,150,301} ) {
+            checkSchur(RandomMatrices_DDRM.rectangle(N,N,-1,1,rand),new MultiShiftQRSchur_DDRM());
+        }
+    }
+
+    /**
+     * Lower the size at which the double shift algorithm is used, so that the multishift code is used in
+     * the sub-problems too
+     */
+    @Test
+    public void smallMinimumSize() {
+        for( int N : new int[]{12,13,20,45} ) {
+            checkSchur(RandomMatrices_DDRM.rectangle(N,N,-1,1,rand),new MultiShiftQRSchur_DDRM(12));
+        }
+    }
+
+    /**
+     * Symmetric matrices have only real eigenvalues and many of them are close together
+     */
+    @Test
+    public void symmetric() {
+        checkSchur(RandomMatrices_DDRM.symmetric(120,-1,1,rand),new MultiShiftQRSchur_DDRM());
+    }
+
+    /**
+     * Matrices with lots of repeated eigenvalues and zeros
+     */
+    @Test
+    public void degenerate() {
+        DMatrixRMaj A = new DMatrixRMaj(100,100);
+        checkSchur(A,new MultiShiftQRSchur_DDRM());
+
+        A = CommonOps_DDRM.identity(100);
+        checkSchur(A,new MultiShiftQRSchur_DDRM());
+
+        // a cyclic permutation matrix.  its eigenvalues are on the unit circle
+        A = new DMatrixRMaj(90,90);
+        for( int i = 0; i < 90; i++ ) {
+            A.set((i+1)%90,i,1);
+        }
+        checkSchur(A,new MultiShiftQRSchur_DDRM());
+    }
+
+    /**
+     * Only the eigenvalues are requested.  They should be the same as when the full Schur form is computed
+     */
+    @Test
+    public void eigenvaluesOnly() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(200,200,-1,1,rand);
+        HessenbergSimilarDecomposition_DDRM hess = new HessenbergSimilarDecomposition_DDRM();
+        assertTrue(hess.decompose(A.copy()));
+        DMatrixRMaj H = hess.getH(null);
+
+        MultiShiftQRSchur_DDRM alg = new MultiShiftQRSchur_DDRM();
+        assertTrue(alg.process(H.copy(),false,null));
+        double sumR = 0, sumI = 0;
+        for( int i = 0; i < 200; i++ ) {
+            sumR += alg.getWr()[i];
+            sumI += alg.getWi()[i];
+        }
+
+        // the trace is the sum of the eigenvalues
+        assertEquals(CommonOps_DDRM.trace(A),sumR,UtilEjml.TEST_F64_SQ);
+        assertEquals(0,sumI,UtilEjml.TEST_F64_SQ);
+
+        // every eigenvalue of the H should be found
+        DMatrixRMaj T = H.copy();
+        assertTrue(alg.process(T,true,null));
+        for( int i = 0; i < 200; i++ ) {
+            assertEquals(T.get(i,i),alg.getWr()[i],UtilEjml.TEST_F64_SQ);
+        }
+    }
+
+    private void checkSchur( DMatrixRMaj A , MultiShiftQRSchur_DDRM alg ) {
+        int N = A.numRows;
+        HessenbergSimilarDecomposition_DDRM hess = new HessenbergSimilarDecomposition_DDRM();
+        assertTrue(hess.decompose(A.copy()));
+        DMatrixRMaj T = hess.getH(null);
+        DMatrixRMaj Z = hess.getQ(null);
+
+        assertTrue(alg.process(T,true,Z));
+
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Z,UtilEjml.TEST_F64));
+
+        // A = Z*T*Z'
+        DMatrixRMaj tmp = new DMatrixRMaj(N,N);
+        DMatrixRMaj found = new DMatrixRMaj(N,N);
+        CommonOps_DDRM.mult(Z,T,tmp);
+        CommonOps_DDRM.multTransB(tmp,Z,found);
+        double scale = Math.max(1,NormOps_DDRM.normF(A));
+        for( int i = 0; i < N*N; i++ ) {
+            assertEquals(A.data[i]/scale,found.data[i]/scale,UtilEjml.TEST_F64);
+        }
+
+        // quasi-triangular with 2x2 blocks in standard form
+        for( int i = 0; i < N; i++ ) {
+            for( int j = 0; j < i-1; j++ ) {
+                assertEquals(0,T.get(i,j),0);
+            }
+        }
+        for( int i = 0; i < N; ) {
+            if( i+1 < N && T.get(i+1,i) != 0 ) {
+                assertTrue( i+2 >= N || T.get(i+2,i+1) == 0 );
+                assertEquals(T.get(i,i),T.get(i+1,i+1),0);
+                assertTrue(T.get(i,i+1)*T.get(i+1,i) < 0);
+
+                double imag = Math.sqrt(Math.abs(T.get(i,i+1)))*Math.sqrt(Math.abs(T.get(i+1,i)));
+                assertEquals(T.get(i,i),alg.getWr()[i],UtilEjml.TEST_F64);
+                assertEquals(imag,Math.abs(alg.getWi()[i]),UtilEjml.TEST_F64);
+                assertEquals(-alg.getWi()[i],alg.getWi()[i+1],0);
+                i += 2;
+            } else {
+                assertEquals(T.get(i,i),alg.getWr()[i],UtilEjml.TEST_F64);
+                assertEquals(0,alg.getWi()[i],0);
+                i += 1;
+            }
+        }
+    }
+}
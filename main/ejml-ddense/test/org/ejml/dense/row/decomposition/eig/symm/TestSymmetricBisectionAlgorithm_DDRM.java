@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricBisectionAlgorithm_DDRM {
+
+    private Random rand = new Random(234234);
+
+    @Test
+    public void countLessThan() {
+        int N = 20;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        randomMatrix(diag, off, N);
+        double expected[] = computeExpected(diag,off,N);
+
+        SymmetricBisectionAlgorithm_DDRM alg = new SymmetricBisectionAlgorithm_DDRM();
+        alg.setMatrix(diag,off,N);
+
+        for (int i = 1; i < N; i++) {
+            assertEquals(i,alg.countLessThan((expected[i-1]+expected[i])/2));
+        }
+        assertEquals(0,alg.countLessThan(expected[0]-1));
+        assertEquals(N,alg.countLessThan(expected[N-1]+1));
+    }
+
+    /**
+     * Select every possible range of eigenvalues and compare against the QR algorithm
+     */
+    @Test
+    public void findByIndex() {
+        for( int N : new int[]{1,2,5,12} ) {
+            double diag[] = new double[N];
+            double off[] = new double[N];
+            randomMatrix(diag, off, N);
+            double expected[] = computeExpected(diag,off,N);
+
+            SymmetricBisectionAlgorithm_DDRM alg = new SymmetricBisectionAlgorithm_DDRM();
+            alg.setMatrix(diag,off,N);
+
+            for (int first = 0; first < N; first++) {
+                for (int last = first; last < N; last++) {
+                    alg.findByIndex(first,last);
+                    assertEquals(last-first+1,alg.getNumberOfEigenvalues());
+                    for (int i = first; i <= last; i++) {
+                        assertEquals(expected[i],alg.getEigenvalue(i-first),UtilEjml.TEST_F64);
+                    }
+                    checkVectors(alg,diag,off,N);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void findByInterval() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        randomMatrix(diag, off, N);
+        double expected[] = computeExpected(diag,off,N);
+
+        SymmetricBisectionAlgorithm_DDRM alg = new SymmetricBisectionAlgorithm_DDRM();
+        alg.setMatrix(diag,off,N);
+
+        // interval which contains eigenvalues 5 to 10
+        double lower = (expected[4]+expected[5])/2;
+        double upper = (expected[10]+expected[11])/2;
+        alg.findByInterval(lower,upper);
+        assertEquals(6,alg.getNumberOfEigenvalues());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(expected[5+i],alg.getEigenvalue(i),UtilEjml.TEST_F64);
+        }
+        checkVectors(alg,diag,off,N);
+
+        // nothing inside the interval
+        alg.findByInterval(expected[N-1]+1,expected[N-1]+2);
+        assertEquals(0,alg.getNumberOfEigenvalues());
+        alg.findByInterval(lower,lower);
+        assertEquals(0,alg.getNumberOfEigenvalues());
+
+        // everything is inside the interval
+        alg.findByInterval(expected[0]-1,expected[N-1]+1);
+        assertEquals(N,alg.getNumberOfEigenvalues());
+    }
+
+    /**
+     * The Wilkinson matrix has pairs of eigenvalues which are almost identical.  The eigenvectors need to be
+     * orthogonalized against each other
+     */
+    @Test
+    public void wilkinson() {
+        int N = 21;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.abs(i-N/2);
+        }
+        Arrays.fill(off,1);
+
+        checkAll(diag, off, N);
+    }
+
+    /**
+     * Identical blocks along the diagonal produce eigenvalues with multiplicities
+     */
+    @Test
+    public void repeatedValues() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = 1+(i%3);
+            off[i] = i%3 == 2 ? 0 : 0.5;
+        }
+        checkAll(diag, off, N);
+
+        // the identity matrix
+        Arrays.fill(diag,1);
+        Arrays.fill(off,0);
+        checkAll(diag, off, N);
+
+        // all zeros
+        Arrays.fill(diag,0);
+        checkAll(diag, off, N);
+    }
+
+    /**
+     * Values with very different magnitudes
+     */
+    @Test
+    public void largeRange() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.pow(10,-(i%8));
+            off[i] = Math.pow(10,-(i%5));
+        }
+        checkAll(diag, off, N);
+
+        for (int i = 0; i < N; i++) {
+            diag[i] *= 1e20;
+            off[i] *= 1e20;
+        }
+        checkAll(diag, off, N);
+    }
+
+    private void checkAll(double[] diag, double[] off, int N) {
+        double expected[] = computeExpected(diag,off,N);
+
+        SymmetricBisectionAlgorithm_DDRM alg = new SymmetricBisectionAlgorithm_DDRM();
+        alg.setMatrix(diag,off,N);
+        alg.findByIndex(0,N-1);
+        double scale = Math.max(1,Math.max(Math.abs(expected[0]),Math.abs(expected[N-1])));
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i],alg.getEigenvalue(i),UtilEjml.TEST_F64*scale);
+        }
+        checkVectors(alg,diag,off,N);
+    }
+
+    /**
+     * Checks to see if the eigenvectors are orthogonal and T*v = &lambda;*v
+     */
+    private void checkVectors( SymmetricBisectionAlgorithm_DDRM alg , double diag[] , double off[] , int N ) {
+        DMatrixRMaj V = new DMatrixRMaj(1,1);
+        alg.computeVectors(V);
+        int numFound = alg.getNumberOfEigenvalues();
+        assertEquals(numFound,V.numRows);
+        assertEquals(N,V.numCols);
+
+        double scale = 0;
+        for (int i = 0; i < N; i++) {
+            scale = Math.max(scale,Math.max(Math.abs(diag[i]),Math.abs(off[i])));
+        }
+        if( scale == 0 )
+            scale = 1;
+
+        for (int k = 0; k < numFound; k++) {
+            double lambda = alg.getEigenvalue(k);
+            for (int i = 0; i < N; i++) {
+                double found = diag[i]*V.get(k,i);
+                if( i > 0 )
+                    found += off[i-1]*V.get(k,i-1);
+                if( i+1 < N )
+                    found += off[i]*V.get(k,i+1);
+                assertEquals(lambda*V.get(k,i),found,UtilEjml.TEST_F64*scale);
+            }
+        }
+
+        DMatrixRMaj VV = new DMatrixRMaj(numFound,numFound);
+        CommonOps_DDRM.multTransB(V,V,VV);
+        assertTrue(MatrixFeatures_DDRM.isIdentity(VV,UtilEjml.TEST_F64));
+    }
+
+    private void randomMatrix(double[] diag, double[] off, int n) {
+        for (int i = 0; i < n; i++) {
+            diag[i] = rand.nextDouble()*2-1;
+            off[i] = rand.nextDouble()*2-1;
+        }
+    }
+
+    private double[] computeExpected( double diag[] , double off[] , int N ) {
+        SymmetricQrAlgorithm_DDRM qr = new SymmetricQrAlgorithm_DDRM();
+        assertTrue(qr.process(N,diag.clone(),off.clone()));
+        double expected[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = qr.getEigenvalue(i);
+        }
+        Arrays.sort(expected);
+        return expected;
+    }
+}
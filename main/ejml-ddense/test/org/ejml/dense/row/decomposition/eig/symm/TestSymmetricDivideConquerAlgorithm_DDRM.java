@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.eig.symm;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricDivideConquerAlgorithm_DDRM {
+
+    private Random rand = new Random(234234);
+
+    /**
+     * Random matrices with different leaf sizes so that the merge is tested at all levels
+     */
+    @Test
+    public void random() {
+        for( int leafSize : new int[]{1,2,3,25} ) {
+            for( int N : new int[]{1,2,3,4,7,20,64} ) {
+                double diag[] = new double[N];
+                double off[] = new double[N];
+                for (int i = 0; i < N; i++) {
+                    diag[i] = rand.nextDouble()*2-1;
+                    off[i] = rand.nextDouble()*2-1;
+                }
+                check(diag,off,N,leafSize);
+            }
+        }
+    }
+
+    /**
+     * Off diagonal elements with the same sign, which means the rank one update always has the same sign
+     */
+    @Test
+    public void signOfOffDiagonal() {
+        int N = 40;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = rand.nextDouble();
+            off[i] = rand.nextDouble();
+        }
+        check(diag,off,N,3);
+        for (int i = 0; i < N; i++) {
+            off[i] = -off[i];
+        }
+        check(diag,off,N,3);
+    }
+
+    /**
+     * Matrix with 2 along the diagonal and -1 off diagonal has known eigenvalues.  It's the 1D Laplacian
+     */
+    @Test
+    public void laplacian() {
+        int N = 50;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        Arrays.fill(diag,2);
+        Arrays.fill(off,-1);
+
+        SymmetricDivideConquerAlgorithm_DDRM alg = check(diag,off,N,4);
+
+        double found[] = Arrays.copyOf(alg.getEigenvalues(),N);
+        Arrays.sort(found);
+        for( int i = 0; i < N; i++ ) {
+            double s = Math.sin((i+1)*UtilEjml.PI/(2.0*(N+1)));
+            assertEquals(4*s*s,found[i],UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * The Wilkinson matrix has pairs of eigenvalues which are almost identical
+     */
+    @Test
+    public void wilkinson() {
+        int N = 41;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.abs(i-N/2);
+        }
+        Arrays.fill(off,1);
+        check(diag,off,N,3);
+    }
+
+    /**
+     * Repeated eigenvalues will cause the same eigenvalues to show up in both sub-problems
+     */
+    @Test
+    public void repeatedValues() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = 1+(i%3);
+            off[i] = i%5 == 0 ? 0.5 : 0;
+        }
+        check(diag,off,N,2);
+
+        // the identity matrix
+        Arrays.fill(diag,1);
+        Arrays.fill(off,0);
+        check(diag,off,N,2);
+    }
+
+    /**
+     * Zeros along the diagonal and off diagonal
+     */
+    @Test
+    public void zeros() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = i%4 == 0 ? 0 : rand.nextDouble();
+            off[i] = i%3 == 0 ? 0 : rand.nextDouble();
+        }
+        check(diag,off,N,2);
+
+        // matrix which is all zeros
+        Arrays.fill(diag,0);
+        Arrays.fill(off,0);
+        SymmetricDivideConquerAlgorithm_DDRM alg = check(diag,off,N,2);
+        for (int i = 0; i < N; i++) {
+            assertEquals(0,alg.getEigenvalues()[i],UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Values with very different magnitudes
+     */
+    @Test
+    public void largeRange() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.pow(10,-(i%8));
+            off[i] = Math.pow(10,-(i%5));
+        }
+        check(diag,off,N,3);
+    }
+
+    /**
+     * Checks the decomposition against the original matrix and compares eigenvalues against the QR algorithm
+     */
+    private SymmetricDivideConquerAlgorithm_DDRM check( double diag[] , double off[] , int N , int leafSize ) {
+        SymmetricDivideConquerAlgorithm_DDRM alg = new SymmetricDivideConquerAlgorithm_DDRM();
+        alg.setLeafSize(leafSize);
+
+        assertTrue(alg.process(diag,off,N));
+        assertEquals(N,alg.getNumberOfEigenvalues());
+
+        DMatrixRMaj Q = alg.getQ();
+        double values[] = alg.getEigenvalues();
+
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Q,UtilEjml.TEST_F64));
+
+        DMatrixRMaj T = new DMatrixRMaj(N,N);
+        for (int i = 0; i < N; i++) {
+            T.set(i,i,diag[i]);
+            if( i+1 < N ) {
+                T.set(i,i+1,off[i]);
+                T.set(i+1,i,off[i]);
+            }
+        }
+        DMatrixRMaj D = new DMatrixRMaj(N,N);
+        for (int i = 0; i < N; i++) {
+            D.set(i,i,values[i]);
+        }
+        DMatrixRMaj tmp = new DMatrixRMaj(N,N);
+        DMatrixRMaj found = new DMatrixRMaj(N,N);
+        CommonOps_DDRM.mult(Q,D,tmp);
+        CommonOps_DDRM.multTransB(tmp,Q,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(T,found,UtilEjml.TEST_F64));
+
+        // compare eigenvalues against a different algorithm
+        SymmetricQrAlgorithm_DDRM qr = new SymmetricQrAlgorithm_DDRM();
+        assertTrue(qr.process(N,diag.clone(),off.clone()));
+        double expected[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = qr.getEigenvalue(i);
+        }
+        double copy[] = Arrays.copyOf(values,N);
+        Arrays.sort(expected);
+        Arrays.sort(copy);
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i],copy[i],UtilEjml.TEST_F64);
+        }
+
+        return alg;
+    }
+}
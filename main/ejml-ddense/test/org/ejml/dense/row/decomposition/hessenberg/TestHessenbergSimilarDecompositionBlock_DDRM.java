@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.hessenberg;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.ejml.dense.row.decomposition.CheckDecompositionInterface_DDRM.safeDecomposition;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestHessenbergSimilarDecompositionBlock_DDRM {
+
+    Random rand = new Random(234);
+
+    /**
+     * The blocked algorithm should produce the same H and Q as the unblocked algorithm for matrices which
+     * are smaller than, equal to, and larger than multiples of the block length.
+     */
+    @Test
+    public void compareToUnblocked() {
+        for( int N : new int[]{1,2,3,4,5,7,8,9,15,16,17,30} ) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N,N,-1,1,rand);
+
+            HessenbergSimilarDecomposition_DDRM expected = new HessenbergSimilarDecomposition_DDRM(N);
+            HessenbergSimilarDecompositionBlock_DDRM found = new HessenbergSimilarDecompositionBlock_DDRM(4,N);
+
+            assertTrue(safeDecomposition(expected,A));
+            assertTrue(safeDecomposition(found,A));
+
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getH(null),found.getH(null),UtilEjml.TEST_F64));
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getQ(null),found.getQ(null),UtilEjml.TEST_F64));
+        }
+    }
+
+    /**
+     * Recompute A from H and Q with a matrix large enough for several panels and tiles
+     */
+    @Test
+    public void testItAllTogether() {
+        int N = 150;
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(N,N,-1,1,rand);
+
+        HessenbergSimilarDecompositionBlock_DDRM decomp = new HessenbergSimilarDecompositionBlock_DDRM(10,N);
+
+        assertTrue(safeDecomposition(decomp,A));
+
+        DMatrixRMaj Q = decomp.getQ(null);
+        DMatrixRMaj H = decomp.getH(null);
+
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Q, UtilEjml.TEST_F64));
+        for( int i = 2; i < N; i++ ) {
+            for( int j = 0; j < i-1; j++ ) {
+                assertTrue(H.get(i,j) == 0);
+            }
+        }
+
+        DMatrixRMaj temp = new DMatrixRMaj(N,N);
+        DMatrixRMaj found = new DMatrixRMaj(N,N);
+        CommonOps_DDRM.mult(Q,H,temp);
+        CommonOps_DDRM.multTransB(temp,Q,found);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(A,found,UtilEjml.TEST_F64));
+    }
+}
@@ -74,6 +74,31 @@ public class TestHessenbergSimilarDecomposition_DDRM {
         assertTrue(MatrixFeatures_DDRM.isIdentical(A,H,UtilEjml.TEST_F64));
     }
 
+    /**
+     * Decompose a large matrix then a smaller one with the same instance.  Values from the first
+     * decomposition must not leak into the second.
+     */
+    @Test
+    public void testLargeThenSmall() {
+        HessenbergSimilarDecomposition_DDRM decomp = new HessenbergSimilarDecomposition_DDRM(5);
+
+        assertTrue(safeDecomposition(decomp,RandomMatrices_DDRM.rectangle(10,10,rand)));
+
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(5,5,rand);
+        assertTrue(safeDecomposition(decomp,A));
+
+        DMatrixRMaj Q = decomp.getQ(null);
+        DMatrixRMaj H = decomp.getH(null);
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(Q, UtilEjml.TEST_F64));
+
+        DMatrixRMaj temp = new DMatrixRMaj(5,5);
+        DMatrixRMaj found = new DMatrixRMaj(5,5);
+        CommonOps_DDRM.multTransA(Q,A,temp);
+        CommonOps_DDRM.mult(temp,Q,found);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(H,found,UtilEjml.TEST_F64));
+    }
+
     /**
      * Make sure it doesn't change the input
      */
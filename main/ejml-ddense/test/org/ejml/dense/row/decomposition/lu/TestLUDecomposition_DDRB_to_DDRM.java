@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLUDecomposition_DDRB_to_DDRM extends GeneralLuDecompositionChecks_DDRM {
+
+    @Override
+    public LUDecompositionBase_DDRM create(int numRows, int numCols) {
+        // small block size so that the tests have several blocks
+        return new LUDecomposition_DDRB_to_DDRM(2);
+    }
+
+    /**
+     * The results should be stored exactly the same way as in the row major algorithm
+     */
+    @Test
+    public void compareToAlt() {
+        int shapes[][] = new int[][]{{20,20},{23,23},{5,17},{17,5},{21,9},{9,21}};
+
+        for( int[] shape : shapes ) {
+            DMatrixRMaj A = RandomMatrices_DDRM.rectangle(shape[0],shape[1],-1,1,rand);
+
+            LUDecompositionAlt_DDRM expected = new LUDecompositionAlt_DDRM();
+            LUDecompositionBase_DDRM found = new LUDecomposition_DDRB_to_DDRM(4);
+
+            assertTrue(expected.decompose(A));
+            assertTrue(found.decompose(A));
+
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getLU(),found.getLU(), UtilEjml.TEST_F64));
+            assertArrayEquals(expected.getPivot(),found.getPivot());
+            int N = Math.min(shape[0],shape[1]);
+            for( int i = 0; i < N; i++ ) {
+                assertEquals(expected.getIndx()[i],found.getIndx()[i]);
+            }
+            if( shape[0] == shape[1] ) {
+                double det = expected.computeDeterminant().real;
+                assertEquals(det,found.computeDeterminant().real,Math.abs(det)*UtilEjml.TEST_F64);
+            }
+        }
+    }
+}
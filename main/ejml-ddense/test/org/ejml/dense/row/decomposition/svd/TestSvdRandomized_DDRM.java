@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdRandomized_DDRM {
+
+    Random rand = new Random(234);
+
+    /**
+     * If the rank of A is less than the number of samples then the solution is exact
+     */
+    @Test
+    public void exactLowRank() {
+        checkExact(120,40);
+        checkExact(40,120);
+    }
+
+    private void checkExact( int numRows , int numCols ) {
+        double sv[] = new double[]{10,8,7,5,4,2,1,0.5};
+        DMatrixRMaj A = lowRank(numRows,numCols,sv);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(5,5,0,true,true);
+        assertTrue(alg.decompose(A));
+
+        assertEquals(5,alg.numberOfSingularValues());
+        assertTrue(alg.isCompact());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(sv[i],alg.getSingularValues()[i],UtilEjml.TEST_F64);
+        }
+
+        checkVectors(A,alg,UtilEjml.TEST_F64);
+    }
+
+    /**
+     * Full rank matrix where the singular values decay.  Power iterations should make the approximation
+     * accurate
+     */
+    @Test
+    public void decayingSingularValues() {
+        int N = 60;
+        double sv[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            sv[i] = Math.pow(0.7,i);
+        }
+        DMatrixRMaj A = RandomMatrices_DDRM.singleValues(150,N,rand,sv);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(6);
+        assertTrue(alg.decompose(A));
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals(sv[i],alg.getSingularValues()[i],UtilEjml.TEST_F64_SQ);
+        }
+        checkVectors(A,alg,UtilEjml.TEST_F64_SQ);
+    }
+
+    /**
+     * Reading the matrix from a source should produce the same results as passing in the matrix
+     */
+    @Test
+    public void source() {
+        double sv[] = new double[]{10,8,7,5,4,2,1,0.5};
+        DMatrixRMaj A = lowRank(53,20,sv);
+        RandomMatrices_DDRM.addUniform(A,-0.01,0.01,rand);
+
+        SvdRandomized_DDRM expected = new SvdRandomized_DDRM(4,2,1,true,true);
+        expected.setRandom(new Random(2345));
+        assertTrue(expected.decompose(A));
+
+        SvdRandomized_DDRM found = new SvdRandomized_DDRM(4,2,1,true,true);
+        found.setRandom(new Random(2345));
+        // small blocks with a partial block at the end
+        found.setBlockElements(20*7);
+        assertTrue(found.decompose(new MatrixSource(A)));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(expected.getSingularValues()[i],found.getSingularValues()[i],UtilEjml.TEST_F64);
+        }
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getU(null,false),found.getU(null,false),UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected.getV(null,false),found.getV(null,false),UtilEjml.TEST_F64));
+    }
+
+    /**
+     * The requested rank is larger than the matrix
+     */
+    @Test
+    public void rankTooLarge() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(10,4,rand);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(6);
+        assertTrue(alg.decompose(A));
+        assertEquals(4,alg.numberOfSingularValues());
+
+        checkVectors(A,alg,UtilEjml.TEST_F64);
+    }
+
+    @Test
+    public void notComputed() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20,15,rand);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(3,5,1,false,true);
+        assertTrue(alg.decompose(A));
+        assertEquals(15,alg.getV(null,false).numRows);
+        try {
+            alg.getU(null,false);
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ) {}
+
+        alg = new SvdRandomized_DDRM(3,5,1,true,false);
+        assertTrue(alg.decompose(A));
+        assertEquals(20,alg.getU(null,false).numRows);
+        try {
+            alg.getV(null,false);
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ) {}
+    }
+
+    @Test
+    public void getU_getV_transpose() {
+        DMatrixRMaj A = RandomMatrices_DDRM.rectangle(20,15,rand);
+
+        SvdRandomized_DDRM alg = new SvdRandomized_DDRM(3);
+        assertTrue(alg.decompose(A));
+
+        DMatrixRMaj U = alg.getU(null,false);
+        DMatrixRMaj Ut = alg.getU(new DMatrixRMaj(3,20),true);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(U,CommonOps_DDRM.transpose(Ut,null),0));
+
+        DMatrixRMaj V = alg.getV(null,false);
+        DMatrixRMaj Vt = alg.getV(new DMatrixRMaj(3,15),true);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(V,CommonOps_DDRM.transpose(Vt,null),0));
+
+        try {
+            alg.getU(new DMatrixRMaj(20,4),false);
+            fail("Exception should have been thrown");
+        } catch( IllegalArgumentException ignore ) {}
+    }
+
+    /**
+     * U and V should have orthonormal columns, the singular values should be in descending order,
+     * and U<sup>T</sup>*A*V = W
+     */
+    private void checkVectors( DMatrixRMaj A , SvdRandomized_DDRM alg , double tol ) {
+        int k = alg.numberOfSingularValues();
+        DMatrixRMaj U = alg.getU(null,false);
+        DMatrixRMaj V = alg.getV(null,false);
+        DMatrixRMaj W = alg.getW(null);
+
+        assertEquals(A.numRows,U.numRows);
+        assertEquals(k,U.numCols);
+        assertEquals(A.numCols,V.numRows);
+        assertEquals(k,V.numCols);
+
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(U,UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(V,UtilEjml.TEST_F64));
+        for (int i = 1; i < k; i++) {
+            assertTrue(alg.getSingularValues()[i-1] >= alg.getSingularValues()[i]);
+        }
+
+        DMatrixRMaj tmp = new DMatrixRMaj(k,A.numCols);
+        DMatrixRMaj found = new DMatrixRMaj(k,k);
+        CommonOps_DDRM.multTransA(U,A,tmp);
+        CommonOps_DDRM.mult(tmp,V,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(W,found,tol));
+    }
+
+    private DMatrixRMaj lowRank( int numRows , int numCols , double sv[] ) {
+        DMatrixRMaj U = RandomMatrices_DDRM.orthogonal(numRows,sv.length,rand);
+        DMatrixRMaj V = RandomMatrices_DDRM.orthogonal(numCols,sv.length,rand);
+        DMatrixRMaj W = CommonOps_DDRM.diag(sv);
+
+        DMatrixRMaj tmp = new DMatrixRMaj(numRows,sv.length);
+        DMatrixRMaj A = new DMatrixRMaj(numRows,numCols);
+        CommonOps_DDRM.mult(U,W,tmp);
+        CommonOps_DDRM.multTransB(tmp,V,A);
+        return A;
+    }
+
+    /**
+     * Reads rows from a matrix
+     */
+    private static class MatrixSource implements RowBlockSource_F64 {
+        DMatrixRMaj A;
+        int row;
+
+        public MatrixSource(DMatrixRMaj A) {
+            this.A = A;
+        }
+
+        @Override
+        public void reset() {
+            row = 0;
+        }
+
+        @Override
+        public int read(double[] data, int maxRows) {
+            int numRows = Math.min(maxRows,A.numRows-row);
+            System.arraycopy(A.data,row*A.numCols,data,0,numRows*A.numCols);
+            row += numRows;
+            return numRows;
+        }
+
+        @Override
+        public int getNumRows() {
+            return A.numRows;
+        }
+
+        @Override
+        public int getNumCols() {
+            return A.numCols;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.decomposition.svd.divconq;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.decomposition.svd.implicitqr.SvdImplicitQrAlgorithm_DDRM;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSvdDivideConquerAlgorithm_DDRM {
+
+    private Random rand = new Random(234234);
+
+    /**
+     * Random matrices with different leaf sizes so that the merge is tested at all levels
+     */
+    @Test
+    public void random() {
+        for( int leafSize : new int[]{1,2,3,25} ) {
+            for( int N : new int[]{1,2,3,4,7,20,64} ) {
+                double diag[] = new double[N];
+                double off[] = new double[N];
+                for (int i = 0; i < N; i++) {
+                    diag[i] = rand.nextDouble()*2-1;
+                    off[i] = rand.nextDouble()*2-1;
+                }
+                check(diag,off,N,leafSize);
+            }
+        }
+    }
+
+    /**
+     * All ones has known singular values which are distinct but are close together
+     */
+    @Test
+    public void oneBidiagonalMatrix() {
+        int N = 40;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        Arrays.fill(diag,1);
+        Arrays.fill(off,1);
+
+        SvdDivideConquerAlgorithm_DDRM alg = check(diag,off,N,3);
+
+        double found[] = alg.getSingularValues().clone();
+        Arrays.sort(found,0,N);
+        for( int i = 0; i < N; i++ ) {
+            double expected = Math.cos( (N-i)*UtilEjml.PI/(2.0*N+1.0))*2.0;
+            assertEquals(expected,found[i],UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Repeated singular values will cause the same singular values to show up in both sub-problems
+     */
+    @Test
+    public void repeatedValues() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = 1+(i%3);
+            off[i] = i%5 == 0 ? 0.5 : 0;
+        }
+        check(diag,off,N,2);
+
+        // the identity matrix
+        Arrays.fill(diag,1);
+        Arrays.fill(off,0);
+        check(diag,off,N,2);
+    }
+
+    /**
+     * Zeros along the diagonal and off diagonal cause zero singular values and zeros in the first row of the merge
+     */
+    @Test
+    public void zeros() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = i%4 == 0 ? 0 : rand.nextDouble();
+            off[i] = i%3 == 0 ? 0 : rand.nextDouble();
+        }
+        check(diag,off,N,2);
+
+        // matrix which is all zeros
+        Arrays.fill(diag,0);
+        Arrays.fill(off,0);
+        SvdDivideConquerAlgorithm_DDRM alg = check(diag,off,N,2);
+        for (int i = 0; i < N; i++) {
+            assertEquals(0,alg.getSingularValues()[i],UtilEjml.TEST_F64);
+        }
+    }
+
+    /**
+     * Values with very different magnitudes
+     */
+    @Test
+    public void largeRange() {
+        int N = 30;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = Math.pow(10,-(i%8));
+            off[i] = Math.pow(10,-(i%5));
+        }
+        check(diag,off,N,3);
+    }
+
+    /**
+     * The singular values should be the same when U is not computed
+     */
+    @Test
+    public void skipU() {
+        int N = 50;
+        double diag[] = new double[N];
+        double off[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            diag[i] = rand.nextDouble();
+            off[i] = rand.nextDouble();
+        }
+
+        SvdDivideConquerAlgorithm_DDRM alg = new SvdDivideConquerAlgorithm_DDRM();
+        alg.setLeafSize(4);
+        assertTrue(alg.process(diag,off,N));
+        double expected[] = alg.getSingularValues().clone();
+        DMatrixRMaj V = alg.getV().copy();
+
+        alg.setComputeU(false);
+        assertTrue(alg.process(diag,off,N));
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i],alg.getSingularValues()[i],UtilEjml.TEST_F64);
+        }
+        assertTrue(MatrixFeatures_DDRM.isIdentical(V,alg.getV(),UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Checks the decomposition against the original matrix and compares singular values against the implicit QR
+     * algorithm
+     */
+    private SvdDivideConquerAlgorithm_DDRM check( double diag[] , double off[] , int N , int leafSize ) {
+        SvdDivideConquerAlgorithm_DDRM alg = new SvdDivideConquerAlgorithm_DDRM();
+        alg.setLeafSize(leafSize);
+
+        assertTrue(alg.process(diag,off,N));
+        assertEquals(N,alg.getNumberOfSingularValues());
+
+        DMatrixRMaj U = alg.getU();
+        DMatrixRMaj V = alg.getV();
+        double sv[] = alg.getSingularValues();
+
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(U,UtilEjml.TEST_F64));
+        assertTrue(MatrixFeatures_DDRM.isOrthogonal(V,UtilEjml.TEST_F64));
+
+        DMatrixRMaj B = new DMatrixRMaj(N,N);
+        for (int i = 0; i < N; i++) {
+            B.set(i,i,diag[i]);
+            if( i+1 < N )
+                B.set(i,i+1,off[i]);
+        }
+        DMatrixRMaj W = new DMatrixRMaj(N,N);
+        for (int i = 0; i < N; i++) {
+            assertTrue(sv[i] >= 0);
+            W.set(i,i,sv[i]);
+        }
+        DMatrixRMaj tmp = new DMatrixRMaj(N,N);
+        DMatrixRMaj found = new DMatrixRMaj(N,N);
+        CommonOps_DDRM.mult(U,W,tmp);
+        CommonOps_DDRM.multTransB(tmp,V,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(B,found,UtilEjml.TEST_F64));
+
+        // compare singular values against a different algorithm. The implicit QR algorithm is less accurate
+        // for small singular values, which is why the tolerance is larger
+        SvdImplicitQrAlgorithm_DDRM qr = new SvdImplicitQrAlgorithm_DDRM(true);
+        qr.setMatrix(N,N,diag.clone(),off.clone());
+        assertTrue(qr.process());
+        double expected[] = new double[N];
+        for (int i = 0; i < N; i++) {
+            expected[i] = Math.abs(qr.getSingularValue(i));
+        }
+        double copy[] = Arrays.copyOf(sv,N);
+        Arrays.sort(expected);
+        Arrays.sort(copy);
+        for (int i = 0; i < N; i++) {
+            assertEquals(expected[i],copy[i],UtilEjml.TEST_F64_SQ);
+        }
+
+        return alg;
+    }
+}
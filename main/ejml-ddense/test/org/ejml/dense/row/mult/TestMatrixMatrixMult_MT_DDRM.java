@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.dense.row.mult;
+
+import org.ejml.EjmlUnitTests;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMatrixMatrixMult_MT_DDRM {
+    Random rand = new Random(234);
+
+    @Test
+    public void checkShapesOfInput() {
+        CheckMatrixMultShape_DDRM check = new CheckMatrixMultShape_DDRM(MatrixMatrixMult_MT_DDRM.class);
+        check.checkAll();
+    }
+
+    /**
+     * Compare against the single threaded implementations.  Sizes are selected so that the rows
+     * will be split into several blocks of different lengths
+     */
+    @Test
+    public void compareToSingleThread() throws InvocationTargetException, IllegalAccessException {
+        int[][] shapes = new int[][]{{1,5,7},{5,0,6},{37,23,41},{130,17,64}};
+
+        for( int[] shape : shapes ) {
+            compareToSingleThread(shape[0],shape[1],shape[2]);
+        }
+    }
+
+    private void compareToSingleThread( int rows , int inner , int cols )
+            throws InvocationTargetException, IllegalAccessException {
+        double alpha = 1.5;
+        int numChecked = 0;
+        Method methods[] = MatrixMatrixMult_MT_DDRM.class.getMethods();
+
+        for( Method method : methods ) {
+            String name = method.getName();
+            if( !name.contains("mult") )
+                continue;
+
+            boolean add = name.contains("multAdd");
+            boolean hasAlpha = method.getParameterTypes()[0] == double.class;
+
+            DMatrixRMaj a = RandomMatrices_DDRM.rectangle(rows,inner,rand);
+            DMatrixRMaj b = RandomMatrices_DDRM.rectangle(inner,cols,rand);
+            DMatrixRMaj c = RandomMatrices_DDRM.rectangle(rows,cols,rand);
+
+            DMatrixRMaj expected = new DMatrixRMaj(rows,cols);
+            MatrixMatrixMult_DDRM.mult_small(hasAlpha ? alpha : 1,a,b,expected);
+            if( add )
+                CommonOps_DDRM.addEquals(expected,c);
+
+            if( name.contains("TransA")) {
+                a = CommonOps_DDRM.transpose(a,null);
+            } else if( name.contains("TransB")) {
+                b = CommonOps_DDRM.transpose(b,null);
+            }
+
+            TestMatrixMatrixMult_DDRM.invoke(method,alpha,a,b,c);
+
+            EjmlUnitTests.assertEquals(expected,c, UtilEjml.TEST_F64);
+            numChecked++;
+        }
+
+        assertEquals(12,numChecked);
+    }
+}
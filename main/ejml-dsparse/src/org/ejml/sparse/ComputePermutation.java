@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse;
+
+import org.ejml.data.Matrix;
+
+/**
+ * Computes row and/or column permutations of a matrix.  Typically used to compute a fill reducing ordering
+ * before a sparse matrix is decomposed.
+ *
+ * <p>Permutations are specified so that the k-th row (column) in the permuted matrix is row (column) perm[k]
+ * in the original matrix.</p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class ComputePermutation<T extends Matrix> {
+
+    protected int prow[];
+    protected int pcol[];
+
+    private boolean hasRow, hasCol;
+
+    protected ComputePermutation(boolean hasRow, boolean hasCol) {
+        this.hasRow = hasRow;
+        this.hasCol = hasCol;
+    }
+
+    /**
+     * Computes the permutation for the specified matrix.
+     *
+     * @param m Input matrix.  Not modified.
+     */
+    public abstract void process( T m );
+
+    /**
+     * Returns the row permutation or null if there is no row permutation
+     */
+    public int[] getRow() {
+        return prow;
+    }
+
+    /**
+     * Returns the column permutation or null if there is no column permutation
+     */
+    public int[] getColumn() {
+        return pcol;
+    }
+
+    public boolean hasRowPermutation() {
+        return hasRow;
+    }
+
+    public boolean hasColumnPermutation() {
+        return hasCol;
+    }
+}
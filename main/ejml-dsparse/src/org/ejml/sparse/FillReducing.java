@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse;
+
+/**
+ * Specifies which fill reducing permutation is applied to a sparse matrix before it's decomposed.  A good
+ * ordering can reduce the number of non-zero elements in the decomposition, and the number of operations
+ * required to compute it, by orders of magnitude.
+ *
+ * @author Peter Abeles
+ */
+public enum FillReducing {
+    /**
+     * No permutation is applied
+     */
+    NONE,
+    /**
+     * Approximate Minimum Degree ordering of the symmetric pattern A+A<sup>T</sup>.  Use with Cholesky.
+     */
+    AMD,
+    /**
+     * Column Approximate Minimum Degree ordering.  The pattern of A<sup>T</sup>A is ordered, ignoring dense rows.
+     * Use with unsymmetric or rectangular matrices, e.g. LU and QR.
+     */
+    COLAMD
+}
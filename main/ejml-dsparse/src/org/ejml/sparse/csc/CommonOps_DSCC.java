@@ -18,10 +18,14 @@
 
 package org.ejml.sparse.csc;
 
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 import org.ejml.sparse.csc.misc.ImplCommonOps_DSCC;
 import org.ejml.sparse.csc.mult.ImplSparseSparseMult_DSCC;
+import org.ejml.sparse.csc.mult.ImplSparseSparseMult_MT_DSCC;
+import org.ejml.sparse.csc.mult.SymmetricProduct_DSCC;
 
 import java.util.Arrays;
 
@@ -98,6 +102,95 @@ public class CommonOps_DSCC {
         ImplSparseSparseMult_DSCC.mult(A,B,C, workA, workB);
     }
 
+    /**
+     * <p>
+     * Computes the exact sparsity pattern of C = A*B, but not its values.  When the same product is computed
+     * many times with the same sparsity pattern, call this once and then
+     * {@link #multNumeric(DMatrixSparseCSC, DMatrixSparseCSC, DMatrixSparseCSC, double[])} every time the values
+     * change.  Memory is only declared once and no searching for new elements is done when computing values.
+     * </p>
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C Storage for the pattern.  Reshaped.
+     * @param gw (Optional) Storage for internal work.  null or array of length A.numRows
+     */
+    public static void multSymbolic(DMatrixSparseCSC A , DMatrixSparseCSC B , DMatrixSparseCSC C , int gw[] )
+    {
+        if( A.numCols != B.numRows )
+            throw new IllegalArgumentException("Inconsistent matrix shapes");
+
+        ImplSparseSparseMult_DSCC.multSymbolic(A,B,C,gw);
+    }
+
+    /**
+     * Computes the values of C = A*B using the pattern found by
+     * {@link #multSymbolic(DMatrixSparseCSC, DMatrixSparseCSC, DMatrixSparseCSC, int[])}.  The structure of C
+     * isn't modified, so if the pattern of A or B changes then the symbolic step needs to be done again.  Large
+     * matrices are processed concurrently.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C (Input) Pattern of the results. (Output) Values are modified.
+     * @param gx (Optional) Storage for internal work.  null or array of length A.numRows.  In concurrent mode
+     *           an array of length threads*A.numRows is needed to avoid declaring memory.
+     */
+    public static void multNumeric(DMatrixSparseCSC A , DMatrixSparseCSC B , DMatrixSparseCSC C , double gx[] )
+    {
+        if( A.numCols != B.numRows || A.numRows != C.numRows || B.numCols != C.numCols )
+            throw new IllegalArgumentException("Inconsistent matrix shapes");
+
+        if( EjmlConcurrency.isUseConcurrent() && B.numCols > 1 &&
+                countMultOperations(A,B) >= EjmlParameters.MULT_CONCURRENT_SWITCH )
+            ImplSparseSparseMult_MT_DSCC.multNumeric(A,B,C,gx);
+        else
+            ImplSparseSparseMult_DSCC.multNumeric(A,B,C,gx);
+    }
+
+    /**
+     * Computes the lower or upper triangle of C = A<sup>T</sup>*A without explicitly transposing A.  The other
+     * triangle is not computed.  To compute this product many times with the same sparsity pattern use
+     * {@link SymmetricProduct_DSCC} directly so that the symbolic step is only done once.
+     *
+     * @param A Matrix. Not modified.
+     * @param C Storage for the results.  Reshaped.
+     * @param lower true for the lower triangle and false for the upper triangle
+     */
+    public static void multInner( DMatrixSparseCSC A , DMatrixSparseCSC C , boolean lower )
+    {
+        SymmetricProduct_DSCC alg = new SymmetricProduct_DSCC(lower);
+        alg.innerSymbolic(A,C);
+        alg.innerNumeric(A,C);
+    }
+
+    /**
+     * Computes the lower or upper triangle of C = A*A<sup>T</sup> without explicitly transposing A.  The other
+     * triangle is not computed.  To compute this product many times with the same sparsity pattern use
+     * {@link SymmetricProduct_DSCC} directly so that the symbolic step is only done once.
+     *
+     * @param A Matrix. Not modified.
+     * @param C Storage for the results.  Reshaped.
+     * @param lower true for the lower triangle and false for the upper triangle
+     */
+    public static void multOuter( DMatrixSparseCSC A , DMatrixSparseCSC C , boolean lower )
+    {
+        SymmetricProduct_DSCC alg = new SymmetricProduct_DSCC(lower);
+        alg.outerSymbolic(A,C);
+        alg.outerNumeric(A,C);
+    }
+
+    /**
+     * Number of multiply-add operations needed to compute A*B
+     */
+    private static long countMultOperations( DMatrixSparseCSC A , DMatrixSparseCSC B ) {
+        long total = 0;
+        for (int i = 0; i < B.nz_length; i++) {
+            int k = B.nz_rows[i];
+            total += A.col_idx[k+1]-A.col_idx[k];
+        }
+        return total;
+    }
+
     /**
      * Performs matrix multiplication.  C = A*B
      *
@@ -110,7 +203,36 @@ public class CommonOps_DSCC {
         if( A.numRows != C.numRows || B.numCols != C.numCols )
             throw new IllegalArgumentException("Inconsistent matrix shapes");
 
-        ImplSparseSparseMult_DSCC.mult(A,B,C);
+        if( isConcurrentMult(A,B) )
+            ImplSparseSparseMult_MT_DSCC.mult(A,B,C,null);
+        else
+            ImplSparseSparseMult_DSCC.mult(A,B,C);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A<sup>T</sup>*B.  A is not explicitly transposed.
+     *
+     * @param A Matrix
+     * @param B Dense Matrix
+     * @param C Dense Matrix
+     */
+    public static void multTransA(DMatrixSparseCSC A , DMatrixRMaj B , DMatrixRMaj C )
+    {
+        if( A.numRows != B.numRows || A.numCols != C.numRows || B.numCols != C.numCols )
+            throw new IllegalArgumentException("Inconsistent matrix shapes");
+
+        if( isConcurrentMult(A,B) )
+            ImplSparseSparseMult_MT_DSCC.multTransA(A,B,C);
+        else
+            ImplSparseSparseMult_DSCC.multTransA(A,B,C);
+    }
+
+    /**
+     * Decides if a sparse-dense multiplication is large enough to use the concurrent algorithm.
+     */
+    private static boolean isConcurrentMult( DMatrixSparseCSC A , DMatrixRMaj B ) {
+        return A.numCols > 1 && (long)A.nz_length*B.numCols >= EjmlParameters.MULT_CONCURRENT_SWITCH &&
+                EjmlConcurrency.isUseConcurrent();
     }
 
     /**
@@ -373,4 +495,58 @@ public class CommonOps_DSCC {
         }
     }
 
+    /**
+     * Applies a symmetric permutation to a symmetric matrix stored as an upper triangle.
+     * output = P*input*P<sup>T</sup>, where output[permInv[i],permInv[j]] = input[i,j].  Only the upper triangle
+     * of the input is read and only the upper triangle of the output is written.  Same as cs_symperm in csparse.
+     *
+     * @param input (Input) Square matrix.  Only the upper triangle is read.  Not modified.
+     * @param permInv (Input) Inverse permutation vector.  Specifies the new location of each row/column.
+     * @param output (Output) Upper triangle of the permuted matrix.  Is reshaped.
+     * @param work (Optional) Work space.  null or an array of length input.numCols
+     */
+    public static void permuteSymmetric( DMatrixSparseCSC input, int permInv[], DMatrixSparseCSC output ,
+                                         int work[] ) {
+        if( input.numRows != input.numCols )
+            throw new IllegalArgumentException("Input must be a square matrix");
+        if( input.numCols != permInv.length )
+            throw new IllegalArgumentException("Number of columns in input must match length of permInv");
+
+        int N = input.numCols;
+        work = ImplCommonOps_DSCC.checkDeclare(N,work,true);
+
+        output.reshape(N,N,0);
+        output.indicesSorted = false;
+
+        // count the number of elements in each column of the output
+        for (int j = 0; j < N; j++) {
+            int j2 = permInv[j];
+            int idx0 = input.col_idx[j], idx1 = input.col_idx[j+1];
+            for (int p = idx0; p < idx1; p++) {
+                int i = input.nz_rows[p];
+                if( i > j ) // skip the lower triangle
+                    continue;
+                work[Math.max(permInv[i],j2)]++;
+            }
+        }
+
+        output.colsum(work);
+        int nz_length = output.col_idx[N];
+        output.growMaxLength(nz_length,false);
+        output.nz_length = nz_length;
+
+        for (int j = 0; j < N; j++) {
+            int j2 = permInv[j];
+            int idx0 = input.col_idx[j], idx1 = input.col_idx[j+1];
+            for (int p = idx0; p < idx1; p++) {
+                int i = input.nz_rows[p];
+                if( i > j )
+                    continue;
+                int i2 = permInv[i];
+                int q = work[Math.max(i2,j2)]++;
+                output.nz_rows[q] = Math.min(i2,j2);
+                output.nz_values[q] = input.nz_values[p];
+            }
+        }
+    }
 }
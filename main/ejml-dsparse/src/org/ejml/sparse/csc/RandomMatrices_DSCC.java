@@ -182,4 +182,30 @@ public class RandomMatrices_DSCC {
         CommonOps_DSCC.transpose(L,U,null);
         return U;
     }
+
+    /**
+     * Creates a random symmetric positive definite matrix.  A random lower triangular matrix L with positive
+     * diagonal elements is created then A = L*L<sup>T</sup> is returned.  The number of non-zero elements in
+     * A will be larger than nz_total.
+     *
+     * @param width Number of rows and columns
+     * @param nz_total Number of non-zero elements in the triangular matrix used to create A
+     * @param rand Random number generator
+     * @return Random symmetric positive definite matrix
+     */
+    public static DMatrixSparseCSC symmetricPosDef( int width , int nz_total , Random rand ) {
+        DMatrixSparseCSC L = triangleLower(width,0,nz_total,-1,1,rand);
+
+        // make sure it's well conditioned
+        for (int col = 0; col < width; col++) {
+            L.nz_values[L.col_idx[col]] = 1 + rand.nextDouble();
+        }
+
+        DMatrixSparseCSC L_t = new DMatrixSparseCSC(width,width,L.nz_length);
+        CommonOps_DSCC.transpose(L,L_t,null);
+
+        DMatrixSparseCSC A = new DMatrixSparseCSC(width,width,L.nz_length);
+        CommonOps_DSCC.mult(L,L_t,A);
+        return A;
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Up-looking sparse Cholesky decomposition.  A symmetric positive definite matrix A is decomposed into
+ * A = L*L<sup>T</sup>, where L is lower triangular.  Row 'k' of L is found by solving a sparse triangular
+ * system using the rows above it.  Based on cs_chol in csparse.
+ * </p>
+ *
+ * <p>
+ * The decomposition is split into two steps.  In the symbolic step the elimination tree and the number of
+ * non-zero elements in each column of L are computed.  This only depends on the sparsity pattern of A.  In the
+ * numeric step the values of L are computed.  If the structure is locked, see {@link #setStructureLocked},
+ * then the symbolic step is skipped when a new matrix is decomposed and the previous results are used instead.
+ * This is useful when a matrix with the same pattern but different values is decomposed many times.
+ * </p>
+ *
+ * <p>
+ * Only the upper triangular portion of A is read, including the diagonal.  Elements in the lower triangle
+ * are ignored.  No fill reducing permutation is applied, if one is needed the matrix should be permuted first.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CholeskyUpLooking_DSCC implements CholeskyDecomposition_F64<DMatrixSparseCSC> {
+
+    private int N;
+
+    // storage for the lower triangular matrix
+    private DMatrixSparseCSC L = new DMatrixSparseCSC(1,1,0);
+
+    // elimination tree
+    private int parent[] = new int[0];
+
+    // number of non-zero elements in each column of L, including the diagonal
+    private int counts[] = new int[0];
+
+    // work space
+    private int s[] = new int[0];
+    private int c[] = new int[0];
+    private double x[] = new double[0];
+
+    // if true then the symbolic decomposition from the previous call to decompose() is used
+    private boolean locked = false;
+    // true if the symbolic decomposition has been computed
+    private boolean symbolicValid = false;
+
+    @Override
+    public boolean decompose( DMatrixSparseCSC orig ) {
+        if( orig.numRows != orig.numCols )
+            throw new IllegalArgumentException("Must be a square matrix");
+
+        if( !locked || !symbolicValid || orig.numCols != N )
+            performSymbolic(orig);
+
+        return performNumeric(orig);
+    }
+
+    /**
+     * Computes the elimination tree and the structure of L.  Only the pattern of A is used.
+     *
+     * @param A Symmetric matrix.  Only the upper triangle is read.  Not modified.
+     */
+    public void performSymbolic( DMatrixSparseCSC A ) {
+        N = A.numCols;
+
+        if( parent.length < N ) {
+            parent = new int[N];
+            counts = new int[N];
+            s = new int[N];
+            c = new int[N];
+            x = new double[N];
+        }
+
+        TriangularSolver_DSCC.eliminationTree(A,false,parent,null);
+
+        // The pattern of row k in L is the set of nodes reachable in the elimination tree from the
+        // non-zero elements in column k of A.  Count how many times each column appears.
+        Arrays.fill(c,0,N,0);
+        Arrays.fill(counts,0,N,1);
+        for (int k = 0; k < N; k++) {
+            int top = TriangularSolver_DSCC.searchNzRowsElim(A,k,parent,s,c);
+            for (int i = top; i < N; i++) {
+                counts[s[i]]++;
+            }
+        }
+
+        int nz_length = 0;
+        for (int i = 0; i < N; i++) {
+            nz_length += counts[i];
+        }
+
+        L.reshape(N,N,0);
+        L.growMaxLength(nz_length,false);
+        L.col_idx[0] = 0;
+        for (int i = 0; i < N; i++) {
+            L.col_idx[i+1] = L.col_idx[i] + counts[i];
+        }
+        L.nz_length = nz_length;
+        L.indicesSorted = true;
+
+        symbolicValid = true;
+    }
+
+    /**
+     * Computes the values in L using the previously computed symbolic decomposition.
+     *
+     * @param A Symmetric matrix.  Must have the same pattern as the matrix passed to {@link #performSymbolic}.
+     * @return true if successful or false if the matrix isn't positive definite
+     */
+    public boolean performNumeric( DMatrixSparseCSC A ) {
+        // c[i] is where the next element in column i of L will be written to
+        System.arraycopy(L.col_idx,0,c,0,N);
+
+        for (int k = 0; k < N; k++) {
+            // nonzero pattern of L(k,:)
+            int top = TriangularSolver_DSCC.searchNzRowsElim(A,k,parent,s,c);
+
+            // x = A(0:k,k)
+            x[k] = 0;
+            int idx0 = A.col_idx[k], idx1 = A.col_idx[k+1];
+            for (int p = idx0; p < idx1; p++) {
+                int row = A.nz_rows[p];
+                if( row <= k )
+                    x[row] = A.nz_values[p];
+            }
+
+            double d = x[k];
+            x[k] = 0;
+
+            // solve L(0:k-1,0:k-1)*x = A(:,k)
+            for (; top < N; top++) {
+                int i = s[top];
+                double lki = x[i]/L.nz_values[L.col_idx[i]];
+                x[i] = 0;
+                for (int p = L.col_idx[i]+1; p < c[i]; p++) {
+                    x[L.nz_rows[p]] -= L.nz_values[p]*lki;
+                }
+                d -= lki*lki;
+                int p = c[i]++;
+                L.nz_rows[p] = k;
+                L.nz_values[p] = lki;
+            }
+
+            if( d <= 0 ) {
+                // the values in the work space need to be zero for the next call
+                Arrays.fill(x,0,N,0);
+                return false;
+            }
+
+            int p = c[k]++;
+            L.nz_rows[p] = k;
+            L.nz_values[p] = Math.sqrt(d);
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    @Override
+    public boolean isLower() {
+        return true;
+    }
+
+    @Override
+    public DMatrixSparseCSC getT(DMatrixSparseCSC T) {
+        if( T == null ) {
+            T = new DMatrixSparseCSC(L.numRows,L.numCols,L.nz_length);
+        }
+        T.set(L);
+        return T;
+    }
+
+    @Override
+    public Complex_F64 computeDeterminant() {
+        double value = 1;
+        for (int i = 0; i < N; i++) {
+            value *= L.nz_values[L.col_idx[i]];
+        }
+        return new Complex_F64(value*value,0);
+    }
+
+    /**
+     * If true then the symbolic decomposition is only computed the first time decompose() is called.  All
+     * subsequent matrices must have the same sparsity pattern.
+     */
+    public void setStructureLocked( boolean locked ) {
+        this.locked = locked;
+    }
+
+    public boolean isStructureLocked() {
+        return locked;
+    }
+
+    /**
+     * Returns the internal lower triangular matrix.  Don't modify.
+     */
+    public DMatrixSparseCSC getL() {
+        return L;
+    }
+
+    /**
+     * Returns the elimination tree.  Node i's parent is parent[i] or -1 if it's a root.
+     */
+    public int[] getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the number of non-zero elements in each column of L, including the diagonal.
+     */
+    public int[] getColumnCounts() {
+        return counts;
+    }
+}
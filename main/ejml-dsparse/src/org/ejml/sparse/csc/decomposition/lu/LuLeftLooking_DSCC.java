@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.lu;
+
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+import org.ejml.sparse.ComputePermutation;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Left-looking sparse LU decomposition with threshold partial pivoting.  The matrix is decomposed into
+ * P*A*Q = L*U, where P is a row pivot matrix, Q is a column permutation, L is lower triangular with ones along
+ * its diagonal and U is upper triangular.  Column 'k' of L and U is found by solving a sparse triangular system
+ * with the columns of L to its left.  Based on cs_lu in csparse, which is the Gilbert-Peierls algorithm.
+ * </p>
+ *
+ * <p>
+ * Threshold partial pivoting: The element with the largest magnitude is the default pivot.  If the diagonal
+ * element is at least 'tol' times the largest magnitude then it is used instead.  tol = 1 is conventional
+ * partial pivoting and smaller values preserve sparsity and a symmetric pivot sequence.
+ * </p>
+ *
+ * <p>
+ * Column ordering: The column permutation Q is computed by a {@link ComputePermutation}, typically
+ * {@link org.ejml.sparse.FillReducing#COLAMD}, and has a large influence on the amount of fill in.  If it is
+ * null then Q is the identity matrix.  {@link #getLower}, {@link #getUpper}, and {@link #getPivot} describe the
+ * decomposition of A*Q, i.e. P<sup>T</sup>*L*U = A*Q.
+ * </p>
+ *
+ * <p>
+ * Refactorization: If a matrix with the same sparsity pattern is decomposed many times then
+ * {@link #refactor(DMatrixSparseCSC)} can be used to reuse the column ordering and pivot sequence
+ * from the previous call to {@link #decompose}, skipping the pivot search.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LuLeftLooking_DSCC implements LUDecomposition_F64<DMatrixSparseCSC> {
+
+    private int N;
+
+    // computes the column ordering.  null if there is none
+    private ComputePermutation<DMatrixSparseCSC> reduce;
+
+    // threshold used when selecting the pivot
+    private double tol;
+
+    // storage for the decomposition
+    private DMatrixSparseCSC L = new DMatrixSparseCSC(1,1,0);
+    private DMatrixSparseCSC U = new DMatrixSparseCSC(1,1,0);
+
+    // row pivots.  row 'i' in A is row pinv[i] in L*U
+    private int pinv[] = new int[0];
+    // column ordering.  column 'k' in L*U is column q[k] in A
+    private int q[] = new int[0];
+
+    // work space
+    private double x[] = new double[0];
+    private int xi[] = new int[0];
+    private int w[] = new int[0];
+    private int pinvPartial[] = new int[0];
+    private DMatrixSparseCSC Ap = new DMatrixSparseCSC(1,1,0);
+
+    // true if a structurally or numerically zero pivot was found
+    private boolean singular;
+    // true if decompose() has been successfully called
+    private boolean decomposed = false;
+
+    /**
+     * @param reduce Computes the column ordering.  If null then no ordering is applied.
+     * @param tol Pivot threshold.  0 &lt; tol &le; 1.  Try 0.1
+     */
+    public LuLeftLooking_DSCC( ComputePermutation<DMatrixSparseCSC> reduce , double tol ) {
+        if( tol <= 0 || tol > 1 )
+            throw new IllegalArgumentException("tol must be more than zero and less than or equal to one");
+        this.reduce = reduce;
+        this.tol = tol;
+    }
+
+    public LuLeftLooking_DSCC( ComputePermutation<DMatrixSparseCSC> reduce ) {
+        this(reduce,0.1);
+    }
+
+    public LuLeftLooking_DSCC() {
+        this(null);
+    }
+
+    @Override
+    public boolean decompose( DMatrixSparseCSC A ) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("Must be a square matrix");
+
+        initialize(A.numCols);
+
+        if( reduce != null ) {
+            reduce.process(A);
+            System.arraycopy(reduce.getColumn(),0,q,0,N);
+        } else {
+            for (int i = 0; i < N; i++) {
+                q[i] = i;
+            }
+        }
+
+        // initial guess at how many elements L and U will have
+        int guess = 4*A.nz_length + N;
+        L.reshape(N,N,0);
+        U.reshape(N,N,0);
+        L.growMaxLength(guess,false);
+        U.growMaxLength(guess,false);
+
+        Arrays.fill(pinv,0,N,-1);
+
+        decomposed = false;
+        singular = false;
+        int lnz = 0, unz = 0;
+        for (int k = 0; k < N; k++) {
+            L.col_idx[k] = lnz;
+            U.col_idx[k] = unz;
+            if( lnz + N > L.nz_values.length ) {
+                L.nz_length = lnz;
+                L.growMaxLength(2*L.nz_values.length + N,true);
+            }
+            if( unz + N > U.nz_values.length ) {
+                U.nz_length = unz;
+                U.growMaxLength(2*U.nz_values.length + N,true);
+            }
+
+            // x = L\A(:,q[k])
+            int top = TriangularSolver_DSCC.solve(L,true,A,q[k],x,pinv,xi,w);
+
+            // search for the pivot
+            int ipiv = -1;
+            double a = -1;
+            for (int p = top; p < N; p++) {
+                int i = xi[p];
+                if( pinv[i] < 0 ) {
+                    // row i is not yet pivotal
+                    double t = Math.abs(x[i]);
+                    if( t > a ) {
+                        a = t;
+                        ipiv = i;
+                    }
+                } else {
+                    // x(i) is the entry U(pinv[i],k)
+                    U.nz_rows[unz] = pinv[i];
+                    U.nz_values[unz++] = x[i];
+                }
+            }
+
+            if( ipiv == -1 || a <= 0 ) {
+                singular = true;
+                Arrays.fill(x,0,N,0);
+                return false;
+            }
+
+            // prefer the diagonal if it's large enough
+            int col = q[k];
+            if( pinv[col] < 0 && Math.abs(x[col]) >= a*tol )
+                ipiv = col;
+
+            // divide by the pivot
+            double pivot = x[ipiv];
+            U.nz_rows[unz] = k;
+            U.nz_values[unz++] = pivot;
+            pinv[ipiv] = k;
+            L.nz_rows[lnz] = ipiv;
+            L.nz_values[lnz++] = 1;
+            for (int p = top; p < N; p++) {
+                int i = xi[p];
+                if( pinv[i] < 0 ) {
+                    L.nz_rows[lnz] = i;
+                    L.nz_values[lnz++] = x[i]/pivot;
+                }
+                x[i] = 0;
+            }
+        }
+
+        finish(lnz,unz);
+
+        // the row indices in L are stored in the original order until now
+        for (int p = 0; p < lnz; p++) {
+            L.nz_rows[p] = pinv[L.nz_rows[p]];
+        }
+
+        decomposed = true;
+        return true;
+    }
+
+    /**
+     * <p>
+     * Decomposes a matrix using the column ordering and pivot sequence from the previous successful call to
+     * {@link #decompose}.  The matrix must have the same sparsity pattern as the one previously decomposed.
+     * This is much faster since the column ordering doesn't need to be computed and no pivots are searched for.
+     * </p>
+     *
+     * <p>
+     * Since the pivots were selected for the old values they might not be stable for the new values.  If a
+     * pivot is zero or less than 'tol' times the largest candidate in its column then false is returned, the
+     * decomposition is invalid, and {@link #decompose} should be called instead.
+     * </p>
+     *
+     * @param A Matrix with the same pattern as the one previously decomposed.  Not modified.
+     * @return true if successful or false if the old pivots are not acceptable
+     */
+    public boolean refactor( DMatrixSparseCSC A ) {
+        if( !decomposed )
+            throw new IllegalArgumentException("decompose() must be successfully called first");
+        if( A.numRows != N || A.numCols != N )
+            throw new IllegalArgumentException("Matrix must be the same size as the one previously decomposed");
+
+        // Ap = P*A*Q.  Rows are now in the same order as the rows in L
+        CommonOps_DSCC.permute(pinv,A,q,Ap);
+
+        // all rows which have been pivoted in earlier columns are in the same location
+        Arrays.fill(pinvPartial,0,N,-1);
+
+        int lnz = 0, unz = 0;
+        for (int k = 0; k < N; k++) {
+            L.col_idx[k] = lnz;
+            U.col_idx[k] = unz;
+            if( lnz + N > L.nz_values.length ) {
+                L.nz_length = lnz;
+                L.growMaxLength(2*L.nz_values.length + N,true);
+            }
+            if( unz + N > U.nz_values.length ) {
+                U.nz_length = unz;
+                U.growMaxLength(2*U.nz_values.length + N,true);
+            }
+
+            int top = TriangularSolver_DSCC.solve(L,true,Ap,k,x,pinvPartial,xi,w);
+
+            double a = 0;
+            for (int p = top; p < N; p++) {
+                int i = xi[p];
+                if( i < k ) {
+                    U.nz_rows[unz] = i;
+                    U.nz_values[unz++] = x[i];
+                } else {
+                    a = Math.max(a,Math.abs(x[i]));
+                }
+            }
+
+            double pivot = x[k];
+            if( pivot == 0 || Math.abs(pivot) < a*tol ) {
+                decomposed = false;
+                Arrays.fill(x,0,N,0);
+                return false;
+            }
+
+            U.nz_rows[unz] = k;
+            U.nz_values[unz++] = pivot;
+            pinvPartial[k] = k;
+            L.nz_rows[lnz] = k;
+            L.nz_values[lnz++] = 1;
+            for (int p = top; p < N; p++) {
+                int i = xi[p];
+                if( i > k ) {
+                    L.nz_rows[lnz] = i;
+                    L.nz_values[lnz++] = x[i]/pivot;
+                }
+                x[i] = 0;
+            }
+        }
+
+        finish(lnz,unz);
+        singular = false;
+        return true;
+    }
+
+    private void initialize( int N ) {
+        this.N = N;
+        if( pinv.length < N ) {
+            pinv = new int[N];
+            pinvPartial = new int[N];
+            q = new int[N];
+            x = new double[N];
+            xi = new int[N];
+            w = new int[N*2];
+        }
+    }
+
+    private void finish( int lnz , int unz ) {
+        L.col_idx[N] = lnz;
+        U.col_idx[N] = unz;
+        L.nz_length = lnz;
+        U.nz_length = unz;
+        L.indicesSorted = false;
+        U.indicesSorted = false;
+    }
+
+    @Override
+    public DMatrixSparseCSC getLower( DMatrixSparseCSC lower ) {
+        if( lower == null )
+            lower = new DMatrixSparseCSC(N,N,L.nz_length);
+        lower.set(L);
+        return lower;
+    }
+
+    @Override
+    public DMatrixSparseCSC getUpper( DMatrixSparseCSC upper ) {
+        if( upper == null )
+            upper = new DMatrixSparseCSC(N,N,U.nz_length);
+        upper.set(U);
+        return upper;
+    }
+
+    /**
+     * Returns the row pivot matrix P, where P*A*Q = L*U.
+     */
+    @Override
+    public DMatrixSparseCSC getPivot( DMatrixSparseCSC pivot ) {
+        int perm[] = new int[N];
+        for (int i = 0; i < N; i++) {
+            perm[pinv[i]] = i;
+        }
+        return CommonOps_DSCC.permutationMatrix(perm,pivot);
+    }
+
+    @Override
+    public boolean isSingular() {
+        return singular;
+    }
+
+    @Override
+    public Complex_F64 computeDeterminant() {
+        if( singular )
+            return new Complex_F64(0,0);
+
+        // the diagonal element is the last element in each column of U
+        double value = 1;
+        for (int i = 0; i < N; i++) {
+            value *= U.nz_values[U.col_idx[i+1]-1];
+        }
+        if( permutationParity(pinv) != permutationParity(q) )
+            value = -value;
+        return new Complex_F64(value,0);
+    }
+
+    /**
+     * Returns true if the permutation is composed of an odd number of swaps
+     */
+    private boolean permutationParity( int perm[] ) {
+        Arrays.fill(xi,0,N,0);
+        boolean odd = false;
+        for (int i = 0; i < N; i++) {
+            if( xi[i] != 0 )
+                continue;
+            // a cycle of length n is n-1 swaps
+            int j = i;
+            int length = 0;
+            while( xi[j] == 0 ) {
+                xi[j] = 1;
+                j = perm[j];
+                length++;
+            }
+            if( length % 2 == 0 )
+                odd = !odd;
+        }
+        return odd;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    /**
+     * Returns the internal lower triangular matrix.  The diagonal is the first element in each column.  Don't modify.
+     */
+    public DMatrixSparseCSC getL() {
+        return L;
+    }
+
+    /**
+     * Returns the internal upper triangular matrix.  The diagonal is the last element in each column.  Don't modify.
+     */
+    public DMatrixSparseCSC getU() {
+        return U;
+    }
+
+    /**
+     * Returns the inverse row pivots.  Row 'i' in A is row pinv[i] in L*U.
+     */
+    public int[] getPinv() {
+        return pinv;
+    }
+
+    /**
+     * Returns the column ordering.  Column 'k' in L*U is column q[k] in A.
+     */
+    public int[] getColumnOrdering() {
+        return q;
+    }
+
+    public ComputePermutation<DMatrixSparseCSC> getReduce() {
+        return reduce;
+    }
+
+    public double getTol() {
+        return tol;
+    }
+}
@@ -0,0 +1,641 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.qr;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.sparse.ComputePermutation;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Left-looking sparse Householder QR decomposition.  A tall m by n matrix, m &ge; n, is decomposed into
+ * P*A*Q = H*R, where P is a row permutation, Q is a fill reducing column ordering, H = H<sub>0</sub>*...*H<sub>n-1</sub>
+ * is the product of Householder reflectors, and R is an n by n upper triangular matrix.  Column 'k' of R is
+ * found by applying the reflectors to its left to column k of A.  Based on cs_qr in csparse.
+ * </p>
+ *
+ * <p>
+ * The structure of R and the reflectors is found using the column elimination tree, i.e. the elimination tree
+ * of A<sup>T</sup>A, which is computed without forming A<sup>T</sup>A.  The rows of A are permuted so that each
+ * reflector starts at the diagonal.  If A is structurally rank deficient then fictitious empty rows are added
+ * and the reflectors have {@link #getNumRowsV()} &gt; m rows.
+ * </p>
+ *
+ * <p>
+ * The reflectors are stored in the columns of {@link #getV()}, where H<sub>k</sub> = I - &beta;<sub>k</sub>
+ * v<sub>k</sub> v<sub>k</sub><sup>T</sup> and the first element in each column is the diagonal.  When there are
+ * many more rows than columns V can be much larger than A and R, since each row of A is carried along the column
+ * elimination tree.
+ * </p>
+ *
+ * <p>
+ * Q-less mode: Only R is computed and the reflectors are never formed.  The rows of A are rotated into R one
+ * at a time using Givens rotations, following the path of the row up the column elimination tree
+ * (George and Heath).  The structure of R is found in advance from the pattern of A<sup>T</sup>A, so memory is
+ * proportional to the number of non-zero elements in R and A.  Linear systems can still be solved with R and A,
+ * see {@link org.ejml.sparse.csc.linsol.qr.LinearSolverQrLeftLooking_DSCC}.
+ * </p>
+ *
+ * <p>
+ * {@link #getQ} and {@link #getR} describe the decomposition of A*Q, i.e. A*Q = P<sup>T</sup>*H*R.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class QrLeftLookingDecomposition_DSCC implements QRDecomposition<DMatrixSparseCSC> {
+
+    // shape of the matrix being decomposed
+    private int m,n;
+    // number of rows in V, including fictitious rows
+    private int m2;
+
+    // computes the column ordering.  null if there is none
+    private ComputePermutation<DMatrixSparseCSC> reduce;
+
+    // if false then the Householder reflectors are discarded once the decomposition finishes
+    private boolean storeQ;
+
+    // column elimination tree
+    private int parent[] = new int[0];
+    // leftmost[i] is the first column with an element in row i
+    private int leftmost[] = new int[0];
+    // row permutation.  row 'i' in A is row pinv[i] in V
+    private int pinv[] = new int[0];
+    // column ordering.  column 'k' in R is column q[k] in A
+    private int q[] = new int[0];
+
+    // storage for the decomposition
+    private DMatrixSparseCSC V = new DMatrixSparseCSC(1,1,0);
+    private DMatrixSparseCSC R = new DMatrixSparseCSC(1,1,0);
+    private double beta[] = new double[0];
+
+    // storage for the matrix with its columns permuted
+    private DMatrixSparseCSC Ap = new DMatrixSparseCSC(1,1,0);
+
+    // work space
+    private double x[] = new double[0];
+    private int w[] = new int[0];
+    private int s[] = new int[0];
+    private int work[] = new int[0];
+    // row queues used to compute the row permutation
+    private int next[] = new int[0];
+    private int head[] = new int[0];
+    private int tail[] = new int[0];
+    private int nque[] = new int[0];
+    // identity row permutation and column permutation used when ordering the columns
+    private int rowInv[] = new int[0];
+    private int colPerm[] = new int[0];
+    // Q-less work space. rows of C, pattern of C'*C, and R stored by rows
+    private int counts[] = new int[0];
+    private boolean initialized[] = new boolean[0];
+    private DMatrixSparseCSC Ct = new DMatrixSparseCSC(1,1,0);
+    private DMatrixSparseCSC AtA = new DMatrixSparseCSC(1,1,0);
+    private DMatrixSparseCSC Rr = new DMatrixSparseCSC(1,1,0);
+
+    /**
+     * @param reduce Computes the column ordering.  If null then no ordering is applied.
+     * @param storeQ If false then the Householder reflectors are discarded after decomposing, saving memory.
+     */
+    public QrLeftLookingDecomposition_DSCC( ComputePermutation<DMatrixSparseCSC> reduce , boolean storeQ ) {
+        this.reduce = reduce;
+        this.storeQ = storeQ;
+    }
+
+    public QrLeftLookingDecomposition_DSCC( ComputePermutation<DMatrixSparseCSC> reduce ) {
+        this(reduce,true);
+    }
+
+    public QrLeftLookingDecomposition_DSCC() {
+        this(null);
+    }
+
+    @Override
+    public boolean decompose( DMatrixSparseCSC A ) {
+        if( A.numRows < A.numCols )
+            throw new IllegalArgumentException("There must be at least as many rows as columns");
+
+        DMatrixSparseCSC C = orderColumns(A);
+        if( storeQ ) {
+            TriangularSolver_DSCC.eliminationTree(C,true,parent,work);
+            countV(C);
+            performNumeric(C);
+        } else {
+            decomposeGivens(C);
+        }
+
+        return true;
+    }
+
+    /**
+     * Computes the column ordering and applies it
+     *
+     * @return A with its columns permuted
+     */
+    private DMatrixSparseCSC orderColumns( DMatrixSparseCSC A ) {
+        m = A.numRows;
+        n = A.numCols;
+
+        if( q.length < n ) {
+            q = new int[n];
+            parent = new int[n];
+            beta = new double[n];
+            s = new int[n];
+            head = new int[n];
+            tail = new int[n];
+            nque = new int[n];
+            counts = new int[n];
+            initialized = new boolean[n];
+        }
+        if( leftmost.length < m ) {
+            leftmost = new int[m];
+            next = new int[m];
+        }
+        if( pinv.length < m+n ) {
+            pinv = new int[m+n];
+            work = new int[m+n];
+        }
+
+        if( reduce != null ) {
+            reduce.process(A);
+            System.arraycopy(reduce.getColumn(),0,q,0,n);
+
+            // permute() requires arrays which are exactly the size of the matrix
+            if( rowInv.length != m ) {
+                rowInv = new int[m];
+                for (int i = 0; i < m; i++) {
+                    rowInv[i] = i;
+                }
+            }
+            if( colPerm.length != n )
+                colPerm = new int[n];
+            System.arraycopy(q,0,colPerm,0,n);
+            CommonOps_DSCC.permute(rowInv,A,colPerm,Ap);
+            A = Ap;
+        } else {
+            for (int i = 0; i < n; i++) {
+                q[i] = i;
+            }
+        }
+
+        return A;
+    }
+
+    /**
+     * Finds the row permutation and number of non-zero elements in V.  Same as cs_vcount in csparse
+     */
+    private void countV( DMatrixSparseCSC C ) {
+        Arrays.fill(nque,0,n,0);
+        Arrays.fill(head,0,n,-1);
+        Arrays.fill(tail,0,n,-1);
+        Arrays.fill(leftmost,0,m,-1);
+
+        for (int k = n-1; k >= 0; k--) {
+            for (int p = C.col_idx[k]; p < C.col_idx[k+1]; p++) {
+                leftmost[C.nz_rows[p]] = k;
+            }
+        }
+
+        // put each row into the queue of its leftmost column.  Rows are scanned in reverse order
+        for (int i = m-1; i >= 0; i--) {
+            pinv[i] = -1;
+            int k = leftmost[i];
+            if( k == -1 )
+                continue;
+            if( nque[k]++ == 0 )
+                tail[k] = i;
+            next[i] = head[k];
+            head[k] = i;
+        }
+
+        int lnz = 0;
+        m2 = m;
+        int k;
+        for (k = 0; k < n; k++) {
+            // remove row i from queue k and use it as the diagonal of V(:,k)
+            int i = head[k];
+            lnz++;
+            if( i < 0 )
+                i = m2++; // add a fictitious row
+            pinv[i] = k;
+            if( --nque[k] <= 0 )
+                continue;
+            lnz += nque[k];
+            // move all the remaining rows to the queue of k's parent
+            int pa = parent[k];
+            if( pa != -1 ) {
+                if( nque[pa] == 0 )
+                    tail[pa] = tail[k];
+                next[tail[k]] = head[pa];
+                head[pa] = next[i];
+                nque[pa] += nque[k];
+            }
+        }
+        for (int i = 0; i < m; i++) {
+            if( pinv[i] < 0 )
+                pinv[i] = k++;
+        }
+
+        if( x.length < m2 ) {
+            x = new double[m2];
+            w = new int[m2];
+        }
+
+        V.reshape(m2,n,0);
+        V.growMaxLength(lnz,false);
+    }
+
+    /**
+     * Computes the Householder reflectors and R.
+     */
+    private void performNumeric( DMatrixSparseCSC C ) {
+        R.reshape(n,n,0);
+        R.growMaxLength(Math.max(C.nz_length,n),false);
+
+        Arrays.fill(x,0,m2,0);
+        Arrays.fill(w,0,m2,-1);
+
+        int rnz = 0, vnz = 0;
+        for (int k = 0; k < n; k++) {
+            if( rnz + k + 1 > R.nz_values.length ) {
+                R.nz_length = rnz;
+                R.growMaxLength(2*R.nz_values.length + k + 1,true);
+            }
+
+            R.col_idx[k] = rnz;
+            int p1 = vnz;
+            V.col_idx[k] = p1;
+            w[k] = k;
+            V.nz_rows[vnz++] = k;
+
+            // find the pattern of R(:,k) by traversing the elimination tree and scatter C(:,k) into x
+            int top = n;
+            int idx0 = C.col_idx[k], idx1 = C.col_idx[k+1];
+            for (int p = idx0; p < idx1; p++) {
+                int row = C.nz_rows[p];
+                int i = leftmost[row];
+                int len = 0;
+                for (; w[i] != k; i = parent[i]) {
+                    s[len++] = i;
+                    w[i] = k;
+                }
+                while( len > 0 )
+                    s[--top] = s[--len];
+
+                i = pinv[row];
+                x[i] = C.nz_values[p];
+                if( i > k && w[i] < k ) {
+                    V.nz_rows[vnz++] = i;
+                    w[i] = k;
+                }
+            }
+
+            // apply the previous reflectors
+            for (int p = top; p < n; p++) {
+                int i = s[p];
+                applyReflector(V,i,beta[i],x);
+                R.nz_rows[rnz] = i;
+                R.nz_values[rnz++] = x[i];
+                x[i] = 0;
+                // the structure of V(:,k) includes the structure of its children
+                if( parent[i] == k ) {
+                    for (int j = V.col_idx[i]; j < V.col_idx[i+1]; j++) {
+                        int row = V.nz_rows[j];
+                        if( w[row] < k ) {
+                            w[row] = k;
+                            V.nz_rows[vnz++] = row;
+                        }
+                    }
+                }
+            }
+
+            // gather V(:,k) = x
+            for (int p = p1; p < vnz; p++) {
+                V.nz_values[p] = x[V.nz_rows[p]];
+                x[V.nz_rows[p]] = 0;
+            }
+            // compute the Householder reflector. The diagonal of R is the last element in the column
+            R.nz_rows[rnz] = k;
+            R.nz_values[rnz++] = householder(V.nz_values,p1,vnz,k);
+            V.col_idx[k+1] = vnz;
+        }
+        R.col_idx[n] = rnz;
+        V.col_idx[n] = vnz;
+        R.nz_length = rnz;
+        V.nz_length = vnz;
+        R.indicesSorted = false;
+        V.indicesSorted = false;
+    }
+
+    /**
+     * Computes R in Q-less mode by rotating each row of C into R with Givens rotations.
+     */
+    private void decomposeGivens( DMatrixSparseCSC C ) {
+        m2 = m;
+        for (int i = 0; i < m; i++) {
+            pinv[i] = i;
+        }
+        if( x.length < m ) {
+            x = new double[m];
+            w = new int[m];
+        }
+
+        // rows of C
+        Ct.reshape(n,m,C.nz_length);
+        CommonOps_DSCC.transpose(C,Ct,work);
+
+        // Pattern of the upper triangle of C'*C.  Each row of C is a clique.
+        AtA.reshape(n,n,0);
+        AtA.growMaxLength(Math.max(C.nz_length,n),false);
+        Arrays.fill(w,0,n,-1);
+        int nz = 0;
+        for (int j = 0; j < n; j++) {
+            AtA.col_idx[j] = nz;
+            for (int p = C.col_idx[j]; p < C.col_idx[j+1]; p++) {
+                int row = C.nz_rows[p];
+                for (int pt = Ct.col_idx[row]; pt < Ct.col_idx[row+1]; pt++) {
+                    int i = Ct.nz_rows[pt];
+                    if( i > j || w[i] == j )
+                        continue;
+                    w[i] = j;
+                    if( nz >= AtA.nz_values.length ) {
+                        AtA.nz_length = nz;
+                        AtA.growMaxLength(2*nz+n,true);
+                    }
+                    AtA.nz_rows[nz++] = i;
+                }
+            }
+        }
+        AtA.col_idx[n] = nz;
+        AtA.nz_length = nz;
+
+        // The structure of R is the same as the Cholesky factor of C'*C.  Row k of R contains
+        // the columns j whose elimination reach includes k.  Rr stores R by rows
+        TriangularSolver_DSCC.eliminationTree(AtA,false,parent,null);
+        Arrays.fill(counts,0,n,0);
+        Arrays.fill(w,0,n,0);
+        for (int k = 0; k < n; k++) {
+            int top = TriangularSolver_DSCC.searchNzRowsElim(AtA,k,parent,s,w);
+            for (int p = top; p < n; p++) {
+                counts[s[p]]++;
+            }
+            counts[k]++;
+        }
+        Rr.reshape(n,n,0);
+        Rr.col_idx[0] = 0;
+        for (int i = 0; i < n; i++) {
+            Rr.col_idx[i+1] = Rr.col_idx[i] + counts[i];
+        }
+        Rr.growMaxLength(Rr.col_idx[n],false);
+        Rr.nz_length = Rr.col_idx[n];
+
+        // fill in the column indexes of each row in increasing order.  The diagonal is first.
+        System.arraycopy(Rr.col_idx,0,counts,0,n);
+        for (int k = 0; k < n; k++) {
+            Rr.nz_rows[counts[k]++] = k;
+            int top = TriangularSolver_DSCC.searchNzRowsElim(AtA,k,parent,s,w);
+            for (int p = top; p < n; p++) {
+                int i = s[p];
+                Rr.nz_rows[counts[i]++] = k;
+            }
+        }
+
+        // rotate each row into R
+        Arrays.fill(initialized,0,n,false);
+        Arrays.fill(Rr.nz_values,0,Rr.nz_length,0);
+        Arrays.fill(x,0,n,0);
+        for (int row = 0; row < m; row++) {
+            int idx0 = Ct.col_idx[row], idx1 = Ct.col_idx[row+1];
+            if( idx0 == idx1 )
+                continue;
+            int k = n;
+            for (int p = idx0; p < idx1; p++) {
+                int col = Ct.nz_rows[p];
+                x[col] = Ct.nz_values[p];
+                k = Math.min(k,col);
+            }
+
+            // The non-zero pattern of x is always a subset of row k in R.  Once the root has been
+            // reached x is zero and what was eliminated is the residual, which isn't needed.
+            for (; k != -1; k = parent[k]) {
+                double b = x[k];
+                if( b == 0 )
+                    continue;
+
+                int r0 = Rr.col_idx[k], r1 = Rr.col_idx[k+1];
+                if( !initialized[k] ) {
+                    // first time this row is used, copy x into it
+                    initialized[k] = true;
+                    for (int p = r0; p < r1; p++) {
+                        int j = Rr.nz_rows[p];
+                        Rr.nz_values[p] = x[j];
+                        x[j] = 0;
+                    }
+                    break;
+                }
+
+                double a = Rr.nz_values[r0];
+
+                // Givens rotation which zeros x[k]
+                double c,sn;
+                if( Math.abs(b) > Math.abs(a) ) {
+                    double t = a/b;
+                    sn = 1.0/Math.sqrt(1+t*t);
+                    c = sn*t;
+                } else {
+                    double t = b/a;
+                    c = 1.0/Math.sqrt(1+t*t);
+                    sn = c*t;
+                }
+                for (int p = r0; p < r1; p++) {
+                    int j = Rr.nz_rows[p];
+                    double rv = Rr.nz_values[p];
+                    double xv = x[j];
+                    Rr.nz_values[p] = c*rv + sn*xv;
+                    x[j] = c*xv - sn*rv;
+                }
+                x[k] = 0;
+            }
+        }
+
+        // convert from row major to column major. The diagonal will be last in each column
+        R.reshape(n,n,Rr.nz_length);
+        CommonOps_DSCC.transpose(Rr,R,work);
+    }
+
+    /**
+     * Computes the Householder reflector which zeros all but the first element in x[idx0:idx1] and overwrites
+     * x with the reflector.  Same as cs_house in csparse.
+     *
+     * @return the first element in the reflected vector
+     */
+    private double householder( double x[] , int idx0 , int idx1 , int k ) {
+        double sigma = 0;
+        for (int i = idx0+1; i < idx1; i++) {
+            sigma += x[i]*x[i];
+        }
+        double norm;
+        if( sigma == 0 ) {
+            norm = Math.abs(x[idx0]);
+            beta[k] = x[idx0] <= 0 ? 2 : 0;
+            x[idx0] = 1;
+        } else {
+            norm = Math.sqrt(x[idx0]*x[idx0] + sigma);
+            x[idx0] = x[idx0] <= 0 ? x[idx0] - norm : -sigma/(x[idx0] + norm);
+            beta[k] = -1.0/(norm*x[idx0]);
+        }
+        return norm;
+    }
+
+    /**
+     * Applies the Householder reflector stored in column i of V to the dense vector x.
+     * x = (I - beta*v*v<sup>T</sup>)*x.  Same as cs_happly in csparse.
+     */
+    public static void applyReflector( DMatrixSparseCSC V , int i , double beta , double x[] ) {
+        int idx0 = V.col_idx[i], idx1 = V.col_idx[i+1];
+        double tau = 0;
+        for (int p = idx0; p < idx1; p++) {
+            tau += V.nz_values[p]*x[V.nz_rows[p]];
+        }
+        tau *= beta;
+        for (int p = idx0; p < idx1; p++) {
+            x[V.nz_rows[p]] -= V.nz_values[p]*tau;
+        }
+    }
+
+    /**
+     * Computes Q such that A*Q<sub>col</sub> = Q*R, where Q<sub>col</sub> is the column ordering.
+     * Q = P<sup>T</sup>*H.  The reflectors are applied to each column of the identity matrix so this
+     * can be expensive and should be avoided for large matrices.  Not available in Q-less mode.
+     */
+    @Override
+    public DMatrixSparseCSC getQ( DMatrixSparseCSC Q, boolean compact ) {
+        if( !storeQ )
+            throw new IllegalArgumentException("The reflectors are not saved in Q-less mode");
+
+        int numCols = compact ? n : m;
+        if( Q == null )
+            Q = new DMatrixSparseCSC(m,numCols,0);
+        else
+            Q.reshape(m,numCols,0);
+        Q.col_idx[0] = 0;
+        Q.nz_length = 0;
+
+        double b[] = new double[m2];
+        for (int j = 0; j < numCols; j++) {
+            Arrays.fill(b,0);
+            b[j] = 1;
+            for (int k = n-1; k >= 0; k--) {
+                applyReflector(V,k,beta[k],b);
+            }
+
+            if( Q.nz_values.length < Q.nz_length + m ) {
+                Q.growMaxLength(Q.nz_length*2 + m,true);
+            }
+            for (int i = 0; i < m; i++) {
+                double value = b[pinv[i]];
+                if( value != 0 ) {
+                    Q.nz_rows[Q.nz_length] = i;
+                    Q.nz_values[Q.nz_length++] = value;
+                }
+            }
+            Q.col_idx[j+1] = Q.nz_length;
+        }
+        Q.indicesSorted = true;
+
+        return Q;
+    }
+
+    /**
+     * Returns R.  If compact it's n by n, otherwise m by n.
+     */
+    @Override
+    public DMatrixSparseCSC getR( DMatrixSparseCSC R , boolean compact ) {
+        int numRows = compact ? n : m;
+        if( R == null )
+            R = new DMatrixSparseCSC(numRows,n,this.R.nz_length);
+        R.set(this.R);
+        R.numRows = numRows;
+        return R;
+    }
+
+    @Override
+    public boolean inputModified() {
+        return false;
+    }
+
+    /**
+     * Returns the internal n by n upper triangular matrix.  The diagonal is the last element in each column.
+     * Don't modify.
+     */
+    public DMatrixSparseCSC getR() {
+        return R;
+    }
+
+    /**
+     * Returns the internal Householder reflectors.  Don't modify.
+     */
+    public DMatrixSparseCSC getV() {
+        return V;
+    }
+
+    public double[] getBeta() {
+        return beta;
+    }
+
+    /**
+     * Returns the number of rows in V, which is m plus the number of fictitious rows.
+     */
+    public int getNumRowsV() {
+        return m2;
+    }
+
+    /**
+     * Returns the row permutation.  Row 'i' in A is row pinv[i] in V.
+     */
+    public int[] getPinv() {
+        return pinv;
+    }
+
+    /**
+     * Returns the column ordering.  Column 'k' in R is column q[k] in A.
+     */
+    public int[] getColumnOrdering() {
+        return q;
+    }
+
+    /**
+     * Returns the column elimination tree.
+     */
+    public int[] getParent() {
+        return parent;
+    }
+
+    public boolean isStoreQ() {
+        return storeQ;
+    }
+
+    public ComputePermutation<DMatrixSparseCSC> getReduce() {
+        return reduce;
+    }
+}
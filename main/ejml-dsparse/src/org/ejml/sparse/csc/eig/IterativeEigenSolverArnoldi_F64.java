@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.watched.WatchedDoubleStepQREigenvalue_DDRM;
+
+/**
+ * <p>
+ * Implicitly restarted Arnoldi method for finding a few eigenvalues and eigenvectors of a large general square
+ * matrix.  The projected matrix is upper Hessenberg and its eigenvalues are found using
+ * {@link WatchedDoubleStepQREigenvalue_DDRM}.  Eigenvectors of the projected matrix are found with inverse
+ * iteration in complex arithmetic.  Exact shifts are used and complex conjugate pairs of shifts are applied
+ * together with a double shift step, so only real arithmetic is needed on the basis.  A conjugate pair is
+ * never split by a restart.  See {@link IterativeEigenSolver_F64} for more details.
+ * </p>
+ *
+ * <p>
+ * Eigenvectors are only computed for real eigenvalues.
+ * </p>
+ *
+ * <p>
+ * R. Lehoucq, D. Sorensen, and C. Yang, "ARPACK Users' Guide," SIAM 1998
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class IterativeEigenSolverArnoldi_F64 extends IterativeEigenSolver_F64 {
+
+    // Ritz values
+    double valuesR[] = new double[0];
+    double valuesI[] = new double[0];
+
+    // storage for the LU decomposition of (H - lambda*I) in complex arithmetic
+    double luR[] = new double[0];
+    double luI[] = new double[0];
+    // multipliers used to eliminate each sub-diagonal element and if the rows were swapped
+    double multR[] = new double[0];
+    double multI[] = new double[0];
+    boolean swapped[] = new boolean[0];
+    // eigenvector of H
+    double yR[] = new double[0];
+    double yI[] = new double[0];
+
+    // the found eigenvalues
+    Complex_F64 eigenvalues[] = new Complex_F64[0];
+
+    WatchedDoubleStepQREigenvalue_DDRM qralg = new WatchedDoubleStepQREigenvalue_DDRM();
+
+    @Override
+    protected boolean isSymmetric() {
+        return false;
+    }
+
+    @Override
+    protected int minimumBasis( int numEigen ) {
+        // room for an extra vector if the last wanted eigenvalue is part of a conjugate pair
+        return numEigen+2;
+    }
+
+    @Override
+    protected void declareRitz( int m ) {
+        if( valuesR.length < m ) {
+            valuesR = new double[m];
+            valuesI = new double[m];
+            multR = new double[m];
+            multI = new double[m];
+            swapped = new boolean[m];
+            yR = new double[m];
+            yI = new double[m];
+        }
+        if( luR.length < m*m ) {
+            luR = new double[m*m];
+            luI = new double[m*m];
+        }
+    }
+
+    @Override
+    protected boolean computeRitz() {
+        if( !qralg.process(H) )
+            return false;
+
+        Complex_F64 found[] = qralg.getEigenvalues();
+        normRitz = 0;
+        for (int i = 0; i < m; i++) {
+            valuesR[i] = found[i].real;
+            valuesI[i] = found[i].imaginary;
+            normRitz = Math.max(normRitz,found[i].getMagnitude());
+        }
+        sortRitz();
+
+        // the error bound is only needed for the wanted Ritz values
+        for (int i = 0; i < m; i++) {
+            int index = order[i];
+            if( i < numEigen ) {
+                ritzVector(index);
+                double r = yR[m-1], c = yI[m-1];
+                bounds[index] = normF*Math.sqrt(r*r + c*c);
+            } else {
+                bounds[index] = Double.MAX_VALUE;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the eigenvector of H for the specified Ritz value using inverse iteration.  The solution is
+     * written to yR and yI and has a norm of one.
+     */
+    private void ritzVector( int index ) {
+        double normH = CommonOps_DDRM.elementMaxAbs(H);
+        // perturb the Ritz value slightly so that H - lambda*I isn't exactly singular
+        double tiny = Math.max(normH,UtilEjml.EPS)*UtilEjml.EPS;
+        double lambdaR = valuesR[index] + tiny;
+        double lambdaI = valuesI[index];
+
+        decomposeShifted(lambdaR,lambdaI,tiny);
+
+        for (int i = 0; i < m; i++) {
+            yR[i] = 1;
+            yI[i] = 0;
+        }
+        for (int iter = 0; iter < 2; iter++) {
+            solveShifted();
+
+            double norm = 0;
+            for (int i = 0; i < m; i++) {
+                norm += yR[i]*yR[i] + yI[i]*yI[i];
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < m; i++) {
+                yR[i] /= norm;
+                yI[i] /= norm;
+            }
+        }
+    }
+
+    /**
+     * LU decomposition of (H - lambda*I) with partial pivoting.  Since H is upper Hessenberg only adjacent rows
+     * can be swapped.  Pivots which are zero are replaced with 'tiny'.
+     */
+    private void decomposeShifted( double lambdaR , double lambdaI , double tiny ) {
+        double h[] = H.data;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                luR[i*m+j] = h[i*m+j];
+                luI[i*m+j] = 0;
+            }
+            luR[i*m+i] -= lambdaR;
+            luI[i*m+i] -= lambdaI;
+        }
+
+        for (int k = 0; k < m-1; k++) {
+            int row0 = k*m, row1 = (k+1)*m;
+            double aR = luR[row0+k], aI = luI[row0+k];
+            double bR = luR[row1+k], bI = luI[row1+k];
+
+            swapped[k] = bR*bR + bI*bI > aR*aR + aI*aI;
+            if( swapped[k] ) {
+                for (int j = k; j < m; j++) {
+                    double t = luR[row0+j]; luR[row0+j] = luR[row1+j]; luR[row1+j] = t;
+                    t = luI[row0+j]; luI[row0+j] = luI[row1+j]; luI[row1+j] = t;
+                }
+                double t = aR; aR = bR; bR = t;
+                t = aI; aI = bI; bI = t;
+            }
+            double mag2 = aR*aR + aI*aI;
+            if( mag2 == 0 ) {
+                luR[row0+k] = aR = tiny;
+                mag2 = tiny*tiny;
+            }
+
+            // l = b/a
+            double lR = (bR*aR + bI*aI)/mag2;
+            double lI = (bI*aR - bR*aI)/mag2;
+            multR[k] = lR;
+            multI[k] = lI;
+
+            luR[row1+k] = 0;
+            luI[row1+k] = 0;
+            for (int j = k+1; j < m; j++) {
+                double uR = luR[row0+j], uI = luI[row0+j];
+                luR[row1+j] -= lR*uR - lI*uI;
+                luI[row1+j] -= lR*uI + lI*uR;
+            }
+        }
+        int last = (m-1)*m+m-1;
+        if( luR[last] == 0 && luI[last] == 0 )
+            luR[last] = tiny;
+    }
+
+    /**
+     * Solves (H - lambda*I)*x = y using the decomposition.  The solution is written into y.
+     */
+    private void solveShifted() {
+        // apply the row swaps and elimination
+        for (int k = 0; k < m-1; k++) {
+            if( swapped[k] ) {
+                double t = yR[k]; yR[k] = yR[k+1]; yR[k+1] = t;
+                t = yI[k]; yI[k] = yI[k+1]; yI[k+1] = t;
+            }
+            double lR = multR[k], lI = multI[k];
+            double vR = yR[k], vI = yI[k];
+            yR[k+1] -= lR*vR - lI*vI;
+            yI[k+1] -= lR*vI + lI*vR;
+        }
+
+        // back substitution with the upper triangular matrix
+        for (int i = m-1; i >= 0; i--) {
+            double sumR = yR[i], sumI = yI[i];
+            for (int j = i+1; j < m; j++) {
+                double uR = luR[i*m+j], uI = luI[i*m+j];
+                sumR -= uR*yR[j] - uI*yI[j];
+                sumI -= uR*yI[j] + uI*yR[j];
+            }
+            double dR = luR[i*m+i], dI = luI[i*m+i];
+            double mag2 = dR*dR + dI*dI;
+            yR[i] = (sumR*dR + sumI*dI)/mag2;
+            yI[i] = (sumI*dR - sumR*dI)/mag2;
+        }
+    }
+
+    @Override
+    protected boolean isBefore( int a , int b ) {
+        double valueA,valueB;
+        switch( which ) {
+            case LARGEST_MAGNITUDE:
+                valueA = valuesR[a]*valuesR[a] + valuesI[a]*valuesI[a];
+                valueB = valuesR[b]*valuesR[b] + valuesI[b]*valuesI[b];
+                break;
+            case LARGEST_ALGEBRAIC:
+                valueA = valuesR[a];
+                valueB = valuesR[b];
+                break;
+            case SMALLEST_ALGEBRAIC:
+                valueA = -valuesR[a];
+                valueB = -valuesR[b];
+                break;
+            default: throw new IllegalArgumentException("Unknown");
+        }
+        if( valueA != valueB )
+            return valueA > valueB;
+        // keeps conjugate pairs next to each other
+        return valuesI[a] > valuesI[b];
+    }
+
+    @Override
+    protected int adjustKeep( int numKeep ) {
+        // don't split a complex conjugate pair
+        if( numKeep > 0 && numKeep < m && isConjugatePair(order[numKeep-1],order[numKeep]) )
+            numKeep++;
+        return numKeep;
+    }
+
+    private boolean isConjugatePair( int a , int b ) {
+        return valuesI[a] != 0 && valuesI[a] == -valuesI[b] && valuesR[a] == valuesR[b];
+    }
+
+    @Override
+    protected int applyShifts( int numKeep ) {
+        CommonOps_DDRM.setIdentity(Q);
+        int numShifts = 0;
+        for (int i = numKeep; i < m; i++) {
+            int index = order[i];
+            if( valuesI[index] == 0 ) {
+                shiftSingle(valuesR[index]);
+                numShifts++;
+            } else {
+                shiftDouble(valuesR[index],Math.abs(valuesI[index]));
+                numShifts += 2;
+                if( i+1 < m && isConjugatePair(index,order[i+1]) )
+                    i++;
+            }
+        }
+        return Math.min(numShifts,m-1);
+    }
+
+    @Override
+    protected void computeVectors() {
+        declareVectors();
+        if( eigenvalues.length < numEigen ) {
+            Complex_F64 tmpE[] = new Complex_F64[numEigen];
+            System.arraycopy(eigenvalues,0,tmpE,0,eigenvalues.length);
+            for (int i = eigenvalues.length; i < numEigen; i++) {
+                tmpE[i] = new Complex_F64();
+            }
+            eigenvalues = tmpE;
+        }
+
+        for (int i = 0; i < numEigen; i++) {
+            int index = order[i];
+            eigenvalues[i].set(valuesR[index],valuesI[index]);
+            if( valuesI[index] != 0 )
+                continue;
+            ritzVector(index);
+            multBasis(yR,vectors[i].data);
+        }
+    }
+
+    /**
+     * Returns the specified eigenvalue.  Eigenvalues are sorted with the wanted ones first.  The returned
+     * object is reused.
+     */
+    public Complex_F64 getEigenvalue( int index ) {
+        if( index < 0 || index >= numEigen )
+            throw new IllegalArgumentException("Index out of bounds");
+        return eigenvalues[index];
+    }
+
+    @Override
+    public DMatrixRMaj getEigenVector( int index ) {
+        if( getEigenvalue(index).isReal() )
+            return super.getEigenVector(index);
+        return null;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.eig;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQREigenHelper_DDRM;
+import org.ejml.dense.row.decomposition.eig.symm.SymmetricQrAlgorithm_DDRM;
+
+/**
+ * <p>
+ * Implicitly restarted Lanczos method for finding a few eigenvalues and eigenvectors of a large symmetric
+ * matrix.  The projected matrix is symmetric tridiagonal and its eigenvalues are found using
+ * {@link SymmetricQrAlgorithm_DDRM}.  Exact shifts are used.  See {@link IterativeEigenSolver_F64} for
+ * more details.
+ * </p>
+ *
+ * <p>
+ * R. Lehoucq, D. Sorensen, and C. Yang, "ARPACK Users' Guide," SIAM 1998
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class IterativeEigenSolverLanczos_F64 extends IterativeEigenSolver_F64 {
+
+    // Ritz values
+    double values[] = new double[0];
+    // work space for the tridiagonal matrix
+    double diag[] = new double[0];
+    double off[] = new double[0];
+    // rows are the eigenvectors of the tridiagonal matrix
+    DMatrixRMaj S = new DMatrixRMaj(1,1);
+
+    SymmetricQREigenHelper_DDRM helper = new SymmetricQREigenHelper_DDRM();
+    SymmetricQrAlgorithm_DDRM qralg = new SymmetricQrAlgorithm_DDRM(helper);
+
+    public IterativeEigenSolverLanczos_F64() {
+        qralg.setFastEigenvalues(false);
+    }
+
+    @Override
+    protected boolean isSymmetric() {
+        return true;
+    }
+
+    @Override
+    protected int minimumBasis( int numEigen ) {
+        return numEigen+1;
+    }
+
+    @Override
+    protected void declareRitz( int m ) {
+        if( values.length < m ) {
+            values = new double[m];
+            diag = new double[m];
+            off = new double[m];
+        }
+        S.reshape(m,m);
+    }
+
+    @Override
+    protected boolean computeRitz() {
+        for (int i = 0; i < m; i++) {
+            diag[i] = H.data[i*m+i];
+            if( i+1 < m )
+                off[i] = H.data[i*m+i+1];
+        }
+
+        CommonOps_DDRM.setIdentity(S);
+        helper.init(diag,off,m);
+        helper.setQ(S);
+        if( !qralg.process(-1,null,null) )
+            return false;
+
+        normRitz = 0;
+        for (int i = 0; i < m; i++) {
+            values[i] = diag[i];
+            bounds[i] = normF*Math.abs(S.data[i*m+m-1]);
+            normRitz = Math.max(normRitz,Math.abs(values[i]));
+        }
+        sortRitz();
+        return true;
+    }
+
+    @Override
+    protected boolean isBefore( int a , int b ) {
+        switch( which ) {
+            case LARGEST_MAGNITUDE: return Math.abs(values[a]) > Math.abs(values[b]);
+            case LARGEST_ALGEBRAIC: return values[a] > values[b];
+            case SMALLEST_ALGEBRAIC: return values[a] < values[b];
+            default: throw new IllegalArgumentException("Unknown");
+        }
+    }
+
+    @Override
+    protected int adjustKeep( int numKeep ) {
+        return numKeep;
+    }
+
+    @Override
+    protected int applyShifts( int numKeep ) {
+        CommonOps_DDRM.setIdentity(Q);
+        for (int i = numKeep; i < m; i++) {
+            shiftSingle(values[order[i]]);
+        }
+
+        // enforce symmetry and remove round off error outside of the tridiagonal band
+        double h[] = H.data;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                if( j > i+1 || j < i-1 )
+                    h[i*m+j] = 0;
+                else if( j == i+1 )
+                    h[i*m+j] = h[j*m+i];
+            }
+        }
+        return m-numKeep;
+    }
+
+    @Override
+    protected void computeVectors() {
+        declareVectors();
+        for (int i = 0; i < numEigen; i++) {
+            int index = order[i];
+            System.arraycopy(S.data,index*m,tmp,0,m);
+            multBasis(tmp,vectors[i].data);
+        }
+    }
+
+    /**
+     * Returns the specified eigenvalue.  Eigenvalues are sorted with the wanted ones first.
+     */
+    public double getEigenvalue( int index ) {
+        if( index < 0 || index >= numEigen )
+            throw new IllegalArgumentException("Index out of bounds");
+        return values[order[index]];
+    }
+}
@@ -0,0 +1,738 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.linsol.iterative.LinearOperator_F64;
+import org.ejml.sparse.csc.linsol.iterative.SparseOperator_DSCC;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Base class for implicitly restarted Krylov methods which find a few eigenpairs of a large square matrix.  The
+ * matrix is only accessed through a {@link LinearOperator_F64}, so it can be sparse or never explicitly formed.
+ * An m step Arnoldi factorization, A*V<sub>m</sub> = V<sub>m</sub>*H<sub>m</sub> + f*e<sub>m</sub><sup>T</sup>,
+ * is built where V<sub>m</sub> is an orthonormal basis of the Krylov subspace and H<sub>m</sub> is the small
+ * projected matrix.  The eigenvalues of H<sub>m</sub> (Ritz values) approximate eigenvalues of A.  When the
+ * wanted Ritz values haven't converged the unwanted Ritz values are used as shifts in implicit QR steps on
+ * H<sub>m</sub>, which compresses the factorization down to the wanted part.  It's then extended back to m steps
+ * and the process repeats.
+ * </p>
+ *
+ * <p>
+ * The basis is reorthogonalized against all previous vectors using classical Gram-Schmidt applied twice.
+ * Restarts are done in place and vectors with N elements are only declared when the size of the problem
+ * increases.  Only extremal eigenvalues can be found efficiently.  To find eigenvalues close to &sigma;
+ * pass in an operator which computes (A - &sigma;I)<sup>-1</sup>*x and transform the eigenvalues back.
+ * </p>
+ *
+ * <p>
+ * D. Sorensen, "Implicit Application of Polynomial Filters in a k-Step Arnoldi Method," SIAM J. Matrix Anal.
+ * Appl., 13(1), 1992
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class IterativeEigenSolver_F64 {
+
+    /**
+     * Specifies which eigenvalues are wanted.  For complex eigenvalues the real part is used by the algebraic
+     * options.
+     */
+    public enum Which {
+        LARGEST_MAGNITUDE,
+        LARGEST_ALGEBRAIC,
+        SMALLEST_ALGEBRAIC
+    }
+
+    // which eigenvalues it's looking for
+    protected Which which = Which.LARGEST_MAGNITUDE;
+    // relative tolerance for the residual of each eigenpair
+    protected double tolerance = 1e-10;
+    // maximum number of restarts
+    protected int maxRestarts = 300;
+    // size of the Krylov basis. if &le; 0 then it's selected automatically
+    protected int basisSize = -1;
+    // initial vector. if null a random vector is used
+    protected DMatrixRMaj initial;
+    protected Random rand = new Random(0xBEEF);
+
+    // size of the matrix, number of wanted eigenvalues, and size of the basis
+    protected int N, numEigen, m;
+
+    // orthonormal basis of the Krylov subspace
+    protected DMatrixRMaj V[] = new DMatrixRMaj[0];
+    // residual of the factorization and its norm
+    protected DMatrixRMaj f = new DMatrixRMaj(1,1);
+    protected double normF;
+    protected DMatrixRMaj w = new DMatrixRMaj(1,1);
+    // estimate of the operator's norm
+    protected double normA;
+
+    // projected matrix.  m by m upper Hessenberg
+    protected DMatrixRMaj H = new DMatrixRMaj(1,1);
+    // accumulated rotations from the shifts
+    protected DMatrixRMaj Q = new DMatrixRMaj(1,1);
+
+    // estimate of the residual for each Ritz pair
+    protected double bounds[] = new double[0];
+    // indexes of Ritz values sorted with the wanted ones first
+    protected int order[] = new int[0];
+    // largest Ritz value in magnitude
+    protected double normRitz;
+    // work space with m elements
+    protected double tmp[] = new double[0];
+    protected double coef[] = new double[0];
+
+    // found eigenvectors
+    protected DMatrixRMaj vectors[] = new DMatrixRMaj[0];
+
+    // used when a sparse matrix is passed in
+    protected SparseOperator_DSCC sparse;
+
+    // telemetry from the last call to process
+    protected int restarts;
+    protected int numMult;
+    protected int numConverged;
+    protected boolean converged;
+
+    /**
+     * Finds the wanted eigenvalues of a sparse matrix using {@link SparseOperator_DSCC}.
+     *
+     * @param A Square matrix. Not modified.
+     * @param numEigen Number of eigenvalues which are to be found
+     * @return true if all the eigenpairs converged
+     */
+    public boolean process( DMatrixSparseCSC A , int numEigen ) {
+        if( sparse == null )
+            sparse = new SparseOperator_DSCC(A,isSymmetric());
+        else
+            sparse.setMatrix(A,isSymmetric());
+        return process(sparse,numEigen);
+    }
+
+    /**
+     * Finds the wanted eigenvalues of the operator.  If it doesn't converge the current estimates are still
+     * available.
+     *
+     * @param A Square operator. Not modified.
+     * @param numEigen Number of eigenvalues which are to be found
+     * @return true if all the eigenpairs converged
+     */
+    public boolean process( LinearOperator_F64 A , int numEigen ) {
+        initialize(A,numEigen);
+
+        extend(A,0,m);
+
+        while( true ) {
+            if( !computeRitz() )
+                return false;
+
+            numConverged = 0;
+            for (int i = 0; i < numEigen; i++) {
+                if( bounds[order[i]] <= tolerance*normRitz )
+                    numConverged++;
+            }
+            if( numConverged >= numEigen ) {
+                converged = true;
+                break;
+            }
+            if( restarts >= maxRestarts )
+                break;
+
+            // keep a few extra vectors as the wanted ones converge to avoid stagnation
+            int numKeep = adjustKeep(numEigen + Math.min(numConverged,(m-numEigen)/2));
+            if( numKeep >= m )
+                break;
+
+            restart(numKeep,applyShifts(numKeep));
+            extend(A,numKeep,m);
+            restarts++;
+        }
+
+        computeVectors();
+        return converged;
+    }
+
+    /**
+     * Checks the input and declares memory
+     */
+    protected void initialize( LinearOperator_F64 A , int numEigen ) {
+        N = A.getNumCols();
+        if( A.getNumRows() != N )
+            throw new IllegalArgumentException("A must be square");
+        if( numEigen <= 0 || numEigen > N )
+            throw new IllegalArgumentException("numEigen must be from 1 to "+N);
+        if( initial != null && initial.getNumElements() != N )
+            throw new IllegalArgumentException("The initial vector must have "+N+" elements");
+
+        int minimum = minimumBasis(numEigen);
+        if( basisSize > 0 ) {
+            m = Math.min(N,basisSize);
+            if( m < N && m < minimum )
+                throw new IllegalArgumentException("The basis size must be at least "+minimum);
+        } else {
+            m = Math.min(N,Math.max(minimum,Math.max(2*numEigen+1,20)));
+        }
+        this.numEigen = numEigen;
+
+        if( V.length < m ) {
+            DMatrixRMaj tmpV[] = new DMatrixRMaj[m];
+            System.arraycopy(V,0,tmpV,0,V.length);
+            for (int i = V.length; i < tmpV.length; i++) {
+                tmpV[i] = new DMatrixRMaj(N,1);
+            }
+            V = tmpV;
+        }
+        for (int i = 0; i < m; i++) {
+            V[i].reshape(N,1);
+        }
+        f.reshape(N,1);
+        w.reshape(N,1);
+        H.reshape(m,m);
+        H.zero();
+        Q.reshape(m,m);
+        if( tmp.length < m ) {
+            tmp = new double[m];
+            coef = new double[m];
+            bounds = new double[m];
+            order = new int[m];
+        }
+        declareRitz(m);
+
+        restarts = 0;
+        numMult = 0;
+        numConverged = 0;
+        converged = false;
+        normA = 0;
+
+        // the first vector in the basis
+        double v0[] = V[0].data;
+        if( initial != null ) {
+            System.arraycopy(initial.data,0,v0,0,N);
+        } else {
+            for (int i = 0; i < N; i++) {
+                v0[i] = rand.nextDouble()*2-1;
+            }
+        }
+        double norm = norm(v0,N);
+        if( norm == 0 )
+            throw new IllegalArgumentException("The initial vector can't be zero");
+        scale(1.0/norm,v0,v0,N);
+    }
+
+    /**
+     * Extends the Arnoldi factorization from step 'start' to step 'end'.  If an invariant subspace is found
+     * then the factorization is continued with a random vector which is orthogonal to the basis.
+     */
+    protected void extend( LinearOperator_F64 A , int start , int end ) {
+        double h[] = H.data;
+        for (int j = start; j < end; j++) {
+            if( j > 0 ) {
+                if( normF <= UtilEjml.EPS*normA ) {
+                    randomOrthogonal(j);
+                    h[j*m+j-1] = 0;
+                } else {
+                    scale(1.0/normF,f.data,V[j].data,N);
+                    h[j*m+j-1] = normF;
+                }
+            }
+            A.mult(V[j],w);
+            numMult++;
+            normA = Math.max(normA,norm(w.data,N));
+
+            orthogonalize(w.data,j+1);
+            if( isSymmetric() ) {
+                // the other coefficients are zero in exact arithmetic
+                h[j*m+j] = tmp[j];
+                if( j > 0 )
+                    h[(j-1)*m+j] = h[j*m+j-1];
+            } else {
+                for (int i = 0; i <= j; i++) {
+                    h[i*m+j] = tmp[i];
+                }
+            }
+
+            System.arraycopy(w.data,0,f.data,0,N);
+            normF = norm(f.data,N);
+        }
+    }
+
+    /**
+     * Removes the components of x which lie in the span of the first 'numBasis' basis vectors using classical
+     * Gram-Schmidt twice.  The coefficients are stored in tmp.
+     */
+    protected void orthogonalize( double x[] , int numBasis ) {
+        for (int i = 0; i < numBasis; i++) {
+            tmp[i] = 0;
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < numBasis; i++) {
+                coef[i] = dot(V[i].data,x,N);
+                tmp[i] += coef[i];
+            }
+            for (int i = 0; i < numBasis; i++) {
+                double c = coef[i];
+                double v[] = V[i].data;
+                for (int k = 0; k < N; k++) {
+                    x[k] -= c*v[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets basis vector j to a random unit vector which is orthogonal to the previous ones
+     */
+    private void randomOrthogonal( int j ) {
+        double v[] = V[j].data;
+        double norm;
+        do {
+            for (int i = 0; i < N; i++) {
+                v[i] = rand.nextDouble()*2-1;
+            }
+            orthogonalize(v,j);
+            norm = norm(v,N);
+        } while( norm == 0 );
+        scale(1.0/norm,v,v,N);
+    }
+
+    /**
+     * Compresses the factorization down to 'numKeep' steps after the shifts have been applied to H and
+     * accumulated in Q.  V = V*Q and f = V[numKeep]*H[numKeep,numKeep-1] + f*Q[m-1,numKeep-1]
+     *
+     * @param numShifts Number of shifts applied.  Q has this many non-zero sub-diagonals.
+     */
+    protected void restart( int numKeep , int numShifts ) {
+        double q[] = Q.data;
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j <= numKeep; j++) {
+                int end = Math.min(m,j+numShifts+1);
+                double sum = 0;
+                for (int l = 0; l < end; l++) {
+                    sum += V[l].data[i]*q[l*m+j];
+                }
+                tmp[j] = sum;
+            }
+            for (int j = 0; j <= numKeep; j++) {
+                V[j].data[i] = tmp[j];
+            }
+        }
+
+        double beta = H.data[numKeep*m+numKeep-1];
+        double sigma = q[(m-1)*m+numKeep-1];
+        double v[] = V[numKeep].data;
+        for (int i = 0; i < N; i++) {
+            f.data[i] = v[i]*beta + f.data[i]*sigma;
+        }
+        normF = norm(f.data,N);
+
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                if( i >= numKeep || j >= numKeep )
+                    H.data[i*m+j] = 0;
+            }
+        }
+    }
+
+    /**
+     * Performs an implicit QR step with a real shift on each unreduced block of H and accumulates the rotations
+     * in Q.
+     */
+    protected void shiftSingle( double mu ) {
+        double h[] = H.data;
+        for (int start = 0; start < m; ) {
+            int stop = findBlockEnd(start);
+            for (int k = start; k < stop; k++) {
+                double x,y;
+                if( k == start ) {
+                    x = h[k*m+k] - mu;
+                    y = h[(k+1)*m+k];
+                } else {
+                    x = h[k*m+k-1];
+                    y = h[(k+1)*m+k-1];
+                }
+                double r = Math.sqrt(x*x + y*y);
+                if( r == 0 )
+                    continue;
+                double c = x/r, s = y/r;
+
+                rotateRows(c,s,k,k == start ? k : k-1);
+                if( k > start )
+                    h[(k+1)*m+k-1] = 0;
+                rotateColumns(H,c,s,k,Math.min(k+2,stop)+1);
+                rotateColumns(Q,c,s,k,m);
+            }
+            start = stop+1;
+        }
+    }
+
+    /**
+     * Performs an implicit double shift QR step using the complex conjugate pair of shifts a &plusmn; b*i on each
+     * unreduced block of H and accumulates the reflections in Q.  Blocks with fewer than three rows are skipped.
+     */
+    protected void shiftDouble( double a , double b ) {
+        double h[] = H.data;
+        double trace = 2*a;
+        double det = a*a + b*b;
+        for (int start = 0; start < m; ) {
+            int stop = findBlockEnd(start);
+            if( stop-start < 2 ) {
+                start = stop+1;
+                continue;
+            }
+            int s = start;
+            double h00 = h[s*m+s], h01 = h[s*m+s+1], h10 = h[(s+1)*m+s], h11 = h[(s+1)*m+s+1];
+            double x = h00*h00 + h01*h10 - trace*h00 + det;
+            double y = h10*(h00 + h11 - trace);
+            double z = h10*h[(s+2)*m+s+1];
+
+            for (int k = start; k < stop-1; k++) {
+                double norm = Math.sqrt(x*x + y*y + z*z);
+                if( norm != 0 ) {
+                    double alpha = x > 0 ? -norm : norm;
+                    double u0 = x - alpha;
+                    double gamma = 2.0/(u0*u0 + y*y + z*z);
+
+                    // rows
+                    for (int col = k == start ? k : k-1; col < m; col++) {
+                        double t = gamma*(u0*h[k*m+col] + y*h[(k+1)*m+col] + z*h[(k+2)*m+col]);
+                        h[k*m+col] -= t*u0;
+                        h[(k+1)*m+col] -= t*y;
+                        h[(k+2)*m+col] -= t*z;
+                    }
+                    if( k > start ) {
+                        h[(k+1)*m+k-1] = 0;
+                        h[(k+2)*m+k-1] = 0;
+                    }
+                    // columns
+                    reflectColumns(H,u0,y,z,gamma,k,Math.min(k+3,stop)+1);
+                    reflectColumns(Q,u0,y,z,gamma,k,m);
+                }
+
+                x = h[(k+1)*m+k];
+                y = h[(k+2)*m+k];
+                if( k < stop-2 )
+                    z = h[(k+3)*m+k];
+            }
+
+            // the last step only involves two rows
+            int k = stop-1;
+            double r = Math.sqrt(x*x + y*y);
+            if( r != 0 ) {
+                double c = x/r, sn = y/r;
+                rotateRows(c,sn,k,k-1);
+                h[(k+1)*m+k-1] = 0;
+                rotateColumns(H,c,sn,k,stop+1);
+                rotateColumns(Q,c,sn,k,m);
+            }
+            start = stop+1;
+        }
+    }
+
+    /**
+     * Finds the last row in the unreduced block of H which starts at 'start'.  Negligible sub-diagonal elements
+     * are set to zero.
+     */
+    private int findBlockEnd( int start ) {
+        double h[] = H.data;
+        int stop = start;
+        while( stop+1 < m ) {
+            double sub = h[(stop+1)*m+stop];
+            if( Math.abs(sub) <= UtilEjml.EPS*(Math.abs(h[stop*m+stop]) + Math.abs(h[(stop+1)*m+stop+1])) ) {
+                h[(stop+1)*m+stop] = 0;
+                break;
+            }
+            stop++;
+        }
+        return stop;
+    }
+
+    /**
+     * Applies a Givens rotation to rows k and k+1 of H starting at column 'col0'
+     */
+    private void rotateRows( double c , double s , int k , int col0 ) {
+        double h[] = H.data;
+        int row0 = k*m, row1 = (k+1)*m;
+        for (int col = col0; col < m; col++) {
+            double a = h[row0+col], b = h[row1+col];
+            h[row0+col] =  c*a + s*b;
+            h[row1+col] = -s*a + c*b;
+        }
+    }
+
+    /**
+     * Applies the transpose of a Givens rotation to columns k and k+1 in rows 0 to numRows-1
+     */
+    private static void rotateColumns( DMatrixRMaj M , double c , double s , int k , int numRows ) {
+        double d[] = M.data;
+        int n = M.numCols;
+        for (int row = 0; row < numRows; row++) {
+            int index = row*n+k;
+            double a = d[index], b = d[index+1];
+            d[index]   =  c*a + s*b;
+            d[index+1] = -s*a + c*b;
+        }
+    }
+
+    /**
+     * Applies a 3 element householder reflector to columns k to k+2 in rows 0 to numRows-1
+     */
+    private static void reflectColumns( DMatrixRMaj M , double u0 , double u1 , double u2 , double gamma ,
+                                        int k , int numRows ) {
+        double d[] = M.data;
+        int n = M.numCols;
+        for (int row = 0; row < numRows; row++) {
+            int index = row*n+k;
+            double t = gamma*(u0*d[index] + u1*d[index+1] + u2*d[index+2]);
+            d[index]   -= t*u0;
+            d[index+1] -= t*u1;
+            d[index+2] -= t*u2;
+        }
+    }
+
+    /**
+     * Computes x = V[0:m]*y, where y is an array with m elements
+     */
+    protected void multBasis( double y[] , double x[] ) {
+        for (int i = 0; i < N; i++) {
+            x[i] = 0;
+        }
+        for (int j = 0; j < m; j++) {
+            double c = y[j];
+            double v[] = V[j].data;
+            for (int i = 0; i < N; i++) {
+                x[i] += c*v[i];
+            }
+        }
+    }
+
+    /**
+     * Declares storage for the found eigenvectors
+     */
+    protected void declareVectors() {
+        if( vectors.length < numEigen ) {
+            DMatrixRMaj tmpV[] = new DMatrixRMaj[numEigen];
+            System.arraycopy(vectors,0,tmpV,0,vectors.length);
+            for (int i = vectors.length; i < numEigen; i++) {
+                tmpV[i] = new DMatrixRMaj(N,1);
+            }
+            vectors = tmpV;
+        }
+        for (int i = 0; i < numEigen; i++) {
+            vectors[i].reshape(N,1);
+        }
+    }
+
+    /**
+     * Sorts the indexes of the Ritz values so that the wanted ones are first
+     */
+    protected void sortRitz() {
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+        for (int i = 1; i < m; i++) {
+            int v = order[i];
+            int j = i-1;
+            while( j >= 0 && isBefore(v,order[j]) ) {
+                order[j+1] = order[j];
+                j--;
+            }
+            order[j+1] = v;
+        }
+    }
+
+    protected static double dot( double a[] , double b[] , int N ) {
+        double sum = 0;
+        for (int i = 0; i < N; i++) {
+            sum += a[i]*b[i];
+        }
+        return sum;
+    }
+
+    protected static double norm( double a[] , int N ) {
+        return Math.sqrt(dot(a,a,N));
+    }
+
+    /**
+     * y = alpha*x
+     */
+    protected static void scale( double alpha , double x[] , double y[] , int N ) {
+        for (int i = 0; i < N; i++) {
+            y[i] = alpha*x[i];
+        }
+    }
+
+    /**
+     * If true then the operator is assumed to be symmetric
+     */
+    protected abstract boolean isSymmetric();
+
+    /**
+     * The smallest basis which can be used to find the specified number of eigenvalues
+     */
+    protected abstract int minimumBasis( int numEigen );
+
+    /**
+     * Declares storage for the Ritz values of a basis with m vectors
+     */
+    protected abstract void declareRitz( int m );
+
+    /**
+     * Computes the Ritz values from H, their error bounds, {@link #normRitz}, and sorts them.
+     *
+     * @return true if successful
+     */
+    protected abstract boolean computeRitz();
+
+    /**
+     * Returns true if Ritz value 'a' is wanted more than 'b'
+     */
+    protected abstract boolean isBefore( int a , int b );
+
+    /**
+     * Adjusts the number of Ritz values which are kept after a restart.
+     */
+    protected abstract int adjustKeep( int numKeep );
+
+    /**
+     * Applies the unwanted Ritz values as shifts to H.  Q is set to the accumulated transform.
+     *
+     * @return Number of non-zero sub-diagonals in Q
+     */
+    protected abstract int applyShifts( int numKeep );
+
+    /**
+     * Computes the eigenvectors of the wanted eigenvalues
+     */
+    protected abstract void computeVectors();
+
+    /**
+     * Returns the number of eigenvalues found.  Same as the number requested.
+     */
+    public int getNumberOfEigenvalues() {
+        return numEigen;
+    }
+
+    /**
+     * Returns the eigenvector of the specified eigenvalue.  The vector has a norm of one.  The returned
+     * matrix is reused.
+     *
+     * @param index Index of the eigenvalue
+     * @return eigenvector or null if the eigenvalue is complex
+     */
+    public DMatrixRMaj getEigenVector( int index ) {
+        if( index < 0 || index >= numEigen )
+            throw new IllegalArgumentException("Index out of bounds");
+        return vectors[index];
+    }
+
+    /**
+     * Estimate of the residual's norm, ||A*x - &lambda;*x||, for the specified eigenpair
+     */
+    public double getErrorBound( int index ) {
+        if( index < 0 || index >= numEigen )
+            throw new IllegalArgumentException("Index out of bounds");
+        return bounds[order[index]];
+    }
+
+    /**
+     * Specifies which eigenvalues are wanted
+     */
+    public void setWhich( Which which ) {
+        this.which = which;
+    }
+
+    public Which getWhich() {
+        return which;
+    }
+
+    /**
+     * Relative tolerance for convergence.  An eigenpair has converged when its residual is less than
+     * tolerance times the largest Ritz value in magnitude.
+     */
+    public void setTolerance( double tolerance ) {
+        this.tolerance = tolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Maximum number of times the factorization is restarted
+     */
+    public void setMaxRestarts( int maxRestarts ) {
+        this.maxRestarts = maxRestarts;
+    }
+
+    public int getMaxRestarts() {
+        return maxRestarts;
+    }
+
+    /**
+     * Number of vectors in the Krylov basis.  A larger basis needs fewer restarts but uses more memory.  If
+     * &le; 0 then it's selected automatically.
+     */
+    public void setBasisSize( int basisSize ) {
+        this.basisSize = basisSize;
+    }
+
+    public int getBasisSize() {
+        return basisSize;
+    }
+
+    /**
+     * Specifies the vector which starts the Krylov subspace.  If null then a random vector is used.
+     */
+    public void setInitialVector( DMatrixRMaj initial ) {
+        this.initial = initial;
+    }
+
+    /**
+     * Number of restarts in the last call to process
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Number of times the operator was applied in the last call to process
+     */
+    public int getNumberOfMultiplications() {
+        return numMult;
+    }
+
+    /**
+     * Number of the wanted eigenpairs which converged in the last call to process
+     */
+    public int getNumberConverged() {
+        return numConverged;
+    }
+
+    /**
+     * True if all the wanted eigenpairs converged in the last call to process
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
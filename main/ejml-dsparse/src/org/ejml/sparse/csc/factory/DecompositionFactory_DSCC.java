@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.factory;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.CholeskyDecomposition_F64;
+import org.ejml.interfaces.decomposition.LUDecomposition_F64;
+import org.ejml.interfaces.decomposition.QRDecomposition;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.ejml.sparse.csc.decomposition.lu.LuLeftLooking_DSCC;
+import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
+
+/**
+ * Contains operations for creating decompositions of sparse matrices.
+ *
+ * @author Peter Abeles
+ */
+public class DecompositionFactory_DSCC {
+
+    /**
+     * Returns a Cholesky decomposition for sparse symmetric positive definite matrices.  Only the upper
+     * triangle of the input matrix is read.
+     */
+    public static CholeskyDecomposition_F64<DMatrixSparseCSC> cholesky() {
+        return new CholeskyUpLooking_DSCC();
+    }
+
+    /**
+     * Returns a LU decomposition with threshold partial pivoting for sparse square matrices.  The decomposition
+     * is of A*Q, where Q is the column ordering.
+     *
+     * @param permutation Which fill reducing column ordering is applied
+     */
+    public static LUDecomposition_F64<DMatrixSparseCSC> lu( FillReducing permutation ) {
+        return new LuLeftLooking_DSCC(FillReductionFactory_DSCC.create(permutation));
+    }
+
+    /**
+     * Returns a Householder QR decomposition for sparse tall matrices.  The decomposition is of A*Q, where Q
+     * is the column ordering.
+     *
+     * @param permutation Which fill reducing column ordering is applied
+     */
+    public static QRDecomposition<DMatrixSparseCSC> qr( FillReducing permutation ) {
+        return new QrLeftLookingDecomposition_DSCC(FillReductionFactory_DSCC.create(permutation));
+    }
+}
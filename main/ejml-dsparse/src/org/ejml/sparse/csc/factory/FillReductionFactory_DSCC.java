@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.factory;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.ComputePermutation;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.misc.ApproximateMinimumDegree_DSCC;
+
+/**
+ * Creates algorithms for computing fill reducing permutations of sparse matrices.
+ *
+ * @author Peter Abeles
+ */
+public class FillReductionFactory_DSCC {
+
+    /**
+     * Returns an algorithm for computing the specified fill reducing permutation.
+     *
+     * @param type Which permutation
+     * @return The algorithm or null if {@link FillReducing#NONE}
+     */
+    public static ComputePermutation<DMatrixSparseCSC> create( FillReducing type ) {
+        switch( type ) {
+            case NONE:
+                return null;
+
+            case AMD:
+                return new ComputePermutation<DMatrixSparseCSC>(true,true) {
+                    ApproximateMinimumDegree_DSCC amd = new ApproximateMinimumDegree_DSCC();
+                    @Override
+                    public void process(DMatrixSparseCSC m) {
+                        if( prow == null || prow.length != m.numCols )
+                            prow = new int[m.numCols];
+                        amd.orderSymmetric(m,prow);
+                        pcol = prow;
+                    }
+                };
+
+            case COLAMD:
+                return new ComputePermutation<DMatrixSparseCSC>(false,true) {
+                    ApproximateMinimumDegree_DSCC amd = new ApproximateMinimumDegree_DSCC();
+                    @Override
+                    public void process(DMatrixSparseCSC m) {
+                        if( pcol == null || pcol.length != m.numCols )
+                            pcol = new int[m.numCols];
+                        amd.orderColumns(m,pcol);
+                    }
+                };
+
+            default:
+                throw new IllegalArgumentException("Unknown type "+type);
+        }
+    }
+}
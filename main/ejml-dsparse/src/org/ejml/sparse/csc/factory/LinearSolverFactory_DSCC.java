@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.factory;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.sparse.ComputePermutation;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.ejml.sparse.csc.decomposition.lu.LuLeftLooking_DSCC;
+import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
+import org.ejml.sparse.csc.linsol.chol.LinearSolverCholesky_DSCC;
+import org.ejml.sparse.csc.linsol.lu.LinearSolverLu_DSCC;
+import org.ejml.sparse.csc.linsol.qr.LinearSolverQrLeftLooking_DSCC;
+
+/**
+ * A factory for generating solvers for sparse systems of the form A*x=b, where A and B are known and x is unknown.
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverFactory_DSCC {
+
+    /**
+     * Creates a solver for symmetric positive definite matrices using sparse Cholesky decomposition.  An
+     * {@link FillReducing#AMD} ordering is used.
+     *
+     * @return A new solver for symmetric positive definite matrices.
+     */
+    public static LinearSolver<DMatrixSparseCSC> cholesky() {
+        return cholesky(FillReducing.AMD);
+    }
+
+    /**
+     * Creates a solver for symmetric positive definite matrices using sparse Cholesky decomposition.
+     *
+     * @param permutation Which fill reducing permutation is applied
+     * @return A new solver for symmetric positive definite matrices.
+     */
+    public static LinearSolver<DMatrixSparseCSC> cholesky( FillReducing permutation ) {
+        ComputePermutation<DMatrixSparseCSC> reduce = FillReductionFactory_DSCC.create(permutation);
+        return new LinearSolverCholesky_DSCC(new CholeskyUpLooking_DSCC(),reduce);
+    }
+
+    /**
+     * Creates a solver for general square matrices using sparse LU decomposition with threshold partial
+     * pivoting.  A {@link FillReducing#COLAMD} column ordering is used.
+     *
+     * @return A new solver for square matrices.
+     */
+    public static LinearSolver<DMatrixSparseCSC> lu() {
+        return lu(FillReducing.COLAMD);
+    }
+
+    /**
+     * Creates a solver for general square matrices using sparse LU decomposition with threshold partial
+     * pivoting.
+     *
+     * @param permutation Which fill reducing column ordering is applied
+     * @return A new solver for square matrices.
+     */
+    public static LinearSolver<DMatrixSparseCSC> lu( FillReducing permutation ) {
+        ComputePermutation<DMatrixSparseCSC> reduce = FillReductionFactory_DSCC.create(permutation);
+        return new LinearSolverLu_DSCC(new LuLeftLooking_DSCC(reduce));
+    }
+
+    /**
+     * Creates a least-squares solver for tall matrices using sparse Householder QR decomposition.  A
+     * {@link FillReducing#COLAMD} column ordering is used and the Householder reflectors are saved.
+     *
+     * @return A new least-squares solver.
+     */
+    public static LinearSolver<DMatrixSparseCSC> qr() {
+        return qr(FillReducing.COLAMD,false);
+    }
+
+    /**
+     * Creates a least-squares solver for tall matrices using sparse Householder QR decomposition.
+     *
+     * @param permutation Which fill reducing column ordering is applied
+     * @param qless If true then only R is saved and the corrected semi-normal equations are used to solve.  Uses
+     *              less memory when there are many more rows than columns.
+     * @return A new least-squares solver.
+     */
+    public static LinearSolver<DMatrixSparseCSC> qr( FillReducing permutation , boolean qless ) {
+        ComputePermutation<DMatrixSparseCSC> reduce = FillReductionFactory_DSCC.create(permutation);
+        return new LinearSolverQrLeftLooking_DSCC(new QrLeftLookingDecomposition_DSCC(reduce,!qless));
+    }
+}
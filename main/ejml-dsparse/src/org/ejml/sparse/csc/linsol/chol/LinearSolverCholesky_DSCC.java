@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.chol;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.sparse.ComputePermutation;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Linear solver for sparse symmetric positive definite matrices using {@link CholeskyUpLooking_DSCC}.
+ * The solution is found by solving L*y = b then L<sup>T</sup>*x = y for each column in B.
+ * </p>
+ *
+ * <p>
+ * If a fill reducing permutation is provided then P*A*P<sup>T</sup> is decomposed instead of A.  The
+ * permutation is applied to B and removed from X internally.
+ * </p>
+ *
+ * <p>
+ * When the same system is solved many times with different values but the same sparsity pattern,
+ * call {@link #setStructureLocked(boolean)} so that the symbolic decomposition is only done once.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverCholesky_DSCC implements LinearSolver<DMatrixSparseCSC> {
+
+    CholeskyUpLooking_DSCC cholesky;
+
+    // computes the fill reducing permutation.  null if there is none
+    ComputePermutation<DMatrixSparseCSC> reduce;
+    // the permutation and its inverse
+    int perm[];
+    int permInv[] = new int[0];
+    // storage for the permuted A
+    DMatrixSparseCSC tmp = new DMatrixSparseCSC(1,1,0);
+
+    // storage for a dense column
+    double x[] = new double[0];
+    double xp[] = new double[0];
+
+    /**
+     * @param cholesky Cholesky decomposition
+     * @param reduce Computes the fill reducing permutation.  If null then no permutation is applied.
+     */
+    public LinearSolverCholesky_DSCC(CholeskyUpLooking_DSCC cholesky,
+                                     ComputePermutation<DMatrixSparseCSC> reduce) {
+        this.cholesky = cholesky;
+        this.reduce = reduce;
+    }
+
+    public LinearSolverCholesky_DSCC(CholeskyUpLooking_DSCC cholesky) {
+        this(cholesky,null);
+    }
+
+    public LinearSolverCholesky_DSCC() {
+        this(new CholeskyUpLooking_DSCC());
+    }
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("Matrix must be square");
+
+        if( x.length < A.numRows ) {
+            x = new double[A.numRows];
+            xp = new double[A.numRows];
+        }
+
+        if( reduce == null )
+            return cholesky.decompose(A);
+
+        // the permutation only depends on the structure so it can be reused when the structure is locked
+        if( !cholesky.isStructureLocked() || perm == null || perm.length != A.numCols ) {
+            reduce.process(A);
+            perm = reduce.getRow();
+            if( permInv.length != perm.length )
+                permInv = new int[perm.length];
+            CommonOps_DSCC.permutationInverse(perm,permInv);
+        }
+        CommonOps_DSCC.permuteSymmetric(A,permInv,tmp,null);
+        return cholesky.decompose(tmp);
+    }
+
+    @Override
+    public double quality() {
+        DMatrixSparseCSC L = cholesky.getL();
+        int N = L.numCols;
+
+        double max = 0;
+        for (int i = 0; i < N; i++) {
+            max = Math.max(max, Math.abs(L.nz_values[L.col_idx[i]]));
+        }
+        if( max == 0 )
+            return 0;
+
+        double quality = 1;
+        for (int i = 0; i < N; i++) {
+            quality *= L.nz_values[L.col_idx[i]]/max;
+        }
+        return Math.abs(quality);
+    }
+
+    /**
+     * Solves for X in A*X = B.  The solution is found one column at a time and only the non-zero
+     * elements are saved in X.
+     *
+     * @param B A sparse matrix that is n by m.  Not modified.
+     * @param X A sparse n by m matrix where the solution is written to.  Modified.
+     */
+    @Override
+    public void solve(DMatrixSparseCSC B, DMatrixSparseCSC X) {
+        DMatrixSparseCSC L = cholesky.getL();
+        int N = L.numCols;
+        if( B.numRows != N )
+            throw new IllegalArgumentException("Unexpected number of rows in B");
+
+        X.reshape(N,B.numCols,0);
+        X.col_idx[0] = 0;
+        X.nz_length = 0;
+
+        for (int col = 0; col < B.numCols; col++) {
+            Arrays.fill(x,0,N,0);
+            int idx0 = B.col_idx[col], idx1 = B.col_idx[col+1];
+            for (int p = idx0; p < idx1; p++) {
+                x[B.nz_rows[p]] = B.nz_values[p];
+            }
+
+            solveColumn(L);
+
+            int nz_count = 0;
+            for (int i = 0; i < N; i++) {
+                if( x[i] != 0 )
+                    nz_count++;
+            }
+            if( X.nz_values.length < X.nz_length + nz_count ) {
+                X.growMaxLength(X.nz_length*2 + nz_count,true);
+            }
+            for (int i = 0; i < N; i++) {
+                if( x[i] != 0 ) {
+                    X.nz_rows[X.nz_length] = i;
+                    X.nz_values[X.nz_length++] = x[i];
+                }
+            }
+            X.col_idx[col+1] = X.nz_length;
+        }
+        X.indicesSorted = true;
+    }
+
+    /**
+     * Solves for X in A*X = B where B and X are dense matrices.  B and X can be the same instance.
+     *
+     * @param B A dense matrix that is n by m.  Not modified.
+     * @param X A dense n by m matrix where the solution is written to.  Modified.
+     */
+    public void solve(DMatrixRMaj B, DMatrixRMaj X) {
+        DMatrixSparseCSC L = cholesky.getL();
+        int N = L.numCols;
+        if( B.numRows != N || X.numRows != N || B.numCols != X.numCols )
+            throw new IllegalArgumentException("Unexpected matrix size");
+
+        int numCols = B.numCols;
+        for (int col = 0; col < numCols; col++) {
+            for (int i = 0; i < N; i++) {
+                x[i] = B.data[i*numCols+col];
+            }
+            solveColumn(L);
+            for (int i = 0; i < N; i++) {
+                X.data[i*numCols+col] = x[i];
+            }
+        }
+    }
+
+    private void solveColumn( DMatrixSparseCSC L ) {
+        if( reduce == null ) {
+            TriangularSolver_DSCC.solveL(L,x);
+            TriangularSolver_DSCC.solveTranL(L,x);
+        } else {
+            int N = L.numCols;
+            for (int i = 0; i < N; i++) {
+                xp[i] = x[perm[i]];
+            }
+            TriangularSolver_DSCC.solveL(L,xp);
+            TriangularSolver_DSCC.solveTranL(L,xp);
+            for (int i = 0; i < N; i++) {
+                x[perm[i]] = xp[i];
+            }
+        }
+    }
+
+    @Override
+    public void invert(DMatrixSparseCSC A_inv) {
+        solve(CommonOps_DSCC.identity(cholesky.getL().numCols),A_inv);
+    }
+
+    /**
+     * If true then the symbolic decomposition is only computed the first time setA() is called.  All
+     * subsequent matrices must have the same sparsity pattern.
+     */
+    public void setStructureLocked( boolean locked ) {
+        cholesky.setStructureLocked(locked);
+    }
+
+    public boolean isStructureLocked() {
+        return cholesky.isStructureLocked();
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return cholesky.inputModified();
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    @Override
+    public <D extends DecompositionInterface> D getDecomposition() {
+        return (D)cholesky;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Biconjugate gradient stabilized method (BiCGSTAB) for general square matrices.  The preconditioner is applied
+ * on the right, so the residual being minimized is the residual of the original system.  Each iteration requires
+ * two multiplications by A and two applications of the preconditioner.
+ * </p>
+ *
+ * <p>
+ * Fails if the method breaks down, which happens when the shadow residual becomes orthogonal to the residual.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class IterativeSolverBiCGStab_F64 extends IterativeSolver_F64 {
+
+    DMatrixRMaj r = new DMatrixRMaj(1,1);
+    // shadow residual
+    DMatrixRMaj rhat = new DMatrixRMaj(1,1);
+    DMatrixRMaj p = new DMatrixRMaj(1,1);
+    DMatrixRMaj phat = new DMatrixRMaj(1,1);
+    DMatrixRMaj v = new DMatrixRMaj(1,1);
+    DMatrixRMaj s = new DMatrixRMaj(1,1);
+    DMatrixRMaj shat = new DMatrixRMaj(1,1);
+    DMatrixRMaj t = new DMatrixRMaj(1,1);
+
+    @Override
+    public boolean solve(LinearOperator_F64 A, DMatrixRMaj b, DMatrixRMaj x) {
+        final int max = initialize(A,b,x);
+        final int N = A.getNumCols();
+        if( normB == 0 ) {
+            x.zero();
+            return update(0);
+        }
+
+        r.reshape(N,1);
+        rhat.reshape(N,1);
+        p.reshape(N,1);
+        phat.reshape(N,1);
+        v.reshape(N,1);
+        s.reshape(N,1);
+        shat.reshape(N,1);
+        t.reshape(N,1);
+
+        residual(A,b,x,r);
+        if( update(norm(r.data,N)) )
+            return true;
+        System.arraycopy(r.data,0,rhat.data,0,N);
+
+        double rho = 1, alpha = 1, omega = 1;
+
+        while( iterations < max ) {
+            double rhoNew = dot(rhat.data,r.data,N);
+            if( rhoNew == 0 )
+                break;
+
+            if( iterations == 0 ) {
+                System.arraycopy(r.data,0,p.data,0,N);
+            } else {
+                double beta = (rhoNew/rho)*(alpha/omega);
+                for (int i = 0; i < N; i++) {
+                    p.data[i] = r.data[i] + beta*(p.data[i] - omega*v.data[i]);
+                }
+            }
+            rho = rhoNew;
+
+            precondition(p,phat);
+            A.mult(phat,v);
+            double rv = dot(rhat.data,v.data,N);
+            if( rv == 0 )
+                break;
+            alpha = rho/rv;
+
+            for (int i = 0; i < N; i++) {
+                s.data[i] = r.data[i] - alpha*v.data[i];
+            }
+
+            iterations++;
+            double normS = norm(s.data,N);
+            if( normS <= tolerance*normB ) {
+                addEquals(x.data,alpha,phat.data,N);
+                update(normS);
+                break;
+            }
+
+            precondition(s,shat);
+            A.mult(shat,t);
+            double tt = dot(t.data,t.data,N);
+            omega = tt == 0 ? 0 : dot(t.data,s.data,N)/tt;
+
+            for (int i = 0; i < N; i++) {
+                x.data[i] += alpha*phat.data[i] + omega*shat.data[i];
+                r.data[i] = s.data[i] - omega*t.data[i];
+            }
+
+            if( update(norm(r.data,N)) || omega == 0 )
+                break;
+        }
+
+        return converged;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Preconditioned conjugate gradient.  A and the preconditioner must be symmetric positive definite.  If no
+ * preconditioner is specified then it's the standard conjugate gradient method.  One multiplication by A
+ * and one application of the preconditioner are done each iteration.
+ * </p>
+ *
+ * <p>
+ * Stops early and fails if a search direction with non-positive curvature is found, which means A isn't
+ * positive definite.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class IterativeSolverCG_F64 extends IterativeSolver_F64 {
+
+    // residual
+    DMatrixRMaj r = new DMatrixRMaj(1,1);
+    // preconditioned residual
+    DMatrixRMaj z = new DMatrixRMaj(1,1);
+    // search direction
+    DMatrixRMaj p = new DMatrixRMaj(1,1);
+    // A*p
+    DMatrixRMaj q = new DMatrixRMaj(1,1);
+
+    @Override
+    public boolean solve(LinearOperator_F64 A, DMatrixRMaj b, DMatrixRMaj x) {
+        final int max = initialize(A,b,x);
+        final int N = A.getNumCols();
+        if( normB == 0 ) {
+            x.zero();
+            return update(0);
+        }
+
+        r.reshape(N,1);
+        z.reshape(N,1);
+        p.reshape(N,1);
+        q.reshape(N,1);
+
+        residual(A,b,x,r);
+        if( update(norm(r.data,N)) )
+            return true;
+
+        precondition(r,z);
+        System.arraycopy(z.data,0,p.data,0,N);
+        double rz = dot(r.data,z.data,N);
+
+        while( iterations < max ) {
+            A.mult(p,q);
+            double pq = dot(p.data,q.data,N);
+            if( !(pq > 0) )
+                break;
+
+            double alpha = rz/pq;
+            addEquals(x.data,alpha,p.data,N);
+            addEquals(r.data,-alpha,q.data,N);
+
+            iterations++;
+            if( update(norm(r.data,N)) )
+                break;
+
+            precondition(r,z);
+            double rzNew = dot(r.data,z.data,N);
+            double beta = rzNew/rz;
+            rz = rzNew;
+            for (int i = 0; i < N; i++) {
+                p.data[i] = z.data[i] + beta*p.data[i];
+            }
+        }
+
+        return converged;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Restarted generalized minimal residual method, GMRES(m), for general square matrices.  An orthonormal basis
+ * of the Krylov subspace is built with modified Gram-Schmidt and the least-squares problem is updated with
+ * Givens rotations, so the residual norm is known each iteration without computing x.  After m iterations
+ * x is updated and the method restarts.  The preconditioner is applied on the right.
+ * </p>
+ *
+ * <p>
+ * Memory is dominated by the basis, which is (m+1) vectors.  Larger values of m converge in fewer iterations
+ * but use more memory and make each iteration more expensive.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class IterativeSolverGmres_F64 extends IterativeSolver_F64 {
+
+    // number of iterations before restarting
+    int restart;
+
+    // orthonormal basis of the Krylov subspace
+    DMatrixRMaj V[];
+    DMatrixRMaj w = new DMatrixRMaj(1,1);
+    DMatrixRMaj z = new DMatrixRMaj(1,1);
+
+    // upper Hessenberg matrix.  (m+1) x m
+    double H[];
+    // Givens rotations
+    double cs[],sn[];
+    // right hand side of the least-squares problem and its solution
+    double g[],y[];
+
+    /**
+     * @param restart Number of iterations before restarting. Try 30
+     */
+    public IterativeSolverGmres_F64( int restart ) {
+        if( restart <= 0 )
+            throw new IllegalArgumentException("restart must be positive");
+        this.restart = restart;
+
+        V = new DMatrixRMaj[restart+1];
+        for (int i = 0; i < V.length; i++) {
+            V[i] = new DMatrixRMaj(1,1);
+        }
+        H = new double[(restart+1)*restart];
+        cs = new double[restart];
+        sn = new double[restart];
+        g = new double[restart+1];
+        y = new double[restart];
+    }
+
+    public IterativeSolverGmres_F64() {
+        this(30);
+    }
+
+    @Override
+    public boolean solve(LinearOperator_F64 A, DMatrixRMaj b, DMatrixRMaj x) {
+        final int max = initialize(A,b,x);
+        final int N = A.getNumCols();
+        final int m = restart;
+        if( normB == 0 ) {
+            x.zero();
+            return update(0);
+        }
+
+        for (int i = 0; i < V.length; i++) {
+            V[i].reshape(N,1);
+        }
+        w.reshape(N,1);
+        z.reshape(N,1);
+
+        residual(A,b,x,w);
+        double beta = norm(w.data,N);
+
+        while( !update(beta) && iterations < max ) {
+            for (int i = 0; i < N; i++) {
+                V[0].data[i] = w.data[i]/beta;
+            }
+            g[0] = beta;
+
+            int j = 0;
+            while( j < m && iterations < max ) {
+                precondition(V[j],z);
+                A.mult(z,w);
+
+                // orthogonalize against the basis
+                for (int i = 0; i <= j; i++) {
+                    double h = dot(w.data,V[i].data,N);
+                    H[i*m+j] = h;
+                    addEquals(w.data,-h,V[i].data,N);
+                }
+                double h1 = norm(w.data,N);
+                H[(j+1)*m+j] = h1;
+                if( h1 != 0 ) {
+                    for (int i = 0; i < N; i++) {
+                        V[j+1].data[i] = w.data[i]/h1;
+                    }
+                }
+
+                // apply previous rotations to the new column
+                for (int i = 0; i < j; i++) {
+                    double a = H[i*m+j], c = H[(i+1)*m+j];
+                    H[i*m+j]     =  cs[i]*a + sn[i]*c;
+                    H[(i+1)*m+j] = -sn[i]*a + cs[i]*c;
+                }
+
+                // rotation which eliminates the sub-diagonal element
+                double a = H[j*m+j];
+                double rr = Math.sqrt(a*a + h1*h1);
+                if( rr == 0 )
+                    break;
+                cs[j] = a/rr;
+                sn[j] = h1/rr;
+                H[j*m+j] = rr;
+                H[(j+1)*m+j] = 0;
+                g[j+1] = -sn[j]*g[j];
+                g[j]   =  cs[j]*g[j];
+
+                j++;
+                iterations++;
+                if( update(Math.abs(g[j])) || h1 == 0 )
+                    break;
+            }
+
+            if( j == 0 )
+                break;
+
+            // solve the triangular system for the coefficients of the basis
+            for (int i = j-1; i >= 0; i--) {
+                double sum = g[i];
+                for (int k = i+1; k < j; k++) {
+                    sum -= H[i*m+k]*y[k];
+                }
+                y[i] = sum/H[i*m+i];
+            }
+
+            // x = x + M^-1 * V*y
+            w.zero();
+            for (int i = 0; i < j; i++) {
+                addEquals(w.data,y[i],V[i].data,N);
+            }
+            precondition(w,z);
+            addEquals(x.data,1.0,z.data,N);
+
+            // use the actual residual to decide if it has converged and to restart
+            residual(A,b,x,w);
+            beta = norm(w.data,N);
+        }
+
+        return converged;
+    }
+
+    public int getRestart() {
+        return restart;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Base class for iterative solvers of A*x = b, where A is a square matrix provided by a
+ * {@link LinearOperator_F64}.  The solution passed in is used as the initial estimate.  Iterations stop
+ * when ||b - A*x|| &le; tolerance*||b|| or the maximum number of iterations has been reached.
+ * </p>
+ *
+ * <p>
+ * After each solve the number of iterations and the history of the residual norm are available.  Work vectors
+ * and the residual history are saved and only declared again when a larger system is solved.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class IterativeSolver_F64 {
+
+    // relative tolerance for the residual
+    protected double tolerance = 1e-8;
+    // maximum number of iterations.  if &le; 0 then the number of unknowns is used
+    protected int maxIterations = -1;
+
+    // optional preconditioner.  If null then the identity is used
+    protected Preconditioner_F64 preconditioner;
+
+    // number of iterations in the last solve
+    protected int iterations;
+    // was the tolerance reached in the last solve
+    protected boolean converged;
+    // norm of the residual after each iteration.  element 0 is the initial residual
+    protected double residualHistory[] = new double[0];
+    protected double normB;
+
+    /**
+     * Solves for x in A*x = b
+     *
+     * @param A Square matrix. Not modified.
+     * @param b Column vector. Not modified.
+     * @param x (Input) initial estimate of the solution. (Output) the solution.  Can't be the same instance as b.
+     * @return true if the tolerance was reached
+     */
+    public abstract boolean solve( LinearOperator_F64 A , DMatrixRMaj b , DMatrixRMaj x );
+
+    /**
+     * Initializes the telemetry for a new solve and checks the shape of the input
+     *
+     * @return maximum number of iterations
+     */
+    protected int initialize( LinearOperator_F64 A , DMatrixRMaj b , DMatrixRMaj x ) {
+        int N = A.getNumCols();
+        if( A.getNumRows() != N )
+            throw new IllegalArgumentException("A must be square");
+        if( b.getNumElements() != N || x.getNumElements() != N )
+            throw new IllegalArgumentException("b and x must be vectors with "+N+" elements");
+        if( b == x )
+            throw new IllegalArgumentException("b and x can't be the same instance");
+
+        int max = maxIterations > 0 ? maxIterations : N;
+        if( residualHistory.length < max+1 )
+            residualHistory = new double[max+1];
+
+        iterations = 0;
+        converged = false;
+        normB = norm(b.data,N);
+        return max;
+    }
+
+    /**
+     * Saves the current residual and checks for convergence
+     *
+     * @return true if converged
+     */
+    protected boolean update( double residual ) {
+        residualHistory[iterations] = residual;
+        converged = residual <= tolerance*normB;
+        return converged;
+    }
+
+    /**
+     * z = M<sup>-1</sup>*r or a copy of r if there is no preconditioner
+     */
+    protected void precondition( DMatrixRMaj r , DMatrixRMaj z ) {
+        if( preconditioner == null )
+            System.arraycopy(r.data,0,z.data,0,r.numRows);
+        else
+            preconditioner.apply(r,z);
+    }
+
+    /**
+     * r = b - A*x.  A*x is written into r then subtracted from b.
+     */
+    protected static void residual( LinearOperator_F64 A , DMatrixRMaj b , DMatrixRMaj x , DMatrixRMaj r ) {
+        A.mult(x,r);
+        for (int i = 0; i < r.numRows; i++) {
+            r.data[i] = b.data[i] - r.data[i];
+        }
+    }
+
+    protected static double dot( double a[] , double b[] , int N ) {
+        double sum = 0;
+        for (int i = 0; i < N; i++) {
+            sum += a[i]*b[i];
+        }
+        return sum;
+    }
+
+    protected static double norm( double a[] , int N ) {
+        return Math.sqrt(dot(a,a,N));
+    }
+
+    /**
+     * y = y + alpha*x
+     */
+    protected static void addEquals( double y[] , double alpha , double x[] , int N ) {
+        for (int i = 0; i < N; i++) {
+            y[i] += alpha*x[i];
+        }
+    }
+
+    /**
+     * Relative tolerance for the norm of the residual.  Converged when ||b - A*x|| &le; tolerance*||b||
+     */
+    public void setTolerance( double tolerance ) {
+        this.tolerance = tolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Maximum number of iterations.  If &le; 0 then the number of unknowns is used.
+     */
+    public void setMaxIterations( int maxIterations ) {
+        this.maxIterations = maxIterations;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Specifies the preconditioner.  If null then no preconditioner is used.
+     */
+    public void setPreconditioner( Preconditioner_F64 preconditioner ) {
+        this.preconditioner = preconditioner;
+    }
+
+    public Preconditioner_F64 getPreconditioner() {
+        return preconditioner;
+    }
+
+    /**
+     * Number of iterations performed in the last call to solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * True if the last call to solve reached the tolerance
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Norm of the residual at the end of the last solve
+     */
+    public double getResidualNorm() {
+        return residualHistory[iterations];
+    }
+
+    /**
+     * Norm of the residual after each iteration in the last solve.  Element 0 is the initial residual and the
+     * array is only valid up to and including index {@link #getIterations()}.  The array is reused.
+     */
+    public double[] getResidualHistory() {
+        return residualHistory;
+    }
+}
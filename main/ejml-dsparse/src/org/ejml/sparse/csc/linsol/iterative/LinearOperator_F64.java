@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * A linear operator which computes y = A*x, where A is a square matrix.  The matrix does not need to be stored
+ * explicitly, which allows iterative solvers to be used on matrix-free problems.  See {@link SparseOperator_DSCC}
+ * for an operator which wraps a sparse matrix.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface LinearOperator_F64 {
+
+    /**
+     * Computes y = A*x
+     *
+     * @param x Column vector with {@link #getNumCols()} elements. Not modified.
+     * @param y Column vector with {@link #getNumRows()} elements. Modified.  Will not be the same instance as x.
+     */
+    void mult( DMatrixRMaj x , DMatrixRMaj y );
+
+    /**
+     * Number of rows in the matrix A
+     */
+    int getNumRows();
+
+    /**
+     * Number of columns in the matrix A
+     */
+    int getNumCols();
+}
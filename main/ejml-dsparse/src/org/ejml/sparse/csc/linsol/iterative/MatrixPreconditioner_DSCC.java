@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixSparseCSC;
+
+/**
+ * Preconditioner which is computed from a sparse matrix.
+ *
+ * @author Peter Abeles
+ */
+public interface MatrixPreconditioner_DSCC extends Preconditioner_F64 {
+
+    /**
+     * Computes the preconditioner from the matrix A.  A is not modified but a reference might be saved.
+     *
+     * @param A Square matrix
+     * @return true if successful or false if the preconditioner can't be computed for this matrix
+     */
+    boolean setA( DMatrixSparseCSC A );
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Incomplete LU preconditioner with zero fill in, ILU(0).  A &asymp; L*U where L is unit lower triangular,
+ * U is upper triangular, and L+U has the same sparsity pattern as A.  Both are stored in a single matrix with
+ * the same structure as A.  Elements above and including the diagonal are from U and below it are from L.
+ * </p>
+ *
+ * <p>
+ * Left looking algorithm.  Each column is computed by a sparse triangular solve against the already computed
+ * columns of L, where fill in outside the pattern of A is discarded.  Fails if the diagonal of A is missing or
+ * a pivot is zero.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PreconditionerIlu_DSCC implements MatrixPreconditioner_DSCC {
+
+    // L and U stored in the same matrix
+    DMatrixSparseCSC LU = new DMatrixSparseCSC(1,1,0);
+    // index of the diagonal element in each column
+    int diag[] = new int[0];
+
+    // work space
+    double x[] = new double[0];
+    int mark[] = new int[0];
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("A must be square");
+
+        final int N = A.numCols;
+        LU.set(A);
+        if( !LU.indicesSorted )
+            LU.sortIndices(null);
+
+        if( x.length < N ) {
+            x = new double[N];
+            mark = new int[N];
+            diag = new int[N];
+        }
+        Arrays.fill(mark,0,N,-1);
+
+        for (int j = 0; j < N; j++) {
+            int idx0 = LU.col_idx[j], idx1 = LU.col_idx[j+1];
+
+            // scatter column j and mark the pattern
+            diag[j] = -1;
+            for (int p = idx0; p < idx1; p++) {
+                int row = LU.nz_rows[p];
+                x[row] = LU.nz_values[p];
+                mark[row] = j;
+                if( row == j )
+                    diag[j] = p;
+            }
+            if( diag[j] < 0 )
+                return false;
+
+            // rows are sorted so each U(k,j) is final when it's reached
+            for (int p = idx0; p < diag[j]; p++) {
+                int k = LU.nz_rows[p];
+                double u_kj = x[k];
+                int end = LU.col_idx[k+1];
+                for (int q = diag[k]+1; q < end; q++) {
+                    int row = LU.nz_rows[q];
+                    if( mark[row] == j )
+                        x[row] -= LU.nz_values[q]*u_kj;
+                }
+            }
+
+            double pivot = x[j];
+            if( pivot == 0 )
+                return false;
+
+            for (int p = idx0; p <= diag[j]; p++) {
+                LU.nz_values[p] = x[LU.nz_rows[p]];
+            }
+            for (int p = diag[j]+1; p < idx1; p++) {
+                LU.nz_values[p] = x[LU.nz_rows[p]]/pivot;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void apply(DMatrixRMaj r, DMatrixRMaj z) {
+        final int N = LU.numCols;
+        z.reshape(N,1);
+        double y[] = z.data;
+        System.arraycopy(r.data,0,y,0,N);
+
+        // solve L*y = r.  L has a unit diagonal
+        for (int col = 0; col < N; col++) {
+            double y_j = y[col];
+            int idx1 = LU.col_idx[col+1];
+            for (int i = diag[col]+1; i < idx1; i++) {
+                y[LU.nz_rows[i]] -= LU.nz_values[i]*y_j;
+            }
+        }
+
+        // solve U*z = y
+        for (int col = N-1; col >= 0; col--) {
+            double z_j = y[col] /= LU.nz_values[diag[col]];
+            int idx0 = LU.col_idx[col];
+            for (int i = idx0; i < diag[col]; i++) {
+                y[LU.nz_rows[i]] -= LU.nz_values[i]*z_j;
+            }
+        }
+    }
+
+    /**
+     * Returns the matrix containing both L and U
+     */
+    public DMatrixSparseCSC getLU() {
+        return LU;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Incomplete Cholesky preconditioner with zero fill in, IC(0).  A &asymp; L*L<sup>T</sup> where L has the same
+ * sparsity pattern as the lower triangle of A.  Only the lower triangle of A is read.
+ * </p>
+ *
+ * <p>
+ * Left looking algorithm.  For each column in L a linked list keeps track of the next row which needs to be
+ * processed, which provides the row structure of L without computing its transpose.  Fails if a diagonal
+ * element is not positive.  This can happen for symmetric positive definite matrices which are not
+ * diagonally dominant.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PreconditionerIncompleteCholesky_DSCC implements MatrixPreconditioner_DSCC {
+
+    // the incomplete factor.  diagonal is the first element in each column
+    DMatrixSparseCSC L = new DMatrixSparseCSC(1,1,0);
+
+    // work space
+    double x[] = new double[0];
+    int mark[] = new int[0];
+    // head of the list of columns which have an element in the row
+    int head[] = new int[0];
+    // next column in the list
+    int next[] = new int[0];
+    // index of the next element in each column of L which hasn't been used yet
+    int ptr[] = new int[0];
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("A must be square");
+
+        final int N = A.numCols;
+        extractLower(A);
+        declareWork(N);
+
+        Arrays.fill(mark,0,N,-1);
+        Arrays.fill(head,0,N,-1);
+
+        for (int j = 0; j < N; j++) {
+            int idx0 = L.col_idx[j], idx1 = L.col_idx[j+1];
+            if( idx0 == idx1 || L.nz_rows[idx0] != j )
+                return false;
+
+            // scatter column j and mark the pattern
+            for (int p = idx0; p < idx1; p++) {
+                int row = L.nz_rows[p];
+                x[row] = L.nz_values[p];
+                mark[row] = j;
+            }
+
+            // subtract the contribution from every column k < j with L(j,k) != 0
+            int k = head[j];
+            while( k != -1 ) {
+                int nextK = next[k];
+                int p = ptr[k];
+                int end = L.col_idx[k+1];
+                double l_jk = L.nz_values[p];
+                for (int q = p; q < end; q++) {
+                    int row = L.nz_rows[q];
+                    if( mark[row] == j )
+                        x[row] -= L.nz_values[q]*l_jk;
+                }
+                addToList(k,p+1,end);
+                k = nextK;
+            }
+
+            double d = x[j];
+            if( !(d > 0) )
+                return false;
+            d = Math.sqrt(d);
+            L.nz_values[idx0] = d;
+            for (int p = idx0+1; p < idx1; p++) {
+                L.nz_values[p] = x[L.nz_rows[p]]/d;
+            }
+            addToList(j,idx0+1,idx1);
+        }
+        return true;
+    }
+
+    /**
+     * Moves column k to the list of the row at index p
+     */
+    private void addToList( int k , int p , int end ) {
+        ptr[k] = p;
+        if( p < end ) {
+            int row = L.nz_rows[p];
+            next[k] = head[row];
+            head[row] = k;
+        }
+    }
+
+    /**
+     * Copies the lower triangle of A into L with rows sorted
+     */
+    private void extractLower( DMatrixSparseCSC A ) {
+        final int N = A.numCols;
+        L.reshape(N,N,A.nz_length);
+        L.nz_length = 0;
+        for (int col = 0; col < N; col++) {
+            L.col_idx[col] = L.nz_length;
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1];
+            for (int i = idx0; i < idx1; i++) {
+                int row = A.nz_rows[i];
+                if( row >= col ) {
+                    L.nz_rows[L.nz_length] = row;
+                    L.nz_values[L.nz_length++] = A.nz_values[i];
+                }
+            }
+        }
+        L.col_idx[N] = L.nz_length;
+        if( A.indicesSorted )
+            L.indicesSorted = true;
+        else
+            L.sortIndices(null);
+    }
+
+    private void declareWork( int N ) {
+        if( x.length < N ) {
+            x = new double[N];
+            mark = new int[N];
+            head = new int[N];
+            next = new int[N];
+            ptr = new int[N];
+        }
+    }
+
+    @Override
+    public void apply(DMatrixRMaj r, DMatrixRMaj z) {
+        final int N = L.numCols;
+        z.reshape(N,1);
+        System.arraycopy(r.data,0,z.data,0,N);
+        TriangularSolver_DSCC.solveL(L,z.data);
+        TriangularSolver_DSCC.solveTranL(L,z.data);
+    }
+
+    /**
+     * Returns the incomplete factor L
+     */
+    public DMatrixSparseCSC getL() {
+        return L;
+    }
+}
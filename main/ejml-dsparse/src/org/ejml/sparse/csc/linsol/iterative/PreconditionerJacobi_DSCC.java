@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+
+/**
+ * <p>
+ * Jacobi preconditioner.  M = diag(A).  Very cheap to compute and apply, and effective when A is diagonally
+ * dominant or the rows have very different scales.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PreconditionerJacobi_DSCC implements MatrixPreconditioner_DSCC {
+
+    // inverse of the diagonal elements
+    double invDiag[] = new double[0];
+    int N;
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("A must be square");
+
+        N = A.numCols;
+        if( invDiag.length < N )
+            invDiag = new double[N];
+
+        for (int col = 0; col < N; col++) {
+            double d = 0;
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1];
+            for (int i = idx0; i < idx1; i++) {
+                if( A.nz_rows[i] == col ) {
+                    d = A.nz_values[i];
+                    break;
+                }
+            }
+            if( d == 0 )
+                return false;
+            invDiag[col] = 1.0/d;
+        }
+        return true;
+    }
+
+    @Override
+    public void apply(DMatrixRMaj r, DMatrixRMaj z) {
+        z.reshape(N,1);
+        for (int i = 0; i < N; i++) {
+            z.data[i] = r.data[i]*invDiag[i];
+        }
+    }
+}
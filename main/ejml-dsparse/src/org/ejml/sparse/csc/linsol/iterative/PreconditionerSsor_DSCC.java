@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+
+/**
+ * <p>
+ * Symmetric successive over-relaxation (SSOR) preconditioner.  A = L + D + U, where L and U are the strictly
+ * lower and upper triangular parts and D is the diagonal.
+ * </p>
+ * <pre>
+ * M = w/(2-w) * (D/w + L)*(D/w)<sup>-1</sup>*(D/w + U)
+ * </pre>
+ * <p>
+ * M is symmetric positive definite when A is, so it can be used with conjugate gradient.  Applying it requires
+ * a forward and a backward triangular solve with the original matrix.  No factorization is computed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PreconditionerSsor_DSCC implements MatrixPreconditioner_DSCC {
+
+    // relaxation parameter
+    double omega;
+
+    DMatrixSparseCSC A;
+    // diagonal elements of A
+    double diag[] = new double[0];
+
+    /**
+     * @param omega Relaxation parameter.  0 &lt; omega &lt; 2.  1 is symmetric Gauss-Seidel
+     */
+    public PreconditionerSsor_DSCC( double omega ) {
+        if( omega <= 0 || omega >= 2 )
+            throw new IllegalArgumentException("omega must be between 0 and 2");
+        this.omega = omega;
+    }
+
+    public PreconditionerSsor_DSCC() {
+        this(1.0);
+    }
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("A must be square");
+
+        this.A = A;
+        int N = A.numCols;
+        if( diag.length < N )
+            diag = new double[N];
+
+        for (int col = 0; col < N; col++) {
+            double d = 0;
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1];
+            for (int i = idx0; i < idx1; i++) {
+                if( A.nz_rows[i] == col ) {
+                    d = A.nz_values[i];
+                    break;
+                }
+            }
+            if( d == 0 )
+                return false;
+            diag[col] = d;
+        }
+        return true;
+    }
+
+    @Override
+    public void apply(DMatrixRMaj r, DMatrixRMaj z) {
+        final int N = A.numCols;
+        z.reshape(N,1);
+        double y[] = z.data;
+        System.arraycopy(r.data,0,y,0,N);
+
+        // solve (D/w + L)*y = r
+        for (int col = 0; col < N; col++) {
+            double y_j = y[col] *= omega/diag[col];
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1];
+            for (int i = idx0; i < idx1; i++) {
+                int row = A.nz_rows[i];
+                if( row > col )
+                    y[row] -= A.nz_values[i]*y_j;
+            }
+        }
+
+        // multiply by D/w
+        for (int col = 0; col < N; col++) {
+            y[col] *= diag[col]/omega;
+        }
+
+        // solve (D/w + U)*z = y
+        for (int col = N-1; col >= 0; col--) {
+            double z_j = y[col] *= omega/diag[col];
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1];
+            for (int i = idx0; i < idx1; i++) {
+                int row = A.nz_rows[i];
+                if( row < col )
+                    y[row] -= A.nz_values[i]*z_j;
+            }
+        }
+
+        double scale = (2.0-omega)/omega;
+        for (int col = 0; col < N; col++) {
+            y[col] *= scale;
+        }
+    }
+
+    public double getOmega() {
+        return omega;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * A preconditioner M approximates the matrix A in A*x=b while being much easier to invert.  Iterative
+ * solvers use it to transform the system into one with a better condition number, which reduces the number of
+ * iterations.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface Preconditioner_F64 {
+
+    /**
+     * Solves for z in M*z = r
+     *
+     * @param r Column vector. Not modified.
+     * @param z Column vector. Modified.  Will not be the same instance as r.
+     */
+    void apply( DMatrixRMaj r , DMatrixRMaj z );
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.sparse.csc.mult.ImplSparseSparseMult_DSCC;
+import org.ejml.sparse.csc.mult.ImplSparseSparseMult_MT_DSCC;
+
+/**
+ * <p>
+ * {@link LinearOperator_F64} for a sparse matrix.  Large matrices are multiplied concurrently.  The storage
+ * for the concurrent multiplication is saved and reused between calls.
+ * </p>
+ *
+ * <p>
+ * If the matrix is known to be symmetric then A<sup>T</sup>*x is computed instead of A*x.  In CSC format
+ * each column of A<sup>T</sup>*x is an independent inner product, so the concurrent version doesn't need
+ * thread private accumulators.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SparseOperator_DSCC implements LinearOperator_F64 {
+
+    DMatrixSparseCSC A;
+    boolean symmetric;
+
+    // storage for thread private accumulators
+    double work[] = new double[0];
+
+    /**
+     * @param A The matrix
+     * @param symmetric true if A is symmetric
+     */
+    public SparseOperator_DSCC(DMatrixSparseCSC A , boolean symmetric ) {
+        setMatrix(A, symmetric);
+    }
+
+    public SparseOperator_DSCC(DMatrixSparseCSC A ) {
+        this(A,false);
+    }
+
+    /**
+     * Changes the matrix.  Work space is not declared again.
+     */
+    public void setMatrix( DMatrixSparseCSC A , boolean symmetric ) {
+        this.A = A;
+        this.symmetric = symmetric;
+    }
+
+    @Override
+    public void mult(DMatrixRMaj x, DMatrixRMaj y) {
+        if( EjmlConcurrency.isUseConcurrent() && A.numCols > 1 &&
+                A.nz_length >= EjmlParameters.MULT_CONCURRENT_SWITCH ) {
+            if( symmetric ) {
+                ImplSparseSparseMult_MT_DSCC.multTransA(A,x,y);
+            } else {
+                int numRanges = Math.min(EjmlConcurrency.getMaxThreads(),A.numCols);
+                int length = (numRanges-1)*A.numRows;
+                if( work.length < length )
+                    work = new double[length];
+                ImplSparseSparseMult_MT_DSCC.mult(A,x,y,numRanges,work);
+            }
+        } else {
+            ImplSparseSparseMult_DSCC.mult(A,x,y);
+        }
+    }
+
+    @Override
+    public int getNumRows() {
+        return A.numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return A.numCols;
+    }
+
+    public DMatrixSparseCSC getMatrix() {
+        return A;
+    }
+
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.lu;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.decomposition.lu.LuLeftLooking_DSCC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Linear solver for general square sparse matrices using {@link LuLeftLooking_DSCC}.  Since P*A*Q = L*U
+ * the solution is found by solving L*y = P*b, U*z = y, and then x = Q*z for each column in B.
+ * </p>
+ *
+ * <p>
+ * When the same system is solved many times with different values but the same sparsity pattern,
+ * call {@link #setStructureLocked(boolean)}.  The column ordering and pivot sequence from the previous
+ * matrix are then reused.  If the old pivots are no longer numerically acceptable then it automatically
+ * falls back to a full decomposition.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverLu_DSCC implements LinearSolver<DMatrixSparseCSC> {
+
+    LuLeftLooking_DSCC decomposition;
+
+    // if true then the pivots from the previous decomposition are reused
+    boolean locked = false;
+    // true if the previous decomposition was successful
+    boolean valid = false;
+
+    // storage for a dense column
+    double x[] = new double[0];
+    double xp[] = new double[0];
+
+    public LinearSolverLu_DSCC(LuLeftLooking_DSCC decomposition) {
+        this.decomposition = decomposition;
+    }
+
+    public LinearSolverLu_DSCC() {
+        this(new LuLeftLooking_DSCC());
+    }
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("Matrix must be square");
+
+        if( x.length < A.numRows ) {
+            x = new double[A.numRows];
+            xp = new double[A.numRows];
+        }
+
+        if( locked && valid && decomposition.getL().numCols == A.numCols ) {
+            if( decomposition.refactor(A) )
+                return true;
+        }
+
+        valid = decomposition.decompose(A);
+        return valid;
+    }
+
+    @Override
+    public double quality() {
+        DMatrixSparseCSC U = decomposition.getU();
+        int N = U.numCols;
+
+        double max = 0;
+        for (int i = 0; i < N; i++) {
+            max = Math.max(max, Math.abs(U.nz_values[U.col_idx[i+1]-1]));
+        }
+        if( max == 0 )
+            return 0;
+
+        double quality = 1;
+        for (int i = 0; i < N; i++) {
+            quality *= U.nz_values[U.col_idx[i+1]-1]/max;
+        }
+        return Math.abs(quality);
+    }
+
+    /**
+     * Solves for X in A*X = B.  The solution is found one column at a time and only the non-zero
+     * elements are saved in X.
+     *
+     * @param B A sparse matrix that is n by m.  Not modified.
+     * @param X A sparse n by m matrix where the solution is written to.  Modified.
+     */
+    @Override
+    public void solve(DMatrixSparseCSC B, DMatrixSparseCSC X) {
+        int N = decomposition.getL().numCols;
+        if( B.numRows != N )
+            throw new IllegalArgumentException("Unexpected number of rows in B");
+
+        X.reshape(N,B.numCols,0);
+        X.col_idx[0] = 0;
+        X.nz_length = 0;
+
+        for (int col = 0; col < B.numCols; col++) {
+            Arrays.fill(x,0,N,0);
+            int idx0 = B.col_idx[col], idx1 = B.col_idx[col+1];
+            for (int p = idx0; p < idx1; p++) {
+                x[B.nz_rows[p]] = B.nz_values[p];
+            }
+
+            solveColumn(N);
+
+            int nz_count = 0;
+            for (int i = 0; i < N; i++) {
+                if( x[i] != 0 )
+                    nz_count++;
+            }
+            if( X.nz_values.length < X.nz_length + nz_count ) {
+                X.growMaxLength(X.nz_length*2 + nz_count,true);
+            }
+            for (int i = 0; i < N; i++) {
+                if( x[i] != 0 ) {
+                    X.nz_rows[X.nz_length] = i;
+                    X.nz_values[X.nz_length++] = x[i];
+                }
+            }
+            X.col_idx[col+1] = X.nz_length;
+        }
+        X.indicesSorted = true;
+    }
+
+    /**
+     * Solves for X in A*X = B where B and X are dense matrices.  B and X can be the same instance.
+     *
+     * @param B A dense matrix that is n by m.  Not modified.
+     * @param X A dense n by m matrix where the solution is written to.  Modified.
+     */
+    public void solve(DMatrixRMaj B, DMatrixRMaj X) {
+        int N = decomposition.getL().numCols;
+        if( B.numRows != N || X.numRows != N || B.numCols != X.numCols )
+            throw new IllegalArgumentException("Unexpected matrix size");
+
+        int numCols = B.numCols;
+        for (int col = 0; col < numCols; col++) {
+            for (int i = 0; i < N; i++) {
+                x[i] = B.data[i*numCols+col];
+            }
+            solveColumn(N);
+            for (int i = 0; i < N; i++) {
+                X.data[i*numCols+col] = x[i];
+            }
+        }
+    }
+
+    private void solveColumn( int N ) {
+        int pinv[] = decomposition.getPinv();
+        int q[] = decomposition.getColumnOrdering();
+
+        for (int i = 0; i < N; i++) {
+            xp[pinv[i]] = x[i];
+        }
+        TriangularSolver_DSCC.solveL(decomposition.getL(),xp);
+        TriangularSolver_DSCC.solveU(decomposition.getU(),xp);
+        for (int i = 0; i < N; i++) {
+            x[q[i]] = xp[i];
+        }
+    }
+
+    @Override
+    public void invert(DMatrixSparseCSC A_inv) {
+        solve(CommonOps_DSCC.identity(decomposition.getL().numCols),A_inv);
+    }
+
+    /**
+     * If true then the column ordering and pivots are only computed the first time setA() is called and reused
+     * after that, unless they are found to be numerically unacceptable.  All subsequent matrices must have the
+     * same sparsity pattern.
+     */
+    public void setStructureLocked( boolean locked ) {
+        this.locked = locked;
+    }
+
+    public boolean isStructureLocked() {
+        return locked;
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return decomposition.inputModified();
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    @Override
+    public <D extends DecompositionInterface> D getDecomposition() {
+        return (D)decomposition;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.qr;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.interfaces.decomposition.DecompositionInterface;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.decomposition.qr.QrLeftLookingDecomposition_DSCC;
+import org.ejml.sparse.csc.misc.TriangularSolver_DSCC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Least-squares solver for sparse tall matrices using {@link QrLeftLookingDecomposition_DSCC}.  The solution
+ * minimizes ||A*x - b||.  A must have full column rank.
+ * </p>
+ *
+ * <p>
+ * If the Householder reflectors are stored then x is found by applying them to b and solving R*x = H<sup>T</sup>*P*b.
+ * In Q-less mode only R is saved and the solution is found using the corrected semi-normal equations,
+ * R<sup>T</sup>*R*x = A<sup>T</sup>*b followed by one step of iterative refinement.  This requires a copy of A
+ * but uses much less memory when there are many more rows than columns.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LinearSolverQrLeftLooking_DSCC implements LinearSolver<DMatrixSparseCSC> {
+
+    QrLeftLookingDecomposition_DSCC qr;
+
+    // copy of A.  Only used in Q-less mode
+    DMatrixSparseCSC A = new DMatrixSparseCSC(1,1,0);
+
+    int m,n;
+
+    // storage for dense vectors
+    double b[] = new double[0];
+    double x[] = new double[0];
+    double r[] = new double[0];
+    double dx[] = new double[0];
+    double tmp[] = new double[0];
+
+    public LinearSolverQrLeftLooking_DSCC(QrLeftLookingDecomposition_DSCC qr) {
+        this.qr = qr;
+    }
+
+    public LinearSolverQrLeftLooking_DSCC() {
+        this(new QrLeftLookingDecomposition_DSCC());
+    }
+
+    @Override
+    public boolean setA(DMatrixSparseCSC A) {
+        if( A.numRows < A.numCols )
+            throw new IllegalArgumentException("Can't solve for wide systems.  More variables than equations.");
+
+        m = A.numRows;
+        n = A.numCols;
+
+        if( !qr.decompose(A) )
+            return false;
+
+        if( b.length < m )
+            b = new double[m];
+        if( x.length < n ) {
+            x = new double[n];
+            dx = new double[n];
+        }
+        int length = Math.max(qr.getNumRowsV(),n);
+        if( tmp.length < length )
+            tmp = new double[length];
+
+        if( !qr.isStoreQ() ) {
+            this.A.set(A);
+            if( r.length < m )
+                r = new double[m];
+        }
+
+        // R must be non-singular
+        DMatrixSparseCSC R = qr.getR();
+        for (int i = 0; i < n; i++) {
+            if( R.nz_values[R.col_idx[i+1]-1] == 0 )
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public double quality() {
+        DMatrixSparseCSC R = qr.getR();
+
+        double max = 0;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, Math.abs(R.nz_values[R.col_idx[i+1]-1]));
+        }
+        if( max == 0 )
+            return 0;
+
+        double quality = 1;
+        for (int i = 0; i < n; i++) {
+            quality *= R.nz_values[R.col_idx[i+1]-1]/max;
+        }
+        return Math.abs(quality);
+    }
+
+    /**
+     * Solves for X in A*X = B in the least-squares sense.  The solution is found one column at a time and only
+     * the non-zero elements are saved in X.
+     *
+     * @param B A sparse matrix that is m by k.  Not modified.
+     * @param X A sparse n by k matrix where the solution is written to.  Modified.
+     */
+    @Override
+    public void solve(DMatrixSparseCSC B, DMatrixSparseCSC X) {
+        if( B.numRows != m )
+            throw new IllegalArgumentException("Unexpected number of rows in B");
+
+        X.reshape(n,B.numCols,0);
+        X.col_idx[0] = 0;
+        X.nz_length = 0;
+
+        for (int col = 0; col < B.numCols; col++) {
+            Arrays.fill(b,0,m,0);
+            int idx0 = B.col_idx[col], idx1 = B.col_idx[col+1];
+            for (int p = idx0; p < idx1; p++) {
+                b[B.nz_rows[p]] = B.nz_values[p];
+            }
+
+            solveColumn();
+
+            int nz_count = 0;
+            for (int i = 0; i < n; i++) {
+                if( x[i] != 0 )
+                    nz_count++;
+            }
+            if( X.nz_values.length < X.nz_length + nz_count ) {
+                X.growMaxLength(X.nz_length*2 + nz_count,true);
+            }
+            for (int i = 0; i < n; i++) {
+                if( x[i] != 0 ) {
+                    X.nz_rows[X.nz_length] = i;
+                    X.nz_values[X.nz_length++] = x[i];
+                }
+            }
+            X.col_idx[col+1] = X.nz_length;
+        }
+        X.indicesSorted = true;
+    }
+
+    /**
+     * Solves for X in A*X = B in the least-squares sense where B and X are dense matrices.
+     *
+     * @param B A dense matrix that is m by k.  Not modified.
+     * @param X A dense n by k matrix where the solution is written to.  Modified.
+     */
+    public void solve(DMatrixRMaj B, DMatrixRMaj X) {
+        if( B.numRows != m || X.numRows != n || B.numCols != X.numCols )
+            throw new IllegalArgumentException("Unexpected matrix size");
+
+        int numCols = B.numCols;
+        for (int col = 0; col < numCols; col++) {
+            for (int i = 0; i < m; i++) {
+                b[i] = B.data[i*numCols+col];
+            }
+            solveColumn();
+            for (int i = 0; i < n; i++) {
+                X.data[i*numCols+col] = x[i];
+            }
+        }
+    }
+
+    /**
+     * Solves for x using b
+     */
+    private void solveColumn() {
+        if( qr.isStoreQ() ) {
+            solveQ(b,x);
+        } else {
+            // corrected semi-normal equations
+            solveSemiNormal(b,x);
+            // r = b - A*x
+            System.arraycopy(b,0,r,0,m);
+            for (int j = 0; j < n; j++) {
+                double v = x[j];
+                if( v == 0 )
+                    continue;
+                int idx0 = A.col_idx[j], idx1 = A.col_idx[j+1];
+                for (int p = idx0; p < idx1; p++) {
+                    r[A.nz_rows[p]] -= A.nz_values[p]*v;
+                }
+            }
+            solveSemiNormal(r,dx);
+            for (int j = 0; j < n; j++) {
+                x[j] += dx[j];
+            }
+        }
+    }
+
+    /**
+     * Solves R*x = H<sup>T</sup>*P*b
+     */
+    private void solveQ( double b[] , double x[] ) {
+        int pinv[] = qr.getPinv();
+        int q[] = qr.getColumnOrdering();
+        DMatrixSparseCSC V = qr.getV();
+        double beta[] = qr.getBeta();
+
+        Arrays.fill(tmp,0,qr.getNumRowsV(),0);
+        for (int i = 0; i < m; i++) {
+            tmp[pinv[i]] = b[i];
+        }
+        for (int k = 0; k < n; k++) {
+            QrLeftLookingDecomposition_DSCC.applyReflector(V,k,beta[k],tmp);
+        }
+        TriangularSolver_DSCC.solveU(qr.getR(),tmp);
+        for (int k = 0; k < n; k++) {
+            x[q[k]] = tmp[k];
+        }
+    }
+
+    /**
+     * Solves R<sup>T</sup>*R*x = A<sup>T</sup>*b
+     */
+    private void solveSemiNormal( double b[] , double x[] ) {
+        int q[] = qr.getColumnOrdering();
+
+        // tmp = (A*Q)^T*b
+        for (int k = 0; k < n; k++) {
+            int col = q[k];
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1];
+            double sum = 0;
+            for (int p = idx0; p < idx1; p++) {
+                sum += A.nz_values[p]*b[A.nz_rows[p]];
+            }
+            tmp[k] = sum;
+        }
+        TriangularSolver_DSCC.solveTranU(qr.getR(),tmp);
+        TriangularSolver_DSCC.solveU(qr.getR(),tmp);
+        for (int k = 0; k < n; k++) {
+            x[q[k]] = tmp[k];
+        }
+    }
+
+    /**
+     * Computes the pseudo inverse of A
+     */
+    @Override
+    public void invert(DMatrixSparseCSC A_inv) {
+        solve(CommonOps_DSCC.identity(m),A_inv);
+    }
+
+    @Override
+    public boolean modifiesA() {
+        return qr.inputModified();
+    }
+
+    @Override
+    public boolean modifiesB() {
+        return false;
+    }
+
+    @Override
+    public <D extends DecompositionInterface> D getDecomposition() {
+        return (D)qr;
+    }
+}
@@ -0,0 +1,546 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.misc;
+
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Approximate Minimum Degree (AMD) fill reducing ordering.  Rows and columns of a sparse matrix are reordered
+ * so that the factorization of the permuted matrix has fewer non-zero elements.  The algorithm works on the
+ * quotient graph of the matrix's symmetric pattern and repeatedly eliminates the node with the smallest
+ * approximate degree.  Indistinguishable nodes are merged into supernodes, elements are absorbed aggressively,
+ * and the final ordering is a post ordering of the assembly tree.  Dense rows/columns are removed and
+ * ordered last.  Functionally equivalent to cs_amd in csparse.
+ * </p>
+ *
+ * <p>
+ * Two graphs can be ordered:
+ * <ul>
+ * <li>{@link #orderSymmetric}: The pattern of A+A<sup>T</sup>.  Used by Cholesky.</li>
+ * <li>{@link #orderColumns}: The pattern of A<sup>T</sup>A, with dense rows in A ignored.  Produces a column
+ * ordering for unsymmetric factorizations like LU and QR.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Reference: P. R. Amestoy, T. A. Davis, and I. S. Duff, "An approximate minimum degree ordering algorithm",
+ * SIAM J. Matrix Anal. Applic., 17(4), 1996.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ApproximateMinimumDegree_DSCC {
+
+    // the graph which is being ordered. Column pointers and row indexes. Does not include the diagonal
+    private int Cp[] = new int[0];
+    private int Ci[] = new int[0];
+
+    // work space
+    private int len[] = new int[0];
+    private int nv[] = new int[0];
+    private int next[] = new int[0];
+    private int head[] = new int[0];
+    private int elen[] = new int[0];
+    private int degree[] = new int[0];
+    private int w[] = new int[0];
+    private int hhead[] = new int[0];
+    private int last[] = new int[0];
+
+    // work space for constructing the graph
+    private int marker[] = new int[0];
+    private DMatrixSparseCSC At = new DMatrixSparseCSC(1,1,0);
+
+    /**
+     * Computes a fill reducing ordering for the symmetric pattern A+A<sup>T</sup>.  Only the pattern of A is
+     * used and it doesn't matter if the full matrix or just the upper or lower triangle is provided.
+     *
+     * @param A (Input) Square matrix.  Not modified.
+     * @param perm (Output) Permutation.  perm[k] is the row/column in A which is the k-th row/column
+     *             in the permuted matrix.  Length A.numCols.
+     */
+    public void orderSymmetric( DMatrixSparseCSC A , int perm[] ) {
+        if( A.numRows != A.numCols )
+            throw new IllegalArgumentException("Matrix must be square");
+        int n = A.numCols;
+
+        // count the number of unique off diagonal elements in each column of A+A'
+        declareGraph(n, 2*A.nz_length);
+        Arrays.fill(len,0,n,0);
+        for (int j = 0; j < n; j++) {
+            int idx0 = A.col_idx[j], idx1 = A.col_idx[j+1];
+            for (int p = idx0; p < idx1; p++) {
+                int i = A.nz_rows[p];
+                if( i == j )
+                    continue;
+                len[i]++;
+                len[j]++;
+            }
+        }
+        Cp[0] = 0;
+        for (int j = 0; j < n; j++) {
+            Cp[j+1] = Cp[j] + len[j];
+            len[j] = Cp[j];
+        }
+        for (int j = 0; j < n; j++) {
+            int idx0 = A.col_idx[j], idx1 = A.col_idx[j+1];
+            for (int p = idx0; p < idx1; p++) {
+                int i = A.nz_rows[p];
+                if( i == j )
+                    continue;
+                Ci[len[i]++] = j;
+                Ci[len[j]++] = i;
+            }
+        }
+
+        removeDuplicates(n);
+        amd(n, perm);
+    }
+
+    /**
+     * Computes a fill reducing column ordering for the pattern of A<sup>T</sup>A without explicitly computing
+     * A<sup>T</sup>A.  Rows in A with more than max(16,10*sqrt(n)) elements are ignored since they would make
+     * A<sup>T</sup>A dense and convey no useful information for the ordering.
+     *
+     * @param A (Input) Matrix.  Not modified.
+     * @param perm (Output) Column permutation.  perm[k] is the column in A which is the k-th column
+     *             in the permuted matrix.  Length A.numCols.
+     */
+    public void orderColumns( DMatrixSparseCSC A , int perm[] ) {
+        int m = A.numRows, n = A.numCols;
+
+        // A' provides the pattern of each row in A
+        At.reshape(n,m,A.nz_length);
+        ImplCommonOps_DSCC.transpose(A,At,null);
+
+        int dense = Math.max(16,(int)(10*Math.sqrt(n)));
+        dense = Math.min(n-2,dense);
+
+        if( marker.length < n )
+            marker = new int[n];
+
+        // find the pattern of each column in A'A one at a time.  Column j is the union of all the rows
+        // which have an element in column j of A
+        for (int pass = 0; pass < 2; pass++) {
+            Arrays.fill(marker,0,n,-1);
+            int nz = 0;
+            for (int j = 0; j < n; j++) {
+                if( pass == 1 )
+                    Cp[j] = nz;
+                marker[j] = j; // skip the diagonal
+                int idx0 = A.col_idx[j], idx1 = A.col_idx[j+1];
+                for (int p = idx0; p < idx1; p++) {
+                    int row = A.nz_rows[p];
+                    int rowIdx0 = At.col_idx[row], rowIdx1 = At.col_idx[row+1];
+                    if( rowIdx1-rowIdx0 > dense )
+                        continue;
+                    for (int q = rowIdx0; q < rowIdx1; q++) {
+                        int k = At.nz_rows[q];
+                        if( marker[k] != j ) {
+                            marker[k] = j;
+                            if( pass == 1 )
+                                Ci[nz] = k;
+                            nz++;
+                        }
+                    }
+                }
+            }
+            if( pass == 0 ) {
+                declareGraph(n, nz);
+            } else {
+                Cp[n] = nz;
+            }
+        }
+
+        amd(n, perm);
+    }
+
+    /**
+     * Makes sure the graph's arrays are large enough for 'n' nodes and 'nz' edges, plus extra room
+     * so that garbage collection isn't done too often.
+     */
+    private void declareGraph( int n , int nz ) {
+        int t = nz + nz/5 + 2*n;
+        if( Ci.length < t )
+            Ci = new int[t];
+        if( Cp.length < n+1 ) {
+            Cp = new int[n+1];
+            len = new int[n+1];
+            nv = new int[n+1];
+            next = new int[n+1];
+            head = new int[n+1];
+            elen = new int[n+1];
+            degree = new int[n+1];
+            w = new int[n+1];
+            hhead = new int[n+1];
+            last = new int[n+1];
+        }
+        if( marker.length < n )
+            marker = new int[n];
+    }
+
+    /**
+     * Removes duplicate entries inside each column of the graph in place
+     */
+    private void removeDuplicates( int n ) {
+        Arrays.fill(marker,0,n,-1);
+        int nz = 0;
+        for (int j = 0; j < n; j++) {
+            int idx0 = Cp[j], idx1 = Cp[j+1];
+            Cp[j] = nz;
+            for (int p = idx0; p < idx1; p++) {
+                int i = Ci[p];
+                if( marker[i] != j ) {
+                    marker[i] = j;
+                    Ci[nz++] = i;
+                }
+            }
+        }
+        Cp[n] = nz;
+    }
+
+    private static int flip( int i ) {
+        return -i-2;
+    }
+
+    /**
+     * Clears w if the mark will overflow
+     */
+    private static int clearW( int mark , int lemax , int w[] , int n ) {
+        if( mark < 2 || (mark + lemax < 0) ) {
+            for (int k = 0; k < n; k++) {
+                if( w[k] != 0 )
+                    w[k] = 1;
+            }
+            mark = 2;
+        }
+        return mark;
+    }
+
+    /**
+     * Computes the ordering of the graph stored in Cp and Ci.  The graph is destroyed.
+     */
+    private void amd( int n , int perm[] ) {
+        if( perm.length < n )
+            throw new IllegalArgumentException("perm must be at least of length "+n);
+
+        int nzmax = Ci.length;
+        int cnz = Cp[n];
+        int Cp[] = this.Cp, Ci[] = this.Ci;
+        int len[] = this.len, nv[] = this.nv, next[] = this.next, head[] = this.head;
+        int elen[] = this.elen, degree[] = this.degree, w[] = this.w, hhead[] = this.hhead;
+        int last[] = this.last;
+
+        int dense = Math.max(16,(int)(10*Math.sqrt(n)));
+        dense = Math.min(n-2,dense);
+
+        int lemax = 0, mindeg = 0, nel = 0;
+
+        // --- Initialize quotient graph
+        for (int k = 0; k < n; k++) {
+            len[k] = Cp[k+1]-Cp[k];
+        }
+        len[n] = 0;
+        for (int i = 0; i <= n; i++) {
+            head[i] = -1;      // degree list i is empty
+            last[i] = -1;
+            next[i] = -1;
+            hhead[i] = -1;     // hash list i is empty
+            nv[i] = 1;         // node i is just one node
+            w[i] = 1;          // node i is alive
+            elen[i] = 0;       // Ek of node i is empty
+            degree[i] = len[i];
+        }
+        int mark = clearW(0,0,w,n);
+        elen[n] = -2;          // n is a dead element
+        Cp[n] = -1;            // n is a root of assembly tree
+        w[n] = 0;              // n is a dead element
+
+        // --- Initialize degree lists
+        for (int i = 0; i < n; i++) {
+            int d = degree[i];
+            if( d == 0 ) {              // node i is empty
+                elen[i] = -2;           // element i is dead
+                nel++;
+                Cp[i] = -1;             // i is a root of assembly tree
+                w[i] = 0;
+            } else if( d > dense ) {    // node i is dense
+                nv[i] = 0;              // absorb i into element n
+                elen[i] = -1;           // node i is dead
+                nel++;
+                Cp[i] = flip(n);
+                nv[n]++;
+            } else {
+                if( head[d] != -1 ) last[head[d]] = i;
+                next[i] = head[d];      // put node i in degree list d
+                head[d] = i;
+            }
+        }
+
+        while( nel < n ) {
+            // --- Select node of minimum approximate degree
+            int k = -1;
+            for (; mindeg < n && (k = head[mindeg]) == -1; mindeg++) {}
+            if( next[k] != -1 ) last[next[k]] = -1;
+            head[mindeg] = next[k];     // remove k from degree list
+            int elenk = elen[k];        // elenk = |Ek|
+            int nvk = nv[k];            // # of nodes k represents
+            nel += nvk;                 // nv[k] nodes of A eliminated
+
+            // --- Garbage collection
+            if( elenk > 0 && cnz + mindeg >= nzmax ) {
+                for (int j = 0; j < n; j++) {
+                    int p;
+                    if( (p = Cp[j]) >= 0 ) {    // j is a live node or element
+                        Cp[j] = Ci[p];          // save first entry of object
+                        Ci[p] = flip(j);        // first entry is now flip(j)
+                    }
+                }
+                int q = 0;
+                for (int p = 0; p < cnz; ) {    // scan all of memory
+                    int j;
+                    if( (j = flip(Ci[p++])) >= 0 ) {  // found object j
+                        Ci[q] = Cp[j];          // restore first entry of object
+                        Cp[j] = q++;            // new pointer to object j
+                        for (int k3 = 0; k3 < len[j]-1; k3++) Ci[q++] = Ci[p++];
+                    }
+                }
+                cnz = q;                        // Ci[cnz...nzmax-1] now free
+            }
+
+            // --- Construct new element
+            int dk = 0;
+            nv[k] = -nvk;                       // flag k as in Lk
+            int p = Cp[k];
+            int pk1 = (elenk == 0) ? p : cnz;   // do in place if elen[k] == 0
+            int pk2 = pk1;
+            for (int k1 = 1; k1 <= elenk + 1; k1++) {
+                int e,pj,ln;
+                if( k1 > elenk ) {
+                    e = k;                      // search the nodes in k
+                    pj = p;                     // list of nodes starts at Ci[pj]
+                    ln = len[k] - elenk;        // length of list of nodes in k
+                } else {
+                    e = Ci[p++];                // search the nodes in e
+                    pj = Cp[e];
+                    ln = len[e];                // length of list of nodes in e
+                }
+                for (int k2 = 1; k2 <= ln; k2++) {
+                    int i = Ci[pj++];
+                    int nvi;
+                    if( (nvi = nv[i]) <= 0 ) continue; // node i dead, or seen
+                    dk += nvi;                  // degree[Lk] += size of node i
+                    nv[i] = -nvi;               // negate nv[i] to denote i in Lk
+                    Ci[pk2++] = i;              // place i in Lk
+                    if( next[i] != -1 ) last[next[i]] = last[i];
+                    if( last[i] != -1 ) {       // remove i from degree list
+                        next[last[i]] = next[i];
+                    } else {
+                        head[degree[i]] = next[i];
+                    }
+                }
+                if( e != k ) {
+                    Cp[e] = flip(k);            // absorb e into k
+                    w[e] = 0;                   // e is now a dead element
+                }
+            }
+            if( elenk != 0 ) cnz = pk2;         // Ci[cnz...nzmax] is free
+            degree[k] = dk;                     // external degree of k - |Lk\i|
+            Cp[k] = pk1;                        // element k is in Ci[pk1..pk2-1]
+            len[k] = pk2 - pk1;
+            elen[k] = -2;                       // k is now an element
+
+            // --- Find set differences
+            mark = clearW(mark,lemax,w,n);
+            for (int pk = pk1; pk < pk2; pk++) {   // scan 1: find |Le\Lk|
+                int i = Ci[pk];
+                int eln;
+                if( (eln = elen[i]) <= 0 ) continue; // skip if elen[i] empty
+                int nvi = -nv[i];                 // nv[i] was negated
+                int wnvi = mark - nvi;
+                for (p = Cp[i]; p <= Cp[i] + eln - 1; p++) { // scan Ei
+                    int e = Ci[p];
+                    if( w[e] >= mark ) {
+                        w[e] -= nvi;              // decrement |Le\Lk|
+                    } else if( w[e] != 0 ) {      // ensure e is a live element
+                        w[e] = degree[e] + wnvi;  // 1st time e seen in scan 1
+                    }
+                }
+            }
+
+            // --- Degree update
+            for (int pk = pk1; pk < pk2; pk++) {   // scan2: degree update
+                int i = Ci[pk];                   // consider node i in Lk
+                int p1 = Cp[i];
+                int p2 = p1 + elen[i] - 1;
+                int pn = p1;
+                long h = 0;
+                int d = 0;
+                for (p = p1; p <= p2; p++) {      // scan Ei
+                    int e = Ci[p];
+                    if( w[e] != 0 ) {             // e is an unabsorbed element
+                        int dext = w[e] - mark;   // dext = |Le\Lk|
+                        if( dext > 0 ) {
+                            d += dext;            // sum up the set differences
+                            Ci[pn++] = e;         // keep e in Ei
+                            h += e;               // compute the hash of node i
+                        } else {
+                            Cp[e] = flip(k);      // aggressive absorb. e->k
+                            w[e] = 0;             // e is a dead element
+                        }
+                    }
+                }
+                elen[i] = pn - p1 + 1;            // elen[i] = |Ei|
+                int p3 = pn;
+                int p4 = p1 + len[i];
+                for (p = p2 + 1; p < p4; p++) {   // prune edges in Ai
+                    int j = Ci[p];
+                    int nvj;
+                    if( (nvj = nv[j]) <= 0 ) continue; // node j dead or in Lk
+                    d += nvj;                     // degree(i) += |j|
+                    Ci[pn++] = j;                 // place j in node list of i
+                    h += j;                       // compute hash for node i
+                }
+                if( d == 0 ) {                    // check for mass elimination
+                    Cp[i] = flip(k);              // absorb i into k
+                    int nvi = -nv[i];
+                    dk -= nvi;                    // |Lk| -= |i|
+                    nvk += nvi;                   // |k| += nv[i]
+                    nel += nvi;
+                    nv[i] = 0;
+                    elen[i] = -1;                 // node i is dead
+                } else {
+                    degree[i] = Math.min(degree[i], d); // update degree(i)
+                    Ci[pn] = Ci[p3];              // move first node to end
+                    Ci[p3] = Ci[p1];              // move 1st el. to end of Ei
+                    Ci[p1] = k;                   // add k as 1st element in of Ei
+                    len[i] = pn - p1 + 1;         // new len of adj. list of node i
+                    int hash = (int)(h % n);      // finalize hash of i
+                    next[i] = hhead[hash];        // place i in hash bucket
+                    hhead[hash] = i;
+                    last[i] = hash;               // save hash of i in last[i]
+                }
+            }
+            degree[k] = dk;                       // finalize |Lk|
+            lemax = Math.max(lemax, dk);
+            mark = clearW(mark+lemax,lemax,w,n);
+
+            // --- Supernode detection
+            for (int pk = pk1; pk < pk2; pk++) {
+                int i = Ci[pk];
+                if( nv[i] >= 0 ) continue;        // skip if i is dead
+                int h = last[i];                  // scan hash bucket of node i
+                i = hhead[h];
+                hhead[h] = -1;                    // hash bucket will be empty
+                for (; i != -1 && next[i] != -1; i = next[i], mark++) {
+                    int ln = len[i];
+                    int eln = elen[i];
+                    for (p = Cp[i] + 1; p <= Cp[i] + ln - 1; p++) w[Ci[p]] = mark;
+                    int jlast = i;
+                    for (int j = next[i]; j != -1; ) { // compare i with all j
+                        boolean ok = (len[j] == ln) && (elen[j] == eln);
+                        for (p = Cp[j] + 1; ok && p <= Cp[j] + ln - 1; p++) {
+                            if( w[Ci[p]] != mark ) ok = false; // compare i and j
+                        }
+                        if( ok ) {                // i and j are identical
+                            Cp[j] = flip(i);      // absorb j into i
+                            nv[i] += nv[j];
+                            nv[j] = 0;
+                            elen[j] = -1;         // node j is dead
+                            j = next[j];          // delete j from hash bucket
+                            next[jlast] = j;
+                        } else {
+                            jlast = j;            // j and i are different
+                            j = next[j];
+                        }
+                    }
+                }
+            }
+
+            // --- Finalize new element
+            p = pk1;
+            for (int pk = pk1; pk < pk2; pk++) {   // finalize Lk
+                int i = Ci[pk];
+                int nvi;
+                if( (nvi = -nv[i]) <= 0 ) continue; // skip if i is dead
+                nv[i] = nvi;                      // restore nv[i]
+                int d = degree[i] + dk - nvi;     // compute external degree(i)
+                d = Math.min(d, n - nel - nvi);
+                if( head[d] != -1 ) last[head[d]] = i;
+                next[i] = head[d];                // put i back in degree list
+                last[i] = -1;
+                head[d] = i;
+                mindeg = Math.min(mindeg, d);     // find new minimum degree
+                degree[i] = d;
+                Ci[p++] = i;                      // place i in Lk
+            }
+            nv[k] = nvk;                          // # nodes absorbed into k
+            if( (len[k] = p-pk1) == 0 ) {         // length of adj list of element k
+                Cp[k] = -1;                       // k is a root of the tree
+                w[k] = 0;                         // k is now a dead element
+            }
+            if( elenk != 0 ) cnz = p;             // free unused space in Lk
+        }
+
+        // --- Postordering
+        for (int i = 0; i < n; i++) Cp[i] = flip(Cp[i]); // fix assembly tree
+        for (int j = 0; j <= n; j++) head[j] = -1;
+        for (int j = n; j >= 0; j--) {            // place unordered nodes in lists
+            if( nv[j] > 0 ) continue;             // skip if j is an element
+            next[j] = head[Cp[j]];                // place j in list of its parent
+            head[Cp[j]] = j;
+        }
+        for (int e = n; e >= 0; e--) {            // place elements in lists
+            if( nv[e] <= 0 ) continue;            // skip unless e is an element
+            if( Cp[e] != -1 ) {
+                next[e] = head[Cp[e]];            // place e in list of its parent
+                head[Cp[e]] = e;
+            }
+        }
+        // 'last' is no longer needed and is used to store the post ordering
+        for (int k = 0, i = 0; i <= n; i++) {     // postorder the assembly tree
+            if( Cp[i] == -1 ) k = postorderTree(i, k, head, next, last, w);
+        }
+
+        // the last element is the dummy node n
+        System.arraycopy(last,0,perm,0,n);
+    }
+
+    /**
+     * Depth first search and postorder of a tree rooted at node j.  Same as cs_tdfs in csparse
+     */
+    private static int postorderTree( int j , int k , int head[] , int next[] , int post[] , int stack[] ) {
+        int top = 0;
+        stack[0] = j;
+        while( top >= 0 ) {
+            int p = stack[top];
+            int i = head[p];
+            if( i == -1 ) {
+                top--;
+                post[k++] = p;
+            } else {
+                head[p] = next[i];
+                stack[++top] = i;
+            }
+        }
+        return k;
+    }
+}
@@ -54,6 +54,28 @@ public class TriangularSolver_DSCC {
         }
     }
 
+    /**
+     * Solves for the transpose of a lower triangular matrix against a dense vector. L<sup>T</sup>*x = b
+     *
+     * @param L Lower triangular matrix.  Diagonal elements are assumed to be non-zero and first in each column
+     * @param x (Input) Solution matrix 'b'.  (Output) matrix 'x'
+     */
+    public static void solveTranL(DMatrixSparseCSC L , double []x )
+    {
+        final int N = L.numCols;
+
+        for (int j = N-1; j >= 0; j--) {
+            int idx0 = L.col_idx[j];
+            int idx1 = L.col_idx[j+1];
+
+            double sum = x[j];
+            for (int p = idx0+1; p < idx1; p++) {
+                sum -= L.nz_values[p]*x[L.nz_rows[p]];
+            }
+            x[j] = sum/L.nz_values[idx0];
+        }
+    }
+
     /**
      * Solves for an upper triangular matrix against a dense vector. L*x = b
      *
@@ -78,6 +100,28 @@ public class TriangularSolver_DSCC {
         }
     }
 
+    /**
+     * Solves for the transpose of an upper triangular matrix against a dense vector. U<sup>T</sup>*x = b
+     *
+     * @param U Upper triangular matrix.  Diagonal elements are assumed to be non-zero and last in each column
+     * @param x (Input) Solution matrix 'b'.  (Output) matrix 'x'
+     */
+    public static void solveTranU(DMatrixSparseCSC U , double []x )
+    {
+        final int N = U.numCols;
+
+        for (int j = 0; j < N; j++) {
+            int idx0 = U.col_idx[j];
+            int idx1 = U.col_idx[j+1]-1;
+
+            double sum = x[j];
+            for (int p = idx0; p < idx1; p++) {
+                sum -= U.nz_values[p]*x[U.nz_rows[p]];
+            }
+            x[j] = sum/U.nz_values[idx1];
+        }
+    }
+
     /**
      * Computes the solution to the triangular system.  Inputs are both sparse but the output is dense.
      *
@@ -131,10 +175,34 @@ public class TriangularSolver_DSCC {
     public static int solve(DMatrixSparseCSC G, boolean lower,
                             DMatrixSparseCSC B, int colB, double x[], int xi[], int w[])
     {
-        xi = checkDeclare(G.numRows,xi,false);
         w = checkDeclare(B.numRows*2,w,B.numRows);
+        return solve(G,lower,B,colB,x,null,xi,w);
+    }
+
+    /**
+     * Computes the solution to a triangular system where the rows of G might be permuted.  Only a single column
+     * in B is solved for.  Functionally equivalent to cs_spsolve in csparse.
+     *
+     * @param G (Input) Lower or upper triangular matrix.  diagonal elements must be non-zero and be the first
+     *          (lower) or last (upper) element in each column.  Not modified.
+     * @param lower true for lower triangular and false for upper
+     * @param B (Input) Matrix.  Not modified.
+     * @param colB The column in B which is solved for
+     * @param x (Output) Storage for dense solution.  length = G.numRows
+     * @param pinv (Optional) Row 'i' in B corresponds to column pinv[i] in G.  If pinv[i] &lt; 0 then there is
+     *             no corresponding column.  If null then no permutation.
+     * @param xi (Optional) Storage for work space.  length = B.numRows
+     * @param w (Optional) Storage for work space.  length = B.numRows*2.  The first B.numRows elements must be
+     *          zero and are zero when it returns.
+     * @return Return number of zeros in 'x', ignoring cancellations.
+     */
+    public static int solve(DMatrixSparseCSC G, boolean lower,
+                            DMatrixSparseCSC B, int colB, double x[], int pinv[], int xi[], int w[])
+    {
+        xi = checkDeclare(G.numRows,xi,false);
+        w = checkDeclare(B.numRows*2,w,0);
 
-        int top = searchNzRowsInB(G,B,colB,xi,w);
+        int top = searchNzRowsInB(G,B,colB,pinv,xi,w);
 
         // sparse clear of x
         for( int p = top; p < G.numRows; p++ )
@@ -148,17 +216,18 @@ public class TriangularSolver_DSCC {
 
         for (int px = top; px < G.numRows; px++) {
             int j = xi[px];
-            if( j < 0 )
+            int J = pinv != null ? pinv[j] : j;
+            if( J < 0 )
                 continue;
             int p,q;
             if( lower ) {
-                x[j] /= G.nz_values[G.col_idx[j]];
-                p = G.col_idx[j]+1;
-                q = G.col_idx[j+1];
+                x[j] /= G.nz_values[G.col_idx[J]];
+                p = G.col_idx[J]+1;
+                q = G.col_idx[J+1];
             } else {
-                x[j] /= G.nz_values[G.col_idx[j+1]-1];
-                p = G.col_idx[j];
-                q = G.col_idx[j+1]-1;
+                x[j] /= G.nz_values[G.col_idx[J+1]-1];
+                p = G.col_idx[J];
+                q = G.col_idx[J+1]-1;
             }
             for(;p<q;p++) {
                 x[G.nz_rows[p]] -= G.nz_values[p]*x[j];
@@ -186,12 +255,34 @@ public class TriangularSolver_DSCC {
      * @return Returns the index of the first element in the xi list.  Also known as top.
      */
     public static int searchNzRowsInB(DMatrixSparseCSC G , DMatrixSparseCSC B , int colB, int xi[] , int w[])
+    {
+        if( w.length < B.numRows*2 )
+            throw new IllegalArgumentException("w must be at least this long: "+B.numRows*2);
+        Arrays.fill(w,0,B.numRows,0);
+        return searchNzRowsInB(G,B,colB,null,xi,w);
+    }
+
+    /**
+     * Same as {@link #searchNzRowsInB(DMatrixSparseCSC, DMatrixSparseCSC, int, int[], int[])} but the rows of G
+     * can be permuted.  Functionally equivalent to cs_reach in csparse.
+     *
+     * @param G (Input) Lower triangular system matrix.  Diagonal elements are assumed to be not zero.  Not modified.
+     * @param B (Input) Matrix B. Not modified.
+     * @param colB Column in B being solved for
+     * @param pinv (Optional) Row 'i' in B corresponds to column pinv[i] in G.  If pinv[i] &lt; 0 then there is
+     *             no corresponding column.  If null then no permutation.
+     * @param xi (Output) List of row indices in B which are non-zero in graph order.  Must have length B.numRows
+     * @param w Work space array used internally.  Must be of size B.numRows*2.  The first B.numRows elements
+     *          must be zero.  They are restored to zero before returning, avoiding an O(N) clear on each call.
+     * @return Returns the index of the first element in the xi list.  Also known as top.
+     */
+    public static int searchNzRowsInB(DMatrixSparseCSC G , DMatrixSparseCSC B , int colB, int pinv[],
+                                      int xi[] , int w[])
     {
         if( xi.length < B.numRows )
             throw new IllegalArgumentException("xi must be at least this long: "+B.numRows);
         if( w.length < B.numRows*2 )
-            throw new IllegalArgumentException("xi must be at least this long: "+B.numRows*2);
-        Arrays.fill(w,0,B.numRows,0);
+            throw new IllegalArgumentException("w must be at least this long: "+B.numRows*2);
 
         // use 'w' as a marker to know which rows in B have been examined.  0 = unexamined and 1 = examined
         int idx0 = B.col_idx[colB];
@@ -202,10 +293,15 @@ public class TriangularSolver_DSCC {
             int rowB = B.nz_rows[i];
 
             if( w[rowB] == 0 ) {
-                top = searchNzRowsInB_DFS(rowB,G,top,xi,w);
+                top = searchNzRowsInB_DFS(rowB,G,top,pinv,xi,w);
             }
         }
 
+        // unmark the rows which were visited
+        for (int i = top; i < G.numRows; i++) {
+            w[xi[i]] = 0;
+        }
+
         return top;
     }
 
@@ -213,26 +309,27 @@ public class TriangularSolver_DSCC {
      * Given the first row in B it performs a DFS seeing which elements in 'B' will be not zero.  A row=i in 'B' will
      * be not zero if any element in row=(j < i) in G is not zero
      */
-    private static int searchNzRowsInB_DFS(int rowB , DMatrixSparseCSC G , int top , int xi[], int w[] )
+    private static int searchNzRowsInB_DFS(int rowB , DMatrixSparseCSC G , int top , int pinv[], int xi[], int w[] )
     {
         int N = G.numRows;
         int head = 0; // put the selected row into the FILO stack
         xi[head] = rowB; // use the head of xi to store where the stack it's searching.  The tail is where
                          // the graph ordered list of rows in B is stored.
         while( head >= 0 ) {
-            // the column in G being examined
-            int G_col = xi[head];
+            // the node being examined and its column in G.  A negative column has no children
+            int G_node = xi[head];
+            int G_col = pinv != null ? pinv[G_node] : G_node;
 
-            if( w[G_col] == 0) {
-                w[G_col] = 1;
-                w[N+head] = G.col_idx[G_col]; // mark which child in the loop below it's examining
+            if( w[G_node] == 0) {
+                w[G_node] = 1;
+                w[N+head] = G_col < 0 ? 0 : G.col_idx[G_col]; // mark which child in the loop below it's examining
             }
 
             // See if there are any children which have yet to be examined
             boolean done = true;
 
             int idx0 = w[N+head];
-            int idx1 = G.col_idx[G_col+1];
+            int idx1 = G_col < 0 ? 0 : G.col_idx[G_col+1];
 
             for (int j = idx0; j < idx1; j++) {
                 int jrow = G.nz_rows[j];
@@ -246,7 +343,7 @@ public class TriangularSolver_DSCC {
 
             if( done ) {
                 head--;
-                xi[--top] = G_col;
+                xi[--top] = G_node;
             }
 
         }
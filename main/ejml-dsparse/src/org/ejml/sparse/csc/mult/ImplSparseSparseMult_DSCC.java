@@ -21,6 +21,8 @@ package org.ejml.sparse.csc.mult;
 import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
 
+import java.util.Arrays;
+
 import static org.ejml.sparse.csc.misc.ImplCommonOps_DSCC.checkDeclare;
 
 /**
@@ -79,6 +81,113 @@ public class ImplSparseSparseMult_DSCC {
     }
 
 
+    /**
+     * Computes the exact sparsity pattern of C = A*B without computing any values.  Afterwards C has
+     * the final number of non-zero elements and its row indices are sorted.  Use
+     * {@link #multNumeric(DMatrixSparseCSC, DMatrixSparseCSC, DMatrixSparseCSC, double[])} to compute the values.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C Storage for the pattern.  Reshaped.
+     * @param w (Optional) Storage for internal work.  null or array of length A.numRows
+     */
+    public static void multSymbolic(DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, int w[] )
+    {
+        w = checkDeclare(A.numRows, w, true);
+
+        // count the number of elements in each column so that C is only declared once
+        int total = 0;
+        for (int colB = 0; colB < B.numCols; colB++) {
+            int mark = colB+1;
+            int idx0 = B.col_idx[colB], idx1 = B.col_idx[colB+1];
+            for (int bi = idx0; bi < idx1; bi++) {
+                int rowB = B.nz_rows[bi];
+                int idxA0 = A.col_idx[rowB], idxA1 = A.col_idx[rowB+1];
+                for (int j = idxA0; j < idxA1; j++) {
+                    int row = A.nz_rows[j];
+                    if( w[row] != mark ) {
+                        w[row] = mark;
+                        total++;
+                    }
+                }
+            }
+        }
+
+        C.reshape(A.numRows,B.numCols,0);
+        C.growMaxLength(total,false);
+        C.nz_length = total;
+
+        // mark with negative numbers so the counts from above don't need to be cleared
+        int nz = 0;
+        C.col_idx[0] = 0;
+        for (int colB = 0; colB < B.numCols; colB++) {
+            int mark = -(colB+1);
+            int idx0 = B.col_idx[colB], idx1 = B.col_idx[colB+1];
+            int start = nz;
+            for (int bi = idx0; bi < idx1; bi++) {
+                int rowB = B.nz_rows[bi];
+                int idxA0 = A.col_idx[rowB], idxA1 = A.col_idx[rowB+1];
+                for (int j = idxA0; j < idxA1; j++) {
+                    int row = A.nz_rows[j];
+                    if( w[row] != mark ) {
+                        w[row] = mark;
+                        C.nz_rows[nz++] = row;
+                    }
+                }
+            }
+            Arrays.sort(C.nz_rows,start,nz);
+            C.col_idx[colB+1] = nz;
+        }
+        C.indicesSorted = true;
+    }
+
+    /**
+     * Computes the values in C = A*B using a pattern which was previously computed by
+     * {@link #multSymbolic(DMatrixSparseCSC, DMatrixSparseCSC, DMatrixSparseCSC, int[])}.  C's structure is not
+     * modified, so if the sparsity pattern of A or B has changed the symbolic step must be done again.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C (Input) Pattern of the results. (Output) Values are modified.
+     * @param x (Optional) Storage for internal work.  null or array of length A.numRows
+     */
+    public static void multNumeric(DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C, double x[] )
+    {
+        x = checkDeclare(A.numRows, x);
+        multNumeric(A,B,C,0,B.numCols,x,0);
+    }
+
+    /**
+     * Computes the values in columns col0 to col1-1 of C = A*B.  The dense work vector starts at 'offset' in x.
+     */
+    public static void multNumeric(DMatrixSparseCSC A, DMatrixSparseCSC B, DMatrixSparseCSC C,
+                                   int col0 , int col1, double x[] , int offset )
+    {
+        for (int colB = col0; colB < col1; colB++) {
+            int idxC0 = C.col_idx[colB], idxC1 = C.col_idx[colB+1];
+            if( idxC0 == idxC1 )
+                continue;
+
+            for (int i = idxC0; i < idxC1; i++) {
+                x[offset+C.nz_rows[i]] = 0;
+            }
+
+            int idx0 = B.col_idx[colB], idx1 = B.col_idx[colB+1];
+            for (int bi = idx0; bi < idx1; bi++) {
+                int rowB = B.nz_rows[bi];
+                double valB = B.nz_values[bi];
+                int idxA0 = A.col_idx[rowB], idxA1 = A.col_idx[rowB+1];
+                for (int j = idxA0; j < idxA1; j++) {
+                    x[offset+A.nz_rows[j]] += A.nz_values[j]*valB;
+                }
+            }
+
+            for (int i = idxC0; i < idxC1; i++) {
+                C.nz_values[i] = x[offset+C.nz_rows[i]];
+            }
+        }
+    }
+
     /**
      * Performs the performing operation x = x + A(:,i)*alpha
      */
@@ -133,4 +242,53 @@ public class ImplSparseSparseMult_DSCC {
             }
         }
     }
+
+    /**
+     * Performs matrix multiplication.  C = A<sup>T</sup>*B.  A is not explicitly transposed.
+     *
+     * @param A Sparse matrix
+     * @param B Dense matrix
+     * @param C Dense matrix.  Modified.
+     */
+    public static void multTransA(DMatrixSparseCSC A , DMatrixRMaj B , DMatrixRMaj C ) {
+        multTransA(A,B,C,0,A.numCols);
+    }
+
+    /**
+     * Computes rows col0 to col1-1 in C = A<sup>T</sup>*B.  Row 'j' in C only depends on column 'j' in A.
+     */
+    public static void multTransA(DMatrixSparseCSC A , DMatrixRMaj B , DMatrixRMaj C , int col0 , int col1 ) {
+        final int numColsB = B.numCols;
+
+        for (int j = col0; j < col1; j++) {
+            int idx0 = A.col_idx[j  ];
+            int idx1 = A.col_idx[j+1];
+
+            int indexC = j*numColsB;
+            int endC = indexC + numColsB;
+
+            if( numColsB == 1 ) {
+                // matrix-vector multiply
+                double sum = 0;
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    sum += A.nz_values[indexA]*B.data[A.nz_rows[indexA]];
+                }
+                C.data[indexC] = sum;
+                continue;
+            }
+
+            for (int i = indexC; i < endC; i++) {
+                C.data[i] = 0;
+            }
+
+            for (int indexA = idx0; indexA < idx1; indexA++) {
+                double valueA = A.nz_values[indexA];
+                int indexB = A.nz_rows[indexA]*numColsB;
+
+                for (int i = indexC; i < endC; i++) {
+                    C.data[i] += valueA*B.data[indexB++];
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Concurrent versions of the sparse matrix multiplication operations in {@link ImplSparseSparseMult_DSCC}.  The
+ * columns of the sparse matrix are split into contiguous ranges which contain approximately the same number of
+ * non-zero elements, so that the work is balanced even if a few columns are much denser than the rest.  Each
+ * range is processed by a different thread in the thread pool of {@link EjmlConcurrency}.
+ * </p>
+ *
+ * <p>
+ * In A*B every column of A contributes to every row of the output.  Each range accumulates into its own
+ * thread private copy of the output and the copies are summed at the end.  In A<sup>T</sup>*B each column of
+ * A produces one row of the output so ranges write directly to the output and no reduction is needed.  The
+ * numeric step of sparse-sparse multiplication is split by columns of the output, which are also independent.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplSparseSparseMult_MT_DSCC {
+
+    /**
+     * Performs matrix multiplication.  C = A*B.  Uses one range per thread in the pool.
+     *
+     * @param A Sparse matrix
+     * @param B Dense matrix
+     * @param C Dense matrix.  Modified.
+     * @param work (Optional) Storage for the thread private accumulators.  If null or too small then it is
+     *             declared internally.  Length of (threads-1)*C.numRows*C.numCols
+     */
+    public static void mult( DMatrixSparseCSC A , DMatrixRMaj B , DMatrixRMaj C , double work[] ) {
+        mult(A,B,C,EjmlConcurrency.getMaxThreads(),work);
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A*B
+     *
+     * @param A Sparse matrix
+     * @param B Dense matrix
+     * @param C Dense matrix.  Modified.
+     * @param numRanges Number of column ranges A is split into
+     * @param work (Optional) Storage for the thread private accumulators.  If null or too small then it is
+     *             declared internally.  Length of (numRanges-1)*C.numRows*C.numCols
+     */
+    public static void mult( final DMatrixSparseCSC A , final DMatrixRMaj B , final DMatrixRMaj C ,
+                             int numRanges , double work[] ) {
+        final int ranges[] = partitionColumns(A,numRanges);
+        final int numAccum = ranges.length-2;
+        final int length = C.numRows*C.numCols;
+
+        if( work == null || work.length < numAccum*length )
+            work = new double[numAccum*length];
+        final double accum[] = work;
+
+        // the first range writes directly into C and the others into their own accumulator
+        EjmlConcurrency.loopBlocks(0,ranges.length-1,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    double output[] = i == 0 ? C.data : accum;
+                    int offset = i == 0 ? 0 : (i-1)*length;
+                    Arrays.fill(output,offset,offset+length,0);
+                    multColumns(A,ranges[i],ranges[i+1],B,output,offset,C.numCols);
+                }
+            }
+        });
+
+        if( numAccum == 0 )
+            return;
+
+        // sum up the accumulators
+        EjmlConcurrency.loopBlocks(0,length,1024,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                for (int i = 0; i < numAccum; i++) {
+                    int offset = i*length;
+                    for (int j = start; j < end; j++) {
+                        C.data[j] += accum[offset+j];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * output = A(:,col0:col1-1)*B(col0:col1-1,:)
+     */
+    private static void multColumns( DMatrixSparseCSC A , int col0 , int col1 ,
+                                     DMatrixRMaj B , double output[] , int offset , int numColsC ) {
+        final int numColsB = B.numCols;
+
+        if( numColsB == 1 ) {
+            // matrix-vector multiply
+            for (int k = col0; k < col1; k++) {
+                double valueB = B.data[k];
+                int idx0 = A.col_idx[k], idx1 = A.col_idx[k+1];
+                for (int indexA = idx0; indexA < idx1; indexA++) {
+                    output[offset+A.nz_rows[indexA]] += A.nz_values[indexA]*valueB;
+                }
+            }
+            return;
+        }
+
+        for (int k = col0; k < col1; k++) {
+            int idx0 = A.col_idx[k], idx1 = A.col_idx[k+1];
+
+            for (int indexA = idx0; indexA < idx1; indexA++) {
+                double valueA = A.nz_values[indexA];
+
+                int indexB = k*numColsB;
+                int indexC = offset + A.nz_rows[indexA]*numColsC;
+                int end = indexB + numColsB;
+
+                while( indexB < end ) {
+                    output[indexC++] += valueA*B.data[indexB++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs matrix multiplication.  C = A<sup>T</sup>*B.  A is not explicitly transposed.
+     *
+     * @param A Sparse matrix
+     * @param B Dense matrix
+     * @param C Dense matrix.  Modified.
+     */
+    public static void multTransA( final DMatrixSparseCSC A , final DMatrixRMaj B , final DMatrixRMaj C ) {
+        final int ranges[] = partitionColumns(A,EjmlConcurrency.getMaxThreads()*EjmlConcurrency.TASKS_PER_THREAD);
+
+        EjmlConcurrency.loopBlocks(0,ranges.length-1,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    ImplSparseSparseMult_DSCC.multTransA(A,B,C,ranges[i],ranges[i+1]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the values in C = A*B using a pattern which was previously computed by
+     * {@link ImplSparseSparseMult_DSCC#multSymbolic}.  Columns of C are independent, so each range of columns
+     * is computed by a different thread using its own dense work vector.  Uses one range per thread in the pool.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C (Input) Pattern of the results. (Output) Values are modified.
+     * @param work (Optional) Storage for the dense work vectors.  If null or too small then it is
+     *             declared internally.  Length of threads*A.numRows
+     */
+    public static void multNumeric( DMatrixSparseCSC A , DMatrixSparseCSC B , DMatrixSparseCSC C , double work[] ) {
+        multNumeric(A,B,C,EjmlConcurrency.getMaxThreads(),work);
+    }
+
+    /**
+     * Computes the values in C = A*B using a pattern which was previously computed by
+     * {@link ImplSparseSparseMult_DSCC#multSymbolic}.
+     *
+     * @param A Matrix
+     * @param B Matrix
+     * @param C (Input) Pattern of the results. (Output) Values are modified.
+     * @param numRanges Number of column ranges C is split into
+     * @param work (Optional) Storage for the dense work vectors.  If null or too small then it is
+     *             declared internally.  Length of numRanges*A.numRows
+     */
+    public static void multNumeric( final DMatrixSparseCSC A , final DMatrixSparseCSC B , final DMatrixSparseCSC C ,
+                                    int numRanges , double work[] ) {
+        final int ranges[] = partitionColumns(C,numRanges);
+        final int length = A.numRows;
+
+        if( work == null || work.length < (ranges.length-1)*length )
+            work = new double[(ranges.length-1)*length];
+        final double x[] = work;
+
+        EjmlConcurrency.loopBlocks(0,ranges.length-1,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    ImplSparseSparseMult_DSCC.multNumeric(A,B,C,ranges[i],ranges[i+1],x,i*length);
+                }
+            }
+        });
+    }
+
+    /**
+     * Splits the columns of A into contiguous ranges which have approximately the same number of non-zero
+     * elements.  Range 'i' is from column ranges[i] to ranges[i+1]-1.
+     *
+     * @param A Sparse matrix
+     * @param numRanges Desired number of ranges.  The actual number can be less if there are not enough columns
+     * @return Array containing the first column in each range followed by the number of columns
+     */
+    public static int[] partitionColumns( DMatrixSparseCSC A , int numRanges ) {
+        numRanges = Math.max(1,Math.min(numRanges,A.numCols));
+
+        int ranges[] = new int[numRanges+1];
+        int total = A.col_idx[A.numCols];
+        int count = 1;
+        int col = 0;
+        for (int i = 1; i < numRanges; i++) {
+            long target = (long)total*i/numRanges;
+            // find the first column which starts at or after the target
+            int lo = col, hi = A.numCols;
+            while( lo < hi ) {
+                int mid = (lo+hi) >>> 1;
+                if( A.col_idx[mid] < target )
+                    lo = mid+1;
+                else
+                    hi = mid;
+            }
+            // ranges must contain at least one column
+            if( lo > ranges[count-1] && lo < A.numCols ) {
+                ranges[count++] = lo;
+                col = lo;
+            }
+        }
+        ranges[count++] = A.numCols;
+
+        return count == ranges.length ? ranges : Arrays.copyOf(ranges,count);
+    }
+}
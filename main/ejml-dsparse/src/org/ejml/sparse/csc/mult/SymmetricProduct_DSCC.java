@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.EjmlConcurrency;
+import org.ejml.EjmlParameters;
+import org.ejml.data.DMatrixSparseCSC;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes the lower or upper triangle of the symmetric products A<sup>T</sup>*A (inner) and
+ * A*A<sup>T</sup> (outer).  Only half of the product is computed and A is not explicitly transposed.  Instead,
+ * the row structure of A is found.  It's a list of indexes into A for each row and no values are copied.  The
+ * upper triangle can be passed directly to {@link org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC}.
+ * </p>
+ *
+ * <p>
+ * Like {@link ImplSparseSparseMult_DSCC#multSymbolic}, the work is split into a symbolic step, which finds the
+ * row structure of A and the exact pattern of the output, and a numeric step which only computes values.  If
+ * the same product is computed many times with the same sparsity pattern then the symbolic step only needs to
+ * be done once.  Columns of the output are independent and large problems are computed concurrently.
+ * </p>
+ *
+ * <p>
+ * Column j of the inner product is the sum of A(r,j)*A(r,:)<sup>T</sup> for every row r in column j of A.  Column
+ * j of the outer product is the sum of A(j,k)*A(:,k) for every column k in row j of A.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SymmetricProduct_DSCC {
+
+    // true for the lower triangle and false for the upper triangle
+    boolean lower;
+
+    // row structure of A.  Elements in row r are from rowIdx[r] to rowIdx[r+1]-1 and are ordered by column
+    int rowIdx[] = new int[0];
+    // index of the element in A
+    int rowNz[] = new int[0];
+    // column of the element
+    int rowCol[] = new int[0];
+    // location of each element in A inside the row structure
+    int rowPos[] = new int[0];
+
+    // number of multiply-add operations in the numeric step
+    long operations;
+
+    // if > 0 then the numeric step uses this many ranges of columns
+    int numRanges = -1;
+
+    // work space
+    int w[] = new int[0];
+    double x[] = new double[0];
+
+    /**
+     * @param lower true to compute the lower triangle and false for the upper triangle
+     */
+    public SymmetricProduct_DSCC( boolean lower ) {
+        this.lower = lower;
+    }
+
+    /**
+     * Finds the pattern of the inner product, C = A<sup>T</sup>*A
+     *
+     * @param A Matrix. Not modified.
+     * @param C Storage for the pattern. Reshaped.
+     */
+    public void innerSymbolic( DMatrixSparseCSC A , DMatrixSparseCSC C ) {
+        findRowStructure(A);
+
+        final int N = A.numCols;
+        if( w.length < N )
+            w = new int[N];
+        Arrays.fill(w,0,N,0);
+
+        // first count the number of elements in each column of C, then fill in the pattern
+        C.reshape(N,N,0);
+        operations = 0;
+        int total = 0;
+        for (int j = 0; j < N; j++) {
+            int mark = j+1;
+            for (int p = A.col_idx[j]; p < A.col_idx[j+1]; p++) {
+                int r = A.nz_rows[p];
+                int q0 = lower ? rowPos[p] : rowIdx[r];
+                int q1 = lower ? rowIdx[r+1] : rowPos[p]+1;
+                operations += q1-q0;
+                for (int q = q0; q < q1; q++) {
+                    int i = rowCol[q];
+                    if( w[i] != mark ) {
+                        w[i] = mark;
+                        total++;
+                    }
+                }
+            }
+        }
+        C.growMaxLength(total,false);
+        C.nz_length = total;
+
+        int nz = 0;
+        C.col_idx[0] = 0;
+        for (int j = 0; j < N; j++) {
+            int mark = -(j+1);
+            int start = nz;
+            for (int p = A.col_idx[j]; p < A.col_idx[j+1]; p++) {
+                int r = A.nz_rows[p];
+                int q0 = lower ? rowPos[p] : rowIdx[r];
+                int q1 = lower ? rowIdx[r+1] : rowPos[p]+1;
+                for (int q = q0; q < q1; q++) {
+                    int i = rowCol[q];
+                    if( w[i] != mark ) {
+                        w[i] = mark;
+                        C.nz_rows[nz++] = i;
+                    }
+                }
+            }
+            Arrays.sort(C.nz_rows,start,nz);
+            C.col_idx[j+1] = nz;
+        }
+        C.indicesSorted = true;
+    }
+
+    /**
+     * Computes the values of the inner product, C = A<sup>T</sup>*A, using the pattern found by
+     * {@link #innerSymbolic}.  A must have the same sparsity pattern as when the symbolic step was done.
+     *
+     * @param A Matrix. Not modified.
+     * @param C (Input) Pattern of the result. (Output) Values are modified.
+     */
+    public void innerNumeric( final DMatrixSparseCSC A , final DMatrixSparseCSC C ) {
+        if( C.numCols != A.numCols || C.numRows != A.numCols )
+            throw new IllegalArgumentException("Inconsistent matrix shapes");
+
+        numeric(C, new ColumnTask() {
+            @Override
+            public void process(int col0, int col1, int offset) {
+                for (int j = col0; j < col1; j++) {
+                    int idxC0 = C.col_idx[j], idxC1 = C.col_idx[j+1];
+                    for (int i = idxC0; i < idxC1; i++) {
+                        x[offset+C.nz_rows[i]] = 0;
+                    }
+                    for (int p = A.col_idx[j]; p < A.col_idx[j+1]; p++) {
+                        int r = A.nz_rows[p];
+                        double valA = A.nz_values[p];
+                        int q0 = lower ? rowPos[p] : rowIdx[r];
+                        int q1 = lower ? rowIdx[r+1] : rowPos[p]+1;
+                        for (int q = q0; q < q1; q++) {
+                            x[offset+rowCol[q]] += valA*A.nz_values[rowNz[q]];
+                        }
+                    }
+                    for (int i = idxC0; i < idxC1; i++) {
+                        C.nz_values[i] = x[offset+C.nz_rows[i]];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the pattern of the outer product, C = A*A<sup>T</sup>
+     *
+     * @param A Matrix. Not modified.
+     * @param C Storage for the pattern. Reshaped.
+     */
+    public void outerSymbolic( DMatrixSparseCSC A , DMatrixSparseCSC C ) {
+        findRowStructure(A);
+
+        final int M = A.numRows;
+        if( w.length < M )
+            w = new int[M];
+        Arrays.fill(w,0,M,0);
+
+        C.reshape(M,M,0);
+        operations = 0;
+        int total = 0;
+        for (int j = 0; j < M; j++) {
+            int mark = j+1;
+            for (int q = rowIdx[j]; q < rowIdx[j+1]; q++) {
+                int k = rowCol[q];
+                for (int t = A.col_idx[k]; t < A.col_idx[k+1]; t++) {
+                    int i = A.nz_rows[t];
+                    if( lower ? i < j : i > j )
+                        continue;
+                    operations++;
+                    if( w[i] != mark ) {
+                        w[i] = mark;
+                        total++;
+                    }
+                }
+            }
+        }
+        C.growMaxLength(total,false);
+        C.nz_length = total;
+
+        int nz = 0;
+        C.col_idx[0] = 0;
+        for (int j = 0; j < M; j++) {
+            int mark = -(j+1);
+            int start = nz;
+            for (int q = rowIdx[j]; q < rowIdx[j+1]; q++) {
+                int k = rowCol[q];
+                for (int t = A.col_idx[k]; t < A.col_idx[k+1]; t++) {
+                    int i = A.nz_rows[t];
+                    if( lower ? i < j : i > j )
+                        continue;
+                    if( w[i] != mark ) {
+                        w[i] = mark;
+                        C.nz_rows[nz++] = i;
+                    }
+                }
+            }
+            Arrays.sort(C.nz_rows,start,nz);
+            C.col_idx[j+1] = nz;
+        }
+        C.indicesSorted = true;
+    }
+
+    /**
+     * Computes the values of the outer product, C = A*A<sup>T</sup>, using the pattern found by
+     * {@link #outerSymbolic}.  A must have the same sparsity pattern as when the symbolic step was done.
+     *
+     * @param A Matrix. Not modified.
+     * @param C (Input) Pattern of the result. (Output) Values are modified.
+     */
+    public void outerNumeric( final DMatrixSparseCSC A , final DMatrixSparseCSC C ) {
+        if( C.numCols != A.numRows || C.numRows != A.numRows )
+            throw new IllegalArgumentException("Inconsistent matrix shapes");
+
+        numeric(C, new ColumnTask() {
+            @Override
+            public void process(int col0, int col1, int offset) {
+                for (int j = col0; j < col1; j++) {
+                    int idxC0 = C.col_idx[j], idxC1 = C.col_idx[j+1];
+                    for (int i = idxC0; i < idxC1; i++) {
+                        x[offset+C.nz_rows[i]] = 0;
+                    }
+                    for (int q = rowIdx[j]; q < rowIdx[j+1]; q++) {
+                        int k = rowCol[q];
+                        double valA = A.nz_values[rowNz[q]];
+                        int t0 = A.col_idx[k], t1 = A.col_idx[k+1];
+                        if( A.indicesSorted ) {
+                            // the rows in column k are sorted so the triangle is on one side of (j,k)
+                            if( lower )
+                                t0 = rowNz[q];
+                            else
+                                t1 = rowNz[q]+1;
+                            for (int t = t0; t < t1; t++) {
+                                x[offset+A.nz_rows[t]] += A.nz_values[t]*valA;
+                            }
+                        } else {
+                            for (int t = t0; t < t1; t++) {
+                                int i = A.nz_rows[t];
+                                if( lower ? i >= j : i <= j )
+                                    x[offset+i] += A.nz_values[t]*valA;
+                            }
+                        }
+                    }
+                    for (int i = idxC0; i < idxC1; i++) {
+                        C.nz_values[i] = x[offset+C.nz_rows[i]];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the numeric step on ranges of columns in C, concurrently if it's large enough.  Each range has its
+     * own dense work vector inside of 'x'.
+     */
+    private void numeric( final DMatrixSparseCSC C , final ColumnTask task ) {
+        int ranges = numRanges;
+        if( ranges <= 0 ) {
+            boolean concurrent = EjmlConcurrency.isUseConcurrent() &&
+                    operations >= EjmlParameters.MULT_CONCURRENT_SWITCH;
+            ranges = concurrent ? EjmlConcurrency.getMaxThreads() : 1;
+        }
+
+        final int columns[] = ImplSparseSparseMult_MT_DSCC.partitionColumns(C,ranges);
+        final int numBlocks = columns.length-1;
+        if( x.length < numBlocks*C.numRows )
+            x = new double[numBlocks*C.numRows];
+
+        if( numBlocks == 1 ) {
+            task.process(0,C.numCols,0);
+            return;
+        }
+
+        EjmlConcurrency.loopBlocks(0,numBlocks,1,new EjmlConcurrency.RangeTask() {
+            @Override
+            public void process(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    task.process(columns[i],columns[i+1],i*C.numRows);
+                }
+            }
+        });
+    }
+
+    /**
+     * Builds the row structure of A.  Since the columns are processed in order each row is sorted by column.
+     */
+    void findRowStructure( DMatrixSparseCSC A ) {
+        final int M = A.numRows;
+        final int nz = A.nz_length;
+        if( rowIdx.length < M+1 )
+            rowIdx = new int[M+1];
+        if( rowNz.length < nz ) {
+            rowNz = new int[nz];
+            rowCol = new int[nz];
+            rowPos = new int[nz];
+        }
+        if( w.length < M )
+            w = new int[M];
+
+        Arrays.fill(rowIdx,0,M+1,0);
+        for (int p = 0; p < nz; p++) {
+            rowIdx[A.nz_rows[p]+1]++;
+        }
+        for (int r = 0; r < M; r++) {
+            rowIdx[r+1] += rowIdx[r];
+            w[r] = rowIdx[r];
+        }
+        for (int col = 0; col < A.numCols; col++) {
+            for (int p = A.col_idx[col]; p < A.col_idx[col+1]; p++) {
+                int q = w[A.nz_rows[p]]++;
+                rowNz[q] = p;
+                rowCol[q] = col;
+                rowPos[p] = q;
+            }
+        }
+    }
+
+    public boolean isLower() {
+        return lower;
+    }
+
+    private interface ColumnTask {
+        /**
+         * Computes columns col0 to col1-1 using the work vector which starts at 'offset'
+         */
+        void process( int col0 , int col1 , int offset );
+    }
+}
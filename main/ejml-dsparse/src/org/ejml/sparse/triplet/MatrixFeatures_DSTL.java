@@ -30,10 +30,9 @@ public class MatrixFeatures_DSTL {
             return false;
 
         for (int i = 0; i < a.nz_length; i++) {
-            DMatrixSparseTriplet.Element ea = a.nz_data[i];
-            DMatrixSparseTriplet.Element eb = b.nz_data[b.nz_index(ea.row, ea.col)];
+            int index = b.nz_index(a.nz_rows[i], a.nz_cols[i]);
 
-            if( eb == null || ea.value != eb.value )
+            if( index < 0 || a.nz_values[i] != b.nz_values[index] )
                 return false;
         }
         return true;
@@ -44,10 +43,9 @@ public class MatrixFeatures_DSTL {
             return false;
 
         for (int i = 0; i < a.nz_length; i++) {
-            DMatrixSparseTriplet.Element ea = a.nz_data[i];
-            DMatrixSparseTriplet.Element eb = b.nz_data[b.nz_index(ea.row, ea.col)];
+            int index = b.nz_index(a.nz_rows[i], a.nz_cols[i]);
 
-            if( eb == null || Math.abs(ea.value-eb.value) > tol )
+            if( index < 0 || Math.abs(a.nz_values[i]-b.nz_values[index]) > tol )
                 return false;
         }
         return true;
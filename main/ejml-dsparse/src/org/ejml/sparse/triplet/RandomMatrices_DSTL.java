@@ -61,13 +61,11 @@ public class RandomMatrices_DSTL {
         DMatrixSparseTriplet ret = new DMatrixSparseTriplet(numRows,numCols,nz_total);
 
         for (int i = 0; i < nz_total; i++) {
-            int row = selected[i]/numCols;
-            int col = selected[i]%numCols;
-
-            double value = rand.nextDouble()*(max-min)+min;
-
-            ret.addItem(row,col, value);
+            ret.nz_rows[i] = selected[i]/numCols;
+            ret.nz_cols[i] = selected[i]%numCols;
+            ret.nz_values[i] = rand.nextDouble()*(max-min)+min;
         }
+        ret.nz_length = nz_total;
 
         return ret;
     }
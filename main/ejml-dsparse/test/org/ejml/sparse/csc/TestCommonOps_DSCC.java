@@ -168,6 +168,99 @@ public class TestCommonOps_DSCC {
         }
     }
 
+    @Test
+    public void multSymbolic_multNumeric() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(5, 6, 15, rand);
+        DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(6, 4, 12, rand);
+        DMatrixSparseCSC expected = new DMatrixSparseCSC(5,4,0);
+        CommonOps_DSCC.mult(A,B,expected);
+
+        DMatrixSparseCSC found = new DMatrixSparseCSC(1,1,0);
+        CommonOps_DSCC.multSymbolic(A,B,found,null);
+        CommonOps_DSCC.multNumeric(A,B,found,null);
+        assertTrue(MatrixFeatures_DSCC.isEqualsSort(expected,found,UtilEjml.TEST_F64));
+
+        // bad shapes
+        try {
+            CommonOps_DSCC.multSymbolic(A,A,found,null);
+            fail("exception expected");
+        } catch( IllegalArgumentException ignore ){}
+        try {
+            CommonOps_DSCC.multNumeric(A,B,new DMatrixSparseCSC(5,5,0),null);
+            fail("exception expected");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    @Test
+    public void multInner_multOuter() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(7, 5, 15, rand);
+        DMatrixRMaj denseA = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        DMatrixRMaj inner = new DMatrixRMaj(5,5);
+        DMatrixRMaj outer = new DMatrixRMaj(7,7);
+        CommonOps_DDRM.multInner(denseA,inner);
+        CommonOps_DDRM.multOuter(denseA,outer);
+
+        for( boolean lower : new boolean[]{true,false}) {
+            DMatrixSparseCSC found = new DMatrixSparseCSC(1,1,0);
+            CommonOps_DSCC.multInner(A,found,lower);
+            checkTriangle(inner,found,lower);
+            CommonOps_DSCC.multOuter(A,found,lower);
+            checkTriangle(outer,found,lower);
+        }
+    }
+
+    private void checkTriangle( DMatrixRMaj expected , DMatrixSparseCSC found , boolean lower ) {
+        assertEquals(expected.numRows,found.numRows);
+        assertEquals(expected.numCols,found.numCols);
+        for (int row = 0; row < expected.numRows; row++) {
+            for (int col = 0; col < expected.numCols; col++) {
+                if( lower ? row >= col : row <= col )
+                    assertEquals(expected.get(row,col),found.get(row,col),UtilEjml.TEST_F64);
+                else
+                    assertEquals(0,found.get(row,col),0);
+            }
+        }
+    }
+
+    @Test
+    public void multTransA_s_d_shapes() {
+        check_s_d_multTransA(
+                RandomMatrices_DSCC.rectangle(6, 5, 5, rand),
+                RandomMatrices_DDRM.rectangle(6, 4, rand),
+                RandomMatrices_DDRM.rectangle(5, 4, rand), false);
+        check_s_d_multTransA(
+                RandomMatrices_DSCC.rectangle(6, 5, 5, rand),
+                RandomMatrices_DDRM.rectangle(5, 4, rand),
+                RandomMatrices_DDRM.rectangle(5, 4, rand), true);
+        check_s_d_multTransA(
+                RandomMatrices_DSCC.rectangle(6, 5, 5, rand),
+                RandomMatrices_DDRM.rectangle(6, 4, rand),
+                RandomMatrices_DDRM.rectangle(6, 4, rand), true);
+        check_s_d_multTransA(
+                RandomMatrices_DSCC.rectangle(6, 5, 5, rand),
+                RandomMatrices_DDRM.rectangle(6, 4, rand),
+                RandomMatrices_DDRM.rectangle(5, 3, rand), true);
+    }
+
+    private void check_s_d_multTransA(DMatrixSparseCSC A , DMatrixRMaj B, DMatrixRMaj found, boolean exception ) {
+        try {
+            CommonOps_DSCC.multTransA(A,B,found);
+
+            if( exception )
+                fail("exception expected");
+            DMatrixRMaj denseA = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+            DMatrixRMaj expected = new DMatrixRMaj(A.numCols,B.numCols);
+
+            CommonOps_DDRM.multTransA(denseA,B,expected);
+
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+
+        } catch( RuntimeException ignore){
+            if( !exception )
+                fail("no exception expected");
+        }
+    }
+
     @Test
     public void add_shapes() {
         check_add(
@@ -444,4 +537,25 @@ public class TestCommonOps_DSCC {
         }
         assertFalse(B.indicesSorted);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void permuteSymmetric() {
+        int perm[] = new int[]{4,0,3,1,2};
+        int permInv[] = new int[5];
+        CommonOps_DSCC.permutationInverse(perm,permInv);
+
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(5,8,rand);
+        DMatrixSparseCSC B = new DMatrixSparseCSC(1,1,1);
+
+        CommonOps_DSCC.permuteSymmetric(A, permInv, B, null);
+
+        for (int row = 0; row < 5; row++) {
+            for (int col = 0; col < 5; col++) {
+                if( row <= col )
+                    assertEquals(A.get(perm[row],perm[col]), B.get(row,col), UtilEjml.TEST_F64);
+                else
+                    assertEquals(0, B.get(row,col), UtilEjml.TEST_F64);
+            }
+        }
+    }
+}
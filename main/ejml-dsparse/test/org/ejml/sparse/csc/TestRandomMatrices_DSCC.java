@@ -19,7 +19,10 @@
 package org.ejml.sparse.csc;
 
 import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
 import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
 import org.junit.Test;
 
 import java.util.Random;
@@ -82,4 +85,18 @@ public class TestRandomMatrices_DSCC {
 
         }
     }
+
+    @Test
+    public void symmetricPosDef() {
+        for (int trial = 0; trial < 10; trial++) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(8, 15, rand);
+
+            assertEquals(8,A.numRows);
+            assertEquals(8,A.numCols);
+
+            DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+            assertTrue(MatrixFeatures_DDRM.isSymmetric(Ad, UtilEjml.TEST_F64));
+            assertTrue(MatrixFeatures_DDRM.isPositiveDefinite(Ad));
+        }
+    }
 }
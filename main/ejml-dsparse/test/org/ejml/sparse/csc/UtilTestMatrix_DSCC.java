@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.ops.ConvertDMatrixSparse;
+
+/**
+ * Sparse matrices with a known structure which are used by several tests
+ *
+ * @author Peter Abeles
+ */
+public class UtilTestMatrix_DSCC {
+
+    /**
+     * Five point finite difference Laplacian on an n by n grid.  Symmetric positive definite.
+     */
+    public static DMatrixSparseCSC laplacian2D( int n ) {
+        return convectionDiffusion(n,0);
+    }
+
+    /**
+     * Laplacian with a first order convection term, which makes it non-symmetric
+     */
+    public static DMatrixSparseCSC convectionDiffusion( int n , double c ) {
+        int N = n*n;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(N,N,5*N);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int row = i*n+j;
+                T.addItem(row,row,4);
+                if( i > 0 ) T.addItem(row,row-n,-1-c);
+                if( i < n-1 ) T.addItem(row,row+n,-1+c);
+                if( j > 0 ) T.addItem(row,row-1,-1-c);
+                if( j < n-1 ) T.addItem(row,row+1,-1+c);
+            }
+        }
+        return ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+    }
+}
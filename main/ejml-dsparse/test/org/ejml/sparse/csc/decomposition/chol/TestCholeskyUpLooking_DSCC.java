@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.decomposition.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCholeskyUpLooking_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void decompose_random() {
+        for (int trial = 0; trial < 20; trial++) {
+            int N = rand.nextInt(20)+1;
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(N, N*2, rand);
+
+            CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+            assertTrue(alg.decompose(A));
+
+            checkDecomposition(A, alg.getT(null));
+        }
+    }
+
+    /**
+     * Only the upper triangle should be read
+     */
+    @Test
+    public void decompose_upperOnly() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(10, 20, rand);
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        DMatrixRMaj Ud = Ad.copy();
+        for (int row = 1; row < 10; row++) {
+            for (int col = 0; col < row; col++) {
+                Ud.set(row,col,0);
+            }
+        }
+        DMatrixSparseCSC U = ConvertDMatrixSparse.convert(Ud,(DMatrixSparseCSC)null);
+
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(U));
+
+        checkDecomposition(A, alg.getT(null));
+    }
+
+    @Test
+    public void notPositiveDefinite() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(10, 20, rand);
+        A.set(5,5,-1);
+
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertFalse(alg.decompose(A));
+
+        // it should recover and decompose a valid matrix
+        A = RandomMatrices_DSCC.symmetricPosDef(10, 20, rand);
+        assertTrue(alg.decompose(A));
+        checkDecomposition(A, alg.getT(null));
+    }
+
+    /**
+     * The number of elements in each column of L should match what the symbolic decomposition predicted
+     */
+    @Test
+    public void columnCounts() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(15, 25, rand);
+
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+
+        DMatrixSparseCSC L = alg.getT(null);
+        int counts[] = alg.getColumnCounts();
+        for (int col = 0; col < 15; col++) {
+            assertEquals(counts[col], L.col_idx[col+1]-L.col_idx[col]);
+        }
+        assertTrue(CommonOps_DSCC.checkIndicesSorted(L));
+    }
+
+    /**
+     * Lock the structure and decompose a matrix with the same pattern but different values
+     */
+    @Test
+    public void structureLocked() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(12, 20, rand);
+
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        alg.setStructureLocked(true);
+        assertTrue(alg.decompose(A));
+
+        // same structure.  Adding to the diagonal keeps it positive definite
+        DMatrixSparseCSC B = A.copy();
+        for (int i = 0; i < B.nz_length; i++) {
+            B.nz_values[i] *= 2;
+        }
+        for (int i = 0; i < 12; i++) {
+            B.set(i,i,B.get(i,i)+rand.nextDouble());
+        }
+        assertTrue(MatrixFeatures_DSCC.isSameStructure(A,B));
+
+        assertTrue(alg.decompose(B));
+        checkDecomposition(B, alg.getT(null));
+    }
+
+    @Test
+    public void computeDeterminant() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(8, 15, rand);
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+
+        CholeskyUpLooking_DSCC alg = new CholeskyUpLooking_DSCC();
+        assertTrue(alg.decompose(A));
+
+        double expected = CommonOps_DDRM.det(Ad);
+        assertEquals(expected, alg.computeDeterminant().real, UtilEjml.TEST_F64*Math.abs(expected));
+    }
+
+    private void checkDecomposition( DMatrixSparseCSC A , DMatrixSparseCSC L ) {
+        assertTrue(MatrixFeatures_DSCC.isLowerTriangle(L,0, UtilEjml.TEST_F64));
+
+        DMatrixRMaj Ld = ConvertDMatrixSparse.convert(L,(DMatrixRMaj)null);
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        DMatrixRMaj found = new DMatrixRMaj(Ad.numRows,Ad.numCols);
+        CommonOps_DDRM.multTransB(Ld,Ld,found);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(Ad,found, UtilEjml.TEST_F64));
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.lu;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.FillReductionFactory_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLuLeftLooking_DSCC {
+
+    Random rand = new Random(234);
+
+    /**
+     * Creates a random non-singular matrix which requires row pivots
+     */
+    public static DMatrixSparseCSC createNonSingular( int N , Random rand ) {
+        int perm[] = new int[N];
+        for (int i = 0; i < N; i++) {
+            perm[i] = i;
+        }
+        for (int i = N-1; i > 0; i--) {
+            int j = rand.nextInt(i+1);
+            int tmp = perm[i]; perm[i] = perm[j]; perm[j] = tmp;
+        }
+        DMatrixSparseCSC P = CommonOps_DSCC.permutationMatrix(perm,null);
+        DMatrixSparseCSC R = RandomMatrices_DSCC.rectangle(N,N,N*2,-0.5,0.5,rand);
+        DMatrixSparseCSC A = new DMatrixSparseCSC(N,N,0);
+        CommonOps_DSCC.add(4,P,1,R,A,null,null);
+        return A;
+    }
+
+    @Test
+    public void decompose() {
+        for( FillReducing type : new FillReducing[]{FillReducing.NONE,FillReducing.COLAMD,FillReducing.AMD}) {
+            for (int trial = 0; trial < 20; trial++) {
+                int N = rand.nextInt(25)+1;
+                DMatrixSparseCSC A = createNonSingular(N,rand);
+
+                LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC(FillReductionFactory_DSCC.create(type));
+                assertTrue(alg.decompose(A));
+                assertFalse(alg.isSingular());
+
+                checkDecomposition(A, alg);
+            }
+        }
+    }
+
+    /**
+     * Checks to see if P*A*Q = L*U
+     */
+    private void checkDecomposition(DMatrixSparseCSC A, LuLeftLooking_DSCC alg) {
+        int N = A.numCols;
+        DMatrixRMaj L = ConvertDMatrixSparse.convert(alg.getLower(null),(DMatrixRMaj)null);
+        DMatrixRMaj U = ConvertDMatrixSparse.convert(alg.getUpper(null),(DMatrixRMaj)null);
+        DMatrixRMaj P = ConvertDMatrixSparse.convert(alg.getPivot(null),(DMatrixRMaj)null);
+
+        assertTrue(MatrixFeatures_DDRM.isLowerTriangle(L,0,0));
+        assertTrue(MatrixFeatures_DDRM.isUpperTriangle(U,0,0));
+        for (int i = 0; i < N; i++) {
+            assertEquals(1,L.get(i,i),0);
+        }
+
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        int q[] = alg.getColumnOrdering();
+        DMatrixRMaj AQ = new DMatrixRMaj(N,N);
+        for (int i = 0; i < N; i++) {
+            for (int k = 0; k < N; k++) {
+                AQ.set(i,k,Ad.get(i,q[k]));
+            }
+        }
+
+        DMatrixRMaj PAQ = new DMatrixRMaj(N,N);
+        CommonOps_DDRM.mult(P,AQ,PAQ);
+        DMatrixRMaj LU = new DMatrixRMaj(N,N);
+        CommonOps_DDRM.mult(L,U,LU);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(PAQ,LU, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Makes sure the pivot threshold is obeyed.  All elements in L must be less than or equal to 1/tol
+     */
+    @Test
+    public void threshold() {
+        for( double tol : new double[]{1.0,0.1}) {
+            DMatrixSparseCSC A = createNonSingular(30,rand);
+            LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC(null,tol);
+            assertTrue(alg.decompose(A));
+
+            DMatrixSparseCSC L = alg.getL();
+            for (int i = 0; i < L.nz_length; i++) {
+                assertTrue(Math.abs(L.nz_values[i]) <= 1.0/tol+UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    /**
+     * With a small threshold the diagonal should be selected when it's not zero
+     */
+    @Test
+    public void threshold_diagonal() {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(10,10,30);
+        for (int i = 0; i < 10; i++) {
+            T.addItem(i,i,0.01*(i+1));
+            if( i > 0 ) {
+                T.addItem(i-1,i,1);
+                T.addItem(i,i-1,1);
+            }
+        }
+        T.addItem(9,0,2);
+        DMatrixSparseCSC A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+
+        LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC(null,1e-6);
+        assertTrue(alg.decompose(A));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i,alg.getPinv()[i]);
+        }
+        checkDecomposition(A,alg);
+
+        // conventional partial pivoting will select the largest element in the first column
+        alg = new LuLeftLooking_DSCC(null,1.0);
+        assertTrue(alg.decompose(A));
+        assertEquals(0,alg.getPinv()[9]);
+        checkDecomposition(A,alg);
+    }
+
+    @Test
+    public void singular() {
+        DMatrixSparseCSC A = createNonSingular(10,rand);
+        // zero out a column
+        DMatrixSparseCSC B = new DMatrixSparseCSC(10,10,0);
+        DMatrixSparseCSC D = CommonOps_DSCC.identity(10);
+        D.nz_values[4] = 0;
+        CommonOps_DSCC.mult(A,D,B);
+
+        LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC();
+        assertFalse(alg.decompose(B));
+        assertTrue(alg.isSingular());
+    }
+
+    @Test
+    public void computeDeterminant() {
+        for( FillReducing type : new FillReducing[]{FillReducing.NONE,FillReducing.COLAMD}) {
+            for (int trial = 0; trial < 10; trial++) {
+                int N = rand.nextInt(10)+1;
+                DMatrixSparseCSC A = createNonSingular(N,rand);
+
+                LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC(FillReductionFactory_DSCC.create(type));
+                assertTrue(alg.decompose(A));
+
+                double expected = CommonOps_DDRM.det(ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null));
+                double found = alg.computeDeterminant().real;
+                assertEquals(expected,found,Math.abs(expected)*UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    /**
+     * Decompose a matrix then refactor one with the same pattern but different values
+     */
+    @Test
+    public void refactor() {
+        for (int trial = 0; trial < 10; trial++) {
+            int N = rand.nextInt(25)+1;
+            DMatrixSparseCSC A = createNonSingular(N,rand);
+
+            LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC(FillReductionFactory_DSCC.create(FillReducing.COLAMD));
+            assertTrue(alg.decompose(A));
+            int pinv[] = alg.getPinv().clone();
+
+            DMatrixSparseCSC B = A.copy();
+            for (int i = 0; i < B.nz_length; i++) {
+                B.nz_values[i] *= 1.0 + 0.01*rand.nextGaussian();
+            }
+            assertTrue(alg.refactor(B));
+            checkDecomposition(B,alg);
+
+            // the pivots should not have changed
+            for (int i = 0; i < N; i++) {
+                assertEquals(pinv[i],alg.getPinv()[i]);
+            }
+        }
+    }
+
+    /**
+     * If the new values make the old pivots unacceptable it should fail
+     */
+    @Test
+    public void refactor_badPivot() {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(3,3,4);
+        T.addItem(0,0,1);
+        T.addItem(1,0,0.1);
+        T.addItem(1,1,2);
+        T.addItem(2,2,3);
+        DMatrixSparseCSC A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+
+        LuLeftLooking_DSCC alg = new LuLeftLooking_DSCC(null,0.5);
+        assertTrue(alg.decompose(A));
+
+        // same pattern but now the old pivot in the first column is too small
+        DMatrixSparseCSC B = A.copy();
+        B.nz_values[0] = 0.01;
+        B.nz_values[1] = 5;
+        assertFalse(alg.refactor(B));
+
+        assertTrue(alg.decompose(B));
+        checkDecomposition(B,alg);
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.decomposition.qr;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.factory.FillReductionFactory_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestQrLeftLookingDecomposition_DSCC {
+
+    Random rand = new Random(234);
+
+    /**
+     * Creates a random sparse tall matrix with full column rank.  The rows are shuffled so that row
+     * permutations are required.
+     */
+    public static DMatrixSparseCSC createFullRank( int m , int n , int nz , Random rand ) {
+        int rows[] = new int[m];
+        for (int i = 0; i < m; i++) {
+            rows[i] = i;
+        }
+        for (int i = m-1; i > 0; i--) {
+            int j = rand.nextInt(i+1);
+            int tmp = rows[i]; rows[i] = rows[j]; rows[j] = tmp;
+        }
+
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(m,n,nz+n);
+        for (int i = 0; i < n; i++) {
+            T.addItem(rows[i],i,2+rand.nextDouble());
+        }
+        for (int i = 0; i < nz; i++) {
+            T.addItem(rand.nextInt(m),rand.nextInt(n),rand.nextDouble()-0.5);
+        }
+        return ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+    }
+
+    @Test
+    public void decompose() {
+        for( FillReducing type : new FillReducing[]{FillReducing.NONE,FillReducing.COLAMD}) {
+            for (int trial = 0; trial < 20; trial++) {
+                int n = rand.nextInt(15)+1;
+                int m = n + rand.nextInt(20);
+                DMatrixSparseCSC A = createFullRank(m,n,m*2,rand);
+
+                QrLeftLookingDecomposition_DSCC alg =
+                        new QrLeftLookingDecomposition_DSCC(FillReductionFactory_DSCC.create(type));
+                assertTrue(alg.decompose(A));
+                assertEquals(m,alg.getNumRowsV());
+
+                checkDecomposition(A,alg,true);
+                checkDecomposition(A,alg,false);
+            }
+        }
+    }
+
+    /**
+     * Checks to see if A*Q<sub>col</sub> = Q*R and that Q is orthogonal
+     */
+    private void checkDecomposition(DMatrixSparseCSC A, QrLeftLookingDecomposition_DSCC alg, boolean compact) {
+        int m = A.numRows, n = A.numCols;
+        DMatrixRMaj Q = ConvertDMatrixSparse.convert(alg.getQ(null,compact),(DMatrixRMaj)null);
+        DMatrixRMaj R = ConvertDMatrixSparse.convert(alg.getR(null,compact),(DMatrixRMaj)null);
+
+        assertEquals(m,Q.numRows);
+        assertEquals(compact ? n : m,Q.numCols);
+        assertEquals(compact ? n : m,R.numRows);
+        assertEquals(n,R.numCols);
+        assertTrue(MatrixFeatures_DDRM.isUpperTriangle(R,0,0));
+
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        int q[] = alg.getColumnOrdering();
+        DMatrixRMaj AQ = new DMatrixRMaj(m,n);
+        for (int i = 0; i < m; i++) {
+            for (int k = 0; k < n; k++) {
+                AQ.set(i,k,Ad.get(i,q[k]));
+            }
+        }
+
+        DMatrixRMaj found = new DMatrixRMaj(m,n);
+        CommonOps_DDRM.mult(Q,R,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(AQ,found, UtilEjml.TEST_F64));
+
+        DMatrixRMaj QtQ = new DMatrixRMaj(Q.numCols,Q.numCols);
+        CommonOps_DDRM.multTransA(Q,Q,QtQ);
+        assertTrue(MatrixFeatures_DDRM.isIdentity(QtQ, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * In Q-less mode R<sup>T</sup>R = (A*Q)<sup>T</sup>(A*Q) and R can only differ from the Householder
+     * R by the sign of its rows.  Q isn't available.
+     */
+    @Test
+    public void qless() {
+        for( FillReducing type : new FillReducing[]{FillReducing.NONE,FillReducing.COLAMD}) {
+            for (int trial = 0; trial < 20; trial++) {
+                int n = rand.nextInt(15)+1;
+                int m = n + rand.nextInt(20);
+                DMatrixSparseCSC A = createFullRank(m,n,m*2,rand);
+
+                QrLeftLookingDecomposition_DSCC full = new QrLeftLookingDecomposition_DSCC(
+                        FillReductionFactory_DSCC.create(type),true);
+                QrLeftLookingDecomposition_DSCC qless = new QrLeftLookingDecomposition_DSCC(
+                        FillReductionFactory_DSCC.create(type),false);
+
+                assertTrue(full.decompose(A));
+                assertTrue(qless.decompose(A));
+
+                DMatrixRMaj expected = ConvertDMatrixSparse.convert(full.getR(null,true),(DMatrixRMaj)null);
+                DMatrixRMaj found = ConvertDMatrixSparse.convert(qless.getR(null,true),(DMatrixRMaj)null);
+                assertTrue(MatrixFeatures_DDRM.isUpperTriangle(found,0,0));
+                for (int i = 0; i < n; i++) {
+                    double sign = Math.signum(expected.get(i,i))*Math.signum(found.get(i,i));
+                    for (int j = 0; j < n; j++) {
+                        assertEquals(expected.get(i,j),sign*found.get(i,j),UtilEjml.TEST_F64);
+                    }
+                }
+            }
+        }
+
+        QrLeftLookingDecomposition_DSCC qless = new QrLeftLookingDecomposition_DSCC(null,false);
+        assertTrue(qless.decompose(createFullRank(10,5,10,rand)));
+        try {
+            qless.getQ(null,true);
+            fail("Should have thrown an exception");
+        } catch( IllegalArgumentException ignore ) {}
+    }
+
+    /**
+     * Work space is reused between calls.  Decomposing matrices of different sizes with the same instance
+     * must produce the same results as a new instance.
+     */
+    @Test
+    public void reuse() {
+        for( boolean storeQ : new boolean[]{true,false}) {
+            QrLeftLookingDecomposition_DSCC alg = new QrLeftLookingDecomposition_DSCC(
+                    FillReductionFactory_DSCC.create(FillReducing.COLAMD),storeQ);
+
+            for( int n : new int[]{12,3,7,15,1} ) {
+                int m = n + rand.nextInt(10);
+                DMatrixSparseCSC A = createFullRank(m,n,m*2,rand);
+
+                QrLeftLookingDecomposition_DSCC expected = new QrLeftLookingDecomposition_DSCC(
+                        FillReductionFactory_DSCC.create(FillReducing.COLAMD),storeQ);
+                assertTrue(expected.decompose(A));
+                assertTrue(alg.decompose(A));
+
+                DMatrixRMaj R0 = ConvertDMatrixSparse.convert(expected.getR(null,true),(DMatrixRMaj)null);
+                DMatrixRMaj R1 = ConvertDMatrixSparse.convert(alg.getR(null,true),(DMatrixRMaj)null);
+                assertTrue(MatrixFeatures_DDRM.isIdentical(R0,R1,0));
+                if( storeQ )
+                    checkDecomposition(A,alg,true);
+            }
+        }
+    }
+
+    /**
+     * A matrix with an empty column is structurally rank deficient and requires fictitious rows
+     */
+    @Test
+    public void structurallyRankDeficient() {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(6,4,10);
+        T.addItem(0,0,1);
+        T.addItem(1,0,2);
+        T.addItem(2,1,3);
+        T.addItem(3,1,1);
+        T.addItem(4,3,2);
+        T.addItem(5,3,1);
+        DMatrixSparseCSC A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+
+        QrLeftLookingDecomposition_DSCC alg = new QrLeftLookingDecomposition_DSCC();
+        assertTrue(alg.decompose(A));
+        assertTrue(alg.getNumRowsV() > 6);
+
+        DMatrixSparseCSC R = alg.getR();
+        assertEquals(0,R.nz_values[R.col_idx[3]-1],0);
+
+        alg = new QrLeftLookingDecomposition_DSCC(null,false);
+        assertTrue(alg.decompose(A));
+        R = alg.getR();
+        assertEquals(0,R.nz_values[R.col_idx[3]-1],0);
+    }
+
+    /**
+     * The structure of R must be consistent with the column elimination tree
+     */
+    @Test
+    public void etree() {
+        DMatrixSparseCSC A = createFullRank(40,15,60,rand);
+        QrLeftLookingDecomposition_DSCC alg = new QrLeftLookingDecomposition_DSCC();
+        assertTrue(alg.decompose(A));
+
+        // the first off diagonal element in each row of R is the parent
+        DMatrixRMaj R = ConvertDMatrixSparse.convert(alg.getR(null,true),(DMatrixRMaj)null);
+        int parent[] = alg.getParent();
+        for (int i = 0; i < 15; i++) {
+            int first = -1;
+            for (int j = i+1; j < 15; j++) {
+                if( R.get(i,j) != 0 ) {
+                    first = j;
+                    break;
+                }
+            }
+            assertEquals(parent[i],first);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.Complex_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.ejml.sparse.csc.eig.IterativeEigenSolver_F64.Which;
+import static org.ejml.sparse.csc.eig.TestIterativeEigenSolverLanczos_F64.checkEigenPair;
+import static org.ejml.sparse.csc.UtilTestMatrix_DSCC.convectionDiffusion;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIterativeEigenSolverArnoldi_F64 {
+
+    Random rand = new Random(234);
+
+    /**
+     * Random matrix with a mix of real and complex eigenvalues
+     */
+    @Test
+    public void compareToDense_random() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(80,80,320,-1,1,rand);
+
+        for( Which which : Which.values() ) {
+            compareToDense(A,which,6);
+        }
+    }
+
+    /**
+     * Non-symmetric matrix with real eigenvalues
+     */
+    @Test
+    public void compareToDense_real() {
+        DMatrixSparseCSC A = convectionDiffusion(10,0.4);
+
+        for( Which which : Which.values() ) {
+            IterativeEigenSolverArnoldi_F64 alg = compareToDense(A,which,4);
+            for (int i = 0; i < 4; i++) {
+                Complex_F64 value = alg.getEigenvalue(i);
+                assertTrue(value.isReal());
+                checkEigenPair(A,value.real,alg.getEigenVector(i));
+            }
+        }
+    }
+
+    /**
+     * The largest eigenvalues are a complex conjugate pair
+     */
+    @Test
+    public void complexPair() {
+        int N = 30;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(N,N,N+2);
+        T.addItem(0,0,3);
+        T.addItem(0,1,4);
+        T.addItem(1,0,-4);
+        T.addItem(1,1,3);
+        for (int i = 2; i < N; i++) {
+            T.addItem(i,i,i*0.1);
+        }
+        DMatrixSparseCSC A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+
+        IterativeEigenSolverArnoldi_F64 alg = new IterativeEigenSolverArnoldi_F64();
+        assertTrue(alg.process(A,3));
+
+        assertEquals(3,alg.getEigenvalue(0).real,UtilEjml.TEST_F64);
+        assertEquals(4,alg.getEigenvalue(0).imaginary,UtilEjml.TEST_F64);
+        assertEquals(3,alg.getEigenvalue(1).real,UtilEjml.TEST_F64);
+        assertEquals(-4,alg.getEigenvalue(1).imaginary,UtilEjml.TEST_F64);
+        assertNull(alg.getEigenVector(0));
+        assertNull(alg.getEigenVector(1));
+
+        assertEquals((N-1)*0.1,alg.getEigenvalue(2).real,UtilEjml.TEST_F64);
+        checkEigenPair(A,alg.getEigenvalue(2).real,alg.getEigenVector(2));
+    }
+
+    /**
+     * The same instance should work with problems of different sizes
+     */
+    @Test
+    public void reuse() {
+        IterativeEigenSolverArnoldi_F64 alg = new IterativeEigenSolverArnoldi_F64();
+        for( int n : new int[]{40,10,60} ) {
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(n,n,n*4,-1,1,rand);
+            Complex_F64 expected[] = denseEigenvalues(A);
+            assertTrue(alg.process(A,2));
+            checkFound(expected,alg.getEigenvalue(0));
+        }
+    }
+
+    private IterativeEigenSolverArnoldi_F64 compareToDense( DMatrixSparseCSC A , Which which , int numEigen ) {
+        IterativeEigenSolverArnoldi_F64 alg = new IterativeEigenSolverArnoldi_F64();
+        alg.setWhich(which);
+        assertTrue(alg.process(A,numEigen));
+        assertTrue(alg.isConverged());
+
+        Complex_F64 expected[] = denseEigenvalues(A);
+        for (int i = 0; i < numEigen; i++) {
+            Complex_F64 found = alg.getEigenvalue(i);
+            checkFound(expected,found);
+
+            // no eigenvalue which wasn't found should be more desirable
+            for (int j = 0; j < expected.length; j++) {
+                if( isFound(alg,expected[j],numEigen) )
+                    continue;
+                switch( which ) {
+                    case LARGEST_MAGNITUDE:
+                        assertTrue(expected[j].getMagnitude() <= found.getMagnitude()+UtilEjml.TEST_F64);break;
+                    case LARGEST_ALGEBRAIC:
+                        assertTrue(expected[j].real <= found.real+UtilEjml.TEST_F64);break;
+                    case SMALLEST_ALGEBRAIC:
+                        assertTrue(expected[j].real >= found.real-UtilEjml.TEST_F64);break;
+                }
+            }
+        }
+        return alg;
+    }
+
+    private static boolean isFound( IterativeEigenSolverArnoldi_F64 alg , Complex_F64 value , int numEigen ) {
+        for (int i = 0; i < numEigen; i++) {
+            if( distance(alg.getEigenvalue(i),value) <= 1e-8 )
+                return true;
+        }
+        return false;
+    }
+
+    private static void checkFound( Complex_F64 expected[] , Complex_F64 found ) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < expected.length; i++) {
+            best = Math.min(best,distance(expected[i],found));
+        }
+        assertEquals(0,best,1e-8);
+    }
+
+    private static double distance( Complex_F64 a , Complex_F64 b ) {
+        return Math.sqrt((a.real-b.real)*(a.real-b.real) + (a.imaginary-b.imaginary)*(a.imaginary-b.imaginary));
+    }
+
+    private static Complex_F64[] denseEigenvalues( DMatrixSparseCSC A ) {
+        DMatrixRMaj D = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(D.numRows,false,false);
+        assertTrue(eig.decompose(D));
+
+        Complex_F64 values[] = new Complex_F64[D.numRows];
+        for (int i = 0; i < values.length; i++) {
+            Complex_F64 c = eig.getEigenvalue(i);
+            values[i] = new Complex_F64(c.real,c.imaginary);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.eig;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.NormOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.linsol.iterative.LinearOperator_F64;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.ejml.sparse.csc.eig.IterativeEigenSolver_F64.Which;
+import static org.ejml.sparse.csc.UtilTestMatrix_DSCC.laplacian2D;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIterativeEigenSolverLanczos_F64 {
+
+    @Test
+    public void compareToDense() {
+        DMatrixSparseCSC A = laplacian2D(10);
+        // make the spectrum less clustered
+        for (int i = 0; i < A.numCols; i++) {
+            A.set(i,i,A.get(i,i)+i*0.01);
+        }
+
+        for( Which which : Which.values() ) {
+            double expected[] = denseEigenvalues(A,which);
+            double largest = denseEigenvalues(A,Which.LARGEST_MAGNITUDE)[0];
+
+            IterativeEigenSolverLanczos_F64 alg = new IterativeEigenSolverLanczos_F64();
+            alg.setWhich(which);
+            assertTrue(alg.process(A,4));
+            assertTrue(alg.isConverged());
+            assertEquals(4,alg.getNumberConverged());
+            assertTrue(alg.getNumberOfMultiplications() > 0);
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expected[i],alg.getEigenvalue(i),UtilEjml.TEST_F64);
+                checkEigenPair(A,alg.getEigenvalue(i),alg.getEigenVector(i));
+                assertTrue(alg.getErrorBound(i) <= alg.getTolerance()*Math.abs(largest));
+            }
+        }
+    }
+
+    /**
+     * Uses an operator which never forms the matrix.  The eigenvalues of the 1D Laplacian are known.
+     */
+    @Test
+    public void matrixFree() {
+        final int N = 300;
+        LinearOperator_F64 op = new LinearOperator_F64() {
+            @Override
+            public void mult(DMatrixRMaj x, DMatrixRMaj y) {
+                for (int i = 0; i < N; i++) {
+                    double sum = 2*x.data[i];
+                    if( i > 0 ) sum -= x.data[i-1];
+                    if( i < N-1 ) sum -= x.data[i+1];
+                    y.data[i] = sum;
+                }
+            }
+
+            @Override public int getNumRows() { return N; }
+            @Override public int getNumCols() { return N; }
+        };
+
+        IterativeEigenSolverLanczos_F64 alg = new IterativeEigenSolverLanczos_F64();
+        alg.setWhich(Which.LARGEST_ALGEBRAIC);
+        alg.setBasisSize(40);
+        alg.setMaxRestarts(2000);
+        assertTrue(alg.process(op,3));
+
+        for (int i = 0; i < 3; i++) {
+            double expected = 2 - 2*Math.cos((N-i)*Math.PI/(N+1));
+            assertEquals(expected,alg.getEigenvalue(i),1e-8);
+        }
+    }
+
+    /**
+     * The same instance should work with problems of different sizes
+     */
+    @Test
+    public void reuse() {
+        IterativeEigenSolverLanczos_F64 alg = new IterativeEigenSolverLanczos_F64();
+        for( int n : new int[]{8,4,12} ) {
+            DMatrixSparseCSC A = laplacian2D(n);
+            double expected[] = denseEigenvalues(A,Which.LARGEST_MAGNITUDE);
+            assertTrue(alg.process(A,2));
+            assertEquals(expected[0],alg.getEigenvalue(0),UtilEjml.TEST_F64);
+            assertEquals(n*n,alg.getEigenVector(0).getNumElements());
+        }
+    }
+
+    /**
+     * The basis is the same size as the matrix
+     */
+    @Test
+    public void fullBasis() {
+        DMatrixSparseCSC A = laplacian2D(3);
+        double expected[] = denseEigenvalues(A,Which.SMALLEST_ALGEBRAIC);
+
+        IterativeEigenSolverLanczos_F64 alg = new IterativeEigenSolverLanczos_F64();
+        alg.setWhich(Which.SMALLEST_ALGEBRAIC);
+        assertTrue(alg.process(A,9));
+        for (int i = 0; i < 9; i++) {
+            assertEquals(expected[i],alg.getEigenvalue(i),UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void badInput() {
+        IterativeEigenSolverLanczos_F64 alg = new IterativeEigenSolverLanczos_F64();
+        try {
+            alg.process(new DMatrixSparseCSC(4,5,0),1);
+            fail("Should have thrown an exception");
+        } catch( IllegalArgumentException ignore ){}
+        try {
+            alg.process(laplacian2D(2),5);
+            fail("Should have thrown an exception");
+        } catch( IllegalArgumentException ignore ){}
+    }
+
+    static void checkEigenPair( DMatrixSparseCSC A , double value , DMatrixRMaj v ) {
+        assertEquals(1,NormOps_DDRM.normF(v),UtilEjml.TEST_F64);
+
+        DMatrixRMaj Av = new DMatrixRMaj(A.numRows,1);
+        CommonOps_DSCC.mult(A,v,Av);
+        CommonOps_DDRM.addEquals(Av,-value,v);
+        assertEquals(0,NormOps_DDRM.normF(Av),1e-8);
+    }
+
+    private static double[] denseEigenvalues( DMatrixSparseCSC A , Which which ) {
+        DMatrixRMaj D = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        EigenDecomposition_F64<DMatrixRMaj> eig = DecompositionFactory_DDRM.eig(D.numRows,false,true);
+        assertTrue(eig.decompose(D));
+
+        double values[] = new double[D.numRows];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = eig.getEigenvalue(i).real;
+        }
+        Arrays.sort(values);
+        if( which == Which.LARGEST_MAGNITUDE ) {
+            // insertion sort by decreasing magnitude
+            for (int i = 1; i < values.length; i++) {
+                double v = values[i];
+                int j = i-1;
+                while( j >= 0 && Math.abs(values[j]) < Math.abs(v) ) {
+                    values[j+1] = values[j];
+                    j--;
+                }
+                values[j+1] = v;
+            }
+        } else if( which == Which.LARGEST_ALGEBRAIC ) {
+            for (int i = 0; i < values.length/2; i++) {
+                double tmp = values[i];
+                values[i] = values[values.length-1-i];
+                values[values.length-1-i] = tmp;
+            }
+        }
+        return values;
+    }
+}
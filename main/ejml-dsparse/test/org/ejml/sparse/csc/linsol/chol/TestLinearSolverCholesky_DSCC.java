@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.linsol.chol;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverCholesky_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void solve_sparse() {
+        for (int trial = 0; trial < 10; trial++) {
+            int N = rand.nextInt(15)+2;
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(N, N*2, rand);
+            DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(N, 3, N, rand);
+            DMatrixSparseCSC X = new DMatrixSparseCSC(1,1,1);
+
+            LinearSolverCholesky_DSCC alg = new LinearSolverCholesky_DSCC();
+            assertTrue(alg.setA(A));
+            alg.solve(B,X);
+
+            DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+            DMatrixRMaj Bd = ConvertDMatrixSparse.convert(B,(DMatrixRMaj)null);
+            DMatrixRMaj Xd = ConvertDMatrixSparse.convert(X,(DMatrixRMaj)null);
+
+            DMatrixRMaj found = new DMatrixRMaj(N,3);
+            CommonOps_DDRM.mult(Ad,Xd,found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(Bd,found, UtilEjml.TEST_F64));
+        }
+    }
+
+    @Test
+    public void solve_dense() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(12, 20, rand);
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(12, 2, rand);
+        DMatrixRMaj X = new DMatrixRMaj(12,2);
+
+        LinearSolverCholesky_DSCC alg = new LinearSolverCholesky_DSCC();
+        assertTrue(alg.setA(A));
+        alg.solve(B,X);
+
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        DMatrixRMaj found = new DMatrixRMaj(12,2);
+        CommonOps_DDRM.mult(Ad,X,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(B,found, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void invert() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(10, 20, rand);
+        DMatrixSparseCSC A_inv = new DMatrixSparseCSC(1,1,1);
+
+        LinearSolverCholesky_DSCC alg = new LinearSolverCholesky_DSCC();
+        assertTrue(alg.setA(A));
+        alg.invert(A_inv);
+
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        DMatrixRMaj found = ConvertDMatrixSparse.convert(A_inv,(DMatrixRMaj)null);
+        DMatrixRMaj expected = Ad.copy();
+        CommonOps_DDRM.invert(expected);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * Solve with a fill reducing permutation
+     */
+    @Test
+    public void solve_amd() {
+        for (int trial = 0; trial < 10; trial++) {
+            int N = rand.nextInt(30)+2;
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(N, N*2, rand);
+            DMatrixRMaj B = RandomMatrices_DDRM.rectangle(N, 2, rand);
+            DMatrixRMaj X = new DMatrixRMaj(N,2);
+
+            LinearSolver<DMatrixSparseCSC> alg = LinearSolverFactory_DSCC.cholesky(FillReducing.AMD);
+            assertTrue(alg.setA(A));
+            ((LinearSolverCholesky_DSCC)alg).solve(B,X);
+
+            DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+            DMatrixRMaj found = new DMatrixRMaj(N,2);
+            CommonOps_DDRM.mult(Ad,X,found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(B,found, UtilEjml.TEST_F64));
+
+            // sparse right hand side
+            DMatrixSparseCSC Bs = RandomMatrices_DSCC.rectangle(N, 2, N, rand);
+            DMatrixSparseCSC Xs = new DMatrixSparseCSC(1,1,1);
+            alg.solve(Bs,Xs);
+            CommonOps_DDRM.mult(Ad,ConvertDMatrixSparse.convert(Xs,(DMatrixRMaj)null),found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(ConvertDMatrixSparse.convert(Bs,(DMatrixRMaj)null),found,
+                    UtilEjml.TEST_F64));
+        }
+    }
+
+    /**
+     * With the structure locked the permutation is reused
+     */
+    @Test
+    public void solve_amd_locked() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(20, 40, rand);
+        LinearSolverCholesky_DSCC alg = (LinearSolverCholesky_DSCC)LinearSolverFactory_DSCC.cholesky(FillReducing.AMD);
+        alg.setStructureLocked(true);
+        assertTrue(alg.setA(A));
+
+        DMatrixSparseCSC B = A.copy();
+        for (int i = 0; i < B.nz_length; i++) {
+            B.nz_values[i] *= 3;
+        }
+        assertTrue(alg.setA(B));
+
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(20, 1, rand);
+        DMatrixRMaj x = new DMatrixRMaj(20,1);
+        alg.solve(b,x);
+
+        DMatrixRMaj found = new DMatrixRMaj(20,1);
+        CommonOps_DDRM.mult(ConvertDMatrixSparse.convert(B,(DMatrixRMaj)null),x,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(b,found, UtilEjml.TEST_F64));
+    }
+}
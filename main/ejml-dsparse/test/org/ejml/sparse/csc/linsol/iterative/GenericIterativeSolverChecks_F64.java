@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.ejml.sparse.csc.UtilTestMatrix_DSCC.convectionDiffusion;
+import static org.ejml.sparse.csc.UtilTestMatrix_DSCC.laplacian2D;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GenericIterativeSolverChecks_F64 {
+
+    protected Random rand = new Random(234);
+
+    protected double tol = 1e-10;
+
+    /**
+     * true if the solver can handle matrices which are not symmetric
+     */
+    protected boolean handlesNonSymmetric;
+
+    protected abstract IterativeSolver_F64 createSolver();
+
+    @Test
+    public void symmetric() {
+        DMatrixSparseCSC A = laplacian2D(12);
+        check(A, null, true);
+        check(A, new PreconditionerJacobi_DSCC(), true);
+        check(A, new PreconditionerSsor_DSCC(1.2), true);
+        check(A, new PreconditionerIncompleteCholesky_DSCC(), true);
+    }
+
+    @Test
+    public void nonSymmetric() {
+        if( !handlesNonSymmetric )
+            return;
+
+        DMatrixSparseCSC A = convectionDiffusion(12,0.4);
+        check(A, null, false);
+        check(A, new PreconditionerJacobi_DSCC(), false);
+        check(A, new PreconditionerSsor_DSCC(1.0), false);
+        check(A, new PreconditionerIlu_DSCC(), false);
+    }
+
+    private void check( DMatrixSparseCSC A , MatrixPreconditioner_DSCC M , boolean symmetric ) {
+        IterativeSolver_F64 alg = createSolver();
+        alg.setTolerance(tol);
+        alg.setMaxIterations(2000);
+        if( M != null ) {
+            assertTrue(M.setA(A));
+            alg.setPreconditioner(M);
+        }
+
+        DMatrixRMaj x_expected = RandomMatrices_DDRM.rectangle(A.numCols,1,-1,1,rand);
+        DMatrixRMaj b = new DMatrixRMaj(A.numRows,1);
+        CommonOps_DSCC.mult(A,x_expected,b);
+
+        DMatrixRMaj x = new DMatrixRMaj(A.numCols,1);
+        assertTrue(alg.solve(new SparseOperator_DSCC(A,symmetric),b,x));
+        assertTrue(alg.isConverged());
+        assertTrue(alg.getIterations() > 0);
+        checkSolution(A,b,x);
+
+        // telemetry
+        double history[] = alg.getResidualHistory();
+        assertEquals(normF(b),history[0], UtilEjml.TEST_F64);
+        assertEquals(history[alg.getIterations()],alg.getResidualNorm(),0);
+        assertTrue(alg.getResidualNorm() <= tol*normF(b));
+    }
+
+    /**
+     * Solve the same system with the solution as the initial estimate.  Should do nothing.
+     */
+    @Test
+    public void initialEstimate() {
+        DMatrixSparseCSC A = laplacian2D(5);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(A.numCols,1,-1,1,rand);
+        DMatrixRMaj b = new DMatrixRMaj(A.numRows,1);
+        CommonOps_DSCC.mult(A,x,b);
+
+        IterativeSolver_F64 alg = createSolver();
+        DMatrixRMaj found = x.copy();
+        assertTrue(alg.solve(new SparseOperator_DSCC(A),b,found));
+        assertEquals(0,alg.getIterations());
+        assertTrue(alg.getResidualNorm() <= UtilEjml.TEST_F64*normF(b));
+    }
+
+    @Test
+    public void zeroB() {
+        DMatrixSparseCSC A = laplacian2D(5);
+        DMatrixRMaj b = new DMatrixRMaj(A.numRows,1);
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(A.numCols,1,-1,1,rand);
+
+        IterativeSolver_F64 alg = createSolver();
+        assertTrue(alg.solve(new SparseOperator_DSCC(A),b,x));
+        for (int i = 0; i < x.numRows; i++) {
+            assertEquals(0,x.data[i],0);
+        }
+    }
+
+    /**
+     * Solves a sequence of systems with different sizes using the same instance
+     */
+    @Test
+    public void reuse() {
+        IterativeSolver_F64 alg = createSolver();
+        alg.setTolerance(tol);
+        alg.setMaxIterations(2000);
+
+        for( int n : new int[]{10,4,7} ) {
+            DMatrixSparseCSC A = laplacian2D(n);
+            DMatrixRMaj b = RandomMatrices_DDRM.rectangle(A.numRows,1,-1,1,rand);
+            DMatrixRMaj x = new DMatrixRMaj(A.numCols,1);
+            assertTrue(alg.solve(new SparseOperator_DSCC(A),b,x));
+            checkSolution(A,b,x);
+        }
+    }
+
+    @Test
+    public void maxIterations() {
+        DMatrixSparseCSC A = laplacian2D(12);
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(A.numRows,1,-1,1,rand);
+        DMatrixRMaj x = new DMatrixRMaj(A.numCols,1);
+
+        IterativeSolver_F64 alg = createSolver();
+        alg.setTolerance(1e-14);
+        alg.setMaxIterations(3);
+        assertFalse(alg.solve(new SparseOperator_DSCC(A),b,x));
+        assertFalse(alg.isConverged());
+        assertEquals(3,alg.getIterations());
+    }
+
+    /**
+     * The matrix is never explicitly constructed
+     */
+    @Test
+    public void matrixFree() {
+        final int N = 50;
+        // 1D Laplacian
+        LinearOperator_F64 op = new LinearOperator_F64() {
+            @Override
+            public void mult(DMatrixRMaj x, DMatrixRMaj y) {
+                for (int i = 0; i < N; i++) {
+                    double v = 2*x.data[i];
+                    if( i > 0 ) v -= x.data[i-1];
+                    if( i < N-1 ) v -= x.data[i+1];
+                    y.data[i] = v;
+                }
+            }
+
+            @Override
+            public int getNumRows() { return N; }
+
+            @Override
+            public int getNumCols() { return N; }
+        };
+
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(N,1,-1,1,rand);
+        DMatrixRMaj x = new DMatrixRMaj(N,1);
+
+        IterativeSolver_F64 alg = createSolver();
+        alg.setTolerance(tol);
+        alg.setMaxIterations(1000);
+        assertTrue(alg.solve(op,b,x));
+
+        DMatrixRMaj found = new DMatrixRMaj(N,1);
+        op.mult(x,found);
+        for (int i = 0; i < N; i++) {
+            assertEquals(b.data[i],found.data[i],UtilEjml.TEST_F64_SQ);
+        }
+    }
+
+    private void checkSolution( DMatrixSparseCSC A , DMatrixRMaj b , DMatrixRMaj x ) {
+        DMatrixRMaj found = new DMatrixRMaj(A.numRows,1);
+        CommonOps_DSCC.mult(A,x,found);
+        for (int i = 0; i < A.numRows; i++) {
+            assertEquals(b.data[i],found.data[i],UtilEjml.TEST_F64_SQ);
+        }
+    }
+
+    private static double normF( DMatrixRMaj a ) {
+        return Math.sqrt(IterativeSolver_F64.dot(a.data,a.data,a.getNumElements()));
+    }
+}
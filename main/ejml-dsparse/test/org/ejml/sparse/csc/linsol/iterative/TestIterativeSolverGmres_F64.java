@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.junit.Test;
+
+import static org.ejml.sparse.csc.UtilTestMatrix_DSCC.convectionDiffusion;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIterativeSolverGmres_F64 extends GenericIterativeSolverChecks_F64 {
+
+    public TestIterativeSolverGmres_F64() {
+        handlesNonSymmetric = true;
+    }
+
+    @Override
+    protected IterativeSolver_F64 createSolver() {
+        return new IterativeSolverGmres_F64();
+    }
+
+    /**
+     * Restarts many times before converging
+     */
+    @Test
+    public void smallRestart() {
+        DMatrixSparseCSC A = convectionDiffusion(8,0.3);
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(A.numRows,1,-1,1,rand);
+        DMatrixRMaj x = new DMatrixRMaj(A.numCols,1);
+
+        IterativeSolverGmres_F64 alg = new IterativeSolverGmres_F64(3);
+        alg.setTolerance(1e-10);
+        alg.setMaxIterations(5000);
+        assertTrue(alg.solve(new SparseOperator_DSCC(A),b,x));
+        assertTrue(alg.getIterations() > 3);
+
+        DMatrixRMaj found = new DMatrixRMaj(A.numRows,1);
+        CommonOps_DSCC.mult(A,x,found);
+        for (int i = 0; i < A.numRows; i++) {
+            assertEquals(b.data[i],found.data[i],1e-6);
+        }
+    }
+}
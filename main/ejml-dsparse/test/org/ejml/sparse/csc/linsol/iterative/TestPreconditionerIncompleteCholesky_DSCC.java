@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.UtilTestMatrix_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPreconditionerIncompleteCholesky_DSCC {
+
+    Random rand = new Random(234);
+
+    /**
+     * L*L' should be equal to A inside the sparsity pattern of A
+     */
+    @Test
+    public void matchesPattern() {
+        DMatrixSparseCSC A = UtilTestMatrix_DSCC.laplacian2D(6);
+
+        PreconditionerIncompleteCholesky_DSCC alg = new PreconditionerIncompleteCholesky_DSCC();
+        assertTrue(alg.setA(A));
+
+        DMatrixSparseCSC L = alg.getL();
+        assertEquals(A.numCols,L.numCols);
+        assertTrue(CommonOps_DSCC.checkIndicesSorted(L));
+
+        DMatrixRMaj denseL = ConvertDMatrixSparse.convert(L,(DMatrixRMaj)null);
+        DMatrixRMaj found = new DMatrixRMaj(A.numRows,A.numCols);
+        CommonOps_DDRM.multTransB(denseL,denseL,found);
+
+        for (int col = 0; col < A.numCols; col++) {
+            for (int i = A.col_idx[col]; i < A.col_idx[col+1]; i++) {
+                int row = A.nz_rows[i];
+                assertEquals(A.nz_values[i],found.get(row,col), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    /**
+     * If there is no fill in then it's the same as Cholesky and the preconditioner is the inverse of A
+     */
+    @Test
+    public void exactWithNoFillIn() {
+        int N = 12;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(N,N,3*N);
+        for (int i = 0; i < N; i++) {
+            T.addItem(i,i,3+rand.nextDouble());
+            if( i > 0 ) {
+                double v = rand.nextDouble()-0.5;
+                T.addItem(i,i-1,v);
+                T.addItem(i-1,i,v);
+            }
+        }
+        DMatrixSparseCSC A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+
+        PreconditionerIncompleteCholesky_DSCC alg = new PreconditionerIncompleteCholesky_DSCC();
+        assertTrue(alg.setA(A));
+
+        DMatrixRMaj r = RandomMatrices_DDRM.rectangle(N,1,-1,1,rand);
+        DMatrixRMaj z = new DMatrixRMaj(1,1);
+        alg.apply(r,z);
+
+        DMatrixRMaj found = new DMatrixRMaj(N,1);
+        CommonOps_DSCC.mult(A,z,found);
+        for (int i = 0; i < N; i++) {
+            assertEquals(r.data[i],found.data[i],UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void notPositiveDefinite() {
+        DMatrixSparseCSC A = UtilTestMatrix_DSCC.laplacian2D(3);
+        CommonOps_DSCC.scale(-1,A,A);
+        assertFalse(new PreconditionerIncompleteCholesky_DSCC().setA(A));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.UtilTestMatrix_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPreconditionerJacobi_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void apply() {
+        DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(15,40,rand);
+        DMatrixRMaj r = RandomMatrices_DDRM.rectangle(15,1,-1,1,rand);
+        DMatrixRMaj z = new DMatrixRMaj(1,1);
+
+        PreconditionerJacobi_DSCC alg = new PreconditionerJacobi_DSCC();
+        assertTrue(alg.setA(A));
+        alg.apply(r,z);
+
+        for (int i = 0; i < 15; i++) {
+            assertEquals(r.data[i]/A.get(i,i),z.data[i], UtilEjml.TEST_F64);
+        }
+    }
+
+    @Test
+    public void zeroDiagonal() {
+        DMatrixSparseCSC A = UtilTestMatrix_DSCC.laplacian2D(3);
+        A.nz_values[A.nz_index(4,4)] = 0;
+        assertFalse(new PreconditionerJacobi_DSCC().setA(A));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.UtilTestMatrix_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPreconditionerSsor_DSCC {
+
+    Random rand = new Random(234);
+
+    /**
+     * Compare against M computed from its definition
+     */
+    @Test
+    public void apply() {
+        for( double omega : new double[]{1.0,0.7,1.5} ) {
+            DMatrixSparseCSC A = UtilTestMatrix_DSCC.convectionDiffusion(4,0.3);
+            int N = A.numCols;
+
+            PreconditionerSsor_DSCC alg = new PreconditionerSsor_DSCC(omega);
+            assertTrue(alg.setA(A));
+
+            DMatrixRMaj r = RandomMatrices_DDRM.rectangle(N,1,-1,1,rand);
+            DMatrixRMaj z = new DMatrixRMaj(1,1);
+            alg.apply(r,z);
+
+            DMatrixRMaj dense = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+            DMatrixRMaj lower = new DMatrixRMaj(N,N);
+            DMatrixRMaj upper = new DMatrixRMaj(N,N);
+            DMatrixRMaj invD = new DMatrixRMaj(N,N);
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) {
+                    double v = dense.get(i,j);
+                    if( i == j ) {
+                        lower.set(i,j,v/omega);
+                        upper.set(i,j,v/omega);
+                        invD.set(i,j,omega/v);
+                    } else if( i > j ) {
+                        lower.set(i,j,v);
+                    } else {
+                        upper.set(i,j,v);
+                    }
+                }
+            }
+            DMatrixRMaj tmp = new DMatrixRMaj(N,N);
+            DMatrixRMaj M = new DMatrixRMaj(N,N);
+            CommonOps_DDRM.mult(lower,invD,tmp);
+            CommonOps_DDRM.mult(omega/(2-omega),tmp,upper,M);
+
+            DMatrixRMaj found = new DMatrixRMaj(N,1);
+            CommonOps_DDRM.mult(M,z,found);
+            for (int i = 0; i < N; i++) {
+                assertEquals(r.data[i],found.data[i], UtilEjml.TEST_F64);
+            }
+        }
+    }
+}
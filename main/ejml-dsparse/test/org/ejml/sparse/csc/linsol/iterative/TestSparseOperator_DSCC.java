@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.iterative;
+
+import org.ejml.EjmlParameters;
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSparseOperator_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void mult() {
+        long before = EjmlParameters.MULT_CONCURRENT_SWITCH;
+        try {
+            // check the single threaded and concurrent code paths
+            for( long threshold : new long[]{before,0}) {
+                EjmlParameters.MULT_CONCURRENT_SWITCH = threshold;
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20,20,80,-1,1,rand);
+                check(A,false);
+                A = RandomMatrices_DSCC.symmetricPosDef(20,40,rand);
+                check(A,true);
+            }
+        } finally {
+            EjmlParameters.MULT_CONCURRENT_SWITCH = before;
+        }
+    }
+
+    private void check( DMatrixSparseCSC A , boolean symmetric ) {
+        DMatrixRMaj x = RandomMatrices_DDRM.rectangle(A.numCols,1,-1,1,rand);
+        DMatrixRMaj expected = new DMatrixRMaj(A.numRows,1);
+        CommonOps_DSCC.mult(A,x,expected);
+
+        SparseOperator_DSCC alg = new SparseOperator_DSCC(A,symmetric);
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(A.numRows,1,-1,1,rand);
+        // call it twice to make sure the work space is reused correctly
+        for (int i = 0; i < 2; i++) {
+            alg.mult(x,found);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.linsol.qr;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolver;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.FillReducing;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.decomposition.qr.TestQrLeftLookingDecomposition_DSCC;
+import org.ejml.sparse.csc.factory.LinearSolverFactory_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearSolverQrLeftLooking_DSCC {
+
+    Random rand = new Random(234);
+
+    /**
+     * Compare the least-squares solution against the dense solver
+     */
+    @Test
+    public void solve_dense() {
+        for( boolean qless : new boolean[]{false,true}) {
+            for( FillReducing type : new FillReducing[]{FillReducing.NONE,FillReducing.COLAMD}) {
+                for (int trial = 0; trial < 10; trial++) {
+                    int n = rand.nextInt(15)+1;
+                    int m = n + rand.nextInt(30);
+                    DMatrixSparseCSC A = TestQrLeftLookingDecomposition_DSCC.createFullRank(m,n,m*2,rand);
+                    DMatrixRMaj B = RandomMatrices_DDRM.rectangle(m,2,rand);
+                    DMatrixRMaj X = new DMatrixRMaj(n,2);
+
+                    LinearSolverQrLeftLooking_DSCC alg =
+                            (LinearSolverQrLeftLooking_DSCC)LinearSolverFactory_DSCC.qr(type,qless);
+                    assertTrue(alg.setA(A));
+                    alg.solve(B,X);
+
+                    DMatrixRMaj expected = solveDense(A, B);
+                    assertTrue(MatrixFeatures_DDRM.isIdentical(expected,X, UtilEjml.TEST_F64));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void solve_sparse() {
+        for( boolean qless : new boolean[]{false,true}) {
+            DMatrixSparseCSC A = TestQrLeftLookingDecomposition_DSCC.createFullRank(40,12,80,rand);
+            DMatrixSparseCSC B = RandomMatrices_DSCC.rectangle(40,3,30,rand);
+            DMatrixSparseCSC X = new DMatrixSparseCSC(1,1,1);
+
+            LinearSolver<DMatrixSparseCSC> alg = LinearSolverFactory_DSCC.qr(FillReducing.COLAMD,qless);
+            assertTrue(alg.setA(A));
+            alg.solve(B,X);
+
+            DMatrixRMaj expected = solveDense(A, ConvertDMatrixSparse.convert(B,(DMatrixRMaj)null));
+            DMatrixRMaj found = ConvertDMatrixSparse.convert(X,(DMatrixRMaj)null);
+            assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+        }
+    }
+
+    /**
+     * For a square matrix the pseudo inverse is the inverse
+     */
+    @Test
+    public void invert() {
+        DMatrixSparseCSC A = TestQrLeftLookingDecomposition_DSCC.createFullRank(10,10,20,rand);
+        DMatrixSparseCSC A_inv = new DMatrixSparseCSC(1,1,1);
+
+        LinearSolver<DMatrixSparseCSC> alg = LinearSolverFactory_DSCC.qr();
+        assertTrue(alg.setA(A));
+        alg.invert(A_inv);
+
+        DMatrixRMaj found = ConvertDMatrixSparse.convert(A_inv,(DMatrixRMaj)null);
+        DMatrixRMaj expected = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        org.ejml.dense.row.CommonOps_DDRM.invert(expected);
+
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+    }
+
+    /**
+     * An empty column makes the matrix rank deficient
+     */
+    @Test
+    public void rankDeficient() {
+        DMatrixSparseCSC A = TestQrLeftLookingDecomposition_DSCC.createFullRank(20,5,10,rand);
+        for (int p = A.col_idx[2]; p < A.col_idx[3]; p++) {
+            A.nz_values[p] = 0;
+        }
+
+        LinearSolver<DMatrixSparseCSC> alg = LinearSolverFactory_DSCC.qr(FillReducing.NONE,false);
+        assertFalse(alg.setA(A));
+    }
+
+    private DMatrixRMaj solveDense(DMatrixSparseCSC A, DMatrixRMaj B) {
+        DMatrixRMaj Ad = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+        LinearSolver<DMatrixRMaj> dense = LinearSolverFactory_DDRM.leastSquares(A.numRows,A.numCols);
+        assertTrue(dense.setA(Ad));
+        DMatrixRMaj expected = new DMatrixRMaj(A.numCols,B.numCols);
+        dense.solve(B.copy(),expected);
+        return expected;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ejml.sparse.csc.misc;
+
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.ejml.sparse.csc.decomposition.chol.CholeskyUpLooking_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.ejml.sparse.csc.UtilTestMatrix_DSCC.laplacian2D;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestApproximateMinimumDegree_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void orderSymmetric_validPermutation() {
+        ApproximateMinimumDegree_DSCC alg = new ApproximateMinimumDegree_DSCC();
+
+        for (int trial = 0; trial < 50; trial++) {
+            int N = rand.nextInt(40)+1;
+            DMatrixSparseCSC A = RandomMatrices_DSCC.symmetricPosDef(N, N+rand.nextInt(N*2), rand);
+
+            int perm[] = new int[N];
+            alg.orderSymmetric(A,perm);
+            checkPermutation(perm);
+        }
+    }
+
+    @Test
+    public void orderColumns_validPermutation() {
+        ApproximateMinimumDegree_DSCC alg = new ApproximateMinimumDegree_DSCC();
+
+        for (int trial = 0; trial < 50; trial++) {
+            int numRows = rand.nextInt(40)+1;
+            int numCols = rand.nextInt(40)+1;
+            DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(numRows, numCols, rand.nextInt(numRows*numCols), rand);
+
+            int perm[] = new int[numCols];
+            alg.orderColumns(A,perm);
+            checkPermutation(perm);
+        }
+    }
+
+    /**
+     * A matrix with dense rows and columns.  They should be moved to the end
+     */
+    @Test
+    public void orderSymmetric_dense() {
+        int N = 100;
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(N,N,N*4);
+        for (int i = 0; i < N; i++) {
+            T.addItem(i,i,1);
+            if( i != 7 ) {
+                T.addItem(i,7,1);
+                T.addItem(7,i,1);
+            }
+        }
+        DMatrixSparseCSC A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+
+        int perm[] = new int[N];
+        new ApproximateMinimumDegree_DSCC().orderSymmetric(A,perm);
+        checkPermutation(perm);
+        assertTrue(perm[N-1] == 7);
+    }
+
+    /**
+     * On a 2D grid the ordering should dramatically reduce the fill in compared to the natural ordering
+     */
+    @Test
+    public void orderSymmetric_reduceFill() {
+        DMatrixSparseCSC A = laplacian2D(30);
+        int N = A.numCols;
+
+        int perm[] = new int[N];
+        new ApproximateMinimumDegree_DSCC().orderSymmetric(A,perm);
+        checkPermutation(perm);
+
+        int permInv[] = new int[N];
+        CommonOps_DSCC.permutationInverse(perm,permInv);
+        DMatrixSparseCSC C = new DMatrixSparseCSC(1,1,0);
+        CommonOps_DSCC.permuteSymmetric(A,permInv,C,null);
+
+        int nzNatural = choleskyNonZero(A);
+        int nzAmd = choleskyNonZero(C);
+
+        assertTrue(nzAmd*2 < nzNatural);
+    }
+
+    /**
+     * The ordering of A'A should reduce the fill in of the Cholesky decomposition of A'A
+     */
+    @Test
+    public void orderColumns_reduceFill() {
+        DMatrixSparseCSC A = laplacian2D(20);
+        int N = A.numCols;
+
+        // randomly shuffle the columns so the natural ordering isn't good
+        int shuffle[] = new int[N];
+        for (int i = 0; i < N; i++) shuffle[i] = i;
+        for (int i = 0; i < N; i++) {
+            int j = rand.nextInt(N);
+            int tmp = shuffle[i]; shuffle[i] = shuffle[j]; shuffle[j] = tmp;
+        }
+        int identity[] = new int[N];
+        for (int i = 0; i < N; i++) identity[i] = i;
+        DMatrixSparseCSC B = new DMatrixSparseCSC(1,1,0);
+        CommonOps_DSCC.permute(identity,A,shuffle,B);
+
+        int perm[] = new int[N];
+        new ApproximateMinimumDegree_DSCC().orderColumns(B,perm);
+        checkPermutation(perm);
+
+        DMatrixSparseCSC Bp = new DMatrixSparseCSC(1,1,0);
+        CommonOps_DSCC.permute(identity,B,perm,Bp);
+
+        assertTrue(choleskyNonZero(ata(Bp))*2 < choleskyNonZero(ata(B)));
+    }
+
+    private static DMatrixSparseCSC ata( DMatrixSparseCSC A ) {
+        DMatrixSparseCSC At = new DMatrixSparseCSC(A.numCols,A.numRows,A.nz_length);
+        CommonOps_DSCC.transpose(A,At,null);
+        DMatrixSparseCSC C = new DMatrixSparseCSC(A.numCols,A.numCols,0);
+        CommonOps_DSCC.mult(At,A,C);
+        return C;
+    }
+
+    private static int choleskyNonZero( DMatrixSparseCSC A ) {
+        CholeskyUpLooking_DSCC chol = new CholeskyUpLooking_DSCC();
+        chol.performSymbolic(A);
+        return chol.getL().nz_length;
+    }
+
+    private static void checkPermutation( int perm[] ) {
+        boolean found[] = new boolean[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            assertTrue(perm[i] >= 0 && perm[i] < perm.length);
+            assertTrue(!found[perm[i]]);
+            found[perm[i]] = true;
+        }
+    }
+}
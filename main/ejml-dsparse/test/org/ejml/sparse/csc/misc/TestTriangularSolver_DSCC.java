@@ -57,6 +57,25 @@ public class TestTriangularSolver_DSCC {
         }
     }
 
+    @Test
+    public void solveTranL_denseX() {
+        for (int nz_size : new int[]{5, 8, 10, 20}) {
+            DMatrixSparseCSC L = RandomMatrices_DSCC.triangleLower(5, 0, nz_size, -1, 1, rand);
+            DMatrixSparseCSC L_t = new DMatrixSparseCSC(5, 5, L.nz_length);
+            CommonOps_DSCC.transpose(L, L_t, null);
+
+            DMatrixRMaj b = RandomMatrices_DDRM.rectangle(5, 1, rand);
+            DMatrixRMaj x = b.copy();
+
+            TriangularSolver_DSCC.solveTranL(L, x.data);
+
+            DMatrixRMaj found = x.createLike();
+            CommonOps_DSCC.mult(L_t, x, found);
+
+            assertTrue(MatrixFeatures_DDRM.isIdentical(found, b, UtilEjml.TEST_F64));
+        }
+    }
+
     @Test
     public void solveU_denseX() {
         for (int nz_size : new int[]{5, 8, 10, 20}) {
@@ -76,6 +95,25 @@ public class TestTriangularSolver_DSCC {
         }
     }
 
+    @Test
+    public void solveTranU_denseX() {
+        for (int nz_size : new int[]{5, 8, 10, 20}) {
+            DMatrixSparseCSC L = RandomMatrices_DSCC.triangleLower(5, 0, nz_size, -1, 1, rand);
+            DMatrixSparseCSC U = new DMatrixSparseCSC(5, 5, L.nz_length);
+            CommonOps_DSCC.transpose(L, U, null);
+
+            DMatrixRMaj b = RandomMatrices_DDRM.rectangle(5, 1, rand);
+            DMatrixRMaj x = b.copy();
+
+            TriangularSolver_DSCC.solveTranU(U, x.data);
+
+            DMatrixRMaj found = x.createLike();
+            CommonOps_DSCC.mult(L, x, found);
+
+            assertTrue(MatrixFeatures_DDRM.isIdentical(found, b, UtilEjml.TEST_F64));
+        }
+    }
+
     @Test
     public void solve_sparseX_vector() {
         solve_sparseX_vector(true);
@@ -107,6 +145,53 @@ public class TestTriangularSolver_DSCC {
         }
     }
 
+    /**
+     * The rows in G are permuted and the pinv argument is used to undo the permutation
+     */
+    @Test
+    public void solve_sparseX_vector_pinv() {
+        for (int trial = 0; trial < 10; trial++) {
+            int N = 6;
+            int perm[] = new int[N];
+            int pinv[] = new int[N];
+            for (int i = 0; i < N; i++) {
+                perm[i] = i;
+            }
+            for (int i = N-1; i > 0; i--) {
+                int j = rand.nextInt(i+1);
+                int tmp = perm[i]; perm[i] = perm[j]; perm[j] = tmp;
+            }
+            CommonOps_DSCC.permutationInverse(perm,pinv);
+
+            DMatrixSparseCSC G = RandomMatrices_DSCC.triangleLower(N, 0, 15, -1, 1, rand);
+            // row 'i' in Gp is row pinv[i] in G
+            DMatrixSparseCSC Gp = new DMatrixSparseCSC(N,N,0);
+            CommonOps_DSCC.permuteRowInv(perm,G,Gp);
+            DMatrixSparseCSC b = RandomMatrices_DSCC.rectangle(N, 1, 3, rand);
+
+            double x[] = new double[N];
+            int w[] = new int[N*2];
+            TriangularSolver_DSCC.solve(Gp,true, b,0, x, pinv, null, w);
+
+            // marks in the work space must be restored
+            for (int i = 0; i < N; i++) {
+                assertEquals(0,w[i]);
+            }
+
+            // x[i] is the solution for column pinv[i]
+            DMatrixRMaj y = new DMatrixRMaj(N,1);
+            for (int i = 0; i < N; i++) {
+                y.data[pinv[i]] = x[i];
+            }
+
+            DMatrixRMaj found = new DMatrixRMaj(N,1);
+            CommonOps_DSCC.mult(Gp, y, found);
+
+            DMatrixRMaj expected = ConvertDMatrixSparse.convert(b,(DMatrixRMaj)null);
+            assertTrue(MatrixFeatures_DDRM.isEquals(found, expected, UtilEjml.TEST_F64));
+        }
+    }
+
     @Test
     public void solve_sparseX_matrix() {
         solve_sparseX_matrix(true);
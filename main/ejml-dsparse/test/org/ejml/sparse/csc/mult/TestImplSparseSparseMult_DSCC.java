@@ -98,4 +98,75 @@ public class TestImplSparseSparseMult_DSCC {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void multTransA_s_d() {
+        for (int i = 0; i < 10; i++) {
+            multTransA_s_d(24, 5);
+            multTransA_s_d(15, 5);
+            multTransA_s_d(4, 5);
+            multTransA_s_d(15, 1);
+        }
+    }
+
+    private void multTransA_s_d(int elementsA, int colsB ) {
+        DMatrixSparseCSC a = RandomMatrices_DSCC.rectangle(6,4,elementsA,-1,1,rand);
+        DMatrixRMaj b = RandomMatrices_DDRM.rectangle(6,colsB,-1,1,rand);
+        DMatrixRMaj c = RandomMatrices_DDRM.rectangle(4,colsB,-1,1,rand);
+
+        ImplSparseSparseMult_DSCC.multTransA(a,b,c);
+
+        DMatrixRMaj dense_a = ConvertDMatrixSparse.convert(a,(DMatrixRMaj)null);
+        DMatrixRMaj expected_c = RandomMatrices_DDRM.rectangle(4,colsB,-1,1,rand);
+
+        CommonOps_DDRM.multTransA(dense_a, b, expected_c);
+
+        for (int row = 0; row < c.numRows; row++) {
+            for (int col = 0; col < c.numCols; col++) {
+                assertEquals(row+" "+col,expected_c.get(row,col), c.get(row,col), UtilEjml.TEST_F64);
+            }
+        }
+    }
+
+    @Test
+    public void multSymbolic_multNumeric() {
+        for (int i = 0; i < 10; i++) {
+            multSymbolic_multNumeric(24,30);
+            multSymbolic_multNumeric(15,15);
+            multSymbolic_multNumeric(4,5);
+            multSymbolic_multNumeric(0,5);
+        }
+    }
+
+    private void multSymbolic_multNumeric(int elementsA , int elementsB ) {
+        DMatrixSparseCSC a = RandomMatrices_DSCC.rectangle(4,6,elementsA,-1,1,rand);
+        DMatrixSparseCSC b = RandomMatrices_DSCC.rectangle(6,5,elementsB,-1,1,rand);
+        DMatrixSparseCSC expected = new DMatrixSparseCSC(4,5,0);
+        ImplSparseSparseMult_DSCC.mult(a,b,expected,null,null);
+
+        // start with a matrix that's the wrong shape and has too much data
+        DMatrixSparseCSC c = RandomMatrices_DSCC.rectangle(7,2,10,-1,1,rand);
+        ImplSparseSparseMult_DSCC.multSymbolic(a,b,c,null);
+
+        assertEquals(4,c.numRows);
+        assertEquals(5,c.numCols);
+        assertEquals(expected.nz_length,c.nz_length);
+        assertTrue(CommonOps_DSCC.checkIndicesSorted(c));
+        assertTrue(CommonOps_DSCC.checkSortedFlag(c));
+
+        // change the values but not the structure multiple times
+        for (int trial = 0; trial < 2; trial++) {
+            for (int j = 0; j < a.nz_length; j++) {
+                a.nz_values[j] = rand.nextDouble()-0.5;
+            }
+            ImplSparseSparseMult_DSCC.multNumeric(a,b,c,null);
+            ImplSparseSparseMult_DSCC.mult(a,b,expected,null,null);
+
+            for (int row = 0; row < c.numRows; row++) {
+                for (int col = 0; col < c.numCols; col++) {
+                    assertEquals(row+" "+col,expected.get(row,col), c.get(row,col), UtilEjml.TEST_F64);
+                }
+            }
+        }
+    }
+}
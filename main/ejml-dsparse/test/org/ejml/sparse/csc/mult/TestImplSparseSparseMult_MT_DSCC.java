@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.data.DMatrixSparseTriplet;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.dense.row.RandomMatrices_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.MatrixFeatures_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplSparseSparseMult_MT_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void mult() {
+        for( int numRanges : new int[]{1,2,3,7,50} ) {
+            for( int colsB : new int[]{1,5} ) {
+                DMatrixSparseCSC A = RandomMatrices_DSCC.rectangle(20,15,60,-1,1,rand);
+                checkMult(A, colsB, numRanges);
+                checkMult(createUnbalanced(20,15), colsB, numRanges);
+            }
+        }
+    }
+
+    private void checkMult( DMatrixSparseCSC A , int colsB , int numRanges ) {
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(A.numCols,colsB,-1,1,rand);
+        DMatrixRMaj expected = new DMatrixRMaj(A.numRows,colsB);
+        ImplSparseSparseMult_DSCC.mult(A,B,expected);
+
+        // fill it with garbage to make sure it's overwritten
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(A.numRows,colsB,-1,1,rand);
+        ImplSparseSparseMult_MT_DSCC.mult(A,B,found,numRanges,null);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+
+        // provide a work array which has garbage in it
+        double work[] = new double[numRanges*found.getNumElements()];
+        for (int i = 0; i < work.length; i++) {
+            work[i] = rand.nextDouble();
+        }
+        ImplSparseSparseMult_MT_DSCC.mult(A,B,found,numRanges,work);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void multTransA() {
+        for( int colsB : new int[]{1,5} ) {
+            checkMultTransA(RandomMatrices_DSCC.rectangle(20,15,60,-1,1,rand), colsB);
+            checkMultTransA(createUnbalanced(20,15), colsB);
+        }
+    }
+
+    private void checkMultTransA( DMatrixSparseCSC A , int colsB ) {
+        DMatrixRMaj B = RandomMatrices_DDRM.rectangle(A.numRows,colsB,-1,1,rand);
+        DMatrixRMaj expected = new DMatrixRMaj(A.numCols,colsB);
+        ImplSparseSparseMult_DSCC.multTransA(A,B,expected);
+
+        DMatrixRMaj found = RandomMatrices_DDRM.rectangle(A.numCols,colsB,-1,1,rand);
+        ImplSparseSparseMult_MT_DSCC.multTransA(A,B,found);
+        assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found, UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void multNumeric() {
+        for( int numRanges : new int[]{1,2,3,7,50} ) {
+            checkMultNumeric(RandomMatrices_DSCC.rectangle(20,15,60,-1,1,rand),
+                    RandomMatrices_DSCC.rectangle(15,12,40,-1,1,rand),numRanges);
+            checkMultNumeric(RandomMatrices_DSCC.rectangle(20,15,60,-1,1,rand),
+                    createUnbalanced(15,12),numRanges);
+        }
+    }
+
+    private void checkMultNumeric( DMatrixSparseCSC A , DMatrixSparseCSC B , int numRanges ) {
+        DMatrixSparseCSC expected = new DMatrixSparseCSC(1,1,0);
+        ImplSparseSparseMult_DSCC.multSymbolic(A,B,expected,null);
+        ImplSparseSparseMult_DSCC.multNumeric(A,B,expected,null);
+
+        DMatrixSparseCSC found = new DMatrixSparseCSC(1,1,0);
+        ImplSparseSparseMult_DSCC.multSymbolic(A,B,found,null);
+        ImplSparseSparseMult_MT_DSCC.multNumeric(A,B,found,numRanges,null);
+        assertTrue(MatrixFeatures_DSCC.isEquals(expected,found,UtilEjml.TEST_F64));
+
+        // work space with garbage in it
+        double work[] = new double[numRanges*A.numRows];
+        for (int i = 0; i < work.length; i++) {
+            work[i] = rand.nextDouble();
+        }
+        ImplSparseSparseMult_MT_DSCC.multNumeric(A,B,found,numRanges,work);
+        assertTrue(MatrixFeatures_DSCC.isEquals(expected,found,UtilEjml.TEST_F64));
+    }
+
+    @Test
+    public void partitionColumns() {
+        DMatrixSparseCSC A = createUnbalanced(20,15);
+
+        for( int numRanges = 1; numRanges <= 20; numRanges++ ) {
+            int ranges[] = ImplSparseSparseMult_MT_DSCC.partitionColumns(A,numRanges);
+
+            assertTrue(ranges.length >= 2 && ranges.length <= Math.min(numRanges,A.numCols)+1);
+            assertEquals(0,ranges[0]);
+            assertEquals(A.numCols,ranges[ranges.length-1]);
+            for (int i = 1; i < ranges.length; i++) {
+                assertTrue(ranges[i] > ranges[i-1]);
+            }
+        }
+
+        // the dense column should be in a range by itself
+        int ranges[] = ImplSparseSparseMult_MT_DSCC.partitionColumns(A,3);
+        assertEquals(4,ranges.length);
+        assertEquals(1,ranges[1]);
+
+        // evenly spread out elements should be split evenly
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(4,8,8);
+        for (int col = 0; col < 8; col++) {
+            T.addItem(col%4,col,1);
+        }
+        A = ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+        ranges = ImplSparseSparseMult_MT_DSCC.partitionColumns(A,4);
+        assertEquals(5,ranges.length);
+        for (int i = 0; i < ranges.length; i++) {
+            assertEquals(i*2,ranges[i]);
+        }
+    }
+
+    /**
+     * Matrix where the first column is dense and the others have one element
+     */
+    private DMatrixSparseCSC createUnbalanced( int numRows , int numCols ) {
+        DMatrixSparseTriplet T = new DMatrixSparseTriplet(numRows,numCols,numRows+numCols);
+        for (int row = 0; row < numRows; row++) {
+            T.addItem(row,0,rand.nextDouble()-0.5);
+        }
+        for (int col = 1; col < numCols; col++) {
+            T.addItem(rand.nextInt(numRows),col,rand.nextDouble()-0.5);
+        }
+        return ConvertDMatrixSparse.convert(T,(DMatrixSparseCSC)null);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2009-2017, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Efficient Java Matrix Library (EJML).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ejml.sparse.csc.mult;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.data.DMatrixSparseCSC;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.ops.ConvertDMatrixSparse;
+import org.ejml.sparse.csc.CommonOps_DSCC;
+import org.ejml.sparse.csc.RandomMatrices_DSCC;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSymmetricProduct_DSCC {
+
+    Random rand = new Random(234);
+
+    @Test
+    public void inner() {
+        for( boolean lower : new boolean[]{true,false}) {
+            for( int numRanges : new int[]{-1,1,3,20}) {
+                check(RandomMatrices_DSCC.rectangle(12,8,30,-1,1,rand),true,lower,numRanges);
+                check(RandomMatrices_DSCC.rectangle(5,9,30,-1,1,rand),true,lower,numRanges);
+                check(unsorted(RandomMatrices_DSCC.rectangle(12,8,30,-1,1,rand)),true,lower,numRanges);
+                check(RandomMatrices_DSCC.rectangle(6,4,0,-1,1,rand),true,lower,numRanges);
+            }
+        }
+    }
+
+    @Test
+    public void outer() {
+        for( boolean lower : new boolean[]{true,false}) {
+            for( int numRanges : new int[]{-1,1,3,20}) {
+                check(RandomMatrices_DSCC.rectangle(12,8,30,-1,1,rand),false,lower,numRanges);
+                check(RandomMatrices_DSCC.rectangle(5,9,30,-1,1,rand),false,lower,numRanges);
+                check(unsorted(RandomMatrices_DSCC.rectangle(12,8,30,-1,1,rand)),false,lower,numRanges);
+                check(RandomMatrices_DSCC.rectangle(6,4,0,-1,1,rand),false,lower,numRanges);
+            }
+        }
+    }
+
+    private void check( DMatrixSparseCSC A , boolean inner , boolean lower , int numRanges ) {
+        SymmetricProduct_DSCC alg = new SymmetricProduct_DSCC(lower);
+        alg.numRanges = numRanges;
+
+        // start with the wrong shape
+        DMatrixSparseCSC C = RandomMatrices_DSCC.rectangle(3,2,5,-1,1,rand);
+        if( inner )
+            alg.innerSymbolic(A,C);
+        else
+            alg.outerSymbolic(A,C);
+        assertTrue(CommonOps_DSCC.checkIndicesSorted(C));
+
+        // compute the values several times with different values and the same structure
+        for (int trial = 0; trial < 3; trial++) {
+            for (int i = 0; i < A.nz_length; i++) {
+                A.nz_values[i] = rand.nextDouble()-0.5;
+            }
+            if( inner )
+                alg.innerNumeric(A,C);
+            else
+                alg.outerNumeric(A,C);
+
+            DMatrixRMaj denseA = ConvertDMatrixSparse.convert(A,(DMatrixRMaj)null);
+            int N = inner ? A.numCols : A.numRows;
+            DMatrixRMaj expected = new DMatrixRMaj(N,N);
+            if( inner )
+                CommonOps_DDRM.multInner(denseA,expected);
+            else
+                CommonOps_DDRM.multOuter(denseA,expected);
+
+            assertEquals(N,C.numRows);
+            assertEquals(N,C.numCols);
+            for (int row = 0; row < N; row++) {
+                for (int col = 0; col < N; col++) {
+                    if( lower ? row >= col : row <= col )
+                        assertEquals(expected.get(row,col),C.get(row,col),UtilEjml.TEST_F64);
+                    else
+                        assertEquals(0,C.get(row,col),0);
+                }
+            }
+        }
+    }
+
+    /**
+     * The row structure should be sorted by column and reference the correct elements
+     */
+    @Test
+    public void findRowStructure() {
+        DMatrixSparseCSC A = unsorted(RandomMatrices_DSCC.rectangle(12,8,30,-1,1,rand));
+
+        SymmetricProduct_DSCC alg = new SymmetricProduct_DSCC(true);
+        alg.findRowStructure(A);
+
+        int total = 0;
+        for (int row = 0; row < A.numRows; row++) {
+            for (int q = alg.rowIdx[row]; q < alg.rowIdx[row+1]; q++) {
+                int p = alg.rowNz[q];
+                assertEquals(row,A.nz_rows[p]);
+                assertEquals(q,alg.rowPos[p]);
+                assertTrue(p >= A.col_idx[alg.rowCol[q]] && p < A.col_idx[alg.rowCol[q]+1]);
+                if( q > alg.rowIdx[row] )
+                    assertTrue(alg.rowCol[q] > alg.rowCol[q-1]);
+                total++;
+            }
+        }
+        assertEquals(A.nz_length,total);
+    }
+
+    /**
+     * Reverses the order of the rows in each column
+     */
+    private static DMatrixSparseCSC unsorted( DMatrixSparseCSC A ) {
+        for (int col = 0; col < A.numCols; col++) {
+            int idx0 = A.col_idx[col], idx1 = A.col_idx[col+1]-1;
+            while( idx0 < idx1 ) {
+                int row = A.nz_rows[idx0];
+                A.nz_rows[idx0] = A.nz_rows[idx1];
+                A.nz_rows[idx1] = row;
+                double value = A.nz_values[idx0];
+                A.nz_values[idx0] = A.nz_values[idx1];
+                A.nz_values[idx1] = value;
+                idx0++; idx1--;
+            }
+        }
+        A.indicesSorted = false;
+        return A;
+    }
+}
@@ -1320,7 +1320,7 @@ public abstract class SimpleBase <T extends SimpleBase> implements Serializable
 
     /**
      * <p>
-     * Saves this matrix to a file as a serialized binary object.
+     * Saves this matrix to a file in EJML's binary format.
      * </p>
      *
      * @see MatrixIO#saveBin( DMatrix, String)
@@ -1336,7 +1336,7 @@ public abstract class SimpleBase <T extends SimpleBase> implements Serializable
 
     /**
      * <p>
-     * Loads a new matrix from a serialized binary file.
+     * Loads a new matrix from a file in EJML's binary format.
      * </p>
      *
      * @see MatrixIO#loadBin(String)